@@ -316,6 +316,9 @@ public class ConfigurationEngineDefaults implements Serializable
         private Integer threadPoolRouteExecCapacity;
         private Integer threadPoolOutboundCapacity;
 
+        private boolean isThreadPoolNamedWindowConsumer;
+        private int threadPoolNamedWindowConsumerNumThreads;
+
         private boolean engineFairlock;
 
         /**
@@ -347,6 +350,9 @@ public class ConfigurationEngineDefaults implements Serializable
             threadPoolInboundNumThreads = 2;
             threadPoolRouteExecNumThreads = 2;
             threadPoolOutboundNumThreads = 2;
+
+            isThreadPoolNamedWindowConsumer = false;
+            threadPoolNamedWindowConsumerNumThreads = 2;
         }
 
         /**
@@ -732,6 +738,47 @@ public class ConfigurationEngineDefaults implements Serializable
             this.threadPoolOutboundCapacity = capacity;
         }
 
+        /**
+         * Returns true for parallel named window consumer dispatch enabled, the default is false for not enabled.
+         * <p>
+         * When enabled, the consumers of a named window or table dispatch are partitioned across a fixed set of threads.
+         * Each consumer statement is always processed by the same thread so that per-consumer ordering is preserved,
+         * and the dispatch completes, by means of a barrier, before the next dispatch starts.
+         * </p>
+         * @return indicator whether parallel named window consumer dispatch is enabled
+         */
+        public boolean isThreadPoolNamedWindowConsumer()
+        {
+            return isThreadPoolNamedWindowConsumer;
+        }
+
+        /**
+         * Set to true for parallel named window consumer dispatch enabled, the default is false for not enabled.
+         * @param threadPoolNamedWindowConsumer indicator whether parallel named window consumer dispatch is enabled
+         */
+        public void setThreadPoolNamedWindowConsumer(boolean threadPoolNamedWindowConsumer)
+        {
+            isThreadPoolNamedWindowConsumer = threadPoolNamedWindowConsumer;
+        }
+
+        /**
+         * Returns the number of threads that named window consumer dispatches are partitioned across.
+         * @return number of threads
+         */
+        public int getThreadPoolNamedWindowConsumerNumThreads()
+        {
+            return threadPoolNamedWindowConsumerNumThreads;
+        }
+
+        /**
+         * Sets the number of threads that named window consumer dispatches are partitioned across.
+         * @param num number of threads
+         */
+        public void setThreadPoolNamedWindowConsumerNumThreads(int num)
+        {
+            this.threadPoolNamedWindowConsumerNumThreads = num;
+        }
+
         /**
          * Returns true if the engine-level lock is configured as a fair lock (default is false).
          * <p>
@@ -1252,6 +1299,8 @@ public class ConfigurationEngineDefaults implements Serializable
         
         private Long maxStates;
         private boolean maxStatesPreventStart = true;
+        private Long spillThresholdBytes;
+        private String spillDirectory;
 
         /**
          * Returns the maximum number of states
@@ -1286,6 +1335,40 @@ public class ConfigurationEngineDefaults implements Serializable
         public void setMaxStatesPreventStart(boolean maxStatesPreventStart) {
             this.maxStatesPreventStart = maxStatesPreventStart;
         }
+
+        /**
+         * Returns the estimated number of bytes of partition state that a partitioned match-recognize statement
+         * may hold in memory before it spills idle partitions to disk, or null (the default) to keep all partition state in memory.
+         * @return threshold in bytes or null if not spilling
+         */
+        public Long getSpillThresholdBytes() {
+            return spillThresholdBytes;
+        }
+
+        /**
+         * Sets the estimated number of bytes of partition state that a partitioned match-recognize statement
+         * may hold in memory before it spills idle partitions to disk, or null (the default) to keep all partition state in memory.
+         * @param spillThresholdBytes threshold in bytes or null if not spilling
+         */
+        public void setSpillThresholdBytes(Long spillThresholdBytes) {
+            this.spillThresholdBytes = spillThresholdBytes;
+        }
+
+        /**
+         * Returns the directory for spilled partition state, or null (the default) for the system temporary directory.
+         * @return directory name
+         */
+        public String getSpillDirectory() {
+            return spillDirectory;
+        }
+
+        /**
+         * Sets the directory for spilled partition state, or null (the default) for the system temporary directory.
+         * @param spillDirectory directory name
+         */
+        public void setSpillDirectory(String spillDirectory) {
+            this.spillDirectory = spillDirectory;
+        }
     }
 
     /**
@@ -1426,6 +1509,7 @@ public class ConfigurationEngineDefaults implements Serializable
         private boolean selfSubselectPreeval;
         private boolean extendedAggregation;
         private boolean duckTyping;
+        private boolean commonSubexpressionElimination;
         private MathContext mathContext;
         private TimeZone timeZone;
 
@@ -1439,6 +1523,7 @@ public class ConfigurationEngineDefaults implements Serializable
             udfCache = true;
             selfSubselectPreeval = true;
             extendedAggregation = true;
+            commonSubexpressionElimination = false;
             timeZone = TimeZone.getDefault();
         }
 
@@ -1569,6 +1654,26 @@ public class ConfigurationEngineDefaults implements Serializable
             this.duckTyping = duckTyping;
         }
 
+        /**
+         * Returns true to evaluate identical sub-expressions that occur in multiple clauses
+         * of the same statement only once per event, or false (the default) to evaluate each occurrence.
+         * @return indicator
+         */
+        public boolean isCommonSubexpressionElimination()
+        {
+            return commonSubexpressionElimination;
+        }
+
+        /**
+         * Set to true to evaluate identical sub-expressions that occur in multiple clauses
+         * of the same statement only once per event.
+         * @param commonSubexpressionElimination indicator
+         */
+        public void setCommonSubexpressionElimination(boolean commonSubexpressionElimination)
+        {
+            this.commonSubexpressionElimination = commonSubexpressionElimination;
+        }
+
         /**
          * Returns the math context for big decimal operations, or null to leave the math context undefined.
          * @return math context or null
@@ -1615,6 +1720,9 @@ public class ConfigurationEngineDefaults implements Serializable
         private FilterServiceProfile filterServiceProfile = FilterServiceProfile.READMOSTLY;
         private int filterServiceMaxFilterWidth = 16;
         private int declaredExprValueCacheSize = 1;
+        private String contextStateDirectory;
+        private String contextHibernateDirectory;
+        private InvocationBackend invocationBackend = InvocationBackend.CGLIB;
 
         private static final long serialVersionUID = 0L;
 
@@ -1763,6 +1871,62 @@ public class ConfigurationEngineDefaults implements Serializable
         public void setDeclaredExprValueCacheSize(int declaredExprValueCacheSize) {
             this.declaredExprValueCacheSize = declaredExprValueCacheSize;
         }
+
+        /**
+         * Returns the directory that keeps the context partition state of contexts, or null (the default) to not keep context partition state.
+         * <p>
+         * When set, the engine recreates the context partitions of a context from this directory when the same context
+         * is created again, for example after a restart of the engine.
+         * </p>
+         * @return directory name
+         */
+        public String getContextStateDirectory() {
+            return contextStateDirectory;
+        }
+
+        /**
+         * Sets the directory that keeps the context partition state of contexts, or null (the default) to not keep context partition state.
+         * <p>
+         * When set, the engine recreates the context partitions of a context from this directory when the same context
+         * is created again, for example after a restart of the engine.
+         * </p>
+         * @param contextStateDirectory directory name
+         */
+        public void setContextStateDirectory(String contextStateDirectory) {
+            this.contextStateDirectory = contextStateDirectory;
+        }
+
+        /**
+         * Returns the directory for the state of hibernated context partitions, or null (the default) for the system temporary directory.
+         * @return directory name
+         */
+        public String getContextHibernateDirectory() {
+            return contextHibernateDirectory;
+        }
+
+        /**
+         * Sets the directory for the state of hibernated context partitions, or null (the default) for the system temporary directory.
+         * @param contextHibernateDirectory directory name
+         */
+        public void setContextHibernateDirectory(String contextHibernateDirectory) {
+            this.contextHibernateDirectory = contextHibernateDirectory;
+        }
+
+        /**
+         * Returns the backend for invoking single-row functions, subscriber update methods and event bean getter methods.
+         * @return backend
+         */
+        public InvocationBackend getInvocationBackend() {
+            return invocationBackend;
+        }
+
+        /**
+         * Sets the backend for invoking single-row functions, subscriber update methods and event bean getter methods.
+         * @param invocationBackend backend
+         */
+        public void setInvocationBackend(InvocationBackend invocationBackend) {
+            this.invocationBackend = invocationBackend;
+        }
     }
 
     /**
@@ -1797,6 +1961,22 @@ public class ConfigurationEngineDefaults implements Serializable
         READWRITE
     }
 
+    /**
+     * Backend for invoking methods provided by the application.
+     */
+    public enum InvocationBackend
+    {
+        /**
+         * CGLib fast class and fast method invocation, the default.
+         */
+        CGLIB,
+
+        /**
+         * Method handles, and for event bean getter methods lambda metafactory-generated functions.
+         */
+        METHODHANDLE
+    }
+
     /**
      * Time source type.
      */
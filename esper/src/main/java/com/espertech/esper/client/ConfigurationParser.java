@@ -1179,6 +1179,12 @@ class ConfigurationParser {
                 configuration.getEngineDefaults().getThreading().setThreadPoolRouteExecNumThreads(result.getNumThreads());
                 configuration.getEngineDefaults().getThreading().setThreadPoolRouteExecCapacity(result.getCapacity());
             }
+            if (subElement.getNodeName().equals("threadpool-namedwindow-consumer"))
+            {
+                ThreadPoolConfig result = parseThreadPoolConfig(subElement);
+                configuration.getEngineDefaults().getThreading().setThreadPoolNamedWindowConsumer(result.isEnabled());
+                configuration.getEngineDefaults().getThreading().setThreadPoolNamedWindowConsumerNumThreads(result.getNumThreads());
+            }
         }
     }
 
@@ -1316,6 +1322,12 @@ class ConfigurationParser {
                     configuration.getEngineDefaults().getMatchRecognize().setMaxStatesPreventStart(Boolean.parseBoolean(preventText));
                 }
             }
+            if (subElement.getNodeName().equals("spill"))
+            {
+                String thresholdText = getRequiredAttribute(subElement, "threshold-bytes");
+                configuration.getEngineDefaults().getMatchRecognize().setSpillThresholdBytes(Long.parseLong(thresholdText));
+                configuration.getEngineDefaults().getMatchRecognize().setSpillDirectory(getOptionalAttribute(subElement, "directory"));
+            }
         }
     }
 
@@ -1501,6 +1513,12 @@ class ConfigurationParser {
             boolean duckTyping = Boolean.parseBoolean(duckTypingStr);
             configuration.getEngineDefaults().getExpression().setDuckTyping(duckTyping);
         }
+        String commonSubexprStr = getOptionalAttribute(parentElement, "common-subexpr");
+        if (commonSubexprStr != null)
+        {
+            boolean commonSubexpr = Boolean.parseBoolean(commonSubexprStr);
+            configuration.getEngineDefaults().getExpression().setCommonSubexpressionElimination(commonSubexpr);
+        }
         String mathContextStr = getOptionalAttribute(parentElement, "math-context");
         if (mathContextStr != null)
         {
@@ -1569,6 +1587,22 @@ class ConfigurationParser {
         {
             configuration.getEngineDefaults().getExecution().setDeclaredExprValueCacheSize(Integer.parseInt(declExprValueCacheSizeStr));
         }
+        String contextStateDirectoryStr = getOptionalAttribute(parentElement, "context-state-directory");
+        if (contextStateDirectoryStr != null)
+        {
+            configuration.getEngineDefaults().getExecution().setContextStateDirectory(contextStateDirectoryStr);
+        }
+        String contextHibernateDirectoryStr = getOptionalAttribute(parentElement, "context-hibernate-directory");
+        if (contextHibernateDirectoryStr != null)
+        {
+            configuration.getEngineDefaults().getExecution().setContextHibernateDirectory(contextHibernateDirectoryStr);
+        }
+        String invocationBackendStr = getOptionalAttribute(parentElement, "invocation-backend");
+        if (invocationBackendStr != null)
+        {
+            ConfigurationEngineDefaults.InvocationBackend backend = ConfigurationEngineDefaults.InvocationBackend.valueOf(invocationBackendStr.toUpperCase());
+            configuration.getEngineDefaults().getExecution().setInvocationBackend(backend);
+        }
     }
 
     private static void handleDefaultScriptConfig(Configuration configuration, Element parentElement)
@@ -14,6 +14,7 @@ import com.espertech.esper.client.dataflow.EPDataFlowRuntime;
 import com.espertech.esper.client.soda.EPStatementObjectModel;
 import com.espertech.esper.client.util.EventRenderer;
 
+import java.io.File;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
@@ -393,6 +394,33 @@ public interface EPRuntime
      */
     public EPOnDemandQueryResult executeQuery(EPOnDemandPreparedQueryParameterized parameterizedQuery, ContextPartitionSelector[] contextPartitionSelectors);
 
+    /**
+     * Writes the events held by a named window, or the rows held by a table, to a snapshot file.
+     * <p>
+     * The snapshot file uses a compact binary format. Named windows and tables declared with a context are not supported.
+     * For tables, aggregation columns must be non-access aggregations.
+     * </p>
+     * @param namedWindowOrTableName name of the named window or table
+     * @param file file to write, replaced if it exists
+     * @return number of events or rows written
+     * @throws EPException if the named window or table cannot be found, is not supported or the write fails
+     */
+    public int writeSnapshot(String namedWindowOrTableName, File file) throws EPException;
+
+    /**
+     * Restores the events of a named window, or the rows of a table, from a snapshot file previously written by {@link #writeSnapshot(String, java.io.File)}.
+     * <p>
+     * Restored events are placed into the named window's data window and indexes directly: insert-into statements are
+     * not executed, and consuming statements and listeners are not notified. A named window must not have consuming
+     * statements and a table must be empty when restoring. Time-based data windows treat restored events as arriving at the time of the restore.
+     * </p>
+     * @param namedWindowOrTableName name of the named window or table
+     * @param file file to read
+     * @return number of events or rows restored
+     * @throws EPException if the named window or table cannot be found, is not supported, the file does not match or the read fails
+     */
+    public int restoreSnapshot(String namedWindowOrTableName, File file) throws EPException;
+
     /**
      * Returns the event renderer for events generated by this runtime.
      * @return event renderer
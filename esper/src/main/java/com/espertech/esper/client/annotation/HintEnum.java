@@ -107,7 +107,66 @@ public enum HintEnum
     /**
      * For use with output rate limiting to enable certain optimization that may however change output.
      */
-    ENABLE_OUTPUTLIMIT_OPT("ENABLE_OUTPUTLIMIT_OPT", false, false, false);
+    ENABLE_OUTPUTLIMIT_OPT("ENABLE_OUTPUTLIMIT_OPT", false, false, false),
+
+    /**
+     * For use with create-table statements only, to keep the rows of a table that has primary key columns outside of the Java heap.
+     */
+    OFF_HEAP("OFF_HEAP", false, false, false),
+
+    /**
+     * For use with on-merge statements on named windows, to process a batch of triggering events that arrives together
+     * with a single dispatch of the named window changes.
+     */
+    ENABLE_MERGE_BATCH("ENABLE_MERGE_BATCH", false, false, false),
+
+    /**
+     * For use with patterns, to index the active instances of a filter that correlates to an earlier pattern event
+     * by equality, such as {@code b=Fill(orderId=a.id)}, by the correlated value.
+     */
+    ENABLE_PATTERN_CORRELATION_INDEX("ENABLE_PATTERN_CORRELATION_INDEX", false, false, false),
+
+    /**
+     * For use with patterns, to keep the active sub-expression instances of a top-level followed-by operator
+     * as compact records when the sub-expressions after the first are correlated filters.
+     */
+    ENABLE_PATTERN_COMPACT_STATE("ENABLE_PATTERN_COMPACT_STATE", false, false, false),
+
+    /**
+     * For use with patterns, the granularity in seconds for timer:within guards and timer:interval observers,
+     * the timeouts of which are rounded up to the granularity and fire in a batch per granularity tick.
+     */
+    PATTERN_TIMER_GRANULARITY("PATTERN_TIMER_GRANULARITY", true, true, false),
+
+    /**
+     * For use with create-context statements declaring a keyed segmented context, to start a statement for a partition
+     * upon the first event for the partition that the statement consumes rather than upon partition creation.
+     */
+    LAZY_CONTEXT_PARTITION("LAZY_CONTEXT_PARTITION", false, false, false),
+
+    /**
+     * For use with create-context statements declaring a keyed segmented context, the idle period in seconds
+     * after which the state of a partition is written to disk and its statements are stopped until the next event for the partition.
+     */
+    HIBERNATE_IDLE_CONTEXT_PARTITION("HIBERNATE_IDLE_CONTEXT_PARTITION", true, true, false),
+
+    /**
+     * For use with statements declared with a context, to reduce the memory held per context partition
+     * by having the context partitions of the statement share the statement lock instead of allocating a lock per context partition.
+     */
+    REDUCE_CONTEXT_PARTITION_MEMORY("REDUCE_CONTEXT_PARTITION_MEMORY", false, false, false),
+
+    /**
+     * For use with fire-and-forget queries against a named window declared with a context, to snapshot and filter
+     * the context partitions in parallel.
+     */
+    PARALLEL_FIRE_AND_FORGET("PARALLEL_FIRE_AND_FORGET", false, false, false),
+
+    /**
+     * For use with output snapshot over grouped aggregation, to output only the rows of the groups that were
+     * updated since the last output rather than the rows of all groups.
+     */
+    SNAPSHOT_CHANGED_GROUPS("SNAPSHOT_CHANGED_GROUPS", false, false, false);
 
     private final String value;
     private final boolean acceptsParameters;
@@ -0,0 +1,97 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.client.context;
+
+import java.util.Map;
+
+/**
+ * Estimated memory footprint of a single context partition.
+ * <p>
+ * The footprint counts the objects that are reachable from the context partition's statement instances
+ * and that are not shared with other context partitions or held at statement or engine level.
+ * Object sizes are estimated assuming a 64-bit virtual machine with compressed references.
+ * </p>
+ */
+public class ContextPartitionFootprint
+{
+    private final int agentInstanceId;
+    private final long numObjects;
+    private final long bytes;
+    private final Map<String, Long> bytesPerStatement;
+    private final Map<String, Long> bytesPerClass;
+
+    /**
+     * Ctor.
+     * @param agentInstanceId context partition id
+     * @param numObjects number of objects counted
+     * @param bytes estimated number of bytes
+     * @param bytesPerStatement estimated number of bytes per statement name
+     * @param bytesPerClass estimated number of bytes per class name, largest first
+     */
+    public ContextPartitionFootprint(int agentInstanceId, long numObjects, long bytes, Map<String, Long> bytesPerStatement, Map<String, Long> bytesPerClass) {
+        this.agentInstanceId = agentInstanceId;
+        this.numObjects = numObjects;
+        this.bytes = bytes;
+        this.bytesPerStatement = bytesPerStatement;
+        this.bytesPerClass = bytesPerClass;
+    }
+
+    /**
+     * Returns the context partition id.
+     * @return id
+     */
+    public int getAgentInstanceId() {
+        return agentInstanceId;
+    }
+
+    /**
+     * Returns the number of objects counted.
+     * @return object count
+     */
+    public long getNumObjects() {
+        return numObjects;
+    }
+
+    /**
+     * Returns the estimated number of bytes held by the context partition,
+     * including the context partition's own bookkeeping such as the partition key and context properties.
+     * @return bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the estimated number of bytes held by each statement's instance in the context partition.
+     * @return map of statement name and bytes
+     */
+    public Map<String, Long> getBytesPerStatement() {
+        return bytesPerStatement;
+    }
+
+    /**
+     * Returns the estimated number of bytes per class, ordered by bytes descending.
+     * @return map of class name and bytes
+     */
+    public Map<String, Long> getBytesPerClass() {
+        return bytesPerClass;
+    }
+
+    public String toString() {
+        return "ContextPartitionFootprint{" +
+                "agentInstanceId=" + agentInstanceId +
+                ", numObjects=" + numObjects +
+                ", bytes=" + bytes +
+                ", bytesPerStatement=" + bytesPerStatement +
+                '}';
+    }
+}
@@ -153,4 +153,18 @@ public interface EPContextPartitionAdmin {
      * @throws IllegalArgumentException if a context by that name was not declared
      */
     public ContextPartitionDescriptor getDescriptor(String contextName, int agentInstanceId);
+
+    /**
+     * Returns the estimated memory footprint of a given context partition.
+     * <p>
+     * The estimate counts the objects held by the context partition's statement instances that are not shared
+     * with other context partitions. Obtaining the estimate walks the object graph of the context partition
+     * and is intended for diagnostic use.
+     * </p>
+     * @param contextName context name
+     * @param agentInstanceId the context partition id number
+     * @return footprint or null if the context partition is not found
+     * @throws IllegalArgumentException if a context by that name was not declared
+     */
+    public ContextPartitionFootprint getFootprint(String contextName, int agentInstanceId);
 }
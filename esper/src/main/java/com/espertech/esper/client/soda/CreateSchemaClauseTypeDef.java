@@ -31,6 +31,11 @@ public enum CreateSchemaClauseTypeDef implements Serializable
      */
     OBJECTARRAY,
 
+    /**
+     * Binary underlying type, a byte buffer holding a record of primitive values.
+     */
+    BINARY,
+
     /**
      * Undefined (system default) underlying type.
      */
@@ -50,5 +55,8 @@ public enum CreateSchemaClauseTypeDef implements Serializable
         else if (this == OBJECTARRAY) {
             writer.write(" objectarray");
         }
+        else if (this == BINARY) {
+            writer.write(" binary");
+        }
     }
 }
@@ -13,6 +13,10 @@ package com.espertech.esper.client.util;
 
 import com.espertech.esper.client.EventBean;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 /**
  * Renderer for an event into the JSON textual format.
  * <p>
@@ -38,4 +42,55 @@ public interface JSONEventRenderer
      */
     public String render(EventBean theEvent);
 
+    /**
+     * Render a given event in the JSON format, writing the same text as {@link #render(EventBean)} to the appendable.
+     * @param theEvent the event to render
+     * @param appendable to write to
+     * @throws IOException if the appendable throws
+     */
+    public void render(EventBean theEvent, Appendable appendable) throws IOException;
+
+    /**
+     * Render a given event in the JSON format, writing the same text as {@link #render(EventBean)} encoded in UTF-8 to the output stream.
+     * @param theEvent the event to render
+     * @param outputStream to write to, not flushed or closed
+     * @throws IOException if the output stream throws
+     */
+    public void render(EventBean theEvent, OutputStream outputStream) throws IOException;
+
+    /**
+     * Render a given event in the JSON format, writing the same text as {@link #render(EventBean)} encoded in UTF-8 into the buffer
+     * starting at the buffer's position.
+     * @param theEvent the event to render
+     * @param byteBuffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have sufficient space remaining
+     */
+    public void render(EventBean theEvent, ByteBuffer byteBuffer);
+
+    /**
+     * Render events in the JSON format as a JSON array of the events each rendered as by {@link #render(EventBean)}.
+     * @param events the events to render
+     * @param appendable to write to
+     * @throws IOException if the appendable throws
+     */
+    public void render(EventBean[] events, Appendable appendable) throws IOException;
+
+    /**
+     * Render events in the JSON format as a JSON array of the events each rendered as by {@link #render(EventBean)},
+     * encoded in UTF-8.
+     * @param events the events to render
+     * @param outputStream to write to, not flushed or closed
+     * @throws IOException if the output stream throws
+     */
+    public void render(EventBean[] events, OutputStream outputStream) throws IOException;
+
+    /**
+     * Render events in the JSON format as a JSON array of the events each rendered as by {@link #render(EventBean)},
+     * encoded in UTF-8 into the buffer starting at the buffer's position.
+     * @param events the events to render
+     * @param byteBuffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have sufficient space remaining
+     */
+    public void render(EventBean[] events, ByteBuffer byteBuffer);
+
 }
@@ -13,6 +13,10 @@ package com.espertech.esper.client.util;
 
 import com.espertech.esper.client.EventBean;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 /**
  * Renderer for an event into the XML textual format.
  * <p>
@@ -30,4 +34,61 @@ public interface XMLEventRenderer
      * @return XML formatted text
      */
     public String render(String rootElementName, EventBean theEvent);
+
+    /**
+     * Render a given event in the XML format, writing the same text as {@link #render(String, EventBean)} to the appendable.
+     * @param rootElementName the name of the root element, may include namespace information
+     * @param theEvent the event to render
+     * @param appendable to write to
+     * @throws IOException if the appendable throws
+     */
+    public void render(String rootElementName, EventBean theEvent, Appendable appendable) throws IOException;
+
+    /**
+     * Render a given event in the XML format, writing the same text as {@link #render(String, EventBean)} encoded in UTF-8 to the output stream.
+     * @param rootElementName the name of the root element, may include namespace information
+     * @param theEvent the event to render
+     * @param outputStream to write to, not flushed or closed
+     * @throws IOException if the output stream throws
+     */
+    public void render(String rootElementName, EventBean theEvent, OutputStream outputStream) throws IOException;
+
+    /**
+     * Render a given event in the XML format, writing the same text as {@link #render(String, EventBean)} encoded in UTF-8 into the buffer
+     * starting at the buffer's position.
+     * @param rootElementName the name of the root element, may include namespace information
+     * @param theEvent the event to render
+     * @param byteBuffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have sufficient space remaining
+     */
+    public void render(String rootElementName, EventBean theEvent, ByteBuffer byteBuffer);
+
+    /**
+     * Render events in the XML format, writing each event as by {@link #render(String, EventBean)} followed by a line separator.
+     * @param rootElementName the name of the root element, may include namespace information
+     * @param events the events to render
+     * @param appendable to write to
+     * @throws IOException if the appendable throws
+     */
+    public void render(String rootElementName, EventBean[] events, Appendable appendable) throws IOException;
+
+    /**
+     * Render events in the XML format, writing each event as by {@link #render(String, EventBean)} followed by a line separator,
+     * encoded in UTF-8.
+     * @param rootElementName the name of the root element, may include namespace information
+     * @param events the events to render
+     * @param outputStream to write to, not flushed or closed
+     * @throws IOException if the output stream throws
+     */
+    public void render(String rootElementName, EventBean[] events, OutputStream outputStream) throws IOException;
+
+    /**
+     * Render events in the XML format, writing each event as by {@link #render(String, EventBean)} followed by a line separator,
+     * encoded in UTF-8 into the buffer starting at the buffer's position.
+     * @param rootElementName the name of the root element, may include namespace information
+     * @param events the events to render
+     * @param byteBuffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have sufficient space remaining
+     */
+    public void render(String rootElementName, EventBean[] events, ByteBuffer byteBuffer);
 }
@@ -0,0 +1,450 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.collection;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of non-negative int values.
+ * <p>
+ * Values are partitioned into chunks by their upper 16 bits. Each chunk holds the lower 16 bits either
+ * as a sorted array of chars, when the chunk is sparse, or as a 1024-word bit set, when the chunk is dense.
+ * A chunk is converted between the two representations when its cardinality crosses {@link #ARRAY_MAX_SIZE}.
+ * </p>
+ * <p>
+ * Intersection and union produce new bitmaps and leave the operands unchanged.
+ * </p>
+ */
+public class CompressedBitmap
+{
+    /**
+     * Max number of values kept in the array representation of a chunk.
+     */
+    protected final static int ARRAY_MAX_SIZE = 4096;
+
+    private final static int BITSET_WORDS = 1024;
+
+    private Chunk[] chunks;
+    private int numChunks;
+
+    /**
+     * Ctor.
+     */
+    public CompressedBitmap() {
+        chunks = new Chunk[4];
+    }
+
+    private CompressedBitmap(Chunk[] chunks, int numChunks) {
+        this.chunks = chunks;
+        this.numChunks = numChunks;
+    }
+
+    /**
+     * Add a value.
+     * @param value to add, must be non-negative
+     * @return true if added, false if already present
+     */
+    public boolean add(int value)
+    {
+        int high = value >>> 16;
+        int index = findChunk(high);
+        Chunk chunk;
+        if (index < 0) {
+            chunk = new Chunk(high);
+            insertChunk(-(index + 1), chunk);
+        }
+        else {
+            chunk = chunks[index];
+        }
+        return chunk.add((char) value);
+    }
+
+    /**
+     * Remove a value.
+     * @param value to remove
+     * @return true if removed, false if not present
+     */
+    public boolean remove(int value)
+    {
+        int index = findChunk(value >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        Chunk chunk = chunks[index];
+        boolean removed = chunk.remove((char) value);
+        if (chunk.cardinality == 0) {
+            System.arraycopy(chunks, index + 1, chunks, index, numChunks - index - 1);
+            chunks[--numChunks] = null;
+        }
+        return removed;
+    }
+
+    public boolean contains(int value)
+    {
+        int index = findChunk(value >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        return chunks[index].contains((char) value);
+    }
+
+    public boolean isEmpty() {
+        return numChunks == 0;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < numChunks; i++) {
+            count += chunks[i].cardinality;
+        }
+        return count;
+    }
+
+    public void clear() {
+        chunks = new Chunk[4];
+        numChunks = 0;
+    }
+
+    /**
+     * Returns a new bitmap that holds the values present in both this and the other bitmap.
+     * @param other to intersect with
+     * @return intersection
+     */
+    public CompressedBitmap and(CompressedBitmap other)
+    {
+        Chunk[] result = new Chunk[Math.min(numChunks, other.numChunks)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < numChunks && j < other.numChunks) {
+            Chunk left = chunks[i];
+            Chunk right = other.chunks[j];
+            if (left.key < right.key) {
+                i++;
+            }
+            else if (left.key > right.key) {
+                j++;
+            }
+            else {
+                Chunk intersect = left.and(right);
+                if (intersect.cardinality > 0) {
+                    result[count++] = intersect;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new CompressedBitmap(count == 0 ? new Chunk[4] : result, count);
+    }
+
+    /**
+     * Returns a new bitmap that holds the values present in either this or the other bitmap.
+     * @param other to unite with
+     * @return union
+     */
+    public CompressedBitmap or(CompressedBitmap other)
+    {
+        Chunk[] result = new Chunk[Math.max(4, numChunks + other.numChunks)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < numChunks || j < other.numChunks) {
+            if (j == other.numChunks || (i < numChunks && chunks[i].key < other.chunks[j].key)) {
+                result[count++] = chunks[i++].copy();
+            }
+            else if (i == numChunks || chunks[i].key > other.chunks[j].key) {
+                result[count++] = other.chunks[j++].copy();
+            }
+            else {
+                result[count++] = chunks[i++].or(other.chunks[j++]);
+            }
+        }
+        return new CompressedBitmap(result, count);
+    }
+
+    /**
+     * Returns the values in ascending order.
+     * @return values
+     */
+    public int[] toArray()
+    {
+        int[] result = new int[cardinality()];
+        int count = 0;
+        for (int i = 0; i < numChunks; i++) {
+            count = chunks[i].fill(result, count);
+        }
+        return result;
+    }
+
+    public String toString() {
+        return "CompressedBitmap" + Arrays.toString(toArray());
+    }
+
+    private int findChunk(int key) {
+        int low = 0;
+        int high = numChunks - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = chunks[mid].key;
+            if (midKey < key) {
+                low = mid + 1;
+            }
+            else if (midKey > key) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertChunk(int index, Chunk chunk) {
+        if (numChunks == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        System.arraycopy(chunks, index, chunks, index + 1, numChunks - index);
+        chunks[index] = chunk;
+        numChunks++;
+    }
+
+    private static class Chunk
+    {
+        private final int key;
+        private int cardinality;
+        private char[] array;
+        private long[] bits;
+
+        private Chunk(int key) {
+            this.key = key;
+            this.array = new char[4];
+        }
+
+        private Chunk(int key, int cardinality, char[] array, long[] bits) {
+            this.key = key;
+            this.cardinality = cardinality;
+            this.array = array;
+            this.bits = bits;
+        }
+
+        private boolean contains(char low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        private boolean add(char low) {
+            if (bits != null) {
+                long word = bits[low >>> 6];
+                long updated = word | (1L << low);
+                if (word == updated) {
+                    return false;
+                }
+                bits[low >>> 6] = updated;
+                cardinality++;
+                return true;
+            }
+
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_MAX_SIZE) {
+                toBits();
+                return add(low);
+            }
+            index = -(index + 1);
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX_SIZE, array.length * 2));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = low;
+            cardinality++;
+            return true;
+        }
+
+        private boolean remove(char low) {
+            if (bits != null) {
+                long word = bits[low >>> 6];
+                long updated = word & ~(1L << low);
+                if (word == updated) {
+                    return false;
+                }
+                bits[low >>> 6] = updated;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX_SIZE / 2) {
+                    toArrayForm();
+                }
+                return true;
+            }
+
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        private void toBits() {
+            long[] words = new long[BITSET_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                char low = array[i];
+                words[low >>> 6] |= 1L << low;
+            }
+            bits = words;
+            array = null;
+        }
+
+        private void toArrayForm() {
+            array = bitsToArray(bits, cardinality);
+            bits = null;
+        }
+
+        private Chunk copy() {
+            return new Chunk(key, cardinality,
+                    array == null ? null : Arrays.copyOf(array, Math.max(cardinality, 1)),
+                    bits == null ? null : Arrays.copyOf(bits, BITSET_WORDS));
+        }
+
+        private Chunk and(Chunk other) {
+            if (bits != null && other.bits != null) {
+                long[] words = new long[BITSET_WORDS];
+                int count = 0;
+                for (int i = 0; i < BITSET_WORDS; i++) {
+                    words[i] = bits[i] & other.bits[i];
+                    count += Long.bitCount(words[i]);
+                }
+                if (count > ARRAY_MAX_SIZE) {
+                    return new Chunk(key, count, null, words);
+                }
+                return new Chunk(key, count, bitsToArray(words, count), null);
+            }
+            if (bits != null) {
+                return other.and(this);
+            }
+
+            // this chunk is in array form
+            char[] result = new char[Math.max(1, Math.min(cardinality, other.cardinality))];
+            int count = 0;
+            if (other.bits != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    char low = array[i];
+                    if ((other.bits[low >>> 6] & (1L << low)) != 0) {
+                        result[count++] = low;
+                    }
+                }
+            }
+            else {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    char left = array[i];
+                    char right = other.array[j];
+                    if (left < right) {
+                        i++;
+                    }
+                    else if (left > right) {
+                        j++;
+                    }
+                    else {
+                        result[count++] = left;
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return new Chunk(key, count, result, null);
+        }
+
+        private Chunk or(Chunk other) {
+            if (bits != null || other.bits != null) {
+                long[] words = new long[BITSET_WORDS];
+                orInto(words, this);
+                orInto(words, other);
+                int count = 0;
+                for (int i = 0; i < BITSET_WORDS; i++) {
+                    count += Long.bitCount(words[i]);
+                }
+                return new Chunk(key, count, null, words);
+            }
+
+            char[] result = new char[cardinality + other.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                if (j == other.cardinality || (i < cardinality && array[i] < other.array[j])) {
+                    result[count++] = array[i++];
+                }
+                else if (i == cardinality || array[i] > other.array[j]) {
+                    result[count++] = other.array[j++];
+                }
+                else {
+                    result[count++] = array[i++];
+                    j++;
+                }
+            }
+            Chunk chunk = new Chunk(key, count, result, null);
+            if (count > ARRAY_MAX_SIZE) {
+                chunk.toBits();
+            }
+            return chunk;
+        }
+
+        private int fill(int[] result, int offset) {
+            int high = key << 16;
+            if (bits == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    result[offset++] = high | array[i];
+                }
+                return offset;
+            }
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                long word = bits[i];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    result[offset++] = high | (i << 6) | bit;
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        private static void orInto(long[] words, Chunk chunk) {
+            if (chunk.bits != null) {
+                for (int i = 0; i < BITSET_WORDS; i++) {
+                    words[i] |= chunk.bits[i];
+                }
+            }
+            else {
+                for (int i = 0; i < chunk.cardinality; i++) {
+                    char low = chunk.array[i];
+                    words[low >>> 6] |= 1L << low;
+                }
+            }
+        }
+
+        private static char[] bitsToArray(long[] words, int cardinality) {
+            char[] result = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    result[count++] = (char) ((i << 6) | bit);
+                    word &= word - 1;
+                }
+            }
+            return result;
+        }
+    }
+}
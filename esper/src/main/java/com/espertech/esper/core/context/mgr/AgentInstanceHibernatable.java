@@ -0,0 +1,31 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.context.mgr;
+
+import com.espertech.esper.core.context.factory.StatementAgentInstanceFactoryResult;
+
+/**
+ * Agent instance of a context that hibernates idle partitions, retaining the factory result for access to the agent instance state.
+ */
+public class AgentInstanceHibernatable extends AgentInstance {
+
+    private final StatementAgentInstanceFactoryResult factoryResult;
+
+    public AgentInstanceHibernatable(StatementAgentInstanceFactoryResult factoryResult) {
+        super(factoryResult.getStopCallback(), factoryResult.getAgentInstanceContext(), factoryResult.getFinalView());
+        this.factoryResult = factoryResult;
+    }
+
+    public StatementAgentInstanceFactoryResult getFactoryResult() {
+        return factoryResult;
+    }
+}
@@ -394,7 +394,7 @@ public class ContextControllerInitTerm implements ContextController, ContextCont
             ContextControllerCondition endEndpoint = makeEndpoint(factory.getContextDetail().getEnd(), filterAddendum, false, entry.getKey().getSubPath());
             long timeOffset = factory.getFactoryContext().getServicesContext().getSchedulingService().getTime() - state.getStartTime();
 
-            endEndpoint.activate(optionalTriggeringEvent, null, timeOffset, factory.getFactoryContext().isRecoveringResilient());
+            endEndpoint.activate(optionalTriggeringEvent, getMatchedEventMap(state.getPatternData()), timeOffset, factory.getFactoryContext().isRecoveringResilient());
             long startTime = state.getStartTime();
             Long endTime = endEndpoint.getExpectedEndTime();
             Map<String, Object> builtinProps = getBuiltinProperties(factory.getFactoryContext().getContextName(), startTime, endTime, state.getPatternData());
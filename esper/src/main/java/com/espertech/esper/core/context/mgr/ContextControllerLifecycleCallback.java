@@ -42,4 +42,8 @@ public interface ContextControllerLifecycleCallback {
                                           Map<String, Object> terminationProperties,
                                           boolean leaveLocksAcquired,
                                           List<AgentInstance> agentInstances);
+
+    public void contextPartitionEvent(ContextControllerInstanceHandle existingHandle,
+                                      ContextController originator,
+                                      EventBean theEvent);
 }
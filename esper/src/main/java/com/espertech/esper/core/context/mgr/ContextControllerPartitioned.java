@@ -148,6 +148,10 @@ public class ContextControllerPartitioned implements ContextController, ContextC
     public synchronized void create(Object key, EventBean theEvent) {
         boolean exists = partitionKeys.containsKey(key);
         if (exists) {
+            ContextControllerInstanceHandle existing = partitionKeys.get(key);
+            if (existing != null) {
+                activationCallback.contextPartitionEvent(existing, this, theEvent);
+            }
             return;
         }
 
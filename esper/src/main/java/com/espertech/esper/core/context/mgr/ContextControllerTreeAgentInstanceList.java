@@ -23,6 +23,9 @@ public class ContextControllerTreeAgentInstanceList {
     private Map<String, Object> initContextProperties;
     private List<AgentInstance> agentInstances;
     private ContextPartitionState state;
+    private volatile List<ContextControllerStatementDesc> pendingStatements;
+    private volatile long lastActivityTime;
+    private volatile boolean hibernated;
 
     public ContextControllerTreeAgentInstanceList(long filterVersionAfterAllocation, Object initPartitionKey, Map<String, Object> initContextProperties, List<AgentInstance> agentInstances, ContextPartitionState state) {
         this.filterVersionAfterAllocation = filterVersionAfterAllocation;
@@ -56,7 +59,32 @@ public class ContextControllerTreeAgentInstanceList {
         this.state = state;
     }
 
+    public List<ContextControllerStatementDesc> getPendingStatements() {
+        return pendingStatements;
+    }
+
+    public void setPendingStatements(List<ContextControllerStatementDesc> pendingStatements) {
+        this.pendingStatements = pendingStatements;
+    }
+
+    public long getLastActivityTime() {
+        return lastActivityTime;
+    }
+
+    public void setLastActivityTime(long lastActivityTime) {
+        this.lastActivityTime = lastActivityTime;
+    }
+
+    public boolean isHibernated() {
+        return hibernated;
+    }
+
+    public void setHibernated(boolean hibernated) {
+        this.hibernated = hibernated;
+    }
+
     public void clearAgentInstances() {
         agentInstances.clear();
+        pendingStatements = null;
     }
 }
@@ -21,7 +21,8 @@ public class ContextInternalFilterAddendum {
     private final IdentityHashMap<FilterSpecCompiled, FilterValueSetParam[][]> filterAddendum;
 
     public ContextInternalFilterAddendum() {
-        filterAddendum = new IdentityHashMap<FilterSpecCompiled, FilterValueSetParam[][]>();
+        // a context partition usually has few filters, start small as there is an addendum per context partition
+        filterAddendum = new IdentityHashMap<FilterSpecCompiled, FilterValueSetParam[][]>(4);
     }
 
     public FilterValueSetParam[][] getFilterAddendum(FilterSpecCompiled filterSpecCompiled) {
@@ -35,4 +35,7 @@ public interface ContextManagementService {
 
     public Map<String, ContextManagerEntry> getContexts();
     public ContextManager getContextManager(String contextName);
+
+    public ContextControllerFactoryService getContextControllerFactoryService();
+    public void destroy();
 }
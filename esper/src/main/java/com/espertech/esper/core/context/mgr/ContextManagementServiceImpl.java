@@ -31,8 +31,17 @@ public class ContextManagementServiceImpl implements ContextManagementService {
     private final Map<String, ContextManagerEntry> contexts;
     private final Set<String> destroyedContexts = new HashSet<String>();
 
+    private final ContextStateCacheFile stateCacheFile;
+    private final ContextControllerFactoryService contextControllerFactoryService;
+
     public ContextManagementServiceImpl() {
+        this(null);
+    }
+
+    public ContextManagementServiceImpl(ContextStateCacheFile stateCacheFile) {
         contexts = new HashMap<String, ContextManagerEntry>();
+        this.stateCacheFile = stateCacheFile;
+        this.contextControllerFactoryService = stateCacheFile == null ? ContextControllerFactoryServiceImpl.DEFAULT_FACTORY : new ContextControllerFactoryServiceImpl(stateCacheFile);
     }
 
     public void addContextSpec(EPServicesContext servicesContext, AgentInstanceContext agentInstanceContext, CreateContextDesc contextDesc, boolean isRecoveringResilient, EventType statementResultEventType) throws ExprValidationException {
@@ -45,6 +54,10 @@ public class ContextManagementServiceImpl implements ContextManagementService {
             throw new ExprValidationException("Context by name '" + contextDesc.getContextName() + "' already exists");
         }
 
+        if (stateCacheFile != null) {
+            stateCacheFile.openContext(contextDesc.getContextName(), agentInstanceContext.getStatementContext().getExpression());
+        }
+
         ContextControllerFactoryServiceContext factoryServiceContext = new ContextControllerFactoryServiceContext(contextDesc.getContextName(), servicesContext, contextDesc.getContextDetail(), agentInstanceContext, isRecoveringResilient, statementResultEventType);
         ContextManager contextManager = servicesContext.getContextManagerFactoryService().make(contextDesc.getContextDetail(), factoryServiceContext);
         factoryServiceContext.getAgentInstanceContextCreate().getEpStatementAgentInstanceHandle().setFilterFaultHandler(contextManager);
@@ -124,6 +137,16 @@ public class ContextManagementServiceImpl implements ContextManagementService {
         }
     }
 
+    public ContextControllerFactoryService getContextControllerFactoryService() {
+        return contextControllerFactoryService;
+    }
+
+    public void destroy() {
+        if (stateCacheFile != null) {
+            stateCacheFile.close();
+        }
+    }
+
     public Map<String, ContextManagerEntry> getContexts() {
         return contexts;
     }
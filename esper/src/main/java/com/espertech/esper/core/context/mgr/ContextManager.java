@@ -13,6 +13,7 @@ package com.espertech.esper.core.context.mgr;
 
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.context.ContextPartitionDescriptor;
+import com.espertech.esper.client.context.ContextPartitionFootprint;
 import com.espertech.esper.client.context.ContextPartitionSelector;
 import com.espertech.esper.core.context.util.ContextDescriptor;
 import com.espertech.esper.epl.expression.core.ExprValidationException;
@@ -44,4 +45,5 @@ public interface ContextManager extends FilterFaultHandler {
 
     public Collection<Integer> getAgentInstanceIds(ContextPartitionSelector contextPartitionSelector);
     public Map<Integer, ContextControllerStatementDesc> getStatements();
+    public ContextPartitionFootprint getContextPartitionFootprint(int agentInstanceId);
 }
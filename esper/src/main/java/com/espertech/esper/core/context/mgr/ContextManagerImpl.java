@@ -14,14 +14,22 @@ package com.espertech.esper.core.context.mgr;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.SafeIterator;
+import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.client.context.*;
 import com.espertech.esper.core.context.factory.StatementAgentInstanceFactoryResult;
 import com.espertech.esper.core.context.stmt.StatementAIResourceRegistryFactory;
 import com.espertech.esper.core.context.util.ContextDescriptor;
 import com.espertech.esper.core.context.util.ContextIteratorHandler;
+import com.espertech.esper.core.context.util.ContextPartitionFootprintUtil;
 import com.espertech.esper.core.context.util.StatementAgentInstanceUtil;
 import com.espertech.esper.core.service.EPServicesContext;
 import com.espertech.esper.epl.expression.core.ExprValidationException;
+import com.espertech.esper.epl.expression.subquery.ExprSubselectNode;
+import com.espertech.esper.epl.spec.ContextDetailPartitionItem;
+import com.espertech.esper.epl.spec.FilterStreamSpecCompiled;
+import com.espertech.esper.epl.spec.StatementSpecCompiled;
+import com.espertech.esper.epl.spec.StreamSpecCompiled;
+import com.espertech.esper.event.EventTypeUtility;
 import com.espertech.esper.event.MappedEventBean;
 import com.espertech.esper.filter.FilterFaultHandler;
 import com.espertech.esper.filter.FilterSpecCompiled;
@@ -39,6 +47,19 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
     private final ContextDescriptor contextDescriptor;
     private final Map<Integer, ContextControllerTreeAgentInstanceList> agentInstances = new LinkedHashMap<Integer, ContextControllerTreeAgentInstanceList>();
 
+    /**
+     * For lazy instantiation, the event types that cause a statement to start for a partition, by statement id.
+     * Statements that are not listed start when the partition is created.
+     */
+    private final boolean lazyPartitions;
+    private final Map<Integer, EventType[]> lazyStatementTypes = new HashMap<Integer, EventType[]>();
+
+    /**
+     * For hibernation of idle partitions, the number of views per stream of statements that support hibernation, by statement id.
+     */
+    private final ContextPartitionHibernation hibernation;
+    private final Map<Integer, int[]> hibernateViewsPerStream = new HashMap<Integer, int[]>();
+
     /**
      * The single root context.
      * This represents the context declared first.
@@ -52,6 +73,15 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         this.servicesContext = factoryServiceContext.getServicesContext();
         this.factory = factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getContextControllerFactoryService().getFactory(factoryServiceContext)[0];
         this.rootContext = factory.createNoCallback(0, this);   // single instance: created here and activated/deactivated later
+        this.lazyPartitions = HintEnum.LAZY_CONTEXT_PARTITION.getHint(factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getAnnotations()) != null;
+        if (lazyPartitions && !(factory instanceof ContextControllerPartitionedFactoryBase)) {
+            throw new ExprValidationException("The " + HintEnum.LAZY_CONTEXT_PARTITION.getValue() + " hint requires a keyed segmented context");
+        }
+        long idleMSec = ContextPartitionHibernation.getIdleMSec(factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getAnnotations());
+        if (idleMSec > 0 && !(factory instanceof ContextControllerPartitionedFactoryBase)) {
+            throw new ExprValidationException("The " + HintEnum.HIBERNATE_IDLE_CONTEXT_PARTITION.getValue() + " hint requires a keyed segmented context");
+        }
+        this.hibernation = idleMSec > 0 ? new ContextPartitionHibernation(contextName, idleMSec, factoryServiceContext.getAgentInstanceContextCreate(), servicesContext.getConfigSnapshot().getEngineDefaults().getExecution().getContextHibernateDirectory()) : null;
         this.contextPartitionIdManager = factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getContextControllerFactoryService().allocatePartitionIdMgr(contextName, factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getStatementId());
 
         StatementAIResourceRegistryFactory resourceRegistryFactory = factory.getStatementAIResourceRegistryFactory();
@@ -86,6 +116,18 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         // add statement
         ContextControllerStatementDesc desc = new ContextControllerStatementDesc(statement, new ContextControllerStatementCtxCache[]{caches});
         statements.put(statement.getStatementContext().getStatementId(), desc);
+        if (lazyPartitions) {
+            EventType[] lazyTypes = getLazyStatementTypes(statement.getStatementSpec());
+            if (lazyTypes != null) {
+                lazyStatementTypes.put(statement.getStatementContext().getStatementId(), lazyTypes);
+            }
+        }
+        if (hibernation != null) {
+            int[] viewsPerStream = ContextPartitionHibernation.getViewsPerStream(statement.getStatementSpec());
+            if (viewsPerStream != null) {
+                hibernateViewsPerStream.put(statement.getStatementContext().getStatementId(), viewsPerStream);
+            }
+        }
 
         // activate if this is the first statement
         if (statements.size() == 1) {
@@ -95,6 +137,13 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         else {
             for (Map.Entry<Integer, ContextControllerTreeAgentInstanceList> entry : agentInstances.entrySet()) {
                 if (entry.getValue().getState() == ContextPartitionState.STARTED) {
+                    if (lazyStatementTypes.containsKey(statement.getStatementContext().getStatementId())) {
+                        addPendingStatement(entry.getValue(), desc);
+                        continue;
+                    }
+                    if (entry.getValue().isHibernated()) {
+                        continue;   // starts when the partition wakes up
+                    }
                     AgentInstance agentInstance = startStatement(entry.getKey(), desc, rootContext, entry.getValue().getInitPartitionKey(), entry.getValue().getInitContextProperties(), isRecoveringResilient);
                     entry.getValue().getAgentInstances().add(agentInstance);
                 }
@@ -129,6 +178,9 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
             agentInstances.clear();
             contextPartitionIdManager.clear();
             statements.clear();
+            if (hibernation != null) {
+                hibernation.destroy();
+            }
         }
     }
 
@@ -160,9 +212,17 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
 
         // handle leaf creation
         List<AgentInstance> newInstances = new ArrayList<AgentInstance>();
+        List<ContextControllerStatementDesc> pendingStatements = null;
         if (state == ContextPartitionState.STARTED) {
             for (Map.Entry<Integer, ContextControllerStatementDesc> statementEntry : statements.entrySet()) {
                 ContextControllerStatementDesc statementDesc = statementEntry.getValue();
+                if (optionalTriggeringEvent != null && isLazyDeferred(statementEntry.getKey(), optionalTriggeringEvent)) {
+                    if (pendingStatements == null) {
+                        pendingStatements = new ArrayList<ContextControllerStatementDesc>(2);
+                    }
+                    pendingStatements.add(statementDesc);
+                    continue;
+                }
                 AgentInstance instance = startStatement(assignedContextId, statementDesc, originator, partitionKey, contextProperties, isRecoveringResilient);
                 newInstances.add(instance);
             }
@@ -176,6 +236,8 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         // save leaf
         long filterVersion = servicesContext.getFilterService().getFiltersVersion();
         ContextControllerTreeAgentInstanceList agentInstanceList = new ContextControllerTreeAgentInstanceList(filterVersion, partitionKey, contextProperties, newInstances, state);
+        agentInstanceList.setPendingStatements(pendingStatements);
+        agentInstanceList.setLastActivityTime(servicesContext.getSchedulingService().getTime());
         agentInstances.put(assignedContextId, agentInstanceList);
 
         // update the filter version for this handle
@@ -184,6 +246,23 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         return new ContextNestedHandleImpl(subPathId, assignedContextId, agentInstanceList);
     }
 
+    public void contextPartitionEvent(ContextControllerInstanceHandle existingHandle, ContextController originator, EventBean theEvent) {
+        if (!lazyPartitions && hibernation == null) {
+            return;
+        }
+        // fast path without the lock: all statements of the partition are started and the partition is awake
+        if (existingHandle instanceof ContextNestedHandleImpl) {
+            ContextControllerTreeAgentInstanceList entry = ((ContextNestedHandleImpl) existingHandle).getInstances();
+            if (entry.getPendingStatements() == null && !entry.isHibernated()) {
+                if (hibernation != null) {
+                    entry.setLastActivityTime(servicesContext.getSchedulingService().getTime());
+                }
+                return;
+            }
+        }
+        startStatementsForEvent(existingHandle, originator, theEvent);
+    }
+
     public synchronized void contextPartitionTerminate(ContextControllerInstanceHandle contextNestedHandle, Map<String, Object> terminationProperties, boolean leaveLocksAcquired, List<AgentInstance> agentInstancesCollected) {
         ContextNestedHandleImpl handle = (ContextNestedHandleImpl) contextNestedHandle;
         ContextControllerTreeAgentInstanceList entry = agentInstances.remove(handle.getContextPartitionOrPathId());
@@ -194,6 +273,7 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
             }
             entry.getAgentInstances().clear();
             contextPartitionIdManager.removeId(contextNestedHandle.getContextPartitionOrPathId());
+            discardHibernated(getPathKey(contextNestedHandle), entry);
         }
     }
 
@@ -299,6 +379,7 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
             list.setState(ContextPartitionState.STOPPED);
             StatementAgentInstanceUtil.stopAgentInstances(list.getAgentInstances(), null, servicesContext, false, false);
             list.clearAgentInstances();
+            discardHibernated(entry.getKey(), list);
             entry.getValue().setState(ContextPartitionState.STOPPED);
             rootContext.getFactory().getFactoryContext().getStateCache().updateContextPath(contextName, entry.getKey(), entry.getValue());
         }
@@ -314,6 +395,7 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
             ContextControllerTreeAgentInstanceList list = agentInstances.remove(agentInstanceId);
             StatementAgentInstanceUtil.stopAgentInstances(list.getAgentInstances(), null, servicesContext, false, false);
             list.clearAgentInstances();
+            discardHibernated(entry.getKey(), list);
             rootContext.getFactory().getFactoryContext().getStateCache().removeContextPath(contextName, entry.getKey().getLevel(), entry.getKey().getParentPath(), entry.getKey().getSubPath());
         }
         return states;
@@ -348,8 +430,86 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         return false;
     }
 
+    public synchronized ContextPartitionFootprint getContextPartitionFootprint(int agentInstanceId) {
+        ContextControllerTreeAgentInstanceList list = agentInstances.get(agentInstanceId);
+        if (list == null) {
+            return null;
+        }
+        ContextControllerTreeAgentInstanceList sibling = null;
+        for (Map.Entry<Integer, ContextControllerTreeAgentInstanceList> entry : agentInstances.entrySet()) {
+            if (entry.getKey() != agentInstanceId && !entry.getValue().getAgentInstances().isEmpty()) {
+                sibling = entry.getValue();
+                break;
+            }
+        }
+        return ContextPartitionFootprintUtil.estimate(agentInstanceId, list, sibling, statements.values());
+    }
+
+    /**
+     * Returns the number of partitions that are hibernated.
+     * @return count
+     */
+    public synchronized int getNumPartitionsHibernated() {
+        return hibernation == null ? 0 : hibernation.getNumHibernated();
+    }
+
+    /**
+     * Hibernates the partitions that did not receive an event for the idle period.
+     */
+    public synchronized void hibernateIdlePartitions() {
+        long idleBefore = servicesContext.getSchedulingService().getTime() - hibernation.getIdleMSec();
+        final Set<Integer> idle = new HashSet<Integer>();
+        for (Map.Entry<Integer, ContextControllerTreeAgentInstanceList> entry : agentInstances.entrySet()) {
+            ContextControllerTreeAgentInstanceList list = entry.getValue();
+            if (list.getState() == ContextPartitionState.STARTED && !list.isHibernated() && list.getLastActivityTime() <= idleBefore) {
+                idle.add(entry.getKey());
+            }
+        }
+        if (idle.isEmpty()) {
+            return;
+        }
+
+        // visit the idle partitions as extracting does, the path keys of the partitions key the hibernated state
+        final Map<ContextStatePathKey, Integer> paths = new HashMap<ContextStatePathKey, Integer>();
+        rootContext.visitSelectedPartitions(new ContextPartitionSelectorById() {
+            public Set<Integer> getContextPartitionIds() {
+                return idle;
+            }
+        }, new ContextPartitionVisitor() {
+            public void visit(int nestingLevel, int pathId, ContextStatePathValueBinding binding, Object payload, ContextController contextController, ContextControllerInstanceHandle instanceHandle) {
+                paths.put(new ContextStatePathKey(nestingLevel, pathId, instanceHandle.getSubPathId()), instanceHandle.getContextPartitionOrPathId());
+            }
+        });
+        for (Map.Entry<ContextStatePathKey, Integer> entry : paths.entrySet()) {
+            int agentInstanceId = entry.getValue();
+            ContextControllerTreeAgentInstanceList list = agentInstances.get(agentInstanceId);
+
+            // hold the agent instance locks so that no event changes the state between writing it and stopping
+            List<AgentInstance> instances = new ArrayList<AgentInstance>(list.getAgentInstances());
+            for (AgentInstance instance : instances) {
+                instance.getAgentInstanceContext().getAgentInstanceLock().acquireWriteLock();
+            }
+            try {
+                if (!hibernation.write(entry.getKey(), agentInstanceId, instances, hibernateViewsPerStream)) {
+                    continue;
+                }
+                StatementAgentInstanceUtil.stopAgentInstances(instances, null, servicesContext, false, false);
+                list.getAgentInstances().clear();
+                list.setHibernated(true);
+            }
+            finally {
+                for (AgentInstance instance : instances) {
+                    instance.getAgentInstanceContext().getAgentInstanceLock().releaseWriteLock();
+                }
+            }
+        }
+    }
+
     private void activate() {
         rootContext.activate(null, null, null, null, null);
+        if (hibernation != null) {
+            hibernation.activate(this);
+        }
     }
 
     private AgentInstance[] getAgentInstancesForStmt(int statementId, ContextPartitionSelector selector) {
@@ -404,9 +564,17 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
                 StatementAgentInstanceUtil.stop(instance.getStopCallback(), instance.getAgentInstanceContext(), instance.getFinalView(), servicesContext, true, false, true);
                 instanceIt.remove();
             }
+            List<ContextControllerStatementDesc> pending = contextPartitionEntry.getValue().getPendingStatements();
+            if (pending != null) {
+                pending.remove(statementDesc);
+                if (pending.isEmpty()) {
+                    contextPartitionEntry.getValue().setPendingStatements(null);
+                }
+            }
         }
 
         statements.remove(statementId);
+        lazyStatementTypes.remove(statementId);
     }
 
     private AgentInstance startStatement(int contextId, ContextControllerStatementDesc statementDesc, ContextController originator, Object partitionKey, Map<String, Object> contextProperties, boolean isRecoveringResilient) {
@@ -425,9 +593,158 @@ public class ContextManagerImpl implements ContextManager, ContextControllerLife
         StatementAgentInstanceFactoryResult result = StatementAgentInstanceUtil.start(servicesContext, statementDesc.getStatement(), false, contextId, contextBean, proxy, isRecoveringResilient);
 
         // save only instance data
+        if (hibernation != null) {
+            return new AgentInstanceHibernatable(result);
+        }
         return new AgentInstance(result.getStopCallback(), result.getAgentInstanceContext(), result.getFinalView());
     }
 
+    private synchronized void startStatementsForEvent(ContextControllerInstanceHandle existingHandle, ContextController originator, EventBean theEvent) {
+        ContextControllerTreeAgentInstanceList entry = agentInstances.get(existingHandle.getContextPartitionOrPathId());
+        if (entry == null || entry.getState() != ContextPartitionState.STARTED) {
+            return;
+        }
+        entry.setLastActivityTime(servicesContext.getSchedulingService().getTime());
+
+        List<AgentInstance> newInstances = null;
+        if (entry.isHibernated()) {
+            newInstances = wakeHibernated(existingHandle, entry, originator);
+        }
+        if (entry.getPendingStatements() == null) {
+            if (newInstances != null) {
+                entry.getAgentInstances().addAll(newInstances);
+                evaluateEventForNewInstances(theEvent, newInstances);
+            }
+            return;
+        }
+
+        for (Iterator<ContextControllerStatementDesc> it = entry.getPendingStatements().iterator(); it.hasNext(); ) {
+            ContextControllerStatementDesc statementDesc = it.next();
+            if (isLazyDeferred(statementDesc.getStatement().getStatementContext().getStatementId(), theEvent)) {
+                continue;
+            }
+            it.remove();
+            AgentInstance instance = startStatement(existingHandle.getContextPartitionOrPathId(), statementDesc, originator, entry.getInitPartitionKey(), entry.getInitContextProperties(), false);
+            if (newInstances == null) {
+                newInstances = new ArrayList<AgentInstance>(2);
+            }
+            newInstances.add(instance);
+        }
+        if (newInstances == null) {
+            return;
+        }
+        if (entry.getPendingStatements().isEmpty()) {
+            entry.setPendingStatements(null);
+        }
+        entry.getAgentInstances().addAll(newInstances);
+        evaluateEventForNewInstances(theEvent, newInstances);
+    }
+
+    private void evaluateEventForNewInstances(EventBean theEvent, List<AgentInstance> newInstances) {
+        // the newly-started statements did not see the event that started them
+        StatementAgentInstanceUtil.evaluateEventForStatement(servicesContext, theEvent, null, newInstances);
+        long filterVersion = servicesContext.getFilterService().getFiltersVersion();
+        factory.getFactoryContext().getAgentInstanceContextCreate().getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filterVersion);
+    }
+
+    private List<AgentInstance> wakeHibernated(ContextControllerInstanceHandle handle, ContextControllerTreeAgentInstanceList entry, ContextController originator) {
+        int contextPartitionId = handle.getContextPartitionOrPathId();
+        Map<Integer, Object> states = hibernation.read(getPathKey(handle));
+        entry.setHibernated(false);
+        List<AgentInstance> newInstances = new ArrayList<AgentInstance>();
+        for (Map.Entry<Integer, ContextControllerStatementDesc> statement : statements.entrySet()) {
+            if (entry.getPendingStatements() != null && entry.getPendingStatements().contains(statement.getValue())) {
+                continue;
+            }
+            AgentInstance instance = startStatement(contextPartitionId, statement.getValue(), originator, entry.getInitPartitionKey(), entry.getInitContextProperties(), false);
+            Object state = states == null ? null : states.get(statement.getKey());
+            if (state != null) {
+                hibernation.apply(instance, state);
+            }
+            newInstances.add(instance);
+        }
+        return newInstances;
+    }
+
+    private void discardHibernated(ContextStatePathKey key, ContextControllerTreeAgentInstanceList entry) {
+        if (entry.isHibernated()) {
+            hibernation.discard(key);
+            entry.setHibernated(false);
+        }
+    }
+
+    private static ContextStatePathKey getPathKey(ContextControllerInstanceHandle handle) {
+        return new ContextStatePathKey(1, 0, handle.getSubPathId());
+    }
+
+    private boolean isLazyDeferred(int statementId, EventBean theEvent) {
+        EventType[] lazyTypes = lazyStatementTypes.get(statementId);
+        if (lazyTypes == null) {
+            return false;
+        }
+        EventType eventType = theEvent.getEventType();
+        for (EventType lazyType : lazyTypes) {
+            if (lazyType == eventType || EventTypeUtility.isTypeOrSubTypeOf(eventType, lazyType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addPendingStatement(ContextControllerTreeAgentInstanceList entry, ContextControllerStatementDesc statementDesc) {
+        if (entry.getPendingStatements() == null) {
+            entry.setPendingStatements(new ArrayList<ContextControllerStatementDesc>(2));
+        }
+        entry.getPendingStatements().add(statementDesc);
+    }
+
+    /**
+     * Returns the event types that start the statement for a partition, or null when the statement must start with the partition.
+     * Only statements that consume plain filter streams of the partitioned event types, including in subqueries, start lazily.
+     */
+    private EventType[] getLazyStatementTypes(StatementSpecCompiled spec) {
+        if (spec.getCreateWindowDesc() != null || spec.getCreateTableDesc() != null || spec.getCreateVariableDesc() != null ||
+            spec.getCreateIndexDesc() != null || spec.getOnTriggerDesc() != null || spec.getUpdateSpec() != null) {
+            return null;
+        }
+        List<EventType> types = new ArrayList<EventType>(2);
+        if (!addLazyFilterTypes(spec.getStreamSpecs(), types)) {
+            return null;
+        }
+        for (ExprSubselectNode subselect : spec.getSubSelectExpressions()) {
+            if (!addLazyFilterTypes(subselect.getStatementSpecCompiled().getStreamSpecs(), types)) {
+                return null;
+            }
+        }
+        if (types.isEmpty()) {
+            return null;
+        }
+        for (EventType type : types) {
+            boolean partitioned = false;
+            for (ContextDetailPartitionItem item : factory.getContextDetailPartitionItems()) {
+                EventType itemType = item.getFilterSpecCompiled().getFilterForEventType();
+                if (type == itemType || EventTypeUtility.isTypeOrSubTypeOf(type, itemType)) {
+                    partitioned = true;
+                    break;
+                }
+            }
+            if (!partitioned) {
+                return null;
+            }
+        }
+        return types.toArray(new EventType[types.size()]);
+    }
+
+    private static boolean addLazyFilterTypes(StreamSpecCompiled[] streams, List<EventType> types) {
+        for (StreamSpecCompiled stream : streams) {
+            if (!(stream instanceof FilterStreamSpecCompiled)) {
+                return false;
+            }
+            types.add(((FilterStreamSpecCompiled) stream).getFilterSpec().getFilterForEventType());
+        }
+        return true;
+    }
+
     protected static void setState(Map<Integer, ContextPartitionDescriptor> original, ContextPartitionState state) {
         for (Map.Entry<Integer, ContextPartitionDescriptor> entry : original.entrySet()) {
             entry.getValue().setState(state);
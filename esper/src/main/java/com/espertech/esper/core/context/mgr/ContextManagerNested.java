@@ -13,6 +13,7 @@ package com.espertech.esper.core.context.mgr;
 
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.client.SafeIterator;
 import com.espertech.esper.client.context.*;
 import com.espertech.esper.core.context.factory.StatementAgentInstanceFactoryResult;
@@ -23,6 +24,7 @@ import com.espertech.esper.core.context.stmt.StatementAIResourceRegistryFactory;
 import com.espertech.esper.core.context.util.ContextControllerSelectorUtil;
 import com.espertech.esper.core.context.util.ContextDescriptor;
 import com.espertech.esper.core.context.util.ContextIteratorHandler;
+import com.espertech.esper.core.context.util.ContextPartitionFootprintUtil;
 import com.espertech.esper.core.context.util.StatementAgentInstanceUtil;
 import com.espertech.esper.core.service.EPServicesContext;
 import com.espertech.esper.epl.expression.core.ExprValidationException;
@@ -67,6 +69,12 @@ public class ContextManagerNested implements ContextManager, ContextControllerLi
     {
         this.contextName = factoryServiceContext.getContextName();
         this.servicesContext = factoryServiceContext.getServicesContext();
+        if (HintEnum.LAZY_CONTEXT_PARTITION.getHint(factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getAnnotations()) != null) {
+            throw new ExprValidationException("The " + HintEnum.LAZY_CONTEXT_PARTITION.getValue() + " hint is not supported for nested contexts");
+        }
+        if (HintEnum.HIBERNATE_IDLE_CONTEXT_PARTITION.getHint(factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getAnnotations()) != null) {
+            throw new ExprValidationException("The " + HintEnum.HIBERNATE_IDLE_CONTEXT_PARTITION.getValue() + " hint is not supported for nested contexts");
+        }
         this.contextPartitionIdManager = factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getContextControllerFactoryService().allocatePartitionIdMgr(contextName, factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getStatementId());
 
         nestedContextFactories = factoryServiceContext.getAgentInstanceContextCreate().getStatementContext().getContextControllerFactoryService().getFactory(factoryServiceContext);
@@ -140,6 +148,28 @@ public class ContextManagerNested implements ContextManager, ContextControllerLi
         return keys;
     }
 
+    public synchronized ContextPartitionFootprint getContextPartitionFootprint(int agentInstanceId) {
+        ContextControllerTreeAgentInstanceList list = null;
+        ContextControllerTreeAgentInstanceList sibling = null;
+        for (ContextControllerTreeEntry treeEntry : subcontexts.values()) {
+            if (treeEntry.getAgentInstances() == null) {
+                continue;
+            }
+            for (Map.Entry<Integer, ContextControllerTreeAgentInstanceList> entry : treeEntry.getAgentInstances().entrySet()) {
+                if (entry.getKey() == agentInstanceId) {
+                    list = entry.getValue();
+                }
+                else if (sibling == null && !entry.getValue().getAgentInstances().isEmpty()) {
+                    sibling = entry.getValue();
+                }
+            }
+        }
+        if (list == null) {
+            return null;
+        }
+        return ContextPartitionFootprintUtil.estimate(agentInstanceId, list, sibling, statements.values());
+    }
+
     public ContextStatePathDescriptor extractPaths(ContextPartitionSelector selector) {
         ContextPartitionVisitorStateWithPath visitor = getContextPartitionPathsInternal(selector);
         return new ContextStatePathDescriptor(visitor.getStates(), visitor.getAgentInstanceInfo());
@@ -459,6 +489,12 @@ public class ContextManagerNested implements ContextManager, ContextControllerLi
         return rootContext.getFactory().getStateCache();
     }
 
+    /**
+     * Lazy instantiation of statements and hibernation are not supported for nested contexts.
+     */
+    public void contextPartitionEvent(ContextControllerInstanceHandle existingHandle, ContextController originator, EventBean theEvent) {
+    }
+
     /**
      * Provides the sub-context that ends.
      */
@@ -0,0 +1,507 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.context.mgr;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.annotation.Hint;
+import com.espertech.esper.client.annotation.HintEnum;
+import com.espertech.esper.client.context.ContextPartitionState;
+import com.espertech.esper.core.context.factory.StatementAgentInstanceFactoryResult;
+import com.espertech.esper.core.context.factory.StatementAgentInstanceFactorySelectResult;
+import com.espertech.esper.core.context.util.AgentInstanceContext;
+import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
+import com.espertech.esper.core.service.EPStatementHandleCallback;
+import com.espertech.esper.core.service.EngineLevelExtensionServicesContext;
+import com.espertech.esper.core.service.StatementAgentInstanceFilterVersion;
+import com.espertech.esper.epl.agg.aggregator.AggregationMethod;
+import com.espertech.esper.epl.agg.service.AggSvcGroupAllNoAccessImpl;
+import com.espertech.esper.epl.agg.service.AggSvcGroupByNoAccessImpl;
+import com.espertech.esper.epl.agg.service.AggSvcGroupByRefcountedNoAccessImpl;
+import com.espertech.esper.epl.agg.service.AggregationMethodRow;
+import com.espertech.esper.epl.agg.service.AggregationService;
+import com.espertech.esper.epl.agg.service.AggregationServiceNull;
+import com.espertech.esper.epl.expression.core.ExprValidationException;
+import com.espertech.esper.epl.snapshot.SnapshotEventCodec;
+import com.espertech.esper.epl.snapshot.SnapshotSerde;
+import com.espertech.esper.epl.spec.FilterStreamSpecCompiled;
+import com.espertech.esper.epl.spec.StatementSpecCompiled;
+import com.espertech.esper.epl.spec.StreamSpecCompiled;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.schedule.ScheduleHandleCallback;
+import com.espertech.esper.view.DataWindowView;
+import com.espertech.esper.view.View;
+import com.espertech.esper.view.Viewable;
+import com.espertech.esper.view.ext.RankWindowView;
+import com.espertech.esper.view.ext.SortWindowView;
+import com.espertech.esper.view.std.FirstElementView;
+import com.espertech.esper.view.std.FirstUniqueByPropertyView;
+import com.espertech.esper.view.std.LastElementView;
+import com.espertech.esper.view.std.UniqueByPropertyView;
+import com.espertech.esper.view.window.FirstLengthWindowView;
+import com.espertech.esper.view.window.KeepAllView;
+import com.espertech.esper.view.window.LengthWindowView;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+/**
+ * Hibernation of idle partitions of a keyed segmented context.
+ * <p>
+ * A partition that did not receive an event for the idle period has the state of its statements written to a disk store
+ * and its statements stopped, thereby releasing their views, aggregation state and filters. The partition itself remains
+ * allocated and the context's own partition filters serve as the wake-up filters. Upon the next event for the partition
+ * the statements are started again and their state is read back.
+ * </p>
+ * <p>
+ * Hibernated partitions are kept as context state paths by the partition's path key in a {@link ContextStateCacheHibernate},
+ * with the state of the statements as the path value blob.
+ * The statement state consists of the no-access aggregation state, using serialization, and the events of the data windows,
+ * using a {@link SnapshotEventCodec} for each event type.
+ * </p>
+ * <p>
+ * A statement supports hibernation when it consumes only filter streams, has no subqueries, match-recognize
+ * or output rate limiting and has only data windows. A partition hibernates only when, for its statements, the data windows
+ * are empty or are a single length, keep-all, sort, rank, unique, first-length, first-unique, first-event or last-event window
+ * of a non-join statement, the events of such windows can be written, and the aggregation state has no access aggregations
+ * and is serializable. Statements that use prior do not hibernate.
+ * </p>
+ */
+public class ContextPartitionHibernation
+{
+    private final static byte STATE_NONE = 0;
+    private final static byte STATE_UNGROUPED = 1;
+    private final static byte STATE_GROUPED = 2;
+    private final static byte STATE_GROUPED_REFCOUNTED = 3;
+
+    private final static Set<Class> RESTORABLE_WINDOWS = new HashSet<Class>(Arrays.<Class>asList(LengthWindowView.class, KeepAllView.class,
+            SortWindowView.class, RankWindowView.class, UniqueByPropertyView.class, FirstLengthWindowView.class, FirstUniqueByPropertyView.class,
+            FirstElementView.class, LastElementView.class));
+
+    private final String contextName;
+    private final long idleMSec;
+    private final AgentInstanceContext agentInstanceContextCreate;
+    private final ContextStateCacheHibernate stateCache;
+    private final StatementStateBinding binding = new StatementStateBinding();
+
+    private long scheduleSlot;
+    private EPStatementHandleCallback scheduleHandle;
+
+    /**
+     * Ctor.
+     * @param contextName context name
+     * @param idleMSec idle period after which a partition hibernates
+     * @param agentInstanceContextCreate create-context statement agent instance context
+     * @param directory directory for the store, or null for the system temporary directory
+     */
+    public ContextPartitionHibernation(String contextName, long idleMSec, AgentInstanceContext agentInstanceContextCreate, String directory) {
+        this.contextName = contextName;
+        this.idleMSec = idleMSec;
+        this.agentInstanceContextCreate = agentInstanceContextCreate;
+        this.stateCache = new ContextStateCacheHibernate(contextName, directory);
+    }
+
+    /**
+     * Returns the idle period that the create-context statement annotations provide.
+     * @param annotations create-context statement annotations
+     * @return idle period in milliseconds or -1 when not provided
+     * @throws ExprValidationException if the idle period is invalid
+     */
+    public static long getIdleMSec(Annotation[] annotations) throws ExprValidationException {
+        Hint hint = HintEnum.HIBERNATE_IDLE_CONTEXT_PARTITION.getHint(annotations);
+        if (hint == null) {
+            return -1;
+        }
+        String value = HintEnum.HIBERNATE_IDLE_CONTEXT_PARTITION.getHintAssignedValue(hint);
+        double seconds;
+        try {
+            seconds = Double.parseDouble(value);
+        }
+        catch (RuntimeException ex) {
+            throw new ExprValidationException("Invalid value for hint '" + HintEnum.HIBERNATE_IDLE_CONTEXT_PARTITION.getValue() + "', expected a number of seconds but received '" + value + "'");
+        }
+        long msec = Math.round(seconds * 1000d);
+        if (msec < 1) {
+            throw new ExprValidationException("Invalid value for hint '" + HintEnum.HIBERNATE_IDLE_CONTEXT_PARTITION.getValue() + "', expected an idle period of at least 1 millisecond but received '" + value + "'");
+        }
+        return msec;
+    }
+
+    /**
+     * Returns the number of views per stream for a statement that supports hibernation.
+     * @param spec statement specification
+     * @return number of views per stream, or null when the statement does not support hibernation
+     */
+    public static int[] getViewsPerStream(StatementSpecCompiled spec) {
+        if (spec.getCreateWindowDesc() != null || spec.getCreateTableDesc() != null || spec.getCreateVariableDesc() != null ||
+            spec.getCreateIndexDesc() != null || spec.getOnTriggerDesc() != null || spec.getUpdateSpec() != null ||
+            spec.getMatchRecognizeSpec() != null || spec.getOutputLimitSpec() != null || spec.getSubSelectExpressions().length > 0) {
+            return null;
+        }
+        StreamSpecCompiled[] streams = spec.getStreamSpecs();
+        int[] viewsPerStream = new int[streams.length];
+        for (int i = 0; i < streams.length; i++) {
+            if (!(streams[i] instanceof FilterStreamSpecCompiled)) {
+                return null;
+            }
+            viewsPerStream[i] = streams[i].getViewSpecs().length;
+        }
+        return viewsPerStream;
+    }
+
+    public long getIdleMSec() {
+        return idleMSec;
+    }
+
+    /**
+     * Returns the number of hibernated partitions.
+     * @return count
+     */
+    public int getNumHibernated() {
+        return stateCache.size();
+    }
+
+    /**
+     * Schedules the check for idle partitions.
+     * @param manager to check partitions
+     */
+    public void activate(final ContextManagerImpl manager) {
+        if (scheduleHandle != null) {
+            return;
+        }
+        scheduleSlot = agentInstanceContextCreate.getStatementContext().getScheduleBucket().allocateSlot();
+        ScheduleHandleCallback callback = new ScheduleHandleCallback() {
+            public void scheduledTrigger(EngineLevelExtensionServicesContext extensionServicesContext) {
+                manager.hibernateIdlePartitions();
+                agentInstanceContextCreate.getStatementContext().getSchedulingService().add(idleMSec, scheduleHandle, scheduleSlot);
+            }
+        };
+        EPStatementAgentInstanceHandle agentHandle = new EPStatementAgentInstanceHandle(agentInstanceContextCreate.getStatementContext().getEpStatementHandle(), agentInstanceContextCreate.getStatementContext().getDefaultAgentInstanceLock(), -1, new StatementAgentInstanceFilterVersion(), agentInstanceContextCreate.getStatementContext().getFilterFaultHandlerFactory());
+        scheduleHandle = new EPStatementHandleCallback(agentHandle, callback);
+        agentInstanceContextCreate.getStatementContext().getSchedulingService().add(idleMSec, scheduleHandle, scheduleSlot);
+    }
+
+    /**
+     * Removes the schedule, closes and deletes the store.
+     */
+    public void destroy() {
+        if (scheduleHandle != null) {
+            agentInstanceContextCreate.getStatementContext().getSchedulingService().remove(scheduleHandle, scheduleSlot);
+            scheduleHandle = null;
+        }
+        stateCache.removeContext(contextName);
+    }
+
+    /**
+     * Writes the state of the agent instances of a partition to the store.
+     * @param key path key of the partition
+     * @param contextPartitionId partition id
+     * @param agentInstances agent instances of the partition
+     * @param viewsPerStream number of views per stream for statements that support hibernation, by statement id
+     * @return indicator whether the state was written, false if any agent instance does not currently support hibernation
+     */
+    public boolean write(ContextStatePathKey key, int contextPartitionId, List<AgentInstance> agentInstances, Map<Integer, int[]> viewsPerStream) {
+        for (AgentInstance agentInstance : agentInstances) {
+            if (!isHibernatable(agentInstance, viewsPerStream)) {
+                return false;
+            }
+        }
+
+        byte[] bytes;
+        try {
+            bytes = binding.toByteArray(agentInstances);
+        }
+        catch (RuntimeException ex) {
+            // aggregation state or events that do not serialize
+            return false;
+        }
+        stateCache.updateContextPath(contextName, key, new ContextStatePathValue(contextPartitionId, bytes, ContextPartitionState.STOPPED));
+        return true;
+    }
+
+    /**
+     * Reads the state of a hibernated partition and removes it from the store.
+     * @param key path key of the partition
+     * @return state by statement id, or null if the partition is not hibernated
+     */
+    public Map<Integer, Object> read(ContextStatePathKey key) {
+        ContextStatePathValue value = stateCache.takeContextPath(key);
+        if (value == null) {
+            return null;
+        }
+        return (Map<Integer, Object>) binding.byteArrayToObject(value.getBlob(), agentInstanceContextCreate.getStatementContext().getEventAdapterService());
+    }
+
+    /**
+     * Discards the state of a hibernated partition.
+     * @param key path key of the partition
+     */
+    public void discard(ContextStatePathKey key) {
+        stateCache.removeContextPath(contextName, key.getLevel(), key.getParentPath(), key.getSubPath());
+    }
+
+    /**
+     * Applies the state read for a statement to the newly-started agent instance.
+     * @param agentInstance agent instance
+     * @param state state as read
+     */
+    public void apply(AgentInstance agentInstance, Object state) {
+        StatementState statementState = (StatementState) state;
+        StatementAgentInstanceFactoryResult result = ((AgentInstanceHibernatable) agentInstance).getFactoryResult();
+        AggregationService aggregationService = result.getOptionalAggegationService();
+        Object aggregation = statementState.getAggregation();
+        if (aggregation instanceof AggregationMethod[] && aggregationService instanceof AggSvcGroupAllNoAccessImpl) {
+            AggregationMethod[] target = ((AggSvcGroupAllNoAccessImpl) aggregationService).getAggregators();
+            AggregationMethod[] source = (AggregationMethod[]) aggregation;
+            System.arraycopy(source, 0, target, 0, Math.min(source.length, target.length));
+        }
+        else if (aggregation instanceof Map && aggregationService instanceof AggSvcGroupByNoAccessImpl) {
+            ((AggSvcGroupByNoAccessImpl) aggregationService).getAggregatorsPerGroup().putAll((Map<Object, AggregationMethod[]>) aggregation);
+        }
+        else if (aggregation instanceof Map && aggregationService instanceof AggSvcGroupByRefcountedNoAccessImpl) {
+            Map<Object, AggregationMethodRow> target = ((AggSvcGroupByRefcountedNoAccessImpl) aggregationService).getAggregatorsPerGroup();
+            for (Map.Entry<Object, Object[]> entry : ((Map<Object, Object[]>) aggregation).entrySet()) {
+                target.put(entry.getKey(), new AggregationMethodRow((Long) entry.getValue()[0], (AggregationMethod[]) entry.getValue()[1]));
+            }
+        }
+
+        // post the events to the data windows only, the aggregation state already reflects them
+        Viewable[] topViews = ((StatementAgentInstanceFactorySelectResult) result).getTopViews();
+        EventBean[][] windows = statementState.getWindows();
+        for (int i = 0; i < windows.length && i < topViews.length; i++) {
+            if (windows[i].length == 0) {
+                continue;
+            }
+            View window = (View) topViews[i];
+            View[] children = window.getViews();
+            window.removeAllViews();
+            window.update(windows[i], null);
+            for (View child : children) {
+                window.addView(child);
+            }
+        }
+    }
+
+    private boolean isHibernatable(AgentInstance agentInstance, Map<Integer, int[]> viewsPerStreamByStatement) {
+        if (!(agentInstance instanceof AgentInstanceHibernatable)) {
+            return false;
+        }
+        int[] viewsPerStream = viewsPerStreamByStatement.get(agentInstance.getAgentInstanceContext().getStatementId());
+        StatementAgentInstanceFactoryResult result = ((AgentInstanceHibernatable) agentInstance).getFactoryResult();
+        if (viewsPerStream == null || !(result instanceof StatementAgentInstanceFactorySelectResult)) {
+            return false;
+        }
+        if (!isEmptyOrNull(result.getPriorNodeStrategies())) {
+            return false;
+        }
+
+        // data windows must be empty or restorable, joins keep indexes of the data windows that are not restored
+        Viewable[] topViews = ((StatementAgentInstanceFactorySelectResult) result).getTopViews();
+        if (topViews == null || topViews.length != viewsPerStream.length) {
+            return false;
+        }
+        for (int i = 0; i < topViews.length; i++) {
+            Viewable viewable = topViews[i];
+            for (int j = 0; j < viewsPerStream[i]; j++) {
+                if (!(viewable instanceof DataWindowView)) {
+                    return false;
+                }
+                if (viewable.iterator().hasNext() && (topViews.length != 1 || viewsPerStream[i] != 1 || !RESTORABLE_WINDOWS.contains(viewable.getClass()))) {
+                    return false;
+                }
+                View[] children = viewable.getViews();
+                if (j < viewsPerStream[i] - 1) {
+                    if (children.length != 1) {
+                        return false;
+                    }
+                    viewable = children[0];
+                }
+            }
+        }
+
+        // aggregation state must be serializable
+        AggregationService aggregationService = result.getOptionalAggegationService();
+        if (aggregationService == null || aggregationService instanceof AggregationServiceNull) {
+            return true;
+        }
+        if (aggregationService instanceof AggSvcGroupAllNoAccessImpl) {
+            return isSerializable(((AggSvcGroupAllNoAccessImpl) aggregationService).getAggregators());
+        }
+        if (aggregationService instanceof AggSvcGroupByNoAccessImpl) {
+            for (Map.Entry<Object, AggregationMethod[]> entry : ((AggSvcGroupByNoAccessImpl) aggregationService).getAggregatorsPerGroup().entrySet()) {
+                if ((entry.getKey() != null && !(entry.getKey() instanceof Serializable)) || !isSerializable(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (aggregationService instanceof AggSvcGroupByRefcountedNoAccessImpl) {
+            for (Map.Entry<Object, AggregationMethodRow> entry : ((AggSvcGroupByRefcountedNoAccessImpl) aggregationService).getAggregatorsPerGroup().entrySet()) {
+                if ((entry.getKey() != null && !(entry.getKey() instanceof Serializable)) || !isSerializable(entry.getValue().getMethods())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isSerializable(AggregationMethod[] methods) {
+        for (AggregationMethod method : methods) {
+            if (method != null && !(method instanceof Serializable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEmptyOrNull(Map map) {
+        return map == null || map.isEmpty();
+    }
+
+    /**
+     * Binding that writes the state of the agent instances of a partition and reads it back as {@link StatementState} by statement id.
+     * Events are written by event type name, the event types are retained in memory for reading the events back.
+     */
+    private static class StatementStateBinding implements ContextStatePathValueBinding {
+        private final Map<String, EventType> eventTypes = new HashMap<String, EventType>();
+        private final Map<EventType, SnapshotEventCodec> codecs = new HashMap<EventType, SnapshotEventCodec>();
+
+        public byte[] toByteArray(Object contextInfo) {
+            List<AgentInstance> agentInstances = (List<AgentInstance>) contextInfo;
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream stream = new DataOutputStream(bytes);
+                stream.writeInt(agentInstances.size());
+                for (AgentInstance agentInstance : agentInstances) {
+                    writeState((AgentInstanceHibernatable) agentInstance, stream);
+                }
+                stream.close();
+                return bytes.toByteArray();
+            }
+            catch (IOException ex) {
+                throw new EPException("Failed to write statement state: " + ex.getMessage(), ex);
+            }
+        }
+
+        public Object byteArrayToObject(byte[] bytes, EventAdapterService eventAdapterService) {
+            try {
+                DataInputStream stream = new DataInputStream(new ByteArrayInputStream(bytes));
+                int numStatements = stream.readInt();
+                Map<Integer, Object> states = new HashMap<Integer, Object>();
+                for (int i = 0; i < numStatements; i++) {
+                    int statementId = stream.readInt();
+                    byte kind = stream.readByte();
+                    Object aggregation = kind == STATE_NONE ? null : SnapshotSerde.getObjectSerializer().deserialize(stream);
+                    EventBean[][] windows = new EventBean[stream.readInt()][];
+                    for (int j = 0; j < windows.length; j++) {
+                        windows[j] = new EventBean[stream.readInt()];
+                        for (int k = 0; k < windows[j].length; k++) {
+                            EventType eventType = eventTypes.get(stream.readUTF());
+                            windows[j][k] = getCodec(eventType, eventAdapterService).read(stream);
+                        }
+                    }
+                    states.put(statementId, new StatementState(aggregation, windows));
+                }
+                return states;
+            }
+            catch (IOException ex) {
+                throw new EPException("Failed to read statement state: " + ex.getMessage(), ex);
+            }
+        }
+
+        private void writeState(AgentInstanceHibernatable agentInstance, DataOutputStream stream) throws IOException {
+            stream.writeInt(agentInstance.getAgentInstanceContext().getStatementId());
+            AggregationService aggregationService = agentInstance.getFactoryResult().getOptionalAggegationService();
+            if (aggregationService instanceof AggSvcGroupAllNoAccessImpl) {
+                stream.writeByte(STATE_UNGROUPED);
+                SnapshotSerde.getObjectSerializer().serialize(((AggSvcGroupAllNoAccessImpl) aggregationService).getAggregators(), stream);
+            }
+            else if (aggregationService instanceof AggSvcGroupByNoAccessImpl) {
+                stream.writeByte(STATE_GROUPED);
+                SnapshotSerde.getObjectSerializer().serialize(new HashMap<Object, AggregationMethod[]>(((AggSvcGroupByNoAccessImpl) aggregationService).getAggregatorsPerGroup()), stream);
+            }
+            else if (aggregationService instanceof AggSvcGroupByRefcountedNoAccessImpl) {
+                HashMap<Object, Object[]> rows = new HashMap<Object, Object[]>();
+                for (Map.Entry<Object, AggregationMethodRow> entry : ((AggSvcGroupByRefcountedNoAccessImpl) aggregationService).getAggregatorsPerGroup().entrySet()) {
+                    rows.put(entry.getKey(), new Object[] {entry.getValue().getRefcount(), entry.getValue().getMethods()});
+                }
+                stream.writeByte(STATE_GROUPED_REFCOUNTED);
+                SnapshotSerde.getObjectSerializer().serialize(rows, stream);
+            }
+            else {
+                stream.writeByte(STATE_NONE);
+            }
+
+            // the events of the data windows that are restorable, the windows are otherwise empty
+            Viewable[] topViews = ((StatementAgentInstanceFactorySelectResult) agentInstance.getFactoryResult()).getTopViews();
+            EventAdapterService eventAdapterService = agentInstance.getAgentInstanceContext().getStatementContext().getEventAdapterService();
+            stream.writeInt(topViews.length);
+            for (Viewable viewable : topViews) {
+                List<EventBean> events = new ArrayList<EventBean>();
+                if (viewable instanceof DataWindowView) {
+                    for (Iterator<EventBean> it = viewable.iterator(); it.hasNext(); ) {
+                        events.add(it.next());
+                    }
+                }
+                stream.writeInt(events.size());
+                for (EventBean event : events) {
+                    EventType eventType = event.getEventType();
+                    EventType existing = eventTypes.get(eventType.getName());
+                    if (existing == null) {
+                        if (eventType.getName() == null) {
+                            throw new EPException("Event type has no name");
+                        }
+                        eventTypes.put(eventType.getName(), eventType);
+                    }
+                    else if (existing != eventType) {
+                        throw new EPException("Event type name '" + eventType.getName() + "' is not unique");
+                    }
+                    stream.writeUTF(eventType.getName());
+                    getCodec(eventType, eventAdapterService).write(event, stream);
+                }
+            }
+        }
+
+        private SnapshotEventCodec getCodec(EventType eventType, EventAdapterService eventAdapterService) {
+            SnapshotEventCodec codec = codecs.get(eventType);
+            if (codec == null) {
+                codec = new SnapshotEventCodec(eventType, eventAdapterService);
+                codecs.put(eventType, codec);
+            }
+            return codec;
+        }
+    }
+
+    /**
+     * State of a statement of a hibernated partition.
+     */
+    private static class StatementState {
+        private final Object aggregation;
+        private final EventBean[][] windows;
+
+        private StatementState(Object aggregation, EventBean[][] windows) {
+            this.aggregation = aggregation;
+            this.windows = windows;
+        }
+
+        public Object getAggregation() {
+            return aggregation;
+        }
+
+        public EventBean[][] getWindows() {
+            return windows;
+        }
+    }
+}
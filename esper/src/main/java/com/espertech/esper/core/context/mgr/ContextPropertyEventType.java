@@ -20,6 +20,7 @@ import com.espertech.esper.epl.spec.ContextDetailCondition;
 import com.espertech.esper.epl.spec.ContextDetailConditionFilter;
 import com.espertech.esper.epl.spec.ContextDetailConditionPattern;
 import com.espertech.esper.epl.spec.ContextDetailPartitioned;
+import com.espertech.esper.util.CollectionUtil;
 
 import java.util.*;
 
@@ -132,7 +133,7 @@ public class ContextPropertyEventType {
             agentInstanceProperties = ((MultiKeyUntyped) keyValue).getKeys();
         }
 
-        Map<String, Object> props = new HashMap<String, Object>();
+        Map<String, Object> props = new HashMap<String, Object>(CollectionUtil.capacityHashMap(agentInstanceProperties.length + 2));
         props.put(PROP_CTX_NAME, contextName);
         props.put(PROP_CTX_ID, agentInstanceId);
         for (int i = 0; i < agentInstanceProperties.length; i++) {
@@ -0,0 +1,393 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.context.mgr;
+
+import com.espertech.esper.client.ConfigurationException;
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.context.ContextPartitionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Context state cache that keeps the context partition state of each context in an append-only log file.
+ * <p>
+ * Each context has its own log file in the configured directory. The log holds the text of the statement that created the context
+ * followed by a record for each added, updated or removed context partition path. When a context of the same name and text
+ * is created again, for example after an engine restart, the context controllers recreate the context partitions,
+ * including context partition ids and keys, from the log rather than from replaying events.
+ * </p>
+ * <p>
+ * The log is compacted when it is read and when it holds mostly stale records.
+ * Destroying the context deletes the log, destroying the engine keeps the log.
+ * </p>
+ * <p>
+ * Context partition state is written using {@link ContextStateCacheFileBindings}, which requires it to be serializable.
+ * </p>
+ */
+public class ContextStateCacheFile implements ContextStateCache {
+    private static final Logger log = LoggerFactory.getLogger(ContextStateCacheFile.class);
+
+    private static final int MAGIC = 0x45435331;
+    private static final byte RECORD_PATH = 1;
+    private static final byte RECORD_REMOVE_PATH = 2;
+    private static final byte RECORD_REMOVE_PARENT_PATH = 3;
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    private final File directory;
+    private final String engineURI;
+    private final Map<String, ContextLog> logs = new HashMap<String, ContextLog>();
+    private boolean closed;
+
+    /**
+     * Ctor.
+     * @param directory directory for log files
+     * @param engineURI engine URI, part of the log file name
+     */
+    public ContextStateCacheFile(String directory, String engineURI) {
+        this.directory = new File(directory);
+        this.engineURI = engineURI;
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw new ConfigurationException("Failed to create context state directory '" + directory + "'");
+        }
+    }
+
+    public ContextStatePathValueBinding getBinding(Object bindingInfo) {
+        return ContextStateCacheFileBindings.getBinding(bindingInfo);
+    }
+
+    /**
+     * Opens the log for a context that is being created, discarding the log if it was written for a different context of the same name.
+     * @param contextName context name
+     * @param expression text of the statement that creates the context
+     */
+    public synchronized void openContext(String contextName, String expression) {
+        if (closed) {
+            return;
+        }
+        ContextLog existing = logs.remove(contextName);
+        if (existing != null) {
+            existing.close();
+        }
+        File file = getFile(contextName);
+        ContextLog contextLog = new ContextLog(contextName, file, expression);
+        if (file.exists()) {
+            try {
+                if (!contextLog.read()) {
+                    log.info("Discarding context state for context '" + contextName + "' from file '" + file + "' as the context definition changed");
+                    contextLog.paths.clear();
+                }
+            }
+            catch (IOException ex) {
+                log.warn("Discarding context state for context '" + contextName + "' from file '" + file + "' as it could not be read: " + ex.getMessage(), ex);
+                contextLog.paths.clear();
+            }
+        }
+        contextLog.compact();
+        logs.put(contextName, contextLog);
+    }
+
+    public synchronized void addContextPath(String contextName, int level, int parentPath, int subPath, Integer optionalContextPartitionId, Object additionalInfo, ContextStatePathValueBinding binding) {
+        ContextLog contextLog = getLog(contextName);
+        if (contextLog == null) {
+            return;
+        }
+        ContextStatePathKey key = new ContextStatePathKey(level, parentPath, subPath);
+        ContextStatePathValue value = new ContextStatePathValue(optionalContextPartitionId, binding.toByteArray(additionalInfo), ContextPartitionState.STARTED);
+        contextLog.paths.put(key, value);
+        contextLog.appendPath(key, value);
+    }
+
+    public synchronized void updateContextPath(String contextName, ContextStatePathKey key, ContextStatePathValue value) {
+        ContextLog contextLog = getLog(contextName);
+        if (contextLog == null) {
+            return;
+        }
+        contextLog.paths.put(key, value);
+        contextLog.appendPath(key, value);
+    }
+
+    public synchronized void removeContextParentPath(String contextName, int level, int parentPath) {
+        ContextLog contextLog = getLog(contextName);
+        if (contextLog == null) {
+            return;
+        }
+        contextLog.removeParentPath(level, parentPath);
+        contextLog.appendRemove(RECORD_REMOVE_PARENT_PATH, level, parentPath, 0);
+    }
+
+    public synchronized void removeContextPath(String contextName, int level, int parentPath, int subPath) {
+        ContextLog contextLog = getLog(contextName);
+        if (contextLog == null) {
+            return;
+        }
+        contextLog.paths.remove(new ContextStatePathKey(level, parentPath, subPath));
+        contextLog.appendRemove(RECORD_REMOVE_PATH, level, parentPath, subPath);
+    }
+
+    public synchronized void removeContext(String contextName) {
+        if (closed) {
+            return;
+        }
+        ContextLog contextLog = logs.remove(contextName);
+        if (contextLog != null) {
+            contextLog.close();
+        }
+        File file = getFile(contextName);
+        if (file.exists() && !file.delete()) {
+            log.warn("Failed to delete context state file '" + file + "'");
+        }
+    }
+
+    public synchronized TreeMap<ContextStatePathKey, ContextStatePathValue> getContextPaths(String contextName) {
+        ContextLog contextLog = getLog(contextName);
+        if (contextLog == null || contextLog.paths.isEmpty()) {
+            return null;
+        }
+        return new TreeMap<ContextStatePathKey, ContextStatePathValue>(contextLog.paths);
+    }
+
+    /**
+     * Closes all logs retaining the log files, any further changes to context state are not recorded.
+     */
+    public synchronized void close() {
+        closed = true;
+        for (ContextLog contextLog : logs.values()) {
+            contextLog.close();
+        }
+        logs.clear();
+    }
+
+    private ContextLog getLog(String contextName) {
+        if (closed) {
+            return null;
+        }
+        ContextLog contextLog = logs.get(contextName);
+        if (contextLog == null) {
+            openContext(contextName, "");
+            contextLog = logs.get(contextName);
+        }
+        return contextLog;
+    }
+
+    private File getFile(String contextName) {
+        return new File(directory, toFileName(engineURI) + "-" + toFileName(contextName) + ".context");
+    }
+
+    private static String toFileName(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            builder.append(Character.isLetterOrDigit(c) || c == '_' || c == '-' ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    private static class ContextLog {
+        private final String contextName;
+        private final File file;
+        private final String expression;
+        private final TreeMap<ContextStatePathKey, ContextStatePathValue> paths = new TreeMap<ContextStatePathKey, ContextStatePathValue>();
+        private DataOutputStream output;
+        private int numRecords;
+
+        private ContextLog(String contextName, File file, String expression) {
+            this.contextName = contextName;
+            this.file = file;
+            this.expression = expression;
+        }
+
+        /**
+         * Reads the log, stopping at an incomplete last record.
+         * @return false if the log was written for a different context definition
+         * @throws IOException when the log could not be read
+         */
+        private boolean read() throws IOException {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (input.readInt() != MAGIC) {
+                    throw new IOException("File is not a context state file");
+                }
+                if (!input.readUTF().equals(expression)) {
+                    return false;
+                }
+                while (true) {
+                    int type = input.read();
+                    if (type == -1) {
+                        break;
+                    }
+                    int level = input.readInt();
+                    int parentPath = input.readInt();
+                    int subPath = input.readInt();
+                    if (type == RECORD_PATH) {
+                        paths.put(new ContextStatePathKey(level, parentPath, subPath), readPathValue(input));
+                    }
+                    else if (type == RECORD_REMOVE_PATH) {
+                        paths.remove(new ContextStatePathKey(level, parentPath, subPath));
+                    }
+                    else if (type == RECORD_REMOVE_PARENT_PATH) {
+                        removeParentPath(level, parentPath);
+                    }
+                    else {
+                        throw new IOException("Unrecognized record type " + type);
+                    }
+                }
+            }
+            catch (EOFException ex) {
+                log.warn("Context state file '" + file + "' ends with an incomplete record, ignoring the incomplete record");
+            }
+            finally {
+                input.close();
+            }
+            return true;
+        }
+
+        private void removeParentPath(int level, int parentPath) {
+            Iterator<ContextStatePathKey> it = paths.subMap(new ContextStatePathKey(level, parentPath, Integer.MIN_VALUE), true, new ContextStatePathKey(level, parentPath, Integer.MAX_VALUE), true).keySet().iterator();
+            while (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        private void appendPath(ContextStatePathKey key, ContextStatePathValue value) {
+            try {
+                writePath(output, key, value);
+                output.flush();
+            }
+            catch (IOException ex) {
+                throw handleWriteException(ex);
+            }
+            recordAppended();
+        }
+
+        private void appendRemove(byte type, int level, int parentPath, int subPath) {
+            try {
+                output.writeByte(type);
+                output.writeInt(level);
+                output.writeInt(parentPath);
+                output.writeInt(subPath);
+                output.flush();
+            }
+            catch (IOException ex) {
+                throw handleWriteException(ex);
+            }
+            recordAppended();
+        }
+
+        private void recordAppended() {
+            numRecords++;
+            if (numRecords >= COMPACT_MIN_RECORDS && numRecords > 2 * paths.size()) {
+                compact();
+            }
+        }
+
+        /**
+         * Rewrites the log to hold a single record for each current path.
+         */
+        private void compact() {
+            close();
+            File compacted = new File(file.getPath() + ".compact");
+            try {
+                DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compacted)));
+                try {
+                    stream.writeInt(MAGIC);
+                    stream.writeUTF(expression);
+                    for (Map.Entry<ContextStatePathKey, ContextStatePathValue> entry : paths.entrySet()) {
+                        writePath(stream, entry.getKey(), entry.getValue());
+                    }
+                }
+                finally {
+                    stream.close();
+                }
+                if (file.exists() && !file.delete()) {
+                    throw new IOException("Failed to delete file");
+                }
+                if (!compacted.renameTo(file)) {
+                    throw new IOException("Failed to rename file '" + compacted + "'");
+                }
+                output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            }
+            catch (IOException ex) {
+                throw handleWriteException(ex);
+            }
+            numRecords = paths.size();
+        }
+
+        private void close() {
+            if (output == null) {
+                return;
+            }
+            try {
+                output.close();
+            }
+            catch (IOException ex) {
+                log.warn("Failed to close context state file '" + file + "': " + ex.getMessage(), ex);
+            }
+            output = null;
+        }
+
+        private EPException handleWriteException(IOException ex) {
+            return new EPException("Failed to write context state for context '" + contextName + "' to file '" + file + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Writes a path record.
+     * @param stream output
+     * @param key path key
+     * @param value path value
+     * @throws IOException if the write fails
+     */
+    static void writePath(DataOutputStream stream, ContextStatePathKey key, ContextStatePathValue value) throws IOException {
+        stream.writeByte(RECORD_PATH);
+        stream.writeInt(key.getLevel());
+        stream.writeInt(key.getParentPath());
+        stream.writeInt(key.getSubPath());
+        stream.writeBoolean(value.getOptionalContextPartitionId() != null);
+        if (value.getOptionalContextPartitionId() != null) {
+            stream.writeInt(value.getOptionalContextPartitionId());
+        }
+        stream.writeBoolean(value.getState() == ContextPartitionState.STARTED);
+        stream.writeInt(value.getBlob().length);
+        stream.write(value.getBlob());
+    }
+
+    /**
+     * Reads a path record as written by {@link #writePath}.
+     * @param stream input
+     * @return path key and value
+     * @throws IOException if the read fails or the record is not a path record
+     */
+    static Map.Entry<ContextStatePathKey, ContextStatePathValue> readPath(DataInputStream stream) throws IOException {
+        int type = stream.readByte();
+        if (type != RECORD_PATH) {
+            throw new IOException("Unrecognized record type " + type);
+        }
+        ContextStatePathKey key = new ContextStatePathKey(stream.readInt(), stream.readInt(), stream.readInt());
+        return new AbstractMap.SimpleImmutableEntry<ContextStatePathKey, ContextStatePathValue>(key, readPathValue(stream));
+    }
+
+    private static ContextStatePathValue readPathValue(DataInputStream stream) throws IOException {
+        Integer contextPartitionId = stream.readBoolean() ? stream.readInt() : null;
+        ContextPartitionState state = stream.readBoolean() ? ContextPartitionState.STARTED : ContextPartitionState.STOPPED;
+        byte[] blob = new byte[stream.readInt()];
+        stream.readFully(blob);
+        return new ContextStatePathValue(contextPartitionId, blob, state);
+    }
+}
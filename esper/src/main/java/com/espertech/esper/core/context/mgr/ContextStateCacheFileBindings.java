@@ -0,0 +1,124 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.context.mgr;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.epl.spec.ContextDetailInitiatedTerminated;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.util.SerializerUtil;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bindings of the context state cache file that turn context partition state into the bytes kept in the log file and back.
+ * <p>
+ * Bindings use Java serialization. The partition keys of keyed segmented contexts, the hash codes and categories, and
+ * the pattern data of initiated and terminated contexts other than events must therefore be {@link Serializable}.
+ * Events that initiated a context partition are kept as the event type name and the serialized underlying event,
+ * so the underlying event must be serializable and the event type must exist, by the same name, when the log is read.
+ * </p>
+ */
+public class ContextStateCacheFileBindings {
+    /**
+     * Binding for state that is serializable as-is.
+     */
+    public final static ContextStatePathValueBinding SERIALIZABLE = new SerializableBinding();
+
+    /**
+     * Binding for the state of initiated and terminated contexts.
+     */
+    public final static ContextStatePathValueBinding INIT_TERM = new InitTermBinding();
+
+    private ContextStateCacheFileBindings() {
+    }
+
+    /**
+     * Returns the binding for a context controller.
+     * @param bindingInfo the context detail or the state class of the context controller
+     * @return binding
+     */
+    public static ContextStatePathValueBinding getBinding(Object bindingInfo) {
+        if (bindingInfo instanceof ContextDetailInitiatedTerminated) {
+            return INIT_TERM;
+        }
+        return SERIALIZABLE;
+    }
+
+    private static class SerializableBinding implements ContextStatePathValueBinding {
+        public Object byteArrayToObject(byte[] bytes, EventAdapterService eventAdapterService) {
+            return SerializerUtil.byteArrToObject(bytes);
+        }
+
+        public byte[] toByteArray(Object contextInfo) {
+            return SerializerUtil.objectToByteArr(contextInfo);
+        }
+    }
+
+    private static class InitTermBinding implements ContextStatePathValueBinding {
+        public Object byteArrayToObject(byte[] bytes, EventAdapterService eventAdapterService) {
+            ContextControllerInitTermState state = (ContextControllerInitTermState) SerializerUtil.byteArrToObject(bytes);
+            for (Map.Entry<String, Object> entry : state.getPatternData().entrySet()) {
+                if (entry.getValue() instanceof SerializedEvent) {
+                    SerializedEvent event = (SerializedEvent) entry.getValue();
+                    EventType type = eventAdapterService.getExistsTypeByName(event.getEventTypeName());
+                    if (type == null) {
+                        throw new EPException("Event type by name '" + event.getEventTypeName() + "' of the context state could not be found");
+                    }
+                    Object underlying = SerializerUtil.byteArrToObject(event.getBytes());
+                    entry.setValue(eventAdapterService.adapterForType(underlying, type));
+                }
+            }
+            return state;
+        }
+
+        public byte[] toByteArray(Object contextInfo) {
+            ContextControllerInitTermState state = (ContextControllerInitTermState) contextInfo;
+            Map<String, Object> serializableProps = new HashMap<String, Object>();
+            if (state.getPatternData() != null) {
+                for (Map.Entry<String, Object> entry : state.getPatternData().entrySet()) {
+                    if (entry.getValue() instanceof EventBean) {
+                        EventBean event = (EventBean) entry.getValue();
+                        serializableProps.put(entry.getKey(), new SerializedEvent(event.getEventType().getName(), SerializerUtil.objectToByteArr(event.getUnderlying())));
+                    }
+                    else {
+                        serializableProps.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            ContextControllerInitTermState serialized = new ContextControllerInitTermState(state.getStartTime(), serializableProps);
+            return SerializerUtil.objectToByteArr(serialized);
+        }
+    }
+
+    private static class SerializedEvent implements Serializable {
+        private static final long serialVersionUID = -2470587321684419925L;
+        private final String eventTypeName;
+        private final byte[] bytes;
+
+        private SerializedEvent(String eventTypeName, byte[] bytes) {
+            this.eventTypeName = eventTypeName;
+            this.bytes = bytes;
+        }
+
+        public String getEventTypeName() {
+            return eventTypeName;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.context.mgr;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.context.ContextPartitionState;
+import com.espertech.esper.epl.snapshot.SnapshotRecordStore;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Context state cache for the context partitions of a single context that hibernate, keeping the path of each hibernated
+ * context partition on disk rather than in memory.
+ * <p>
+ * Each path is a record in a temporary file, in the same record layout as the log of {@link ContextStateCacheFile}.
+ * The path value holds the context partition id and, as the blob, the state of the statements of the context partition
+ * as the binding provides it. Only an index of the records is kept in memory.
+ * </p>
+ */
+public class ContextStateCacheHibernate implements ContextStateCache {
+    private final String contextName;
+    private final SnapshotRecordStore<ContextStatePathKey> store;
+
+    /**
+     * Ctor.
+     * @param contextName context name
+     * @param directory directory for the file, or null for the system temporary directory
+     */
+    public ContextStateCacheHibernate(String contextName, String directory) {
+        this.contextName = contextName;
+        this.store = new SnapshotRecordStore<ContextStatePathKey>(directory, "esper-context-" + contextName.replaceAll("[^A-Za-z0-9_-]", "_") + "-", ".hibernate");
+    }
+
+    /**
+     * Returns the number of paths.
+     * @return count
+     */
+    public int size() {
+        return store.size();
+    }
+
+    public ContextStatePathValueBinding getBinding(Object bindingInfo) {
+        return ContextStateCacheFileBindings.getBinding(bindingInfo);
+    }
+
+    public void addContextPath(String contextName, int level, int parentPath, int subPath, Integer optionalContextPartitionId, Object additionalInfo, ContextStatePathValueBinding binding) {
+        ContextStatePathKey key = new ContextStatePathKey(level, parentPath, subPath);
+        updateContextPath(contextName, key, new ContextStatePathValue(optionalContextPartitionId, binding.toByteArray(additionalInfo), ContextPartitionState.STOPPED));
+    }
+
+    public void updateContextPath(String contextName, ContextStatePathKey key, ContextStatePathValue value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream stream = new DataOutputStream(bytes);
+            ContextStateCacheFile.writePath(stream, key, value);
+            stream.close();
+            store.write(key, bytes.toByteArray());
+        }
+        catch (IOException ex) {
+            throw new EPException("Failed to write hibernated state of context '" + contextName + "' to file '" + store.getFile() + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    public void removeContextParentPath(String contextName, int level, int parentPath) {
+        for (ContextStatePathKey key : new ArrayList<ContextStatePathKey>(store.keySet())) {
+            if (key.getLevel() == level && key.getParentPath() == parentPath) {
+                discard(key);
+            }
+        }
+    }
+
+    public void removeContextPath(String contextName, int level, int parentPath, int subPath) {
+        discard(new ContextStatePathKey(level, parentPath, subPath));
+    }
+
+    /**
+     * Closes and deletes the file.
+     * @param contextName context name
+     */
+    public void removeContext(String contextName) {
+        store.destroy();
+    }
+
+    public TreeMap<ContextStatePathKey, ContextStatePathValue> getContextPaths(String contextName) {
+        if (store.size() == 0) {
+            return null;
+        }
+        TreeMap<ContextStatePathKey, ContextStatePathValue> paths = new TreeMap<ContextStatePathKey, ContextStatePathValue>();
+        try {
+            for (ContextStatePathKey key : store.keySet()) {
+                Map.Entry<ContextStatePathKey, ContextStatePathValue> entry = readPath(store.get(key));
+                paths.put(entry.getKey(), entry.getValue());
+            }
+        }
+        catch (IOException ex) {
+            throw handleReadException(ex);
+        }
+        return paths;
+    }
+
+    /**
+     * Reads the value of a path and removes the path.
+     * @param key path key
+     * @return path value, or null if there is no such path
+     */
+    public ContextStatePathValue takeContextPath(ContextStatePathKey key) {
+        try {
+            byte[] bytes = store.read(key);
+            return bytes == null ? null : readPath(bytes).getValue();
+        }
+        catch (IOException ex) {
+            throw handleReadException(ex);
+        }
+    }
+
+    private void discard(ContextStatePathKey key) {
+        try {
+            store.discard(key);
+        }
+        catch (IOException ex) {
+            throw new EPException("Failed to discard hibernated state of context '" + contextName + "' in file '" + store.getFile() + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    private EPException handleReadException(IOException ex) {
+        return new EPException("Failed to read hibernated state of context '" + contextName + "' from file '" + store.getFile() + "': " + ex.getMessage(), ex);
+    }
+
+    private static Map.Entry<ContextStatePathKey, ContextStatePathValue> readPath(byte[] bytes) throws IOException {
+        return ContextStateCacheFile.readPath(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.context.util;
+
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.context.ContextPartitionFootprint;
+import com.espertech.esper.core.context.mgr.AgentInstance;
+import com.espertech.esper.core.context.mgr.ContextControllerStatementDesc;
+import com.espertech.esper.core.context.mgr.ContextControllerTreeAgentInstanceList;
+import com.espertech.esper.core.context.mgr.ContextManager;
+import com.espertech.esper.core.service.EPServicesContext;
+import com.espertech.esper.core.service.EPStatementHandle;
+import com.espertech.esper.core.service.StatementContext;
+import com.espertech.esper.epl.expression.core.ExprEvaluator;
+import com.espertech.esper.epl.expression.core.ExprNode;
+import com.espertech.esper.epl.named.NamedWindowMgmtService;
+import com.espertech.esper.epl.table.mgmt.TableService;
+import com.espertech.esper.epl.variable.VariableService;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.filter.FilterHandleSetNode;
+import com.espertech.esper.filter.FilterParamIndexBase;
+import com.espertech.esper.filter.FilterService;
+import com.espertech.esper.schedule.SchedulingService;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Estimates the memory footprint of a context partition by walking the object graph reachable from the partition's
+ * statement instances.
+ * <p>
+ * Objects that are reachable from the statement-level state, such as factories, or from another context partition
+ * are considered shared and are not counted. Engine services, filter indexes, statement context, event types and
+ * expressions are not walked. Sizes are estimated for a 64-bit virtual machine with compressed references.
+ * </p>
+ */
+public class ContextPartitionFootprintUtil {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private static final Class[] BOUNDARY_CLASSES = new Class[] {
+        Class.class, ClassLoader.class, Thread.class, Enum.class,
+        EPServicesContext.class, StatementContext.class, EPStatementHandle.class,
+        ContextManager.class, ContextMergeView.class, AgentInstance.class, ContextControllerTreeAgentInstanceList.class,
+        EventType.class, EventAdapterService.class, ExprNode.class, ExprEvaluator.class,
+        FilterService.class, FilterHandleSetNode.class, FilterParamIndexBase.class, SchedulingService.class, VariableService.class, TableService.class, NamedWindowMgmtService.class
+    };
+
+    /**
+     * Returns the estimated footprint.
+     * @param contextPartitionId id of the context partition
+     * @param partition the context partition
+     * @param sibling another context partition of the same context, or null if there is none
+     * @param statements statements of the context
+     * @return footprint
+     */
+    public static ContextPartitionFootprint estimate(int contextPartitionId,
+                                                     ContextControllerTreeAgentInstanceList partition,
+                                                     ContextControllerTreeAgentInstanceList sibling,
+                                                     Collection<ContextControllerStatementDesc> statements) {
+        Map<Class, ClassInfo> classInfos = new HashMap<Class, ClassInfo>();
+
+        // determine the shared objects
+        Set<Object> shared = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        for (ContextControllerStatementDesc statement : statements) {
+            walk(statement, shared, null, null, classInfos);
+        }
+        if (sibling != null) {
+            walk(sibling, shared, null, null, classInfos);
+            for (AgentInstance agentInstance : sibling.getAgentInstances()) {
+                walk(agentInstance, shared, null, null, classInfos);
+            }
+        }
+
+        // count the objects of the context partition, attributing each to the first statement that reaches it
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        visited.addAll(shared);
+        Map<String, long[]> perClass = new HashMap<String, long[]>();
+        Map<String, Long> perStatement = new LinkedHashMap<String, Long>();
+        long numObjects = 0;
+        long bytes = 0;
+        for (AgentInstance agentInstance : partition.getAgentInstances()) {
+            long[] totals = new long[2];
+            walk(agentInstance, visited, perClass, totals, classInfos);
+            String statementName = agentInstance.getAgentInstanceContext().getStatementContext().getStatementName();
+            Long existing = perStatement.get(statementName);
+            perStatement.put(statementName, existing == null ? totals[1] : existing + totals[1]);
+            numObjects += totals[0];
+            bytes += totals[1];
+        }
+        long[] totals = new long[2];
+        walk(partition, visited, perClass, totals, classInfos);
+        numObjects += totals[0];
+        bytes += totals[1];
+
+        List<Map.Entry<String, long[]>> classes = new ArrayList<Map.Entry<String, long[]>>(perClass.entrySet());
+        Collections.sort(classes, new Comparator<Map.Entry<String, long[]>>() {
+            public int compare(Map.Entry<String, long[]> o1, Map.Entry<String, long[]> o2) {
+                return Long.compare(o2.getValue()[0], o1.getValue()[0]);
+            }
+        });
+        Map<String, Long> perClassSorted = new LinkedHashMap<String, Long>();
+        for (Map.Entry<String, long[]> entry : classes) {
+            perClassSorted.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return new ContextPartitionFootprint(contextPartitionId, numObjects, bytes, perStatement, perClassSorted);
+    }
+
+    private static void walk(Object root, Set<Object> visited, Map<String, long[]> perClass, long[] totals, Map<Class, ClassInfo> classInfos) {
+        ArrayDeque<Object> stack = new ArrayDeque<Object>();
+        if (!visited.add(root)) {
+            return;
+        }
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Object current = stack.pop();
+            Class clazz = current.getClass();
+            long size;
+            if (clazz.isArray()) {
+                int length = java.lang.reflect.Array.getLength(current);
+                Class componentType = clazz.getComponentType();
+                size = align(ARRAY_HEADER + (long) length * sizeOf(componentType));
+                if (!componentType.isPrimitive()) {
+                    for (Object element : (Object[]) current) {
+                        push(element, visited, stack);
+                    }
+                }
+            }
+            else {
+                ClassInfo info = getClassInfo(clazz, classInfos);
+                size = info.shallowSize;
+                for (Field field : info.referenceFields) {
+                    try {
+                        push(field.get(current), visited, stack);
+                    }
+                    catch (IllegalAccessException ex) {
+                        // not accessible, treat as leaf
+                    }
+                }
+            }
+            if (totals != null) {
+                totals[0]++;
+                totals[1] += size;
+                long[] classTotal = perClass.get(clazz.getName());
+                if (classTotal == null) {
+                    classTotal = new long[1];
+                    perClass.put(clazz.getName(), classTotal);
+                }
+                classTotal[0] += size;
+            }
+        }
+    }
+
+    private static void push(Object value, Set<Object> visited, ArrayDeque<Object> stack) {
+        if (value == null || isBoundary(value) || !visited.add(value)) {
+            return;
+        }
+        stack.push(value);
+    }
+
+    private static boolean isBoundary(Object value) {
+        for (Class boundary : BOUNDARY_CLASSES) {
+            if (boundary.isInstance(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ClassInfo getClassInfo(Class clazz, Map<Class, ClassInfo> classInfos) {
+        ClassInfo info = classInfos.get(clazz);
+        if (info != null) {
+            return info;
+        }
+        long fieldBytes = 0;
+        List<Field> references = new ArrayList<Field>();
+        for (Class current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                fieldBytes += sizeOf(field.getType());
+                if (field.getType().isPrimitive()) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    references.add(field);
+                }
+                catch (RuntimeException ex) {
+                    // not accessible, treat as leaf
+                }
+            }
+        }
+        info = new ClassInfo(align(OBJECT_HEADER + fieldBytes), references.toArray(new Field[references.size()]));
+        classInfos.put(clazz, info);
+        return info;
+    }
+
+    private static int sizeOf(Class type) {
+        if (!type.isPrimitive()) {
+            return REFERENCE;
+        }
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static class ClassInfo {
+        private final long shallowSize;
+        private final Field[] referenceFields;
+
+        private ClassInfo(long shallowSize, Field[] referenceFields) {
+            this.shallowSize = shallowSize;
+            this.referenceFields = referenceFields;
+        }
+    }
+}
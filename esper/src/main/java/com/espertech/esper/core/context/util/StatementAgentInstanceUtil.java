@@ -12,6 +12,7 @@
 package com.espertech.esper.core.context.util;
 
 import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.client.hook.ExceptionHandlerExceptionType;
 import com.espertech.esper.core.context.factory.StatementAgentInstanceFactoryResult;
 import com.espertech.esper.core.context.factory.StatementAgentInstancePreload;
@@ -166,7 +167,7 @@ public class StatementAgentInstanceUtil {
             agentInstanceLock = instance.getRootViewInstance().getAgentInstanceContext().getEpStatementAgentInstanceHandle().getStatementAgentInstanceLock();
         }
         else {
-            if (isSingleInstanceContext) {
+            if (isSingleInstanceContext || HintEnum.REDUCE_CONTEXT_PARTITION_MEMORY.getHint(statementContext.getAnnotations()) != null) {
                 agentInstanceLock = statementContext.getDefaultAgentInstanceLock();
             }
             else {
@@ -100,6 +100,11 @@ public class EPContextPartitionAdminImpl implements EPContextPartitionAdminSPI
         return descriptor.getContextPartitionInformation().get(agentInstanceId);
     }
 
+    public ContextPartitionFootprint getFootprint(String contextName, int agentInstanceId) {
+        ContextManager contextManager = checkedGetContextManager(contextName);
+        return contextManager.getContextPartitionFootprint(agentInstanceId);
+    }
+
     public EPContextPartitionExtract extractStopPaths(String contextName, ContextPartitionSelector selector) {
         ContextManager contextManager = checkedGetContextManager(contextName);
         ContextStatePathDescriptor descriptor = contextManager.extractStopPaths(selector);
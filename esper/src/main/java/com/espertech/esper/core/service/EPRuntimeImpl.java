@@ -37,8 +37,12 @@ import com.espertech.esper.epl.expression.visitor.ExprNodeSubselectDeclaredDotVi
 import com.espertech.esper.epl.metric.MetricReportingPath;
 import com.espertech.esper.epl.script.AgentInstanceScriptContext;
 import com.espertech.esper.epl.spec.*;
+import com.espertech.esper.epl.named.NamedWindowProcessor;
+import com.espertech.esper.epl.snapshot.NamedWindowSnapshot;
+import com.espertech.esper.epl.snapshot.TableSnapshot;
 import com.espertech.esper.epl.spec.util.StatementSpecRawAnalyzer;
 import com.espertech.esper.epl.table.mgmt.TableExprEvaluatorContext;
+import com.espertech.esper.epl.table.mgmt.TableMetadata;
 import com.espertech.esper.epl.variable.VariableMetaData;
 import com.espertech.esper.epl.variable.VariableReader;
 import com.espertech.esper.epl.variable.VariableService;
@@ -57,6 +61,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Node;
 
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.net.URI;
 import java.util.*;
@@ -1326,6 +1331,15 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
         }
     }
 
+    /**
+     * Returns the per-thread queue of routed events.
+     * @return work queue
+     */
+    public ThreadWorkQueue getThreadWorkQueue()
+    {
+        return threadWorkQueue;
+    }
+
     /**
      * Dispatch events.
      */
@@ -1523,6 +1537,14 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
         return executeQueryInternal(epl, null, null, contextPartitionSelectors);
     }
 
+    public int writeSnapshot(String namedWindowOrTableName, File file) throws EPException {
+        return snapshotInternal(namedWindowOrTableName, file, true);
+    }
+
+    public int restoreSnapshot(String namedWindowOrTableName, File file) throws EPException {
+        return snapshotInternal(namedWindowOrTableName, file, false);
+    }
+
     public EPOnDemandQueryResult executeQuery(String epl) {
         return executeQueryInternal(epl, null, null, null);
     }
@@ -1546,6 +1568,30 @@ public class EPRuntimeImpl implements EPRuntimeSPI, EPRuntimeEventSender, TimerC
         return executeQueryInternal(null, null, parameterizedQuery, contextPartitionSelectors);
     }
 
+    private int snapshotInternal(String namedWindowOrTableName, File file, boolean write) {
+        services.getEventProcessingRWLock().acquireReadLock();
+        try {
+            NamedWindowProcessor processor = services.getNamedWindowMgmtService().getProcessor(namedWindowOrTableName);
+            if (processor != null) {
+                if (write) {
+                    return NamedWindowSnapshot.write(processor, file, services.getEventAdapterService());
+                }
+                return NamedWindowSnapshot.restore(processor, file, services.getEventAdapterService());
+            }
+            TableMetadata tableMetadata = services.getTableService().getTableMetadata(namedWindowOrTableName);
+            if (tableMetadata != null) {
+                if (write) {
+                    return TableSnapshot.write(tableMetadata, file);
+                }
+                return TableSnapshot.restore(tableMetadata, file, services.getEventAdapterService());
+            }
+            throw new EPException("A named window or table by name '" + namedWindowOrTableName + "' does not exist");
+        }
+        finally {
+            services.getEventProcessingRWLock().releaseReadLock();
+        }
+    }
+
     private EPOnDemandQueryResult executeQueryInternal(String epl, EPStatementObjectModel model, EPOnDemandPreparedQueryParameterized parameterizedQuery, ContextPartitionSelector[] contextPartitionSelectors)
     {
         try
@@ -454,6 +454,10 @@ public final class EPServicesContext
         {
             threadingService.destroy();
         }
+        if (contextManagementService != null)
+        {
+            contextManagementService.destroy();
+        }
         if (statementLifecycleSvc != null)
         {
             statementLifecycleSvc.destroy();
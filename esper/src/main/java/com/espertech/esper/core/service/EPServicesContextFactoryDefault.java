@@ -15,6 +15,7 @@ import com.espertech.esper.core.context.activator.ViewableActivatorFactoryDefaul
 import com.espertech.esper.core.context.mgr.ContextControllerFactoryFactorySvcImpl;
 import com.espertech.esper.core.context.mgr.ContextManagementService;
 import com.espertech.esper.core.context.mgr.ContextManagementServiceImpl;
+import com.espertech.esper.core.context.mgr.ContextStateCacheFile;
 import com.espertech.esper.core.context.mgr.ContextManagerFactoryServiceImpl;
 import com.espertech.esper.core.deploy.DeploymentStateService;
 import com.espertech.esper.core.deploy.DeploymentStateServiceImpl;
@@ -151,7 +152,8 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
         FilterServiceSPI filterService = FilterServiceProvider.newService(configSnapshot.getEngineDefaults().getExecution().getFilterServiceProfile(), configSnapshot.getEngineDefaults().getExecution().isAllowIsolatedService());
         MetricReportingServiceImpl metricsReporting = new MetricReportingServiceImpl(configSnapshot.getEngineDefaults().getMetricsReporting(), epServiceProvider.getURI());
         NamedWindowMgmtService namedWindowMgmtService = new NamedWindowMgmtServiceImpl(configSnapshot.getEngineDefaults().getLogging().isEnableQueryPlan(), metricsReporting);
-        NamedWindowDispatchService namedWindowDispatchService = new NamedWindowDispatchServiceImpl(schedulingService, variableService, tableService, engineSettingsService.getEngineSettings().getExecution().isPrioritized(), eventProcessingRWLock, exceptionHandlingService, metricsReporting);
+        ThreadingService threadingService = new ThreadingServiceImpl(configSnapshot.getEngineDefaults().getThreading());
+        NamedWindowDispatchService namedWindowDispatchService = new NamedWindowDispatchServiceImpl(schedulingService, variableService, tableService, engineSettingsService.getEngineSettings().getExecution().isPrioritized(), eventProcessingRWLock, exceptionHandlingService, metricsReporting, threadingService);
 
         ValueAddEventService valueAddEventService = new ValueAddEventServiceImpl();
         valueAddEventService.init(configSnapshot.getRevisionEventTypes(), configSnapshot.getVariantStreams(), eventAdapterService, eventTypeIdGenerator);
@@ -159,8 +161,6 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
         StatementEventTypeRef statementEventTypeRef = new StatementEventTypeRefImpl();
         StatementVariableRef statementVariableRef = new StatementVariableRefImpl(variableService, tableService, namedWindowMgmtService);
 
-        ThreadingService threadingService = new ThreadingServiceImpl(configSnapshot.getEngineDefaults().getThreading());
-
         InternalEventRouterImpl internalEventRouterImpl = new InternalEventRouterImpl();
 
         StatementIsolationServiceImpl statementIsolationService = new StatementIsolationServiceImpl();
@@ -175,7 +175,11 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
             stmtMetadataFactory = (StatementMetadataFactory) JavaClassHelper.instantiate(StatementMetadataFactory.class, configSnapshot.getEngineDefaults().getAlternativeContext().getStatementMetadataFactory());
         }
 
-        ContextManagementService contextManagementService = new ContextManagementServiceImpl();
+        ContextStateCacheFile contextStateCacheFile = null;
+        if (configSnapshot.getEngineDefaults().getExecution().getContextStateDirectory() != null) {
+            contextStateCacheFile = new ContextStateCacheFile(configSnapshot.getEngineDefaults().getExecution().getContextStateDirectory(), epServiceProvider.getURI());
+        }
+        ContextManagementService contextManagementService = new ContextManagementServiceImpl(contextStateCacheFile);
 
         PatternSubexpressionPoolEngineSvc patternSubexpressionPoolSvc = null;
         if (configSnapshot.getEngineDefaults().getPatterns().getMaxSubexpressions() != null) {
@@ -343,6 +347,7 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
         eventAdapterService.setClassLegacyConfigs(classLegacyInfo);
         eventAdapterService.setDefaultPropertyResolutionStyle(configSnapshot.getEngineDefaults().getEventMeta().getClassPropertyResolutionStyle());
         eventAdapterService.setDefaultAccessorStyle(configSnapshot.getEngineDefaults().getEventMeta().getDefaultAccessorStyle());
+        eventAdapterService.setInvocationBackend(configSnapshot.getEngineDefaults().getExecution().getInvocationBackend());
 
         for (String javaPackage : configSnapshot.getEventTypeAutoNamePackages())
         {
@@ -549,7 +554,8 @@ public class EPServicesContextFactoryDefault implements EPServicesContextFactory
                 configSnapshot.getEngineDefaults().getExpression().getMathContext(),
                 configSnapshot.getEngineDefaults().getExpression().getTimeZone(),
                 configSnapshot.getEngineDefaults().getExecution().getThreadingProfile(),
-                aggregationFactoryFactory);
+                aggregationFactoryFactory,
+                configSnapshot.getEngineDefaults().getExecution().getInvocationBackend());
         engineImportService.addMethodRefs(configSnapshot.getMethodInvocationReferences());
 
         // Add auto-imports
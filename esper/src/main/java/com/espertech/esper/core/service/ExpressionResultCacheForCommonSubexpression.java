@@ -0,0 +1,28 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.service;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
+
+/**
+ * On the level of a statement's common sub-expression:
+ * the cache is keyed by the node shared by all occurrences of the sub-expression and verified by the
+ * events-per-stream (EventBean[]) and the evaluation context.
+
+ * NOTE: ExpressionResultCacheEntry should not be held onto since the instance returned can be reused.
+ */
+public interface ExpressionResultCacheForCommonSubexpression {
+
+    ExpressionResultCacheEntry<EventBean[], Object> getCommonSubexpressionValue(Object node, EventBean[] eventsPerStream, ExprEvaluatorContext context);
+    void saveCommonSubexpressionValue(Object node, EventBean[] eventsPerStream, ExprEvaluatorContext context, Object result);
+}
@@ -0,0 +1,84 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.core.service;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.event.EventBeanUtility;
+
+import java.util.Arrays;
+import java.util.WeakHashMap;
+
+public class ExpressionResultCacheForCommonSubexpressionImpl implements ExpressionResultCacheForCommonSubexpression {
+
+    // enough to cover a where-clause that evaluates a small batch of rows before the select-clause does
+    private static final int CACHE_SIZE = 16;
+
+    private final ExpressionResultCacheEntry<EventBean[], Object> resultCacheEntry = new ExpressionResultCacheEntry<EventBean[], Object>(null, null);
+
+    // weakly-keyed by the statement's node so that entries go away with the statement
+    private final WeakHashMap<Object, CommonSubexpressionBuffer> cache = new WeakHashMap<Object, CommonSubexpressionBuffer>();
+
+    public ExpressionResultCacheEntry<EventBean[], Object> getCommonSubexpressionValue(Object node, EventBean[] eventsPerStream, ExprEvaluatorContext context) {
+        CommonSubexpressionBuffer buffer = cache.get(node);
+        if (buffer == null || buffer.context != context) {
+            return null;
+        }
+        // most recent first
+        int index = buffer.lastIndex;
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            EventBean[] key = buffer.keys[index];
+            if (key == null) {
+                return null;
+            }
+            if (EventBeanUtility.compareEventReferences(key, eventsPerStream)) {
+                resultCacheEntry.setReference(key);
+                resultCacheEntry.setResult(buffer.results[index]);
+                return resultCacheEntry;
+            }
+            index = index == 0 ? CACHE_SIZE - 1 : index - 1;
+        }
+        return null;
+    }
+
+    public void saveCommonSubexpressionValue(Object node, EventBean[] eventsPerStream, ExprEvaluatorContext context, Object result) {
+        CommonSubexpressionBuffer buffer = cache.get(node);
+        if (buffer == null) {
+            buffer = new CommonSubexpressionBuffer();
+            cache.put(node, buffer);
+        }
+        if (buffer.context != context) {
+            Arrays.fill(buffer.keys, null);
+            Arrays.fill(buffer.results, null);
+            buffer.context = context;
+        }
+
+        int index = buffer.lastIndex + 1 == CACHE_SIZE ? 0 : buffer.lastIndex + 1;
+        EventBean[] key = buffer.keys[index];
+        if (key != null && key.length == eventsPerStream.length) {
+            // reuse the key array as the events-per-stream size does not change for a given node
+            System.arraycopy(eventsPerStream, 0, key, 0, key.length);
+        }
+        else {
+            buffer.keys[index] = EventBeanUtility.copyArray(eventsPerStream);
+        }
+        buffer.results[index] = result;
+        buffer.lastIndex = index;
+    }
+
+    private static class CommonSubexpressionBuffer {
+        private final EventBean[][] keys = new EventBean[CACHE_SIZE][];
+        private final Object[] results = new Object[CACHE_SIZE];
+        private int lastIndex = CACHE_SIZE - 1;
+        private ExprEvaluatorContext context;
+    }
+}
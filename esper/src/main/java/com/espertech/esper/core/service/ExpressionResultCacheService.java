@@ -43,6 +43,10 @@ public class ExpressionResultCacheService {
         return threadCache.get().getAllocateEnumerationMethod();
     }
 
+    public ExpressionResultCacheForCommonSubexpression getAllocateCommonSubexpression() {
+        return threadCache.get().getAllocateCommonSubexpression();
+    }
+
     public boolean isDeclaredExprCacheEnabled() {
         return declareExprCacheSize > 0;
     }
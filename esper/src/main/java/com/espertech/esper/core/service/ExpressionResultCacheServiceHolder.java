@@ -19,6 +19,7 @@ public class ExpressionResultCacheServiceHolder {
     private ExpressionResultCacheForDeclaredExprLastValue declaredExprLastValue;
     private ExpressionResultCacheForDeclaredExprLastColl declaredExprLastColl;
     private ExpressionResultCacheForEnumerationMethod enumerationMethod;
+    private ExpressionResultCacheForCommonSubexpression commonSubexpression;
 
     public ExpressionResultCacheServiceHolder(int declareExprCacheSize) {
         this.declareExprCacheSize = declareExprCacheSize;
@@ -59,4 +60,11 @@ public class ExpressionResultCacheServiceHolder {
         }
         return enumerationMethod;
     }
+
+    public ExpressionResultCacheForCommonSubexpression getAllocateCommonSubexpression() {
+        if (commonSubexpression == null) {
+            commonSubexpression = new ExpressionResultCacheForCommonSubexpressionImpl();
+        }
+        return commonSubexpression;
+    }
 }
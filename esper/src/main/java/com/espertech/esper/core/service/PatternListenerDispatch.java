@@ -90,6 +90,12 @@ public class PatternListenerDispatch implements Dispatchable
         }
     }
 
+    public void discard()
+    {
+        eventList = null;
+        singleEvent = null;
+    }
+
     /**
      * Returns true if at least one event has been added.
      * @return true if it has data, false if not
@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.core.service;
 
+import com.espertech.esper.client.ConfigurationEngineDefaults;
 import com.espertech.esper.client.EPException;
 import com.espertech.esper.client.EPStatement;
 import com.espertech.esper.client.EPSubscriberException;
@@ -46,12 +47,14 @@ public class ResultDeliveryStrategyFactory
      * @param selectClauseColumns the names of each column in the select clause
      * @param statement statement
      * @param methodName method name
+     * @param invocationBackend backend for invoking the column-wise subscriber methods
      * @return strategy for dispatching naturals
      * @throws EPSubscriberException if the subscriber is invalid
      */
     public static ResultDeliveryStrategy create(EPStatement statement, Object subscriber, String methodName,
                                                         Class[] selectClauseTypes,
-                                                        String[] selectClauseColumns)
+                                                        String[] selectClauseColumns,
+                                                        ConfigurationEngineDefaults.InvocationBackend invocationBackend)
             throws EPSubscriberException
     {
         if (selectClauseTypes == null) {
@@ -343,7 +346,7 @@ public class ResultDeliveryStrategyFactory
             }
         }
 
-        return new ResultDeliveryStrategyImpl(statement, subscriber, convertor, subscriptionMethod, startMethod, endMethod, rStreamMethod);
+        return new ResultDeliveryStrategyImpl(statement, subscriber, convertor, subscriptionMethod, startMethod, endMethod, rStreamMethod, invocationBackend);
     }
 
     private static DeliveryConvertor determineWideningDeliveryConvertor(boolean firstParameterIsEPStatement, EPStatement statement, Class[] selectClauseTypes, Class[] parameterTypes, Method method) {
@@ -8,12 +8,14 @@
  **************************************************************************************/
 package com.espertech.esper.core.service;
 
+import com.espertech.esper.client.ConfigurationEngineDefaults;
 import com.espertech.esper.client.EPException;
 import com.espertech.esper.client.EPStatement;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.collection.UniformPair;
 import com.espertech.esper.event.NaturalEventBean;
 import com.espertech.esper.util.JavaClassHelper;
+import com.espertech.esper.util.MethodHandleInvoker;
 import net.sf.cglib.reflect.FastClass;
 import net.sf.cglib.reflect.FastMethod;
 import org.slf4j.Logger;
@@ -39,6 +41,10 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
     private final FastMethod endMethodFast;
     private final boolean endMethodHasEPStatement;
     private final FastMethod updateRStreamMethodFast;
+    private final MethodHandleInvoker updateMethodHandle;
+    private final MethodHandleInvoker startMethodHandle;
+    private final MethodHandleInvoker endMethodHandle;
+    private final MethodHandleInvoker updateRStreamMethodHandle;
     private final DeliveryConvertor deliveryConvertor;
 
     /**
@@ -50,8 +56,9 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
      * @param endMethod to call to indicate when delivery ends, or null if no such indication is required
      * @param rStreamMethod to deliver the remove stream to, or null if no such indication is required
      * @param statement statement
+     * @param invocationBackend backend for invoking the subscriber methods
      */
-    public ResultDeliveryStrategyImpl(EPStatement statement, Object subscriber, DeliveryConvertor deliveryConvertor, Method method, Method startMethod, Method endMethod, Method rStreamMethod)
+    public ResultDeliveryStrategyImpl(EPStatement statement, Object subscriber, DeliveryConvertor deliveryConvertor, Method method, Method startMethod, Method endMethod, Method rStreamMethod, ConfigurationEngineDefaults.InvocationBackend invocationBackend)
     {
         this.statement = statement;
         this.subscriber = subscriber;
@@ -83,6 +90,19 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
         else {
             updateRStreamMethodFast = null;
         }
+
+        if (invocationBackend == ConfigurationEngineDefaults.InvocationBackend.METHODHANDLE) {
+            this.updateMethodHandle = MethodHandleInvoker.make(method, subscriber);
+            this.startMethodHandle = startMethod == null ? null : MethodHandleInvoker.make(startMethod, subscriber);
+            this.endMethodHandle = endMethod == null ? null : MethodHandleInvoker.make(endMethod, subscriber);
+            this.updateRStreamMethodHandle = rStreamMethod == null ? null : MethodHandleInvoker.make(rStreamMethod, subscriber);
+        }
+        else {
+            this.updateMethodHandle = null;
+            this.startMethodHandle = null;
+            this.endMethodHandle = null;
+            this.updateRStreamMethodHandle = null;
+        }
     }
 
     public void execute(UniformPair<EventBean[]> result)
@@ -104,7 +124,7 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
                 parameters = new Object[] {statement, countNew, countOld};
             }
             try {
-                startMethodFast.invoke(subscriber, parameters);
+                invoke(startMethodFast, startMethodHandle, parameters);
             }
             catch (InvocationTargetException e) {
                 handle(statement.getName(), log, e, parameters, subscriber, startMethodFast);
@@ -129,7 +149,7 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
                     NaturalEventBean natural = (NaturalEventBean) theEvent;
                     Object[] parameters = deliveryConvertor.convertRow(natural.getNatural());
                     try {
-                        updateMethodFast.invoke(subscriber, parameters);
+                        invoke(updateMethodFast, updateMethodHandle, parameters);
                     }
                     catch (InvocationTargetException e) {
                         handle(statement.getName(), log, e, parameters, subscriber, updateMethodFast);
@@ -148,7 +168,7 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
                     NaturalEventBean natural = (NaturalEventBean) theEvent;
                     Object[] parameters = deliveryConvertor.convertRow(natural.getNatural());
                     try {
-                        updateRStreamMethodFast.invoke(subscriber, parameters);
+                        invoke(updateRStreamMethodFast, updateRStreamMethodHandle, parameters);
                     }
                     catch (InvocationTargetException e) {
                         handle(statement.getName(), log, e, parameters, subscriber, updateRStreamMethodFast);
@@ -163,7 +183,7 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
         if (endMethodFast != null) {
             Object[] parameters = endMethodHasEPStatement ? new Object[] {statement} : null;
             try {
-                endMethodFast.invoke(subscriber, parameters);
+                invoke(endMethodFast, endMethodHandle, parameters);
             }
             catch (InvocationTargetException e) {
                 handle(statement.getName(), log, e, null, subscriber, endMethodFast);
@@ -206,6 +226,13 @@ public class ResultDeliveryStrategyImpl implements ResultDeliveryStrategy
         logger.error(message, t);
     }
 
+    private Object invoke(FastMethod fastMethod, MethodHandleInvoker methodHandle, Object[] parameters) throws InvocationTargetException {
+        if (methodHandle != null) {
+            return methodHandle.invoke(parameters);
+        }
+        return fastMethod.invoke(subscriber, parameters);
+    }
+
     private int count(EventBean[] events) {
         if (events == null)
         {
@@ -225,7 +225,7 @@ public class StatementContextFactoryDefault implements StatementContextFactory
         }
 
         // allow a special context controller factory for testing
-        ContextControllerFactoryService contextControllerFactoryService = getContextControllerFactoryService(annotations);
+        ContextControllerFactoryService contextControllerFactoryService = getContextControllerFactoryService(annotations, engineServices);
 
         // may use resource tracking
         final StatementResourceService statementResourceService = new StatementResourceService(optionalContextName != null);
@@ -277,7 +277,7 @@ public class StatementContextFactoryDefault implements StatementContextFactory
                 annotationData.getPriority());
     }
 
-    private ContextControllerFactoryService getContextControllerFactoryService(Annotation[] annotations) {
+    private ContextControllerFactoryService getContextControllerFactoryService(Annotation[] annotations, EPServicesContext engineServices) {
         try {
             ContextStateCache replacementCache = (ContextStateCache) JavaClassHelper.getAnnotationHook(annotations, HookType.CONTEXT_STATE_CACHE, ContextStateCache.class, null);
             if (replacementCache != null) {
@@ -287,7 +287,7 @@ public class StatementContextFactoryDefault implements StatementContextFactory
         catch (ExprValidationException e) {
             throw new EPException("Failed to obtain hook for " + HookType.CONTEXT_STATE_CACHE);
         }
-        return ContextControllerFactoryServiceImpl.DEFAULT_FACTORY;
+        return engineServices.getContextManagementService().getContextControllerFactoryService();
     }
 
     /**
@@ -81,6 +81,11 @@ public interface StatementResultService
      */
     public void execute();
 
+    /**
+     * Discards the results indicated by the current thread without dispatching them.
+     */
+    public void discard();
+
     public String getStatementName();
 
     public int getStatementId();
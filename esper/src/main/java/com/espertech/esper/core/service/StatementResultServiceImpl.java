@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.core.service;
 
+import com.espertech.esper.client.ConfigurationEngineDefaults;
 import com.espertech.esper.client.EPStatement;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.StatementAwareUpdateListener;
@@ -184,8 +185,10 @@ public class StatementResultServiceImpl implements StatementResultService
             return;
         }
 
+        ConfigurationEngineDefaults.InvocationBackend invocationBackend = epServiceProvider == null ?
+                ConfigurationEngineDefaults.InvocationBackend.CGLIB : epServiceProvider.getEngineImportService().getInvocationBackend();
         statementResultNaturalStrategy = ResultDeliveryStrategyFactory.create(epStatement, statementListenerSet.getSubscriber(), statementListenerSet.getSubscriberMethodName(),
-                selectClauseTypes, selectClauseColumnNames);
+                selectClauseTypes, selectClauseColumnNames, invocationBackend);
         isMakeNatural = true;
     }
 
@@ -237,6 +240,11 @@ public class StatementResultServiceImpl implements StatementResultService
         dispatches.clear();
     }
 
+    public void discard()
+    {
+        lastResults.get().clear();
+    }
+
     /**
      * Indicate an outbound result.
      * @param events to indicate
@@ -87,4 +87,12 @@ public class UpdateDispatchFutureSpin implements Dispatchable
 
         earlier = null;
     }
+
+    public void discard()
+    {
+        view.discard();
+        isCompleted = true;
+
+        earlier = null;
+    }
 }
@@ -88,6 +88,17 @@ public class UpdateDispatchFutureWait implements Dispatchable
         }
 
         view.execute();
+        complete();
+    }
+
+    public void discard()
+    {
+        view.discard();
+        complete();
+    }
+
+    private void complete()
+    {
         isCompleted = true;
 
         if (later != null)
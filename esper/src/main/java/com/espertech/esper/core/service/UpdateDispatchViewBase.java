@@ -75,6 +75,12 @@ public abstract class UpdateDispatchViewBase extends ViewSupport implements Disp
         statementResultService.execute();
     }
 
+    public void discard()
+    {
+        isDispatchWaiting.set(false);
+        statementResultService.discard();
+    }
+
     /**
      * Remove event reference to last event.
      */
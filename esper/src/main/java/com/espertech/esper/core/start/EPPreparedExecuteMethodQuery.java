@@ -10,6 +10,7 @@ package com.espertech.esper.core.start;
 
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.client.context.ContextPartitionSelector;
 import com.espertech.esper.collection.MultiKey;
 import com.espertech.esper.collection.Pair;
@@ -44,6 +45,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Starts and provides the stop method for EPL statements.
@@ -52,6 +55,7 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
 {
     private static final Logger queryPlanLog = LoggerFactory.getLogger(AuditPath.QUERYPLAN_LOG);
     private static final Logger log = LoggerFactory.getLogger(EPPreparedExecuteMethodQuery.class);
+    private static final int PARALLEL_PARTITIONS_PER_TASK = 8;
 
     private final StatementSpecCompiled statementSpec;
     private final ResultSetProcessor resultSetProcessor;
@@ -62,6 +66,7 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
     private JoinSetComposerPrototype joinSetComposerPrototype;
     private final FilterSpecCompiled[] filters;
     private boolean hasTableAccess;
+    private final boolean parallel;
 
     /**
      * Ctor.
@@ -154,6 +159,17 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
             }
         }
 
+        // check parallel execution across context partitions
+        parallel = HintEnum.PARALLEL_FIRE_AND_FORGET.getHint(statementSpec.getAnnotations()) != null;
+        if (parallel) {
+            if (numStreams > 1 || !(processors[0] instanceof FireAndForgetProcessorNamedWindow) || processors[0].isVirtualDataWindow()) {
+                throw new ExprValidationException("The " + HintEnum.PARALLEL_FIRE_AND_FORGET.getValue() + " hint requires a query against a single named window that is not a virtual data window");
+            }
+            if (hasTableAccess) {
+                throw new ExprValidationException("The " + HintEnum.PARALLEL_FIRE_AND_FORGET.getValue() + " hint is not supported with table access");
+            }
+        }
+
         // plan joins or simple queries
         if (numStreams > 1)
         {
@@ -204,6 +220,19 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
             // handle non-context case
             if (statementSpec.getOptionalContextName() == null) {
 
+                // scan the context partitions of a named window in parallel
+                if (parallel && processors[0].getProcessorInstance(agentInstanceContext) == null) {
+                    ContextPartitionSelector selector = contextPartitionSelectors == null ? null : contextPartitionSelectors[0];
+                    Collection<Integer> agentInstanceIds = EPPreparedExecuteMethodHelper.getAgentInstanceIds(processors[0], selector, services.getContextManagementService(), processors[0].getContextName());
+                    Collection<EventBean>[] snapshots = snapshotParallel(getProcessorInstances(agentInstanceIds));
+                    ArrayDeque<EventBean> events = new ArrayDeque<EventBean>();
+                    for (Collection<EventBean> snapshot : snapshots) {
+                        events.addAll(snapshot);
+                    }
+                    resultSetProcessor.clear();
+                    return process(new Collection[] {events}, true);
+                }
+
                 Collection<EventBean>[] snapshots = new Collection[numStreams];
                 for (int i = 0; i < numStreams; i++) {
 
@@ -212,7 +241,7 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
                 }
 
                 resultSetProcessor.clear();
-                return process(snapshots);
+                return process(snapshots, false);
             }
 
             List<ContextPartitionResult> contextPartitionResults = new ArrayList<ContextPartitionResult>();
@@ -220,6 +249,9 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
 
             // context partition runtime query
             Collection<Integer> agentInstanceIds = EPPreparedExecuteMethodHelper.getAgentInstanceIds(processors[0], singleSelector, services.getContextManagementService(), statementSpec.getOptionalContextName());
+            if (parallel) {
+                return executeContextParallel(agentInstanceIds);
+            }
 
             // collect events and agent instances
             for (int agentInstanceId : agentInstanceIds) {
@@ -254,6 +286,52 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
         }
     }
 
+    /**
+     * Scans and filters the context partitions in parallel and processes the results of each context partition in order.
+     */
+    private EPPreparedQueryResult executeContextParallel(Collection<Integer> agentInstanceIds) {
+        List<FireAndForgetInstance> instances = getProcessorInstances(agentInstanceIds);
+        Collection<EventBean>[] snapshots = snapshotParallel(instances);
+        ArrayDeque<EventBean[]> events = new ArrayDeque<EventBean[]>();
+        for (int i = 0; i < snapshots.length; i++) {
+            EventBean[] rows = snapshots[i].toArray(new EventBean[snapshots[i].size()]);
+            resultSetProcessor.setAgentInstanceContext(instances.get(i).getAgentInstanceContext());
+            UniformPair<EventBean[]> results = resultSetProcessor.processViewResult(rows, null, true);
+            if (results != null && results.getFirst() != null && results.getFirst().length > 0) {
+                events.add(results.getFirst());
+            }
+        }
+        return new EPPreparedQueryResult(resultSetProcessor.getResultEventType(), EventBeanUtility.flatten(events));
+    }
+
+    private List<FireAndForgetInstance> getProcessorInstances(Collection<Integer> agentInstanceIds) {
+        List<FireAndForgetInstance> instances = new ArrayList<FireAndForgetInstance>(agentInstanceIds.size());
+        for (int agentInstanceId : agentInstanceIds) {
+            FireAndForgetInstance processorInstance = processors[0].getProcessorInstanceContextById(agentInstanceId);
+            if (processorInstance != null) {
+                instances.add(processorInstance);
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * Snapshots each context partition and applies the where-clause, using the fork-join common pool
+     * unless there are few context partitions or the common pool does not run in parallel.
+     * Each context partition's lock is held only while taking its snapshot.
+     */
+    private Collection<EventBean>[] snapshotParallel(List<FireAndForgetInstance> instances) {
+        Collection<EventBean>[] snapshots = new Collection[instances.size()];
+        SnapshotAction action = new SnapshotAction(this, instances, snapshots, 0, instances.size());
+        if (ForkJoinPool.getCommonPoolParallelism() > 1 && instances.size() > PARALLEL_PARTITIONS_PER_TASK) {
+            ForkJoinPool.commonPool().invoke(action);
+        }
+        else {
+            action.snapshot();
+        }
+        return snapshots;
+    }
+
     private Collection<EventBean> getStreamFilterSnapshot(int streamNum, ContextPartitionSelector contextPartitionSelector) {
         final StreamSpecCompiled streamSpec = statementSpec.getStreamSpecs()[streamNum];
         List<ExprNode> filterExpressions = Collections.emptyList();
@@ -298,14 +376,14 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
         return coll;
     }
 
-    private EPPreparedQueryResult process(Collection<EventBean>[] snapshots) {
+    private EPPreparedQueryResult process(Collection<EventBean>[] snapshots, boolean isFiltered) {
 
         int numStreams = processors.length;
 
         UniformPair<EventBean[]> results;
         if (numStreams == 1)
         {
-            if (statementSpec.getFilterRootNode() != null)
+            if (statementSpec.getFilterRootNode() != null && !isFiltered)
             {
                 snapshots[0] = getFiltered(snapshots[0], Arrays.asList(statementSpec.getFilterRootNode()));
             }
@@ -373,6 +451,43 @@ public class EPPreparedExecuteMethodQuery implements EPPreparedExecuteMethod
         return agentInstanceContext;
     }
 
+    private static class SnapshotAction extends RecursiveAction
+    {
+        private final EPPreparedExecuteMethodQuery query;
+        private final List<FireAndForgetInstance> instances;
+        private final Collection<EventBean>[] snapshots;
+        private final int from;
+        private final int to;
+
+        private SnapshotAction(EPPreparedExecuteMethodQuery query, List<FireAndForgetInstance> instances, Collection<EventBean>[] snapshots, int from, int to) {
+            this.query = query;
+            this.instances = instances;
+            this.snapshots = snapshots;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > PARALLEL_PARTITIONS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SnapshotAction(query, instances, snapshots, from, mid), new SnapshotAction(query, instances, snapshots, mid, to));
+                return;
+            }
+            snapshot();
+        }
+
+        private void snapshot() {
+            StatementSpecCompiled spec = query.statementSpec;
+            for (int i = from; i < to; i++) {
+                Collection<EventBean> snapshot = instances.get(i).snapshotBestEffort(query, query.filters[0], spec.getAnnotations());
+                if (spec.getFilterRootNode() != null) {
+                    snapshot = query.getFiltered(snapshot, Collections.singletonList(spec.getFilterRootNode()));
+                }
+                snapshots[i] = snapshot;
+            }
+        }
+    }
+
     private static class ContextPartitionResult
     {
         private final Collection<EventBean> events;
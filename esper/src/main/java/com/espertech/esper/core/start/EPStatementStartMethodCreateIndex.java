@@ -57,7 +57,7 @@ public class EPStatementStartMethodCreateIndex extends EPStatementStartMethodBas
 
         // validate index
         EventTableCreateIndexDesc validated = EventTableIndexUtil.validateCompileExplicitIndex(spec.isUnique(), spec.getColumns(), indexedEventType);
-        final IndexMultiKey imk = new IndexMultiKey(spec.isUnique(), validated.getHashProps(), validated.getBtreeProps());
+        final IndexMultiKey imk = new IndexMultiKey(spec.isUnique(), validated.getHashProps(), validated.getBtreeProps(), validated.isBitmap());
 
         // for tables we add the index to metadata
         if (tableMetadata != null) {
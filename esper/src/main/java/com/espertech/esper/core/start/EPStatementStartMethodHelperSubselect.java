@@ -207,6 +207,9 @@ public class EPStatementStartMethodHelperSubselect
             List<StopCallback> stopCallbackList,
             boolean isRecoveringResilient) {
 
+        if (subSelectStrategyCollection.getSubqueries().isEmpty()) {
+            return Collections.emptyMap();
+        }
         Map<ExprSubselectNode, SubSelectStrategyHolder> subselectStrategies = new HashMap<ExprSubselectNode, SubSelectStrategyHolder>();
 
         for (Map.Entry<ExprSubselectNode, SubSelectStrategyFactoryDesc> subselectEntry : subSelectStrategyCollection.getSubqueries().entrySet()) {
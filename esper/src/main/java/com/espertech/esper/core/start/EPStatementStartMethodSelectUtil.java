@@ -28,6 +28,7 @@ import com.espertech.esper.core.service.StreamJoinAnalysisResult;
 import com.espertech.esper.epl.annotation.AnnotationUtil;
 import com.espertech.esper.epl.core.*;
 import com.espertech.esper.epl.db.DatabasePollingViewableFactory;
+import com.espertech.esper.epl.expression.core.ExprCommonSubexpressionAnalyzer;
 import com.espertech.esper.epl.expression.core.ExprEvaluator;
 import com.espertech.esper.epl.expression.core.ExprNodeUtility;
 import com.espertech.esper.epl.expression.core.ExprValidationException;
@@ -92,6 +93,11 @@ public class EPStatementStartMethodSelectUtil
         final boolean isJoin = statementSpec.getStreamSpecs().length > 1;
         final boolean hasContext = statementSpec.getOptionalContextName() != null;
 
+        // Share sub-expressions that occur more than once across clauses, before any of the clauses get validated
+        if (services.getConfigSnapshot().getEngineDefaults().getExpression().isCommonSubexpressionElimination()) {
+            ExprCommonSubexpressionAnalyzer.analyze(statementSpec, services.getConfigSnapshot().getEngineDefaults().getExpression().isUdfCache());
+        }
+
         // First we create streams for subselects, if there are any
         SubSelectActivationCollection subSelectStreamDesc = EPStatementStartMethodHelperSubselect.createSubSelectActivation(services, statementSpec, statementContext, destroyCallbacks);
 
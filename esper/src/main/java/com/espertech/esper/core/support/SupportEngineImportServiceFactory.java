@@ -21,6 +21,6 @@ import java.util.TimeZone;
 public class SupportEngineImportServiceFactory {
 
     public static EngineImportServiceImpl make() {
-        return new EngineImportServiceImpl(true, true, true, false, null, TimeZone.getDefault(), ConfigurationEngineDefaults.ThreadingProfile.NORMAL, AggregationFactoryFactoryDefault.INSTANCE);
+        return new EngineImportServiceImpl(true, true, true, false, null, TimeZone.getDefault(), ConfigurationEngineDefaults.ThreadingProfile.NORMAL, AggregationFactoryFactoryDefault.INSTANCE, ConfigurationEngineDefaults.InvocationBackend.CGLIB);
     }
 }
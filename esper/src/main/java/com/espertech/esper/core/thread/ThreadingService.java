@@ -131,4 +131,36 @@ public interface ThreadingService
     public ThreadPoolExecutor getInboundThreadPool();
 
     public Thread makeEventSourceThread(String engineURI, String sourceName, Runnable runnable);
+
+    /**
+     * Returns true for parallel named window consumer dispatch enabled.
+     * @return indicator
+     */
+    public boolean isNamedWindowConsumerThreading();
+
+    /**
+     * Returns true if the current thread is one of the named window consumer threads.
+     * @return indicator
+     */
+    public boolean isNamedWindowConsumerThread();
+
+    /**
+     * Returns the number of named window consumer threads.
+     * @return number of threads
+     */
+    public int getNamedWindowConsumerNumThreads();
+
+    /**
+     * Executes each unit on the named window consumer thread of the same index and returns when all units completed.
+     * Events that the units route are handed to the work queue of the calling thread, in the order of units.
+     * @param units units of work indexed by thread, null for threads that receive no work
+     */
+    public void executeNamedWindowConsumer(Runnable[] units);
+
+    /**
+     * Dispatches statement results to listeners and subscribers on each named window consumer thread that
+     * executed a unit, and returns when all dispatches completed.
+     * @param units units of work indexed by thread, as previously executed
+     */
+    public void dispatchNamedWindowConsumerResults(Runnable[] units);
 }
@@ -12,11 +12,15 @@
 package com.espertech.esper.core.thread;
 
 import com.espertech.esper.client.ConfigurationEngineDefaults;
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.collection.DualWorkQueue;
 import com.espertech.esper.core.service.EPRuntimeImpl;
 import com.espertech.esper.core.service.EPServicesContext;
+import com.espertech.esper.dispatch.DispatchService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.concurrent.*;
 
 /**
@@ -31,6 +35,7 @@ public class ThreadingServiceImpl implements ThreadingService
     private final boolean isInboundThreading;
     private final boolean isRouteThreading;
     private final boolean isOutboundThreading;
+    private final boolean isNamedWindowConsumerThreading;
 
     private BlockingQueue<Runnable> timerQueue;
     private BlockingQueue<Runnable> inboundQueue;
@@ -42,6 +47,17 @@ public class ThreadingServiceImpl implements ThreadingService
     private ThreadPoolExecutor routeThreadPool;
     private ThreadPoolExecutor outboundThreadPool;
 
+    private EPRuntimeImpl runtime;
+    private DispatchService dispatchService;
+    private ThreadPoolExecutor[] namedWindowConsumerThreads;
+    private final ThreadLocal<Boolean> isNamedWindowConsumerThread = new ThreadLocal<Boolean>()
+    {
+        protected synchronized Boolean initialValue()
+        {
+            return Boolean.FALSE;
+        }
+    };
+
     /**
      * Ctor.
      * @param threadingConfig configuration
@@ -55,6 +71,7 @@ public class ThreadingServiceImpl implements ThreadingService
             isInboundThreading = threadingConfig.isThreadPoolInbound();
             isRouteThreading = threadingConfig.isThreadPoolRouteExec();
             isOutboundThreading = threadingConfig.isThreadPoolOutbound();
+            isNamedWindowConsumerThreading = threadingConfig.isThreadPoolNamedWindowConsumer() && threadingConfig.getThreadPoolNamedWindowConsumerNumThreads() > 1;
         }
         else
         {
@@ -62,6 +79,7 @@ public class ThreadingServiceImpl implements ThreadingService
             isInboundThreading = false;
             isRouteThreading = false;
             isOutboundThreading = false;
+            isNamedWindowConsumerThreading = false;
         }
     }
 
@@ -85,8 +103,26 @@ public class ThreadingServiceImpl implements ThreadingService
         return isOutboundThreading;
     }
 
+    public boolean isNamedWindowConsumerThreading()
+    {
+        return isNamedWindowConsumerThreading;
+    }
+
+    public boolean isNamedWindowConsumerThread()
+    {
+        return isNamedWindowConsumerThread.get();
+    }
+
+    public int getNamedWindowConsumerNumThreads()
+    {
+        return isNamedWindowConsumerThreading ? config.getThreadPoolNamedWindowConsumerNumThreads() : 0;
+    }
+
     public void initThreading(EPServicesContext services, EPRuntimeImpl runtime)
     {
+        this.runtime = runtime;
+        this.dispatchService = services.getDispatchService();
+
         if (isInboundThreading)
         {
             inboundQueue = makeQueue(config.getThreadPoolInboundCapacity());
@@ -110,6 +146,22 @@ public class ThreadingServiceImpl implements ThreadingService
             outboundQueue = makeQueue(config.getThreadPoolOutboundCapacity());
             outboundThreadPool = getThreadPool(services.getEngineURI(), "Outbound", outboundQueue, config.getThreadPoolOutboundNumThreads());
         }
+
+        if (isNamedWindowConsumerThreading)
+        {
+            // one single-thread pool per thread: a unit of work given to a thread index always executes on the same thread
+            int numThreads = config.getThreadPoolNamedWindowConsumerNumThreads();
+            namedWindowConsumerThreads = new ThreadPoolExecutor[numThreads];
+            for (int i = 0; i < numThreads; i++)
+            {
+                namedWindowConsumerThreads[i] = getThreadPool(services.getEngineURI(), "NamedWindowConsumer-" + i, new LinkedBlockingQueue<Runnable>(), 1);
+                namedWindowConsumerThreads[i].execute(new Runnable() {
+                    public void run() {
+                        isNamedWindowConsumerThread.set(true);
+                    }
+                });
+            }
+        }
     }
 
     private BlockingQueue<Runnable> makeQueue(Integer threadPoolTimerExecCapacity)
@@ -174,6 +226,100 @@ public class ThreadingServiceImpl implements ThreadingService
         }
     }
 
+    public void executeNamedWindowConsumer(Runnable[] units)
+    {
+        Future<ArrayDeque<Object>[]>[] futures = new Future[units.length];
+        for (int i = 0; i < units.length; i++)
+        {
+            if (units[i] != null)
+            {
+                futures[i] = namedWindowConsumerThreads[i].submit(new NamedWindowConsumerCallable(units[i]));
+            }
+        }
+
+        // await all units, handing over routed events in the order of units
+        DualWorkQueue queues = runtime.getThreadWorkQueue().getThreadQueue();
+        RuntimeException failure = null;
+        for (Future<ArrayDeque<Object>[]> future : futures)
+        {
+            if (future == null)
+            {
+                continue;
+            }
+            try
+            {
+                ArrayDeque<Object>[] routed = future.get();
+                if (routed != null)
+                {
+                    queues.getFrontQueue().addAll(routed[0]);
+                    queues.getBackQueue().addAll(routed[1]);
+                }
+            }
+            catch (Exception ex)
+            {
+                if (failure == null)
+                {
+                    failure = getFailure(ex);
+                }
+            }
+        }
+        if (failure != null)
+        {
+            // the units that completed hold statement results on their threads that must not be delivered with a later dispatch
+            discardNamedWindowConsumerResults(units);
+            throw failure;
+        }
+    }
+
+    public void dispatchNamedWindowConsumerResults(Runnable[] units)
+    {
+        Future[] futures = new Future[units.length];
+        for (int i = 0; i < units.length; i++)
+        {
+            if (units[i] != null)
+            {
+                futures[i] = namedWindowConsumerThreads[i].submit(new Runnable() {
+                    public void run() {
+                        boolean completed = false;
+                        try {
+                            runtime.dispatch();
+                            completed = true;
+                        }
+                        finally {
+                            if (!completed) {
+                                dispatchService.discard();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+
+        RuntimeException failure = null;
+        for (Future future : futures)
+        {
+            if (future == null)
+            {
+                continue;
+            }
+            try
+            {
+                future.get();
+            }
+            catch (Exception ex)
+            {
+                if (failure == null)
+                {
+                    failure = getFailure(ex);
+                }
+            }
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
     public BlockingQueue<Runnable> getOutboundQueue()
     {
         return outboundQueue;
@@ -233,8 +379,17 @@ public class ThreadingServiceImpl implements ThreadingService
             stopPool(inboundThreadPool, inboundQueue, "Inbound");
         }
 
+        if (namedWindowConsumerThreads != null)
+        {
+            for (int i = 0; i < namedWindowConsumerThreads.length; i++)
+            {
+                stopPool(namedWindowConsumerThreads[i], namedWindowConsumerThreads[i].getQueue(), "NamedWindowConsumer-" + i);
+            }
+        }
+
         timerThreadPool = null;
         routeThreadPool = null;
+        namedWindowConsumerThreads = null;
         outboundThreadPool = null;
         inboundThreadPool = null;
     }
@@ -289,4 +444,90 @@ public class ThreadingServiceImpl implements ThreadingService
             log.error("Interruped awaiting termination", e);
         }
     }
+
+    private void discardNamedWindowConsumerResults(Runnable[] units)
+    {
+        Future[] futures = new Future[units.length];
+        for (int i = 0; i < units.length; i++)
+        {
+            if (units[i] != null)
+            {
+                futures[i] = namedWindowConsumerThreads[i].submit(new Runnable() {
+                    public void run() {
+                        dispatchService.discard();
+                    }
+                });
+            }
+        }
+        for (Future future : futures)
+        {
+            if (future == null)
+            {
+                continue;
+            }
+            try
+            {
+                future.get();
+            }
+            catch (Exception ex)
+            {
+                log.error("Failed to discard named window consumer results: " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private static RuntimeException getFailure(Exception ex)
+    {
+        if (ex instanceof InterruptedException)
+        {
+            Thread.currentThread().interrupt();
+            return new EPException("Interrupted awaiting named window consumer dispatch", ex);
+        }
+        Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+        if (cause instanceof RuntimeException)
+        {
+            return (RuntimeException) cause;
+        }
+        return new EPException(cause);
+    }
+
+    private class NamedWindowConsumerCallable implements Callable<ArrayDeque<Object>[]>
+    {
+        private final Runnable unit;
+
+        private NamedWindowConsumerCallable(Runnable unit)
+        {
+            this.unit = unit;
+        }
+
+        public ArrayDeque<Object>[] call()
+        {
+            DualWorkQueue queues = runtime.getThreadWorkQueue().getThreadQueue();
+            boolean completed = false;
+            try
+            {
+                unit.run();
+                completed = true;
+            }
+            finally
+            {
+                // a failed unit leaves no routed events or statement results on this thread for a later dispatch
+                if (!completed)
+                {
+                    queues.getFrontQueue().clear();
+                    queues.getBackQueue().clear();
+                    dispatchService.discard();
+                }
+            }
+
+            if (queues.getFrontQueue().isEmpty() && queues.getBackQueue().isEmpty())
+            {
+                return null;
+            }
+            ArrayDeque<Object>[] routed = new ArrayDeque[] {new ArrayDeque<Object>(queues.getFrontQueue()), new ArrayDeque<Object>(queues.getBackQueue())};
+            queues.getFrontQueue().clear();
+            queues.getBackQueue().clear();
+            return routed;
+        }
+    }
 }
@@ -36,4 +36,9 @@ public interface DispatchService
      */
     public void dispatch();
 
+    /**
+     * Discard all Dispatchable implementations added to the service since the last invocation of dispatch, without executing them.
+     */
+    public void discard();
+
 }
@@ -31,6 +31,23 @@ public class DispatchServiceImpl implements DispatchService
         dispatchFromQueue(threadDispatchQueue.get());
     }
 
+    public void discard()
+    {
+        ArrayDeque<Dispatchable> dispatchQueue = threadDispatchQueue.get();
+        while(true)
+        {
+            Dispatchable next = dispatchQueue.poll();
+            if (next != null)
+            {
+                next.discard();
+            }
+            else
+            {
+                break;
+            }
+        }
+    }
+
     public void addExternal(Dispatchable dispatchable)
     {
         ArrayDeque<Dispatchable> dispatchQueue = threadDispatchQueue.get();
@@ -17,4 +17,9 @@ public interface Dispatchable
      * Execute dispatch. 
      */
     public void execute();
+
+    /**
+     * Discard the dispatch without executing it, resetting any state held for the dispatch.
+     */
+    public void discard();
 }
@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Average that generates double-typed numbers.
  */
-public class AggregatorAvg implements AggregationMethod
+public class AggregatorAvg implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -435221275995774325L;
+
     protected double sum;
     protected long numDataPoints;
 
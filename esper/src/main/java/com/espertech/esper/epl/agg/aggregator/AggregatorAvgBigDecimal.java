@@ -11,6 +11,7 @@ package com.espertech.esper.epl.agg.aggregator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.MathContext;
@@ -18,8 +19,10 @@ import java.math.MathContext;
 /**
  * Average that generates a BigDecimal numbers.
  */
-public class AggregatorAvgBigDecimal implements AggregationMethod
+public class AggregatorAvgBigDecimal implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -720868928369869816L;
+
     private static final Logger log = LoggerFactory.getLogger(AggregatorAvgBigDecimal.class);
     protected BigDecimal sum;
     protected long numDataPoints;
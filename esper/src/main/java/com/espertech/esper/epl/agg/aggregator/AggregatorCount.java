@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Counts all datapoints including null values.
  */
-public class AggregatorCount implements AggregationMethod
+public class AggregatorCount implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -1949526693150671553L;
+
     protected long numDataPoints;
 
     public void clear()
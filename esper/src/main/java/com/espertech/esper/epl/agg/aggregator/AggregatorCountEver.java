@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Aggregator for count-ever value.
  */
-public class AggregatorCountEver implements AggregationMethod
+public class AggregatorCountEver implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -1607191964665187013L;
+
     protected long count;
 
     /**
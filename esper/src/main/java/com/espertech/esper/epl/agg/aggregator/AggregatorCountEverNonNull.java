@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Aggregator for count-ever value.
  */
-public class AggregatorCountEverNonNull implements AggregationMethod
+public class AggregatorCountEverNonNull implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -899685868342237608L;
+
     protected long count;
 
     /**
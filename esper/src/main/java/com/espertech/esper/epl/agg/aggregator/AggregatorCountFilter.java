@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Counts all datapoints including null values.
  */
-public class AggregatorCountFilter implements AggregationMethod
+public class AggregatorCountFilter implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = 2896128896290105996L;
+
     protected long numDataPoints;
 
     public void clear()
@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Count all non-null values.
  */
-public class AggregatorCountNonNull implements AggregationMethod
+public class AggregatorCountNonNull implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -3328827836392194647L;
+
     protected long numDataPoints;
 
     public AggregatorCountNonNull() {
@@ -8,13 +8,16 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
 import java.lang.reflect.Array;
 
 /**
  * Count all non-null values.
  */
-public class AggregatorCountNonNullFilter implements AggregationMethod
+public class AggregatorCountNonNullFilter implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = 3143198848786166443L;
+
     protected long numDataPoints;
 
     public void clear()
@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Aggregator for the very first value.
  */
-public class AggregatorFirstEver implements AggregationMethod
+public class AggregatorFirstEver implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -1357849499143053629L;
+
     protected boolean isSet;
     protected Object firstValue;
 
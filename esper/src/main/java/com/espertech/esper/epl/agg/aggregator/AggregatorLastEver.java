@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Aggregator for the very last value.
  */
-public class AggregatorLastEver implements AggregationMethod
+public class AggregatorLastEver implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = 3669931832296672587L;
+
     protected Object lastValue;
 
     public void clear()
@@ -8,10 +8,14 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * For testing if a remove stream entry has been present.
  */
-public class AggregatorLeaving implements AggregationMethod {
+public class AggregatorLeaving implements AggregationMethod, Serializable {
+    private static final long serialVersionUID = -921343778044437987L;
+
 
     protected boolean leaving = false;
 
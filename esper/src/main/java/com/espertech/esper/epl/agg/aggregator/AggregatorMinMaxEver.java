@@ -12,11 +12,15 @@ import com.espertech.esper.type.MinMaxTypeEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
+
 /**
  * Min/max aggregator for all values, not considering events leaving the aggregation (i.e. ever).
  */
-public class AggregatorMinMaxEver implements AggregationMethod
+public class AggregatorMinMaxEver implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = 632749282736452010L;
+
     private static final Logger log = LoggerFactory.getLogger(AggregatorMinMaxEver.class);
 
     protected final MinMaxTypeEnum minMaxTypeEnum;
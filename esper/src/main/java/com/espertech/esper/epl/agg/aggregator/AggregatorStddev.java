@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Standard deviation always generates double-typed numbers.
  */
-public class AggregatorStddev implements AggregationMethod
+public class AggregatorStddev implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -3160694473850697682L;
+
     protected double mean;
     protected double qn;
     protected long numDataPoints;
@@ -8,13 +8,16 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 /**
  * Sum for BigInteger values.
  */
-public class AggregatorSumBigDecimal implements AggregationMethod
+public class AggregatorSumBigDecimal implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -883286162873787069L;
+
     protected BigDecimal sum;
     protected long numDataPoints;
 
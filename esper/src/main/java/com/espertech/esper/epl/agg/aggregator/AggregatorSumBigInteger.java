@@ -8,13 +8,16 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
 import java.math.BigInteger;
 
 /**
  * Sum for BigInteger values.
  */
-public class AggregatorSumBigInteger implements AggregationMethod
+public class AggregatorSumBigInteger implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -3334773148615946357L;
+
     protected BigInteger sum;
     protected long numDataPoints;
 
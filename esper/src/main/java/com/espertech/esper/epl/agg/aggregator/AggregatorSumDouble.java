@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Sum for double values.
  */
-public class AggregatorSumDouble implements AggregationMethod
+public class AggregatorSumDouble implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = 3307910655341355944L;
+
     protected double sum;
     protected long numDataPoints;
 
@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Sum for float values.
  */
-public class AggregatorSumFloat implements AggregationMethod
+public class AggregatorSumFloat implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = 4393324996889746317L;
+
     protected float sum;
     protected long numDataPoints;
 
@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Sum for integer values.
  */
-public class AggregatorSumInteger implements AggregationMethod
+public class AggregatorSumInteger implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -1669261659578337855L;
+
     protected int sum;
     protected long numDataPoints;
 
@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Sum for long values.
  */
-public class AggregatorSumLong implements AggregationMethod
+public class AggregatorSumLong implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = 2512783303660109612L;
+
     protected long sum;
     protected long numDataPoints;
 
@@ -8,11 +8,15 @@
  **************************************************************************************/
 package com.espertech.esper.epl.agg.aggregator;
 
+import java.io.Serializable;
+
 /**
  * Sum for any number value.
  */
-public class AggregatorSumNumInteger implements AggregationMethod
+public class AggregatorSumNumInteger implements AggregationMethod, Serializable
 {
+    private static final long serialVersionUID = -364081366158428763L;
+
     protected int sum;
     protected long numDataPoints;
 
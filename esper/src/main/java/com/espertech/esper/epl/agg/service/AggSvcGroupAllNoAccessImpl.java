@@ -110,4 +110,12 @@ public class AggSvcGroupAllNoAccessImpl extends AggregationServiceBaseUngrouped
     public Collection<Object> getGroupKeys(ExprEvaluatorContext exprEvaluatorContext) {
         return null;
     }
+
+    /**
+     * Returns the aggregation state, for use in saving and restoring the state of a context partition.
+     * @return aggregators
+     */
+    public AggregationMethod[] getAggregators() {
+        return aggregators;
+    }
 }
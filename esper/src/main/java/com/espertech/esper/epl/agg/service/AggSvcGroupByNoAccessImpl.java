@@ -151,4 +151,12 @@ public class AggSvcGroupByNoAccessImpl extends AggregationServiceBaseGrouped
     public Collection<Object> getGroupKeys(ExprEvaluatorContext exprEvaluatorContext) {
         return aggregatorsPerGroup.keySet();
     }
+
+    /**
+     * Returns the aggregation state per group, for use in saving and restoring the state of a context partition.
+     * @return aggregators per group
+     */
+    public Map<Object, AggregationMethod[]> getAggregatorsPerGroup() {
+        return aggregatorsPerGroup;
+    }
 }
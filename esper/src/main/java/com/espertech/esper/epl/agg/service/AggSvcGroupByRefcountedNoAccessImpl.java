@@ -189,4 +189,13 @@ public class AggSvcGroupByRefcountedNoAccessImpl extends AggregationServiceBaseG
         handleRemovedKeys();
         return aggregatorsPerGroup.keySet();
     }
+
+    /**
+     * Returns the aggregation state per group, for use in saving and restoring the state of a context partition.
+     * @return aggregation rows per group
+     */
+    public Map<Object, AggregationMethodRow> getAggregatorsPerGroup() {
+        handleRemovedKeys();
+        return aggregatorsPerGroup;
+    }
 }
@@ -264,6 +264,7 @@ public class AggSvcGroupByRefcountedWAccessImpl extends AggregationServiceBaseGr
     }
 
     public Collection<Object> getGroupKeys(ExprEvaluatorContext exprEvaluatorContext) {
+        handleRemovedKeys();
         return aggregatorsPerGroup.keySet();
     }
 }
@@ -190,5 +190,7 @@ public interface EngineImportService
 
     public ConfigurationEngineDefaults.ThreadingProfile getThreadingProfile();
 
+    public ConfigurationEngineDefaults.InvocationBackend getInvocationBackend();
+
     public AggregationFactoryFactory getAggregationFactoryFactory();
 }
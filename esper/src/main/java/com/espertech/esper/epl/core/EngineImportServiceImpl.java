@@ -54,8 +54,9 @@ public class EngineImportServiceImpl implements EngineImportService
     private final TimeZone timeZone;
     private final ConfigurationEngineDefaults.ThreadingProfile threadingProfile;
     private final AggregationFactoryFactory aggregationFactoryFactory;
+    private final ConfigurationEngineDefaults.InvocationBackend invocationBackend;
 
-	public EngineImportServiceImpl(boolean allowExtendedAggregationFunc, boolean isUdfCache, boolean isDuckType, boolean sortUsingCollator, MathContext optionalDefaultMathContext, TimeZone timeZone, ConfigurationEngineDefaults.ThreadingProfile threadingProfile, AggregationFactoryFactory aggregationFactoryFactory)
+	public EngineImportServiceImpl(boolean allowExtendedAggregationFunc, boolean isUdfCache, boolean isDuckType, boolean sortUsingCollator, MathContext optionalDefaultMathContext, TimeZone timeZone, ConfigurationEngineDefaults.ThreadingProfile threadingProfile, AggregationFactoryFactory aggregationFactoryFactory, ConfigurationEngineDefaults.InvocationBackend invocationBackend)
     {
         imports = new ArrayList<String>();
         annotationImports = new ArrayList<String>(2);
@@ -71,6 +72,7 @@ public class EngineImportServiceImpl implements EngineImportService
         this.timeZone = timeZone;
         this.threadingProfile = threadingProfile;
         this.aggregationFactoryFactory = aggregationFactoryFactory;
+        this.invocationBackend = invocationBackend;
     }
 
     public boolean isUdfCache() {
@@ -520,6 +522,10 @@ public class EngineImportServiceImpl implements EngineImportService
         return threadingProfile;
     }
 
+    public ConfigurationEngineDefaults.InvocationBackend getInvocationBackend() {
+        return invocationBackend;
+    }
+
     public boolean isSortUsingCollator() {
         return sortUsingCollator;
     }
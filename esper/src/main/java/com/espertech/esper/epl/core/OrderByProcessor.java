@@ -79,4 +79,14 @@ public interface OrderByProcessor {
      * @return sorted events
      */
     public EventBean[] sort(EventBean[] outgoingEvents, Object[] orderKeys, ExprEvaluatorContext exprEvaluatorContext);
+
+    /**
+     * Determines the current row limit and returns, in sort order, the indexes of the rows that remain after sorting by the sort keys and applying the limit.
+     * Allows producing output events only for rows that are output.
+     *
+     * @param orderKeys is the keys to sort by
+     * @param exprEvaluatorContext context for expression evalauation
+     * @return row indexes in output order, or null when all rows are output and the caller should use {@link #sort(EventBean[], Object[], ExprEvaluatorContext)}
+     */
+    public int[] sortLimitedIndexes(Object[] orderKeys, ExprEvaluatorContext exprEvaluatorContext);
 }
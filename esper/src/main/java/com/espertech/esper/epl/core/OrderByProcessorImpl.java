@@ -125,7 +125,7 @@ public class OrderByProcessorImpl implements OrderByProcessor {
 
     public EventBean[] sort(EventBean[] outgoingEvents, List<GroupByRollupKey> currentGenerators, boolean isNewData, AgentInstanceContext exprEvaluatorContext, OrderByElement[][] elementsPerLevel)
     {
-        List<Object> sortValuesMultiKeys = createSortPropertiesWRollup(currentGenerators, elementsPerLevel, isNewData, exprEvaluatorContext);
+        List<Object> sortValuesMultiKeys = Arrays.asList(createSortPropertiesWRollup(currentGenerators, elementsPerLevel, isNewData, exprEvaluatorContext));
         return sortInternal(outgoingEvents, sortValuesMultiKeys, factory.getComparator());
     }
 
@@ -136,12 +136,159 @@ public class OrderByProcessorImpl implements OrderByProcessor {
 		}
 
 		// Create the multikeys of sort values
-		List<Object> sortValuesMultiKeys = createSortProperties(generatingEvents, groupByKeys, isNewData, exprEvaluatorContext);
+		List<Object> sortValuesMultiKeys = Arrays.asList(createSortProperties(generatingEvents, groupByKeys, isNewData, exprEvaluatorContext));
 
         return sortInternal(outgoingEvents, sortValuesMultiKeys, factory.getComparator());
 	}
 
-	private List<Object> createSortProperties(EventBean[][] generatingEvents, Object[] groupByKeys, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext)
+    /**
+     * Sort the output events and return only the first rows of the sorted result, without sorting all output events.
+     * @param outgoingEvents the events to sort
+     * @param generatingEvents the events that generated the output events
+     * @param groupByKeys the group-by keys of output events, or null if the keys must be computed when needed
+     * @param isNewData indicates whether we are dealing with new data (istream) or old data (rstream)
+     * @param exprEvaluatorContext context for expression evalauation
+     * @param maxRows number of leading rows to return
+     * @return the first rows of the output events in sorted order
+     */
+    public EventBean[] sortFirst(EventBean[] outgoingEvents, EventBean[][] generatingEvents, Object[] groupByKeys, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext, int maxRows)
+    {
+        if (groupByKeys == null && factory.isNeedsGroupByKeys())
+        {
+            groupByKeys = generateGroupKeys(generatingEvents, isNewData, exprEvaluatorContext);
+        }
+        Object[] sortProperties = createSortProperties(generatingEvents, groupByKeys, isNewData, exprEvaluatorContext);
+        return sortFirst(outgoingEvents, sortProperties, maxRows);
+    }
+
+    /**
+     * Sort the output events for rollup and return only the first rows of the sorted result, without sorting all output events.
+     * @param outgoingEvents the events to sort
+     * @param currentGenerators the rollup keys and generating events of output events
+     * @param isNewData indicates whether we are dealing with new data (istream) or old data (rstream)
+     * @param exprEvaluatorContext context for expression evalauation
+     * @param elementsPerLevel order-by elements per rollup level
+     * @param maxRows number of leading rows to return
+     * @return the first rows of the output events in sorted order
+     */
+    public EventBean[] sortFirst(EventBean[] outgoingEvents, List<GroupByRollupKey> currentGenerators, boolean isNewData, AgentInstanceContext exprEvaluatorContext, OrderByElement[][] elementsPerLevel, int maxRows)
+    {
+        Object[] sortProperties = createSortPropertiesWRollup(currentGenerators, elementsPerLevel, isNewData, exprEvaluatorContext);
+        return sortFirst(outgoingEvents, sortProperties, maxRows);
+    }
+
+    /**
+     * Sort the output events by the given sort keys and return only the first rows of the sorted result, without sorting all output events.
+     * @param outgoingEvents the events to sort
+     * @param orderKeys the keys to sort by
+     * @param maxRows number of leading rows to return
+     * @return the first rows of the output events in sorted order
+     */
+    public EventBean[] sortFirst(EventBean[] outgoingEvents, Object[] orderKeys, int maxRows)
+    {
+        int[] indexes = sortFirstIndexes(orderKeys, maxRows);
+        EventBean[] result = new EventBean[indexes.length];
+        for (int i = 0; i < indexes.length; i++)
+        {
+            result[i] = outgoingEvents[indexes[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexes of the first rows when sorting by the given sort keys, in sorted order.
+     * <p>
+     * Uses a bounded heap, so that selecting the first rows out of n takes O(n log maxRows) comparisons.
+     * Rows with equal sort keys retain their original order, same as for a full sort.
+     * @param orderKeys the keys to sort by
+     * @param maxRows number of leading rows to return
+     * @return row indexes in sorted order
+     */
+    public int[] sortFirstIndexes(Object[] orderKeys, int maxRows)
+    {
+        Comparator<Object> comparator = factory.getComparator();
+        int size = Math.min(maxRows, orderKeys.length);
+        int[] heap = new int[size];
+        if (size == 0)
+        {
+            return heap;
+        }
+
+        // max-heap of row indexes, the last row in sort order is at the root
+        for (int i = 0; i < size; i++)
+        {
+            heap[i] = i;
+            siftUp(heap, i, orderKeys, comparator);
+        }
+        for (int i = size; i < orderKeys.length; i++)
+        {
+            if (compareRows(i, heap[0], orderKeys, comparator) < 0)
+            {
+                heap[0] = i;
+                siftDown(heap, 0, size, orderKeys, comparator);
+            }
+        }
+
+        // heap-sort in place into ascending sort order
+        for (int end = size - 1; end > 0; end--)
+        {
+            int root = heap[0];
+            heap[0] = heap[end];
+            heap[end] = root;
+            siftDown(heap, 0, end, orderKeys, comparator);
+        }
+        return heap;
+    }
+
+    private static int compareRows(int rowOne, int rowTwo, Object[] orderKeys, Comparator<Object> comparator)
+    {
+        int result = comparator.compare(orderKeys[rowOne], orderKeys[rowTwo]);
+        if (result != 0)
+        {
+            return result;
+        }
+        return rowOne < rowTwo ? -1 : (rowOne == rowTwo ? 0 : 1);
+    }
+
+    private static void siftUp(int[] heap, int position, Object[] orderKeys, Comparator<Object> comparator)
+    {
+        int row = heap[position];
+        while (position > 0)
+        {
+            int parent = (position - 1) >>> 1;
+            if (compareRows(row, heap[parent], orderKeys, comparator) <= 0)
+            {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = row;
+    }
+
+    private static void siftDown(int[] heap, int position, int size, Object[] orderKeys, Comparator<Object> comparator)
+    {
+        int row = heap[position];
+        int half = size >>> 1;
+        while (position < half)
+        {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && compareRows(heap[right], heap[child], orderKeys, comparator) > 0)
+            {
+                child = right;
+            }
+            if (compareRows(row, heap[child], orderKeys, comparator) >= 0)
+            {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = row;
+    }
+
+	private Object[] createSortProperties(EventBean[][] generatingEvents, Object[] groupByKeys, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext)
 	{
 		Object[] sortProperties = new Object[generatingEvents.length];
 
@@ -184,7 +331,7 @@ public class OrderByProcessorImpl implements OrderByProcessor {
                 count++;
             }
         }
-        return Arrays.asList(sortProperties);
+        return sortProperties;
 	}
 
     public EventBean[] sort(EventBean[] outgoingEvents, Object[] orderKeys, ExprEvaluatorContext exprEvaluatorContext)
@@ -268,7 +415,7 @@ public class OrderByProcessorImpl implements OrderByProcessor {
         return new MultiKeyUntyped(keys);
     }
 
-    private List<Object> createSortPropertiesWRollup(List<GroupByRollupKey> currentGenerators, OrderByElement[][] elementsPerLevel, boolean isNewData, AgentInstanceContext exprEvaluatorContext) {
+    private Object[] createSortPropertiesWRollup(List<GroupByRollupKey> currentGenerators, OrderByElement[][] elementsPerLevel, boolean isNewData, AgentInstanceContext exprEvaluatorContext) {
         Object[] sortProperties = new Object[currentGenerators.size()];
 
         OrderByElement[] elements = factory.getOrderBy();
@@ -309,7 +456,7 @@ public class OrderByProcessorImpl implements OrderByProcessor {
                 count++;
             }
         }
-        return Arrays.asList(sortProperties);
+        return sortProperties;
     }
 
     private static EventBean[] sortInternal(EventBean[] outgoingEvents, List<Object> sortValuesMultiKeys, Comparator<Object> comparator) {
@@ -426,4 +573,9 @@ public class OrderByProcessorImpl implements OrderByProcessor {
 
         return outgoingMinMaxBean;
     }
+
+    public int[] sortLimitedIndexes(Object[] orderKeys, ExprEvaluatorContext exprEvaluatorContext)
+    {
+        return null;
+    }
 }
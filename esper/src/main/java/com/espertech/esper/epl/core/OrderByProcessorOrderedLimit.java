@@ -16,7 +16,10 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 import java.util.List;
 
 /**
- * Sorter and row limiter in one: sorts using a sorter and row limits
+ * Sorter and row limiter in one: sorts using a sorter and row limits.
+ * <p>
+ * When the row limit and offset retain fewer rows than there are output events, selects the leading rows
+ * using a bounded heap instead of sorting all output events.
  */
 public class OrderByProcessorOrderedLimit implements OrderByProcessor
 {
@@ -45,17 +48,39 @@ public class OrderByProcessorOrderedLimit implements OrderByProcessor
             return new EventBean[]{minmax};
         }
 
+        int maxRows = getMaxRows();
+        if (outgoingEvents != null && maxRows < outgoingEvents.length) {
+            EventBean[] first = orderByProcessor.sortFirst(outgoingEvents, generatingEvents, null, isNewData, exprEvaluatorContext, maxRows);
+            return rowLimitProcessor.applyLimit(first);
+        }
+
         EventBean[] sorted = orderByProcessor.sort(outgoingEvents, generatingEvents, isNewData, exprEvaluatorContext);
         return rowLimitProcessor.applyLimit(sorted);
     }
 
     public EventBean[] sort(EventBean[] outgoingEvents, List<GroupByRollupKey> currentGenerators, boolean newData, AgentInstanceContext agentInstanceContext, OrderByElement[][] elementsPerLevel) {
+        if (outgoingEvents != null) {
+            rowLimitProcessor.determineCurrentLimit();
+            int maxRows = getMaxRows();
+            if (maxRows < outgoingEvents.length) {
+                EventBean[] first = orderByProcessor.sortFirst(outgoingEvents, currentGenerators, newData, agentInstanceContext, elementsPerLevel, maxRows);
+                return rowLimitProcessor.applyLimit(first);
+            }
+        }
         EventBean[] sorted = orderByProcessor.sort(outgoingEvents, currentGenerators, newData, agentInstanceContext, elementsPerLevel);
         return rowLimitProcessor.determineLimitAndApply(sorted);
     }
 
     public EventBean[] sort(EventBean[] outgoingEvents, EventBean[][] generatingEvents, Object[] groupByKeys, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext)
     {
+        if (outgoingEvents != null) {
+            rowLimitProcessor.determineCurrentLimit();
+            int maxRows = getMaxRows();
+            if (maxRows < outgoingEvents.length) {
+                EventBean[] first = orderByProcessor.sortFirst(outgoingEvents, generatingEvents, groupByKeys, isNewData, exprEvaluatorContext, maxRows);
+                return rowLimitProcessor.applyLimit(first);
+            }
+        }
         EventBean[] sorted = orderByProcessor.sort(outgoingEvents, generatingEvents, groupByKeys, isNewData, exprEvaluatorContext);
         return rowLimitProcessor.determineLimitAndApply(sorted);
     }
@@ -85,7 +110,48 @@ public class OrderByProcessorOrderedLimit implements OrderByProcessor
             return new EventBean[]{minmax};
         }
 
+        int maxRows = getMaxRows();
+        if (outgoingEvents != null && maxRows < outgoingEvents.length) {
+            EventBean[] first = orderByProcessor.sortFirst(outgoingEvents, orderKeys, maxRows);
+            return rowLimitProcessor.applyLimit(first);
+        }
+
         EventBean[] sorted = orderByProcessor.sort(outgoingEvents, orderKeys, exprEvaluatorContext);
         return rowLimitProcessor.applyLimit(sorted);
     }
+
+    public int[] sortLimitedIndexes(Object[] orderKeys, ExprEvaluatorContext exprEvaluatorContext)
+    {
+        rowLimitProcessor.determineCurrentLimit();
+        if (rowLimitProcessor.getCurrentRowLimit() == 0) {
+            return new int[0];
+        }
+        int maxRows = getMaxRows();
+        if (maxRows >= orderKeys.length) {
+            return null;
+        }
+
+        int[] first = orderByProcessor.sortFirstIndexes(orderKeys, maxRows);
+        int offset = rowLimitProcessor.getCurrentOffset();
+        if (offset == 0) {
+            return first;
+        }
+        int[] limited = new int[first.length - offset];
+        System.arraycopy(first, offset, limited, 0, limited.length);
+        return limited;
+    }
+
+    /**
+     * Returns the number of leading rows of the sorted output that the current row limit and offset retain,
+     * or Integer.MAX_VALUE when not limited or the limit is zero, in which case the full sort applies.
+     * @return number of rows
+     */
+    private int getMaxRows() {
+        int rowLimit = rowLimitProcessor.getCurrentRowLimit();
+        if (rowLimit == Integer.MAX_VALUE || rowLimit == 0) {
+            return Integer.MAX_VALUE;
+        }
+        long maxRows = (long) rowLimit + rowLimitProcessor.getCurrentOffset();
+        return maxRows >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) maxRows;
+    }
 }
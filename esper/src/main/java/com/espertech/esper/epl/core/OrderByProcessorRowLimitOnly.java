@@ -59,4 +59,9 @@ public class OrderByProcessorRowLimitOnly implements OrderByProcessor {
     {
         return rowLimitProcessor.determineLimitAndApply(outgoingEvents);
     }
+
+    public int[] sortLimitedIndexes(Object[] orderKeys, ExprEvaluatorContext exprEvaluatorContext)
+    {
+        return null;
+    }
 }
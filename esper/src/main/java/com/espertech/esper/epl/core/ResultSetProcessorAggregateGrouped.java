@@ -35,7 +35,7 @@ import java.util.*;
  * <p>
  * Aggregation state is a table of rows held by {@link AggregationService} where the row key is the group-by MultiKey.
  */
-public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, AggregationRowRemovedCallback {
+public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, AggregationRowRemovedCallback, ResultSetProcessorChangedGroups {
 
     protected final ResultSetProcessorAggregateGroupedFactory prototype;
     private final SelectExprProcessor selectExprProcessor;
@@ -54,12 +54,16 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
     private ResultSetProcessorAggregateGroupedOutputAllHelper outputAllHelper;
     private ResultSetProcessorGroupedOutputFirstHelper outputFirstHelper;
 
+    // For snapshot output of changed groups only, keep the groups updated since the last output
+    private final Set<Object> changedGroups;
+
     public ResultSetProcessorAggregateGrouped(ResultSetProcessorAggregateGroupedFactory prototype, SelectExprProcessor selectExprProcessor, OrderByProcessor orderByProcessor, AggregationService aggregationService, AgentInstanceContext agentInstanceContext) {
         this.prototype = prototype;
         this.selectExprProcessor = selectExprProcessor;
         this.orderByProcessor = orderByProcessor;
         this.aggregationService = aggregationService;
         this.agentInstanceContext = agentInstanceContext;
+        this.changedGroups = prototype.isSnapshotChangedGroups() ? new HashSet<Object>() : null;
 
         aggregationService.setRemovedCallback(this);
 
@@ -104,6 +108,9 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
                 eventsPerStream[0] = aNewData;
                 Object mk = generateGroupKey(eventsPerStream, true);
                 aggregationService.applyEnter(eventsPerStream, mk, agentInstanceContext);
+                if (changedGroups != null) {
+                    changedGroups.add(mk);
+                }
             }
         }
         if (oldData != null) {
@@ -112,6 +119,9 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
                 eventsPerStream[0] = anOldData;
                 Object mk = generateGroupKey(eventsPerStream, false);
                 aggregationService.applyLeave(eventsPerStream, mk, agentInstanceContext);
+                if (changedGroups != null) {
+                    changedGroups.add(mk);
+                }
             }
         }
     }
@@ -122,6 +132,9 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
             for (MultiKey<EventBean> eventsPerStream : newEvents) {
                 Object mk = generateGroupKey(eventsPerStream.getArray(), true);
                 aggregationService.applyEnter(eventsPerStream.getArray(), mk, agentInstanceContext);
+                if (changedGroups != null) {
+                    changedGroups.add(mk);
+                }
             }
         }
         if (oldEvents != null && !oldEvents.isEmpty()) {
@@ -129,6 +142,9 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
             for (MultiKey<EventBean> eventsPerStream : oldEvents) {
                 Object mk = generateGroupKey(eventsPerStream.getArray(), false);
                 aggregationService.applyLeave(eventsPerStream.getArray(), mk, agentInstanceContext);
+                if (changedGroups != null) {
+                    changedGroups.add(mk);
+                }
             }
         }
     }
@@ -476,7 +492,7 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
     public Iterator<EventBean> getIterator(Viewable parent)
     {
         if (!prototype.isHistoricalOnly()) {
-            return obtainIterator(parent);
+            return obtainIterator(parent.iterator());
         }
 
         aggregationService.clearResults(agentInstanceContext);
@@ -488,23 +504,25 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
             aggregationService.applyEnter(eventsPerStream, groupKey, agentInstanceContext);
         }
 
-        ArrayDeque<EventBean> deque = ResultSetProcessorUtil.iteratorToDeque(obtainIterator(parent));
+        ArrayDeque<EventBean> deque = ResultSetProcessorUtil.iteratorToDeque(obtainIterator(parent.iterator()));
         aggregationService.clearResults(agentInstanceContext);
         return deque.iterator();
     }
 
-    private Iterator<EventBean> obtainIterator(Viewable parent) {
+    private Iterator<EventBean> obtainIterator(Iterator<EventBean> parentIter) {
         if (orderByProcessor == null)
         {
-            return new ResultSetAggregateGroupedIterator(parent.iterator(), this, aggregationService,agentInstanceContext);
+            return new ResultSetAggregateGroupedIterator(parentIter, this, aggregationService,agentInstanceContext);
         }
 
         // Pull all parent events, generate order keys
         EventBean[] eventsPerStream = new EventBean[1];
-        List<EventBean> outgoingEvents = new ArrayList<EventBean>();
+        List<EventBean> candidates = new ArrayList<EventBean>();
+        List<Object> groupKeys = new ArrayList<Object>();
         List<Object> orderKeys = new ArrayList<Object>();
 
-        for (EventBean candidate : parent) {
+        while (parentIter.hasNext()) {
+            EventBean candidate = parentIter.next();
             eventsPerStream[0] = candidate;
 
             Object groupKey = generateGroupKey(eventsPerStream, true);
@@ -520,20 +538,39 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
                 }
             }
 
-            outgoingEvents.add(selectExprProcessor.process(eventsPerStream, true, true, agentInstanceContext));
-
+            candidates.add(candidate);
+            groupKeys.add(groupKey);
             Object orderKey = orderByProcessor.getSortKey(eventsPerStream, true, agentInstanceContext);
             orderKeys.add(orderKey);
         }
 
-        // sort
-        EventBean[] outgoingEventsArr = outgoingEvents.toArray(new EventBean[outgoingEvents.size()]);
+        // with a row limit, produce output events only for the rows that are output
         Object[] orderKeysArr = orderKeys.toArray(new Object[orderKeys.size()]);
+        int[] limitedIndexes = orderByProcessor.sortLimitedIndexes(orderKeysArr, agentInstanceContext);
+        if (limitedIndexes != null) {
+            EventBean[] limitedEvents = new EventBean[limitedIndexes.length];
+            for (int i = 0; i < limitedIndexes.length; i++) {
+                limitedEvents[i] = processSelectForGroup(candidates.get(limitedIndexes[i]), groupKeys.get(limitedIndexes[i]), eventsPerStream);
+            }
+            return new ArrayEventIterator(limitedEvents);
+        }
+
+        // sort
+        EventBean[] outgoingEventsArr = new EventBean[candidates.size()];
+        for (int i = 0; i < outgoingEventsArr.length; i++) {
+            outgoingEventsArr[i] = processSelectForGroup(candidates.get(i), groupKeys.get(i), eventsPerStream);
+        }
         EventBean[] orderedEvents = orderByProcessor.sort(outgoingEventsArr, orderKeysArr, agentInstanceContext);
 
         return new ArrayEventIterator(orderedEvents);
     }
 
+    private EventBean processSelectForGroup(EventBean candidate, Object groupKey, EventBean[] eventsPerStream) {
+        eventsPerStream[0] = candidate;
+        aggregationService.setCurrentAccess(groupKey, agentInstanceContext.getAgentInstanceId(), null);
+        return selectExprProcessor.process(eventsPerStream, true, true, agentInstanceContext);
+    }
+
     /**
      * Returns the select expression processor
      * @return select processor.
@@ -560,6 +597,47 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
         return new ArrayEventIterator(result);
     }
 
+    public boolean isTrackChangedGroups() {
+        return changedGroups != null;
+    }
+
+    public Iterator<EventBean> getIteratorChangedGroups(Viewable parent) {
+        if (prototype.isHistoricalOnly()) {
+            changedGroups.clear();
+            return getIterator(parent);
+        }
+        if (changedGroups.isEmpty()) {
+            return Collections.<EventBean>emptyList().iterator();
+        }
+
+        // each event of a changed group produces a row, scan the parent for the events of changed groups, retaining the order of the parent
+        List<EventBean> changedEvents = new ArrayList<EventBean>();
+        EventBean[] eventsPerStream = new EventBean[1];
+        for (EventBean candidate : parent) {
+            eventsPerStream[0] = candidate;
+            if (changedGroups.contains(generateGroupKey(eventsPerStream, true))) {
+                changedEvents.add(candidate);
+            }
+        }
+        changedGroups.clear();
+        return obtainIterator(changedEvents.iterator());
+    }
+
+    public Iterator<EventBean> getIteratorChangedGroups(Set<MultiKey<EventBean>> joinSet) {
+        Set<MultiKey<EventBean>> changedRows = new LinkedHashSet<MultiKey<EventBean>>();
+        List<Object> changedKeys = new ArrayList<Object>();
+        for (MultiKey<EventBean> row : joinSet) {
+            Object groupKey = generateGroupKey(row.getArray(), true);
+            if (changedGroups.contains(groupKey)) {
+                changedRows.add(row);
+                changedKeys.add(groupKey);
+            }
+        }
+        changedGroups.clear();
+        EventBean[] result = generateOutputEventsJoin(changedRows, changedKeys.toArray(), true, true);
+        return new ArrayEventIterator(result);
+    }
+
     public void clear()
     {
         aggregationService.clearResults(agentInstanceContext);
@@ -763,6 +841,9 @@ public class ResultSetProcessorAggregateGrouped implements ResultSetProcessor, A
         if (outputFirstHelper != null) {
             outputFirstHelper.remove(key);
         }
+        if (changedGroups != null) {
+            changedGroups.remove(key);
+        }
     }
 
     public void processOutputLimitedLastAllNonBufferedView(EventBean[] newData, EventBean[] oldData, boolean isGenerateSynthetic, boolean isAll) {
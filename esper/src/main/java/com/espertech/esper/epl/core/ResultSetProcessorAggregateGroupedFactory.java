@@ -36,6 +36,7 @@ public class ResultSetProcessorAggregateGroupedFactory implements ResultSetProce
     private final boolean isHistoricalOnly;
     private final ResultSetProcessorHelperFactory resultSetProcessorHelperFactory;
     private final OutputConditionPolledFactory optionalOutputFirstConditionFactory;
+    private final boolean snapshotChangedGroups;
     private final boolean enableOutputLimitOpt;
     private final int numStreams;
 
@@ -51,7 +52,8 @@ public class ResultSetProcessorAggregateGroupedFactory implements ResultSetProce
                                                      ResultSetProcessorHelperFactory resultSetProcessorHelperFactory,
                                                      OutputConditionPolledFactory optionalOutputFirstConditionFactory,
                                                      boolean enableOutputLimitOpt,
-                                                     int numStreams)
+                                                     int numStreams,
+                                                     boolean snapshotChangedGroups)
     {
         this.selectExprProcessor = selectExprProcessor;
         this.groupKeyNodeExpressions = groupKeyNodeExpressions;
@@ -72,6 +74,7 @@ public class ResultSetProcessorAggregateGroupedFactory implements ResultSetProce
         this.optionalOutputFirstConditionFactory = optionalOutputFirstConditionFactory;
         this.enableOutputLimitOpt = enableOutputLimitOpt;
         this.numStreams = numStreams;
+        this.snapshotChangedGroups = snapshotChangedGroups;
     }
 
     public ResultSetProcessor instantiate(OrderByProcessor orderByProcessor, AggregationService aggregationService, AgentInstanceContext agentInstanceContext) {
@@ -147,6 +150,10 @@ public class ResultSetProcessorAggregateGroupedFactory implements ResultSetProce
         return numStreams;
     }
 
+    public boolean isSnapshotChangedGroups() {
+        return snapshotChangedGroups;
+    }
+
     public boolean isOutputFirst() {
         return outputLimitSpec != null && outputLimitSpec.getDisplayLimit() == OutputLimitLimitType.FIRST;
     }
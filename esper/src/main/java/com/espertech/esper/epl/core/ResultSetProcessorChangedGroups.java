@@ -0,0 +1,43 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.core;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.collection.MultiKey;
+import com.espertech.esper.view.Viewable;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Result set processor for grouped aggregation that tracks the groups updated since the last snapshot output,
+ * for use with the SNAPSHOT_CHANGED_GROUPS hint.
+ */
+public interface ResultSetProcessorChangedGroups {
+
+    /**
+     * Returns true if the processor tracks changed groups.
+     * @return indicator
+     */
+    public boolean isTrackChangedGroups();
+
+    /**
+     * Returns the snapshot rows of the groups updated since the last call, and resets the changed groups.
+     * @param parent the parent view
+     * @return snapshot rows of changed groups
+     */
+    public Iterator<EventBean> getIteratorChangedGroups(Viewable parent);
+
+    /**
+     * Returns the snapshot rows of the groups updated since the last call, for joins, and resets the changed groups.
+     * @param joinSet the join result
+     * @return snapshot rows of changed groups
+     */
+    public Iterator<EventBean> getIteratorChangedGroups(Set<MultiKey<EventBean>> joinSet);
+}
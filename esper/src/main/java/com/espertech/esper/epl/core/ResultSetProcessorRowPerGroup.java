@@ -15,6 +15,8 @@ import com.espertech.esper.collection.MultiKey;
 import com.espertech.esper.collection.MultiKeyUntyped;
 import com.espertech.esper.collection.UniformPair;
 import com.espertech.esper.core.context.util.AgentInstanceContext;
+import com.espertech.esper.epl.agg.service.AggSvcGroupByRefcountedNoAccessImpl;
+import com.espertech.esper.epl.agg.service.AggSvcGroupByRefcountedWAccessImpl;
 import com.espertech.esper.epl.agg.service.AggregationRowRemovedCallback;
 import com.espertech.esper.epl.agg.service.AggregationService;
 import com.espertech.esper.epl.expression.core.ExprEvaluator;
@@ -34,7 +36,7 @@ import java.util.*;
  * each event and uses a set of the group-by keys to generate the result rows, using the first (old or new, anyone) event
  * for each distinct group-by key.
  */
-public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, AggregationRowRemovedCallback {
+public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, AggregationRowRemovedCallback, ResultSetProcessorChangedGroups {
     protected final ResultSetProcessorRowPerGroupFactory prototype;
     protected final SelectExprProcessor selectExprProcessor;
     protected final OrderByProcessor orderByProcessor;
@@ -49,12 +51,23 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
     private ResultSetProcessorRowPerGroupOutputLastHelper outputLastHelper;
     private ResultSetProcessorRowPerGroupOutputAllHelper outputAllHelper;
 
+    // For snapshot output of changed groups only, keep the groups updated since the last output and a representative event,
+    // or representative events per stream for joins
+    protected final Map<Object, EventBean> changedGroupReps;
+    private final Map<Object, EventBean[]> changedGroupRepsJoin;
+
+    // A refcounting aggregation service only keeps groups that have events, a representative is valid while its group is kept
+    private final boolean changedGroupRepsByRefcount;
+
     public ResultSetProcessorRowPerGroup(ResultSetProcessorRowPerGroupFactory prototype, SelectExprProcessor selectExprProcessor, OrderByProcessor orderByProcessor, AggregationService aggregationService, AgentInstanceContext agentInstanceContext) {
         this.prototype = prototype;
         this.selectExprProcessor = selectExprProcessor;
         this.orderByProcessor = orderByProcessor;
         this.aggregationService = aggregationService;
         this.agentInstanceContext = agentInstanceContext;
+        this.changedGroupReps = prototype.isSnapshotChangedGroups() ? new LinkedHashMap<Object, EventBean>() : null;
+        this.changedGroupRepsJoin = prototype.isSnapshotChangedGroups() ? new LinkedHashMap<Object, EventBean[]>() : null;
+        this.changedGroupRepsByRefcount = aggregationService instanceof AggSvcGroupByRefcountedNoAccessImpl || aggregationService instanceof AggSvcGroupByRefcountedWAccessImpl;
 
         aggregationService.setRemovedCallback(this);
 
@@ -91,6 +104,9 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
                 eventsPerStream[0] = aNewData;
                 Object mk = generateGroupKey(eventsPerStream, true);
                 aggregationService.applyEnter(eventsPerStream, mk, agentInstanceContext);
+                if (changedGroupReps != null) {
+                    changedGroupReps.put(mk, aNewData);
+                }
             }
         }
         if (oldData != null) {
@@ -99,6 +115,9 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
                 eventsPerStream[0] = anOldData;
                 Object mk = generateGroupKey(eventsPerStream, false);
                 aggregationService.applyLeave(eventsPerStream, mk, agentInstanceContext);
+                if (changedGroupReps != null) {
+                    changedGroupReps.put(mk, anOldData);
+                }
             }
         }
     }
@@ -109,6 +128,9 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
             for (MultiKey<EventBean> eventsPerStream : newEvents) {
                 Object mk = generateGroupKey(eventsPerStream.getArray(), true);
                 aggregationService.applyEnter(eventsPerStream.getArray(), mk, agentInstanceContext);
+                if (changedGroupRepsJoin != null) {
+                    changedGroupRepsJoin.put(mk, eventsPerStream.getArray());
+                }
             }
         }
         if (oldEvents != null && !oldEvents.isEmpty()) {
@@ -116,6 +138,9 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
             for (MultiKey<EventBean> eventsPerStream : oldEvents) {
                 Object mk = generateGroupKey(eventsPerStream.getArray(), false);
                 aggregationService.applyLeave(eventsPerStream.getArray(), mk, agentInstanceContext);
+                if (changedGroupRepsJoin != null) {
+                    changedGroupRepsJoin.put(mk, eventsPerStream.getArray());
+                }
             }
         }
     }
@@ -546,19 +571,85 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
     }
 
     public Iterator<EventBean> obtainIterator(Viewable parent)
+    {
+        return obtainIterator(parent.iterator());
+    }
+
+    protected Iterator<EventBean> obtainIterator(Iterator<EventBean> parentIter)
     {
         if (orderByProcessor == null)
         {
-            return new ResultSetRowPerGroupIterator(parent.iterator(), this, aggregationService, agentInstanceContext);
+            return new ResultSetRowPerGroupIterator(parentIter, this, aggregationService, agentInstanceContext);
         }
-        return getIteratorSorted(parent.iterator());
+        return getIteratorSorted(parentIter);
+    }
+
+    public boolean isTrackChangedGroups() {
+        return changedGroupReps != null;
+    }
+
+    public Iterator<EventBean> getIteratorChangedGroups(Viewable parent) {
+        if (prototype.isHistoricalOnly()) {
+            changedGroupReps.clear();
+            return getIterator(parent);
+        }
+        if (changedGroupReps.isEmpty()) {
+            return Collections.<EventBean>emptyList().iterator();
+        }
+
+        // any event of a group produces the same row, use the representatives of the groups that still have events
+        if (changedGroupRepsByRefcount) {
+            Collection<Object> groupKeys = aggregationService.getGroupKeys(agentInstanceContext);
+            List<EventBean> changedEvents = new ArrayList<EventBean>(changedGroupReps.size());
+            for (Map.Entry<Object, EventBean> entry : changedGroupReps.entrySet()) {
+                if (groupKeys.contains(entry.getKey())) {
+                    changedEvents.add(entry.getValue());
+                }
+            }
+            changedGroupReps.clear();
+            return obtainIterator(changedEvents.iterator());
+        }
+
+        // otherwise keep the parent events of changed groups, retaining the order of the parent
+        List<EventBean> changedEvents = new ArrayList<EventBean>();
+        EventBean[] eventsPerStream = new EventBean[1];
+        for (EventBean candidate : parent) {
+            eventsPerStream[0] = candidate;
+            if (changedGroupReps.containsKey(generateGroupKey(eventsPerStream, true))) {
+                changedEvents.add(candidate);
+            }
+        }
+        changedGroupReps.clear();
+        return obtainIterator(changedEvents.iterator());
+    }
+
+    public Iterator<EventBean> getIteratorChangedGroups(Set<MultiKey<EventBean>> joinSet) {
+        Map<Object, EventBean[]> keysAndEvents;
+        if (changedGroupRepsByRefcount) {
+            Collection<Object> groupKeys = aggregationService.getGroupKeys(agentInstanceContext);
+            keysAndEvents = new LinkedHashMap<Object, EventBean[]>();
+            for (Map.Entry<Object, EventBean[]> entry : changedGroupRepsJoin.entrySet()) {
+                if (groupKeys.contains(entry.getKey())) {
+                    keysAndEvents.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        else {
+            keysAndEvents = new HashMap<Object, EventBean[]>();
+            generateGroupKeys(joinSet, keysAndEvents, true);
+            keysAndEvents.keySet().retainAll(changedGroupRepsJoin.keySet());
+        }
+        changedGroupRepsJoin.clear();
+        EventBean[] selectNewEvents = generateOutputEventsJoin(keysAndEvents, true, true);
+        return new ArrayEventIterator(selectNewEvents);
     }
 
     protected Iterator<EventBean> getIteratorSorted(Iterator<EventBean> parentIter) {
 
         // Pull all parent events, generate order keys
         EventBean[] eventsPerStream = new EventBean[1];
-        List<EventBean> outgoingEvents = new ArrayList<EventBean>();
+        List<EventBean> candidates = new ArrayList<EventBean>();
+        List<Object> groupKeys = new ArrayList<Object>();
         List<Object> orderKeys = new ArrayList<Object>();
         Set<Object> priorSeenGroups = new HashSet<Object>();
 
@@ -584,20 +675,39 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
             }
             priorSeenGroups.add(groupKey);
 
-            outgoingEvents.add(selectExprProcessor.process(eventsPerStream, true, true, agentInstanceContext));
-
+            candidates.add(candidate);
+            groupKeys.add(groupKey);
             Object orderKey = orderByProcessor.getSortKey(eventsPerStream, true, agentInstanceContext);
             orderKeys.add(orderKey);
         }
 
-        // sort
-        EventBean[] outgoingEventsArr = outgoingEvents.toArray(new EventBean[outgoingEvents.size()]);
+        // with a row limit, produce output events only for the groups that are output
         Object[] orderKeysArr = orderKeys.toArray(new Object[orderKeys.size()]);
+        int[] limitedIndexes = orderByProcessor.sortLimitedIndexes(orderKeysArr, agentInstanceContext);
+        if (limitedIndexes != null) {
+            EventBean[] limitedEvents = new EventBean[limitedIndexes.length];
+            for (int i = 0; i < limitedIndexes.length; i++) {
+                limitedEvents[i] = processSelectForGroup(candidates.get(limitedIndexes[i]), groupKeys.get(limitedIndexes[i]), eventsPerStream);
+            }
+            return new ArrayEventIterator(limitedEvents);
+        }
+
+        // sort
+        EventBean[] outgoingEventsArr = new EventBean[candidates.size()];
+        for (int i = 0; i < outgoingEventsArr.length; i++) {
+            outgoingEventsArr[i] = processSelectForGroup(candidates.get(i), groupKeys.get(i), eventsPerStream);
+        }
         EventBean[] orderedEvents = orderByProcessor.sort(outgoingEventsArr, orderKeysArr, agentInstanceContext);
 
         return new ArrayEventIterator(orderedEvents);
     }
 
+    private EventBean processSelectForGroup(EventBean candidate, Object groupKey, EventBean[] eventsPerStream) {
+        eventsPerStream[0] = candidate;
+        aggregationService.setCurrentAccess(groupKey, agentInstanceContext.getAgentInstanceId(), null);
+        return selectExprProcessor.process(eventsPerStream, true, true, agentInstanceContext);
+    }
+
     public Iterator<EventBean> getIterator(Set<MultiKey<EventBean>> joinSet)
     {
         Map<Object, EventBean[]> keysAndEvents = new HashMap<Object, EventBean[]>();
@@ -662,6 +772,10 @@ public class ResultSetProcessorRowPerGroup implements ResultSetProcessor, Aggreg
         if (outputFirstHelper != null) {
             outputFirstHelper.remove(key);
         }
+        if (changedGroupReps != null) {
+            changedGroupReps.remove(key);
+            changedGroupRepsJoin.remove(key);
+        }
     }
 
     public Object generateGroupKey(EventBean[] eventsPerStream, boolean isNewData) {
@@ -39,6 +39,7 @@ public class ResultSetProcessorRowPerGroupFactory implements ResultSetProcessorF
     private final boolean enableOutputLimitOpt;
     private final int numStreams;
     private final OutputConditionPolledFactory optionalOutputFirstConditionFactory;
+    private final boolean snapshotChangedGroups;
 
     public ResultSetProcessorRowPerGroupFactory(SelectExprProcessor selectExprProcessor,
                                                 ExprNode[] groupKeyNodeExpressions,
@@ -54,7 +55,8 @@ public class ResultSetProcessorRowPerGroupFactory implements ResultSetProcessorF
                                                 ResultSetProcessorHelperFactory resultSetProcessorHelperFactory,
                                                 boolean enableOutputLimitOpt,
                                                 int numStreams,
-                                                OutputConditionPolledFactory optionalOutputFirstConditionFactory)
+                                                OutputConditionPolledFactory optionalOutputFirstConditionFactory,
+                                                boolean snapshotChangedGroups)
     {
         this.groupKeyNodeExpressions = groupKeyNodeExpressions;
         this.selectExprProcessor = selectExprProcessor;
@@ -76,6 +78,7 @@ public class ResultSetProcessorRowPerGroupFactory implements ResultSetProcessorF
         this.enableOutputLimitOpt = enableOutputLimitOpt;
         this.numStreams = numStreams;
         this.optionalOutputFirstConditionFactory = optionalOutputFirstConditionFactory;
+        this.snapshotChangedGroups = snapshotChangedGroups;
     }
 
     public ResultSetProcessor instantiate(OrderByProcessor orderByProcessor, AggregationService aggregationService, AgentInstanceContext agentInstanceContext) {
@@ -150,6 +153,10 @@ public class ResultSetProcessorRowPerGroupFactory implements ResultSetProcessorF
         return numStreams;
     }
 
+    public boolean isSnapshotChangedGroups() {
+        return snapshotChangedGroups;
+    }
+
     public boolean isOutputFirst() {
         return outputLimitSpec != null && outputLimitSpec.getDisplayLimit() == OutputLimitLimitType.FIRST;
     }
@@ -15,8 +15,10 @@ import com.espertech.esper.epl.agg.service.AggregationRowRemovedCallback;
 import com.espertech.esper.epl.agg.service.AggregationService;
 import com.espertech.esper.view.Viewable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 public class ResultSetProcessorRowPerGroupUnbound extends ResultSetProcessorRowPerGroup implements AggregationRowRemovedCallback {
@@ -26,7 +28,17 @@ public class ResultSetProcessorRowPerGroupUnbound extends ResultSetProcessorRowP
     public ResultSetProcessorRowPerGroupUnbound(ResultSetProcessorRowPerGroupFactory prototype, SelectExprProcessor selectExprProcessor, OrderByProcessor orderByProcessor, AggregationService aggregationService, AgentInstanceContext agentInstanceContext) {
         super(prototype, selectExprProcessor, orderByProcessor, aggregationService, agentInstanceContext);
         groupReps = prototype.getResultSetProcessorHelperFactory().makeRSRowPerGroupUnboundGroupRep(agentInstanceContext, prototype);
-        aggregationService.setRemovedCallback(groupReps);
+        if (changedGroupReps == null) {
+            aggregationService.setRemovedCallback(groupReps);
+        }
+        else {
+            aggregationService.setRemovedCallback(new AggregationRowRemovedCallback() {
+                public void removed(Object key) {
+                    groupReps.removed(key);
+                    changedGroupReps.remove(key);
+                }
+            });
+        }
     }
 
     public void applyViewResult(EventBean[] newData, EventBean[] oldData) {
@@ -37,6 +49,9 @@ public class ResultSetProcessorRowPerGroupUnbound extends ResultSetProcessorRowP
                 Object mk = generateGroupKey(eventsPerStream, true);
                 groupReps.put(mk, eventsPerStream[0]);
                 aggregationService.applyEnter(eventsPerStream, mk, agentInstanceContext);
+                if (changedGroupReps != null) {
+                    changedGroupReps.put(mk, aNewData);
+                }
             }
         }
         if (oldData != null) {
@@ -44,6 +59,9 @@ public class ResultSetProcessorRowPerGroupUnbound extends ResultSetProcessorRowP
                 eventsPerStream[0] = anOldData;
                 Object mk = generateGroupKey(eventsPerStream, false);
                 aggregationService.applyLeave(eventsPerStream, mk, agentInstanceContext);
+                if (changedGroupReps != null) {
+                    changedGroupReps.put(mk, anOldData);
+                }
             }
         }
     }
@@ -104,6 +122,14 @@ public class ResultSetProcessorRowPerGroupUnbound extends ResultSetProcessorRowP
         return getIteratorSorted(groupReps.valueIterator());
     }
 
+    @Override
+    public Iterator<EventBean> getIteratorChangedGroups(Viewable parent) {
+        // the representative events of changed groups are kept, all groups remain represented
+        List<EventBean> changedEvents = new ArrayList<EventBean>(changedGroupReps.values());
+        changedGroupReps.clear();
+        return obtainIterator(changedEvents.iterator());
+    }
+
     @Override
     public void stop() {
         super.stop();
@@ -0,0 +1,47 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.datetime.eval;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Provides a calendar per thread for evaluating date-time methods against long-typed or date-typed input,
+ * thereby avoiding the allocation of a calendar for each evaluation.
+ * <p>
+ * The calendar returned is only valid until the next call by the same thread and must not be handed out
+ * as the result of an evaluation.
+ * </p>
+ */
+public class DatetimeCalendarCache {
+
+    private final ThreadLocal<Calendar> calendars;
+
+    public DatetimeCalendarCache(final TimeZone timeZone) {
+        this.calendars = new ThreadLocal<Calendar>() {
+            protected Calendar initialValue() {
+                return Calendar.getInstance(timeZone);
+            }
+        };
+    }
+
+    /**
+     * Returns the calendar of the current thread set to the time provided.
+     * @param timeInMillis time
+     * @return calendar
+     */
+    public Calendar getCalendar(long timeInMillis) {
+        Calendar cal = calendars.get();
+        cal.setTimeInMillis(timeInMillis);
+        return cal;
+    }
+}
@@ -17,6 +17,7 @@ import com.espertech.esper.client.EventType;
 import com.espertech.esper.epl.datetime.calop.CalendarOp;
 import com.espertech.esper.epl.datetime.interval.IntervalOp;
 import com.espertech.esper.epl.datetime.reformatop.ReformatOp;
+import com.espertech.esper.epl.datetime.reformatop.ReformatOpToCalendar;
 import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.epl.expression.dot.ExprDotEval;
 import com.espertech.esper.epl.expression.dot.ExprDotEvalVisitor;
@@ -274,15 +275,23 @@ public class ExprDotEvalDT implements ExprDotEval
     private static class DTLocalEvaluatorDateOpsReformat extends DTLocalEvaluatorCalopReformatBase {
 
         private final TimeZone timeZone;
+        private final DatetimeCalendarCache calendarCache;
 
         private DTLocalEvaluatorDateOpsReformat(List<CalendarOp> calendarOps, ReformatOp reformatOp, TimeZone timeZone) {
             super(calendarOps, reformatOp);
             this.timeZone = timeZone;
+            this.calendarCache = reformatOp instanceof ReformatOpToCalendar ? null : new DatetimeCalendarCache(timeZone);
         }
 
         public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis(((Date) target).getTime());
+            Calendar cal;
+            if (calendarCache != null) {
+                cal = calendarCache.getCalendar(((Date) target).getTime());
+            }
+            else {
+                cal = Calendar.getInstance(timeZone);
+                cal.setTimeInMillis(((Date) target).getTime());
+            }
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
             return reformatOp.evaluate(cal, eventsPerStream, isNewData, exprEvaluatorContext);
         }
@@ -301,15 +310,23 @@ public class ExprDotEvalDT implements ExprDotEval
     private static class DTLocalEvaluatorLongOpsReformat extends DTLocalEvaluatorCalopReformatBase {
 
         private final TimeZone timeZone;
+        private final DatetimeCalendarCache calendarCache;
 
         private DTLocalEvaluatorLongOpsReformat(List<CalendarOp> calendarOps, ReformatOp reformatOp, TimeZone timeZone) {
             super(calendarOps, reformatOp);
             this.timeZone = timeZone;
+            this.calendarCache = reformatOp instanceof ReformatOpToCalendar ? null : new DatetimeCalendarCache(timeZone);
         }
 
         public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis((Long) target);
+            Calendar cal;
+            if (calendarCache != null) {
+                cal = calendarCache.getCalendar((Long) target);
+            }
+            else {
+                cal = Calendar.getInstance(timeZone);
+                cal.setTimeInMillis((Long) target);
+            }
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
             return reformatOp.evaluate(cal, eventsPerStream, isNewData, exprEvaluatorContext);
         }
@@ -423,11 +440,11 @@ public class ExprDotEvalDT implements ExprDotEval
     }
 
     private static class DTLocalEvaluatorCalOpsInterval extends DTLocalEvaluatorCalOpsIntervalBase {
-        private final TimeZone timeZone;
+        private final DatetimeCalendarCache calendarCache;
 
         private DTLocalEvaluatorCalOpsInterval(List<CalendarOp> calendarOps, IntervalOp intervalOp, TimeZone timeZone) {
             super(calendarOps, intervalOp);
-            this.timeZone = timeZone;
+            this.calendarCache = new DatetimeCalendarCache(timeZone);
         }
 
         public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
@@ -440,8 +457,7 @@ public class ExprDotEvalDT implements ExprDotEval
         public Object evaluate(Object startTimestamp, Object endTimestamp, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
             long startLong = ((Calendar) startTimestamp).getTimeInMillis();
             long endLong = ((Calendar) endTimestamp).getTimeInMillis();
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis(startLong);
+            Calendar cal = calendarCache.getCalendar(startLong);
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
             long startTime = cal.getTimeInMillis();
             long endTime = startTime + (endLong - startLong);
@@ -468,16 +484,15 @@ public class ExprDotEvalDT implements ExprDotEval
 
     private static class DTLocalEvaluatorDateOpsInterval extends DTLocalEvaluatorCalOpsIntervalBase {
 
-        private final TimeZone timeZone;
+        private final DatetimeCalendarCache calendarCache;
 
         private DTLocalEvaluatorDateOpsInterval(List<CalendarOp> calendarOps, IntervalOp intervalOp, TimeZone timeZone) {
             super(calendarOps, intervalOp);
-            this.timeZone = timeZone;
+            this.calendarCache = new DatetimeCalendarCache(timeZone);
         }
 
         public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis(((Date) target).getTime());
+            Calendar cal = calendarCache.getCalendar(((Date) target).getTime());
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
             long time = cal.getTimeInMillis();
             return intervalOp.evaluate(time, time, eventsPerStream, isNewData, exprEvaluatorContext);
@@ -486,8 +501,7 @@ public class ExprDotEvalDT implements ExprDotEval
         public Object evaluate(Object startTimestamp, Object endTimestamp, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
             long startLong = ((Date) startTimestamp).getTime();
             long endLong = ((Date) endTimestamp).getTime();
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis(startLong);
+            Calendar cal = calendarCache.getCalendar(startLong);
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
             long startTime = cal.getTimeInMillis();
             long endTime = startTime + (endLong - startLong);
@@ -515,16 +529,15 @@ public class ExprDotEvalDT implements ExprDotEval
 
     private static class DTLocalEvaluatorLongOpsInterval extends DTLocalEvaluatorCalOpsIntervalBase {
 
-        private final TimeZone timeZone;
+        private final DatetimeCalendarCache calendarCache;
 
         private DTLocalEvaluatorLongOpsInterval(List<CalendarOp> calendarOps, IntervalOp intervalOp, TimeZone timeZone) {
             super(calendarOps, intervalOp);
-            this.timeZone = timeZone;
+            this.calendarCache = new DatetimeCalendarCache(timeZone);
         }
 
         public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis((Long) target);
+            Calendar cal = calendarCache.getCalendar((Long) target);
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
             long time = cal.getTimeInMillis();
             return intervalOp.evaluate(time, time, eventsPerStream, isNewData, exprEvaluatorContext);
@@ -533,8 +546,7 @@ public class ExprDotEvalDT implements ExprDotEval
         public Object evaluate(Object startTimestamp, Object endTimestamp, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
             long startLong = (Long) startTimestamp;
             long endLong = (Long) endTimestamp;
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis(startLong);
+            Calendar cal = calendarCache.getCalendar(startLong);
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
             long startTime = cal.getTimeInMillis();
             long endTime = startTime + (endLong - startLong);
@@ -664,17 +676,16 @@ public class ExprDotEvalDT implements ExprDotEval
 
     private class DTLocalEvaluatorCalOpsLong extends DTLocalEvaluatorCalOpsCalBase implements DTLocalEvaluator {
 
-        private final TimeZone timeZone;
+        private final DatetimeCalendarCache calendarCache;
 
         private DTLocalEvaluatorCalOpsLong(List<CalendarOp> calendarOps, TimeZone timeZone) {
             super(calendarOps);
-            this.timeZone = timeZone;
+            this.calendarCache = new DatetimeCalendarCache(timeZone);
         }
 
         public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
             Long longValue = (Long) target;
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis(longValue);
+            Calendar cal = calendarCache.getCalendar(longValue);
 
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
 
@@ -684,17 +695,16 @@ public class ExprDotEvalDT implements ExprDotEval
 
     private class DTLocalEvaluatorCalOpsDate extends DTLocalEvaluatorCalOpsCalBase implements DTLocalEvaluator {
 
-        private final TimeZone timeZone;
+        private final DatetimeCalendarCache calendarCache;
 
         private DTLocalEvaluatorCalOpsDate(List<CalendarOp> calendarOps, TimeZone timeZone) {
             super(calendarOps);
-            this.timeZone = timeZone;
+            this.calendarCache = new DatetimeCalendarCache(timeZone);
         }
 
         public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
             Date dateValue = (Date) target;
-            Calendar cal = Calendar.getInstance(timeZone);
-            cal.setTimeInMillis(dateValue.getTime());
+            Calendar cal = calendarCache.getCalendar(dateValue.getTime());
 
             evaluateCalOps(calendarOps, cal, eventsPerStream, isNewData, exprEvaluatorContext);
 
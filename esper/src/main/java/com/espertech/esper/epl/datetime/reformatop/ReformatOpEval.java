@@ -13,6 +13,7 @@ package com.espertech.esper.epl.datetime.reformatop;
 
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
+import com.espertech.esper.epl.datetime.eval.DatetimeCalendarCache;
 import com.espertech.esper.epl.datetime.eval.DatetimeMethodEnum;
 import com.espertech.esper.epl.datetime.eval.ExprDotNodeFilterAnalyzerDesc;
 import com.espertech.esper.epl.expression.dot.ExprDotNodeFilterAnalyzerInput;
@@ -31,24 +32,22 @@ public class ReformatOpEval implements ReformatOp {
     private final CalendarEval calendarEval;
     private final LocalDateTimeEval localDateTimeEval;
     private final ZonedDateTimeEval zonedDateTimeEval;
-    private final TimeZone timeZone;
+    private final DatetimeCalendarCache calendarCache;
 
     public ReformatOpEval(CalendarEval calendarEval, LocalDateTimeEval localDateTimeEval, ZonedDateTimeEval zonedDateTimeEval, TimeZone timeZone) {
         this.calendarEval = calendarEval;
         this.localDateTimeEval = localDateTimeEval;
         this.zonedDateTimeEval = zonedDateTimeEval;
-        this.timeZone = timeZone;
+        this.calendarCache = new DatetimeCalendarCache(timeZone);
     }
 
     public Object evaluate(Long ts, EventBean[] eventsPerStream, boolean newData, ExprEvaluatorContext exprEvaluatorContext) {
-        Calendar cal = Calendar.getInstance(timeZone);
-        cal.setTimeInMillis(ts);
+        Calendar cal = calendarCache.getCalendar(ts);
         return calendarEval.evaluateInternal(cal);
     }
 
     public Object evaluate(Date d, EventBean[] eventsPerStream, boolean newData, ExprEvaluatorContext exprEvaluatorContext) {
-        Calendar cal = Calendar.getInstance(timeZone);
-        cal.setTimeInMillis(d.getTime());
+        Calendar cal = calendarCache.getCalendar(d.getTime());
         return calendarEval.evaluateInternal(cal);
     }
 
@@ -14,6 +14,7 @@ package com.espertech.esper.epl.datetime.reformatop;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.epl.datetime.calop.CalendarFieldEnum;
+import com.espertech.esper.epl.datetime.eval.DatetimeCalendarCache;
 import com.espertech.esper.epl.datetime.eval.DatetimeMethodEnum;
 import com.espertech.esper.epl.datetime.eval.ExprDotNodeFilterAnalyzerDesc;
 import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
@@ -30,22 +31,20 @@ import java.util.TimeZone;
 public class ReformatOpGetField implements ReformatOp {
 
     private final CalendarFieldEnum fieldNum;
-    private final TimeZone timeZone;
+    private final DatetimeCalendarCache calendarCache;
 
     public ReformatOpGetField(CalendarFieldEnum fieldNum, TimeZone timeZone) {
         this.fieldNum = fieldNum;
-        this.timeZone = timeZone;
+        this.calendarCache = new DatetimeCalendarCache(timeZone);
     }
 
     public Object evaluate(Long ts, EventBean[] eventsPerStream, boolean newData, ExprEvaluatorContext exprEvaluatorContext) {
-        Calendar cal = Calendar.getInstance(timeZone);
-        cal.setTimeInMillis(ts);
+        Calendar cal = calendarCache.getCalendar(ts);
         return action(cal);
     }
 
     public Object evaluate(Date d, EventBean[] eventsPerStream, boolean newData, ExprEvaluatorContext exprEvaluatorContext) {
-        Calendar cal = Calendar.getInstance(timeZone);
-        cal.setTimeInMillis(d.getTime());
+        Calendar cal = calendarCache.getCalendar(d.getTime());
         return action(cal);
     }
 
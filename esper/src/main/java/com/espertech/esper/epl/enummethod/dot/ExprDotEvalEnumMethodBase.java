@@ -194,7 +194,28 @@ public abstract class ExprDotEvalEnumMethodBase implements ExprDotEvalEnumMethod
         }
     }
 
-    private EventBean[] allocateCopyEventLambda(EventBean[] eventsPerStream) {
+    /**
+     * Returns the enumeration method evaluator.
+     * @return evaluator
+     */
+    public EnumEval getEnumEval() {
+        return enumEval;
+    }
+
+    /**
+     * Returns indicator whether the result is cached, which is the case for inner lambdas that do not depend on the outer lambda.
+     * @return cache indicator
+     */
+    public boolean isCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the events for evaluating lambda-expressions.
+     * @param eventsPerStream events
+     * @return events including the slot for the lambda parameter
+     */
+    protected EventBean[] allocateCopyEventLambda(EventBean[] eventsPerStream) {
         EventBean[] eventsLambda = new EventBean[enumEvalNumRequiredEvents];
         EventBeanUtility.safeArrayCopy(eventsPerStream, eventsLambda);
         return eventsLambda;
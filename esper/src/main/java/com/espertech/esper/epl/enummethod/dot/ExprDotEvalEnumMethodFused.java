@@ -0,0 +1,151 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.enummethod.dot;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.core.service.ExpressionResultCacheForEnumerationMethod;
+import com.espertech.esper.epl.enummethod.eval.EnumEvalFusable;
+import com.espertech.esper.epl.enummethod.eval.EnumEvalFusedStage;
+import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.epl.expression.dot.ExprDotEval;
+import com.espertech.esper.epl.expression.dot.ExprDotEvalVisitor;
+import com.espertech.esper.epl.rettype.EPType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Evaluates adjacent enumeration methods, such as "where", "selectFrom", "take", "firstOf", "anyOf", "countOf", "sumOf" and "average",
+ * in a single pass over the input without materializing the intermediate collections.
+ * <p>
+ * Enumeration methods that must see the whole input, such as "orderBy" or "distinctOf", are not fused and thus
+ * act as materialization boundaries.
+ * </p>
+ */
+public class ExprDotEvalEnumMethodFused implements ExprDotEval {
+
+    private final ExprDotEvalEnumMethodBase[] methods;
+    private final EnumEvalFusable[] evals;
+    private final boolean terminal;
+    private long contextNumber = 0;
+
+    private ExprDotEvalEnumMethodFused(List<ExprDotEvalEnumMethodBase> methods) {
+        this.methods = methods.toArray(new ExprDotEvalEnumMethodBase[methods.size()]);
+        this.evals = new EnumEvalFusable[this.methods.length];
+        for (int i = 0; i < evals.length; i++) {
+            evals[i] = (EnumEvalFusable) this.methods[i].getEnumEval();
+        }
+        this.terminal = evals[evals.length - 1].isFusedTerminal();
+    }
+
+    /**
+     * Replaces each run of two or more adjacent fusable enumeration methods of the chain by a single fused evaluator.
+     * @param chain chain of evaluators
+     * @return chain with the fused evaluators
+     */
+    public static List<ExprDotEval> fuse(List<ExprDotEval> chain) {
+        List<ExprDotEval> result = new ArrayList<ExprDotEval>(chain.size());
+        List<ExprDotEvalEnumMethodBase> run = new ArrayList<ExprDotEvalEnumMethodBase>(2);
+        for (ExprDotEval eval : chain) {
+            if (!isFusable(eval)) {
+                addRun(run, result);
+                result.add(eval);
+                continue;
+            }
+            ExprDotEvalEnumMethodBase method = (ExprDotEvalEnumMethodBase) eval;
+            run.add(method);
+            if (((EnumEvalFusable) method.getEnumEval()).isFusedTerminal()) {
+                addRun(run, result);
+            }
+        }
+        addRun(run, result);
+        return result;
+    }
+
+    public Object evaluate(Object target, EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext) {
+        if (target instanceof EventBean) {
+            target = Collections.singletonList((EventBean) target);
+        }
+        Collection coll = (Collection) target;
+        if (coll == null) {
+            return null;
+        }
+
+        ExpressionResultCacheForEnumerationMethod enumerationMethodCache = exprEvaluatorContext.getExpressionResultCacheService().getAllocateEnumerationMethod();
+        contextNumber++;
+        try {
+            enumerationMethodCache.pushContext(contextNumber);
+
+            EnumEvalFusedStage stage = terminal ? null : new CollectionStage();
+            for (int i = evals.length - 1; i >= 0; i--) {
+                EventBean[] eventsLambda = methods[i].allocateCopyEventLambda(eventsPerStream);
+                stage = evals[i].makeFusedStage(eventsLambda, isNewData, exprEvaluatorContext, stage);
+                if (stage == null) {
+                    return null;
+                }
+            }
+
+            for (Object item : coll) {
+                if (!stage.accept(item)) {
+                    break;
+                }
+            }
+            return stage.getResult();
+        }
+        finally {
+            enumerationMethodCache.popContext();
+        }
+    }
+
+    public EPType getTypeInfo() {
+        return methods[methods.length - 1].getTypeInfo();
+    }
+
+    public void visit(ExprDotEvalVisitor visitor) {
+        for (ExprDotEvalEnumMethodBase method : methods) {
+            method.visit(visitor);
+        }
+    }
+
+    private static boolean isFusable(ExprDotEval eval) {
+        if (!(eval instanceof ExprDotEvalEnumMethodBase)) {
+            return false;
+        }
+        ExprDotEvalEnumMethodBase method = (ExprDotEvalEnumMethodBase) eval;
+        return !method.isCache() && method.getEnumEval() instanceof EnumEvalFusable;
+    }
+
+    private static void addRun(List<ExprDotEvalEnumMethodBase> run, List<ExprDotEval> result) {
+        if (run.size() == 1) {
+            result.add(run.get(0));
+        }
+        else if (run.size() > 1) {
+            result.add(new ExprDotEvalEnumMethodFused(run));
+        }
+        run.clear();
+    }
+
+    private static class CollectionStage implements EnumEvalFusedStage {
+        private final ArrayList<Object> items = new ArrayList<Object>();
+
+        public boolean accept(Object item) {
+            items.add(item);
+            return true;
+        }
+
+        public Object getResult() {
+            return items;
+        }
+    }
+}
@@ -17,7 +17,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalAnyOfEvents extends EnumEvalBase implements EnumEval {
+public class EnumEvalAnyOfEvents extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalAnyOfEvents(ExprEvaluator innerExpression, int streamCountIncoming) {
         super(innerExpression, streamCountIncoming);
@@ -40,4 +40,28 @@ public class EnumEvalAnyOfEvents extends EnumEvalBase implements EnumEval {
 
         return false;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private boolean found;
+
+            public boolean accept(Object item) {
+                eventsLambda[streamNumLambda] = (EventBean) item;
+                Object pass = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (pass != null && ((Boolean) pass)) {
+                    found = true;
+                    return false;
+                }
+                return true;
+            }
+
+            public Object getResult() {
+                return found;
+            }
+        };
+    }
 }
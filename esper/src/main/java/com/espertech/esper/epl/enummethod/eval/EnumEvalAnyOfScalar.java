@@ -19,7 +19,7 @@ import com.espertech.esper.event.arr.ObjectArrayEventType;
 
 import java.util.Collection;
 
-public class EnumEvalAnyOfScalar extends EnumEvalBaseScalar implements EnumEval {
+public class EnumEvalAnyOfScalar extends EnumEvalBaseScalar implements EnumEvalFusable {
 
     public EnumEvalAnyOfScalar(ExprEvaluator innerExpression, int streamCountIncoming, ObjectArrayEventType type) {
         super(innerExpression, streamCountIncoming, type);
@@ -44,4 +44,30 @@ public class EnumEvalAnyOfScalar extends EnumEvalBaseScalar implements EnumEval
 
         return false;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        final ObjectArrayEventBean evalEvent = new ObjectArrayEventBean(new Object[1], type);
+        return new EnumEvalFusedStage() {
+            private boolean found;
+
+            public boolean accept(Object item) {
+                evalEvent.getProperties()[0] = item;
+                eventsLambda[streamNumLambda] = evalEvent;
+                Object pass = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (pass != null && ((Boolean) pass)) {
+                    found = true;
+                    return false;
+                }
+                return true;
+            }
+
+            public Object getResult() {
+                return found;
+            }
+        };
+    }
 }
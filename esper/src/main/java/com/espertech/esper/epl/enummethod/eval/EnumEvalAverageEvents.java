@@ -17,7 +17,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalAverageEvents extends EnumEvalBase implements EnumEval {
+public class EnumEvalAverageEvents extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalAverageEvents(ExprEvaluator innerExpression, int streamCountIncoming) {
         super(innerExpression, streamCountIncoming);
@@ -44,4 +44,32 @@ public class EnumEvalAverageEvents extends EnumEvalBase implements EnumEval {
         }
         return sum / count;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private double sum;
+            private int count;
+
+            public boolean accept(Object item) {
+                eventsLambda[streamNumLambda] = (EventBean) item;
+                Number num = (Number) innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (num != null) {
+                    count++;
+                    sum += num.doubleValue();
+                }
+                return true;
+            }
+
+            public Object getResult() {
+                if (count == 0) {
+                    return null;
+                }
+                return sum / count;
+            }
+        };
+    }
 }
@@ -16,7 +16,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalAverageScalar extends EnumEvalBase implements EnumEval {
+public class EnumEvalAverageScalar extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalAverageScalar(int streamCountIncoming) {
         super(streamCountIncoming);
@@ -41,4 +41,31 @@ public class EnumEvalAverageScalar extends EnumEvalBase implements EnumEval {
         }
         return sum / count;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private double sum;
+            private int count;
+
+            public boolean accept(Object item) {
+                Number num = (Number) item;
+                if (num != null) {
+                    count++;
+                    sum += num.doubleValue();
+                }
+                return true;
+            }
+
+            public Object getResult() {
+                if (count == 0) {
+                    return null;
+                }
+                return sum / count;
+            }
+        };
+    }
 }
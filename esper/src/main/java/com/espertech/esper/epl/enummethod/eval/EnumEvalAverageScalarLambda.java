@@ -19,7 +19,7 @@ import com.espertech.esper.event.arr.ObjectArrayEventType;
 
 import java.util.Collection;
 
-public class EnumEvalAverageScalarLambda extends EnumEvalBase implements EnumEval {
+public class EnumEvalAverageScalarLambda extends EnumEvalBase implements EnumEvalFusable {
 
     private final ObjectArrayEventType resultEventType;
 
@@ -52,4 +52,34 @@ public class EnumEvalAverageScalarLambda extends EnumEvalBase implements EnumEva
         }
         return sum / count;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        final ObjectArrayEventBean resultEvent = new ObjectArrayEventBean(new Object[1], resultEventType);
+        return new EnumEvalFusedStage() {
+            private double sum;
+            private int count;
+
+            public boolean accept(Object item) {
+                resultEvent.getProperties()[0] = item;
+                eventsLambda[streamNumLambda] = resultEvent;
+                Number num = (Number) innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (num != null) {
+                    count++;
+                    sum += num.doubleValue();
+                }
+                return true;
+            }
+
+            public Object getResult() {
+                if (count == 0) {
+                    return null;
+                }
+                return sum / count;
+            }
+        };
+    }
 }
@@ -16,7 +16,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalCountOf implements EnumEval {
+public class EnumEvalCountOf implements EnumEvalFusable {
 
     private int numStreams;
 
@@ -31,4 +31,23 @@ public class EnumEvalCountOf implements EnumEval {
     public Object evaluateEnumMethod(EventBean[] eventsLambda, Collection target, boolean isNewData, ExprEvaluatorContext context) {
         return target.size();
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private int count;
+
+            public boolean accept(Object item) {
+                count++;
+                return true;
+            }
+
+            public Object getResult() {
+                return count;
+            }
+        };
+    }
 }
@@ -17,7 +17,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalCountOfSelectorEvents extends EnumEvalBase implements EnumEval {
+public class EnumEvalCountOfSelectorEvents extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalCountOfSelectorEvents(ExprEvaluator innerExpression, int streamCountIncoming) {
         super(innerExpression, streamCountIncoming);
@@ -39,4 +39,28 @@ public class EnumEvalCountOfSelectorEvents extends EnumEvalBase implements EnumE
 
         return count;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private int count;
+
+            public boolean accept(Object item) {
+                eventsLambda[streamNumLambda] = (EventBean) item;
+                Object pass = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (pass == null || (!(Boolean) pass)) {
+                    return true;
+                }
+                count++;
+                return true;
+            }
+
+            public Object getResult() {
+                return count;
+            }
+        };
+    }
 }
@@ -19,7 +19,7 @@ import com.espertech.esper.event.arr.ObjectArrayEventType;
 
 import java.util.Collection;
 
-public class EnumEvalCountOfSelectorScalar extends EnumEvalBaseScalar implements EnumEval {
+public class EnumEvalCountOfSelectorScalar extends EnumEvalBaseScalar implements EnumEvalFusable {
 
     public EnumEvalCountOfSelectorScalar(ExprEvaluator innerExpression, int streamCountIncoming, ObjectArrayEventType type) {
         super(innerExpression, streamCountIncoming, type);
@@ -42,4 +42,30 @@ public class EnumEvalCountOfSelectorScalar extends EnumEvalBaseScalar implements
 
         return count;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        final ObjectArrayEventBean evalEvent = new ObjectArrayEventBean(new Object[1], type);
+        return new EnumEvalFusedStage() {
+            private int count;
+
+            public boolean accept(Object item) {
+                evalEvent.getProperties()[0] = item;
+                eventsLambda[streamNumLambda] = evalEvent;
+                Object pass = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (pass == null || (!(Boolean) pass)) {
+                    return true;
+                }
+                count++;
+                return true;
+            }
+
+            public Object getResult() {
+                return count;
+            }
+        };
+    }
 }
@@ -16,7 +16,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalFirstOfNoPredicate extends EnumEvalBase implements EnumEval {
+public class EnumEvalFirstOfNoPredicate extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalFirstOfNoPredicate(int streamCountIncoming) {
         super(streamCountIncoming);
@@ -28,4 +28,23 @@ public class EnumEvalFirstOfNoPredicate extends EnumEvalBase implements EnumEval
         }
         return target.iterator().next();
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private Object first;
+
+            public boolean accept(Object item) {
+                first = item;
+                return false;
+            }
+
+            public Object getResult() {
+                return first;
+            }
+        };
+    }
 }
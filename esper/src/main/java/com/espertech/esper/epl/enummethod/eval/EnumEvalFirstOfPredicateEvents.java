@@ -17,7 +17,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalFirstOfPredicateEvents extends EnumEvalBase implements EnumEval {
+public class EnumEvalFirstOfPredicateEvents extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalFirstOfPredicateEvents(ExprEvaluator innerExpression, int streamCountIncoming) {
         super(innerExpression, streamCountIncoming);
@@ -38,4 +38,28 @@ public class EnumEvalFirstOfPredicateEvents extends EnumEvalBase implements Enum
 
         return null;
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private Object first;
+
+            public boolean accept(Object item) {
+                eventsLambda[streamNumLambda] = (EventBean) item;
+                Object pass = getInnerExpression().evaluate(eventsLambda, isNewData, context);
+                if (pass == null || (!(Boolean) pass)) {
+                    return true;
+                }
+                first = item;
+                return false;
+            }
+
+            public Object getResult() {
+                return first;
+            }
+        };
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.enummethod.eval;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
+
+/**
+ * Enumeration method that does not need to see the whole input and can thus take part in a fused pipeline:
+ * adjacent enumeration methods are then evaluated in a single pass over the input without intermediate collections.
+ */
+public interface EnumEvalFusable extends EnumEval {
+
+    /**
+     * Returns indicator whether the method produces a single value rather than a collection, a terminal
+     * method ends a fused pipeline.
+     * @return terminal indicator
+     */
+    public boolean isFusedTerminal();
+
+    /**
+     * Makes the stage for a single evaluation.
+     * @param eventsLambda events for the lambda parameter, for use by this stage only
+     * @param isNewData new data indicator
+     * @param context evaluation context
+     * @param downstream the next stage, or null for terminal methods
+     * @return stage, or null when the result of the pipeline is null
+     */
+    public EnumEvalFusedStage makeFusedStage(EventBean[] eventsLambda, boolean isNewData, ExprEvaluatorContext context, EnumEvalFusedStage downstream);
+}
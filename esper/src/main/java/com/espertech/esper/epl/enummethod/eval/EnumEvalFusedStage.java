@@ -0,0 +1,31 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.enummethod.eval;
+
+/**
+ * A stage of a fused enumeration method pipeline that receives the items one at a time.
+ */
+public interface EnumEvalFusedStage {
+
+    /**
+     * Receives the next item.
+     * @param item item
+     * @return false to indicate that no further items are required
+     */
+    public boolean accept(Object item);
+
+    /**
+     * Returns the result of the pipeline after the last item was received.
+     * @return result
+     */
+    public Object getResult();
+}
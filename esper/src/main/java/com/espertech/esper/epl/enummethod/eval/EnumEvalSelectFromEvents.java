@@ -19,7 +19,7 @@ import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Deque;
 
-public class EnumEvalSelectFromEvents extends EnumEvalBase implements EnumEval {
+public class EnumEvalSelectFromEvents extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalSelectFromEvents(ExprEvaluator innerExpression, int streamCountIncoming) {
         super(innerExpression, streamCountIncoming);
@@ -44,4 +44,25 @@ public class EnumEvalSelectFromEvents extends EnumEvalBase implements EnumEval {
 
         return queue;
     }
+
+    public boolean isFusedTerminal() {
+        return false;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            public boolean accept(Object item) {
+                eventsLambda[streamNumLambda] = (EventBean) item;
+                Object value = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (value == null) {
+                    return true;
+                }
+                return downstream.accept(value);
+            }
+
+            public Object getResult() {
+                return downstream.getResult();
+            }
+        };
+    }
 }
@@ -21,7 +21,7 @@ import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Deque;
 
-public class EnumEvalSelectFromScalarLambda extends EnumEvalBase implements EnumEval {
+public class EnumEvalSelectFromScalarLambda extends EnumEvalBase implements EnumEvalFusable {
 
     private final ObjectArrayEventType resultEventType;
 
@@ -52,4 +52,27 @@ public class EnumEvalSelectFromScalarLambda extends EnumEvalBase implements Enum
 
         return queue;
     }
+
+    public boolean isFusedTerminal() {
+        return false;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        final ObjectArrayEventBean resultEvent = new ObjectArrayEventBean(new Object[1], resultEventType);
+        return new EnumEvalFusedStage() {
+            public boolean accept(Object item) {
+                resultEvent.getProperties()[0] = item;
+                eventsLambda[streamNumLambda] = resultEvent;
+                Object value = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (value == null) {
+                    return true;
+                }
+                return downstream.accept(value);
+            }
+
+            public Object getResult() {
+                return downstream.getResult();
+            }
+        };
+    }
 }
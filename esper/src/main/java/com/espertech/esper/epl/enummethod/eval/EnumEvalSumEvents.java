@@ -17,7 +17,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalSumEvents extends EnumEvalBase implements EnumEval {
+public class EnumEvalSumEvents extends EnumEvalBase implements EnumEvalFusable {
 
     private final ExprDotEvalSumMethodFactory sumMethodFactory;
 
@@ -40,4 +40,25 @@ public class EnumEvalSumEvents extends EnumEvalBase implements EnumEval {
 
         return method.getValue();
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private final ExprDotEvalSumMethod method = sumMethodFactory.getSumAggregator();
+
+            public boolean accept(Object item) {
+                eventsLambda[streamNumLambda] = (EventBean) item;
+                Object value = innerExpression.evaluate(eventsLambda, isNewData, context);
+                method.enter(value);
+                return true;
+            }
+
+            public Object getResult() {
+                return method.getValue();
+            }
+        };
+    }
 }
@@ -16,7 +16,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 
 import java.util.Collection;
 
-public class EnumEvalSumScalar extends EnumEvalBase implements EnumEval {
+public class EnumEvalSumScalar extends EnumEvalBase implements EnumEvalFusable {
 
     private final ExprDotEvalSumMethodFactory sumMethodFactory;
 
@@ -33,4 +33,23 @@ public class EnumEvalSumScalar extends EnumEvalBase implements EnumEval {
         }
         return method.getValue();
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            private final ExprDotEvalSumMethod method = sumMethodFactory.getSumAggregator();
+
+            public boolean accept(Object item) {
+                method.enter(item);
+                return true;
+            }
+
+            public Object getResult() {
+                return method.getValue();
+            }
+        };
+    }
 }
@@ -19,7 +19,7 @@ import com.espertech.esper.event.arr.ObjectArrayEventType;
 
 import java.util.Collection;
 
-public class EnumEvalSumScalarLambda extends EnumEvalBase implements EnumEval {
+public class EnumEvalSumScalarLambda extends EnumEvalBase implements EnumEvalFusable {
 
     private final ExprDotEvalSumMethodFactory sumMethodFactory;
     private final ObjectArrayEventType resultEventType;
@@ -47,4 +47,27 @@ public class EnumEvalSumScalarLambda extends EnumEvalBase implements EnumEval {
 
         return method.getValue();
     }
+
+    public boolean isFusedTerminal() {
+        return true;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        final ObjectArrayEventBean resultEvent = new ObjectArrayEventBean(new Object[1], resultEventType);
+        return new EnumEvalFusedStage() {
+            private final ExprDotEvalSumMethod method = sumMethodFactory.getSumAggregator();
+
+            public boolean accept(Object item) {
+                resultEvent.getProperties()[0] = item;
+                eventsLambda[streamNumLambda] = resultEvent;
+                Object value = innerExpression.evaluate(eventsLambda, isNewData, context);
+                method.enter(value);
+                return true;
+            }
+
+            public Object getResult() {
+                return method.getValue();
+            }
+        };
+    }
 }
@@ -19,7 +19,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 
-public class EnumEvalTake implements EnumEval {
+public class EnumEvalTake implements EnumEvalFusable {
 
     private ExprEvaluator sizeEval;
     private int numStreams;
@@ -66,4 +66,31 @@ public class EnumEvalTake implements EnumEval {
         }
         return result;
     }
+
+    public boolean isFusedTerminal() {
+        return false;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        Object sizeObj = sizeEval.evaluate(eventsLambda, isNewData, context);
+        if (sizeObj == null) {
+            return null;
+        }
+        final int size = ((Number) sizeObj).intValue();
+        return new EnumEvalFusedStage() {
+            private int remaining = size;
+
+            public boolean accept(Object item) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining--;
+                return downstream.accept(item) && remaining > 0;
+            }
+
+            public Object getResult() {
+                return downstream.getResult();
+            }
+        };
+    }
 }
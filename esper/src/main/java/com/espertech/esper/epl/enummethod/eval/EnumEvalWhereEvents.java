@@ -18,7 +18,7 @@ import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 import java.util.ArrayDeque;
 import java.util.Collection;
 
-public class EnumEvalWhereEvents extends EnumEvalBase implements EnumEval {
+public class EnumEvalWhereEvents extends EnumEvalBase implements EnumEvalFusable {
 
     public EnumEvalWhereEvents(ExprEvaluator innerExpression, int streamCountIncoming) {
         super(innerExpression, streamCountIncoming);
@@ -45,4 +45,25 @@ public class EnumEvalWhereEvents extends EnumEvalBase implements EnumEval {
 
         return result;
     }
+
+    public boolean isFusedTerminal() {
+        return false;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        return new EnumEvalFusedStage() {
+            public boolean accept(Object item) {
+                eventsLambda[streamNumLambda] = (EventBean) item;
+                Object pass = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (pass == null || (!(Boolean) pass)) {
+                    return true;
+                }
+                return downstream.accept(item);
+            }
+
+            public Object getResult() {
+                return downstream.getResult();
+            }
+        };
+    }
 }
@@ -20,7 +20,7 @@ import com.espertech.esper.event.arr.ObjectArrayEventType;
 import java.util.ArrayDeque;
 import java.util.Collection;
 
-public class EnumEvalWhereScalar extends EnumEvalBaseScalar implements EnumEval {
+public class EnumEvalWhereScalar extends EnumEvalBaseScalar implements EnumEvalFusable {
 
     public EnumEvalWhereScalar(ExprEvaluator innerExpression, int streamCountIncoming, ObjectArrayEventType type) {
         super(innerExpression, streamCountIncoming, type);
@@ -49,4 +49,27 @@ public class EnumEvalWhereScalar extends EnumEvalBaseScalar implements EnumEval
 
         return result;
     }
+
+    public boolean isFusedTerminal() {
+        return false;
+    }
+
+    public EnumEvalFusedStage makeFusedStage(final EventBean[] eventsLambda, final boolean isNewData, final ExprEvaluatorContext context, final EnumEvalFusedStage downstream) {
+        final ObjectArrayEventBean evalEvent = new ObjectArrayEventBean(new Object[1], type);
+        return new EnumEvalFusedStage() {
+            public boolean accept(Object item) {
+                evalEvent.getProperties()[0] = item;
+                eventsLambda[streamNumLambda] = evalEvent;
+                Object pass = innerExpression.evaluate(eventsLambda, isNewData, context);
+                if (pass == null || (!(Boolean) pass)) {
+                    return true;
+                }
+                return downstream.accept(item);
+            }
+
+            public Object getResult() {
+                return downstream.getResult();
+            }
+        };
+    }
 }
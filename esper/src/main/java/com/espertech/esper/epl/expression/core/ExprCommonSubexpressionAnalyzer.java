@@ -0,0 +1,322 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.expression.core;
+
+import com.espertech.esper.client.ConfigurationPlugInSingleRowFunction;
+import com.espertech.esper.epl.declexpr.ExprDeclaredNode;
+import com.espertech.esper.epl.expression.funcs.*;
+import com.espertech.esper.epl.expression.ops.*;
+import com.espertech.esper.epl.expression.prev.ExprPreviousNode;
+import com.espertech.esper.epl.expression.prior.ExprPriorNode;
+import com.espertech.esper.epl.expression.subquery.ExprSubselectNode;
+import com.espertech.esper.epl.expression.visitor.ExprNodeVisitor;
+import com.espertech.esper.epl.spec.*;
+
+import java.util.*;
+
+/**
+ * Finds sub-expressions that occur more than once in the select, where, group-by, having and order-by clauses
+ * of a statement and replaces each occurrence with a {@link ExprCommonSubexpressionNode} so that the sub-expression
+ * is evaluated once for the same events.
+ * <p>
+ * Runs before validation, on the unvalidated expression nodes. Only sub-expressions that are made up of
+ * deterministic operators, properties and constants and that refer to at least one property are considered.
+ * Plug-in single-row functions are considered only when their configuration allows caching their value,
+ * as functions that are not deterministic or have side effects must be invoked for each occurrence.
+ * <p>
+ * A sub-expression is only shared when it calls a plug-in single-row function or has at least
+ * seven nodes, since for smaller sub-expressions the lookup of the shared result costs more than evaluating again.
+ */
+public class ExprCommonSubexpressionAnalyzer {
+
+    // smaller sub-expressions without function calls are cheaper to evaluate again than to look up
+    private static final int MIN_SHARED_NODE_COUNT = 7;
+
+    public static void analyze(StatementSpecCompiled spec, boolean isUdfCache) {
+        // grouping sets and rollup keep per-level copies of the select clause
+        if (spec.getGroupByExpressions() != null && spec.getGroupByExpressions().getGroupByRollupLevels() != null) {
+            return;
+        }
+
+        // a select-clause alias may be referred to by the same name in having and order-by
+        Set<String> aliases = new HashSet<String>();
+        List<ExprCommonSubexpressionOccurrence> roots = new ArrayList<ExprCommonSubexpressionOccurrence>();
+        for (SelectClauseElementCompiled element : spec.getSelectClauseSpec().getSelectExprList()) {
+            if (!(element instanceof SelectClauseExprCompiledSpec)) {
+                continue;
+            }
+            final SelectClauseExprCompiledSpec expr = (SelectClauseExprCompiledSpec) element;
+            if (expr.getAssignedName() != null) {
+                aliases.add(expr.getAssignedName());
+            }
+            if (expr.getProvidedName() != null) {
+                aliases.add(expr.getProvidedName());
+            }
+            roots.add(new ExprCommonSubexpressionOccurrence(expr.getSelectExpression()) {
+                public void replace(ExprNode node) {
+                    expr.setSelectExpression(node);
+                }
+            });
+        }
+        final StatementSpecCompiled statementSpec = spec;
+        if (spec.getFilterRootNode() != null) {
+            roots.add(new ExprCommonSubexpressionOccurrence(spec.getFilterRootNode()) {
+                public void replace(ExprNode node) {
+                    statementSpec.setFilterExprRootNode(node);
+                }
+            });
+        }
+        if (spec.getGroupByExpressions() != null) {
+            final ExprNode[] groupByNodes = spec.getGroupByExpressions().getGroupByNodes();
+            for (int i = 0; i < groupByNodes.length; i++) {
+                final int index = i;
+                roots.add(new ExprCommonSubexpressionOccurrence(groupByNodes[i]) {
+                    public void replace(ExprNode node) {
+                        groupByNodes[index] = node;
+                    }
+                });
+            }
+        }
+        if (spec.getHavingExprRootNode() != null) {
+            roots.add(new ExprCommonSubexpressionOccurrence(spec.getHavingExprRootNode()) {
+                public void replace(ExprNode node) {
+                    statementSpec.setHavingExprRootNode(node);
+                }
+            });
+        }
+        final OrderByItem[] orderBys = spec.getOrderByList();
+        for (int i = 0; i < orderBys.length; i++) {
+            final int index = i;
+            roots.add(new ExprCommonSubexpressionOccurrence(orderBys[i].getExprNode()) {
+                public void replace(ExprNode node) {
+                    orderBys[index] = new OrderByItem(node, orderBys[index].isDescending());
+                }
+            });
+        }
+
+        // collect the candidate occurrences
+        List<ExprCommonSubexpressionOccurrence> candidates = new ArrayList<ExprCommonSubexpressionOccurrence>();
+        for (ExprCommonSubexpressionOccurrence root : roots) {
+            if (isCandidate(root.getNode(), aliases, isUdfCache)) {
+                candidates.add(root);
+            }
+            collectCandidates(root.getNode(), aliases, isUdfCache, candidates);
+        }
+        if (candidates.size() < 2) {
+            return;
+        }
+
+        // group occurrences by deep-equals
+        List<List<ExprCommonSubexpressionOccurrence>> groups = new ArrayList<List<ExprCommonSubexpressionOccurrence>>();
+        for (ExprCommonSubexpressionOccurrence candidate : candidates) {
+            List<ExprCommonSubexpressionOccurrence> found = null;
+            for (List<ExprCommonSubexpressionOccurrence> group : groups) {
+                if (ExprNodeUtility.deepEquals(group.get(0).getNode(), candidate.getNode())) {
+                    found = group;
+                    break;
+                }
+            }
+            if (found == null) {
+                found = new ArrayList<ExprCommonSubexpressionOccurrence>(2);
+                groups.add(found);
+            }
+            found.add(candidate);
+        }
+
+        // replace the largest sub-expressions first; a group that only occurs within the occurrences of one already-replaced
+        // sub-expression is evaluated only once anyway, otherwise the occurrences within replaced sub-expressions share the result too
+        final Map<List<ExprCommonSubexpressionOccurrence>, Integer> sizes = new HashMap<List<ExprCommonSubexpressionOccurrence>, Integer>();
+        List<List<ExprCommonSubexpressionOccurrence>> shared = new ArrayList<List<ExprCommonSubexpressionOccurrence>>();
+        for (List<ExprCommonSubexpressionOccurrence> group : groups) {
+            if (group.size() < 2) {
+                continue;
+            }
+            int size = countNodes(group.get(0).getNode());
+            if (size < MIN_SHARED_NODE_COUNT && !hasPlugInSingleRow(group.get(0).getNode())) {
+                continue;
+            }
+            sizes.put(group, size);
+            shared.add(group);
+        }
+        Collections.sort(shared, new Comparator<List<ExprCommonSubexpressionOccurrence>>() {
+            public int compare(List<ExprCommonSubexpressionOccurrence> o1, List<ExprCommonSubexpressionOccurrence> o2) {
+                return sizes.get(o2).compareTo(sizes.get(o1));
+            }
+        });
+
+        Map<ExprNode, ExprCommonSubexpressionNode> coveredBy = new IdentityHashMap<ExprNode, ExprCommonSubexpressionNode>();
+        for (List<ExprCommonSubexpressionOccurrence> group : shared) {
+            Set<ExprCommonSubexpressionNode> coveringPrototypes = new HashSet<ExprCommonSubexpressionNode>();
+            boolean uncovered = false;
+            for (ExprCommonSubexpressionOccurrence occurrence : group) {
+                ExprCommonSubexpressionNode covering = coveredBy.get(occurrence.getNode());
+                if (covering == null) {
+                    uncovered = true;
+                    break;
+                }
+                coveringPrototypes.add(covering);
+            }
+            if (!uncovered && coveringPrototypes.size() < 2) {
+                continue;
+            }
+            ExprCommonSubexpressionNode prototype = null;
+            for (ExprCommonSubexpressionOccurrence occurrence : group) {
+                ExprCommonSubexpressionNode node = new ExprCommonSubexpressionNode(occurrence.getNode(), prototype);
+                if (prototype == null) {
+                    prototype = node;
+                }
+                addCovered(occurrence.getNode(), prototype, coveredBy);
+                occurrence.replace(node);
+            }
+        }
+    }
+
+    private static void collectCandidates(final ExprNode parent, Set<String> aliases, boolean isUdfCache, List<ExprCommonSubexpressionOccurrence> candidates) {
+        if (parent instanceof ExprSubselectNode ||
+            parent instanceof ExprDeclaredNode ||
+            parent instanceof ExprPreviousNode ||
+            parent instanceof ExprPriorNode ||
+            parent instanceof ExprCommonSubexpressionNode) {
+            return;
+        }
+        ExprNode[] children = parent.getChildNodes();
+        for (int i = 0; i < children.length; i++) {
+            final int index = i;
+            if (isCandidate(children[i], aliases, isUdfCache)) {
+                candidates.add(new ExprCommonSubexpressionOccurrence(children[i]) {
+                    public void replace(ExprNode node) {
+                        parent.setChildNode(index, node);
+                    }
+                });
+            }
+            collectCandidates(children[i], aliases, isUdfCache, candidates);
+        }
+    }
+
+    private static boolean isCandidate(ExprNode node, Set<String> aliases, boolean isUdfCache) {
+        if (!(node instanceof ExprMathNode ||
+              node instanceof ExprConcatNode ||
+              node instanceof ExprBitWiseNode ||
+              node instanceof ExprMinMaxRowNode ||
+              node instanceof ExprCoalesceNode ||
+              node instanceof ExprCastNode ||
+              node instanceof ExprCaseNode ||
+              node instanceof ExprPlugInSingleRowNode)) {
+            return false;
+        }
+        CandidateVisitor visitor = new CandidateVisitor(aliases, isUdfCache);
+        node.accept(visitor);
+        return visitor.isEligible();
+    }
+
+    private static boolean isValueCacheAllowed(ExprPlugInSingleRowNode node, boolean isUdfCache) {
+        ConfigurationPlugInSingleRowFunction.ValueCache valueCache = node.getConfig().getValueCache();
+        return valueCache == ConfigurationPlugInSingleRowFunction.ValueCache.ENABLED ||
+               (valueCache == ConfigurationPlugInSingleRowFunction.ValueCache.CONFIGURED && isUdfCache);
+    }
+
+    private static int countNodes(ExprNode node) {
+        int count = 1;
+        for (ExprNode child : node.getChildNodes()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private static boolean hasPlugInSingleRow(ExprNode node) {
+        if (node instanceof ExprPlugInSingleRowNode) {
+            return true;
+        }
+        for (ExprNode child : node.getChildNodes()) {
+            if (hasPlugInSingleRow(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addCovered(ExprNode node, ExprCommonSubexpressionNode prototype, Map<ExprNode, ExprCommonSubexpressionNode> coveredBy) {
+        if (!coveredBy.containsKey(node)) {
+            coveredBy.put(node, prototype);
+        }
+        for (ExprNode child : node.getChildNodes()) {
+            addCovered(child, prototype, coveredBy);
+        }
+    }
+
+    private static abstract class ExprCommonSubexpressionOccurrence {
+        private final ExprNode node;
+
+        protected ExprCommonSubexpressionOccurrence(ExprNode node) {
+            this.node = node;
+        }
+
+        public ExprNode getNode() {
+            return node;
+        }
+
+        public abstract void replace(ExprNode node);
+    }
+
+    private static class CandidateVisitor implements ExprNodeVisitor {
+        private final Set<String> aliases;
+        private final boolean isUdfCache;
+        private boolean hasProperty;
+        private boolean hasIneligible;
+
+        private CandidateVisitor(Set<String> aliases, boolean isUdfCache) {
+            this.aliases = aliases;
+            this.isUdfCache = isUdfCache;
+        }
+
+        public boolean isVisit(ExprNode exprNode) {
+            return !hasIneligible;
+        }
+
+        public void visit(ExprNode exprNode) {
+            if (exprNode instanceof ExprIdentNode) {
+                ExprIdentNode identNode = (ExprIdentNode) exprNode;
+                if (identNode.getStreamOrPropertyName() == null && aliases.contains(identNode.getUnresolvedPropertyName())) {
+                    hasIneligible = true;
+                }
+                hasProperty = true;
+            }
+            else if (exprNode instanceof ExprStreamUnderlyingNode) {
+                hasProperty = true;
+            }
+            else if (exprNode instanceof ExprPlugInSingleRowNode) {
+                if (!isValueCacheAllowed((ExprPlugInSingleRowNode) exprNode, isUdfCache)) {
+                    hasIneligible = true;
+                }
+            }
+            else if (!(exprNode instanceof ExprConstantNode ||
+                       exprNode instanceof ExprMathNode ||
+                       exprNode instanceof ExprConcatNode ||
+                       exprNode instanceof ExprBitWiseNode ||
+                       exprNode instanceof ExprMinMaxRowNode ||
+                       exprNode instanceof ExprCoalesceNode ||
+                       exprNode instanceof ExprCastNode ||
+                       exprNode instanceof ExprCaseNode ||
+                       exprNode instanceof ExprRelationalOpNode ||
+                       exprNode instanceof ExprEqualsNode ||
+                       exprNode instanceof ExprAndNode ||
+                       exprNode instanceof ExprOrNode ||
+                       exprNode instanceof ExprNotNode)) {
+                hasIneligible = true;
+            }
+        }
+
+        public boolean isEligible() {
+            return hasProperty && !hasIneligible;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.expression.core;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.core.service.ExpressionResultCacheEntry;
+import com.espertech.esper.core.service.ExpressionResultCacheForCommonSubexpression;
+
+import java.io.StringWriter;
+
+/**
+ * A placeholder for one occurrence of a sub-expression that occurs multiple times in the clauses of a statement.
+ * <p>
+ * All occurrences share a prototype node that keys the result cache so that the sub-expression
+ * is evaluated once for the same events, and the other occurrences reuse the result.
+ */
+public class ExprCommonSubexpressionNode extends ExprNodeBase implements ExprEvaluator
+{
+    private final ExprCommonSubexpressionNode prototype;
+    private static final long serialVersionUID = -4281035960254470396L;
+
+    private transient ExprEvaluator innerEvaluator;
+    private transient boolean isCache;
+
+    /**
+     * Ctor.
+     * @param inner the sub-expression
+     * @param prototype the node shared by all occurrences, or null if this occurrence is the prototype
+     */
+    public ExprCommonSubexpressionNode(ExprNode inner, ExprCommonSubexpressionNode prototype)
+    {
+        this.prototype = prototype == null ? this : prototype;
+        addChildNode(inner);
+    }
+
+    public ExprNode validate(ExprValidationContext validationContext) throws ExprValidationException
+    {
+        innerEvaluator = getChildNodes()[0].getExprEvaluator();
+        // enumeration and typable results are handled by type-specific logic that looks at the evaluator itself
+        isCache = !(innerEvaluator instanceof ExprEvaluatorEnumeration) && !(innerEvaluator instanceof ExprEvaluatorTypableReturn);
+        return null;
+    }
+
+    public ExprEvaluator getExprEvaluator()
+    {
+        return isCache ? this : innerEvaluator;
+    }
+
+    public ExprCommonSubexpressionNode getPrototype()
+    {
+        return prototype;
+    }
+
+    public ExprPrecedenceEnum getPrecedence() {
+        return getChildNodes()[0].getPrecedence();
+    }
+
+    public void toEPL(StringWriter writer, ExprPrecedenceEnum parentPrecedence) {
+        getChildNodes()[0].toEPL(writer, parentPrecedence);
+    }
+
+    public void toPrecedenceFreeEPL(StringWriter writer) {
+        getChildNodes()[0].toEPL(writer, ExprPrecedenceEnum.MINIMUM);
+    }
+
+    public boolean isConstantResult()
+    {
+        return false;
+    }
+
+    public boolean equalsNode(ExprNode node)
+    {
+        return node instanceof ExprCommonSubexpressionNode;
+    }
+
+    public Class getType()
+    {
+        return innerEvaluator.getType();
+    }
+
+    public Object evaluate(EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext context)
+    {
+        if (eventsPerStream == null) {
+            return innerEvaluator.evaluate(eventsPerStream, isNewData, context);
+        }
+        ExpressionResultCacheForCommonSubexpression cache = context.getExpressionResultCacheService().getAllocateCommonSubexpression();
+        ExpressionResultCacheEntry<EventBean[], Object> entry = cache.getCommonSubexpressionValue(prototype, eventsPerStream, context);
+        if (entry != null) {
+            return entry.getResult();
+        }
+        Object result = innerEvaluator.evaluate(eventsPerStream, isNewData, context);
+        cache.saveCommonSubexpressionValue(prototype, eventsPerStream, context, result);
+        return result;
+    }
+}
@@ -11,6 +11,7 @@
 
 package com.espertech.esper.epl.expression.core;
 
+import com.espertech.esper.util.MethodHandleInvoker;
 import net.sf.cglib.reflect.FastMethod;
 
 import java.lang.reflect.Method;
@@ -21,13 +22,15 @@ public class ExprNodeUtilMethodDesc {
     private final ExprEvaluator[] childEvals;
     private final Method reflectionMethod;
     private final FastMethod fastMethod;
+    private final MethodHandleInvoker optionalInvoker;
 
-    public ExprNodeUtilMethodDesc(boolean allConstants, Class[] paramTypes, ExprEvaluator[] childEvals, Method reflectionMethod, FastMethod fastMethod) {
+    public ExprNodeUtilMethodDesc(boolean allConstants, Class[] paramTypes, ExprEvaluator[] childEvals, Method reflectionMethod, FastMethod fastMethod, MethodHandleInvoker optionalInvoker) {
         this.allConstants = allConstants;
         this.paramTypes = paramTypes;
         this.childEvals = childEvals;
         this.reflectionMethod = reflectionMethod;
         this.fastMethod = fastMethod;
+        this.optionalInvoker = optionalInvoker;
     }
 
     public boolean isAllConstants() {
@@ -49,4 +52,8 @@ public class ExprNodeUtilMethodDesc {
     public FastMethod getFastMethod() {
         return fastMethod;
     }
+
+    public MethodHandleInvoker getOptionalInvoker() {
+        return optionalInvoker;
+    }
 }
@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.epl.expression.core;
 
+import com.espertech.esper.client.ConfigurationEngineDefaults;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.hook.AggregationFunctionFactory;
@@ -852,7 +853,13 @@ public class ExprNodeUtility {
             childEvals = makeVarargArrayEval(method, childEvals);
         }
 
-        return new ExprNodeUtilMethodDesc(allConstants, paramTypes, childEvals, method, staticMethod);
+        // obtain a method handle invoker if so configured, the caller binds the invoker of an instance method to its target
+        MethodHandleInvoker invoker = null;
+        if (engineImportService.getInvocationBackend() == ConfigurationEngineDefaults.InvocationBackend.METHODHANDLE) {
+            invoker = MethodHandleInvoker.make(method, null);
+        }
+
+        return new ExprNodeUtilMethodDesc(allConstants, paramTypes, childEvals, method, staticMethod, invoker);
     }
 
     public static void validatePlainExpression(ExprNodeOrigin origin, String expressionTextualName, ExprNode expression) throws ExprValidationException {
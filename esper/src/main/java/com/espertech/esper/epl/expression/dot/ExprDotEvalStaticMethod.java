@@ -18,19 +18,23 @@ import com.espertech.esper.epl.rettype.EPTypeHelper;
 import com.espertech.esper.epl.enummethod.dot.ExprDotStaticMethodWrap;
 import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
 import com.espertech.esper.util.JavaClassHelper;
+import com.espertech.esper.util.MethodHandleInvoker;
 import net.sf.cglib.reflect.FastMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 
 public class ExprDotEvalStaticMethod implements ExprEvaluator, EventPropertyGetter
 {
     private static final Logger log = LoggerFactory.getLogger(ExprDotEvalStaticMethod.class);
+    private static final Object INVOCATION_FAILED = new Object();
 
     private final String statementName;
     private final String classOrPropertyName;
 	private final FastMethod staticMethod;
+    private final MethodHandleInvoker optionalInvoker;
     private final ExprEvaluator[] childEvals;
     private final boolean isConstantParameters;
     private final ExprDotEval[] chainEval;
@@ -38,12 +42,15 @@ public class ExprDotEvalStaticMethod implements ExprEvaluator, EventPropertyGett
     private final boolean rethrowExceptions;
     private final Object targetObject;
 
+    private final boolean isInvokeIndividually;
+
     private boolean isCachedResult;
     private Object cachedResult;
 
     public ExprDotEvalStaticMethod(String statementName,
                                    String classOrPropertyName,
                                    FastMethod staticMethod,
+                                   MethodHandleInvoker optionalInvoker,
                                    ExprEvaluator[] childEvals,
                                    boolean constantParameters,
                                    ExprDotStaticMethodWrap resultWrapLambda,
@@ -54,6 +61,7 @@ public class ExprDotEvalStaticMethod implements ExprEvaluator, EventPropertyGett
         this.statementName = statementName;
         this.classOrPropertyName = classOrPropertyName;
         this.staticMethod = staticMethod;
+        this.optionalInvoker = optionalInvoker;
         this.childEvals = childEvals;
         this.targetObject = targetObject;
         if (chainEval.length > 0) {
@@ -65,6 +73,7 @@ public class ExprDotEvalStaticMethod implements ExprEvaluator, EventPropertyGett
         this.resultWrapLambda = resultWrapLambda;
         this.chainEval = chainEval;
         this.rethrowExceptions = rethrowExceptions;
+        this.isInvokeIndividually = optionalInvoker != null && childEvals.length <= MethodHandleInvoker.MAX_EXACT_PARAMETERS;
     }
 
     public Class getType()
@@ -86,6 +95,36 @@ public class ExprDotEvalStaticMethod implements ExprEvaluator, EventPropertyGett
             return cachedResult;
         }
 
+        Object result = invoke(eventsPerStream, isNewData, exprEvaluatorContext);
+        if (result == INVOCATION_FAILED)
+        {
+            if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aExprPlugInSingleRow(null);}
+            return null;
+        }
+
+        result = ExprDotNodeUtility.evaluateChainWithWrap(resultWrapLambda, result, null, staticMethod.getReturnType(), chainEval, eventsPerStream, isNewData, exprEvaluatorContext);
+
+        if (isConstantParameters)
+        {
+            cachedResult = result;
+            isCachedResult = true;
+        }
+
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aExprPlugInSingleRow(result);}
+        return result;
+    }
+
+    public Object get(EventBean eventBean) throws PropertyAccessException {
+        Object result = invoke(new EventBean[] {eventBean}, false, null);
+        return result == INVOCATION_FAILED ? null : result;
+    }
+
+    private Object invoke(EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext)
+    {
+        if (isInvokeIndividually) {
+            return invokeIndividually(eventsPerStream, isNewData, exprEvaluatorContext);
+        }
+
 		Object[] args = new Object[childEvals.length];
 		for(int i = 0; i < args.length; i++)
 		{
@@ -96,53 +135,53 @@ public class ExprDotEvalStaticMethod implements ExprEvaluator, EventPropertyGett
 		// can be null
 		try
 		{
-            Object result = staticMethod.invoke(targetObject, args);
-
-            result = ExprDotNodeUtility.evaluateChainWithWrap(resultWrapLambda, result, null, staticMethod.getReturnType(), chainEval, eventsPerStream, isNewData, exprEvaluatorContext);
-
-            if (isConstantParameters)
-            {
-                cachedResult = result;
-                isCachedResult = true;
+            if (optionalInvoker != null) {
+                return optionalInvoker.invoke(args);
             }
-
-            if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aExprPlugInSingleRow(result);}
-            return result;
+            return staticMethod.invoke(targetObject, args);
 		}
 		catch (InvocationTargetException e)
 		{
-            String message = JavaClassHelper.getMessageInvocationTarget(statementName, staticMethod.getJavaMethod(), classOrPropertyName, args, e);
-            log.error(message, e.getTargetException());
-            if (rethrowExceptions) {
-                throw new EPException(message, e.getTargetException());
-            }
+            return handleInvocationTarget(args, e);
 		}
-        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aExprPlugInSingleRow(null);}
-        return null;
     }
 
-    public Object get(EventBean eventBean) throws PropertyAccessException {
-        Object[] args = new Object[childEvals.length];
-        for(int i = 0; i < args.length; i++)
-        {
-            args[i] = childEvals[i].evaluate(new EventBean[] {eventBean}, false, null);
-        }
-
-        // The method is static so the object it is invoked on
-        // can be null
+    /**
+     * Passes the argument values individually to the method handle invoker, without allocating an argument array.
+     */
+    private Object invokeIndividually(EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext exprEvaluatorContext)
+    {
+        int numArgs = childEvals.length;
+        Object a0 = numArgs > 0 ? childEvals[0].evaluate(eventsPerStream, isNewData, exprEvaluatorContext) : null;
+        Object a1 = numArgs > 1 ? childEvals[1].evaluate(eventsPerStream, isNewData, exprEvaluatorContext) : null;
+        Object a2 = numArgs > 2 ? childEvals[2].evaluate(eventsPerStream, isNewData, exprEvaluatorContext) : null;
+        Object a3 = numArgs > 3 ? childEvals[3].evaluate(eventsPerStream, isNewData, exprEvaluatorContext) : null;
+        Object a4 = numArgs > 4 ? childEvals[4].evaluate(eventsPerStream, isNewData, exprEvaluatorContext) : null;
         try
         {
-            return staticMethod.invoke(targetObject, args);
+            switch (numArgs) {
+                case 0: return optionalInvoker.invoke0();
+                case 1: return optionalInvoker.invoke1(a0);
+                case 2: return optionalInvoker.invoke2(a0, a1);
+                case 3: return optionalInvoker.invoke3(a0, a1, a2);
+                case 4: return optionalInvoker.invoke4(a0, a1, a2, a3);
+                default: return optionalInvoker.invoke5(a0, a1, a2, a3, a4);
+            }
         }
         catch (InvocationTargetException e)
         {
-            String message = JavaClassHelper.getMessageInvocationTarget(statementName, staticMethod.getJavaMethod(), classOrPropertyName, args, e);
-            log.error(message, e.getTargetException());
-            if (rethrowExceptions) {
-                throw new EPException(message, e.getTargetException());
-            }
+            return handleInvocationTarget(Arrays.copyOf(new Object[] {a0, a1, a2, a3, a4}, numArgs), e);
         }
-        return null;
+    }
+
+    private Object handleInvocationTarget(Object[] args, InvocationTargetException e)
+    {
+        String message = JavaClassHelper.getMessageInvocationTarget(statementName, staticMethod.getJavaMethod(), classOrPropertyName, args, e);
+        log.error(message, e.getTargetException());
+        if (rethrowExceptions) {
+            throw new EPException(message, e.getTargetException());
+        }
+        return INVOCATION_FAILED;
     }
 
     public boolean isExistsProperty(EventBean eventBean) {
@@ -25,6 +25,7 @@ import com.espertech.esper.epl.variable.VariableReader;
 import com.espertech.esper.epl.variable.VariableService;
 import com.espertech.esper.event.EventTypeUtility;
 import com.espertech.esper.util.JavaClassHelper;
+import com.espertech.esper.util.MethodHandleInvoker;
 
 import java.io.StringWriter;
 import java.util.ArrayList;
@@ -395,7 +396,11 @@ public class ExprDotNode extends ExprNodeBase implements ExprNodeInnerNodeProvid
             EPType typeInfo = optionalLambdaWrap != null ? optionalLambdaWrap.getTypeInfo() : EPTypeHelper.singleValue(methodDesc.getFastMethod().getReturnType());
 
             ExprDotNodeRealizedChain evals = ExprDotNodeUtility.getChainEvaluators(null, typeInfo, modifiedChain, validationContext, false, new ExprDotNodeFilterAnalyzerInputStatic());
-            exprEvaluator = new ExprDotEvalStaticMethod(validationContext.getStatementName(), firstItem.getName(), methodDesc.getFastMethod(),
+            MethodHandleInvoker invoker = null;
+            if (validationContext.getEngineImportService().getInvocationBackend() == ConfigurationEngineDefaults.InvocationBackend.METHODHANDLE) {
+                invoker = MethodHandleInvoker.make(methodDesc.getReflectionMethod(), enumconstant);
+            }
+            exprEvaluator = new ExprDotEvalStaticMethod(validationContext.getStatementName(), firstItem.getName(), methodDesc.getFastMethod(), invoker,
                     methodDesc.getChildEvals(), false, optionalLambdaWrap, evals.getChainWithUnpack(), false, enumconstant);
             return null;
         }
@@ -424,7 +429,7 @@ public class ExprDotNode extends ExprNodeBase implements ExprNodeInnerNodeProvid
         EPType typeInfo = optionalLambdaWrap != null ? optionalLambdaWrap.getTypeInfo() : EPTypeHelper.singleValue(method.getReflectionMethod().getReturnType());
 
         ExprDotNodeRealizedChain evals = ExprDotNodeUtility.getChainEvaluators(null, typeInfo, modifiedChain, validationContext, false, new ExprDotNodeFilterAnalyzerInputStatic());
-        exprEvaluator = new ExprDotEvalStaticMethod(validationContext.getStatementName(), firstItem.getName(), method.getFastMethod(), method.getChildEvals(), isConstantParameters, optionalLambdaWrap, evals.getChainWithUnpack(), false, null);
+        exprEvaluator = new ExprDotEvalStaticMethod(validationContext.getStatementName(), firstItem.getName(), method.getFastMethod(), method.getOptionalInvoker(), method.getChildEvals(), isConstantParameters, optionalLambdaWrap, evals.getChainWithUnpack(), false, null);
         return null;
     }
 
@@ -177,6 +177,7 @@ public class ExprDotNodeUtility
             throw new ExprValidationException(message);
         }
 
+        methodEvals = ExprDotEvalEnumMethodFused.fuse(methodEvals);
         ExprDotEval[] intermediateEvals = methodEvals.toArray(new ExprDotEval[methodEvals.size()]);
 
         if (lastLambdaFunc != null) {
@@ -64,6 +64,11 @@ public class ExprPlugInSingleRowNode extends ExprNodeBase implements ExprNodeInn
         return chainSpec;
     }
 
+    public EngineImportSingleRowDesc getConfig()
+    {
+        return config;
+    }
+
     @Override
     public boolean isConstantResult()
     {
@@ -172,7 +177,7 @@ public class ExprPlugInSingleRowNode extends ExprNodeBase implements ExprNodeInn
         EPType typeInfo = optionalLambdaWrap != null ? optionalLambdaWrap.getTypeInfo() : EPTypeHelper.singleValue(staticMethodDesc.getReflectionMethod().getReturnType());
 
         ExprDotEval[] eval = ExprDotNodeUtility.getChainEvaluators(-1, typeInfo, chainList, validationContext, false, new ExprDotNodeFilterAnalyzerInputStatic()).getChainWithUnpack();
-        evaluator = new ExprDotEvalStaticMethod(validationContext.getStatementName(), clazz.getName(), staticMethodDesc.getFastMethod(), staticMethodDesc.getChildEvals(), allowValueCache && staticMethodDesc.isAllConstants(), optionalLambdaWrap, eval, config.isRethrowExceptions(), null);
+        evaluator = new ExprDotEvalStaticMethod(validationContext.getStatementName(), clazz.getName(), staticMethodDesc.getFastMethod(), staticMethodDesc.getOptionalInvoker(), staticMethodDesc.getChildEvals(), allowValueCache && staticMethodDesc.isAllConstants(), optionalLambdaWrap, eval, config.isRethrowExceptions(), null);
 
         // If caching the result, evaluate now and return the result.
         if (isReturnsConstantResult) {
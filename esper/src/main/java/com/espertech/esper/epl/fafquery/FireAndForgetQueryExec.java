@@ -20,6 +20,7 @@ import com.espertech.esper.epl.join.exec.composite.CompositeIndexLookup;
 import com.espertech.esper.epl.join.exec.composite.CompositeIndexLookupFactory;
 import com.espertech.esper.epl.join.hint.IndexHint;
 import com.espertech.esper.epl.join.hint.IndexHintInstruction;
+import com.espertech.esper.epl.join.hint.IndexHintInstructionIndexName;
 import com.espertech.esper.epl.join.plan.QueryGraphRangeConsolidateDesc;
 import com.espertech.esper.epl.join.plan.QueryGraphRangeEnum;
 import com.espertech.esper.epl.join.plan.QueryGraphRangeUtil;
@@ -33,6 +34,7 @@ import com.espertech.esper.epl.lookup.IndexMultiKey;
 import com.espertech.esper.epl.lookup.IndexedPropDesc;
 import com.espertech.esper.epl.virtualdw.VirtualDWView;
 import com.espertech.esper.filter.*;
+import com.espertech.esper.util.CollectionUtil;
 import org.slf4j.Logger;
 
 import java.lang.annotation.Annotation;
@@ -87,41 +89,31 @@ public class FireAndForgetQueryExec
 
         // Find an index that matches the needs
         Pair<IndexMultiKey, EventTableAndNamePair> tablePair;
+        List<IndexHintInstruction> optionalIndexHintInstructions = null;
         if (virtualDataWindow != null) {
             Pair<IndexMultiKey, EventTable> tablePairNoName = virtualDataWindow.getFireAndForgetDesc(keysAvailable, rangesAvailable);
             tablePair = new Pair<IndexMultiKey, EventTableAndNamePair>(tablePairNoName.getFirst(), new EventTableAndNamePair(tablePairNoName.getSecond(), null));
         }
         else {
             IndexHint indexHint = IndexHint.getIndexHint(annotations);
-            List<IndexHintInstruction> optionalIndexHintInstructions = null;
             if (indexHint != null) {
                 optionalIndexHintInstructions = indexHint.getInstructionsFireAndForget();
             }
             tablePair = indexRepository.findTable(keysAvailable, rangesAvailable, optionalIndexHintInstructions);
         }
 
-        QueryPlanIndexHook hook = QueryPlanIndexHookUtil.getHook(annotations);
-        if (queryPlanLogging && (queryPlanLogDestination.isInfoEnabled() || hook != null)) {
-            String prefix = "Fire-and-forget from " + objectName + " ";
-            String indexName = tablePair != null && tablePair.getSecond() != null ? tablePair.getSecond().getIndexName() : null;
-            String indexText = indexName != null ? "index " + indexName + " " : "full table scan ";
-            indexText += "(snapshot only, for join see separate query plan)";
-            if (tablePair == null) {
-                queryPlanLogDestination.info(prefix + indexText);
-            }
-            else {
-                queryPlanLogDestination.info(prefix + indexText + tablePair.getSecond().getEventTable().toQueryPlan());
-            }
-
-            if (hook != null) {
-                hook.fireAndForget(new QueryPlanIndexDescFAF(
-                        new IndexNameAndDescPair[] {
-                                new IndexNameAndDescPair(indexName, tablePair != null ?
-                                        tablePair.getSecond().getEventTable().getProviderClass().getSimpleName() : null)
-                        }));
+        // Bitmap indexes answer equals and in-list predicates on any subset of their columns, combined by and/or
+        if (virtualDataWindow == null) {
+            BitmapLookupPlan bitmapPlan = planBitmapLookup(optionalFilter.getParameters(), indexRepository, tablePair, optionalIndexHintInstructions, agentInstanceContext);
+            if (bitmapPlan != null) {
+                queryPlanReport(bitmapPlan.getTable(), annotations, queryPlanLogging, queryPlanLogDestination, objectName);
+                PropertyBitmapEventTable table = (PropertyBitmapEventTable) bitmapPlan.getTable().getEventTable();
+                return table.lookup(bitmapPlan.getColumns(), bitmapPlan.getValues());
             }
         }
 
+        queryPlanReport(tablePair == null ? null : tablePair.getSecond(), annotations, queryPlanLogging, queryPlanLogDestination, objectName);
+
         if (tablePair == null) {
             return null;    // indicates table scan
         }
@@ -194,6 +186,122 @@ public class FireAndForgetQueryExec
         return events;
     }
 
+    private static void queryPlanReport(EventTableAndNamePair table, Annotation[] annotations, boolean queryPlanLogging, Logger queryPlanLogDestination, String objectName) {
+        QueryPlanIndexHook hook = QueryPlanIndexHookUtil.getHook(annotations);
+        if (queryPlanLogging && (queryPlanLogDestination.isInfoEnabled() || hook != null)) {
+            String prefix = "Fire-and-forget from " + objectName + " ";
+            String indexName = table != null ? table.getIndexName() : null;
+            String indexText = indexName != null ? "index " + indexName + " " : "full table scan ";
+            indexText += "(snapshot only, for join see separate query plan)";
+            if (table == null) {
+                queryPlanLogDestination.info(prefix + indexText);
+            }
+            else {
+                queryPlanLogDestination.info(prefix + indexText + table.getEventTable().toQueryPlan());
+            }
+
+            if (hook != null) {
+                hook.fireAndForget(new QueryPlanIndexDescFAF(
+                        new IndexNameAndDescPair[] {
+                                new IndexNameAndDescPair(indexName, table != null ?
+                                        table.getEventTable().getProviderClass().getSimpleName() : null)
+                        }));
+            }
+        }
+    }
+
+    /**
+     * Determine whether a bitmap index should answer the lookup, returning null when none applies or
+     * when the index found otherwise is preferable.
+     */
+    private static BitmapLookupPlan planBitmapLookup(FilterSpecParam[][] parameters,
+                                                     EventTableIndexRepository indexRepository,
+                                                     Pair<IndexMultiKey, EventTableAndNamePair> tablePair,
+                                                     List<IndexHintInstruction> optionalIndexHintInstructions,
+                                                     AgentInstanceContext agentInstanceContext) {
+        List<Pair<IndexMultiKey, EventTableAndNamePair>> bitmaps = indexRepository.findBitmapTables();
+        if (bitmaps.isEmpty()) {
+            return null;
+        }
+
+        // an index hint naming a bitmap index selects it, other hints take precedence over bitmap indexes
+        String hintIndexName = null;
+        if (optionalIndexHintInstructions != null) {
+            for (IndexHintInstruction instruction : optionalIndexHintInstructions) {
+                if (instruction instanceof IndexHintInstructionIndexName) {
+                    hintIndexName = ((IndexHintInstructionIndexName) instruction).getIndexName();
+                    break;
+                }
+            }
+        }
+
+        BitmapLookupPlan best = null;
+        for (Pair<IndexMultiKey, EventTableAndNamePair> bitmap : bitmaps) {
+            BitmapLookupPlan plan = planBitmapLookup(parameters, bitmap, agentInstanceContext);
+            if (plan == null) {
+                continue;
+            }
+            if (hintIndexName != null && hintIndexName.equals(bitmap.getSecond().getIndexName())) {
+                return plan;
+            }
+            if (best == null || plan.getMinTermsPerBranch() > best.getMinTermsPerBranch()) {
+                best = plan;
+            }
+        }
+
+        if (best == null || (optionalIndexHintInstructions != null && tablePair != null)) {
+            return null;
+        }
+        if (parameters.length > 1 || tablePair == null) {
+            return best;
+        }
+
+        // prefer unique indexes and indexes that are keyed on at least as many columns
+        IndexMultiKey found = tablePair.getFirst();
+        if (found.isUnique() || found.getHashIndexedProps().length + found.getRangeIndexedProps().length >= best.getMinTermsPerBranch()) {
+            return null;
+        }
+        return best;
+    }
+
+    private static BitmapLookupPlan planBitmapLookup(FilterSpecParam[][] parameters, Pair<IndexMultiKey, EventTableAndNamePair> bitmap, AgentInstanceContext agentInstanceContext) {
+        String[] bitmapProps = IndexedPropDesc.getIndexProperties(bitmap.getFirst().getHashIndexedProps());
+        int[][] columns = new int[parameters.length][];
+        Object[][][] values = new Object[parameters.length][][];
+        int minTerms = Integer.MAX_VALUE;
+
+        for (int branch = 0; branch < parameters.length; branch++) {
+            List<Integer> branchColumns = new ArrayList<Integer>(bitmapProps.length);
+            List<Object[]> branchValues = new ArrayList<Object[]>(bitmapProps.length);
+            for (FilterSpecParam param : parameters[branch]) {
+                if (!(param instanceof FilterSpecParamConstant || param instanceof FilterSpecParamIn)) {
+                    continue;
+                }
+                int column = CollectionUtil.findItem(bitmapProps, param.getLookupable().getExpression());
+                if (column == -1 || branchColumns.contains(column)) {
+                    continue;
+                }
+                if (param.getFilterOperator() == FilterOperator.EQUAL || param.getFilterOperator() == FilterOperator.IS) {
+                    branchColumns.add(column);
+                    branchValues.add(new Object[] {param.getFilterValue(null, agentInstanceContext)});
+                }
+                else if (param.getFilterOperator() == FilterOperator.IN_LIST_OF_VALUES) {
+                    branchColumns.add(column);
+                    branchValues.add(((MultiKeyUntyped) param.getFilterValue(null, agentInstanceContext)).getKeys());
+                }
+            }
+
+            // each branch must be answered by the index as otherwise a full scan is required
+            if (branchColumns.isEmpty()) {
+                return null;
+            }
+            columns[branch] = CollectionUtil.intArray(branchColumns);
+            values[branch] = branchValues.toArray(new Object[branchValues.size()][]);
+            minTerms = Math.min(minTerms, branchColumns.size());
+        }
+        return new BitmapLookupPlan(bitmap.getSecond(), columns, values, minTerms);
+    }
+
     private static Collection<EventBean> fafTableLookup(VirtualDWView virtualDataWindow, IndexMultiKey indexMultiKey, EventTable eventTable, Object[] keyValues, RangeIndexLookupValue[] rangeValues, Annotation[] annotations) {
         if (virtualDataWindow != null) {
             return virtualDataWindow.getFireAndForgetData(eventTable, keyValues, rangeValues, annotations);
@@ -281,4 +389,34 @@ public class FireAndForgetQueryExec
             return new DoubleRange(endDbl, startDbl);
         }
     }
+
+    private static class BitmapLookupPlan {
+        private final EventTableAndNamePair table;
+        private final int[][] columns;
+        private final Object[][][] values;
+        private final int minTermsPerBranch;
+
+        private BitmapLookupPlan(EventTableAndNamePair table, int[][] columns, Object[][][] values, int minTermsPerBranch) {
+            this.table = table;
+            this.columns = columns;
+            this.values = values;
+            this.minTermsPerBranch = minTermsPerBranch;
+        }
+
+        public EventTableAndNamePair getTable() {
+            return table;
+        }
+
+        public int[][] getColumns() {
+            return columns;
+        }
+
+        public Object[][][] getValues() {
+            return values;
+        }
+
+        public int getMinTermsPerBranch() {
+            return minTermsPerBranch;
+        }
+    }
 }
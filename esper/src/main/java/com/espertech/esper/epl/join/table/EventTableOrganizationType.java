@@ -17,5 +17,6 @@ public enum EventTableOrganizationType {
     BTREE,
     COMPOSITE,
     MULTIINDEX,
-    VDW
+    VDW,
+    BITMAP
 }
@@ -8,12 +8,19 @@
  **************************************************************************************/
 package com.espertech.esper.epl.join.table;
 
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.core.context.util.AgentInstanceContext;
+import com.espertech.esper.core.thread.EngineThreadFactory;
 import com.espertech.esper.epl.join.plan.QueryPlanIndexItem;
 import com.espertech.esper.epl.lookup.EventTableIndexService;
 import com.espertech.esper.util.CollectionUtil;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
 public class EventTableUtil
 {
     /**
@@ -107,6 +114,81 @@ public class EventTableUtil
         return table;
     }
 
+    /**
+     * Build a bitmap index over the given properties.
+     * @param agentInstanceContext context
+     * @param indexedStreamNum indexed stream number
+     * @param indexProps bitmap-indexed properties
+     * @param eventType indexed type
+     * @param optionalIndexName index name
+     * @param optionalSerde serde
+     * @param isFireAndForget fire-and-forget indicator
+     * @return index table
+     */
+    public static EventTable buildBitmapIndex(AgentInstanceContext agentInstanceContext, int indexedStreamNum, String[] indexProps, EventType eventType, String optionalIndexName, Object optionalSerde, boolean isFireAndForget)
+    {
+        EventTableFactoryTableIdentAgentInstance ident = new EventTableFactoryTableIdentAgentInstance(agentInstanceContext);
+        EventTableIndexService eventTableIndexService = agentInstanceContext.getStatementContext().getEventTableIndexService();
+        EventTableFactory factory = eventTableIndexService.createBitmap(indexedStreamNum, eventType, indexProps, optionalIndexName, optionalSerde, isFireAndForget);
+        return factory.makeEventTables(ident)[0];
+    }
+
+    /**
+     * Clears each index and populates it with the events, populating multiple indexes in parallel.
+     * <p>
+     * Each index is populated by a single thread, therefore indexes need not be thread-safe.
+     * </p>
+     * @param tables indexes to populate
+     * @param events events to add to each index
+     * @param engineURI engine URI for naming threads
+     */
+    public static void populateParallel(List<EventTable> tables, final EventBean[] events, String engineURI)
+    {
+        for (EventTable table : tables) {
+            table.clear();
+        }
+        if (events.length == 0) {
+            return;
+        }
+
+        int numThreads = Math.min(tables.size(), Runtime.getRuntime().availableProcessors());
+        if (numThreads <= 1) {
+            for (EventTable table : tables) {
+                table.add(events);
+            }
+            return;
+        }
+
+        ThreadGroup threadGroup = new ThreadGroup("com.espertech.esper." + engineURI + "-IndexPopulate");
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, new EngineThreadFactory(engineURI, "IndexPopulate", threadGroup, Thread.NORM_PRIORITY));
+        try {
+            List<Future> futures = new ArrayList<Future>(tables.size());
+            for (final EventTable table : tables) {
+                futures.add(executor.submit(new Runnable() {
+                    public void run() {
+                        table.add(events);
+                    }
+                }));
+            }
+            for (Future future : futures) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EPException("Interrupted populating indexes", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new EPException("Failed populating indexes: " + e.getCause().getMessage(), e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     private static Class[] normalize(Class[] types) {
         if (types == null) {
             return null;
@@ -0,0 +1,329 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.join.table;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.collection.CompressedBitmap;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.util.JavaClassHelper;
+
+import java.util.*;
+
+/**
+ * Index that keeps, for each indexed property and each distinct value of that property, a compressed bitmap
+ * of the event slots that carry the value.
+ * <p>
+ * Each event added to the index is assigned an integer slot, slots of removed events are reused.
+ * Lookups are given as a disjunction of conjunctions over any subset of the indexed properties and are answered by
+ * bitmap intersection and union, so a single index serves any combination of equals-predicates on the indexed properties.
+ * Best suited to properties with a low number of distinct values.
+ * </p>
+ * <p>
+ * Lookup results may be a superset of the events that satisfy a full where-clause and must be post-filtered by the caller.
+ * </p>
+ */
+public class PropertyBitmapEventTable implements EventTable
+{
+    private final static Comparator<CompressedBitmap> CARDINALITY_COMPARATOR = new Comparator<CompressedBitmap>() {
+        public int compare(CompressedBitmap o1, CompressedBitmap o2) {
+            return Integer.compare(o1.cardinality(), o2.cardinality());
+        }
+    };
+
+    private final EventPropertyGetter[] propertyGetters;
+    private final Class[] optCoercionTypes;
+    private final EventTableOrganization organization;
+    private final Map<Object, CompressedBitmap>[] valueBitmaps;
+    private final Map<EventBean, Integer> slotsByEvent;
+
+    private EventBean[] eventsBySlot;
+    private int slotHighWater;
+    private int[] freeSlots;
+    private int numFreeSlots;
+
+    /**
+     * Ctor.
+     * @param propertyGetters getters for the indexed properties
+     * @param optCoercionTypes numeric boxed type per indexed property for coercing lookup values, or null elements when no coercion applies
+     * @param organization organization
+     */
+    public PropertyBitmapEventTable(EventPropertyGetter[] propertyGetters, Class[] optCoercionTypes, EventTableOrganization organization) {
+        this.propertyGetters = propertyGetters;
+        this.optCoercionTypes = optCoercionTypes;
+        this.organization = organization;
+        this.valueBitmaps = (Map<Object, CompressedBitmap>[]) new Map[propertyGetters.length];
+        for (int i = 0; i < valueBitmaps.length; i++) {
+            valueBitmaps[i] = new HashMap<Object, CompressedBitmap>();
+        }
+        this.slotsByEvent = new HashMap<EventBean, Integer>();
+        this.eventsBySlot = new EventBean[16];
+        this.freeSlots = new int[16];
+    }
+
+    /**
+     * Returns the events that match any of the branches, wherein each branch is a conjunction of lookup terms.
+     * <p>
+     * For each branch, {@code columns[branch]} lists the positions of the indexed properties and {@code values[branch][term]}
+     * lists the values, any of which may match for the property (a single value for equals, multiple values for in-lists).
+     * </p>
+     * @param columns indexed property positions per branch
+     * @param values lookup values per branch and term
+     * @return matching events, empty collection if none
+     */
+    public Collection<EventBean> lookup(int[][] columns, Object[][][] values)
+    {
+        CompressedBitmap result = null;
+        for (int branch = 0; branch < columns.length; branch++) {
+            CompressedBitmap branchResult = lookupBranch(columns[branch], values[branch]);
+            if (branchResult == null || branchResult.isEmpty()) {
+                continue;
+            }
+            result = result == null ? branchResult : result.or(branchResult);
+        }
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        return toEvents(result);
+    }
+
+    /**
+     * Returns the number of distinct values for an indexed property.
+     * @param column position of indexed property
+     * @return number of distinct values
+     */
+    public int getNumDistinctValues(int column) {
+        return valueBitmaps[column].size();
+    }
+
+    public void addRemove(EventBean[] newData, EventBean[] oldData) {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qIndexAddRemove(this, newData, oldData);}
+        if (newData != null) {
+            for (EventBean theEvent : newData) {
+                add(theEvent);
+            }
+        }
+        if (oldData != null) {
+            for (EventBean theEvent : oldData) {
+                remove(theEvent);
+            }
+        }
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aIndexAddRemove();}
+    }
+
+    public void add(EventBean[] events)
+    {
+        if (events == null) {
+            return;
+        }
+        if (InstrumentationHelper.ENABLED && events.length > 0) {
+            InstrumentationHelper.get().qIndexAdd(this, events);
+            for (EventBean theEvent : events) {
+                add(theEvent);
+            }
+            InstrumentationHelper.get().aIndexAdd();
+            return;
+        }
+        for (EventBean theEvent : events) {
+            add(theEvent);
+        }
+    }
+
+    public void remove(EventBean[] events)
+    {
+        if (events == null) {
+            return;
+        }
+        if (InstrumentationHelper.ENABLED && events.length > 0) {
+            InstrumentationHelper.get().qIndexRemove(this, events);
+            for (EventBean theEvent : events) {
+                remove(theEvent);
+            }
+            InstrumentationHelper.get().aIndexRemove();
+            return;
+        }
+        for (EventBean theEvent : events) {
+            remove(theEvent);
+        }
+    }
+
+    public void add(EventBean theEvent)
+    {
+        if (slotsByEvent.containsKey(theEvent)) {
+            return;
+        }
+
+        int slot;
+        if (numFreeSlots > 0) {
+            slot = freeSlots[--numFreeSlots];
+        }
+        else {
+            slot = slotHighWater++;
+            if (slot == eventsBySlot.length) {
+                eventsBySlot = Arrays.copyOf(eventsBySlot, eventsBySlot.length * 2);
+            }
+        }
+        eventsBySlot[slot] = theEvent;
+        slotsByEvent.put(theEvent, slot);
+
+        for (int i = 0; i < propertyGetters.length; i++) {
+            Object value = propertyGetters[i].get(theEvent);
+            CompressedBitmap bitmap = valueBitmaps[i].get(value);
+            if (bitmap == null) {
+                bitmap = new CompressedBitmap();
+                valueBitmaps[i].put(value, bitmap);
+            }
+            bitmap.add(slot);
+        }
+    }
+
+    public void remove(EventBean theEvent)
+    {
+        Integer slot = slotsByEvent.remove(theEvent);
+        if (slot == null) {
+            // Not an error, its possible that an old-data event is artificial (such as for statistics) and
+            // thus did not correspond to a new-data event raised earlier.
+            return;
+        }
+
+        for (int i = 0; i < propertyGetters.length; i++) {
+            Object value = propertyGetters[i].get(theEvent);
+            CompressedBitmap bitmap = valueBitmaps[i].get(value);
+            if (bitmap == null) {
+                continue;
+            }
+            bitmap.remove(slot);
+            if (bitmap.isEmpty()) {
+                valueBitmaps[i].remove(value);
+            }
+        }
+
+        eventsBySlot[slot] = null;
+        if (numFreeSlots == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[numFreeSlots++] = slot;
+    }
+
+    public Iterator<EventBean> iterator()
+    {
+        ArrayDeque<EventBean> events = new ArrayDeque<EventBean>(Math.max(1, slotsByEvent.size()));
+        for (int i = 0; i < slotHighWater; i++) {
+            if (eventsBySlot[i] != null) {
+                events.add(eventsBySlot[i]);
+            }
+        }
+        return events.iterator();
+    }
+
+    public boolean isEmpty()
+    {
+        return slotsByEvent.isEmpty();
+    }
+
+    public void clear()
+    {
+        for (Map<Object, CompressedBitmap> map : valueBitmaps) {
+            map.clear();
+        }
+        slotsByEvent.clear();
+        eventsBySlot = new EventBean[16];
+        slotHighWater = 0;
+        freeSlots = new int[16];
+        numFreeSlots = 0;
+    }
+
+    public void destroy() {
+        clear();
+    }
+
+    public String toQueryPlan()
+    {
+        return this.getClass().getSimpleName() +
+                " streamNum=" + organization.getStreamNum() +
+                " propertyGetters=" + Arrays.toString(propertyGetters);
+    }
+
+    public Class getProviderClass() {
+        return PropertyBitmapEventTable.class;
+    }
+
+    public Integer getNumberOfEvents() {
+        return slotsByEvent.size();
+    }
+
+    public int getNumKeys() {
+        int count = 0;
+        for (Map<Object, CompressedBitmap> map : valueBitmaps) {
+            count += map.size();
+        }
+        return count;
+    }
+
+    public Object getIndex() {
+        return valueBitmaps;
+    }
+
+    public EventTableOrganization getOrganization() {
+        return organization;
+    }
+
+    private CompressedBitmap lookupBranch(int[] columns, Object[][] values) {
+        if (columns.length == 0) {
+            return null;
+        }
+
+        // intersect starting with the smallest bitmap
+        CompressedBitmap[] bitmaps = new CompressedBitmap[columns.length];
+        for (int term = 0; term < columns.length; term++) {
+            CompressedBitmap bitmap = lookupTerm(columns[term], values[term]);
+            if (bitmap == null) {
+                return null;
+            }
+            bitmaps[term] = bitmap;
+        }
+        if (bitmaps.length == 1) {
+            return bitmaps[0];
+        }
+        Arrays.sort(bitmaps, CARDINALITY_COMPARATOR);
+        CompressedBitmap result = bitmaps[0];
+        for (int i = 1; i < bitmaps.length && !result.isEmpty(); i++) {
+            result = result.and(bitmaps[i]);
+        }
+        return result;
+    }
+
+    private CompressedBitmap lookupTerm(int column, Object[] values) {
+        CompressedBitmap result = null;
+        for (Object value : values) {
+            CompressedBitmap bitmap = valueBitmaps[column].get(coerce(column, value));
+            if (bitmap == null) {
+                continue;
+            }
+            result = result == null ? bitmap : result.or(bitmap);
+        }
+        return result;
+    }
+
+    private Object coerce(int column, Object value) {
+        if (optCoercionTypes == null || optCoercionTypes[column] == null || !(value instanceof Number) || value.getClass() == optCoercionTypes[column]) {
+            return value;
+        }
+        return JavaClassHelper.coerceBoxed((Number) value, optCoercionTypes[column]);
+    }
+
+    private Collection<EventBean> toEvents(CompressedBitmap bitmap) {
+        int[] slots = bitmap.toArray();
+        ArrayDeque<EventBean> events = new ArrayDeque<EventBean>(Math.max(1, slots.length));
+        for (int slot : slots) {
+            events.add(eventsBySlot[slot]);
+        }
+        return events;
+    }
+}
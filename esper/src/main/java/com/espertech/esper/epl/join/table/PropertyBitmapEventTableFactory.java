@@ -0,0 +1,81 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.join.table;
+
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.util.JavaClassHelper;
+
+import java.util.Arrays;
+
+/**
+ * Index factory that organizes events into per-value compressed bitmaps for each of the indexed properties.
+ */
+public class PropertyBitmapEventTableFactory implements EventTableFactory
+{
+    protected final int streamNum;
+    protected final String[] propertyNames;
+    protected final String optionalIndexName;
+    protected final EventPropertyGetter[] propertyGetters;
+    protected final Class[] optCoercionTypes;
+
+    /**
+     * Ctor.
+     * @param streamNum - the stream number that is indexed
+     * @param eventType - types of events indexed
+     * @param propertyNames - property names to use for indexing
+     * @param optionalIndexName index name
+     */
+    public PropertyBitmapEventTableFactory(int streamNum, EventType eventType, String[] propertyNames, String optionalIndexName)
+    {
+        this.streamNum = streamNum;
+        this.propertyNames = propertyNames;
+        this.optionalIndexName = optionalIndexName;
+
+        propertyGetters = new EventPropertyGetter[propertyNames.length];
+        optCoercionTypes = new Class[propertyNames.length];
+        for (int i = 0; i < propertyNames.length; i++)
+        {
+            propertyGetters[i] = eventType.getGetter(propertyNames[i]);
+            Class boxed = JavaClassHelper.getBoxedType(eventType.getPropertyType(propertyNames[i]));
+            if (JavaClassHelper.isNumeric(boxed)) {
+                optCoercionTypes[i] = boxed;
+            }
+        }
+    }
+
+    public EventTable[] makeEventTables(EventTableFactoryTableIdent tableIdent) {
+        EventTableOrganization organization = new EventTableOrganization(optionalIndexName, false, false,
+                streamNum, propertyNames, EventTableOrganizationType.BITMAP);
+        return new EventTable[] {new PropertyBitmapEventTable(propertyGetters, optCoercionTypes, organization)};
+    }
+
+    public Class getEventTableClass() {
+        return PropertyBitmapEventTable.class;
+    }
+
+    public String toQueryPlan()
+    {
+        return this.getClass().getSimpleName() +
+                " streamNum=" + streamNum +
+                " propertyNames=" + Arrays.toString(propertyNames);
+    }
+
+    public int getStreamNum() {
+        return streamNum;
+    }
+
+    public String[] getPropertyNames() {
+        return propertyNames;
+    }
+
+    public String getOptionalIndexName() {
+        return optionalIndexName;
+    }
+}
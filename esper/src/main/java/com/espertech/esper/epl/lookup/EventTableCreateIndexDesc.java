@@ -17,11 +17,17 @@ public class EventTableCreateIndexDesc
     private final List<IndexedPropDesc> hashProps;
     private final List<IndexedPropDesc> btreeProps;
     private final boolean unique;
+    private final boolean bitmap;
 
     public EventTableCreateIndexDesc(List<IndexedPropDesc> hashProps, List<IndexedPropDesc> btreeProps, boolean unique) {
+        this(hashProps, btreeProps, unique, false);
+    }
+
+    public EventTableCreateIndexDesc(List<IndexedPropDesc> hashProps, List<IndexedPropDesc> btreeProps, boolean unique, boolean bitmap) {
         this.hashProps = hashProps;
         this.btreeProps = btreeProps;
         this.unique = unique;
+        this.bitmap = bitmap;
     }
 
     public List<IndexedPropDesc> getHashProps() {
@@ -36,10 +42,15 @@ public class EventTableCreateIndexDesc
         return unique;
     }
 
+    public boolean isBitmap() {
+        return bitmap;
+    }
+
     public static EventTableCreateIndexDesc fromMultiKey(IndexMultiKey multiKey) {
         return new EventTableCreateIndexDesc(
                 Arrays.asList(multiKey.getHashIndexedProps()),
                 Arrays.asList(multiKey.getRangeIndexedProps()),
-                multiKey.isUnique());
+                multiKey.isUnique(),
+                multiKey.isBitmap());
     }
 }
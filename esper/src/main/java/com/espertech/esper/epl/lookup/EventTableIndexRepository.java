@@ -49,6 +49,7 @@ public class EventTableIndexRepository
                                boolean unique,
                                List<IndexedPropDesc> hashProps,
                                List<IndexedPropDesc> btreeProps,
+                               boolean bitmap,
                                Iterable<EventBean> prefilledEvents,
                                EventType indexedType,
                                String indexName,
@@ -60,12 +61,15 @@ public class EventTableIndexRepository
         }
 
         // Get an existing table, if any, matching the exact requirement
-        IndexMultiKey indexPropKeyMatch = EventTableIndexUtil.findExactMatchNameAndType(tableIndexesRefCount.keySet(), unique, hashProps, btreeProps);
+        IndexMultiKey indexPropKeyMatch = EventTableIndexUtil.findExactMatchNameAndType(tableIndexesRefCount.keySet(), unique, hashProps, btreeProps, bitmap);
         if (indexPropKeyMatch != null) {
             EventTableIndexRepositoryEntry refTablePair = tableIndexesRefCount.get(indexPropKeyMatch);
             return new Pair<IndexMultiKey, EventTableAndNamePair>(indexPropKeyMatch, new EventTableAndNamePair(refTablePair.getTable(), refTablePair.getOptionalIndexName()));
         }
 
+        if (bitmap) {
+            return addBitmapIndex(hashProps, prefilledEvents, indexedType, indexName, agentInstanceContext, optionalSerde);
+        }
         return addIndex(unique, hashProps, btreeProps, prefilledEvents, indexedType, indexName, false, agentInstanceContext, optionalSerde);
     }
 
@@ -104,6 +108,23 @@ public class EventTableIndexRepository
         return new Pair<IndexMultiKey, EventTableAndNamePair>(pair.getFirst(), new EventTableAndNamePair(tableFound, pair.getSecond().getOptionalIndexName()));
     }
 
+    /**
+     * Returns the bitmap indexes.
+     * @return pairs of index descriptor and table, empty list if none
+     */
+    public List<Pair<IndexMultiKey, EventTableAndNamePair>> findBitmapTables() {
+        List<IndexMultiKey> keys = EventTableIndexUtil.findBitmapIndexes(tableIndexesRefCount);
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Pair<IndexMultiKey, EventTableAndNamePair>> result = new ArrayList<Pair<IndexMultiKey, EventTableAndNamePair>>(keys.size());
+        for (IndexMultiKey key : keys) {
+            EventTableIndexRepositoryEntry entry = tableIndexesRefCount.get(key);
+            result.add(new Pair<IndexMultiKey, EventTableAndNamePair>(key, new EventTableAndNamePair(entry.getTable(), entry.getOptionalIndexName())));
+        }
+        return result;
+    }
+
     public IndexMultiKey[] getIndexDescriptors() {
         Set<IndexMultiKey> keySet = tableIndexesRefCount.keySet();
         return keySet.toArray(new IndexMultiKey[keySet.size()]);
@@ -124,7 +145,7 @@ public class EventTableIndexRepository
     }
 
     public void addExplicitIndex(String indexName, EventTableCreateIndexDesc desc, EventType eventType, Iterable<EventBean> dataWindowContents, AgentInstanceContext agentInstanceContext, Object optionalSerde) {
-        Pair<IndexMultiKey, EventTableAndNamePair> pair = addExplicitIndexOrReuse(desc.isUnique(), desc.getHashProps(), desc.getBtreeProps(), dataWindowContents, eventType, indexName, agentInstanceContext, optionalSerde);
+        Pair<IndexMultiKey, EventTableAndNamePair> pair = addExplicitIndexOrReuse(desc.isUnique(), desc.getHashProps(), desc.getBtreeProps(), desc.isBitmap(), dataWindowContents, eventType, indexName, agentInstanceContext, optionalSerde);
         explicitIndexes.put(indexName, pair.getSecond().getEventTable());
     }
 
@@ -176,6 +197,26 @@ public class EventTableIndexRepository
         return new Pair<IndexMultiKey, EventTableAndNamePair>(indexPropKey, new EventTableAndNamePair(table, indexName));
     }
 
+    private Pair<IndexMultiKey, EventTableAndNamePair> addBitmapIndex(List<IndexedPropDesc> bitmapProps, Iterable<EventBean> prefilledEvents, EventType indexedType, String indexName, AgentInstanceContext agentInstanceContext, Object optionalSerde) {
+        IndexMultiKey indexPropKey = new IndexMultiKey(false, bitmapProps, Collections.<IndexedPropDesc>emptyList(), true);
+
+        String[] indexProps = IndexedPropDesc.getIndexProperties(bitmapProps.toArray(new IndexedPropDesc[bitmapProps.size()]));
+        EventTable table = EventTableUtil.buildBitmapIndex(agentInstanceContext, 0, indexProps, indexedType, indexName, optionalSerde, false);
+
+        // fill table since its new
+        EventBean[] events = new EventBean[1];
+        for (EventBean prefilledEvent : prefilledEvents)
+        {
+            events[0] = prefilledEvent;
+            table.add(events);
+        }
+
+        tables.add(table);
+        tableIndexesRefCount.put(indexPropKey, new EventTableIndexRepositoryEntry(indexName, table));
+
+        return new Pair<IndexMultiKey, EventTableAndNamePair>(indexPropKey, new EventTableAndNamePair(table, indexName));
+    }
+
     public String[] getExplicitIndexNames() {
         Set<String> names = explicitIndexes.keySet();
         return names.toArray(new String[names.size()]);
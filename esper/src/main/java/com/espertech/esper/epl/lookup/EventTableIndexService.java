@@ -27,4 +27,5 @@ public interface EventTableIndexService {
     EventTableFactory createSorted(int indexedStreamNum, EventType eventType, String indexedProp, boolean isFireAndForget);
     EventTableFactory createSortedCoerce(int indexedStreamNum, EventType eventType, String indexedProp, Class indexCoercionType, boolean isFireAndForget);
     EventTableFactory createInArray(int indexedStreamNum, EventType eventType, String[] indexedProp, boolean unique);
+    EventTableFactory createBitmap(int indexedStreamNum, EventType eventType, String[] indexProps, String optionalIndexName, Object optionalSerde, boolean isFireAndForget);
 }
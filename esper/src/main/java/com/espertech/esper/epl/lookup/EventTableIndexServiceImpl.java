@@ -62,4 +62,8 @@ public class EventTableIndexServiceImpl implements EventTableIndexService {
     public EventTableFactory createInArray(int indexedStreamNum, EventType eventType, String[] indexedProp, boolean unique) {
         return new PropertyIndexedEventTableSingleArrayFactory(0, eventType, indexedProp, unique, null);
     }
+
+    public EventTableFactory createBitmap(int indexedStreamNum, EventType eventType, String[] indexProps, String optionalIndexName, Object optionalSerde, boolean isFireAndForget) {
+        return new PropertyBitmapEventTableFactory(indexedStreamNum, eventType, indexProps, optionalIndexName);
+    }
 }
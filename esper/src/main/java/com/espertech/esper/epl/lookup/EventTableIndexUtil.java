@@ -35,6 +35,7 @@ public class EventTableIndexUtil
     {
         List<IndexedPropDesc> hashProps = new ArrayList<IndexedPropDesc>();
         List<IndexedPropDesc> btreeProps = new ArrayList<IndexedPropDesc>();
+        List<IndexedPropDesc> bitmapProps = new ArrayList<IndexedPropDesc>();
 
         Set<String> indexed = new HashSet<String>();
         for (CreateIndexItem columnDesc : columns) {
@@ -51,6 +52,8 @@ public class EventTableIndexUtil
             IndexedPropDesc desc = new IndexedPropDesc(columnName, type);
             if (columnDesc.getType() == CreateIndexType.HASH) {
                 hashProps.add(desc);
+            } else if (columnDesc.getType() == CreateIndexType.BITMAP) {
+                bitmapProps.add(desc);
             } else {
                 btreeProps.add(desc);
             }
@@ -59,6 +62,15 @@ public class EventTableIndexUtil
         if (unique && !btreeProps.isEmpty()) {
             throw new ExprValidationException("Combination of unique index with btree (range) is not supported");
         }
+        if (!bitmapProps.isEmpty()) {
+            if (unique) {
+                throw new ExprValidationException("Combination of unique index with bitmap is not supported");
+            }
+            if (!hashProps.isEmpty() || !btreeProps.isEmpty()) {
+                throw new ExprValidationException("Combination of bitmap with hash or btree columns in the same index is not supported");
+            }
+            return new EventTableCreateIndexDesc(bitmapProps, Collections.<IndexedPropDesc>emptyList(), false, true);
+        }
         return new EventTableCreateIndexDesc(hashProps, btreeProps, unique);
     }
 
@@ -180,8 +192,12 @@ public class EventTableIndexUtil
     }
 
     public static IndexMultiKey findExactMatchNameAndType(Set<IndexMultiKey> indexMultiKeys, boolean unique, List<IndexedPropDesc> hashProps, List<IndexedPropDesc> btreeProps) {
+        return findExactMatchNameAndType(indexMultiKeys, unique, hashProps, btreeProps, false);
+    }
+
+    public static IndexMultiKey findExactMatchNameAndType(Set<IndexMultiKey> indexMultiKeys, boolean unique, List<IndexedPropDesc> hashProps, List<IndexedPropDesc> btreeProps, boolean bitmap) {
         for (IndexMultiKey existing : indexMultiKeys) {
-            if (isExactMatch(existing, unique, hashProps, btreeProps)) {
+            if (isExactMatch(existing, unique, hashProps, btreeProps, bitmap)) {
                 return existing;
             }
         }
@@ -231,8 +247,26 @@ public class EventTableIndexUtil
         return false;
     }
 
-    private static boolean isExactMatch(IndexMultiKey existing, boolean unique, List<IndexedPropDesc> hashProps, List<IndexedPropDesc> btreeProps) {
-        if (existing.isUnique() != unique) {
+    /**
+     * Returns the bitmap indexes among the indexes provided.
+     * @param indexes indexes
+     * @return bitmap indexes, empty list if none
+     */
+    public static List<IndexMultiKey> findBitmapIndexes(Map<IndexMultiKey, ? extends EventTableIndexEntryBase> indexes) {
+        List<IndexMultiKey> bitmaps = null;
+        for (IndexMultiKey key : indexes.keySet()) {
+            if (key.isBitmap()) {
+                if (bitmaps == null) {
+                    bitmaps = new ArrayList<IndexMultiKey>(2);
+                }
+                bitmaps.add(key);
+            }
+        }
+        return bitmaps == null ? Collections.<IndexMultiKey>emptyList() : bitmaps;
+    }
+
+    private static boolean isExactMatch(IndexMultiKey existing, boolean unique, List<IndexedPropDesc> hashProps, List<IndexedPropDesc> btreeProps, boolean bitmap) {
+        if (existing.isUnique() != unique || existing.isBitmap() != bitmap) {
             return false;
         }
         boolean keyPropCompare = IndexedPropDesc.compare(Arrays.asList(existing.getHashIndexedProps()), hashProps);
@@ -240,6 +274,11 @@ public class EventTableIndexUtil
     }
 
     private static boolean indexMatchesProvided(IndexMultiKey indexDesc, List<IndexedPropDesc> hashPropsProvided, List<IndexedPropDesc> rangePropsProvided) {
+        // bitmap indexes answer lookups on any subset of their columns and are planned separately
+        if (indexDesc.isBitmap()) {
+            return false;
+        }
+
         IndexedPropDesc[] hashPropIndexedList = indexDesc.getHashIndexedProps();
         for (IndexedPropDesc hashPropIndexed : hashPropIndexedList) {
             boolean foundHashProp = indexHashIsProvided(hashPropIndexed, hashPropsProvided);
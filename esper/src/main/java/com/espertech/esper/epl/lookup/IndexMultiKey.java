@@ -20,11 +20,24 @@ public class IndexMultiKey {
     private final boolean unique;
     private final IndexedPropDesc[] hashIndexedProps;
     private final IndexedPropDesc[] rangeIndexedProps;
+    private final boolean bitmap;
 
     public IndexMultiKey(boolean unique, List<IndexedPropDesc> hashIndexedProps, List<IndexedPropDesc> rangeIndexedProps) {
+        this(unique, hashIndexedProps, rangeIndexedProps, false);
+    }
+
+    /**
+     * Ctor.
+     * @param unique unique indicator
+     * @param hashIndexedProps hash properties, or the bitmap-indexed properties for a bitmap index
+     * @param rangeIndexedProps btree properties
+     * @param bitmap indicator whether this is a bitmap index, which serves lookups on any subset of its hash properties
+     */
+    public IndexMultiKey(boolean unique, List<IndexedPropDesc> hashIndexedProps, List<IndexedPropDesc> rangeIndexedProps, boolean bitmap) {
         this.unique = unique;
         this.hashIndexedProps = hashIndexedProps.toArray(new IndexedPropDesc[hashIndexedProps.size()]);
         this.rangeIndexedProps = rangeIndexedProps.toArray(new IndexedPropDesc[rangeIndexedProps.size()]);
+        this.bitmap = bitmap;
     }
 
     public boolean isUnique() {
@@ -39,8 +52,18 @@ public class IndexMultiKey {
         return rangeIndexedProps;
     }
 
+    public boolean isBitmap() {
+        return bitmap;
+    }
+
     public String toQueryPlan() {
         StringWriter writer = new StringWriter();
+        if (bitmap) {
+            writer.append("bitmap={");
+            IndexedPropDesc.toQueryPlan(writer, hashIndexedProps);
+            writer.append("}");
+            return writer.toString();
+        }
         writer.append(unique ? "unique " : "non-unique ");
         writer.append("hash={");
         IndexedPropDesc.toQueryPlan(writer, hashIndexedProps);
@@ -57,6 +80,7 @@ public class IndexMultiKey {
         IndexMultiKey that = (IndexMultiKey) o;
 
         if (unique != that.unique) return false;
+        if (bitmap != that.bitmap) return false;
         if (!Arrays.equals(hashIndexedProps, that.hashIndexedProps)) return false;
         if (!Arrays.equals(rangeIndexedProps, that.rangeIndexedProps)) return false;
 
@@ -66,6 +90,7 @@ public class IndexMultiKey {
     public int hashCode() {
         int result = Arrays.hashCode(hashIndexedProps);
         result = 31 * result + Arrays.hashCode(rangeIndexedProps);
+        result = 31 * result + (bitmap ? 1 : 0);
         return result;
     }
 }
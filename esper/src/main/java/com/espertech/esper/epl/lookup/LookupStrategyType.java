@@ -22,5 +22,6 @@ public enum LookupStrategyType
     SINGLEEXPR,
     MULTIEXPR,
     INKEYWORDMULTIIDX,
-    INKEYWORDSINGLEIDX
+    INKEYWORDSINGLEIDX,
+    BITMAP
 }
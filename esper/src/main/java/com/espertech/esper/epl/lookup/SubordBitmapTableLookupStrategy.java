@@ -0,0 +1,80 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.lookup;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.expression.core.ExprEvaluator;
+import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.epl.join.table.PropertyBitmapEventTable;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Lookup strategy for on-trigger statements that evaluates the lookup values against the triggering event
+ * and answers the lookup from a bitmap index.
+ */
+public class SubordBitmapTableLookupStrategy implements SubordTableLookupStrategy
+{
+    private final int[][] columns;
+    private final ExprEvaluator[][][] evaluators;
+    private final PropertyBitmapEventTable index;
+    private final LookupStrategyDesc strategyDesc;
+
+    public SubordBitmapTableLookupStrategy(int[][] columns, ExprEvaluator[][][] evaluators, PropertyBitmapEventTable index, LookupStrategyDesc strategyDesc)
+    {
+        this.columns = columns;
+        this.evaluators = evaluators;
+        this.index = index;
+        this.strategyDesc = strategyDesc;
+    }
+
+    /**
+     * Returns index to look up in.
+     * @return index to use
+     */
+    public PropertyBitmapEventTable getIndex()
+    {
+        return index;
+    }
+
+    public Collection<EventBean> lookup(EventBean[] eventsPerStream, ExprEvaluatorContext context)
+    {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qIndexSubordLookup(this, index, null);}
+
+        Object[][][] values = new Object[evaluators.length][][];
+        for (int branch = 0; branch < evaluators.length; branch++) {
+            values[branch] = new Object[evaluators[branch].length][];
+            for (int term = 0; term < evaluators[branch].length; term++) {
+                ExprEvaluator[] termEvaluators = evaluators[branch][term];
+                Object[] termValues = new Object[termEvaluators.length];
+                for (int i = 0; i < termEvaluators.length; i++) {
+                    termValues[i] = termEvaluators[i].evaluate(eventsPerStream, true, context);
+                }
+                values[branch][term] = termValues;
+            }
+        }
+
+        Collection<EventBean> result = index.lookup(columns, values);
+        if (result.isEmpty()) {
+            result = null;
+        }
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aIndexSubordLookup(result, values);}
+        return result;
+    }
+
+    public LookupStrategyDesc getStrategyDesc() {
+        return strategyDesc;
+    }
+
+    public String toQueryPlan() {
+        return this.getClass().getSimpleName() + " columns " + Arrays.deepToString(columns);
+    }
+}
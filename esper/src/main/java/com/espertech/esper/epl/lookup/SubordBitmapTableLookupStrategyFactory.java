@@ -0,0 +1,46 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.lookup;
+
+import com.espertech.esper.epl.expression.core.ExprEvaluator;
+import com.espertech.esper.epl.join.table.EventTable;
+import com.espertech.esper.epl.join.table.PropertyBitmapEventTable;
+import com.espertech.esper.epl.virtualdw.VirtualDWView;
+
+import java.util.Arrays;
+
+/**
+ * Lookup strategy factory for on-trigger statements that use a bitmap index.
+ */
+public class SubordBitmapTableLookupStrategyFactory implements SubordTableLookupStrategyFactory
+{
+    private final int[][] columns;
+    private final ExprEvaluator[][][] evaluators;
+    private final LookupStrategyDesc strategyDesc;
+
+    /**
+     * Ctor.
+     * @param columns indexed property positions per branch
+     * @param evaluators lookup value evaluators per branch, term and value
+     * @param expressions lookup expression texts
+     */
+    public SubordBitmapTableLookupStrategyFactory(int[][] columns, ExprEvaluator[][][] evaluators, String[] expressions) {
+        this.columns = columns;
+        this.evaluators = evaluators;
+        this.strategyDesc = new LookupStrategyDesc(LookupStrategyType.BITMAP, expressions);
+    }
+
+    public SubordTableLookupStrategy makeStrategy(EventTable[] eventTable, VirtualDWView vdw) {
+        return new SubordBitmapTableLookupStrategy(columns, evaluators, (PropertyBitmapEventTable) eventTable[0], strategyDesc);
+    }
+
+    public String toQueryPlan() {
+        return this.getClass().getSimpleName() + " columns " + Arrays.deepToString(columns) + " expressions " + Arrays.toString(strategyDesc.getExpressionsTexts());
+    }
+}
@@ -52,6 +52,14 @@ public class SubordinateQueryPlanner
         SubordinateQueryPlanDesc queryPlanDesc = planSubquery(outerStreams, joinedPropPlan, true, false, optionalIndexHint, isIndexShare, subqueryNumber,
                 isVirtualDataWindow, indexMetadata, optionalUniqueKeyProps, onlyUseExistingIndexes, statementName, statementId, annotations);
 
+        // consider bitmap indexes, which answer equals and in-list predicates on any subset of their columns combined by and/or
+        if (!isVirtualDataWindow) {
+            SubordinateWMatchExprQueryPlanResult bitmapPlan = SubordinateQueryPlannerBitmap.planOnExpression(joinExpr, optionalIndexHint, subqueryNumber, indexMetadata, queryPlanDesc);
+            if (bitmapPlan != null) {
+                return bitmapPlan;
+            }
+        }
+
         if (queryPlanDesc == null) {
             return new SubordinateWMatchExprQueryPlanResult(new SubordWMatchExprLookupStrategyFactoryAllFiltered(joinExpr.getExprEvaluator()), null);
         }
@@ -0,0 +1,287 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.lookup;
+
+import com.espertech.esper.epl.expression.core.ExprEvaluator;
+import com.espertech.esper.epl.expression.core.ExprIdentNode;
+import com.espertech.esper.epl.expression.core.ExprNode;
+import com.espertech.esper.epl.expression.core.ExprNodeUtility;
+import com.espertech.esper.epl.expression.ops.ExprAndNode;
+import com.espertech.esper.epl.expression.ops.ExprEqualsNode;
+import com.espertech.esper.epl.expression.ops.ExprInNode;
+import com.espertech.esper.epl.expression.ops.ExprOrNode;
+import com.espertech.esper.epl.expression.visitor.ExprNodeStreamRequiredVisitor;
+import com.espertech.esper.epl.join.hint.IndexHint;
+import com.espertech.esper.epl.join.hint.IndexHintInstruction;
+import com.espertech.esper.epl.join.hint.IndexHintInstructionIndexName;
+import com.espertech.esper.util.CollectionUtil;
+import com.espertech.esper.util.JavaClassHelper;
+
+import java.util.*;
+
+/**
+ * Plans the use of a bitmap index for on-trigger statements.
+ * <p>
+ * The join expression is brought into disjunctive normal form, considering only equals and in-list predicates
+ * that compare a property of the indexed stream to an expression not dependent on the indexed stream.
+ * Other predicates within a conjunction are left to the post-filter.
+ * </p>
+ */
+public class SubordinateQueryPlannerBitmap
+{
+    private final static int MAX_BRANCHES = 16;
+
+    /**
+     * Returns a plan that uses a bitmap index, or null when no bitmap index applies or when the standard plan is preferable.
+     * @param joinExpr validated join expression
+     * @param optionalIndexHint index hint
+     * @param subqueryNumber subquery number for hint selection
+     * @param indexMetadata index metadata
+     * @param standardPlan plan without considering bitmap indexes, or null if none
+     * @return plan or null
+     */
+    public static SubordinateWMatchExprQueryPlanResult planOnExpression(ExprNode joinExpr,
+                                                                        IndexHint optionalIndexHint,
+                                                                        int subqueryNumber,
+                                                                        EventTableIndexMetadata indexMetadata,
+                                                                        SubordinateQueryPlanDesc standardPlan) {
+        List<IndexMultiKey> bitmaps = EventTableIndexUtil.findBitmapIndexes(indexMetadata.getIndexes());
+        if (bitmaps.isEmpty() || joinExpr == null) {
+            return null;
+        }
+
+        List<List<BitmapTerm>> branches = toBranches(joinExpr);
+        if (branches == null) {
+            return null;
+        }
+
+        // an index hint naming a bitmap index selects it, other hints take precedence over bitmap indexes
+        List<IndexHintInstruction> hintInstructions = optionalIndexHint == null ? null : optionalIndexHint.getInstructionsSubquery(subqueryNumber);
+        String hintIndexName = null;
+        if (hintInstructions != null) {
+            for (IndexHintInstruction instruction : hintInstructions) {
+                if (instruction instanceof IndexHintInstructionIndexName) {
+                    hintIndexName = ((IndexHintInstructionIndexName) instruction).getIndexName();
+                    break;
+                }
+            }
+        }
+
+        BitmapPlan best = null;
+        for (IndexMultiKey bitmap : bitmaps) {
+            String indexName = indexMetadata.getIndexes().get(bitmap).getOptionalIndexName();
+            BitmapPlan plan = planBitmap(branches, bitmap, indexName);
+            if (plan == null) {
+                continue;
+            }
+            if (hintIndexName != null && hintIndexName.equals(indexName)) {
+                return plan.toResult(joinExpr);
+            }
+            if (best == null || plan.minTermsPerBranch > best.minTermsPerBranch) {
+                best = plan;
+            }
+        }
+
+        if (best == null) {
+            return null;
+        }
+        if (standardPlan == null || standardPlan.getIndexDescs() == null) {
+            return best.toResult(joinExpr);
+        }
+        if (hintInstructions != null && !hintInstructions.isEmpty()) {
+            return null;
+        }
+
+        // prefer unique indexes and indexes that are keyed on at least as many columns
+        int numColumns = 0;
+        for (SubordinateQueryIndexDesc indexDesc : standardPlan.getIndexDescs()) {
+            IndexMultiKey found = indexDesc.getIndexMultiKey();
+            if (found.isUnique()) {
+                return null;
+            }
+            numColumns = Math.max(numColumns, found.getHashIndexedProps().length + found.getRangeIndexedProps().length);
+        }
+        if (numColumns < best.minTermsPerBranch) {
+            return best.toResult(joinExpr);
+        }
+        boolean plansNewIndex = standardPlan.getIndexDescs()[0].getIndexName() == null;
+        if ((plansNewIndex || best.columns.length > 1) && numColumns == best.minTermsPerBranch) {
+            return best.toResult(joinExpr);
+        }
+        return null;
+    }
+
+    private static BitmapPlan planBitmap(List<List<BitmapTerm>> branches, IndexMultiKey bitmap, String indexName) {
+        String[] bitmapProps = IndexedPropDesc.getIndexProperties(bitmap.getHashIndexedProps());
+        int[][] columns = new int[branches.size()][];
+        ExprEvaluator[][][] evaluators = new ExprEvaluator[branches.size()][][];
+        List<String> expressions = new ArrayList<String>();
+        int minTerms = Integer.MAX_VALUE;
+
+        for (int branch = 0; branch < branches.size(); branch++) {
+            List<Integer> branchColumns = new ArrayList<Integer>(bitmapProps.length);
+            List<ExprEvaluator[]> branchEvaluators = new ArrayList<ExprEvaluator[]>(bitmapProps.length);
+            for (BitmapTerm term : branches.get(branch)) {
+                int column = CollectionUtil.findItem(bitmapProps, term.propertyName);
+                if (column == -1) {
+                    continue;
+                }
+                ExprEvaluator[] termEvaluators = new ExprEvaluator[term.values.length];
+                for (int i = 0; i < term.values.length; i++) {
+                    termEvaluators[i] = term.values[i].getExprEvaluator();
+                    expressions.add(ExprNodeUtility.toExpressionStringMinPrecedenceSafe(term.values[i]));
+                }
+                branchColumns.add(column);
+                branchEvaluators.add(termEvaluators);
+            }
+            if (branchColumns.isEmpty()) {
+                return null;
+            }
+            columns[branch] = CollectionUtil.intArray(branchColumns);
+            evaluators[branch] = branchEvaluators.toArray(new ExprEvaluator[branchEvaluators.size()][]);
+            minTerms = Math.min(minTerms, branchColumns.size());
+        }
+
+        SubordBitmapTableLookupStrategyFactory factory = new SubordBitmapTableLookupStrategyFactory(columns, evaluators, expressions.toArray(new String[expressions.size()]));
+        return new BitmapPlan(bitmap, indexName, factory, columns, minTerms);
+    }
+
+    /**
+     * Returns the branches of the disjunctive normal form, or null if the expression cannot be expressed
+     * as bitmap lookups.
+     */
+    private static List<List<BitmapTerm>> toBranches(ExprNode node) {
+        if (node instanceof ExprAndNode) {
+            List<List<BitmapTerm>> result = Collections.singletonList(Collections.<BitmapTerm>emptyList());
+            for (ExprNode child : node.getChildNodes()) {
+                List<List<BitmapTerm>> childBranches = toBranches(child);
+                if (childBranches == null) {
+                    continue;   // left to the post-filter
+                }
+                if (result.size() * childBranches.size() > MAX_BRANCHES) {
+                    return null;
+                }
+                List<List<BitmapTerm>> product = new ArrayList<List<BitmapTerm>>(result.size() * childBranches.size());
+                for (List<BitmapTerm> left : result) {
+                    for (List<BitmapTerm> right : childBranches) {
+                        List<BitmapTerm> combined = new ArrayList<BitmapTerm>(left.size() + right.size());
+                        combined.addAll(left);
+                        combined.addAll(right);
+                        product.add(combined);
+                    }
+                }
+                result = product;
+            }
+            return result;
+        }
+
+        if (node instanceof ExprOrNode) {
+            List<List<BitmapTerm>> result = new ArrayList<List<BitmapTerm>>();
+            for (ExprNode child : node.getChildNodes()) {
+                List<List<BitmapTerm>> childBranches = toBranches(child);
+                if (childBranches == null) {
+                    return null;
+                }
+                result.addAll(childBranches);
+                if (result.size() > MAX_BRANCHES) {
+                    return null;
+                }
+            }
+            return result;
+        }
+
+        BitmapTerm term = toTerm(node);
+        if (term == null) {
+            return null;
+        }
+        List<BitmapTerm> branch = Collections.singletonList(term);
+        return Collections.singletonList(branch);
+    }
+
+    private static BitmapTerm toTerm(ExprNode node) {
+        if (node instanceof ExprEqualsNode) {
+            ExprEqualsNode equals = (ExprEqualsNode) node;
+            if (equals.isNotEquals() || equals.isIs()) {
+                return null;
+            }
+            BitmapTerm term = toTerm(equals.getChildNodes()[0], equals.getChildNodes()[1]);
+            if (term != null) {
+                return term;
+            }
+            return toTerm(equals.getChildNodes()[1], equals.getChildNodes()[0]);
+        }
+
+        if (node instanceof ExprInNode) {
+            ExprInNode in = (ExprInNode) node;
+            if (in.isNotIn()) {
+                return null;
+            }
+            ExprNode[] values = Arrays.copyOfRange(in.getChildNodes(), 1, in.getChildNodes().length);
+            for (ExprNode value : values) {
+                Class type = value.getExprEvaluator().getType();
+                if (type == null || type == Object.class || type.isArray() || JavaClassHelper.isImplementsInterface(type, Collection.class) || JavaClassHelper.isImplementsInterface(type, Map.class)) {
+                    return null;
+                }
+            }
+            return toTerm(in.getChildNodes()[0], values);
+        }
+        return null;
+    }
+
+    private static BitmapTerm toTerm(ExprNode indexed, ExprNode... values) {
+        if (!(indexed instanceof ExprIdentNode)) {
+            return null;
+        }
+        ExprIdentNode identNode = (ExprIdentNode) indexed;
+        if (identNode.getStreamId() != 0) {
+            return null;
+        }
+        ExprNodeStreamRequiredVisitor visitor = new ExprNodeStreamRequiredVisitor();
+        for (ExprNode value : values) {
+            value.accept(visitor);
+        }
+        if (visitor.getStreamsRequired().contains(0)) {
+            return null;
+        }
+        return new BitmapTerm(identNode.getResolvedPropertyName(), values);
+    }
+
+    private static class BitmapTerm {
+        private final String propertyName;
+        private final ExprNode[] values;
+
+        private BitmapTerm(String propertyName, ExprNode[] values) {
+            this.propertyName = propertyName;
+            this.values = values;
+        }
+    }
+
+    private static class BitmapPlan {
+        private final IndexMultiKey indexMultiKey;
+        private final String indexName;
+        private final SubordBitmapTableLookupStrategyFactory factory;
+        private final int[][] columns;
+        private final int minTermsPerBranch;
+
+        private BitmapPlan(IndexMultiKey indexMultiKey, String indexName, SubordBitmapTableLookupStrategyFactory factory, int[][] columns, int minTermsPerBranch) {
+            this.indexMultiKey = indexMultiKey;
+            this.indexName = indexName;
+            this.factory = factory;
+            this.columns = columns;
+            this.minTermsPerBranch = minTermsPerBranch;
+        }
+
+        private SubordinateWMatchExprQueryPlanResult toResult(ExprNode joinExpr) {
+            SubordinateQueryIndexDesc indexDesc = new SubordinateQueryIndexDesc(null, indexName, indexMultiKey, null);
+            return new SubordinateWMatchExprQueryPlanResult(
+                    new SubordWMatchExprLookupStrategyFactoryIndexedFiltered(joinExpr.getExprEvaluator(), factory),
+                    new SubordinateQueryIndexDesc[] {indexDesc});
+        }
+    }
+}
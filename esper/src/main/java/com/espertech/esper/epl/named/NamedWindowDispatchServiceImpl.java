@@ -17,6 +17,7 @@ import com.espertech.esper.core.context.util.EPStatementAgentInstanceHandle;
 import com.espertech.esper.core.service.ExceptionHandlingService;
 import com.espertech.esper.core.service.StatementContext;
 import com.espertech.esper.core.service.StatementResultService;
+import com.espertech.esper.core.thread.ThreadingService;
 import com.espertech.esper.epl.metric.MetricReportingPath;
 import com.espertech.esper.epl.metric.MetricReportingService;
 import com.espertech.esper.epl.table.mgmt.TableService;
@@ -43,6 +44,7 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
     private final boolean isPrioritized;
     private final ManagedReadWriteLock eventProcessingRWLock;
     private final MetricReportingService metricReportingService;
+    private final ThreadingService threadingService;
 
     private ThreadLocal<List<NamedWindowConsumerLatch>> threadLocal = new ThreadLocal<List<NamedWindowConsumerLatch>>()
     {
@@ -60,13 +62,16 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
         }
     };
 
+    private ThreadLocal<NamedWindowConsumerDispatchUnit[]> parallelUnitsTL = new ThreadLocal<NamedWindowConsumerDispatchUnit[]>();
+
     public NamedWindowDispatchServiceImpl(SchedulingService schedulingService,
                                           VariableService variableService,
                                           TableService tableService,
                                           boolean isPrioritized,
                                           ManagedReadWriteLock eventProcessingRWLock,
                                           ExceptionHandlingService exceptionHandlingService,
-                                          MetricReportingService metricReportingService)
+                                          MetricReportingService metricReportingService,
+                                          ThreadingService threadingService)
     {
         this.schedulingService = schedulingService;
         this.variableService = variableService;
@@ -75,6 +80,7 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
         this.eventProcessingRWLock = eventProcessingRWLock;
         this.exceptionHandlingService = exceptionHandlingService;
         this.metricReportingService = metricReportingService;
+        this.threadingService = threadingService;
     }
 
     public NamedWindowProcessor createProcessor(String name, NamedWindowMgmtServiceImpl namedWindowMgmtService, NamedWindowDispatchService namedWindowDispatchService, String contextName, EventType eventType, StatementResultService statementResultService, ValueAddEventProcessor revisionProcessor, String eplExpression, String statementName, boolean isPrioritized, boolean isEnableSubqueryIndexShare, boolean enableQueryPlanLog, MetricReportingService metricReportingService, boolean isBatchingDataWindow, boolean isVirtualDataWindow, Set<String> optionalUniqueKeyProps, String eventTypeAsName, StatementContext statementContextCreateWindow) {
@@ -89,6 +95,7 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
     {
         threadLocal.remove();
         dispatchesPerStmtTL.remove();
+        parallelUnitsTL.remove();
     }
 
     public void addDispatch(NamedWindowConsumerLatchFactory latchFactory, NamedWindowDeltaData delta, Map<EPStatementAgentInstanceHandle, List<NamedWindowConsumerView>> consumers)
@@ -110,11 +117,12 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
             // Acquire main processing lock which locks out statement management
             if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qNamedWindowDispatch(exceptionHandlingService.getEngineURI());}
             eventProcessingRWLock.acquireReadLock();
+            Runnable[] parallelUnits;
             try
             {
                 NamedWindowConsumerLatch[] units = dispatches.toArray(new NamedWindowConsumerLatch[dispatches.size()]);
                 dispatches.clear();
-                processDispatches(units);
+                parallelUnits = processDispatches(units);
             }
             catch (RuntimeException ex)
             {
@@ -125,18 +133,26 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
                 eventProcessingRWLock.releaseReadLock();
                 if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aNamedWindowDispatch();}
             }
+
+            // statement results of consumers processed in parallel are held by the consumer threads and dispatched by the same threads
+            if (parallelUnits != null) {
+                threadingService.dispatchNamedWindowConsumerResults(parallelUnits);
+            }
         }
 
         return true;
     }
 
-    private void processDispatches(NamedWindowConsumerLatch[] dispatches) {
+    private Runnable[] processDispatches(NamedWindowConsumerLatch[] dispatches) {
 
         if (dispatches.length == 1)
         {
             NamedWindowConsumerLatch latch = dispatches[0];
             try {
                 latch.await();
+                if (isParallel(latch.getDispatchTo().size())) {
+                    return processParallel(getParallelUnits(latch.getDispatchTo()), latch.getDeltaData());
+                }
                 EventBean[] newData = latch.getDeltaData().getNewData();
                 EventBean[] oldData = latch.getDeltaData().getOldData();
 
@@ -177,7 +193,7 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
                 latch.done();
             }
 
-            return;
+            return null;
         }
 
         // Multiple different-result dispatches to same or different statements are needed in two situations:
@@ -216,6 +232,10 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
         }
 
         try {
+            if (isParallel(dispatchesPerStmt.size())) {
+                return processParallel(getParallelUnits(dispatchesPerStmt), null);
+            }
+
             // Dispatch - with or without metrics reporting
             if (MetricReportingPath.isMetricsEnabled) {
                 for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : dispatchesPerStmt.entrySet()) {
@@ -310,9 +330,119 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
             for (NamedWindowConsumerLatch latch : dispatches) {
                 latch.done();
             }
+            dispatchesPerStmt.clear();
         }
 
-        dispatchesPerStmt.clear();
+        return null;
+    }
+
+    private boolean isParallel(int numHandles) {
+        return numHandles > 1 && !isPrioritized && threadingService.isNamedWindowConsumerThreading() && !threadingService.isNamedWindowConsumerThread();
+    }
+
+    private Runnable[] processParallel(NamedWindowConsumerDispatchUnit[] units, NamedWindowDeltaData deltaData) {
+        for (NamedWindowConsumerDispatchUnit unit : units) {
+            if (unit != null) {
+                unit.deltaData = deltaData;
+            }
+        }
+        boolean completed = false;
+        try {
+            threadingService.executeNamedWindowConsumer(units);
+            completed = true;
+        }
+        finally {
+            // hand over the named window dispatches that the consumers produced, such as for consumers that are named windows themselves
+            List<NamedWindowConsumerLatch> dispatches = threadLocal.get();
+            for (NamedWindowConsumerDispatchUnit unit : units) {
+                if (unit == null) {
+                    continue;
+                }
+                if (unit.producedDispatches != null) {
+                    if (completed) {
+                        Collections.addAll(dispatches, unit.producedDispatches);
+                    }
+                    else {
+                        // release the latches of dispatches that are dropped so that later dispatches do not wait for them
+                        for (NamedWindowConsumerLatch latch : unit.producedDispatches) {
+                            latch.done();
+                        }
+                    }
+                }
+                unit.deltaData = null;
+                unit.producedDispatches = null;
+            }
+            if (!completed) {
+                parallelUnitsTL.remove();
+            }
+        }
+        return units;
+    }
+
+    private NamedWindowConsumerDispatchUnit[] getParallelUnits(Map<EPStatementAgentInstanceHandle, ?> dispatchTo) {
+        // consumer maps are copy-on-write, therefore while consumers don't change the last partitioning can be reused as-is
+        NamedWindowConsumerDispatchUnit[] units = parallelUnitsTL.get();
+        if (units != null && units[0].dispatchTo == dispatchTo) {
+            return units;
+        }
+
+        int numThreads = Math.min(threadingService.getNamedWindowConsumerNumThreads(), dispatchTo.size());
+        units = new NamedWindowConsumerDispatchUnit[threadingService.getNamedWindowConsumerNumThreads()];
+        for (int i = 0; i < numThreads; i++) {
+            int count = dispatchTo.size() / numThreads + (i < dispatchTo.size() % numThreads ? 1 : 0);
+            units[i] = new NamedWindowConsumerDispatchUnit(dispatchTo, count);
+        }
+        int index = 0;
+        for (Map.Entry<EPStatementAgentInstanceHandle, ?> entry : dispatchTo.entrySet()) {
+            NamedWindowConsumerDispatchUnit unit = units[index % numThreads];
+            unit.handles[index / numThreads] = entry.getKey();
+            unit.work[index / numThreads] = entry.getValue();
+            index++;
+        }
+
+        // only the consumer maps of named windows are stable, per-statement dispatches are specific to a single dispatch
+        if (dispatchTo != dispatchesPerStmtTL.get()) {
+            parallelUnitsTL.set(units);
+        }
+        return units;
+    }
+
+    private void processHandleMetered(EPStatementAgentInstanceHandle handle, NamedWindowDeltaData deltaData, Object work) {
+        if (MetricReportingPath.isMetricsEnabled && handle.getStatementHandle().getMetricsHandle().isEnabled()) {
+            long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
+            long wallTimeBefore = MetricUtil.getWall();
+
+            processHandleWork(handle, deltaData, work);
+
+            long wallTimeAfter = MetricUtil.getWall();
+            long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
+            long deltaCPU = cpuTimeAfter - cpuTimeBefore;
+            long deltaWall = wallTimeAfter - wallTimeBefore;
+            metricReportingService.accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, 1);
+        } else {
+            processHandleWork(handle, deltaData, work);
+        }
+    }
+
+    private void processHandleWork(EPStatementAgentInstanceHandle handle, NamedWindowDeltaData deltaData, Object work) {
+        // dispatch of a single delta to the consumer views of the statement
+        if (deltaData != null) {
+            processHandle(handle, (List<NamedWindowConsumerView>) work, deltaData.getNewData(), deltaData.getOldData());
+            return;
+        }
+
+        // dispatch of a single result to the statement
+        if (work instanceof NamedWindowConsumerLatch) {
+            NamedWindowConsumerLatch unit = (NamedWindowConsumerLatch) work;
+            List<NamedWindowConsumerView> items = unit.getDispatchTo().get(handle);
+            if (items != null) {
+                processHandle(handle, items, unit.getDeltaData().getNewData(), unit.getDeltaData().getOldData());
+            }
+            return;
+        }
+
+        // dispatch of multiple results to a the same statement, need to aggregate per consumer view
+        processHandleMultiple(handle, getDeltaPerConsumer(work, handle));
     }
 
     private void processHandleMultiple(EPStatementAgentInstanceHandle handle, Map<NamedWindowConsumerView, NamedWindowDeltaData> deltaPerConsumer) {
@@ -399,4 +529,36 @@ public class NamedWindowDispatchServiceImpl implements NamedWindowDispatchServic
         }
         return deltaPerConsumer;
     }
+
+    /**
+     * Consumer statements that a single named window consumer thread processes for a dispatch.
+     */
+    private class NamedWindowConsumerDispatchUnit implements Runnable {
+        private final Map<EPStatementAgentInstanceHandle, ?> dispatchTo;
+        private final EPStatementAgentInstanceHandle[] handles;
+        private final Object[] work;
+        private NamedWindowDeltaData deltaData;
+        private NamedWindowConsumerLatch[] producedDispatches;
+
+        private NamedWindowConsumerDispatchUnit(Map<EPStatementAgentInstanceHandle, ?> dispatchTo, int numHandles) {
+            this.dispatchTo = dispatchTo;
+            this.handles = new EPStatementAgentInstanceHandle[numHandles];
+            this.work = new Object[numHandles];
+        }
+
+        public void run() {
+            try {
+                for (int i = 0; i < handles.length; i++) {
+                    processHandleMetered(handles[i], deltaData, work[i]);
+                }
+            }
+            finally {
+                List<NamedWindowConsumerLatch> produced = threadLocal.get();
+                if (!produced.isEmpty()) {
+                    producedDispatches = produced.toArray(new NamedWindowConsumerLatch[produced.size()]);
+                    produced.clear();
+                }
+            }
+        }
+    }
 }
@@ -65,6 +65,14 @@ public abstract class NamedWindowOnExprBaseView extends ViewSupport
         handleMatching(newData, eventsFound);
     }
 
+    /**
+     * Returns the strategy for looking up matching events.
+     * @return lookup strategy
+     */
+    public SubordWMatchExprLookupStrategy getLookupStrategy() {
+        return lookupStrategy;
+    }
+
     /**
      * returns expr context.
      * @return context
@@ -19,6 +19,8 @@ import com.espertech.esper.epl.spec.OnTriggerType;
 import com.espertech.esper.event.EventBeanUtility;
 import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -35,12 +37,92 @@ public class NamedWindowOnMergeView extends NamedWindowOnExprBaseView
         this.parent = parent;
     }
 
+    public void update(EventBean[] newData, EventBean[] oldData)
+    {
+        if (newData == null || newData.length < 2 || !parent.isBatch()) {
+            super.update(newData, oldData);
+            return;
+        }
+        handleBatch(newData);
+    }
+
     public void handleMatching(EventBean[] triggerEvents, EventBean[] matchingEvents)
     {
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qInfraOnAction(OnTriggerType.ON_MERGE, triggerEvents, matchingEvents);}
 
         OneEventCollection newData = new OneEventCollection();
         OneEventCollection oldData = null;
+        if ((matchingEvents != null) && (matchingEvents.length != 0)) {
+            oldData = new OneEventCollection();
+        }
+        applyWhenThen(triggerEvents, matchingEvents, newData, oldData);
+
+        if (!newData.isEmpty() || (oldData != null && !oldData.isEmpty()))
+        {
+            accountInserted(newData);
+            EventBean[] eventsPerStreamNew = newData.isEmpty() ? null : newData.toArray();
+            EventBean[] eventsPerStreamOld = (oldData == null || oldData.isEmpty()) ? null : oldData.toArray();
+            applyToWindow(eventsPerStreamNew, eventsPerStreamOld);
+            postResult(eventsPerStreamNew, eventsPerStreamOld);
+        }
+
+        // Keep the last delete records
+        lastResult = matchingEvents;
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aInfraOnAction();}
+    }
+
+    /**
+     * Processes a batch of triggering events: each triggering event is looked up and applied against the named window
+     * as changed by the triggering events before it, while the named window dispatches the net changes of the batch to its
+     * consumers as a single delta and the statement posts a single result.
+     * @param triggerEvents triggering events
+     */
+    private void handleBatch(EventBean[] triggerEvents)
+    {
+        OneEventCollection batchNewData = new OneEventCollection();
+        OneEventCollection batchOldData = new OneEventCollection();
+        OneEventCollection newData = new OneEventCollection();
+        OneEventCollection oldData = new OneEventCollection();
+        EventBean[] triggerEvent = new EventBean[1];
+        List<EventBean> matchingAll = new ArrayList<EventBean>();
+
+        NamedWindowTailViewInstance tailViewInstance = rootView.getTailViewInstance();
+        tailViewInstance.deferDispatch();
+        try {
+            for (EventBean trigger : triggerEvents) {
+                triggerEvent[0] = trigger;
+                EventBean[] matchingEvents = getLookupStrategy().lookup(triggerEvent, super.getExprEvaluatorContext());
+                if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qInfraOnAction(OnTriggerType.ON_MERGE, triggerEvent, matchingEvents);}
+
+                boolean matched = (matchingEvents != null) && (matchingEvents.length != 0);
+                applyWhenThen(triggerEvent, matchingEvents, newData, matched ? oldData : null);
+                if (matched) {
+                    Collections.addAll(matchingAll, matchingEvents);
+                }
+
+                if (!newData.isEmpty() || !oldData.isEmpty()) {
+                    applyToWindow(newData.isEmpty() ? null : newData.toArray(), oldData.isEmpty() ? null : oldData.toArray());
+                    addAll(batchNewData, newData);
+                    addAll(batchOldData, oldData);
+                    newData = new OneEventCollection();
+                    oldData = new OneEventCollection();
+                }
+                if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aInfraOnAction();}
+            }
+        }
+        finally {
+            tailViewInstance.dispatchDeferred();
+        }
+
+        if (!batchNewData.isEmpty() || !batchOldData.isEmpty()) {
+            accountInserted(batchNewData);
+            postResult(batchNewData.isEmpty() ? null : batchNewData.toArray(), batchOldData.isEmpty() ? null : batchOldData.toArray());
+        }
+        lastResult = matchingAll.isEmpty() ? null : matchingAll.toArray(new EventBean[matchingAll.size()]);
+    }
+
+    private void applyWhenThen(EventBean[] triggerEvents, EventBean[] matchingEvents, OneEventCollection newData, OneEventCollection oldData)
+    {
         EventBean[] eventsPerStream = new EventBean[3]; // first:named window, second: trigger, third:before-update (optional)
 
         if ((matchingEvents == null) || (matchingEvents.length == 0)){
@@ -72,8 +154,6 @@ public class NamedWindowOnMergeView extends NamedWindowOnExprBaseView
         else {
 
             // handle update/
-            oldData = new OneEventCollection();
-
             List<NamedWindowOnMergeMatch> matched = parent.getNamedWindowOnMergeHelper().getMatched();
 
             for (EventBean triggerEvent : triggerEvents) {
@@ -100,37 +180,43 @@ public class NamedWindowOnMergeView extends NamedWindowOnExprBaseView
 
                 if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aInfraMergeWhenThens(true);}
             }
-
         }
+    }
 
-        if (!newData.isEmpty() || (oldData != null && !oldData.isEmpty()))
+    private void accountInserted(OneEventCollection newData)
+    {
+        if ((MetricReportingPath.isMetricsEnabled) && (parent.getCreateNamedWindowMetricHandle().isEnabled()) && !newData.isEmpty())
         {
-            if ((MetricReportingPath.isMetricsEnabled) && (parent.getCreateNamedWindowMetricHandle().isEnabled()) && !newData.isEmpty())
-            {
-                parent.getMetricReportingService().accountTime(parent.getCreateNamedWindowMetricHandle(), 0, 0, newData.toArray().length);
-            }
+            parent.getMetricReportingService().accountTime(parent.getCreateNamedWindowMetricHandle(), 0, 0, newData.toArray().length);
+        }
+    }
 
-            // Events to delete are indicated via old data
-            // The on-merge listeners receive the events deleted, but only if there is interest
-            if (parent.getStatementResultService().isMakeNatural()) {
-                EventBean[] eventsPerStreamNaturalNew = newData.isEmpty() ? null : newData.toArray();
-                EventBean[] eventsPerStreamNaturalOld = (oldData == null || oldData.isEmpty()) ? null : oldData.toArray();
-                this.rootView.update(EventBeanUtility.denaturalize(eventsPerStreamNaturalNew), EventBeanUtility.denaturalize(eventsPerStreamNaturalOld));
-                updateChildren(eventsPerStreamNaturalNew, eventsPerStreamNaturalOld);
-            }
-            else {
-                EventBean[] eventsPerStreamNew = newData.isEmpty() ? null : newData.toArray();
-                EventBean[] eventsPerStreamOld = (oldData == null || oldData.isEmpty()) ? null : oldData.toArray();
-                this.rootView.update(eventsPerStreamNew, eventsPerStreamOld);
-                if (parent.getStatementResultService().isMakeSynthetic()) {
-                    updateChildren(eventsPerStreamNew, eventsPerStreamOld);
-                }
-            }
+    private void applyToWindow(EventBean[] newData, EventBean[] oldData)
+    {
+        // Events to delete are indicated via old data
+        if (parent.getStatementResultService().isMakeNatural()) {
+            this.rootView.update(EventBeanUtility.denaturalize(newData), EventBeanUtility.denaturalize(oldData));
         }
+        else {
+            this.rootView.update(newData, oldData);
+        }
+    }
 
-        // Keep the last delete records
-        lastResult = matchingEvents;
-        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aInfraOnAction();}
+    private void postResult(EventBean[] newData, EventBean[] oldData)
+    {
+        // The on-merge listeners receive the events deleted, but only if there is interest
+        if (parent.getStatementResultService().isMakeNatural() || parent.getStatementResultService().isMakeSynthetic()) {
+            updateChildren(newData, oldData);
+        }
+    }
+
+    private static void addAll(OneEventCollection target, OneEventCollection source)
+    {
+        if (!source.isEmpty()) {
+            for (EventBean theEvent : source.toArray()) {
+                target.add(theEvent);
+            }
+        }
     }
 
     public EventType getEventType()
@@ -25,13 +25,15 @@ public class NamedWindowOnMergeViewFactory extends NamedWindowOnExprBaseViewFact
     private final StatementResultService statementResultService;
     private final StatementMetricHandle createNamedWindowMetricHandle;
     private final MetricReportingService metricReportingService;
+    private final boolean batch;
 
-    public NamedWindowOnMergeViewFactory(EventType namedWindowEventType, NamedWindowOnMergeHelper namedWindowOnMergeHelper, StatementResultService statementResultService, StatementMetricHandle createNamedWindowMetricHandle, MetricReportingService metricReportingService) {
+    public NamedWindowOnMergeViewFactory(EventType namedWindowEventType, NamedWindowOnMergeHelper namedWindowOnMergeHelper, StatementResultService statementResultService, StatementMetricHandle createNamedWindowMetricHandle, MetricReportingService metricReportingService, boolean batch) {
         super(namedWindowEventType);
         this.namedWindowOnMergeHelper = namedWindowOnMergeHelper;
         this.statementResultService = statementResultService;
         this.createNamedWindowMetricHandle = createNamedWindowMetricHandle;
         this.metricReportingService = metricReportingService;
+        this.batch = batch;
     }
 
     public NamedWindowOnExprBaseView make(SubordWMatchExprLookupStrategy lookupStrategy, NamedWindowRootViewInstance namedWindowRootViewInstance, AgentInstanceContext agentInstanceContext, ResultSetProcessor resultSetProcessor) {
@@ -53,4 +55,8 @@ public class NamedWindowOnMergeViewFactory extends NamedWindowOnExprBaseViewFact
     public MetricReportingService getMetricReportingService() {
         return metricReportingService;
     }
+
+    public boolean isBatch() {
+        return batch;
+    }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ public class NamedWindowProcessorInstance
         rootViewInstance = new NamedWindowRootViewInstance(processor.getRootView(), agentInstanceContext, processor.getEventTableIndexMetadataRepo());
         tailViewInstance = new NamedWindowTailViewInstance(rootViewInstance, processor.getTailView(), processor, agentInstanceContext);
         rootViewInstance.setDataWindowContents(tailViewInstance);   // for iteration used for delete without index
+        rootViewInstance.setTailViewInstance(tailViewInstance);
     }
 
     public NamedWindowTailViewInstance getTailViewInstance() {
@@ -41,6 +41,7 @@ public class NamedWindowRootViewInstance extends ViewSupport
     private final Map<SubordWMatchExprLookupStrategy, EventTable[]> tablePerMultiLookup;
 
     private Iterable<EventBean> dataWindowContents;
+    private NamedWindowTailViewInstance tailViewInstance;
 
     public NamedWindowRootViewInstance(NamedWindowRootView rootView, AgentInstanceContext agentInstanceContext, EventTableIndexMetadata eventTableIndexMetadata) {
         this.rootView = rootView;
@@ -73,6 +74,18 @@ public class NamedWindowRootViewInstance extends ViewSupport
         return dataWindowContents;
     }
 
+    public NamedWindowTailViewInstance getTailViewInstance() {
+        return tailViewInstance;
+    }
+
+    /**
+     * Sets the tail view of the named window.
+     * @param tailViewInstance tail view
+     */
+    public void setTailViewInstance(NamedWindowTailViewInstance tailViewInstance) {
+        this.tailViewInstance = tailViewInstance;
+    }
+
     /**
      * Sets the iterator to use to obtain current named window data window contents.
      * @param dataWindowContents iterator over events help by named window
@@ -217,6 +230,20 @@ public class NamedWindowRootViewInstance extends ViewSupport
         }
     }
 
+    /**
+     * Posts restored events to the data window and populates the indexes from the resulting data window contents.
+     * @param events to restore
+     */
+    public void restore(EventBean[] events) {
+        updateChildren(events, null);
+
+        List<EventBean> contents = new ArrayList<EventBean>(events.length);
+        for (EventBean event : dataWindowContents) {
+            contents.add(event);
+        }
+        EventTableUtil.populateParallel(indexRepository.getTables(), contents.toArray(new EventBean[contents.size()]), agentInstanceContext.getStatementContext().getEngineURI());
+    }
+
     public void visitIndexes(StatementAgentInstancePostLoadIndexVisitor visitor) {
         visitor.visit(indexRepository.getTables());
     }
@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.epl.named;
 
+import com.espertech.esper.client.EPException;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.annotation.AuditEnum;
@@ -43,6 +44,9 @@ public class NamedWindowTailViewInstance extends ViewSupport implements Iterable
 
     private volatile Map<EPStatementAgentInstanceHandle, List<NamedWindowConsumerView>> consumersInContext;  // handles as copy-on-write
     private volatile long numberOfEvents;
+    private boolean isRestoring;
+    private ArrayDeque<EventBean> deferredNewData;  // non-null while dispatch is deferred
+    private ArrayDeque<EventBean> deferredOldData;
 
     public NamedWindowTailViewInstance(NamedWindowRootViewInstance rootViewInstance, NamedWindowTailView tailView, NamedWindowProcessor namedWindowProcessor, AgentInstanceContext agentInstanceContext) {
         this.rootViewInstance = rootViewInstance;
@@ -55,6 +59,12 @@ public class NamedWindowTailViewInstance extends ViewSupport implements Iterable
 
     public void update(EventBean[] newData, EventBean[] oldData)
     {
+        // When restoring from a snapshot, indexes are populated after the fact and nothing is dispatched
+        if (isRestoring) {
+            numberOfEvents += (newData == null ? 0 : newData.length) - (oldData == null ? 0 : oldData.length);
+            return;
+        }
+
         // Only old data (remove stream) needs to be removed from indexes (kept by root view), if any
         if (oldData != null)
         {
@@ -71,6 +81,16 @@ public class NamedWindowTailViewInstance extends ViewSupport implements Iterable
             numberOfEvents += newData.length;
         }
 
+        if (deferredNewData != null) {
+            if (newData != null) {
+                Collections.addAll(deferredNewData, newData);
+            }
+            if (oldData != null) {
+                Collections.addAll(deferredOldData, oldData);
+            }
+            return;
+        }
+
         // Post to child views, only if there are listeners or subscribers
         if (tailView.getStatementResultService().isMakeNatural() || tailView.getStatementResultService().isMakeSynthetic())
         {
@@ -81,6 +101,60 @@ public class NamedWindowTailViewInstance extends ViewSupport implements Iterable
         tailView.addDispatches(latchFactory, consumersInContext, delta, agentInstanceContext);
     }
 
+    /**
+     * Starts deferring the dispatch of insert and remove stream results, so that a batch of changes
+     * is dispatched to consumers as a single delta. Indexes and the event count are maintained as usual.
+     */
+    public void deferDispatch()
+    {
+        deferredNewData = new ArrayDeque<EventBean>();
+        deferredOldData = new ArrayDeque<EventBean>();
+    }
+
+    /**
+     * Stops deferring and dispatches the changes collected since {@link #deferDispatch()} as a single delta.
+     * <p>
+     * Events that were inserted and removed again while deferring are not dispatched.
+     * </p>
+     */
+    public void dispatchDeferred()
+    {
+        if (deferredNewData == null) {
+            return;
+        }
+        ArrayDeque<EventBean> newEvents = deferredNewData;
+        ArrayDeque<EventBean> oldEvents = deferredOldData;
+        deferredNewData = null;
+        deferredOldData = null;
+
+        Set<EventBean> inserted = Collections.newSetFromMap(new IdentityHashMap<EventBean, Boolean>());
+        inserted.addAll(newEvents);
+        List<EventBean> netOld = new ArrayList<EventBean>(oldEvents.size());
+        for (EventBean oldEvent : oldEvents) {
+            if (!inserted.remove(oldEvent)) {
+                netOld.add(oldEvent);
+            }
+        }
+        List<EventBean> netNew = new ArrayList<EventBean>(inserted.size());
+        for (EventBean newEvent : newEvents) {
+            if (inserted.contains(newEvent)) {
+                netNew.add(newEvent);
+            }
+        }
+        if (netNew.isEmpty() && netOld.isEmpty()) {
+            return;
+        }
+
+        EventBean[] newData = netNew.isEmpty() ? null : netNew.toArray(new EventBean[netNew.size()]);
+        EventBean[] oldData = netOld.isEmpty() ? null : netOld.toArray(new EventBean[netOld.size()]);
+        if (tailView.getStatementResultService().isMakeNatural() || tailView.getStatementResultService().isMakeSynthetic())
+        {
+            updateChildren(newData, oldData);
+        }
+        NamedWindowDeltaData delta = new NamedWindowDeltaData(newData, oldData);
+        tailView.addDispatches(latchFactory, consumersInContext, delta, agentInstanceContext);
+    }
+
     public NamedWindowConsumerView addConsumer(NamedWindowConsumerDesc consumerDesc, boolean isSubselect)
     {
         NamedWindowConsumerCallback consumerCallback = new NamedWindowConsumerCallback() {
@@ -325,6 +399,36 @@ public class NamedWindowTailViewInstance extends ViewSupport implements Iterable
         return list;
     }
 
+    /**
+     * Restores events, typically read from a snapshot, into the window: the events are posted to the data window
+     * and the indexes are then populated from the data window contents.
+     * Consumers and listeners are not notified of the restored events.
+     * @param events to restore
+     */
+    public void restore(EventBean[] events)
+    {
+        if (tailView.getRevisionProcessor() != null || rootViewInstance.isVirtualDataWindow()) {
+            throw new EPException("Restore is not supported for revision or virtual data windows");
+        }
+        if (!consumersInContext.isEmpty() || !tailView.getConsumersNonContext().isEmpty()) {
+            throw new EPException("Restore requires that the named window has no consuming statements");
+        }
+
+        agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementAgentInstanceLock().acquireWriteLock();
+        try {
+            isRestoring = true;
+            try {
+                rootViewInstance.restore(events);
+            }
+            finally {
+                isRestoring = false;
+            }
+        }
+        finally {
+            agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementAgentInstanceLock().releaseWriteLock();
+        }
+    }
+
     public AgentInstanceContext getAgentInstanceContext() {
         return agentInstanceContext;
     }
@@ -0,0 +1,106 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.snapshot;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.named.NamedWindowProcessor;
+import com.espertech.esper.epl.named.NamedWindowProcessorInstance;
+import com.espertech.esper.event.EventAdapterService;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Writes the events held by a named window to a snapshot file and restores them from a snapshot file.
+ * <p>
+ * Restored events are posted to the named window's data window directly and the indexes are rebuilt
+ * from the data window contents, without executing insert-into statements and without dispatching to consumers.
+ * </p>
+ */
+public class NamedWindowSnapshot
+{
+    /**
+     * Writes the named window contents to the file.
+     * @param processor named window
+     * @param file to write
+     * @param eventAdapterService event adapters
+     * @return number of events written
+     */
+    public static int write(NamedWindowProcessor processor, File file, EventAdapterService eventAdapterService) {
+        NamedWindowProcessorInstance instance = getInstance(processor);
+        SnapshotEventCodec codec = new SnapshotEventCodec(processor.getNamedWindowType(), eventAdapterService);
+        Collection<EventBean> events = instance.getTailViewInstance().snapshot(null, processor.getStatementContextCreateWindow().getAnnotations());
+
+        try {
+            DataOutputStream stream = SnapshotFile.openWrite(file);
+            try {
+                SnapshotFile.writeHeader(stream, SnapshotFile.KIND_NAMED_WINDOW, processor.getNamedWindowName(), codec.getColumnNames(), codec.getColumnTypes(), events.size());
+                for (EventBean event : events) {
+                    codec.write(event, stream);
+                }
+            }
+            finally {
+                stream.close();
+            }
+            SnapshotFile.commitWrite(file);
+        }
+        catch (IOException ex) {
+            SnapshotFile.abortWrite(file);
+            throw new EPException("Failed to write snapshot of named window '" + processor.getNamedWindowName() + "' to file '" + file + "': " + ex.getMessage(), ex);
+        }
+        return events.size();
+    }
+
+    /**
+     * Restores the named window contents from the file.
+     * @param processor named window
+     * @param file to read
+     * @param eventAdapterService event adapters
+     * @return number of events read
+     */
+    public static int restore(NamedWindowProcessor processor, File file, EventAdapterService eventAdapterService) {
+        NamedWindowProcessorInstance instance = getInstance(processor);
+        SnapshotEventCodec codec = new SnapshotEventCodec(processor.getNamedWindowType(), eventAdapterService);
+
+        EventBean[] events;
+        try {
+            DataInputStream stream = SnapshotFile.openRead(file);
+            try {
+                int numEvents = SnapshotFile.readHeader(stream, file, SnapshotFile.KIND_NAMED_WINDOW, processor.getNamedWindowName(), codec.getColumnNames(), codec.getColumnTypes());
+                events = new EventBean[numEvents];
+                for (int i = 0; i < numEvents; i++) {
+                    events[i] = codec.read(stream);
+                }
+            }
+            finally {
+                stream.close();
+            }
+        }
+        catch (IOException ex) {
+            throw new EPException("Failed to read snapshot of named window '" + processor.getNamedWindowName() + "' from file '" + file + "': " + ex.getMessage(), ex);
+        }
+
+        instance.getTailViewInstance().restore(events);
+        return events.length;
+    }
+
+    private static NamedWindowProcessorInstance getInstance(NamedWindowProcessor processor) {
+        if (processor.getContextName() != null) {
+            throw new EPException("Snapshot is not supported for named window '" + processor.getNamedWindowName() + "' as it is declared with a context");
+        }
+        if (processor.isVirtualDataWindow() || processor.getTailView().getRevisionProcessor() != null) {
+            throw new EPException("Snapshot is not supported for named window '" + processor.getNamedWindowName() + "' as it is a virtual data window or revision window");
+        }
+        return processor.getProcessorInstanceNoContext();
+    }
+}
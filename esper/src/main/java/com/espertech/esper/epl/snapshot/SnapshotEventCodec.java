@@ -0,0 +1,142 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.snapshot;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.arr.ObjectArrayEventType;
+import com.espertech.esper.event.bean.BeanEventType;
+import com.espertech.esper.event.map.MapEventType;
+import com.espertech.esper.util.Serializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes and reads events of a given event type for snapshot files.
+ * <p>
+ * Object-array and map events are written property-by-property. Bean events are written using Java serialization
+ * of the underlying object and require the class to be serializable.
+ * </p>
+ */
+public class SnapshotEventCodec
+{
+    private final EventType eventType;
+    private final EventAdapterService eventAdapterService;
+    private final String[] columnNames;
+    private final String[] columnTypes;
+    private final EventPropertyGetter[] getters;
+    private final Serializer[] serializers;
+    private final int[] objectArrayIndexes;
+    private final int objectArraySize;
+
+    /**
+     * Ctor.
+     * @param eventType type of events
+     * @param eventAdapterService for creating events when reading
+     */
+    public SnapshotEventCodec(EventType eventType, EventAdapterService eventAdapterService) {
+        this.eventType = eventType;
+        this.eventAdapterService = eventAdapterService;
+
+        if (eventType instanceof BeanEventType) {
+            if (!Serializable.class.isAssignableFrom(eventType.getUnderlyingType())) {
+                throw new EPException("Snapshot requires event class '" + eventType.getUnderlyingType().getName() + "' to implement Serializable");
+            }
+            columnNames = new String[] {"*"};
+            columnTypes = new String[] {eventType.getUnderlyingType().getName()};
+            getters = null;
+            serializers = new Serializer[] {SnapshotSerde.getObjectSerializer()};
+            objectArrayIndexes = null;
+            objectArraySize = 0;
+            return;
+        }
+        if (!(eventType instanceof ObjectArrayEventType) && !(eventType instanceof MapEventType)) {
+            throw new EPException("Snapshot is not supported for event type '" + eventType.getName() + "', only object-array, map and bean event types are supported");
+        }
+
+        columnNames = eventType.getPropertyNames();
+        columnTypes = new String[columnNames.length];
+        getters = new EventPropertyGetter[columnNames.length];
+        serializers = new Serializer[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            Class type = eventType.getPropertyType(columnNames[i]);
+            columnTypes[i] = type == null ? "null" : type.getName();
+            getters[i] = eventType.getGetter(columnNames[i]);
+            serializers[i] = SnapshotSerde.getSerializer(type);
+        }
+        if (eventType instanceof ObjectArrayEventType) {
+            Map<String, Integer> indexes = ((ObjectArrayEventType) eventType).getPropertiesIndexes();
+            objectArrayIndexes = new int[columnNames.length];
+            objectArraySize = indexes.size();
+            for (int i = 0; i < columnNames.length; i++) {
+                objectArrayIndexes[i] = indexes.get(columnNames[i]);
+            }
+        }
+        else {
+            objectArrayIndexes = null;
+            objectArraySize = 0;
+        }
+    }
+
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    public String[] getColumnTypes() {
+        return columnTypes;
+    }
+
+    /**
+     * Writes an event.
+     * @param theEvent to write
+     * @param stream output
+     * @throws IOException if the write fails
+     */
+    public void write(EventBean theEvent, DataOutputStream stream) throws IOException {
+        if (getters == null) {
+            serializers[0].serialize(theEvent.getUnderlying(), stream);
+            return;
+        }
+        for (int i = 0; i < getters.length; i++) {
+            SnapshotSerde.write(serializers[i], getters[i].get(theEvent), stream);
+        }
+    }
+
+    /**
+     * Reads an event.
+     * @param stream input
+     * @return event
+     * @throws IOException if the read fails
+     */
+    public EventBean read(DataInputStream stream) throws IOException {
+        if (getters == null) {
+            return eventAdapterService.adapterForTypedBean(serializers[0].deserialize(stream), eventType);
+        }
+        if (objectArrayIndexes != null) {
+            Object[] values = new Object[objectArraySize];
+            for (int i = 0; i < objectArrayIndexes.length; i++) {
+                values[objectArrayIndexes[i]] = SnapshotSerde.read(serializers[i], stream);
+            }
+            return eventAdapterService.adapterForTypedObjectArray(values, eventType);
+        }
+        Map<String, Object> values = new HashMap<String, Object>();
+        for (int i = 0; i < columnNames.length; i++) {
+            values.put(columnNames[i], SnapshotSerde.read(serializers[i], stream));
+        }
+        return eventAdapterService.adapterForTypedMap(values, eventType);
+    }
+}
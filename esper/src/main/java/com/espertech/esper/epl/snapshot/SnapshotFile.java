@@ -0,0 +1,197 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.snapshot;
+
+import com.espertech.esper.client.EPException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reading and writing of snapshot files.
+ * <p>
+ * A snapshot file holds a header, consisting of a magic number, the format version, the kind of snapshot,
+ * the name of the named window or table and the column names and types, followed by the number of records and the records.
+ * </p>
+ * <p>
+ * Files are written to a temporary file that replaces the target file only when complete.
+ * Files are read through a read-only memory mapping.
+ * </p>
+ */
+public class SnapshotFile
+{
+    /**
+     * Kind for named window snapshots.
+     */
+    public final static byte KIND_NAMED_WINDOW = 1;
+
+    /**
+     * Kind for table snapshots.
+     */
+    public final static byte KIND_TABLE = 2;
+
+    private final static int MAGIC = 0x45535053;
+    private final static int VERSION = 1;
+    private final static int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Opens a temporary file for writing, to be committed by {@link #commitWrite(File)}.
+     * @param file target file
+     * @return output
+     * @throws IOException if the file cannot be opened
+     */
+    public static DataOutputStream openWrite(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getTempFile(file)), WRITE_BUFFER_SIZE));
+    }
+
+    /**
+     * Replaces the target file with the completely written temporary file.
+     * @param file target file
+     * @throws IOException if the file cannot be replaced
+     */
+    public static void commitWrite(File file) throws IOException {
+        File temp = getTempFile(file);
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Failed to replace snapshot file '" + file + "'");
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Failed to rename snapshot file '" + temp + "' to '" + file + "'");
+        }
+    }
+
+    /**
+     * Removes the temporary file after a failed write.
+     * @param file target file
+     */
+    public static void abortWrite(File file) {
+        getTempFile(file).delete();
+    }
+
+    /**
+     * Opens a snapshot file for reading.
+     * @param file to read
+     * @return input
+     * @throws IOException if the file cannot be opened
+     */
+    public static DataInputStream openRead(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                return new DataInputStream(new BufferedInputStream(new FileInputStream(file), WRITE_BUFFER_SIZE));
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new DataInputStream(new ByteBufferInputStream(buffer));
+        }
+        finally {
+            // the mapping remains valid after the channel is closed
+            raf.close();
+        }
+    }
+
+    /**
+     * Writes the header.
+     * @param stream output
+     * @param kind snapshot kind
+     * @param name named window or table name
+     * @param columnNames column names
+     * @param columnTypes column type names
+     * @param numRecords number of records that follow
+     * @throws IOException if the write fails
+     */
+    public static void writeHeader(DataOutputStream stream, byte kind, String name, String[] columnNames, String[] columnTypes, int numRecords) throws IOException {
+        stream.writeInt(MAGIC);
+        stream.writeInt(VERSION);
+        stream.writeByte(kind);
+        stream.writeUTF(name);
+        stream.writeInt(columnNames.length);
+        for (int i = 0; i < columnNames.length; i++) {
+            stream.writeUTF(columnNames[i]);
+            stream.writeUTF(columnTypes[i]);
+        }
+        stream.writeInt(numRecords);
+    }
+
+    /**
+     * Reads and validates the header against the expected kind and columns.
+     * @param stream input
+     * @param file file name for use in messages
+     * @param kind expected snapshot kind
+     * @param name expected named window or table name
+     * @param columnNames expected column names
+     * @param columnTypes expected column type names
+     * @return number of records that follow
+     * @throws IOException if the read fails
+     */
+    public static int readHeader(DataInputStream stream, File file, byte kind, String name, String[] columnNames, String[] columnTypes) throws IOException {
+        if (stream.readInt() != MAGIC) {
+            throw new EPException("File '" + file + "' is not a snapshot file");
+        }
+        int version = stream.readInt();
+        if (version != VERSION) {
+            throw new EPException("Snapshot file '" + file + "' has unsupported version " + version);
+        }
+        byte kindRead = stream.readByte();
+        String nameRead = stream.readUTF();
+        if (kindRead != kind) {
+            throw new EPException("Snapshot file '" + file + "' holds " + (kindRead == KIND_TABLE ? "table" : "named window") + " '" + nameRead + "' and not a " + (kind == KIND_TABLE ? "table" : "named window"));
+        }
+        int numColumns = stream.readInt();
+        String[] namesRead = new String[numColumns];
+        String[] typesRead = new String[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            namesRead[i] = stream.readUTF();
+            typesRead[i] = stream.readUTF();
+        }
+        if (!Arrays.equals(namesRead, columnNames) || !Arrays.equals(typesRead, columnTypes)) {
+            throw new EPException("Snapshot file '" + file + "' taken from '" + nameRead + "' has columns " + Arrays.toString(namesRead) + " of types " + Arrays.toString(typesRead) +
+                    " that do not match the columns " + Arrays.toString(columnNames) + " of types " + Arrays.toString(columnTypes) + " of '" + name + "'");
+        }
+        return stream.readInt();
+    }
+
+    private static File getTempFile(File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    private static class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xff;
+        }
+
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int num = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, num);
+            return num;
+        }
+
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
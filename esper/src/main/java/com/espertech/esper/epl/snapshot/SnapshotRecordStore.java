@@ -0,0 +1,222 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Disk store of records by key, for state that is moved out of memory and read back later.
+ * <p>
+ * Records are appended to a single temporary file and an in-memory index maps the key to the record.
+ * Reading a record back removes it from the index. The file is truncated when no record remains
+ * and is compacted when it holds mostly records that were read back or discarded.
+ * </p>
+ */
+public class SnapshotRecordStore<K>
+{
+    private final static long COMPACT_MIN_BYTES = 1024 * 1024;
+
+    private final File directory;
+    private final String filePrefix;
+    private final String fileSuffix;
+    private final Map<K, Record> index = new HashMap<K, Record>();
+
+    private File file;
+    private RandomAccessFile store;
+    private long liveBytes;
+
+    /**
+     * Ctor.
+     * @param directory directory for the file, or null for the system temporary directory
+     * @param filePrefix file name prefix
+     * @param fileSuffix file name suffix
+     */
+    public SnapshotRecordStore(String directory, String filePrefix, String fileSuffix) {
+        this.directory = directory == null ? null : new File(directory);
+        this.filePrefix = filePrefix;
+        this.fileSuffix = fileSuffix;
+    }
+
+    /**
+     * Returns the file, or null if nothing was written yet.
+     * @return file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of records.
+     * @return count
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Appends a record, replacing any record for the same key.
+     * @param key key
+     * @param bytes record
+     * @throws IOException if the record cannot be written
+     */
+    public void write(K key, byte[] bytes) throws IOException {
+        RandomAccessFile store = getStore();
+        long offset = store.length();
+        store.seek(offset);
+        store.write(bytes);
+        Record previous = index.put(key, new Record(offset, bytes.length));
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        liveBytes += bytes.length;
+    }
+
+    /**
+     * Returns the keys of all records.
+     * @return keys
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Reads a record and keeps it in the store.
+     * @param key key
+     * @return record, or null if there is no record for the key
+     * @throws IOException if the record cannot be read
+     */
+    public byte[] get(K key) throws IOException {
+        Record record = index.get(key);
+        if (record == null) {
+            return null;
+        }
+        return readRecord(record);
+    }
+
+    /**
+     * Reads a record and removes it from the store.
+     * @param key key
+     * @return record, or null if there is no record for the key
+     * @throws IOException if the record cannot be read
+     */
+    public byte[] read(K key) throws IOException {
+        Record record = index.remove(key);
+        if (record == null) {
+            return null;
+        }
+        liveBytes -= record.length;
+        byte[] bytes = readRecord(record);
+        truncateOrCompact();
+        return bytes;
+    }
+
+    /**
+     * Removes a record without reading it.
+     * @param key key
+     * @return indicator whether there was a record for the key
+     * @throws IOException if the file cannot be truncated or compacted
+     */
+    public boolean discard(K key) throws IOException {
+        Record record = index.remove(key);
+        if (record == null) {
+            return false;
+        }
+        liveBytes -= record.length;
+        truncateOrCompact();
+        return true;
+    }
+
+    /**
+     * Removes all records, closes and deletes the file.
+     */
+    public void destroy() {
+        index.clear();
+        liveBytes = 0;
+        if (store != null) {
+            try {
+                store.close();
+            }
+            catch (IOException ex) {
+                // closing for delete
+            }
+            store = null;
+        }
+        if (file != null) {
+            file.delete();
+            file = null;
+        }
+    }
+
+    private RandomAccessFile getStore() throws IOException {
+        if (store == null) {
+            file = File.createTempFile(filePrefix, fileSuffix, directory);
+            file.deleteOnExit();
+            store = new RandomAccessFile(file, "rw");
+        }
+        return store;
+    }
+
+    private byte[] readRecord(Record record) throws IOException {
+        byte[] bytes = new byte[record.length];
+        store.seek(record.offset);
+        store.readFully(bytes);
+        return bytes;
+    }
+
+    private void truncateOrCompact() throws IOException {
+        if (index.isEmpty()) {
+            store.setLength(0);
+        }
+        else if (store.length() > COMPACT_MIN_BYTES && store.length() > 2 * liveBytes) {
+            compact();
+        }
+    }
+
+    private void compact() throws IOException {
+        File compacted = File.createTempFile(filePrefix, fileSuffix, directory);
+        RandomAccessFile target = new RandomAccessFile(compacted, "rw");
+        try {
+            long offset = 0;
+            for (Map.Entry<K, Record> entry : index.entrySet()) {
+                Record record = entry.getValue();
+                byte[] bytes = new byte[record.length];
+                store.seek(record.offset);
+                store.readFully(bytes);
+                target.write(bytes);
+                entry.setValue(new Record(offset, record.length));
+                offset += record.length;
+            }
+        }
+        catch (IOException ex) {
+            target.close();
+            compacted.delete();
+            throw ex;
+        }
+        store.close();
+        file.delete();
+        file = compacted;
+        store = target;
+    }
+
+    private static class Record {
+        private final long offset;
+        private final int length;
+
+        private Record(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
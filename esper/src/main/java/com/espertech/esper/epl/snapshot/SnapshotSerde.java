@@ -0,0 +1,117 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.snapshot;
+
+import com.espertech.esper.util.Serializer;
+import com.espertech.esper.util.SerializerFactory;
+import com.espertech.esper.util.SerializerUtil;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Value serialization for snapshot files: each value is preceded by a presence flag, primitive and boxed types
+ * use their binary form, strings use length-prefixed UTF-8 and any other type uses length-prefixed Java serialization.
+ */
+public class SnapshotSerde
+{
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private final static Serializer<String> STRING_SERIALIZER = new Serializer<String>() {
+        public boolean accepts(Class c) {
+            return String.class.equals(c);
+        }
+
+        public void serialize(String object, DataOutputStream stream) throws IOException {
+            byte[] bytes = object.getBytes(UTF8);
+            stream.writeInt(bytes.length);
+            stream.write(bytes);
+        }
+
+        public String deserialize(DataInputStream stream) throws IOException {
+            byte[] bytes = new byte[stream.readInt()];
+            stream.readFully(bytes);
+            return new String(bytes, UTF8);
+        }
+    };
+
+    private final static Serializer<Object> OBJECT_SERIALIZER = new Serializer<Object>() {
+        public boolean accepts(Class c) {
+            return true;
+        }
+
+        public void serialize(Object object, DataOutputStream stream) throws IOException {
+            byte[] bytes = SerializerUtil.objectToByteArr(object);
+            stream.writeInt(bytes.length);
+            stream.write(bytes);
+        }
+
+        public Object deserialize(DataInputStream stream) throws IOException {
+            byte[] bytes = new byte[stream.readInt()];
+            stream.readFully(bytes);
+            return SerializerUtil.byteArrToObject(bytes);
+        }
+    };
+
+    /**
+     * Returns the serializer for values of the given type.
+     * @param type value type
+     * @return serializer
+     */
+    public static Serializer getSerializer(Class type) {
+        if (type == String.class) {
+            return STRING_SERIALIZER;
+        }
+        Serializer serializer = SerializerFactory.getSerializer(type);
+        if (type == null || serializer == SerializerFactory.getSerializer(Object.class)) {
+            return OBJECT_SERIALIZER;
+        }
+        return serializer;
+    }
+
+    /**
+     * Returns the serializer for values of any type.
+     * @return serializer
+     */
+    public static Serializer getObjectSerializer() {
+        return OBJECT_SERIALIZER;
+    }
+
+    /**
+     * Writes a value that may be null.
+     * @param serializer serializer for the value type
+     * @param value to write
+     * @param stream output
+     * @throws IOException if the write fails
+     */
+    public static void write(Serializer serializer, Object value, DataOutputStream stream) throws IOException {
+        if (value == null) {
+            stream.writeBoolean(false);
+            return;
+        }
+        stream.writeBoolean(true);
+        serializer.serialize(value, stream);
+    }
+
+    /**
+     * Reads a value that may be null.
+     * @param serializer serializer for the value type
+     * @param stream input
+     * @return value
+     * @throws IOException if the read fails
+     */
+    public static Object read(Serializer serializer, DataInputStream stream) throws IOException {
+        if (!stream.readBoolean()) {
+            return null;
+        }
+        return serializer.deserialize(stream);
+    }
+}
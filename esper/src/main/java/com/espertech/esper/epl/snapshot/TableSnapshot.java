@@ -0,0 +1,218 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.epl.snapshot;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.agg.aggregator.AggregationMethod;
+import com.espertech.esper.epl.agg.service.AggregationRowPair;
+import com.espertech.esper.epl.join.table.EventTableUtil;
+import com.espertech.esper.epl.table.mgmt.*;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.ObjectArrayBackedEventBean;
+import com.espertech.esper.event.arr.ObjectArrayEventType;
+import com.espertech.esper.util.Serializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the rows held by a table to a snapshot file and restores them from a snapshot file.
+ * <p>
+ * Plain columns are written by value. Aggregation columns are written using Java serialization of the aggregation method
+ * and thus retain the aggregation state. Tables that have access-aggregation columns, such as window or sorted aggregations,
+ * are not supported.
+ * </p>
+ * <p>
+ * Upon restore the rows are placed into the primary key index and the secondary indexes in parallel.
+ * </p>
+ */
+public class TableSnapshot
+{
+    private final TableMetadata tableMetadata;
+    private final TableStateInstance state;
+    private final int[] plainIndexes;
+    private final Serializer[] plainSerializers;
+    private final String[] columnNames;
+    private final String[] columnTypes;
+
+    private TableSnapshot(TableMetadata tableMetadata) {
+        this.tableMetadata = tableMetadata;
+        if (tableMetadata.getContextName() != null) {
+            throw new EPException("Snapshot is not supported for table '" + tableMetadata.getTableName() + "' as it is declared with a context");
+        }
+        this.state = tableMetadata.getState(-1);
+        if (state == null) {
+            throw new EPException("Table '" + tableMetadata.getTableName() + "' is not started");
+        }
+        if (state instanceof TableStateInstanceGroupedOffHeap) {
+            throw new EPException("Snapshot is not supported for table '" + tableMetadata.getTableName() + "' as its rows are kept off-heap");
+        }
+
+        ObjectArrayEventType internalType = tableMetadata.getInternalEventType();
+        List<String> names = new ArrayList<String>();
+        List<String> types = new ArrayList<String>();
+        List<Integer> indexes = new ArrayList<Integer>();
+        List<Serializer> serializers = new ArrayList<Serializer>();
+        String[] aggNames = new String[tableMetadata.getNumberMethodAggregations()];
+        for (Map.Entry<String, TableMetadataColumn> entry : tableMetadata.getTableColumns().entrySet()) {
+            if (entry.getValue() instanceof TableMetadataColumnPlain) {
+                Class type = internalType.getPropertyType(entry.getKey());
+                names.add(entry.getKey());
+                types.add(type == null ? "null" : type.getName());
+                indexes.add(((TableMetadataColumnPlain) entry.getValue()).getIndexPlain());
+                serializers.add(SnapshotSerde.getSerializer(type));
+                continue;
+            }
+            TableMetadataColumnAggregation agg = (TableMetadataColumnAggregation) entry.getValue();
+            if (agg.getAccessAccessorSlotPair() != null) {
+                throw new EPException("Snapshot is not supported for table '" + tableMetadata.getTableName() + "' as column '" + entry.getKey() + "' is an access-aggregation column");
+            }
+            aggNames[agg.getMethodOffset()] = entry.getKey();
+        }
+        for (String aggName : aggNames) {
+            names.add(aggName);
+            types.add("aggregation");
+        }
+
+        this.columnNames = names.toArray(new String[names.size()]);
+        this.columnTypes = types.toArray(new String[types.size()]);
+        this.plainIndexes = new int[indexes.size()];
+        for (int i = 0; i < plainIndexes.length; i++) {
+            plainIndexes[i] = indexes.get(i);
+        }
+        this.plainSerializers = serializers.toArray(new Serializer[serializers.size()]);
+    }
+
+    /**
+     * Writes the table rows to the file.
+     * @param tableMetadata table
+     * @param file to write
+     * @return number of rows written
+     */
+    public static int write(TableMetadata tableMetadata, File file) {
+        TableSnapshot snapshot = new TableSnapshot(tableMetadata);
+        TableStateInstance state = snapshot.state;
+        state.getTableLevelRWLock().readLock().lock();
+        try {
+            EventBean[] rows = state.getEventCollection().toArray(new EventBean[state.getRowCount()]);
+            DataOutputStream stream = SnapshotFile.openWrite(file);
+            try {
+                SnapshotFile.writeHeader(stream, SnapshotFile.KIND_TABLE, tableMetadata.getTableName(), snapshot.columnNames, snapshot.columnTypes, rows.length);
+                for (EventBean row : rows) {
+                    snapshot.writeRow((ObjectArrayBackedEventBean) row, stream);
+                }
+            }
+            finally {
+                stream.close();
+            }
+            SnapshotFile.commitWrite(file);
+            return rows.length;
+        }
+        catch (IOException ex) {
+            SnapshotFile.abortWrite(file);
+            throw new EPException("Failed to write snapshot of table '" + tableMetadata.getTableName() + "' to file '" + file + "': " + ex.getMessage(), ex);
+        }
+        catch (EPException ex) {
+            SnapshotFile.abortWrite(file);
+            throw ex;
+        }
+        finally {
+            state.getTableLevelRWLock().readLock().unlock();
+        }
+    }
+
+    /**
+     * Restores the table rows from the file, the table must be empty.
+     * @param tableMetadata table
+     * @param file to read
+     * @param eventAdapterService event adapters
+     * @return number of rows read
+     */
+    public static int restore(TableMetadata tableMetadata, File file, EventAdapterService eventAdapterService) {
+        TableSnapshot snapshot = new TableSnapshot(tableMetadata);
+        TableStateInstance state = snapshot.state;
+        state.getTableLevelRWLock().writeLock().lock();
+        try {
+            if (state.getRowCount() != 0) {
+                throw new EPException("Restore requires that table '" + tableMetadata.getTableName() + "' is empty");
+            }
+
+            EventBean[] rows;
+            DataInputStream stream = SnapshotFile.openRead(file);
+            try {
+                int numRows = SnapshotFile.readHeader(stream, file, SnapshotFile.KIND_TABLE, tableMetadata.getTableName(), snapshot.columnNames, snapshot.columnTypes);
+                rows = new EventBean[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    rows[i] = snapshot.readRow(stream, eventAdapterService);
+                }
+            }
+            finally {
+                stream.close();
+            }
+
+            if (state instanceof TableStateInstanceGroupedImpl) {
+                EventTableUtil.populateParallel(state.getIndexRepository().getTables(), rows, state.getAgentInstanceContext().getStatementContext().getEngineURI());
+            }
+            else {
+                for (EventBean row : rows) {
+                    state.addEvent(row);
+                }
+            }
+            return rows.length;
+        }
+        catch (IOException ex) {
+            throw new EPException("Failed to read snapshot of table '" + tableMetadata.getTableName() + "' from file '" + file + "': " + ex.getMessage(), ex);
+        }
+        finally {
+            state.getTableLevelRWLock().writeLock().unlock();
+        }
+    }
+
+    private void writeRow(ObjectArrayBackedEventBean row, DataOutputStream stream) throws IOException {
+        Object[] data = row.getProperties();
+        for (int i = 0; i < plainIndexes.length; i++) {
+            SnapshotSerde.write(plainSerializers[i], data[plainIndexes[i]], stream);
+        }
+        AggregationRowPair aggs = (AggregationRowPair) data[0];
+        if (aggs.getStates().length > 0) {
+            throw new EPException("Snapshot is not supported for table '" + tableMetadata.getTableName() + "' as it holds access-aggregation state");
+        }
+        for (AggregationMethod method : aggs.getMethods()) {
+            if (!(method instanceof Serializable)) {
+                throw new EPException("Snapshot is not supported for table '" + tableMetadata.getTableName() + "' as aggregation '" + method.getClass().getSimpleName() + "' is not serializable");
+            }
+            SnapshotSerde.getObjectSerializer().serialize(method, stream);
+        }
+    }
+
+    private EventBean readRow(DataInputStream stream, EventAdapterService eventAdapterService) throws IOException {
+        Object[] data = new Object[tableMetadata.getInternalEventType().getPropertiesIndexes().size()];
+        for (int i = 0; i < plainIndexes.length; i++) {
+            data[plainIndexes[i]] = SnapshotSerde.read(plainSerializers[i], stream);
+        }
+        AggregationRowPair aggs = tableMetadata.getRowFactory().makeAggs(-1, null, null, state.getAggregationServicePassThru());
+        AggregationMethod[] methods = aggs.getMethods();
+        for (int i = 0; i < methods.length; i++) {
+            Object method = SnapshotSerde.getObjectSerializer().deserialize(stream);
+            if (method == null || method.getClass() != methods[i].getClass()) {
+                throw new EPException("Snapshot aggregation state for table '" + tableMetadata.getTableName() + "' does not match the table aggregation columns");
+            }
+            methods[i] = (AggregationMethod) method;
+        }
+        data[0] = aggs;
+        return eventAdapterService.adapterForTypedObjectArray(data, tableMetadata.getInternalEventType());
+    }
+}
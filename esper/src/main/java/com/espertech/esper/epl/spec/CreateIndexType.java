@@ -19,5 +19,6 @@ import java.util.List;
 public enum CreateIndexType
 {
     BTREE,
-    HASH
+    HASH,
+    BITMAP
 }
@@ -110,6 +110,7 @@ public class CreateSchemaDesc implements MetaDefItem, Serializable
         VARIANT,
         MAP,
         OBJECTARRAY,
+        BINARY,
         NONE;
 
         public CreateSchemaClauseTypeDef mapToSoda() {
@@ -122,6 +123,9 @@ public class CreateSchemaDesc implements MetaDefItem, Serializable
             else if (this == OBJECTARRAY) {
                 return CreateSchemaClauseTypeDef.OBJECTARRAY;
             }
+            else if (this == BINARY) {
+                return CreateSchemaClauseTypeDef.BINARY;
+            }
             else {
                 return CreateSchemaClauseTypeDef.NONE;
             }
@@ -137,7 +141,10 @@ public class CreateSchemaDesc implements MetaDefItem, Serializable
             if (keywordNodeText.toLowerCase().equals("objectarray")) {
                 return OBJECTARRAY;
             }
-            throw new EPException("Expected 'variant', 'map' or 'objectarray' keyword after create-schema clause but encountered '" + keywordNodeText + "'");
+            if (keywordNodeText.toLowerCase().equals("binary")) {
+                return BINARY;
+            }
+            throw new EPException("Expected 'variant', 'map', 'objectarray' or 'binary' keyword after create-schema clause but encountered '" + keywordNodeText + "'");
         }
 
         public static AssignedType mapFrom(CreateSchemaClauseTypeDef typeDefinition) {
@@ -150,6 +157,9 @@ public class CreateSchemaDesc implements MetaDefItem, Serializable
             if (CreateSchemaClauseTypeDef.OBJECTARRAY == typeDefinition) {
                 return OBJECTARRAY;
             }
+            if (CreateSchemaClauseTypeDef.BINARY == typeDefinition) {
+                return BINARY;
+            }
             return VARIANT;
         }
     }
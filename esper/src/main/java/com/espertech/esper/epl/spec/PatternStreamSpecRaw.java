@@ -111,6 +111,7 @@ public class PatternStreamSpecRaw extends StreamSpecBase implements StreamSpecRa
         if ((suppressSameEventMatches || discardPartialsOnMatch) && (isJoin || isContextDeclaration || isOnTrigger)) {
             throw new ExprValidationException("Discard-partials and suppress-matches is not supported in a joins, context declaration and on-action");
         }
+        PatternTimerBuckets.getGranularityMSec(context.getAnnotations());
 
         if (tags == null) {
             tags = new MatchEventSpec();
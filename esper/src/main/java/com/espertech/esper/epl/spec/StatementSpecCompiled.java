@@ -45,7 +45,7 @@ public class StatementSpecCompiled
     private StreamSpecCompiled[] streamSpecs;
     private final OuterJoinDesc[] outerJoinDescList;
     private ExprNode filterExprRootNode;
-    private final ExprNode havingExprRootNode;
+    private ExprNode havingExprRootNode;
     private final OutputLimitSpec outputLimitSpec;
     private final OrderByItem[] orderByList;
     private final ExprSubselectNode[] subSelectExpressions;
@@ -297,6 +297,15 @@ public class StatementSpecCompiled
         filterExprRootNode = optionalFilterNode;
     }
 
+    /**
+     * Set the having-clause node.
+     * @param havingExprRootNode is the having-clause node
+     */
+    public void setHavingExprRootNode(ExprNode havingExprRootNode)
+    {
+        this.havingExprRootNode = havingExprRootNode;
+    }
+
     /**
      * Returns the list of lookup expression nodes.
      * @return lookup nodes
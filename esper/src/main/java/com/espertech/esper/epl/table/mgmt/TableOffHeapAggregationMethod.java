@@ -0,0 +1,250 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.table.mgmt;
+
+import com.espertech.esper.epl.agg.aggregator.*;
+import com.espertech.esper.epl.agg.service.AggregationMethodFactory;
+import com.espertech.esper.epl.expression.methodagg.ExprMinMaxAggrNode;
+import com.espertech.esper.type.MinMaxTypeEnum;
+import com.espertech.esper.util.JavaClassHelper;
+
+/**
+ * Aggregation method of an off-heap table row, reading and writing the aggregation state in place in the row storage.
+ * <p>
+ * The state of each aggregation occupies two words of the row: a value word and a count word.
+ * The semantics follow those of the corresponding heap aggregators.
+ * </p>
+ */
+public class TableOffHeapAggregationMethod implements AggregationMethod
+{
+    /**
+     * Number of words of row storage used by each aggregation.
+     */
+    public final static int NUM_WORDS = 2;
+
+    private final Kind kind;
+    private final TableOffHeapRowMap store;
+    private final TableOffHeapRowEventBean row;
+    private final int word;
+    private final int valueCode;
+
+    /**
+     * Ctor.
+     * @param kind aggregation kind
+     * @param valueCode value code of the result type, for min-max aggregations
+     * @param store row storage
+     * @param row the row, providing the current row slot
+     * @param word word offset of the aggregation state within the row
+     */
+    public TableOffHeapAggregationMethod(Kind kind, int valueCode, TableOffHeapRowMap store, TableOffHeapRowEventBean row, int word) {
+        this.kind = kind;
+        this.valueCode = valueCode;
+        this.store = store;
+        this.row = row;
+        this.word = word;
+    }
+
+    /**
+     * Returns the kind of off-heap aggregation for the aggregation factory, or null if the aggregation cannot be kept off-heap.
+     * @param factory aggregation factory
+     * @return kind or null if not supported
+     */
+    public static Kind getKind(AggregationMethodFactory factory) {
+        AggregationMethod sample = factory.make();
+        Class type = sample.getClass();
+        if (type == AggregatorSumInteger.class) {
+            return Kind.SUM_INT;
+        }
+        if (type == AggregatorSumNumInteger.class) {
+            return Kind.SUM_NUMINT;
+        }
+        if (type == AggregatorSumLong.class) {
+            return Kind.SUM_LONG;
+        }
+        if (type == AggregatorSumDouble.class) {
+            return Kind.SUM_DOUBLE;
+        }
+        if (type == AggregatorSumFloat.class) {
+            return Kind.SUM_FLOAT;
+        }
+        if (type == AggregatorAvg.class) {
+            return Kind.AVG;
+        }
+        if (type == AggregatorCount.class) {
+            return Kind.COUNT;
+        }
+        if (type == AggregatorCountNonNull.class) {
+            return Kind.COUNT_NONNULL;
+        }
+        if (type == AggregatorMinMaxEver.class && factory.getAggregationExpression() instanceof ExprMinMaxAggrNode) {
+            Class resultType = JavaClassHelper.getBoxedType(factory.getResultType());
+            if (!JavaClassHelper.isNumeric(resultType) || TableOffHeapRowMap.getValueCode(resultType) == -1) {
+                return null;
+            }
+            boolean max = ((ExprMinMaxAggrNode) factory.getAggregationExpression()).getMinMaxTypeEnum() == MinMaxTypeEnum.MAX;
+            boolean floating = resultType == Double.class || resultType == Float.class;
+            if (max) {
+                return floating ? Kind.MAXEVER_DOUBLE : Kind.MAXEVER_LONG;
+            }
+            return floating ? Kind.MINEVER_DOUBLE : Kind.MINEVER_LONG;
+        }
+        return null;
+    }
+
+    public void enter(Object value) {
+        int slot = row.getSlot();
+        if (kind == Kind.COUNT) {
+            store.setWord(slot, word + 1, store.getWord(slot, word + 1) + 1);
+            return;
+        }
+        if (value == null) {
+            return;
+        }
+        long count = store.getWord(slot, word + 1);
+        switch (kind) {
+            case SUM_INT:
+            case SUM_NUMINT:
+                store.setWord(slot, word, (int) store.getWord(slot, word) + ((Number) value).intValue());
+                break;
+            case SUM_LONG:
+                store.setWord(slot, word, store.getWord(slot, word) + ((Number) value).longValue());
+                break;
+            case SUM_DOUBLE:
+            case AVG:
+                store.setDouble(slot, word, store.getDouble(slot, word) + ((Number) value).doubleValue());
+                break;
+            case SUM_FLOAT:
+                store.setDouble(slot, word, (float) store.getDouble(slot, word) + ((Number) value).floatValue());
+                break;
+            case MINEVER_LONG:
+            case MAXEVER_LONG:
+                long longValue = ((Number) value).longValue();
+                long currentLong = store.getWord(slot, word);
+                if (count == 0 || (kind == Kind.MAXEVER_LONG ? longValue > currentLong : longValue < currentLong)) {
+                    store.setWord(slot, word, longValue);
+                }
+                break;
+            case MINEVER_DOUBLE:
+            case MAXEVER_DOUBLE:
+                double doubleValue = ((Number) value).doubleValue();
+                double currentDouble = store.getDouble(slot, word);
+                if (count == 0) {
+                    store.setDouble(slot, word, doubleValue);
+                }
+                else {
+                    int compare = Double.compare(doubleValue, currentDouble);
+                    if (kind == Kind.MAXEVER_DOUBLE ? compare > 0 : compare < 0) {
+                        store.setDouble(slot, word, doubleValue);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        store.setWord(slot, word + 1, count + 1);
+    }
+
+    public void leave(Object value) {
+        int slot = row.getSlot();
+        if (kind == Kind.COUNT) {
+            long count = store.getWord(slot, word + 1);
+            if (count > 0) {
+                store.setWord(slot, word + 1, count - 1);
+            }
+            return;
+        }
+        if (value == null || kind.isEver()) {
+            return;
+        }
+        long count = store.getWord(slot, word + 1);
+        if (kind == Kind.COUNT_NONNULL) {
+            if (count > 0) {
+                store.setWord(slot, word + 1, count - 1);
+            }
+            return;
+        }
+        if (count <= 1) {
+            clear();
+            return;
+        }
+        switch (kind) {
+            case SUM_INT:
+            case SUM_NUMINT:
+                store.setWord(slot, word, (int) store.getWord(slot, word) - ((Number) value).intValue());
+                break;
+            case SUM_LONG:
+                store.setWord(slot, word, store.getWord(slot, word) - ((Number) value).longValue());
+                break;
+            case SUM_DOUBLE:
+            case AVG:
+                store.setDouble(slot, word, store.getDouble(slot, word) - ((Number) value).doubleValue());
+                break;
+            case SUM_FLOAT:
+                store.setDouble(slot, word, (float) store.getDouble(slot, word) - ((Number) value).floatValue());
+                break;
+            default:
+                break;
+        }
+        store.setWord(slot, word + 1, count - 1);
+    }
+
+    public Object getValue() {
+        int slot = row.getSlot();
+        long count = store.getWord(slot, word + 1);
+        switch (kind) {
+            case COUNT:
+            case COUNT_NONNULL:
+                return count;
+            case SUM_INT:
+            case SUM_NUMINT:
+                return count == 0 ? null : (Object) (int) store.getWord(slot, word);
+            case SUM_LONG:
+                return count == 0 ? null : (Object) store.getWord(slot, word);
+            case SUM_DOUBLE:
+                return count == 0 ? null : (Object) store.getDouble(slot, word);
+            case SUM_FLOAT:
+                return count == 0 ? null : (Object) (float) store.getDouble(slot, word);
+            case AVG:
+                return count == 0 ? null : (Object) (store.getDouble(slot, word) / count);
+            default:
+                return count == 0 ? null : TableOffHeapRowMap.decode(store.getWord(slot, word), valueCode);
+        }
+    }
+
+    public void clear() {
+        int slot = row.getSlot();
+        store.setWord(slot, word, 0);
+        store.setWord(slot, word + 1, 0);
+    }
+
+    /**
+     * Kind of off-heap aggregation.
+     */
+    public enum Kind {
+        SUM_INT,
+        SUM_NUMINT,
+        SUM_LONG,
+        SUM_DOUBLE,
+        SUM_FLOAT,
+        AVG,
+        COUNT,
+        COUNT_NONNULL,
+        MINEVER_LONG,
+        MAXEVER_LONG,
+        MINEVER_DOUBLE,
+        MAXEVER_DOUBLE;
+
+        private boolean isEver() {
+            return this == MINEVER_LONG || this == MAXEVER_LONG || this == MINEVER_DOUBLE || this == MAXEVER_DOUBLE;
+        }
+    }
+}
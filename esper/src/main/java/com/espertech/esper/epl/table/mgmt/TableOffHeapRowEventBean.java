@@ -0,0 +1,72 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.table.mgmt;
+
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.event.arr.ObjectArrayEventBean;
+
+/**
+ * Row of an off-heap table as materialized for access: the plain column values are copied into the
+ * property array and the aggregation methods read and write the row storage in place.
+ * <p>
+ * Rows materialized for the same row slot are equal.
+ * </p>
+ */
+public class TableOffHeapRowEventBean extends ObjectArrayEventBean
+{
+    private final TableOffHeapRowMap store;
+    private int slot;
+
+    /**
+     * Ctor.
+     * @param propertyValues row values
+     * @param eventType internal table event type
+     * @param store row storage
+     * @param slot row slot
+     */
+    public TableOffHeapRowEventBean(Object[] propertyValues, EventType eventType, TableOffHeapRowMap store, int slot) {
+        super(propertyValues, eventType);
+        this.store = store;
+        this.slot = slot;
+    }
+
+    public TableOffHeapRowMap getStore() {
+        return store;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Sets the row slot, for use when a row moves.
+     * @param slot new slot
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TableOffHeapRowEventBean)) {
+            return false;
+        }
+        TableOffHeapRowEventBean that = (TableOffHeapRowEventBean) other;
+        return store == that.store && slot == that.slot;
+    }
+
+    public int hashCode() {
+        return slot;
+    }
+}
@@ -0,0 +1,687 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.table.mgmt;
+
+import com.espertech.esper.collection.MultiKeyUntyped;
+import com.espertech.esper.epl.agg.access.AggregationState;
+import com.espertech.esper.epl.agg.aggregator.AggregationMethod;
+import com.espertech.esper.epl.agg.service.AggregationRowPair;
+import com.espertech.esper.epl.expression.core.ExprValidationException;
+import com.espertech.esper.event.ObjectArrayBackedEventBean;
+import com.espertech.esper.event.arr.ObjectArrayEventType;
+import com.espertech.esper.util.JavaClassHelper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.*;
+
+/**
+ * Row storage for grouped tables that keeps rows outside of the Java heap.
+ * <p>
+ * Rows are fixed-width sequences of 8-byte words in direct-buffer slabs: a header word holding the live flag
+ * and the null flags of the plain columns, one word per plain column and {@link TableOffHeapAggregationMethod#NUM_WORDS}
+ * words per aggregation column. Rows are located by primary key through an open-addressing hash index, also held in
+ * a direct buffer, that refers to row slots. Slots of removed rows are reused.
+ * </p>
+ * <p>
+ * The map materializes a {@link TableOffHeapRowEventBean} for each row that is accessed. Plain column values are copied
+ * and written back by {@link #writeBack(TableOffHeapRowEventBean)}, while aggregation methods operate on the storage in place.
+ * Plain columns must be of a primitive or boxed primitive type, and aggregation columns must be sum, avg, count, minever
+ * or maxever aggregations of primitive values without distinct or filter.
+ * </p>
+ */
+public class TableOffHeapRowMap extends AbstractMap<Object, ObjectArrayBackedEventBean>
+{
+    private final static int SLAB_ROWS_SHIFT = 14;
+    private final static int SLAB_ROWS = 1 << SLAB_ROWS_SHIFT;
+    private final static int INDEX_INITIAL_CAPACITY = 1024;
+    private final static long LIVE = 1L << 63;
+    private final static long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private final static AggregationState[] NO_STATES = new AggregationState[0];
+
+    private final static int CODE_INT = 0;
+    private final static int CODE_LONG = 1;
+    private final static int CODE_SHORT = 2;
+    private final static int CODE_BYTE = 3;
+    private final static int CODE_DOUBLE = 4;
+    private final static int CODE_FLOAT = 5;
+    private final static int CODE_BOOLEAN = 6;
+    private final static int CODE_CHAR = 7;
+
+    private final ObjectArrayEventType eventType;
+    private final int numProperties;
+    private final int[] plainIndexes;
+    private final int[] plainCodes;
+    private final boolean[] plainIsKey;
+    private final int[] keyColumns;
+    private final TableOffHeapAggregationMethod.Kind[] aggKinds;
+    private final int[] aggCodes;
+    private final int aggWordStart;
+    private final int rowWords;
+
+    private final List<LongBuffer> slabs = new ArrayList<LongBuffer>();
+    private int slotHighWater;
+    private int[] freeSlots = new int[16];
+    private int numFreeSlots;
+    private int size;
+    private IntBuffer index;
+    private int indexMask;
+
+    /**
+     * Ctor.
+     * @param tableMetadata table, must have been validated by {@link #validate(TableMetadata)}
+     */
+    public TableOffHeapRowMap(TableMetadata tableMetadata) {
+        this.eventType = tableMetadata.getInternalEventType();
+        this.numProperties = eventType.getPropertiesIndexes().size();
+
+        List<TableMetadataColumnPlain> plainColumns = new ArrayList<TableMetadataColumnPlain>();
+        TableMetadataColumnAggregation[] aggColumns = new TableMetadataColumnAggregation[tableMetadata.getNumberMethodAggregations()];
+        for (TableMetadataColumn column : tableMetadata.getTableColumns().values()) {
+            if (column instanceof TableMetadataColumnPlain) {
+                plainColumns.add((TableMetadataColumnPlain) column);
+            }
+            else {
+                TableMetadataColumnAggregation agg = (TableMetadataColumnAggregation) column;
+                aggColumns[agg.getMethodOffset()] = agg;
+            }
+        }
+
+        plainIndexes = new int[plainColumns.size()];
+        plainCodes = new int[plainColumns.size()];
+        plainIsKey = new boolean[plainColumns.size()];
+        List<Integer> keys = new ArrayList<Integer>();
+        for (int i = 0; i < plainColumns.size(); i++) {
+            TableMetadataColumnPlain column = plainColumns.get(i);
+            plainIndexes[i] = column.getIndexPlain();
+            plainCodes[i] = getValueCode(JavaClassHelper.getBoxedType(eventType.getPropertyType(column.getColumnName())));
+            plainIsKey[i] = column.isKey();
+            if (column.isKey()) {
+                keys.add(i);
+            }
+        }
+        keyColumns = new int[keys.size()];
+        for (int i = 0; i < keyColumns.length; i++) {
+            keyColumns[i] = keys.get(i);
+        }
+
+        aggKinds = new TableOffHeapAggregationMethod.Kind[aggColumns.length];
+        aggCodes = new int[aggColumns.length];
+        for (int i = 0; i < aggColumns.length; i++) {
+            aggKinds[i] = TableOffHeapAggregationMethod.getKind(aggColumns[i].getFactory());
+            aggCodes[i] = getValueCode(JavaClassHelper.getBoxedType(aggColumns[i].getFactory().getResultType()));
+        }
+
+        aggWordStart = 1 + plainIndexes.length;
+        rowWords = aggWordStart + aggKinds.length * TableOffHeapAggregationMethod.NUM_WORDS;
+        allocateIndex(INDEX_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Validates that the rows of the table can be kept off-heap.
+     * @param tableMetadata table
+     * @throws ExprValidationException if the table cannot be kept off-heap
+     */
+    public static void validate(TableMetadata tableMetadata) throws ExprValidationException {
+        String message = "Off-heap storage for table '" + tableMetadata.getTableName() + "' ";
+        if (tableMetadata.getKeyTypes().length == 0) {
+            throw new ExprValidationException(message + "requires primary key columns");
+        }
+        int numPlain = 0;
+        for (Map.Entry<String, TableMetadataColumn> entry : tableMetadata.getTableColumns().entrySet()) {
+            if (entry.getValue() instanceof TableMetadataColumnPlain) {
+                numPlain++;
+                Class type = tableMetadata.getInternalEventType().getPropertyType(entry.getKey());
+                if (type == null || getValueCode(JavaClassHelper.getBoxedType(type)) == -1) {
+                    throw new ExprValidationException(message + "requires column '" + entry.getKey() + "' to be of a primitive type");
+                }
+                continue;
+            }
+            TableMetadataColumnAggregation agg = (TableMetadataColumnAggregation) entry.getValue();
+            if (agg.getAccessAccessorSlotPair() != null || TableOffHeapAggregationMethod.getKind(agg.getFactory()) == null) {
+                throw new ExprValidationException(message + "requires column '" + entry.getKey() + "' to be a sum, avg, count, minever or maxever aggregation of primitive values without distinct or filter");
+            }
+        }
+        if (numPlain > 63) {
+            throw new ExprValidationException(message + "supports at most 63 plain columns");
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(Object key) {
+        long[] keyWords = new long[keyColumns.length];
+        long keyMask = encodeProbe(key, keyWords);
+        return keyMask != -1 && find(keyWords, keyMask) != -1;
+    }
+
+    public ObjectArrayBackedEventBean get(Object key) {
+        long[] keyWords = new long[keyColumns.length];
+        long keyMask = encodeProbe(key, keyWords);
+        if (keyMask == -1) {
+            return null;
+        }
+        int slot = find(keyWords, keyMask);
+        return slot == -1 ? null : materialize(slot);
+    }
+
+    public ObjectArrayBackedEventBean put(Object key, ObjectArrayBackedEventBean value) {
+        // the key is obtained from the row itself
+        Object[] props = value.getProperties();
+        long[] words = new long[plainIndexes.length];
+        long nullMask = 0;
+        for (int i = 0; i < plainIndexes.length; i++) {
+            Object columnValue = props[plainIndexes[i]];
+            if (columnValue == null) {
+                nullMask |= 1L << i;
+            }
+            else {
+                words[i] = encode(columnValue, plainCodes[i]);
+            }
+        }
+        long[] keyWords = new long[keyColumns.length];
+        long keyMask = 0;
+        for (int k = 0; k < keyColumns.length; k++) {
+            if ((nullMask & (1L << keyColumns[k])) != 0) {
+                keyMask |= 1L << k;
+            }
+            else {
+                keyWords[k] = words[keyColumns[k]];
+            }
+        }
+
+        TableOffHeapRowEventBean source = null;
+        if (value instanceof TableOffHeapRowEventBean && ((TableOffHeapRowEventBean) value).getStore() == this) {
+            source = (TableOffHeapRowEventBean) value;
+        }
+
+        int existing = find(keyWords, keyMask);
+        if (existing != -1) {
+            ObjectArrayBackedEventBean previous = materialize(existing);
+            writePlain(existing, words, nullMask);
+            if (source == null) {
+                clearAggs(existing);
+            }
+            else if (source.getSlot() != existing) {
+                copyAggs(source.getSlot(), existing);
+            }
+            return previous;
+        }
+
+        int slot = allocate(source == null ? -1 : source.getSlot());
+        writePlain(slot, words, nullMask);
+        if (source == null) {
+            clearAggs(slot);
+        }
+        else {
+            if (source.getSlot() != slot) {
+                copyAggs(source.getSlot(), slot);
+            }
+            source.setSlot(slot);
+        }
+        indexInsert(slot, keyWords, keyMask);
+        size++;
+        return null;
+    }
+
+    public ObjectArrayBackedEventBean remove(Object key) {
+        long[] keyWords = new long[keyColumns.length];
+        long keyMask = encodeProbe(key, keyWords);
+        if (keyMask == -1) {
+            return null;
+        }
+        int slot = find(keyWords, keyMask);
+        if (slot == -1) {
+            return null;
+        }
+        ObjectArrayBackedEventBean previous = materialize(slot);
+        indexRemove(slot, hash(keyWords, keyMask));
+        setWord(slot, 0, 0);
+        if (numFreeSlots == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[numFreeSlots++] = slot;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        slabs.clear();
+        slotHighWater = 0;
+        freeSlots = new int[16];
+        numFreeSlots = 0;
+        size = 0;
+        allocateIndex(INDEX_INITIAL_CAPACITY);
+    }
+
+    public Collection<ObjectArrayBackedEventBean> values() {
+        return new AbstractCollection<ObjectArrayBackedEventBean>() {
+            public Iterator<ObjectArrayBackedEventBean> iterator() {
+                return new RowIterator<ObjectArrayBackedEventBean>() {
+                    protected ObjectArrayBackedEventBean make(int slot) {
+                        return materialize(slot);
+                    }
+                };
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public Set<Entry<Object, ObjectArrayBackedEventBean>> entrySet() {
+        return new AbstractSet<Entry<Object, ObjectArrayBackedEventBean>>() {
+            public Iterator<Entry<Object, ObjectArrayBackedEventBean>> iterator() {
+                return new RowIterator<Entry<Object, ObjectArrayBackedEventBean>>() {
+                    protected Entry<Object, ObjectArrayBackedEventBean> make(int slot) {
+                        return new SimpleImmutableEntry<Object, ObjectArrayBackedEventBean>(getKey(slot), materialize(slot));
+                    }
+                };
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Writes the non-key plain column values of a row, as changed by an update, to the row storage.
+     * @param row row to write
+     */
+    public void writeBack(TableOffHeapRowEventBean row) {
+        int slot = row.getSlot();
+        Object[] props = row.getProperties();
+        long header = getWord(slot, 0);
+        for (int i = 0; i < plainIndexes.length; i++) {
+            if (plainIsKey[i]) {
+                continue;
+            }
+            Object value = props[plainIndexes[i]];
+            if (value == null) {
+                header |= 1L << i;
+            }
+            else {
+                header &= ~(1L << i);
+                setWord(slot, 1 + i, encode(value, plainCodes[i]));
+            }
+        }
+        setWord(slot, 0, header);
+    }
+
+    /**
+     * Returns the number of bytes of direct memory allocated for rows and the index.
+     * @return bytes
+     */
+    public long getNumBytesAllocated() {
+        return (long) slabs.size() * SLAB_ROWS * rowWords * 8 + (long) index.capacity() * 4;
+    }
+
+    public long getWord(int slot, int word) {
+        return slabs.get(slot >>> SLAB_ROWS_SHIFT).get((slot & (SLAB_ROWS - 1)) * rowWords + word);
+    }
+
+    public void setWord(int slot, int word, long value) {
+        slabs.get(slot >>> SLAB_ROWS_SHIFT).put((slot & (SLAB_ROWS - 1)) * rowWords + word, value);
+    }
+
+    public double getDouble(int slot, int word) {
+        return Double.longBitsToDouble(getWord(slot, word));
+    }
+
+    public void setDouble(int slot, int word, double value) {
+        setWord(slot, word, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Returns the value code for a boxed type, or -1 if values of the type cannot be kept off-heap.
+     * @param boxedType type
+     * @return code
+     */
+    public static int getValueCode(Class boxedType) {
+        if (boxedType == Integer.class) {
+            return CODE_INT;
+        }
+        if (boxedType == Long.class) {
+            return CODE_LONG;
+        }
+        if (boxedType == Short.class) {
+            return CODE_SHORT;
+        }
+        if (boxedType == Byte.class) {
+            return CODE_BYTE;
+        }
+        if (boxedType == Double.class) {
+            return CODE_DOUBLE;
+        }
+        if (boxedType == Float.class) {
+            return CODE_FLOAT;
+        }
+        if (boxedType == Boolean.class) {
+            return CODE_BOOLEAN;
+        }
+        if (boxedType == Character.class) {
+            return CODE_CHAR;
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes a word.
+     * @param word to decode
+     * @param code value code
+     * @return value
+     */
+    public static Object decode(long word, int code) {
+        switch (code) {
+            case CODE_INT:
+                return (int) word;
+            case CODE_LONG:
+                return word;
+            case CODE_SHORT:
+                return (short) word;
+            case CODE_BYTE:
+                return (byte) word;
+            case CODE_DOUBLE:
+                return Double.longBitsToDouble(word);
+            case CODE_FLOAT:
+                return (float) Double.longBitsToDouble(word);
+            case CODE_BOOLEAN:
+                return word != 0;
+            default:
+                return (char) word;
+        }
+    }
+
+    private static long encode(Object value, int code) {
+        switch (code) {
+            case CODE_DOUBLE:
+            case CODE_FLOAT:
+                return Double.doubleToLongBits(((Number) value).doubleValue());
+            case CODE_BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+            case CODE_CHAR:
+                return (Character) value;
+            default:
+                return ((Number) value).longValue();
+        }
+    }
+
+    private static boolean isCompatible(Object value, int code) {
+        switch (code) {
+            case CODE_BOOLEAN:
+                return value instanceof Boolean;
+            case CODE_CHAR:
+                return value instanceof Character;
+            default:
+                return value instanceof Number;
+        }
+    }
+
+    private long encodeProbe(Object key, long[] keyWords) {
+        long keyMask = 0;
+        if (keyColumns.length == 1) {
+            if (key == null) {
+                return 1;
+            }
+            int code = plainCodes[keyColumns[0]];
+            if (!isCompatible(key, code)) {
+                return -1;
+            }
+            keyWords[0] = encode(key, code);
+            return 0;
+        }
+        if (!(key instanceof MultiKeyUntyped)) {
+            return -1;
+        }
+        Object[] keys = ((MultiKeyUntyped) key).getKeys();
+        if (keys.length != keyColumns.length) {
+            return -1;
+        }
+        for (int k = 0; k < keys.length; k++) {
+            if (keys[k] == null) {
+                keyMask |= 1L << k;
+                continue;
+            }
+            int code = plainCodes[keyColumns[k]];
+            if (!isCompatible(keys[k], code)) {
+                return -1;
+            }
+            keyWords[k] = encode(keys[k], code);
+        }
+        return keyMask;
+    }
+
+    private Object getKey(int slot) {
+        long header = getWord(slot, 0);
+        if (keyColumns.length == 1) {
+            return getPlainValue(slot, header, keyColumns[0]);
+        }
+        Object[] keys = new Object[keyColumns.length];
+        for (int k = 0; k < keys.length; k++) {
+            keys[k] = getPlainValue(slot, header, keyColumns[k]);
+        }
+        return new MultiKeyUntyped(keys);
+    }
+
+    private Object getPlainValue(int slot, long header, int column) {
+        if ((header & (1L << column)) != 0) {
+            return null;
+        }
+        return decode(getWord(slot, 1 + column), plainCodes[column]);
+    }
+
+    private TableOffHeapRowEventBean materialize(int slot) {
+        Object[] props = new Object[numProperties];
+        long header = getWord(slot, 0);
+        for (int i = 0; i < plainIndexes.length; i++) {
+            props[plainIndexes[i]] = getPlainValue(slot, header, i);
+        }
+        TableOffHeapRowEventBean row = new TableOffHeapRowEventBean(props, eventType, this, slot);
+        AggregationMethod[] methods = new AggregationMethod[aggKinds.length];
+        for (int i = 0; i < methods.length; i++) {
+            methods[i] = new TableOffHeapAggregationMethod(aggKinds[i], aggCodes[i], this, row, aggWordStart + i * TableOffHeapAggregationMethod.NUM_WORDS);
+        }
+        props[0] = new AggregationRowPair(methods, NO_STATES);
+        return row;
+    }
+
+    private void writePlain(int slot, long[] words, long nullMask) {
+        for (int i = 0; i < words.length; i++) {
+            setWord(slot, 1 + i, words[i]);
+        }
+        setWord(slot, 0, LIVE | nullMask);
+    }
+
+    private void clearAggs(int slot) {
+        for (int word = aggWordStart; word < rowWords; word++) {
+            setWord(slot, word, 0);
+        }
+    }
+
+    private void copyAggs(int fromSlot, int toSlot) {
+        for (int word = aggWordStart; word < rowWords; word++) {
+            setWord(toSlot, word, getWord(fromSlot, word));
+        }
+    }
+
+    private boolean isLive(int slot) {
+        return (getWord(slot, 0) & LIVE) != 0;
+    }
+
+    private int allocate(int preferredSlot) {
+        // a row that moves, such as for a key update, reclaims its own slot if it remains free
+        if (preferredSlot >= 0 && preferredSlot < slotHighWater && !isLive(preferredSlot)) {
+            return preferredSlot;
+        }
+        while (numFreeSlots > 0) {
+            int slot = freeSlots[--numFreeSlots];
+            if (!isLive(slot)) {
+                return slot;
+            }
+        }
+        int slot = slotHighWater++;
+        if ((slot >>> SLAB_ROWS_SHIFT) == slabs.size()) {
+            slabs.add(ByteBuffer.allocateDirect(SLAB_ROWS * rowWords * 8).order(ByteOrder.nativeOrder()).asLongBuffer());
+        }
+        return slot;
+    }
+
+    private int find(long[] keyWords, long keyMask) {
+        int pos = hash(keyWords, keyMask) & indexMask;
+        while (true) {
+            int entry = index.get(pos);
+            if (entry == 0) {
+                return -1;
+            }
+            if (keyEquals(entry - 1, keyWords, keyMask)) {
+                return entry - 1;
+            }
+            pos = (pos + 1) & indexMask;
+        }
+    }
+
+    private boolean keyEquals(int slot, long[] keyWords, long keyMask) {
+        long header = getWord(slot, 0);
+        for (int k = 0; k < keyColumns.length; k++) {
+            boolean rowNull = (header & (1L << keyColumns[k])) != 0;
+            boolean keyNull = (keyMask & (1L << k)) != 0;
+            if (rowNull != keyNull) {
+                return false;
+            }
+            if (!rowNull && getWord(slot, 1 + keyColumns[k]) != keyWords[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(long[] keyWords, long keyMask) {
+        long hash = (keyMask + 1) * HASH_MULTIPLIER;
+        for (long word : keyWords) {
+            hash = (hash ^ word) * HASH_MULTIPLIER;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private int hashSlot(int slot) {
+        long header = getWord(slot, 0);
+        long keyMask = 0;
+        long[] keyWords = new long[keyColumns.length];
+        for (int k = 0; k < keyColumns.length; k++) {
+            if ((header & (1L << keyColumns[k])) != 0) {
+                keyMask |= 1L << k;
+            }
+            else {
+                keyWords[k] = getWord(slot, 1 + keyColumns[k]);
+            }
+        }
+        return hash(keyWords, keyMask);
+    }
+
+    private void indexInsert(int slot, long[] keyWords, long keyMask) {
+        if ((size + 1) * 10L > (indexMask + 1) * 6L) {
+            resizeIndex();
+        }
+        int pos = hash(keyWords, keyMask) & indexMask;
+        while (index.get(pos) != 0) {
+            pos = (pos + 1) & indexMask;
+        }
+        index.put(pos, slot + 1);
+    }
+
+    private void indexRemove(int slot, int hash) {
+        int pos = hash & indexMask;
+        while (index.get(pos) != slot + 1) {
+            pos = (pos + 1) & indexMask;
+        }
+        index.put(pos, 0);
+
+        // shift back subsequent entries of the probe sequence
+        int next = (pos + 1) & indexMask;
+        while (true) {
+            int entry = index.get(next);
+            if (entry == 0) {
+                return;
+            }
+            int ideal = hashSlot(entry - 1) & indexMask;
+            boolean move = next > pos ? (ideal <= pos || ideal > next) : (ideal <= pos && ideal > next);
+            if (move) {
+                index.put(pos, entry);
+                index.put(next, 0);
+                pos = next;
+            }
+            next = (next + 1) & indexMask;
+        }
+    }
+
+    private void resizeIndex() {
+        IntBuffer old = index;
+        allocateIndex(old.capacity() * 2);
+        for (int i = 0; i < old.capacity(); i++) {
+            int entry = old.get(i);
+            if (entry == 0) {
+                continue;
+            }
+            int pos = hashSlot(entry - 1) & indexMask;
+            while (index.get(pos) != 0) {
+                pos = (pos + 1) & indexMask;
+            }
+            index.put(pos, entry);
+        }
+    }
+
+    private void allocateIndex(int capacity) {
+        index = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        indexMask = capacity - 1;
+    }
+
+    private abstract class RowIterator<T> implements Iterator<T>
+    {
+        private int next = -1;
+
+        private RowIterator() {
+            advance();
+        }
+
+        protected abstract T make(int slot);
+
+        public boolean hasNext() {
+            return next < slotHighWater;
+        }
+
+        public T next() {
+            if (next >= slotHighWater) {
+                throw new NoSuchElementException();
+            }
+            T result = make(next);
+            advance();
+            return result;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void advance() {
+            next++;
+            while (next < slotHighWater && !isLive(next)) {
+                next++;
+            }
+        }
+    }
+}
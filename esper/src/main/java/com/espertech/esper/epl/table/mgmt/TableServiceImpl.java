@@ -13,6 +13,7 @@ package com.espertech.esper.epl.table.mgmt;
 
 import com.espertech.esper.client.ConfigurationPlugInAggregationMultiFunction;
 import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.collection.Pair;
 import com.espertech.esper.core.context.util.AgentInstanceContext;
 import com.espertech.esper.core.service.StatementContext;
@@ -83,6 +84,10 @@ public class TableServiceImpl implements TableService {
         final TableMetadata metadata = new TableMetadata(tableName, eplExpression, statementName, keyTypes, tableColumns, tableStateRowFactory, numberMethodAggregations, statementContext, internalEventType, publicEventType, eventToPublic, queryPlanLogging);
 
         // determine table state factory
+        boolean offHeap = HintEnum.OFF_HEAP.getHint(statementContext.getAnnotations()) != null;
+        if (offHeap) {
+            TableOffHeapRowMap.validate(metadata);
+        }
         TableStateFactory tableStateFactory;
         if (keyTypes.length == 0) { // ungrouped
             tableStateFactory = new TableStateFactory() {
@@ -91,6 +96,13 @@ public class TableServiceImpl implements TableService {
                 }
             };
         }
+        else if (offHeap) {
+            tableStateFactory = new TableStateFactory() {
+                public TableStateInstance makeTableState(AgentInstanceContext agentInstanceContext) {
+                    return new TableStateInstanceGroupedOffHeap(metadata, agentInstanceContext);
+                }
+            };
+        }
         else {
             tableStateFactory = new TableStateFactory() {
                 public TableStateInstance makeTableState(AgentInstanceContext agentInstanceContext) {
@@ -33,11 +33,16 @@ import java.util.*;
 
 public class TableStateInstanceGroupedImpl extends TableStateInstance implements TableStateInstanceGrouped {
 
-    private final Map<Object, ObjectArrayBackedEventBean> rows = new HashMap<Object, ObjectArrayBackedEventBean>();
+    private final Map<Object, ObjectArrayBackedEventBean> rows;
     private final IndexMultiKey primaryIndexKey;
 
     public TableStateInstanceGroupedImpl(TableMetadata tableMetadata, AgentInstanceContext agentInstanceContext) {
+        this(tableMetadata, agentInstanceContext, new HashMap<Object, ObjectArrayBackedEventBean>());
+    }
+
+    protected TableStateInstanceGroupedImpl(TableMetadata tableMetadata, AgentInstanceContext agentInstanceContext, Map<Object, ObjectArrayBackedEventBean> rows) {
         super(tableMetadata, agentInstanceContext);
+        this.rows = rows;
 
         List<EventPropertyGetter> indexGetters = new ArrayList<EventPropertyGetter>();
         List<String> keyNames = new ArrayList<String>();
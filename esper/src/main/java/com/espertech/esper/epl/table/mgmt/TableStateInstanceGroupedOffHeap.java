@@ -0,0 +1,57 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.table.mgmt;
+
+import com.espertech.esper.core.context.util.AgentInstanceContext;
+import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.epl.expression.core.ExprValidationException;
+import com.espertech.esper.epl.spec.CreateIndexDesc;
+import com.espertech.esper.event.ObjectArrayBackedEventBean;
+
+/**
+ * Grouped table state that keeps rows off-heap in a {@link TableOffHeapRowMap}.
+ * <p>
+ * Rows returned by the state are materialized copies of the plain columns whose aggregations operate on the
+ * off-heap row in place. Updated plain columns are written back when the row is reported as updated.
+ * </p>
+ */
+public class TableStateInstanceGroupedOffHeap extends TableStateInstanceGroupedImpl {
+
+    public TableStateInstanceGroupedOffHeap(TableMetadata tableMetadata, AgentInstanceContext agentInstanceContext) {
+        super(tableMetadata, agentInstanceContext, new TableOffHeapRowMap(tableMetadata));
+    }
+
+    public TableOffHeapRowMap getRowMap() {
+        return (TableOffHeapRowMap) getRows();
+    }
+
+    public void handleRowUpdated(ObjectArrayBackedEventBean updatedEvent) {
+        if (updatedEvent instanceof TableOffHeapRowEventBean) {
+            getRowMap().writeBack((TableOffHeapRowEventBean) updatedEvent);
+        }
+        super.handleRowUpdated(updatedEvent);
+    }
+
+    public void addExplicitIndex(CreateIndexDesc spec, boolean isRecoveringResilient, boolean allowIndexExists) throws ExprValidationException {
+        throw new ExprValidationException("Explicit indexes are not supported for table '" + tableMetadata.getTableName() + "' as its rows are kept off-heap");
+    }
+
+    public ObjectArrayBackedEventBean getCreateRowIntoTable(Object groupByKey, ExprEvaluatorContext exprEvaluatorContext) {
+        ObjectArrayBackedEventBean bean = getRows().get(groupByKey);
+        if (bean != null) {
+            return bean;
+        }
+        ObjectArrayBackedEventBean row = tableMetadata.getRowFactory().makeOA(exprEvaluatorContext.getAgentInstanceId(), groupByKey, null, getAggregationServicePassThru());
+        addEvent(row);
+        return getRows().get(groupByKey);
+    }
+}
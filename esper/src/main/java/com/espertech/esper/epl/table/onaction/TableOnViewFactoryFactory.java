@@ -9,6 +9,7 @@
 package com.espertech.esper.epl.table.onaction;
 
 import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.core.service.InternalEventRouter;
 import com.espertech.esper.core.service.StatementContext;
 import com.espertech.esper.epl.table.merge.TableOnMergeHelper;
@@ -59,6 +60,9 @@ public class TableOnViewFactoryFactory
             return onUpdateViewFactory;
         }
         else if (onTriggerDesc.getOnTriggerType() == OnTriggerType.ON_MERGE) {
+            if (HintEnum.ENABLE_MERGE_BATCH.getHint(statementContext.getAnnotations()) != null) {
+                throw new ExprValidationException("The " + HintEnum.ENABLE_MERGE_BATCH + " hint is not supported with tables");
+            }
             OnTriggerMergeDesc onMergeTriggerDesc = (OnTriggerMergeDesc) onTriggerDesc;
             TableOnMergeHelper onMergeHelper = new TableOnMergeHelper(statementContext, onMergeTriggerDesc, filterEventType, filterStreamName, internalEventRouter, tableMetadata);
             return new TableOnMergeViewFactory(tableMetadata, onMergeHelper, statementContext.getStatementResultService(), metricsHandle, statementContext.getMetricReportingService());
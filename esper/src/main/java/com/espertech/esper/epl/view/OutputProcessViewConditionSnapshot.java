@@ -13,6 +13,7 @@ import com.espertech.esper.collection.MultiKey;
 import com.espertech.esper.collection.UniformPair;
 import com.espertech.esper.core.context.util.AgentInstanceContext;
 import com.espertech.esper.epl.core.ResultSetProcessor;
+import com.espertech.esper.epl.core.ResultSetProcessorChangedGroups;
 import com.espertech.esper.epl.core.ResultSetProcessorHelperFactory;
 import com.espertech.esper.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.util.ExecutionPathDebugLog;
@@ -154,7 +155,13 @@ public class OutputProcessViewConditionSnapshot extends OutputProcessViewBaseWAf
         EventBean[] newEvents = null;
         EventBean[] oldEvents = null;
 
-        Iterator<EventBean> it = this.iterator();
+        Iterator<EventBean> it;
+        if (resultSetProcessor instanceof ResultSetProcessorChangedGroups && ((ResultSetProcessorChangedGroups) resultSetProcessor).isTrackChangedGroups()) {
+            it = OutputStrategyUtil.getIteratorChangedGroups(joinExecutionStrategy, (ResultSetProcessorChangedGroups) resultSetProcessor, parentView, parent.isDistinct());
+        }
+        else {
+            it = this.iterator();
+        }
         if (it.hasNext())
         {
             ArrayList<EventBean> snapshot = new ArrayList<EventBean>();
@@ -74,6 +74,14 @@ public class OutputProcessViewFactoryFactory
         boolean isDistinct = statementSpec.getSelectClauseSpec().isDistinct();
         boolean isGrouped = statementSpec.getGroupByExpressions() != null && statementSpec.getGroupByExpressions().getGroupByNodes().length > 0;
 
+        // changed-groups snapshot requires output snapshot and grouped aggregation
+        if (HintEnum.SNAPSHOT_CHANGED_GROUPS.getHint(statementSpec.getAnnotations()) != null) {
+            boolean isSnapshot = outputLimitSpec != null && outputLimitSpec.getRateType() != OutputLimitRateType.AFTER && outputLimitSpec.getDisplayLimit() == OutputLimitLimitType.SNAPSHOT;
+            if (!isSnapshot || (resultSetProcessorType != ResultSetProcessorType.FULLYAGGREGATED_GROUPED && resultSetProcessorType != ResultSetProcessorType.AGGREGATED_GROUPED)) {
+                throw new ExprValidationException("The " + HintEnum.SNAPSHOT_CHANGED_GROUPS + " hint requires output snapshot and grouped aggregation without rollup");
+            }
+        }
+
         OutputProcessViewFactory outputProcessViewFactory;
         if (outputLimitSpec == null)
         {
@@ -17,6 +17,7 @@ import com.espertech.esper.core.service.StatementContext;
 import com.espertech.esper.core.service.StatementResultListener;
 import com.espertech.esper.core.service.UpdateDispatchView;
 import com.espertech.esper.epl.core.ResultSetProcessor;
+import com.espertech.esper.epl.core.ResultSetProcessorChangedGroups;
 import com.espertech.esper.epl.join.base.JoinExecutionStrategy;
 import com.espertech.esper.view.Viewable;
 
@@ -83,4 +84,20 @@ public class OutputStrategyUtil
         }
         return new EventDistinctIterator(iterator, eventType);
     }
+
+    public static Iterator<EventBean> getIteratorChangedGroups(JoinExecutionStrategy joinExecutionStrategy, ResultSetProcessorChangedGroups resultSetProcessor, Viewable parentView, boolean distinct) {
+        Iterator<EventBean> iterator;
+        if (joinExecutionStrategy != null) {
+            Set<MultiKey<EventBean>> joinSet = joinExecutionStrategy.staticJoin();
+            iterator = resultSetProcessor.getIteratorChangedGroups(joinSet);
+        }
+        else {
+            iterator = resultSetProcessor.getIteratorChangedGroups(parentView);
+        }
+
+        if (!distinct) {
+            return iterator;
+        }
+        return new EventDistinctIterator(iterator, ((ResultSetProcessor) resultSetProcessor).getResultEventType());
+    }
 }
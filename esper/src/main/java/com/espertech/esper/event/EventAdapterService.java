@@ -20,6 +20,7 @@ import org.w3c.dom.Node;
 
 import java.io.Serializable;
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -362,6 +363,18 @@ public interface EventAdapterService
 
     public void setDefaultAccessorStyle(ConfigurationEventTypeLegacy.AccessorStyle defaultAccessorStyle);
 
+    /**
+     * Sets the backend for invoking getter methods of Java object event properties.
+     * @param invocationBackend backend
+     */
+    public void setInvocationBackend(ConfigurationEngineDefaults.InvocationBackend invocationBackend);
+
+    /**
+     * Returns the backend for invoking getter methods of Java object event properties.
+     * @return backend
+     */
+    public ConfigurationEngineDefaults.InvocationBackend getInvocationBackend();
+
     public EventType replaceXMLEventType(String xmlEventTypeName, ConfigurationEventTypeXMLDOM config, SchemaModel schemaModel);
 
     public Map<String, EventType> getDeclaredEventTypes();
@@ -369,6 +382,17 @@ public interface EventAdapterService
     public EventBean adapterForTypedObjectArray(Object[] props, EventType resultEventType);
     public EventType createAnonymousObjectArrayType(String typeName, Map<String, Object> propertyTypes);
     public EventType addNestableObjectArrayType(String eventTypeName, Map<String, Object> propertyTypes, ConfigurationEventTypeObjectArray typeConfig, boolean isPreconfiguredStatic, boolean isPreconfigured, boolean isConfigured, boolean namedWindow, boolean insertInto, boolean table, String tableName) throws EventAdapterException;
+
+    /**
+     * Add an event type for binary events, the underlying being a byte buffer holding a record of primitive values.
+     * @param eventTypeName is the name for the event type
+     * @param propertyTypes is the primitive type per property, in the order of the record layout
+     * @param startTimestampPropertyName start timestamp property name or null
+     * @param endTimestampPropertyName end timestamp property name or null
+     * @return event type is the type added
+     * @throws EventAdapterException if name already exists and doesn't match layout info
+     */
+    public EventType addBinaryType(String eventTypeName, LinkedHashMap<String, Class> propertyTypes, String startTimestampPropertyName, String endTimestampPropertyName) throws EventAdapterException;
     public void updateObjectArrayEventType(String objectArrayEventTypeName, Map<String, Object> typeMap);
     public EventBeanSPI getShellForType(EventType eventType);
     public EventBeanAdapterFactory getAdapterFactoryForType(EventType eventType);
@@ -16,6 +16,8 @@ import com.espertech.esper.event.bean.BeanEventBean;
 import com.espertech.esper.event.bean.BeanEventType;
 import com.espertech.esper.event.bean.EventBeanManufacturerBean;
 import com.espertech.esper.event.bean.PropertyHelper;
+import com.espertech.esper.event.binary.BinaryEventBean;
+import com.espertech.esper.event.binary.BinaryEventType;
 import com.espertech.esper.event.map.MapEventBean;
 import com.espertech.esper.event.map.MapEventType;
 import com.espertech.esper.event.xml.BaseXMLEventType;
@@ -23,6 +25,7 @@ import com.espertech.esper.event.xml.XMLEventBean;
 import com.espertech.esper.util.JavaClassHelper;
 import org.w3c.dom.Node;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -150,6 +153,10 @@ public class EventAdapterServiceHelper
         {
             return eventAdapterService.adapterForTypedDOM((Node) theEvent, eventType);
         }
+        else if (eventType instanceof BinaryEventType)
+        {
+            return new BinaryEventBean((ByteBuffer) theEvent, eventType);
+        }
         else
         {
             return null;
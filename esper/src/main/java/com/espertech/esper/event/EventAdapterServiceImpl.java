@@ -16,6 +16,7 @@ import com.espertech.esper.epl.core.EngineImportService;
 import com.espertech.esper.event.arr.ObjectArrayEventBean;
 import com.espertech.esper.event.arr.ObjectArrayEventType;
 import com.espertech.esper.event.bean.BeanEventAdapter;
+import com.espertech.esper.event.binary.BinaryEventType;
 import com.espertech.esper.event.bean.BeanEventBean;
 import com.espertech.esper.event.bean.BeanEventType;
 import com.espertech.esper.event.bean.BeanEventTypeFactory;
@@ -62,6 +63,7 @@ public class EventAdapterServiceImpl implements EventAdapterService
     private final Map<URI, PlugInEventRepresentation> plugInRepresentations;
     private final EventTypeIdGenerator eventTypeIdGenerator;
     private final EventAdapterServiceAnonymousTypeCache anonymousTypeCache;
+    private ConfigurationEngineDefaults.InvocationBackend invocationBackend = ConfigurationEngineDefaults.InvocationBackend.CGLIB;
 
     public EventAdapterServiceImpl(EventTypeIdGenerator eventTypeIdGenerator,
                                    int anonymousTypeCacheSize)
@@ -224,6 +226,10 @@ public class EventAdapterServiceImpl implements EventAdapterService
         {
             return new EventSenderXMLDOM(runtimeEventSender, (BaseXMLEventType) eventType, this, threadingService);
         }
+        if (eventType instanceof BinaryEventType)
+        {
+            return new EventSenderBinary(runtimeEventSender, (BinaryEventType) eventType, threadingService);
+        }
 
         PlugInEventTypeHandler handlers = nameToHandlerMap.get(eventTypeName);
         if (handlers != null)
@@ -325,6 +331,16 @@ public class EventAdapterServiceImpl implements EventAdapterService
         beanEventAdapter.setDefaultAccessorStyle(defaultAccessorStyle);
     }
 
+    public void setInvocationBackend(ConfigurationEngineDefaults.InvocationBackend invocationBackend)
+    {
+        this.invocationBackend = invocationBackend;
+    }
+
+    public ConfigurationEngineDefaults.InvocationBackend getInvocationBackend()
+    {
+        return invocationBackend;
+    }
+
     public EventType getExistsTypeByName(String eventTypeName)
     {
         if (eventTypeName == null)
@@ -557,6 +573,38 @@ public class EventAdapterServiceImpl implements EventAdapterService
         return newEventType;
     }
 
+    public synchronized EventType addBinaryType(String eventTypeName, LinkedHashMap<String, Class> propertyTypes, String startTimestampPropertyName, String endTimestampPropertyName) throws EventAdapterException
+    {
+        EventTypeMetadata metadata = EventTypeMetadata.createNonPojoApplicationType(EventTypeMetadata.ApplicationType.BINARY, eventTypeName, false, false, true, false, false);
+        int typeId = eventTypeIdGenerator.getTypeId(eventTypeName);
+        BinaryEventType newEventType;
+        try {
+            newEventType = new BinaryEventType(metadata, eventTypeName, typeId, propertyTypes, startTimestampPropertyName, endTimestampPropertyName);
+        }
+        catch (EPException ex) {
+            throw new EventAdapterException(ex.getMessage(), ex);
+        }
+
+        EventType existingType = nameToTypeMap.get(eventTypeName);
+        if (existingType != null)
+        {
+            // The existing type must be the same as the type createdStatement
+            if (!newEventType.equalsCompareType(existingType))
+            {
+                String message = newEventType.getEqualsMessage(existingType);
+                throw new EventAdapterException("Event type named '" + eventTypeName +
+                        "' has already been declared with differing column name or type information: " + message);
+            }
+
+            // Since it's the same, return the existing type
+            return existingType;
+        }
+
+        nameToTypeMap.put(eventTypeName, newEventType);
+
+        return newEventType;
+    }
+
     public EventBean adapterForMap(Map<String, Object> theEvent, String eventTypeName) throws EPException
     {
         EventType existingType = nameToTypeMap.get(eventTypeName);
@@ -0,0 +1,80 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventSender;
+import com.espertech.esper.core.service.EPRuntimeEventSender;
+import com.espertech.esper.core.thread.InboundUnitSendWrapped;
+import com.espertech.esper.core.thread.ThreadingOption;
+import com.espertech.esper.core.thread.ThreadingService;
+import com.espertech.esper.event.binary.BinaryEventBean;
+import com.espertech.esper.event.binary.BinaryEventType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Event sender for binary events.
+ * <p>
+ * Allows sending only byte buffers that hold at least one record after the buffer position, does not copy or decode the record.
+ * Any other event object generates an error.
+ */
+public class EventSenderBinary implements EventSender
+{
+    private final EPRuntimeEventSender runtimeEventSender;
+    private final BinaryEventType binaryEventType;
+    private final ThreadingService threadingService;
+
+    /**
+     * Ctor.
+     * @param runtimeEventSender for processing events
+     * @param binaryEventType the event type
+     * @param threadingService for inbound threading
+     */
+    public EventSenderBinary(EPRuntimeEventSender runtimeEventSender, BinaryEventType binaryEventType, ThreadingService threadingService)
+    {
+        this.runtimeEventSender = runtimeEventSender;
+        this.binaryEventType = binaryEventType;
+        this.threadingService = threadingService;
+    }
+
+    public void sendEvent(Object theEvent)
+    {
+        EventBean binaryEvent = getEvent(theEvent);
+
+        if ((ThreadingOption.isThreadingEnabled) && (threadingService.isInboundThreading()))
+        {
+            threadingService.submitInbound(new InboundUnitSendWrapped(binaryEvent, runtimeEventSender));
+        }
+        else
+        {
+            runtimeEventSender.processWrappedEvent(binaryEvent);
+        }
+    }
+
+    public void route(Object theEvent)
+    {
+        runtimeEventSender.routeEventBean(getEvent(theEvent));
+    }
+
+    private EventBean getEvent(Object theEvent)
+    {
+        if (!(theEvent instanceof ByteBuffer))
+        {
+            throw new EPException("Unexpected event object of type " + theEvent.getClass().getName() + ", expected " + ByteBuffer.class.getName());
+        }
+        ByteBuffer buffer = (ByteBuffer) theEvent;
+        if (buffer.remaining() < binaryEventType.getRecordSize())
+        {
+            throw new EPException("Buffer has " + buffer.remaining() + " remaining bytes but event type '" + binaryEventType.getName() + "' requires " + binaryEventType.getRecordSize() + " bytes");
+        }
+        return new BinaryEventBean(buffer, binaryEventType);
+    }
+}
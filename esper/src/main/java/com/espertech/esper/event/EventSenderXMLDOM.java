@@ -16,6 +16,8 @@ import com.espertech.esper.core.thread.InboundUnitSendWrapped;
 import com.espertech.esper.core.thread.ThreadingOption;
 import com.espertech.esper.core.thread.ThreadingService;
 import com.espertech.esper.event.xml.BaseXMLEventType;
+import com.espertech.esper.event.xml.XMLStreamEventBean;
+import com.espertech.esper.event.xml.XMLStreamExtractionPlan;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -25,6 +27,9 @@ import org.w3c.dom.Node;
  * <p>
  * Allows sending only event objects of type Node or Document, does check the root name of the XML document
  * which must match the event type root name as configured. Any other event object generates an error.
+ * <p>
+ * XML documents may also be sent as a String or byte array, in which case the simple XPath properties of the type
+ * are extracted in a single streaming pass and the DOM is only built if required.
  */
 public class EventSenderXMLDOM implements EventSender
 {
@@ -62,6 +67,14 @@ public class EventSenderXMLDOM implements EventSender
 
     private void sendEvent(Object node, boolean isRoute) throws EPException
     {
+        if (node instanceof String || node instanceof byte[])
+        {
+            XMLStreamExtractionPlan plan = baseXMLEventType.getStreamExtractionPlan();
+            Object[] values = plan.extract(node, validateRootElement ? baseXMLEventType.getRootElementName() : null);
+            processEvent(new XMLStreamEventBean(node, plan, values, baseXMLEventType), isRoute);
+            return;
+        }
+
         Node namedNode;
         if (node instanceof Document)
         {
@@ -91,6 +104,11 @@ public class EventSenderXMLDOM implements EventSender
         }
 
         EventBean theEvent = eventAdapterService.adapterForTypedDOM(namedNode, baseXMLEventType);
+        processEvent(theEvent, isRoute);
+    }
+
+    private void processEvent(EventBean theEvent, boolean isRoute)
+    {
         if (isRoute)
         {
             runtimeEventSender.routeEventBean(theEvent);
@@ -1050,6 +1050,47 @@ public class EventTypeUtility {
         return propertyTypesMap;
     }
 
+    private static EventType createBinaryType(boolean isAnonymous, CreateSchemaDesc spec, EventAdapterService eventAdapterService, EngineImportService engineImportService)
+            throws ExprValidationException
+    {
+        if (isAnonymous) {
+            throw new ExprValidationException("Binary event types are not allowed in this context");
+        }
+        if (!spec.getTypes().isEmpty()) {
+            throw new ExprValidationException("Binary event types do not allow class-provided types");
+        }
+        if (spec.getInherits() != null && !spec.getInherits().isEmpty()) {
+            throw new ExprValidationException("Binary event types do not allow inherits");
+        }
+
+        Map<String, Object> typing = EventTypeUtility.buildType(spec.getColumns(), eventAdapterService, spec.getCopyFrom(), engineImportService);
+        LinkedHashMap<String, Class> layout = new LinkedHashMap<String, Class>();
+        for (Map.Entry<String, Object> entry : typing.entrySet()) {
+            Class primitive = entry.getValue() instanceof Class ? JavaClassHelper.getPrimitiveType((Class) entry.getValue()) : null;
+            if (primitive == null || !primitive.isPrimitive()) {
+                throw new ExprValidationException("Binary event types only allow primitive property types, property '" + entry.getKey() + "' has type '" + getTypeText(entry.getValue()) + "'");
+            }
+            layout.put(entry.getKey(), primitive);
+        }
+
+        try {
+            return eventAdapterService.addBinaryType(spec.getSchemaName(), layout, spec.getStartTimestampProperty(), spec.getEndTimestampProperty());
+        }
+        catch (EventAdapterException ex) {
+            throw new ExprValidationException(ex.getMessage(), ex);
+        }
+        catch (ConfigurationException ex) {
+            throw new ExprValidationException(ex.getMessage(), ex);
+        }
+    }
+
+    private static String getTypeText(Object type) {
+        if (type instanceof Class) {
+            return JavaClassHelper.getClassNameFullyQualPretty((Class) type);
+        }
+        return type == null ? "null" : type.toString();
+    }
+
     public static EventType createNonVariantType(boolean isAnonymous, CreateSchemaDesc spec, Annotation[] annotations, ConfigurationInformation configSnapshot, EventAdapterService eventAdapterService, EngineImportService engineImportService)
             throws ExprValidationException
     {
@@ -1057,6 +1098,10 @@ public class EventTypeUtility {
             throw new IllegalStateException("Variant type is not allowed in this context");
         }
 
+        if (spec.getAssignedType() == CreateSchemaDesc.AssignedType.BINARY) {
+            return createBinaryType(isAnonymous, spec, eventAdapterService, engineImportService);
+        }
+
         EventType eventType;
         if (spec.getTypes().isEmpty()) {
             boolean useMap = EventRepresentationUtil.isMap(annotations, configSnapshot, spec.getAssignedType());
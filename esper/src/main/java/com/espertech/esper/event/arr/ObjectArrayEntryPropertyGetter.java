@@ -45,6 +45,9 @@ public class ObjectArrayEntryPropertyGetter implements ObjectArrayEventPropertyG
 
     public Object get(EventBean obj)
     {
+        if (obj instanceof ObjectArrayOverlayEventBean) {
+            return ((ObjectArrayOverlayEventBean) obj).getValue(propertyIndex);
+        }
         Object[] arr = BaseNestableEventUtil.checkedCastUnderlyingObjectArray(obj);
         return getObjectArray(arr);
     }
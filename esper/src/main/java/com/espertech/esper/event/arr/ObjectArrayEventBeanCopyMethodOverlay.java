@@ -0,0 +1,42 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.arr;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.event.EventBeanCopyMethod;
+import com.espertech.esper.event.ObjectArrayBackedEventBean;
+
+/**
+ * Copy method for Object array-underlying events that shares the property array of the copied event
+ * and keeps only the properties written to the copy, see {@link ObjectArrayOverlayEventBean}.
+ */
+public class ObjectArrayEventBeanCopyMethodOverlay implements EventBeanCopyMethod
+{
+    private final ObjectArrayEventType objectArrayEventType;
+
+    /**
+     * Ctor.
+     * @param objectArrayEventType object array event type
+     */
+    public ObjectArrayEventBeanCopyMethodOverlay(ObjectArrayEventType objectArrayEventType)
+    {
+        this.objectArrayEventType = objectArrayEventType;
+    }
+
+    public EventBean copy(EventBean theEvent)
+    {
+        if (theEvent instanceof ObjectArrayOverlayEventBean) {
+            return ((ObjectArrayOverlayEventBean) theEvent).copy(objectArrayEventType);
+        }
+        return new ObjectArrayOverlayEventBean(((ObjectArrayBackedEventBean) theEvent).getProperties(), objectArrayEventType);
+    }
+}
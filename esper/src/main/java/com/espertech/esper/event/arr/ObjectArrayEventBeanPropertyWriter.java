@@ -25,6 +25,10 @@ public class ObjectArrayEventBeanPropertyWriter implements EventPropertyWriter {
 
     public void write(Object value, EventBean target)
     {
+        if (target instanceof ObjectArrayOverlayEventBean) {
+            ((ObjectArrayOverlayEventBean) target).setValue(index, value);
+            return;
+        }
         ObjectArrayBackedEventBean arrayEvent = (ObjectArrayBackedEventBean) target;
         write(value, arrayEvent.getProperties());
     }
@@ -11,6 +11,9 @@
 
 package com.espertech.esper.event.arr;
 
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.event.ObjectArrayBackedEventBean;
+
 import java.lang.reflect.Array;
 
 public class ObjectArrayEventBeanPropertyWriterIndexedProp extends ObjectArrayEventBeanPropertyWriter {
@@ -22,6 +25,11 @@ public class ObjectArrayEventBeanPropertyWriterIndexedProp extends ObjectArrayEv
         this.indexTarget = indexTarget;
     }
 
+    @Override
+    public void write(Object value, EventBean target) {
+        write(value, ((ObjectArrayBackedEventBean) target).getProperties());
+    }
+
     @Override
     public void write(Object value, Object[] array) {
         Object arrayEntry = array[index];
@@ -11,6 +11,9 @@
 
 package com.espertech.esper.event.arr;
 
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.event.ObjectArrayBackedEventBean;
+
 import java.util.Map;
 
 public class ObjectArrayEventBeanPropertyWriterMapProp extends ObjectArrayEventBeanPropertyWriter {
@@ -22,6 +25,11 @@ public class ObjectArrayEventBeanPropertyWriterMapProp extends ObjectArrayEventB
         this.key = key;
     }
 
+    @Override
+    public void write(Object value, EventBean target) {
+        write(value, ((ObjectArrayBackedEventBean) target).getProperties());
+    }
+
     @Override
     public void write(Object value, Object[] array) {
         Map mapEntry = (Map) array[index];
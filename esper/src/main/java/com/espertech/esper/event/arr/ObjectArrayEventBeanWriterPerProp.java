@@ -13,7 +13,6 @@ package com.espertech.esper.event.arr;
 
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.event.EventBeanWriter;
-import com.espertech.esper.event.ObjectArrayBackedEventBean;
 
 /**
  * Writer method for writing to Object-array-type events.
@@ -38,12 +37,9 @@ public class ObjectArrayEventBeanWriterPerProp implements EventBeanWriter
      */
     public void write(Object[] values, EventBean theEvent)
     {
-        ObjectArrayBackedEventBean arrayEvent = (ObjectArrayBackedEventBean) theEvent;
-        Object[] arr = arrayEvent.getProperties();
-
         for (int i = 0; i < writers.length; i++)
         {
-            writers[i].write(values[i], arr);
+            writers[i].write(values[i], theEvent);
         }
     }
 }
@@ -38,6 +38,14 @@ public class ObjectArrayEventBeanWriterSimpleProps implements EventBeanWriter
      */
     public void write(Object[] values, EventBean theEvent)
     {
+        if (theEvent instanceof ObjectArrayOverlayEventBean) {
+            ObjectArrayOverlayEventBean overlay = (ObjectArrayOverlayEventBean) theEvent;
+            for (int i = 0; i < indexes.length; i++)
+            {
+                overlay.setValue(indexes[i], values[i]);
+            }
+            return;
+        }
         ObjectArrayBackedEventBean arrayEvent = (ObjectArrayBackedEventBean) theEvent;
         Object[] array = arrayEvent.getProperties();
 
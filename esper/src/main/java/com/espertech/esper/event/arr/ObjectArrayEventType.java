@@ -27,6 +27,8 @@ import java.util.*;
 
 public class ObjectArrayEventType extends BaseNestableEventType {
 
+    private static final int OVERLAY_COPY_MIN_PROPERTIES = 16;
+
     protected Map<String, Pair<EventPropertyDescriptor, ObjectArrayEventBeanPropertyWriter>> propertyWriters;
     protected EventPropertyDescriptor[] writablePropertyDescriptors;
 
@@ -59,6 +61,11 @@ public class ObjectArrayEventType extends BaseNestableEventType {
         BaseNestableEventUtil.MapIndexedPropPair pair = BaseNestableEventUtil.getIndexedAndMappedProps(properties);
 
         if (pair.getMapProperties().isEmpty() && pair.getArrayProperties().isEmpty()) {
+            // wide events copy only the written properties, table rows are updated in-place and are not shared
+            boolean table = getMetadata() != null && getMetadata().getTypeClass() == EventTypeMetadata.TypeClass.TABLE;
+            if (getPropertiesIndexes().size() >= OVERLAY_COPY_MIN_PROPERTIES && !table) {
+                return new ObjectArrayEventBeanCopyMethodOverlay(this);
+            }
             return new ObjectArrayEventBeanCopyMethod(this, eventAdapterService);
         }
         else {
@@ -0,0 +1,182 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.arr;
+
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventBeanSPI;
+import com.espertech.esper.event.ObjectArrayBackedEventBean;
+
+/**
+ * Object-array event that is a copy of another object-array event with some properties changed.
+ * <p>
+ * Holds the property array of the event it was copied from, which it does not modify, and only the changed property values.
+ * Getters resolve a property value from the changed values first and from the base array second.
+ * The event compacts into a full property array when the number of changed values exceeds a threshold
+ * and when the full property array is requested, such as for the underlying event.
+ * </p>
+ */
+public class ObjectArrayOverlayEventBean implements EventBeanSPI, ObjectArrayBackedEventBean {
+
+    private static final int MAX_OVERLAY = 32;
+
+    private EventType eventType;
+    private Object[] base;
+    private int[] overlayIndexes;
+    private Object[] overlayValues;
+    private int overlaySize;
+    private volatile Object[] compacted;
+
+    /**
+     * Ctor.
+     * @param base property values of the event copied from, not modified
+     * @param eventType event type
+     */
+    public ObjectArrayOverlayEventBean(Object[] base, EventType eventType) {
+        this.base = base;
+        this.eventType = eventType;
+        this.overlayIndexes = new int[2];
+        this.overlayValues = new Object[2];
+    }
+
+    /**
+     * Returns a copy of this event, sharing the base property array and copying the changed values.
+     * @param eventType event type of the copy
+     * @return copy
+     */
+    public ObjectArrayOverlayEventBean copy(EventType eventType) {
+        Object[] full = compacted;
+        if (full != null) {
+            return new ObjectArrayOverlayEventBean(full, eventType);
+        }
+        ObjectArrayOverlayEventBean copy = new ObjectArrayOverlayEventBean(base, eventType);
+        copy.overlayIndexes = new int[Math.max(2, overlaySize + 1)];
+        copy.overlayValues = new Object[copy.overlayIndexes.length];
+        System.arraycopy(overlayIndexes, 0, copy.overlayIndexes, 0, overlaySize);
+        System.arraycopy(overlayValues, 0, copy.overlayValues, 0, overlaySize);
+        copy.overlaySize = overlaySize;
+        return copy;
+    }
+
+    /**
+     * Returns the property value at the index.
+     * @param index property index
+     * @return value
+     */
+    public Object getValue(int index) {
+        Object[] full = compacted;
+        if (full != null) {
+            return full[index];
+        }
+        for (int i = 0; i < overlaySize; i++) {
+            if (overlayIndexes[i] == index) {
+                return overlayValues[i];
+            }
+        }
+        return base[index];
+    }
+
+    /**
+     * Sets the property value at the index.
+     * @param index property index
+     * @param value value
+     */
+    public void setValue(int index, Object value) {
+        Object[] full = compacted;
+        if (full != null) {
+            full[index] = value;
+            return;
+        }
+        for (int i = 0; i < overlaySize; i++) {
+            if (overlayIndexes[i] == index) {
+                overlayValues[i] = value;
+                return;
+            }
+        }
+        if (overlaySize >= Math.min(MAX_OVERLAY, base.length / 4)) {
+            compact()[index] = value;
+            return;
+        }
+        if (overlaySize == overlayIndexes.length) {
+            int[] indexes = new int[overlaySize * 2];
+            Object[] values = new Object[overlaySize * 2];
+            System.arraycopy(overlayIndexes, 0, indexes, 0, overlaySize);
+            System.arraycopy(overlayValues, 0, values, 0, overlaySize);
+            overlayIndexes = indexes;
+            overlayValues = values;
+        }
+        overlayIndexes[overlaySize] = index;
+        overlayValues[overlaySize] = value;
+        overlaySize++;
+    }
+
+    /**
+     * Returns the number of changed values held, or -1 if compacted.
+     * @return number of changed values
+     */
+    public int getOverlaySize() {
+        return compacted != null ? -1 : overlaySize;
+    }
+
+    public Object[] getProperties() {
+        return compact();
+    }
+
+    public void setPropertyValues(Object[] objects) {
+        this.compacted = objects;
+    }
+
+    public void setUnderlying(Object underlying) {
+        this.compacted = (Object[]) underlying;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    public Object getUnderlying() {
+        return compact();
+    }
+
+    public Object get(String property) throws PropertyAccessException {
+        EventPropertyGetter getter = eventType.getGetter(property);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + property + "' is not a valid property name for this type");
+        }
+        return getter.get(this);
+    }
+
+    public Object getFragment(String propertyExpression) throws PropertyAccessException {
+        EventPropertyGetter getter = eventType.getGetter(propertyExpression);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + propertyExpression + "' is not a valid property name for this type");
+        }
+        return getter.getFragment(this);
+    }
+
+    private Object[] compact() {
+        Object[] full = compacted;
+        if (full != null) {
+            return full;
+        }
+        full = new Object[base.length];
+        System.arraycopy(base, 0, full, 0, base.length);
+        for (int i = 0; i < overlaySize; i++) {
+            full[overlayIndexes[i]] = overlayValues[i];
+        }
+        compacted = full;
+        return full;
+    }
+}
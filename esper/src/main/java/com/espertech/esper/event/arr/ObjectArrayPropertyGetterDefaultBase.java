@@ -53,6 +53,9 @@ public abstract class ObjectArrayPropertyGetterDefaultBase implements ObjectArra
 
     public Object get(EventBean obj) throws PropertyAccessException
     {
+        if (obj instanceof ObjectArrayOverlayEventBean) {
+            return ((ObjectArrayOverlayEventBean) obj).getValue(propertyIndex);
+        }
         Object[] array = BaseNestableEventUtil.checkedCastUnderlyingObjectArray(obj);
         return getObjectArray(array);
     }
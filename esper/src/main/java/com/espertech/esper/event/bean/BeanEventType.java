@@ -350,8 +350,10 @@ public class BeanEventType implements EventTypeSPI, NativeEventType
             indexedSmartPropertyTable = new HashMap<String, List<SimplePropertyInfo>>();
         }
 
-        if ((optionalLegacyDef == null) ||
-            (optionalLegacyDef.getCodeGeneration() != ConfigurationEventTypeLegacy.CodeGeneration.DISABLED))
+        boolean isCodeGeneration = (optionalLegacyDef == null) ||
+            (optionalLegacyDef.getCodeGeneration() != ConfigurationEventTypeLegacy.CodeGeneration.DISABLED);
+        boolean isMethodHandle = isCodeGeneration && eventAdapterService != null && eventAdapterService.getInvocationBackend() == ConfigurationEngineDefaults.InvocationBackend.METHODHANDLE;
+        if (isCodeGeneration)
         {
             // get CGLib fast class using current thread class loader
             fastClass = null;
@@ -390,7 +392,12 @@ public class BeanEventType implements EventTypeSPI, NativeEventType
                 Class type;
                 if (desc.getReadMethod() != null)
                 {
-                    getter = PropertyHelper.getGetter(desc.getReadMethod(), fastClass, eventAdapterService);
+                    if (isMethodHandle) {
+                        getter = PropertyHelper.getGetterMethodHandle(desc.getReadMethod(), eventAdapterService);
+                    }
+                    else {
+                        getter = PropertyHelper.getGetter(desc.getReadMethod(), fastClass, eventAdapterService);
+                    }
                     type = desc.getReadMethod().getReturnType();
                 }
                 else
@@ -0,0 +1,147 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.bean;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventAdapterService;
+import com.espertech.esper.event.vaevent.PropertyUtility;
+import com.espertech.esper.util.JavaClassHelper;
+import com.espertech.esper.util.MethodHandleInvoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * Property getter using a function generated by the lambda metafactory for the getter method.
+ */
+public class LambdaPropertyGetter extends BaseNativePropertyGetter implements BeanEventPropertyGetter
+{
+    private final Method method;
+    private final Function<Object, Object> function;
+
+    /**
+     * Constructor.
+     * @param method the underlying method
+     * @param function is the function to use to retrieve a value from the object.
+     * @param eventAdapterService factory for event beans and event types
+     */
+    public LambdaPropertyGetter(Method method, Function<Object, Object> function, EventAdapterService eventAdapterService)
+    {
+        super(eventAdapterService, method.getReturnType(), JavaClassHelper.getGenericReturnType(method, true));
+        this.method = method;
+        this.function = function;
+    }
+
+    /**
+     * Returns a function that invokes the getter method, or null if the method cannot be invoked through a method handle.
+     * <p>
+     * The lambda metafactory links the function against the declaring class, therefore the declaring class must be public
+     * and visible to the engine's class loader. Otherwise the function invokes a method handle.
+     * </p>
+     * @param method getter method
+     * @return function or null
+     */
+    public static Function<Object, Object> makeFunction(Method method)
+    {
+        final MethodHandle handle = MethodHandleInvoker.unreflect(method);
+        if (handle == null) {
+            return null;
+        }
+        if (MethodHandleInvoker.isLinkable(method)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "apply",
+                        MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                        handle, handle.type().wrap());
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            }
+            catch (Throwable t) {
+                // fall back to the method handle
+            }
+        }
+        final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return new Function<Object, Object>() {
+            public Object apply(Object object) {
+                try {
+                    return (Object) generic.invokeExact(object);
+                }
+                catch (RuntimeException ex) {
+                    throw ex;
+                }
+                catch (Error ex) {
+                    throw ex;
+                }
+                catch (Throwable t) {
+                    throw new UndeclaredMethodException(t);
+                }
+            }
+        };
+    }
+
+    public Object getBeanProp(Object object) throws PropertyAccessException
+    {
+        try
+        {
+            return function.apply(object);
+        }
+        catch (ClassCastException e)
+        {
+            if (!method.getDeclaringClass().isInstance(object)) {
+                throw PropertyUtility.getMismatchException(method, object, e);
+            }
+            throw PropertyUtility.getInvocationTargetException(method, new InvocationTargetException(e));
+        }
+        catch (UndeclaredMethodException e)
+        {
+            throw PropertyUtility.getInvocationTargetException(method, new InvocationTargetException(e.getCause()));
+        }
+        catch (RuntimeException e)
+        {
+            throw PropertyUtility.getInvocationTargetException(method, new InvocationTargetException(e));
+        }
+    }
+
+    public boolean isBeanExistsProperty(Object object)
+    {
+        return true; // Property exists as the property is not dynamic (unchecked)
+    }
+
+    public final Object get(EventBean obj) throws PropertyAccessException
+    {
+        Object underlying = obj.getUnderlying();
+        return getBeanProp(underlying);
+    }
+
+    public String toString()
+    {
+        return "LambdaPropertyGetter " +
+                "method=" + method.toGenericString();
+    }
+
+    public boolean isExistsProperty(EventBean eventBean)
+    {
+        return true; // Property exists as the property is not dynamic (unchecked)
+    }
+
+    private static class UndeclaredMethodException extends RuntimeException
+    {
+        private static final long serialVersionUID = -1467032419577323591L;
+
+        private UndeclaredMethodException(Throwable cause)
+        {
+            super(cause);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.beans.*;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * This class offers utililty methods around introspection and CGLIB interaction.
@@ -64,6 +65,32 @@ public class PropertyHelper
         return getter;
     }
 
+    /**
+     * Return getter for the given method using a method handle or lambda metafactory function, falling back
+     * to reflection if the method cannot be unreflected.
+     * @param method to return getter for
+     * @param eventAdapterService factory for event beans and event types
+     * @return property getter
+     */
+    public static EventPropertyGetter getGetterMethodHandle(Method method, EventAdapterService eventAdapterService)
+    {
+        Function<Object, Object> function = null;
+        try
+        {
+            function = LambdaPropertyGetter.makeFunction(method);
+        }
+        catch (Throwable ex)
+        {
+            log.warn(".getAccessors Unable to obtain method handle implementation, msg=" + ex.getMessage());
+        }
+
+        if (function != null)
+        {
+            return new LambdaPropertyGetter(method, function, eventAdapterService);
+        }
+        return new ReflectionPropMethodGetter(method, eventAdapterService);
+    }
+
     /**
      * Introspects the given class and returns event property descriptors for each property found
      * in the class itself, it's superclasses and all interfaces this class and the superclasses implements.
@@ -0,0 +1,88 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+package com.espertech.esper.event.binary;
+
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.PropertyAccessException;
+import com.espertech.esper.event.EventBeanSPI;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Event bean for binary events, the underlying is the buffer holding the record.
+ * <p>
+ * The record starts at the buffer position at the time of construction, property values are read in place.
+ */
+public class BinaryEventBean implements EventBeanSPI {
+
+    private ByteBuffer buffer;
+    private int offset;
+    private EventType eventType;
+
+    /**
+     * Ctor.
+     * @param buffer buffer holding the record at its current position
+     * @param eventType event type
+     */
+    public BinaryEventBean(ByteBuffer buffer, EventType eventType) {
+        this.buffer = buffer;
+        this.offset = buffer.position();
+        this.eventType = eventType;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Returns the buffer.
+     * @return buffer
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the index of the first byte of the record within the buffer.
+     * @return offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setUnderlying(Object underlying) {
+        this.buffer = (ByteBuffer) underlying;
+        this.offset = buffer.position();
+    }
+
+    public Object get(String property) throws PropertyAccessException {
+        EventPropertyGetter getter = eventType.getGetter(property);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + property + "' is not a valid property name for this type");
+        }
+        return getter.get(this);
+    }
+
+    public Object getUnderlying() {
+        return buffer;
+    }
+
+    public Object getFragment(String propertyExpression) throws PropertyAccessException {
+        EventPropertyGetter getter = eventType.getGetter(propertyExpression);
+        if (getter == null)
+        {
+            throw new PropertyAccessException("Property named '" + propertyExpression + "' is not a valid property name for this type");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+package com.espertech.esper.event.binary;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventPropertyGetter;
+import com.espertech.esper.client.PropertyAccessException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Getter for a property of a binary event, reading the value in place at a fixed offset from the start of the record.
+ */
+public abstract class BinaryEventPropertyGetter implements EventPropertyGetter {
+
+    private final int offset;
+
+    /**
+     * Ctor.
+     * @param offset offset of the value within the record
+     */
+    protected BinaryEventPropertyGetter(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Read the value.
+     * @param buffer buffer to read
+     * @param index absolute index of the value in the buffer
+     * @return value
+     */
+    public abstract Object read(ByteBuffer buffer, int index);
+
+    /**
+     * Returns the getter for the primitive type.
+     * @param type primitive type
+     * @param offset offset of the value within the record
+     * @return getter
+     */
+    public static BinaryEventPropertyGetter make(Class type, int offset) {
+        if (type == int.class) {
+            return new IntGetter(offset);
+        }
+        if (type == long.class) {
+            return new LongGetter(offset);
+        }
+        if (type == double.class) {
+            return new DoubleGetter(offset);
+        }
+        if (type == float.class) {
+            return new FloatGetter(offset);
+        }
+        if (type == short.class) {
+            return new ShortGetter(offset);
+        }
+        if (type == byte.class) {
+            return new ByteGetter(offset);
+        }
+        if (type == char.class) {
+            return new CharGetter(offset);
+        }
+        if (type == boolean.class) {
+            return new BooleanGetter(offset);
+        }
+        throw new IllegalArgumentException("Unrecognized primitive type " + type);
+    }
+
+    /**
+     * Returns the number of bytes that a value of the primitive type occupies, or -1 if not a primitive type.
+     * @param type type
+     * @return size in bytes
+     */
+    public static int getSize(Class type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return -1;
+    }
+
+    public Object get(EventBean eventBean) throws PropertyAccessException {
+        BinaryEventBean binaryEvent = (BinaryEventBean) eventBean;
+        return read(binaryEvent.getBuffer(), binaryEvent.getOffset() + offset);
+    }
+
+    public boolean isExistsProperty(EventBean eventBean) {
+        return true;
+    }
+
+    public Object getFragment(EventBean eventBean) throws PropertyAccessException {
+        return null;
+    }
+
+    /**
+     * Getter for int values.
+     */
+    public static class IntGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public IntGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.getInt(index);
+        }
+    }
+
+    /**
+     * Getter for long values.
+     */
+    public static class LongGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public LongGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.getLong(index);
+        }
+    }
+
+    /**
+     * Getter for double values.
+     */
+    public static class DoubleGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public DoubleGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.getDouble(index);
+        }
+    }
+
+    /**
+     * Getter for float values.
+     */
+    public static class FloatGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public FloatGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.getFloat(index);
+        }
+    }
+
+    /**
+     * Getter for short values.
+     */
+    public static class ShortGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public ShortGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.getShort(index);
+        }
+    }
+
+    /**
+     * Getter for byte values.
+     */
+    public static class ByteGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public ByteGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.get(index);
+        }
+    }
+
+    /**
+     * Getter for char values.
+     */
+    public static class CharGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public CharGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.getChar(index);
+        }
+    }
+
+    /**
+     * Getter for boolean values.
+     */
+    public static class BooleanGetter extends BinaryEventPropertyGetter {
+        /**
+         * Ctor.
+         * @param offset offset of the value within the record
+         */
+        public BooleanGetter(int offset) {
+            super(offset);
+        }
+
+        public Object read(ByteBuffer buffer, int index) {
+            return buffer.get(index) != 0;
+        }
+    }
+}
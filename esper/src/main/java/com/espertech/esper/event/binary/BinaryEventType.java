@@ -0,0 +1,230 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+package com.espertech.esper.event.binary;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.event.*;
+import com.espertech.esper.util.JavaClassHelper;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Event type for events that are a record of primitive values in a byte buffer.
+ * <p>
+ * The values are laid out in the order of the properties, each value at a fixed offset from the start of the record,
+ * without padding and in the byte order of the buffer.
+ */
+public class BinaryEventType implements EventTypeSPI
+{
+    private final EventTypeMetadata metadata;
+    private final String typeName;
+    private final int eventTypeId;
+    private final String[] propertyNames;
+    private final Class[] propertyTypes;
+    private final int[] offsets;
+    private final EventPropertyDescriptor[] propertyDescriptors;
+    private final Map<String, Integer> propertyIndexes;
+    private final BinaryEventPropertyGetter[] getters;
+    private final int recordSize;
+    private final String startTimestampPropertyName;
+    private final String endTimestampPropertyName;
+
+    /**
+     * Ctor.
+     * @param metadata type metadata
+     * @param typeName type name
+     * @param eventTypeId type id
+     * @param propertyTypes primitive type per property name, in the order of the record layout
+     * @param startTimestampPropertyName start timestamp property name or null
+     * @param endTimestampPropertyName end timestamp property name or null
+     */
+    public BinaryEventType(EventTypeMetadata metadata, String typeName, int eventTypeId, LinkedHashMap<String, Class> propertyTypes, String startTimestampPropertyName, String endTimestampPropertyName)
+    {
+        this.metadata = metadata;
+        this.typeName = typeName;
+        this.eventTypeId = eventTypeId;
+        this.propertyNames = new String[propertyTypes.size()];
+        this.propertyTypes = new Class[propertyTypes.size()];
+        this.offsets = new int[propertyTypes.size()];
+        this.propertyDescriptors = new EventPropertyDescriptor[propertyTypes.size()];
+        this.propertyIndexes = new HashMap<String, Integer>();
+        this.getters = new BinaryEventPropertyGetter[propertyTypes.size()];
+
+        int count = 0;
+        int offset = 0;
+        for (Map.Entry<String, Class> entry : propertyTypes.entrySet()) {
+            Class type = entry.getValue();
+            int size = BinaryEventPropertyGetter.getSize(type);
+            if (size == -1) {
+                throw new EPException("Binary event types only allow primitive property types, property '" + entry.getKey() + "' has type '" + JavaClassHelper.getClassNameFullyQualPretty(type) + "'");
+            }
+            propertyNames[count] = entry.getKey();
+            this.propertyTypes[count] = type;
+            offsets[count] = offset;
+            propertyDescriptors[count] = new EventPropertyDescriptor(entry.getKey(), type, null, false, false, false, false, false);
+            propertyIndexes.put(entry.getKey(), count);
+            getters[count] = BinaryEventPropertyGetter.make(type, offset);
+            offset += size;
+            count++;
+        }
+        this.recordSize = offset;
+        this.startTimestampPropertyName = startTimestampPropertyName;
+        this.endTimestampPropertyName = endTimestampPropertyName;
+        EventTypeUtility.validateTimestampProperties(this, startTimestampPropertyName, endTimestampPropertyName);
+    }
+
+    /**
+     * Returns the number of bytes of a record.
+     * @return record size
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Returns the offset of the property value from the start of the record, or -1 if not a property of the type.
+     * @param propertyName property name
+     * @return offset
+     */
+    public int getOffset(String propertyName) {
+        Integer index = propertyIndexes.get(propertyName);
+        return index == null ? -1 : offsets[index];
+    }
+
+    public Class getPropertyType(String propertyExpression) {
+        Integer index = propertyIndexes.get(propertyExpression);
+        return index == null ? null : propertyTypes[index];
+    }
+
+    public boolean isProperty(String propertyExpression) {
+        return propertyIndexes.containsKey(propertyExpression);
+    }
+
+    public EventPropertyGetter getGetter(String propertyExpression) {
+        Integer index = propertyIndexes.get(propertyExpression);
+        return index == null ? null : getters[index];
+    }
+
+    public FragmentEventType getFragmentType(String propertyExpression) {
+        return null;
+    }
+
+    public Class getUnderlyingType() {
+        return ByteBuffer.class;
+    }
+
+    public String[] getPropertyNames() {
+        return propertyNames;
+    }
+
+    public EventPropertyDescriptor[] getPropertyDescriptors() {
+        return propertyDescriptors;
+    }
+
+    public EventPropertyDescriptor getPropertyDescriptor(String propertyName) {
+        Integer index = propertyIndexes.get(propertyName);
+        return index == null ? null : propertyDescriptors[index];
+    }
+
+    public EventType[] getSuperTypes() {
+        return null;
+    }
+
+    public Iterator<EventType> getDeepSuperTypes() {
+        return Collections.<EventType>emptyList().iterator();
+    }
+
+    public String getName() {
+        return typeName;
+    }
+
+    public EventPropertyGetterMapped getGetterMapped(String mappedPropertyName) {
+        return null;
+    }
+
+    public EventPropertyGetterIndexed getGetterIndexed(String indexedPropertyName) {
+        return null;
+    }
+
+    public int getEventTypeId() {
+        return eventTypeId;
+    }
+
+    public String getStartTimestampPropertyName() {
+        return startTimestampPropertyName;
+    }
+
+    public String getEndTimestampPropertyName() {
+        return endTimestampPropertyName;
+    }
+
+    public EventTypeMetadata getMetadata() {
+        return metadata;
+    }
+
+    public EventPropertyWriter getWriter(String propertyName) {
+        return null;
+    }
+
+    public EventPropertyDescriptor[] getWriteableProperties() {
+        return new EventPropertyDescriptor[0];
+    }
+
+    public EventPropertyDescriptor getWritableProperty(String propertyName) {
+        return null;
+    }
+
+    public EventBeanCopyMethod getCopyMethod(String[] properties) {
+        return null;
+    }
+
+    public EventBeanWriter getWriter(String[] properties) {
+        return null;
+    }
+
+    public EventBeanReader getReader() {
+        return null;
+    }
+
+    /**
+     * Compares the record layout to another type, returning a message describing the difference or null if equal.
+     * @param otherType type to compare to
+     * @return message or null
+     */
+    public String getEqualsMessage(EventType otherType) {
+        if (!(otherType instanceof BinaryEventType)) {
+            return "Type by name '" + otherType.getName() + "' is not a compatible type (target type underlying is '" + otherType.getUnderlyingType().getSimpleName() + "')";
+        }
+        BinaryEventType other = (BinaryEventType) otherType;
+        if (!other.typeName.equals(typeName)) {
+            return "Type by name '" + otherType.getName() + "' is not the same name";
+        }
+        if (!Arrays.equals(other.propertyNames, propertyNames) || !Arrays.equals(other.propertyTypes, propertyTypes)) {
+            return "Type by name '" + otherType.getName() + "' has a different record layout, expected " + other.getLayoutText() + " but found " + getLayoutText();
+        }
+        return null;
+    }
+
+    public boolean equalsCompareType(EventType eventType) {
+        return this == eventType || getEqualsMessage(eventType) == null;
+    }
+
+    private String getLayoutText() {
+        StringBuilder builder = new StringBuilder();
+        String delimiter = "";
+        for (int i = 0; i < propertyNames.length; i++) {
+            builder.append(delimiter).append(propertyNames[i]).append(' ').append(propertyTypes[i].getSimpleName());
+            delimiter = ", ";
+        }
+        return "(" + builder + ")";
+    }
+}
@@ -11,6 +11,7 @@
 
 package com.espertech.esper.event.util;
 
+import com.espertech.esper.client.EPException;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.util.EventPropertyRenderer;
@@ -20,7 +21,11 @@ import com.espertech.esper.client.util.JSONRenderingOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Stack;
@@ -34,9 +39,18 @@ public class JSONRendererImpl implements JSONEventRenderer
 
     private final static String NEWLINE = System.getProperty("line.separator");
     private final static String COMMA_DELIMITER_NEWLINE = "," + NEWLINE;
+    private final static int STREAM_BUFFER_SIZE = 8192;
 
     private final RendererMeta meta;
     private final RendererMetaOptions rendererOptions;
+    private final String[] simplePropertyPrefixes;
+    private final byte[][] simplePropertyPrefixesUTF8;
+    private final boolean hasNonSimpleProperties;
+    private final ThreadLocal<RenderOutputStream> streamOutputs = new ThreadLocal<RenderOutputStream>() {
+        protected RenderOutputStream initialValue() {
+            return new RenderOutputStream(STREAM_BUFFER_SIZE);
+        }
+    };
 
     /**
      * Ctor.
@@ -54,6 +68,18 @@ public class JSONRendererImpl implements JSONEventRenderer
 
         rendererOptions = new RendererMetaOptions(options.isPreventLooping(), false, propertyRenderer, propertyRendererContext);
         meta = new RendererMeta(eventType, new Stack<EventTypePropertyPair>(), rendererOptions);
+
+        // precompute the delimiter, indent and name written before each simple property value for streaming rendering
+        GetterPair[] simpleProps = meta.getSimpleProperties();
+        simplePropertyPrefixes = new String[simpleProps.length];
+        simplePropertyPrefixesUTF8 = new byte[simpleProps.length][];
+        for (int i = 0; i < simpleProps.length; i++) {
+            StringBuilder buf = new StringBuilder();
+            writeDelimitedIndentedProp(buf, i == 0 ? "" : COMMA_DELIMITER_NEWLINE, 2, simpleProps[i].getName());
+            simplePropertyPrefixes[i] = buf.toString();
+            simplePropertyPrefixesUTF8[i] = simplePropertyPrefixes[i].getBytes(StandardCharsets.UTF_8);
+        }
+        hasNonSimpleProperties = meta.getIndexProperties().length > 0 || meta.getMappedProperties().length > 0 || meta.getNestedProperties().length > 0;
     }
 
     public String render(String title, EventBean theEvent)
@@ -88,6 +114,96 @@ public class JSONRendererImpl implements JSONEventRenderer
         return buf.toString();
     }
 
+    public void render(EventBean theEvent, Appendable appendable) throws IOException {
+        renderStreaming(theEvent, new RenderOutputAppendable(appendable));
+    }
+
+    public void render(EventBean theEvent, OutputStream outputStream) throws IOException {
+        RenderOutputStream out = streamOutputs.get();
+        out.setOutputStream(outputStream);
+        try {
+            renderStreaming(theEvent, out);
+            out.flush();
+        }
+        finally {
+            out.setOutputStream(null);
+        }
+    }
+
+    public void render(EventBean theEvent, ByteBuffer byteBuffer) {
+        RenderOutputByteBuffer out = new RenderOutputByteBuffer(byteBuffer);
+        try {
+            renderStreaming(theEvent, out);
+        }
+        catch (IOException e) {
+            throw new EPException("Unexpected exception rendering to buffer: " + e.getMessage(), e);
+        }
+        out.close();
+    }
+
+    public void render(EventBean[] events, Appendable appendable) throws IOException {
+        renderStreaming(events, new RenderOutputAppendable(appendable));
+    }
+
+    public void render(EventBean[] events, OutputStream outputStream) throws IOException {
+        RenderOutputStream out = streamOutputs.get();
+        out.setOutputStream(outputStream);
+        try {
+            renderStreaming(events, out);
+            out.flush();
+        }
+        finally {
+            out.setOutputStream(null);
+        }
+    }
+
+    public void render(EventBean[] events, ByteBuffer byteBuffer) {
+        RenderOutputByteBuffer out = new RenderOutputByteBuffer(byteBuffer);
+        try {
+            renderStreaming(events, out);
+        }
+        catch (IOException e) {
+            throw new EPException("Unexpected exception rendering to buffer: " + e.getMessage(), e);
+        }
+        out.close();
+    }
+
+    private void renderStreaming(EventBean[] events, RenderOutput out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < events.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            renderStreaming(events[i], out);
+        }
+        out.write(']');
+    }
+
+    private void renderStreaming(EventBean theEvent, RenderOutput out) throws IOException {
+        if (rendererOptions.getRenderer() != null) {
+            out.write(render(theEvent));
+            return;
+        }
+
+        out.write('{');
+        GetterPair[] simpleProps = meta.getSimpleProperties();
+        for (int i = 0; i < simpleProps.length; i++) {
+            Object value = simpleProps[i].getGetter().get(theEvent);
+            out.write(simplePropertyPrefixes[i], simplePropertyPrefixesUTF8[i]);
+            simpleProps[i].getOutput().render(value, out);
+        }
+
+        if (hasNonSimpleProperties) {
+            StringBuilder buf = new StringBuilder();
+            recursiveRenderNonSimple(theEvent, buf, 2, meta, rendererOptions, simpleProps.length == 0 ? "" : COMMA_DELIMITER_NEWLINE);
+            out.write(buf);
+        }
+        else {
+            out.write(NEWLINE);
+        }
+        out.write('}');
+    }
+
     private static void ident(StringBuilder buf, int level)
     {
         for (int i = 0; i < level; i++)
@@ -132,6 +248,11 @@ public class JSONRendererImpl implements JSONEventRenderer
             }
         }
 
+        recursiveRenderNonSimple(theEvent, buf, level, meta, rendererOptions, delimiter);
+    }
+
+    private static void recursiveRenderNonSimple(EventBean theEvent, StringBuilder buf, int level, RendererMeta meta, RendererMetaOptions rendererOptions, String delimiter)
+    {
         GetterPair[] indexProps = meta.getIndexProperties();
         for (GetterPair indexProp : indexProps)
         {
@@ -11,6 +11,8 @@
 
 package com.espertech.esper.event.util;
 
+import java.io.IOException;
+
 /**
  * For rendering an output value returned by a property.
  */
@@ -22,4 +24,12 @@ public interface OutputValueRenderer
      * @param buf buffer to populate
      */
     public void render(Object object, StringBuilder buf);
+
+    /**
+     * Renders the value to the streaming output.
+     * @param object to render
+     * @param out output to write to
+     * @throws IOException if the output fails
+     */
+    public void render(Object object, RenderOutput out) throws IOException;
 }
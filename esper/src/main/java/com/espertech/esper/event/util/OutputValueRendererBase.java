@@ -11,6 +11,8 @@
 
 package com.espertech.esper.event.util;
 
+import java.io.IOException;
+
 /**
  * Renderer for a Object values that can simply be output via to-string.
  */
@@ -26,4 +28,24 @@ public class OutputValueRendererBase implements OutputValueRenderer
         
         buf.append(object.toString());
     }
+
+    public void render(Object object, RenderOutput out) throws IOException
+    {
+        if (object == null)
+        {
+            out.write("null");
+        }
+        else if (object instanceof Integer || object instanceof Long || object instanceof Short || object instanceof Byte)
+        {
+            out.writeLong(((Number) object).longValue());
+        }
+        else if (object instanceof Boolean)
+        {
+            out.write((Boolean) object ? "true" : "false");
+        }
+        else
+        {
+            out.write(object.toString());
+        }
+    }
 }
@@ -11,6 +11,8 @@
 
 package com.espertech.esper.event.util;
 
+import java.io.IOException;
+
 /**
  * Renderer for a String-value into JSON strings.
  */
@@ -27,6 +29,17 @@ public class OutputValueRendererJSONString implements OutputValueRenderer
         enquote(object.toString(), buf);
     }
 
+    public void render(Object object, RenderOutput out) throws IOException
+    {
+        if (object == null)
+        {
+            out.write("null");
+            return;
+        }
+
+        enquote(object.toString(), out);
+    }
+
     /**
      * JSON-Enquote the passed string.
      * @param s string to enqoute
@@ -90,4 +103,67 @@ public class OutputValueRendererJSONString implements OutputValueRenderer
         }
         sb.append('"');
     }
+
+    /**
+     * JSON-Enquote the passed string to a streaming output.
+     * @param s string to enqoute
+     * @param out output to write to
+     * @throws IOException if the output fails
+     */
+    public static void enquote(String s, RenderOutput out) throws IOException
+    {
+        out.write('"');
+        int len = s == null ? 0 : s.length();
+        for (int i = 0; i < len; i++)
+        {
+            char c = s.charAt(i);
+            if ((c == '\\') || (c == '"'))
+            {
+                out.write('\\');
+                out.write(c);
+            }
+            else if (c == '\b')
+            {
+                out.write("\\b");
+            }
+            else if (c == '\t')
+            {
+                out.write("\\t");
+            }
+            else if (c == '\n')
+            {
+                out.write("\\n");
+            }
+            else if (c == '\f')
+            {
+                out.write("\\f");
+            }
+            else if (c == '\r')
+            {
+                out.write("\\r");
+            }
+            else if (c < ' ')
+            {
+                writeUnicodeEscape(c, out);
+            }
+            else
+            {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Write a control character as a unicode escape, same as the string-builder rendering.
+     * @param c character below ' '
+     * @param out output to write to
+     * @throws IOException if the output fails
+     */
+    protected static void writeUnicodeEscape(char c, RenderOutput out) throws IOException
+    {
+        out.write("\\u00");
+        out.write(Character.forDigit(c >> 4, 16));
+        out.write(Character.forDigit(c & 0xF, 16));
+    }
 }
@@ -11,6 +11,8 @@
 
 package com.espertech.esper.event.util;
 
+import java.io.IOException;
+
 /**
  * Renderer for a String-value into XML strings.
  */
@@ -30,6 +32,17 @@ public class OutputValueRendererXMLString implements OutputValueRenderer
         xmlEncode(object.toString(), buf, true);
     }
 
+    public void render(Object object, RenderOutput out) throws IOException
+    {
+        if (object == null)
+        {
+            out.write("null");
+            return;
+        }
+
+        xmlEncode(object.toString(), out);
+    }
+
     /**
      * XML-Encode the passed string.
      * @param s string to encode
@@ -88,4 +101,47 @@ public class OutputValueRendererXMLString implements OutputValueRenderer
             }
         }
     }
+
+    /**
+     * XML-Encode the passed string to a streaming output, encoding special characters below ' '.
+     * @param s string to encode
+     * @param out output to write to
+     * @throws IOException if the output fails
+     */
+    public static void xmlEncode(String s, RenderOutput out) throws IOException
+    {
+        int len = s == null ? 0 : s.length();
+        for (int i = 0; i < len; i++)
+        {
+            char c = s.charAt(i);
+            if (c == '&')
+            {
+                out.write("&amp;");
+            }
+            else if (c == '<')
+            {
+                out.write("&lt;");
+            }
+            else if (c == '>')
+            {
+                out.write("&gt;");
+            }
+            else if (c == '\'')
+            {
+                out.write("&apos;");
+            }
+            else if (c == '\"')
+            {
+                out.write("&quot;");
+            }
+            else if (c < ' ')
+            {
+                OutputValueRendererJSONString.writeUnicodeEscape(c, out);
+            }
+            else
+            {
+                out.write(c);
+            }
+        }
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.util;
+
+import java.io.IOException;
+
+/**
+ * Target of streaming event rendering, writing text without building intermediate strings.
+ */
+public abstract class RenderOutput
+{
+    private final char[] digits = new char[20];
+
+    /**
+     * Write a character.
+     * @param c to write
+     * @throws IOException if the target fails
+     */
+    public abstract void write(char c) throws IOException;
+
+    /**
+     * Write text.
+     * @param text to write
+     * @throws IOException if the target fails
+     */
+    public abstract void write(CharSequence text) throws IOException;
+
+    /**
+     * Write precomputed text, for use with text such as property name prefixes that is written for each event.
+     * @param text the text
+     * @param utf8 the same text encoded in UTF-8
+     * @throws IOException if the target fails
+     */
+    public abstract void write(String text, byte[] utf8) throws IOException;
+
+    /**
+     * Write the decimal representation of a number, same as {@link Long#toString(long)}.
+     * @param value to write
+     * @throws IOException if the target fails
+     */
+    public void writeLong(long value) throws IOException
+    {
+        if (value == Long.MIN_VALUE) {
+            write(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + (value % 10));
+            value /= 10;
+        }
+        while (value != 0);
+        for (int i = pos; i < digits.length; i++) {
+            write(digits[i]);
+        }
+    }
+}
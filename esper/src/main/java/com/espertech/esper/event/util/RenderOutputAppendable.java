@@ -0,0 +1,46 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.util;
+
+import java.io.IOException;
+
+/**
+ * Streaming render output to an {@link Appendable}.
+ */
+public class RenderOutputAppendable extends RenderOutput
+{
+    private final Appendable appendable;
+
+    /**
+     * Ctor.
+     * @param appendable target
+     */
+    public RenderOutputAppendable(Appendable appendable)
+    {
+        this.appendable = appendable;
+    }
+
+    public void write(char c) throws IOException
+    {
+        appendable.append(c);
+    }
+
+    public void write(CharSequence text) throws IOException
+    {
+        appendable.append(text);
+    }
+
+    public void write(String text, byte[] utf8) throws IOException
+    {
+        appendable.append(text);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming render output to a {@link ByteBuffer} in UTF-8, starting at the buffer position.
+ * <p>
+ * Throws {@link java.nio.BufferOverflowException} if the buffer does not have sufficient space remaining.
+ */
+public class RenderOutputByteBuffer extends RenderOutputUTF8
+{
+    private final ByteBuffer buffer;
+
+    /**
+     * Ctor.
+     * @param buffer target
+     */
+    public RenderOutputByteBuffer(ByteBuffer buffer)
+    {
+        this.buffer = buffer;
+    }
+
+    protected void writeByte(int b)
+    {
+        buffer.put((byte) b);
+    }
+
+    protected void writeBytes(byte[] bytes)
+    {
+        buffer.put(bytes);
+    }
+
+    /**
+     * Complete the output.
+     */
+    public void close()
+    {
+        try {
+            finish();
+        }
+        catch (IOException e) {
+            // not thrown by byte buffer
+        }
+    }
+}
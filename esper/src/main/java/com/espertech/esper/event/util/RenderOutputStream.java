@@ -0,0 +1,91 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming render output to an {@link OutputStream} in UTF-8, buffering bytes until {@link #flush()}.
+ * <p>
+ * The output can be reused for another output stream after flush.
+ */
+public class RenderOutputStream extends RenderOutputUTF8
+{
+    private final byte[] buffer;
+    private OutputStream outputStream;
+    private int count;
+
+    /**
+     * Ctor.
+     * @param bufferSize number of bytes to buffer
+     */
+    public RenderOutputStream(int bufferSize)
+    {
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Sets the output stream to write to.
+     * @param outputStream target
+     */
+    public void setOutputStream(OutputStream outputStream)
+    {
+        this.outputStream = outputStream;
+        this.count = 0;
+    }
+
+    protected void writeByte(int b) throws IOException
+    {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    protected void writeBytes(byte[] bytes) throws IOException
+    {
+        if (bytes.length > buffer.length - count) {
+            drain();
+            if (bytes.length > buffer.length) {
+                outputStream.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    /**
+     * Write buffered bytes to the output stream and release the output stream.
+     * @throws IOException if the output stream fails
+     */
+    public void flush() throws IOException
+    {
+        try {
+            finish();
+            drain();
+        }
+        finally {
+            outputStream = null;
+            count = 0;
+        }
+    }
+
+    private void drain() throws IOException
+    {
+        if (count > 0) {
+            outputStream.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
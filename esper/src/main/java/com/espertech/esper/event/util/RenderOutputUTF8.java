@@ -0,0 +1,103 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.util;
+
+import java.io.IOException;
+
+/**
+ * Streaming render output that encodes text in UTF-8 into a byte target.
+ */
+public abstract class RenderOutputUTF8 extends RenderOutput
+{
+    private char highSurrogate;
+
+    /**
+     * Write a byte.
+     * @param b to write
+     * @throws IOException if the target fails
+     */
+    protected abstract void writeByte(int b) throws IOException;
+
+    /**
+     * Write bytes.
+     * @param bytes to write
+     * @throws IOException if the target fails
+     */
+    protected abstract void writeBytes(byte[] bytes) throws IOException;
+
+    public void write(char c) throws IOException
+    {
+        if (c < 0x80 && highSurrogate == 0) {
+            writeByte(c);
+            return;
+        }
+        encode(c);
+    }
+
+    public void write(CharSequence text) throws IOException
+    {
+        for (int i = 0; i < text.length(); i++) {
+            write(text.charAt(i));
+        }
+    }
+
+    public void write(String text, byte[] utf8) throws IOException
+    {
+        writeBytes(utf8);
+    }
+
+    private void encode(char c) throws IOException
+    {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                writeByte(0xF0 | (codePoint >> 18));
+                writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeByte(0x80 | (codePoint & 0x3F));
+                return;
+            }
+            writeByte('?');
+            write(c);
+            return;
+        }
+        if (c < 0x800) {
+            writeByte(0xC0 | (c >> 6));
+            writeByte(0x80 | (c & 0x3F));
+        }
+        else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        }
+        else if (Character.isLowSurrogate(c)) {
+            writeByte('?');
+        }
+        else {
+            writeByte(0xE0 | (c >> 12));
+            writeByte(0x80 | ((c >> 6) & 0x3F));
+            writeByte(0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Complete the output, writing a replacement character for a trailing unpaired surrogate.
+     * @throws IOException if the target fails
+     */
+    protected void finish() throws IOException
+    {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            writeByte('?');
+        }
+    }
+}
@@ -11,6 +11,7 @@
 
 package com.espertech.esper.event.util;
 
+import com.espertech.esper.client.EPException;
 import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.util.EventPropertyRenderer;
@@ -20,7 +21,11 @@ import com.espertech.esper.client.util.XMLRenderingOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Stack;
@@ -32,10 +37,22 @@ public class XMLRendererImpl implements XMLEventRenderer
 {
     private static final Logger log = LoggerFactory.getLogger(XMLRendererImpl.class);
     private final static String NEWLINE = System.getProperty("line.separator");
+    private final static String XML_DECLARATION_NEWLINE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + NEWLINE;
+    private final static int STREAM_BUFFER_SIZE = 8192;
     
     private final RendererMeta meta;
     private final XMLRenderingOptions options;
     private final RendererMetaOptions rendererMetaOptions;
+    private final String[] simplePropertyStartTags;
+    private final byte[][] simplePropertyStartTagsUTF8;
+    private final String[] simplePropertyEndTags;
+    private final byte[][] simplePropertyEndTagsUTF8;
+    private final boolean hasNonSimpleProperties;
+    private final ThreadLocal<RenderOutputStream> streamOutputs = new ThreadLocal<RenderOutputStream>() {
+        protected RenderOutputStream initialValue() {
+            return new RenderOutputStream(STREAM_BUFFER_SIZE);
+        }
+    };
 
     /**
      * Ctor.
@@ -54,6 +71,22 @@ public class XMLRendererImpl implements XMLEventRenderer
         rendererMetaOptions = new RendererMetaOptions(options.isPreventLooping(), true, propertyRenderer, propertyRendererContext);
         meta = new RendererMeta(eventType, new Stack<EventTypePropertyPair>(), rendererMetaOptions);
         this.options = options;
+
+        // precompute the indented start tag and the end tag of each simple property for streaming rendering
+        GetterPair[] simpleProps = meta.getSimpleProperties();
+        simplePropertyStartTags = new String[simpleProps.length];
+        simplePropertyStartTagsUTF8 = new byte[simpleProps.length][];
+        simplePropertyEndTags = new String[simpleProps.length];
+        simplePropertyEndTagsUTF8 = new byte[simpleProps.length][];
+        for (int i = 0; i < simpleProps.length; i++) {
+            StringBuilder buf = new StringBuilder();
+            ident(buf, 1);
+            simplePropertyStartTags[i] = buf.append('<').append(simpleProps[i].getName()).append('>').toString();
+            simplePropertyStartTagsUTF8[i] = simplePropertyStartTags[i].getBytes(StandardCharsets.UTF_8);
+            simplePropertyEndTags[i] = "</" + simpleProps[i].getName() + ">" + NEWLINE;
+            simplePropertyEndTagsUTF8[i] = simplePropertyEndTags[i].getBytes(StandardCharsets.UTF_8);
+        }
+        hasNonSimpleProperties = meta.getIndexProperties().length > 0 || meta.getMappedProperties().length > 0 || meta.getNestedProperties().length > 0;
     }
 
     public String render(String rootElementName, EventBean theEvent)
@@ -65,6 +98,126 @@ public class XMLRendererImpl implements XMLEventRenderer
         return renderElementXML(rootElementName, theEvent);
     }
 
+    public void render(String rootElementName, EventBean theEvent, Appendable appendable) throws IOException
+    {
+        renderStreaming(rootElementName, theEvent, new RenderOutputAppendable(appendable));
+    }
+
+    public void render(String rootElementName, EventBean theEvent, OutputStream outputStream) throws IOException
+    {
+        RenderOutputStream out = streamOutputs.get();
+        out.setOutputStream(outputStream);
+        try {
+            renderStreaming(rootElementName, theEvent, out);
+            out.flush();
+        }
+        finally {
+            out.setOutputStream(null);
+        }
+    }
+
+    public void render(String rootElementName, EventBean theEvent, ByteBuffer byteBuffer)
+    {
+        RenderOutputByteBuffer out = new RenderOutputByteBuffer(byteBuffer);
+        try {
+            renderStreaming(rootElementName, theEvent, out);
+        }
+        catch (IOException e) {
+            throw new EPException("Unexpected exception rendering to buffer: " + e.getMessage(), e);
+        }
+        out.close();
+    }
+
+    public void render(String rootElementName, EventBean[] events, Appendable appendable) throws IOException
+    {
+        renderStreaming(rootElementName, events, new RenderOutputAppendable(appendable));
+    }
+
+    public void render(String rootElementName, EventBean[] events, OutputStream outputStream) throws IOException
+    {
+        RenderOutputStream out = streamOutputs.get();
+        out.setOutputStream(outputStream);
+        try {
+            renderStreaming(rootElementName, events, out);
+            out.flush();
+        }
+        finally {
+            out.setOutputStream(null);
+        }
+    }
+
+    public void render(String rootElementName, EventBean[] events, ByteBuffer byteBuffer)
+    {
+        RenderOutputByteBuffer out = new RenderOutputByteBuffer(byteBuffer);
+        try {
+            renderStreaming(rootElementName, events, out);
+        }
+        catch (IOException e) {
+            throw new EPException("Unexpected exception rendering to buffer: " + e.getMessage(), e);
+        }
+        out.close();
+    }
+
+    private void renderStreaming(String rootElementName, EventBean[] events, RenderOutput out) throws IOException
+    {
+        for (EventBean theEvent : events)
+        {
+            renderStreaming(rootElementName, theEvent, out);
+            out.write(NEWLINE);
+        }
+    }
+
+    private void renderStreaming(String rootElementName, EventBean theEvent, RenderOutput out) throws IOException
+    {
+        if (options.isDefaultAsAttribute() || rendererMetaOptions.getRenderer() != null)
+        {
+            out.write(render(rootElementName, theEvent));
+            return;
+        }
+
+        String root = String.valueOf(rootElementName);
+        out.write(XML_DECLARATION_NEWLINE);
+        out.write('<');
+        out.write(root);
+        out.write('>');
+        out.write(NEWLINE);
+
+        GetterPair[] simpleProps = meta.getSimpleProperties();
+        for (int i = 0; i < simpleProps.length; i++)
+        {
+            Object value = simpleProps[i].getGetter().get(theEvent);
+            if (value == null)
+            {
+                continue;
+            }
+            out.write(simplePropertyStartTags[i], simplePropertyStartTagsUTF8[i]);
+            simpleProps[i].getOutput().render(value, out);
+            out.write(simplePropertyEndTags[i], simplePropertyEndTagsUTF8[i]);
+        }
+
+        if (hasNonSimpleProperties)
+        {
+            StringBuilder buf = new StringBuilder();
+            recursiveRenderNonSimple(theEvent, buf, 1, meta, rendererMetaOptions);
+            out.write(buf);
+        }
+
+        // end tag uses the first word of the root element name, same as getFirstWord
+        out.write("</");
+        if (root.trim().length() == 0 || root.indexOf(' ') < 0)
+        {
+            out.write(root);
+        }
+        else
+        {
+            for (int i = 0; root.charAt(i) != ' '; i++)
+            {
+                out.write(root.charAt(i));
+            }
+        }
+        out.write('>');
+    }
+
     private String renderElementXML(String rootElementName, EventBean theEvent)
     {
         StringBuilder buf = new StringBuilder();
@@ -345,6 +498,11 @@ public class XMLRendererImpl implements XMLEventRenderer
             buf.append(NEWLINE);
         }
 
+        recursiveRenderNonSimple(theEvent, buf, level, meta, rendererMetaOptions);
+    }
+
+    private static void recursiveRenderNonSimple(EventBean theEvent, StringBuilder buf, int level, RendererMeta meta, RendererMetaOptions rendererMetaOptions)
+    {
         GetterPair[] indexProps = meta.getIndexProperties();
         for (GetterPair indexProp : indexProps)
         {
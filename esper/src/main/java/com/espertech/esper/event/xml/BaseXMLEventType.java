@@ -32,6 +32,7 @@ public abstract class BaseXMLEventType extends BaseConfigurableEventType {
 
     private String startTimestampPropertyName;
     private String endTimestampPropertyName;
+    private XMLStreamExtractionPlan streamExtractionPlan;
 
     /**
      * XPath namespace context.
@@ -112,6 +113,8 @@ public abstract class BaseXMLEventType extends BaseConfigurableEventType {
             namedProperties.put(desc.getDescriptor().getPropertyName(), desc);
         }
 
+        List<XMLStreamExtractionPath> streamPaths = new ArrayList<XMLStreamExtractionPath>();
+        List<XPathPropertyGetter> streamGetters = new ArrayList<XPathPropertyGetter>();
         String xpathExpression = null;
         try {
 
@@ -143,7 +146,16 @@ public abstract class BaseXMLEventType extends BaseConfigurableEventType {
                     isArray = true;
                 }
 
-                EventPropertyGetter getter = new XPathPropertyGetter(property.getName(), xpathExpression, expression, property.getType(), property.getOptionalCastToType(), fragmentFactory);
+                XPathPropertyGetter getter = new XPathPropertyGetter(property.getName(), xpathExpression, expression, property.getType(), property.getOptionalCastToType(), fragmentFactory);
+                if (!isFragment && (property.getOptionalCastToType() == null || !property.getOptionalCastToType().isArray()))
+                {
+                    XMLStreamExtractionPath streamPath = XMLStreamExtractionPath.compile(xpathExpression, property.getType(), namespaceContext);
+                    if (streamPath != null)
+                    {
+                        streamPaths.add(streamPath);
+                        streamGetters.add(getter);
+                    }
+                }
                 Class returnType = SchemaUtil.toReturnType(property.getType(), property.getOptionalCastToType());
                 
                 EventPropertyDescriptor desc = new EventPropertyDescriptor(property.getName(), returnType, null, false,false,isArray,false,isFragment);
@@ -157,6 +169,8 @@ public abstract class BaseXMLEventType extends BaseConfigurableEventType {
         }
 
         super.initialize(new ArrayList<ExplicitPropertyDescriptor>(namedProperties.values()));
+        streamExtractionPlan = new XMLStreamExtractionPlan(streamPaths.toArray(new XMLStreamExtractionPath[streamPaths.size()]),
+                streamGetters.toArray(new XPathPropertyGetter[streamGetters.size()]));
 
         // evaluate start and end timestamp properties if any
         startTimestampPropertyName = configurationEventTypeXMLDOM.getStartTimestampPropertyName();
@@ -164,6 +178,14 @@ public abstract class BaseXMLEventType extends BaseConfigurableEventType {
         EventTypeUtility.validateTimestampProperties(this, startTimestampPropertyName, endTimestampPropertyName);
     }
 
+    /**
+     * Returns the plan for extracting the values of simple XPath properties from XML text or bytes in a single streaming pass.
+     * @return extraction plan
+     */
+    public XMLStreamExtractionPlan getStreamExtractionPlan() {
+        return streamExtractionPlan;
+    }
+
     /**
      * Returns the XPath factory used.
      * @return XPath factory
@@ -0,0 +1,108 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.xml;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventType;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+/**
+ * EventBean wrapper for XML documents sent as text or bytes, carrying the values extracted in a single
+ * streaming pass by {@link XMLStreamExtractionPlan}.
+ * <p>
+ * The DOM is only built when the underlying node is requested, such as for properties that are not part of the plan.
+ */
+public class XMLStreamEventBean extends XMLEventBean
+{
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY;
+
+    static
+    {
+        DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+        DOCUMENT_BUILDER_FACTORY.setNamespaceAware(true);
+    }
+
+    private XMLStreamExtractionPlan plan;
+    private final Object[] values;
+    private Object xml;
+
+    /**
+     * Ctor.
+     * @param xml XML document as a String or byte array
+     * @param plan the plan that the values were extracted by
+     * @param values extracted values
+     * @param type is the event type for this event wrapper
+     */
+    public XMLStreamEventBean(Object xml, XMLStreamExtractionPlan plan, Object[] values, EventType type)
+    {
+        super(null, type);
+        this.xml = xml;
+        this.plan = plan;
+        this.values = values;
+    }
+
+    /**
+     * Returns the plan that extracted the values, or null if the underlying node was replaced.
+     * @return plan
+     */
+    public XMLStreamExtractionPlan getPlan()
+    {
+        return plan;
+    }
+
+    /**
+     * Returns an extracted value.
+     * @param index index of the value
+     * @return value
+     */
+    public Object getStreamValue(int index)
+    {
+        return values[index];
+    }
+
+    public synchronized void setUnderlying(Object underlying)
+    {
+        super.setUnderlying(underlying);
+        plan = null;
+        xml = null;
+    }
+
+    public synchronized Object getUnderlying()
+    {
+        if (xml == null)
+        {
+            return super.getUnderlying();
+        }
+        try
+        {
+            InputSource source;
+            if (xml instanceof String)
+            {
+                source = new InputSource(new StringReader((String) xml));
+            }
+            else
+            {
+                source = new InputSource(new ByteArrayInputStream((byte[]) xml));
+            }
+            Node node = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder().parse(source).getDocumentElement();
+            super.setUnderlying(node);
+            xml = null;
+            return node;
+        }
+        catch (Exception ex)
+        {
+            throw new EPException("Failed to parse XML event: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.xml;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPathConstants;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A simple location path, consisting only of child element steps and an optional final attribute step,
+ * that can be matched against a stream of StAX events without building a DOM.
+ * <p>
+ * Paths are anchored at the document node: an absolute path such as "/order/item/@id" is used as-is,
+ * a relative path such as "item/@id" is evaluated relative to the root element as XPath does for DOM events.
+ */
+public class XMLStreamExtractionPath
+{
+    private static final String WILDCARD = "*";
+
+    private final String[] elementLocalNames;
+    private final String[] elementNamespaces;
+    private final String attributeLocalName;
+    private final String attributeNamespace;
+    private final QName resultType;
+
+    private XMLStreamExtractionPath(String[] elementLocalNames, String[] elementNamespaces, String attributeLocalName, String attributeNamespace, QName resultType)
+    {
+        this.elementLocalNames = elementLocalNames;
+        this.elementNamespaces = elementNamespaces;
+        this.attributeLocalName = attributeLocalName;
+        this.attributeNamespace = attributeNamespace;
+        this.resultType = resultType;
+    }
+
+    /**
+     * Compiles an XPath expression into a streaming path, if the expression is simple enough.
+     * @param xpath the XPath expression text
+     * @param resultType the XPath result type, only STRING, NUMBER and BOOLEAN results can be streamed
+     * @param namespaceContext for resolving prefixes, or null if none provided
+     * @return path or null if the expression cannot be evaluated in a single streaming pass
+     */
+    public static XMLStreamExtractionPath compile(String xpath, QName resultType, NamespaceContext namespaceContext)
+    {
+        if (!resultType.equals(XPathConstants.STRING) && !resultType.equals(XPathConstants.NUMBER) && !resultType.equals(XPathConstants.BOOLEAN))
+        {
+            return null;
+        }
+
+        String text = xpath.trim();
+        List<String> steps = new ArrayList<String>();
+        if (text.startsWith("/"))
+        {
+            text = text.substring(1);
+        }
+        else
+        {
+            steps.add(WILDCARD);
+        }
+        if (text.length() == 0)
+        {
+            return null;
+        }
+        for (String step : text.split("/", -1))
+        {
+            steps.add(step);
+        }
+
+        String attributeLocalName = null;
+        String attributeNamespace = null;
+        String last = steps.get(steps.size() - 1);
+        if (last.startsWith("@"))
+        {
+            String[] name = resolveName(last.substring(1), namespaceContext);
+            if (name == null || name[0].equals(WILDCARD))
+            {
+                return null;
+            }
+            attributeLocalName = name[0];
+            attributeNamespace = name[1];
+            steps.remove(steps.size() - 1);
+        }
+        if (steps.isEmpty())
+        {
+            return null;
+        }
+
+        String[] localNames = new String[steps.size()];
+        String[] namespaces = new String[steps.size()];
+        for (int i = 0; i < localNames.length; i++)
+        {
+            String[] name = resolveName(steps.get(i), namespaceContext);
+            if (name == null)
+            {
+                return null;
+            }
+            localNames[i] = name[0];
+            namespaces[i] = name[1];
+        }
+        return new XMLStreamExtractionPath(localNames, namespaces, attributeLocalName, attributeNamespace, resultType);
+    }
+
+    /**
+     * Returns the number of element steps, which is the depth of a matching element.
+     * @return depth
+     */
+    public int getDepth()
+    {
+        return elementLocalNames.length;
+    }
+
+    /**
+     * Returns true if the element at the given depth matches the step for that depth.
+     * @param depth one-based element depth
+     * @param localName element local name
+     * @param namespace element namespace URI, empty string for none
+     * @return match indicator
+     */
+    public boolean isStepMatch(int depth, String localName, String namespace)
+    {
+        String stepLocalName = elementLocalNames[depth - 1];
+        if (stepLocalName.equals(WILDCARD))
+        {
+            return true;
+        }
+        return stepLocalName.equals(localName) && elementNamespaces[depth - 1].equals(namespace);
+    }
+
+    /**
+     * Returns the attribute local name for paths ending in an attribute step, or null for element paths.
+     * @return attribute local name
+     */
+    public String getAttributeLocalName()
+    {
+        return attributeLocalName;
+    }
+
+    /**
+     * Returns the attribute namespace URI, empty string for none.
+     * @return attribute namespace
+     */
+    public String getAttributeNamespace()
+    {
+        return attributeNamespace;
+    }
+
+    /**
+     * Returns the XPath result type.
+     * @return result type
+     */
+    public QName getResultType()
+    {
+        return resultType;
+    }
+
+    /**
+     * Returns the value of the path when no matching node was found, following the XPath conversion rules for an empty node-set.
+     * @return empty value
+     */
+    public Object getEmptyValue()
+    {
+        if (resultType.equals(XPathConstants.BOOLEAN))
+        {
+            return Boolean.FALSE;
+        }
+        if (resultType.equals(XPathConstants.NUMBER))
+        {
+            return Double.NaN;
+        }
+        return "";
+    }
+
+    /**
+     * Returns the value of the path for the string-value of the first matching node.
+     * @param stringValue string-value of the node
+     * @return value according to the result type
+     */
+    public Object getValue(String stringValue)
+    {
+        if (resultType.equals(XPathConstants.BOOLEAN))
+        {
+            return Boolean.TRUE;
+        }
+        if (resultType.equals(XPathConstants.NUMBER))
+        {
+            return toXPathNumber(stringValue);
+        }
+        return stringValue;
+    }
+
+    /**
+     * Returns true if the result type only requires knowing whether a node matches.
+     * @return indicator
+     */
+    public boolean isExistenceOnly()
+    {
+        return resultType.equals(XPathConstants.BOOLEAN);
+    }
+
+    /**
+     * Converts a string to a number following the XPath 1.0 number function: optional whitespace, an optional minus sign,
+     * digits with an optional decimal point, and optional whitespace; anything else is NaN.
+     * @param text to convert
+     * @return number
+     */
+    protected static Double toXPathNumber(String text)
+    {
+        String trimmed = text.trim();
+        int start = trimmed.startsWith("-") ? 1 : 0;
+        boolean digits = false;
+        boolean point = false;
+        for (int i = start; i < trimmed.length(); i++)
+        {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9')
+            {
+                digits = true;
+            }
+            else if (c == '.' && !point)
+            {
+                point = true;
+            }
+            else
+            {
+                return Double.NaN;
+            }
+        }
+        if (!digits)
+        {
+            return Double.NaN;
+        }
+        return Double.parseDouble(trimmed);
+    }
+
+    private static String[] resolveName(String step, NamespaceContext namespaceContext)
+    {
+        if (step.equals(WILDCARD))
+        {
+            return new String[] {WILDCARD, XMLConstants.NULL_NS_URI};
+        }
+        int colon = step.indexOf(':');
+        String prefix = null;
+        String localName = step;
+        if (colon != -1)
+        {
+            prefix = step.substring(0, colon);
+            localName = step.substring(colon + 1);
+            if (!isNCName(prefix))
+            {
+                return null;
+            }
+        }
+        if (!isNCName(localName))
+        {
+            return null;
+        }
+        if (prefix == null)
+        {
+            return new String[] {localName, XMLConstants.NULL_NS_URI};
+        }
+        if (namespaceContext == null)
+        {
+            return null;
+        }
+        String namespace = namespaceContext.getNamespaceURI(prefix);
+        if (namespace == null || namespace.length() == 0)
+        {
+            return null;
+        }
+        return new String[] {localName, namespace};
+    }
+
+    private static boolean isNCName(String name)
+    {
+        if (name.length() == 0)
+        {
+            return false;
+        }
+        char first = name.charAt(0);
+        if (!Character.isLetter(first) && first != '_')
+        {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++)
+        {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
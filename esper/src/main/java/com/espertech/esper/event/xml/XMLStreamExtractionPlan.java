@@ -0,0 +1,230 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.event.xml;
+
+import com.espertech.esper.client.EPException;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+/**
+ * Single-pass StAX extraction plan for the XPath properties of an XML event type that are simple location paths.
+ * <p>
+ * Extracts the values of all compiled properties from XML text or bytes without building a DOM,
+ * stopping as soon as every property has been found.
+ */
+public class XMLStreamExtractionPlan
+{
+    private static final XMLInputFactory INPUT_FACTORY;
+
+    static
+    {
+        INPUT_FACTORY = XMLInputFactory.newInstance();
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    private final XMLStreamExtractionPath[] paths;
+    private final XPathPropertyGetter[] getters;
+
+    /**
+     * Ctor.
+     * @param paths compiled paths
+     * @param getters getters for the properties that the paths are compiled from, for converting results
+     */
+    public XMLStreamExtractionPlan(XMLStreamExtractionPath[] paths, XPathPropertyGetter[] getters)
+    {
+        this.paths = paths;
+        this.getters = getters;
+        for (int i = 0; i < getters.length; i++)
+        {
+            getters[i].setStreamExtraction(this, i);
+        }
+    }
+
+    /**
+     * Parses the XML and returns the converted property values, one per path.
+     * @param xml XML document as a String or byte array
+     * @param expectedRootElementName root element name to validate, or null for no validation
+     * @return property values
+     * @throws EPException if the document cannot be parsed or the root element does not match
+     */
+    public Object[] extract(Object xml, String expectedRootElementName) throws EPException
+    {
+        XMLStreamReader reader = null;
+        try
+        {
+            if (xml instanceof String)
+            {
+                reader = INPUT_FACTORY.createXMLStreamReader(new StringReader((String) xml));
+            }
+            else
+            {
+                reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream((byte[]) xml));
+            }
+            Object[] values = extract(reader, expectedRootElementName);
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = getters[i].convertResult(values[i]);
+            }
+            return values;
+        }
+        catch (XMLStreamException ex)
+        {
+            throw new EPException("Failed to parse XML event: " + ex.getMessage(), ex);
+        }
+        finally
+        {
+            if (reader != null)
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch (XMLStreamException ex)
+                {
+                    // no action
+                }
+            }
+        }
+    }
+
+    private Object[] extract(XMLStreamReader reader, String expectedRootElementName) throws XMLStreamException
+    {
+        Object[] values = new Object[paths.length];
+        int[] matchedDepth = new int[paths.length];
+        boolean[] found = new boolean[paths.length];
+        StringBuilder[] text = new StringBuilder[paths.length];
+        int remaining = paths.length;
+        int capturing = 0;
+        int depth = 0;
+
+        while (reader.hasNext())
+        {
+            int type = reader.next();
+            if (type == XMLStreamConstants.START_ELEMENT)
+            {
+                depth++;
+                String localName = reader.getLocalName();
+                String namespace = normalize(reader.getNamespaceURI());
+                if (depth == 1 && expectedRootElementName != null && !expectedRootElementName.equals(localName))
+                {
+                    throw new EPException("Unexpected root element name '" + localName + "' encountered, expected a root element name of '" + expectedRootElementName + "'");
+                }
+                if (remaining == 0)
+                {
+                    break;
+                }
+
+                for (int i = 0; i < paths.length; i++)
+                {
+                    XMLStreamExtractionPath path = paths[i];
+                    if (found[i] || matchedDepth[i] != depth - 1 || depth > path.getDepth() || !path.isStepMatch(depth, localName, namespace))
+                    {
+                        continue;
+                    }
+                    matchedDepth[i] = depth;
+                    if (depth < path.getDepth())
+                    {
+                        continue;
+                    }
+
+                    if (path.getAttributeLocalName() != null)
+                    {
+                        String value = getAttribute(reader, path);
+                        if (value != null)
+                        {
+                            values[i] = path.getValue(value);
+                            found[i] = true;
+                            remaining--;
+                        }
+                    }
+                    else if (path.isExistenceOnly())
+                    {
+                        values[i] = Boolean.TRUE;
+                        found[i] = true;
+                        remaining--;
+                    }
+                    else
+                    {
+                        text[i] = new StringBuilder();
+                        capturing++;
+                    }
+                }
+            }
+            else if (type == XMLStreamConstants.END_ELEMENT)
+            {
+                for (int i = 0; i < paths.length; i++)
+                {
+                    if (matchedDepth[i] != depth)
+                    {
+                        continue;
+                    }
+                    matchedDepth[i] = depth - 1;
+                    if (text[i] != null && !found[i])
+                    {
+                        values[i] = paths[i].getValue(text[i].toString());
+                        text[i] = null;
+                        found[i] = true;
+                        remaining--;
+                        capturing--;
+                    }
+                }
+                depth--;
+                if (remaining == 0 || depth == 0)
+                {
+                    break;
+                }
+            }
+            else if (capturing > 0 && (type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.CDATA || type == XMLStreamConstants.SPACE))
+            {
+                for (int i = 0; i < paths.length; i++)
+                {
+                    if (text[i] != null)
+                    {
+                        text[i].append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < paths.length; i++)
+        {
+            if (!found[i])
+            {
+                values[i] = paths[i].getEmptyValue();
+            }
+        }
+        return values;
+    }
+
+    private static String getAttribute(XMLStreamReader reader, XMLStreamExtractionPath path)
+    {
+        for (int j = 0; j < reader.getAttributeCount(); j++)
+        {
+            if (path.getAttributeLocalName().equals(reader.getAttributeLocalName(j)) &&
+                path.getAttributeNamespace().equals(normalize(reader.getAttributeNamespace(j))))
+            {
+                return reader.getAttributeValue(j);
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String namespace)
+    {
+        return namespace == null ? XMLConstants.NULL_NS_URI : namespace;
+    }
+}
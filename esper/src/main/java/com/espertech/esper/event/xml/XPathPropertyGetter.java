@@ -41,6 +41,8 @@ public class XPathPropertyGetter implements EventPropertyGetter
     private final Class optionalCastToType;
     private final boolean isCastToArray;
     private final FragmentFactory fragmentFactory;
+    private XMLStreamExtractionPlan streamExtractionPlan;
+    private int streamValueIndex;
 
     /**
      * Ctor.
@@ -90,7 +92,27 @@ public class XPathPropertyGetter implements EventPropertyGetter
         }
     }
 
+    /**
+     * Sets the streaming extraction plan that pre-computes the value of this property for events sent as XML text or bytes.
+     * @param plan extraction plan
+     * @param index index of the value for this property
+     */
+    public void setStreamExtraction(XMLStreamExtractionPlan plan, int index)
+    {
+        this.streamExtractionPlan = plan;
+        this.streamValueIndex = index;
+    }
+
 	public Object get(EventBean eventBean) throws PropertyAccessException {
+        if (streamExtractionPlan != null && eventBean instanceof XMLStreamEventBean)
+        {
+            XMLStreamEventBean streamEvent = (XMLStreamEventBean) eventBean;
+            if (streamEvent.getPlan() == streamExtractionPlan)
+            {
+                return streamEvent.getStreamValue(streamValueIndex);
+            }
+        }
+
 		Object und = eventBean.getUnderlying();
         if (und == null)
         {
@@ -115,62 +137,71 @@ public class XPathPropertyGetter implements EventPropertyGetter
 
             // obtain result
             Object result = expression.evaluate(und,resultType);
-            if (result == null)
+            if (isCastToArray)
             {
-                return null;
+                return result == null ? null : castToArray(result);
             }
+            return convertResult(result);
+        }
+        catch (XPathExpressionException e) {
+			throw new PropertyAccessException("Error getting property " + property,e);
+		}
+	}
 
-            if (isCastToArray)
+    /**
+     * Converts an XPath expression result to the cast-to type, if any.
+     * @param result the XPath expression result
+     * @return converted result
+     */
+    public Object convertResult(Object result)
+    {
+        if (optionalCastToType == null || result == null)
+        {
+            return result;
+        }
+
+        // string results get parsed
+        if (result instanceof String)
+        {
+            try
             {
-                return castToArray(result);
+                return simpleTypeParser.parse(result.toString());
             }
-
-            // string results get parsed
-            if (result instanceof String)
+            catch (RuntimeException ex)
             {
-                try
-                {
-                    return simpleTypeParser.parse(result.toString());
-                }
-                catch (RuntimeException ex)
-                {
-                    log.warn("Error parsing XPath property named '" + property + "' expression result '" + result + " as type " + optionalCastToType.getName());
-                    return null;
-                }
+                log.warn("Error parsing XPath property named '" + property + "' expression result '" + result + " as type " + optionalCastToType.getName());
+                return null;
             }
+        }
 
-            // coercion
-            if (result instanceof Double)
+        // coercion
+        if (result instanceof Double)
+        {
+            try
             {
-                try
-                {
-                    return JavaClassHelper.coerceBoxed((Number)result, optionalCastToType);
-                }
-                catch (RuntimeException ex)
-                {
-                    log.warn("Error coercing XPath property named '" + property + "' expression result '" + result + " as type " + optionalCastToType.getName());
-                    return null;
-                }
+                return JavaClassHelper.coerceBoxed((Number)result, optionalCastToType);
             }
-
-            // check boolean type
-            if (result instanceof Boolean)
+            catch (RuntimeException ex)
             {
-                if (optionalCastToType != Boolean.class)
-                {
-                    log.warn("Error coercing XPath property named '" + property + "' expression result '" + result + " as type " + optionalCastToType.getName());
-                    return null;
-                }
-                return result;
+                log.warn("Error coercing XPath property named '" + property + "' expression result '" + result + " as type " + optionalCastToType.getName());
+                return null;
             }
+        }
 
-            log.warn("Error processing XPath property named '" + property + "' expression result '" + result + ", not a known type");
-            return null;
+        // check boolean type
+        if (result instanceof Boolean)
+        {
+            if (optionalCastToType != Boolean.class)
+            {
+                log.warn("Error coercing XPath property named '" + property + "' expression result '" + result + " as type " + optionalCastToType.getName());
+                return null;
+            }
+            return result;
         }
-        catch (XPathExpressionException e) {
-			throw new PropertyAccessException("Error getting property " + property,e);
-		}
-	}
+
+        log.warn("Error processing XPath property named '" + property + "' expression result '" + result + ", not a known type");
+        return null;
+    }
 
     public boolean isExistsProperty(EventBean eventBean)
     {
@@ -0,0 +1,106 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.pattern;
+
+import com.espertech.esper.filter.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes a pattern filter that correlates to an earlier pattern event by equality of a single property,
+ * such as {@code b=Fill(orderId=a.id)}, and whose remaining filter criteria do not depend on earlier pattern events.
+ * <p>
+ * All active instances of such a filter share one filter registration that carries the remaining criteria,
+ * and arriving events are routed to the waiting instances by the value of the correlated property.
+ * </p>
+ */
+public class EvalFilterCorrelationDesc
+{
+    private final FilterSpecCompiled sharedFilterSpec;
+    private final FilterSpecParamEventProp correlatedParam;
+
+    private EvalFilterCorrelationDesc(FilterSpecCompiled sharedFilterSpec, FilterSpecParamEventProp correlatedParam) {
+        this.sharedFilterSpec = sharedFilterSpec;
+        this.correlatedParam = correlatedParam;
+    }
+
+    /**
+     * Returns the filter without the correlated criteria, for the shared filter registration.
+     * @return filter
+     */
+    public FilterSpecCompiled getSharedFilterSpec() {
+        return sharedFilterSpec;
+    }
+
+    /**
+     * Returns the correlated criteria that provides the value a waiting filter instance waits for.
+     * @return correlated filter parameter
+     */
+    public FilterSpecParamEventProp getCorrelatedParam() {
+        return correlatedParam;
+    }
+
+    /**
+     * Determines the correlation for a filter, if the filter qualifies.
+     * @param filterSpec filter
+     * @param consumptionLevel consumption level or null if not consuming
+     * @return correlation or null if the filter does not qualify
+     */
+    public static EvalFilterCorrelationDesc determine(FilterSpecCompiled filterSpec, Integer consumptionLevel) {
+        if (consumptionLevel != null || filterSpec.getOptionalPropertyEvaluator() != null || filterSpec.getParameters().length != 1) {
+            return null;
+        }
+        FilterSpecParamEventProp correlated = null;
+        List<FilterSpecParam> remaining = new ArrayList<FilterSpecParam>();
+        for (FilterSpecParam param : filterSpec.getParameters()[0]) {
+            if (correlated == null && param instanceof FilterSpecParamEventProp && param.getFilterOperator() == FilterOperator.EQUAL) {
+                correlated = (FilterSpecParamEventProp) param;
+                continue;
+            }
+            if (!isIndependentOfMatches(param)) {
+                return null;
+            }
+            remaining.add(param);
+        }
+        if (correlated == null) {
+            return null;
+        }
+        FilterSpecCompiled shared = new FilterSpecCompiled(filterSpec.getFilterForEventType(), filterSpec.getFilterForEventTypeName(), new List[] {remaining}, null);
+        return new EvalFilterCorrelationDesc(shared, correlated);
+    }
+
+    private static boolean isIndependentOfMatches(FilterSpecParam param) {
+        if (param instanceof FilterSpecParamConstant || param instanceof FilterSpecParamContextProp) {
+            return true;
+        }
+        if (param instanceof FilterSpecParamExprNode) {
+            FilterSpecParamExprNode exprParam = (FilterSpecParamExprNode) param;
+            return (exprParam.getTaggedEventTypes() == null || exprParam.getTaggedEventTypes().isEmpty()) &&
+                   (exprParam.getArrayEventTypes() == null || exprParam.getArrayEventTypes().isEmpty());
+        }
+        if (param instanceof FilterSpecParamRange) {
+            FilterSpecParamRange range = (FilterSpecParamRange) param;
+            return isIndependentOfMatches(range.getMin()) && isIndependentOfMatches(range.getMax());
+        }
+        if (param instanceof FilterSpecParamIn) {
+            for (FilterSpecParamInValue value : ((FilterSpecParamIn) param).getListOfValues()) {
+                if (!(value instanceof InSetOfValuesConstant || value instanceof InSetOfValuesContextProp)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isIndependentOfMatches(FilterSpecParamRangeValue value) {
+        return value instanceof RangeValueDouble || value instanceof RangeValueString || value instanceof RangeValueContextProp;
+    }
+}
@@ -0,0 +1,177 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.pattern;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.core.context.util.AgentInstanceContext;
+import com.espertech.esper.core.service.EPStatementHandleCallback;
+import com.espertech.esper.filter.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pattern-level index of the active instances of a correlated filter, see {@link EvalFilterCorrelationDesc}.
+ * <p>
+ * The index holds a single filter registration for all waiting filter instances, registered while
+ * any instance waits, and routes arriving events to the instances waiting for the event's correlated property value.
+ * </p>
+ * <p>
+ * A filter instance that is started while the engine processes an event does not receive the same event, consistent with
+ * a filter registered while processing an event.
+ * </p>
+ */
+public class EvalFilterCorrelationIndex implements FilterHandleCallback
+{
+    private final EvalFilterNode evalFilterNode;
+    private final EvalFilterCorrelationDesc desc;
+    private final Map<Object, Object> waiting = new HashMap<Object, Object>(); // value is a state node or a list of state nodes
+    private int numWaiting;
+
+    private EPStatementHandleCallback handle;
+    private FilterServiceEntry filterServiceEntry;
+
+    /**
+     * Ctor.
+     * @param evalFilterNode filter node
+     * @param desc correlation
+     */
+    public EvalFilterCorrelationIndex(EvalFilterNode evalFilterNode, EvalFilterCorrelationDesc desc) {
+        this.evalFilterNode = evalFilterNode;
+        this.desc = desc;
+    }
+
+    /**
+     * Adds a filter instance that starts waiting, for the value provided by the filter instance's begin state.
+     * @param stateNode filter instance
+     */
+    public void add(EvalFilterStateNode stateNode) {
+        AgentInstanceContext agentInstanceContext = evalFilterNode.getContext().getAgentInstanceContext();
+        Object key = desc.getCorrelatedParam().getFilterValue(stateNode.beginState, agentInstanceContext);
+        stateNode.isCorrelated = true;
+        stateNode.correlationKey = key;
+        stateNode.correlationStartEvent = evalFilterNode.getContext().getFilterMatchEvent();
+        if (key == null) {
+            return; // null cannot match, consistent with filter equals-index
+        }
+
+        Object existing = waiting.get(key);
+        if (existing == null) {
+            waiting.put(key, stateNode);
+        }
+        else if (existing instanceof EvalFilterStateNode) {
+            ArrayList<EvalFilterStateNode> nodes = new ArrayList<EvalFilterStateNode>(2);
+            nodes.add((EvalFilterStateNode) existing);
+            nodes.add(stateNode);
+            waiting.put(key, nodes);
+        }
+        else {
+            ((ArrayList<EvalFilterStateNode>) existing).add(stateNode);
+        }
+
+        numWaiting++;
+        if (numWaiting == 1) {
+            FilterService filterService = evalFilterNode.getContext().getPatternContext().getFilterService();
+            handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), this);
+            FilterValueSet filterValues = desc.getSharedFilterSpec().getValueSet(stateNode.beginState, agentInstanceContext, evalFilterNode.getAddendumFilters());
+            filterServiceEntry = filterService.add(filterValues, handle);
+            agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filterService.getFiltersVersion());
+        }
+    }
+
+    /**
+     * Removes a filter instance that stops waiting.
+     * @param stateNode filter instance
+     */
+    public void remove(EvalFilterStateNode stateNode) {
+        Object key = stateNode.correlationKey;
+        stateNode.isCorrelated = false;
+        stateNode.correlationKey = null;
+        stateNode.correlationStartEvent = null;
+        if (key == null) {
+            return;
+        }
+
+        Object existing = waiting.get(key);
+        if (existing == null) {
+            return;
+        }
+        if (existing == stateNode) {
+            waiting.remove(key);
+        }
+        else if (existing instanceof ArrayList) {
+            ArrayList<EvalFilterStateNode> nodes = (ArrayList<EvalFilterStateNode>) existing;
+            if (!nodes.remove(stateNode)) {
+                return;
+            }
+            if (nodes.size() == 1) {
+                waiting.put(key, nodes.get(0));
+            }
+        }
+        else {
+            return;
+        }
+
+        numWaiting--;
+        if (numWaiting == 0 && handle != null) {
+            FilterService filterService = evalFilterNode.getContext().getPatternContext().getFilterService();
+            filterService.remove(handle, filterServiceEntry);
+            handle = null;
+            filterServiceEntry = null;
+            evalFilterNode.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filterService.getFiltersVersion());
+        }
+    }
+
+    /**
+     * Returns the number of waiting filter instances that can match.
+     * @return count
+     */
+    public int getNumWaiting() {
+        return numWaiting;
+    }
+
+    public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
+        Object key = desc.getCorrelatedParam().getLookupable().getGetter().get(theEvent);
+        if (key == null) {
+            return;
+        }
+        Object existing = waiting.get(key);
+        if (existing == null) {
+            return;
+        }
+        if (existing instanceof EvalFilterStateNode) {
+            deliver((EvalFilterStateNode) existing, theEvent, allStmtMatches);
+            return;
+        }
+
+        // copy as matching may start and stop waiting filter instances
+        ArrayList<EvalFilterStateNode> nodes = (ArrayList<EvalFilterStateNode>) existing;
+        EvalFilterStateNode[] copy = nodes.toArray(new EvalFilterStateNode[nodes.size()]);
+        for (EvalFilterStateNode node : copy) {
+            deliver(node, theEvent, allStmtMatches);
+        }
+    }
+
+    public boolean isSubSelect() {
+        return false;
+    }
+
+    public int getStatementId() {
+        return evalFilterNode.getContext().getPatternContext().getStatementId();
+    }
+
+    private void deliver(EvalFilterStateNode node, EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
+        if (!node.isCorrelated || node.correlationStartEvent == theEvent) {
+            return;
+        }
+        node.matchFound(theEvent, allStmtMatches);
+    }
+}
@@ -25,6 +25,7 @@ public class EvalFilterFactoryNode extends EvalNodeFactoryBase
     private final FilterSpecRaw rawFilterSpec;
     private final String eventAsName;
     private transient FilterSpecCompiled filterSpec;
+    private transient EvalFilterCorrelationDesc correlationDesc;
     private final Integer consumptionLevel;
 
     private int eventAsTagNumber = -1;
@@ -74,6 +75,16 @@ public class EvalFilterFactoryNode extends EvalNodeFactoryBase
     public void setFilterSpec(FilterSpecCompiled filterSpec)
     {
         this.filterSpec = filterSpec;
+        this.correlationDesc = filterSpec == null ? null : EvalFilterCorrelationDesc.determine(filterSpec, consumptionLevel);
+    }
+
+    /**
+     * Returns the correlation to an earlier pattern event, if the filter qualifies for a correlation index.
+     * @return correlation or null
+     */
+    public EvalFilterCorrelationDesc getCorrelationDesc()
+    {
+        return correlationDesc;
     }
 
     /**
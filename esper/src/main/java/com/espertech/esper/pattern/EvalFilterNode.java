@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.pattern;
 
+import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.filter.FilterValueSetParam;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +20,7 @@ public class EvalFilterNode extends EvalNodeBase
 {
     protected final EvalFilterFactoryNode factoryNode;
     private final FilterValueSetParam[][] addendumFilters;
+    private final EvalFilterCorrelationIndex correlationIndex;
 
     public EvalFilterNode(PatternAgentInstanceContext context, EvalFilterFactoryNode factoryNode) {
         super(context);
@@ -29,6 +31,13 @@ public class EvalFilterNode extends EvalNodeBase
         else {
             this.addendumFilters = null;
         }
+        if (factoryNode.getCorrelationDesc() != null && context.getConsumptionHandler() == null &&
+            HintEnum.ENABLE_PATTERN_CORRELATION_INDEX.getHint(context.getStatementContext().getAnnotations()) != null) {
+            this.correlationIndex = new EvalFilterCorrelationIndex(this, factoryNode.getCorrelationDesc());
+        }
+        else {
+            this.correlationIndex = null;
+        }
     }
 
     public EvalFilterFactoryNode getFactoryNode() {
@@ -39,6 +48,10 @@ public class EvalFilterNode extends EvalNodeBase
         return addendumFilters;
     }
 
+    public EvalFilterCorrelationIndex getCorrelationIndex() {
+        return correlationIndex;
+    }
+
     public EvalStateNode newState(Evaluator parentNode,
                                   EvalStateNodeNumber stateNodeNumber, long stateNodeId)
     {
@@ -31,6 +31,9 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
     protected EPStatementHandleCallback handle;
     protected FilterServiceEntry filterServiceEntry;
     protected MatchedEventMap beginState;
+    protected boolean isCorrelated;
+    protected Object correlationKey;
+    protected EventBean correlationStartEvent;
 
     /**
      * Constructor.
@@ -133,7 +136,15 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
             isQuitted = true;
         }
 
-        this.evaluateTrue(passUp, isQuitted);
+        PatternAgentInstanceContext context = evalFilterNode.getContext();
+        EventBean priorMatchEvent = context.getFilterMatchEvent();
+        context.setFilterMatchEvent(theEvent);
+        try {
+            this.evaluateTrue(passUp, isQuitted);
+        }
+        finally {
+            context.setFilterMatchEvent(priorMatchEvent);
+        }
 
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aPatternFilterMatch(isQuitted);}
     }
@@ -182,6 +193,10 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
 
     protected void startFiltering()
     {
+        if (evalFilterNode.getCorrelationIndex() != null) {
+            evalFilterNode.getCorrelationIndex().add(this);
+            return;
+        }
         FilterService filterService = evalFilterNode.getContext().getPatternContext().getFilterService();
         handle = new EPStatementHandleCallback(evalFilterNode.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle(), this);
         FilterValueSet filterValues = evalFilterNode.getFactoryNode().getFilterSpec().getValueSet(beginState, evalFilterNode.getContext().getAgentInstanceContext(), evalFilterNode.getAddendumFilters());
@@ -192,6 +207,11 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
 
     private void stopFiltering()
     {
+        if (isCorrelated) {
+            evalFilterNode.getCorrelationIndex().remove(this);
+            isStarted = false;
+            return;
+        }
         PatternContext context = evalFilterNode.getContext().getPatternContext();
         if (handle != null) {
             context.getFilterService().remove(handle, filterServiceEntry);
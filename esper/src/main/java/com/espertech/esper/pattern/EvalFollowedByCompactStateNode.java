@@ -0,0 +1,420 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.pattern;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.core.context.util.AgentInstanceContext;
+import com.espertech.esper.core.service.EPStatementHandleCallback;
+import com.espertech.esper.filter.*;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Compact state of a top-level followed-by operator whose sub-expressions after the first are filters that correlate
+ * to earlier pattern events by equality, such as {@code every a=A -> b=B(id=a.id) -> c=C(id=b.id)}.
+ * <p>
+ * Instead of a tree of state nodes and a filter per active sub-expression instance, each active instance is a record
+ * in flat arrays, linked into a per-value chain of the filter it waits for. Each filter registers once with the
+ * filter service, carrying only the filter criteria that do not depend on earlier pattern events.
+ * </p>
+ * <p>
+ * The first sub-expression is an ordinary state node tree.
+ * </p>
+ */
+public class EvalFollowedByCompactStateNode extends EvalStateNode implements Evaluator
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    protected final EvalFollowedByNode evalFollowedByNode;
+    private final Stage[] stages;
+    private EvalStateNode firstChild;
+
+    // one record per active sub-expression instance, records are linked per correlation value
+    private MatchedEventMap[] recordState;
+    private EventBean[] recordStartEvent;
+    private Object[] recordKey;
+    private int[] recordStage;
+    private int[] recordPrev;
+    private int[] recordNext;
+    private int recordHighWater;
+    private int[] freeRecords;
+    private int numFreeRecords;
+    private int numActive;
+
+    /**
+     * Constructor.
+     * @param parentNode is the parent evaluator to call to indicate truth value
+     * @param evalFollowedByNode is the factory node associated to the state
+     */
+    public EvalFollowedByCompactStateNode(Evaluator parentNode, EvalFollowedByNode evalFollowedByNode)
+    {
+        super(parentNode);
+        this.evalFollowedByNode = evalFollowedByNode;
+        EvalNode[] childNodes = evalFollowedByNode.getChildNodes();
+        this.stages = new Stage[childNodes.length];
+        for (int i = 1; i < childNodes.length; i++) {
+            stages[i] = new Stage(i, (EvalFilterNode) childNodes[i]);
+        }
+    }
+
+    /**
+     * Returns indicator whether the followed-by node can use a compact state.
+     * @param evalFollowedByNode followed-by node
+     * @return indicator
+     */
+    public static boolean isApplicable(EvalFollowedByNode evalFollowedByNode) {
+        if (evalFollowedByNode.getFactoryNode().getOpType() != EvalFollowedByNodeOpType.NOMAX_PLAIN ||
+            evalFollowedByNode.getContext().getConsumptionHandler() != null) {
+            return false;
+        }
+        EvalNode[] childNodes = evalFollowedByNode.getChildNodes();
+        for (int i = 1; i < childNodes.length; i++) {
+            if (!(childNodes[i] instanceof EvalFilterNode) ||
+                ((EvalFilterNode) childNodes[i]).getFactoryNode().getCorrelationDesc() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public EvalNode getFactoryNode() {
+        return evalFollowedByNode;
+    }
+
+    public void removeMatch(Set<EventBean> matchEvent) {
+        // remove the records of sub-expression instances that hold any of the matched events
+        boolean removed = false;
+        for (int record = 0; record < recordHighWater; record++) {
+            if (recordStage[record] != NONE && PatternConsumptionUtil.containsEvent(matchEvent, recordState[record])) {
+                removeRecord(record);
+                removed = true;
+            }
+        }
+
+        if (firstChild != null) {
+            firstChild.removeMatch(matchEvent);
+        }
+        else if (removed && numActive == 0) {
+            this.getParentEvaluator().evaluateFalse(this, true);
+            quitInternal();
+        }
+    }
+
+    public final void start(MatchedEventMap beginState)
+    {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qPatternFollowedByStart(evalFollowedByNode, beginState);}
+        EvalStateNode childState = evalFollowedByNode.getChildNodes()[0].newState(this, null, 0L);
+        firstChild = childState;
+        childState.start(beginState);
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aPatternFollowedByStart();}
+    }
+
+    public final void evaluateTrue(MatchedEventMap matchEvent, EvalStateNode fromNode, boolean isQuitted)
+    {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qPatternFollowedByEvaluateTrue(evalFollowedByNode, matchEvent, fromNode == firstChild ? 0 : null);}
+
+        // the node may already have quit as a result of an outer state quitting this state
+        if (fromNode != firstChild || firstChild == null)
+        {
+            if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aPatternFollowedByEvaluateTrue(false);}
+            return;
+        }
+        if (isQuitted)
+        {
+            firstChild = null;
+        }
+        addRecord(1, matchEvent, evalFollowedByNode.getContext().getFilterMatchEvent());
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aPatternFollowedByEvaluateTrue(false);}
+    }
+
+    public final void evaluateFalse(EvalStateNode fromNode, boolean restartable)
+    {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qPatternFollowedByEvalFalse(evalFollowedByNode);}
+        fromNode.quit();
+        if (fromNode == firstChild) {
+            firstChild = null;
+        }
+
+        if (firstChild == null && numActive == 0)
+        {
+            this.getParentEvaluator().evaluateFalse(this, true);
+            quitInternal();
+        }
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aPatternFollowedByEvalFalse();}
+    }
+
+    public final void quit()
+    {
+        if (firstChild == null && numActive == 0) {
+            return;
+        }
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qPatternFollowedByQuit(evalFollowedByNode);}
+        quitInternal();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aPatternFollowedByQuit();}
+    }
+
+    public final void accept(EvalStateNodeVisitor visitor) {
+        visitor.visitFollowedBy(evalFollowedByNode.getFactoryNode(), this, firstChild == null ? Collections.emptyMap() : Collections.singletonMap(firstChild, 0));
+        if (firstChild != null) {
+            firstChild.accept(visitor);
+        }
+    }
+
+    public boolean isNotOperator() {
+        return false;
+    }
+
+    public boolean isFilterStateNode() {
+        return false;
+    }
+
+    public boolean isFilterChildNonQuitting() {
+        return false;
+    }
+
+    public boolean isObserverStateNodeNonRestarting() {
+        return false;
+    }
+
+    /**
+     * Returns the number of active sub-expression instances held as records.
+     * @return count
+     */
+    public int getNumActive() {
+        return numActive;
+    }
+
+    public final String toString()
+    {
+        return "EvalFollowedByCompactStateNode records=" + numActive;
+    }
+
+    private void stageMatch(Stage stage, EventBean theEvent) {
+        Object key = stage.desc.getCorrelatedParam().getLookupable().getGetter().get(theEvent);
+        if (key == null) {
+            return;
+        }
+        Integer head = stage.heads.get(key);
+        if (head == null) {
+            return;
+        }
+
+        // snapshot the chain as matching adds and removes records
+        int count = 0;
+        for (int record = head; record != NONE; record = recordNext[record]) {
+            count++;
+        }
+        int[] records = new int[count];
+        count = 0;
+        for (int record = head; record != NONE; record = recordNext[record]) {
+            records[count++] = record;
+        }
+
+        PatternAgentInstanceContext context = evalFollowedByNode.getContext();
+        EventBean priorMatchEvent = context.getFilterMatchEvent();
+        context.setFilterMatchEvent(theEvent);
+        try {
+            for (int record : records) {
+                // skip records that ended or were started by this same event
+                if (recordStage[record] != stage.index || recordStartEvent[record] == theEvent || !key.equals(recordKey[record])) {
+                    continue;
+                }
+                MatchedEventMap passUp = recordState[record].shallowCopy();
+                removeRecord(record);
+                if (stage.filterNode.getFactoryNode().getEventAsName() != null) {
+                    passUp.add(stage.filterNode.getFactoryNode().getEventAsTagNumber(), theEvent);
+                }
+                stageTrue(stage.index, passUp, theEvent);
+            }
+        }
+        finally {
+            context.setFilterMatchEvent(priorMatchEvent);
+        }
+    }
+
+    private void stageTrue(int index, MatchedEventMap matchEvent, EventBean theEvent) {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qPatternFollowedByEvaluateTrue(evalFollowedByNode, matchEvent, index);}
+        boolean isFollowedByQuitted = false;
+        if (index == stages.length - 1) {
+            isFollowedByQuitted = firstChild == null && numActive == 0;
+            this.getParentEvaluator().evaluateTrue(matchEvent, this, isFollowedByQuitted);
+        }
+        else {
+            addRecord(index + 1, matchEvent, theEvent);
+        }
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aPatternFollowedByEvaluateTrue(isFollowedByQuitted);}
+    }
+
+    private void addRecord(int stageIndex, MatchedEventMap state, EventBean startEvent) {
+        Stage stage = stages[stageIndex];
+        AgentInstanceContext agentInstanceContext = evalFollowedByNode.getContext().getAgentInstanceContext();
+        Object key = stage.desc.getCorrelatedParam().getFilterValue(state, agentInstanceContext);
+
+        int record = allocateRecord();
+        recordState[record] = state;
+        recordStartEvent[record] = startEvent;
+        recordKey[record] = key;
+        recordStage[record] = stageIndex;
+        recordPrev[record] = NONE;
+        recordNext[record] = NONE;
+        numActive++;
+        if (key == null) {
+            return; // null cannot match, the record remains active without a chain
+        }
+
+        Integer head = stage.heads.put(key, record);
+        if (head != null) {
+            recordNext[record] = head;
+            recordPrev[head] = record;
+        }
+        stage.numKeyed++;
+        if (stage.numKeyed == 1) {
+            stage.register(state, agentInstanceContext);
+        }
+    }
+
+    private void removeRecord(int record) {
+        Stage stage = stages[recordStage[record]];
+        Object key = recordKey[record];
+        if (key != null) {
+            int prev = recordPrev[record];
+            int next = recordNext[record];
+            if (prev == NONE) {
+                if (next == NONE) {
+                    stage.heads.remove(key);
+                }
+                else {
+                    stage.heads.put(key, next);
+                }
+            }
+            else {
+                recordNext[prev] = next;
+            }
+            if (next != NONE) {
+                recordPrev[next] = prev;
+            }
+            stage.numKeyed--;
+            if (stage.numKeyed == 0) {
+                stage.unregister();
+            }
+        }
+        recordState[record] = null;
+        recordStartEvent[record] = null;
+        recordKey[record] = null;
+        recordStage[record] = NONE;
+        freeRecords[numFreeRecords++] = record;
+        numActive--;
+    }
+
+    private int allocateRecord() {
+        if (numFreeRecords > 0) {
+            return freeRecords[--numFreeRecords];
+        }
+        if (recordState == null) {
+            recordState = new MatchedEventMap[INITIAL_CAPACITY];
+            recordStartEvent = new EventBean[INITIAL_CAPACITY];
+            recordKey = new Object[INITIAL_CAPACITY];
+            recordStage = new int[INITIAL_CAPACITY];
+            recordPrev = new int[INITIAL_CAPACITY];
+            recordNext = new int[INITIAL_CAPACITY];
+            freeRecords = new int[INITIAL_CAPACITY];
+        }
+        else if (recordHighWater == recordState.length) {
+            int capacity = recordState.length * 2;
+            recordState = Arrays.copyOf(recordState, capacity);
+            recordStartEvent = Arrays.copyOf(recordStartEvent, capacity);
+            recordKey = Arrays.copyOf(recordKey, capacity);
+            recordStage = Arrays.copyOf(recordStage, capacity);
+            recordPrev = Arrays.copyOf(recordPrev, capacity);
+            recordNext = Arrays.copyOf(recordNext, capacity);
+            freeRecords = Arrays.copyOf(freeRecords, capacity);
+        }
+        return recordHighWater++;
+    }
+
+    private void quitInternal()
+    {
+        if (firstChild != null) {
+            EvalStateNode child = firstChild;
+            firstChild = null;
+            child.quit();
+        }
+        for (int i = 1; i < stages.length; i++) {
+            stages[i].heads.clear();
+            stages[i].numKeyed = 0;
+            stages[i].unregister();
+        }
+        if (recordState != null) {
+            Arrays.fill(recordState, null);
+            Arrays.fill(recordStartEvent, null);
+            Arrays.fill(recordKey, null);
+            Arrays.fill(recordStage, NONE);
+        }
+        recordHighWater = 0;
+        numFreeRecords = 0;
+        numActive = 0;
+    }
+
+    private class Stage implements FilterHandleCallback
+    {
+        private final int index;
+        private final EvalFilterNode filterNode;
+        private final EvalFilterCorrelationDesc desc;
+        private final HashMap<Object, Integer> heads = new HashMap<Object, Integer>();
+        private int numKeyed;
+        private EPStatementHandleCallback handle;
+        private FilterServiceEntry filterServiceEntry;
+
+        private Stage(int index, EvalFilterNode filterNode) {
+            this.index = index;
+            this.filterNode = filterNode;
+            this.desc = filterNode.getFactoryNode().getCorrelationDesc();
+        }
+
+        public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
+            if (handle != null) {
+                stageMatch(this, theEvent);
+            }
+        }
+
+        public boolean isSubSelect() {
+            return false;
+        }
+
+        public int getStatementId() {
+            return filterNode.getContext().getPatternContext().getStatementId();
+        }
+
+        private void register(MatchedEventMap state, AgentInstanceContext agentInstanceContext) {
+            FilterService filterService = filterNode.getContext().getPatternContext().getFilterService();
+            handle = new EPStatementHandleCallback(agentInstanceContext.getEpStatementAgentInstanceHandle(), this);
+            FilterValueSet filterValues = desc.getSharedFilterSpec().getValueSet(state, agentInstanceContext, filterNode.getAddendumFilters());
+            filterServiceEntry = filterService.add(filterValues, handle);
+            agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filterService.getFiltersVersion());
+        }
+
+        private void unregister() {
+            if (handle == null) {
+                return;
+            }
+            FilterService filterService = filterNode.getContext().getPatternContext().getFilterService();
+            filterService.remove(handle, filterServiceEntry);
+            handle = null;
+            filterServiceEntry = null;
+            filterNode.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filterService.getFiltersVersion());
+        }
+    }
+}
@@ -8,6 +8,7 @@
  **************************************************************************************/
 package com.espertech.esper.pattern;
 
+import com.espertech.esper.client.annotation.HintEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,11 +19,14 @@ public class EvalFollowedByNode extends EvalNodeBase
 {
     protected final EvalFollowedByFactoryNode factoryNode;
     private final EvalNode[] childNodes;
+    private final boolean compactState;
 
     public EvalFollowedByNode(PatternAgentInstanceContext context, EvalFollowedByFactoryNode factoryNode, EvalNode[] childNodes) {
         super(context);
         this.factoryNode = factoryNode;
         this.childNodes = childNodes;
+        this.compactState = HintEnum.ENABLE_PATTERN_COMPACT_STATE.getHint(context.getStatementContext().getAnnotations()) != null &&
+                EvalFollowedByCompactStateNode.isApplicable(this);
     }
 
     public EvalNode[] getChildNodes() {
@@ -38,6 +42,9 @@ public class EvalFollowedByNode extends EvalNodeBase
     {
         switch (factoryNode.opType) {
             case NOMAX_PLAIN:
+                if (compactState && parentNode instanceof EvalRootStateNode) {
+                    return new EvalFollowedByCompactStateNode(parentNode, this);
+                }
                 return new EvalFollowedByStateNode(parentNode, this);
             default:
                 return new EvalFollowedByWithMaxStateNodeManaged(parentNode, this);
@@ -8,8 +8,11 @@
  **************************************************************************************/
 package com.espertech.esper.pattern;
 
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
 import com.espertech.esper.core.context.util.AgentInstanceContext;
 import com.espertech.esper.core.service.StatementContext;
+import com.espertech.esper.epl.expression.core.ExprValidationException;
 
 /**
  * Contains handles to implementations of services needed by evaluation nodes.
@@ -19,6 +22,8 @@ public class PatternAgentInstanceContext
     private final PatternContext patternContext;
     private final AgentInstanceContext agentInstanceContext;
     private final EvalFilterConsumptionHandler consumptionHandler;
+    private final PatternTimerBuckets timerBuckets;
+    private EventBean filterMatchEvent;
 
     public PatternAgentInstanceContext(PatternContext patternContext, AgentInstanceContext agentInstanceContext, boolean hasConsumingFilter) {
         this.patternContext = patternContext;
@@ -30,6 +35,15 @@ public class PatternAgentInstanceContext
         else {
             consumptionHandler = null;
         }
+
+        long timerGranularity;
+        try {
+            timerGranularity = PatternTimerBuckets.getGranularityMSec(agentInstanceContext.getStatementContext().getAnnotations());
+        }
+        catch (ExprValidationException ex) {
+            throw new EPException(ex.getMessage(), ex);
+        }
+        timerBuckets = timerGranularity > 0 ? new PatternTimerBuckets(timerGranularity, this) : null;
     }
 
     public PatternContext getPatternContext() {
@@ -47,4 +61,28 @@ public class PatternAgentInstanceContext
     public StatementContext getStatementContext() {
         return agentInstanceContext.getStatementContext();
     }
+
+    /**
+     * Returns the coarse-granularity timers for guards and observers, if configured.
+     * @return timers or null
+     */
+    public PatternTimerBuckets getTimerBuckets() {
+        return timerBuckets;
+    }
+
+    /**
+     * Returns the event that a filter of the pattern currently processes a match for, if any.
+     * @return event or null
+     */
+    public EventBean getFilterMatchEvent() {
+        return filterMatchEvent;
+    }
+
+    /**
+     * Sets the event that a filter of the pattern currently processes a match for.
+     * @param filterMatchEvent event or null
+     */
+    public void setFilterMatchEvent(EventBean filterMatchEvent) {
+        this.filterMatchEvent = filterMatchEvent;
+    }
 }
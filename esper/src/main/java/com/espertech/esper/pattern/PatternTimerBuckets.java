@@ -0,0 +1,166 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.pattern;
+
+import com.espertech.esper.client.annotation.Hint;
+import com.espertech.esper.client.annotation.HintEnum;
+import com.espertech.esper.core.service.EPStatementHandleCallback;
+import com.espertech.esper.core.service.EngineLevelExtensionServicesContext;
+import com.espertech.esper.epl.expression.core.ExprValidationException;
+import com.espertech.esper.schedule.ScheduleHandleCallback;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Coarse-granularity timers for pattern guards and observers: timeouts are rounded up to the next tick of the granularity
+ * and all timeouts for the same tick share a single schedule entry, firing as a batch.
+ * <p>
+ * Callbacks that stop their timer are not removed from the tick's batch. Callbacks therefore confirm, when triggered,
+ * that their timer is still active and belongs to the firing tick, see {@link Bucket#isFiring()}.
+ * </p>
+ */
+public class PatternTimerBuckets
+{
+    private final long granularityMSec;
+    private final PatternAgentInstanceContext context;
+    private final Map<Long, Bucket> buckets = new HashMap<Long, Bucket>();
+
+    /**
+     * Ctor.
+     * @param granularityMSec tick size
+     * @param context pattern context
+     */
+    public PatternTimerBuckets(long granularityMSec, PatternAgentInstanceContext context) {
+        this.granularityMSec = granularityMSec;
+        this.context = context;
+    }
+
+    /**
+     * Returns the granularity that the statement annotations provide.
+     * @param annotations statement annotations
+     * @return granularity in milliseconds or -1 when not provided
+     * @throws ExprValidationException if the granularity is invalid
+     */
+    public static long getGranularityMSec(Annotation[] annotations) throws ExprValidationException {
+        Hint hint = HintEnum.PATTERN_TIMER_GRANULARITY.getHint(annotations);
+        if (hint == null) {
+            return -1;
+        }
+        String value = HintEnum.PATTERN_TIMER_GRANULARITY.getHintAssignedValue(hint);
+        double seconds;
+        try {
+            seconds = Double.parseDouble(value);
+        }
+        catch (RuntimeException ex) {
+            throw new ExprValidationException("Invalid value for hint '" + HintEnum.PATTERN_TIMER_GRANULARITY.getValue() + "', expected a number of seconds but received '" + value + "'");
+        }
+        long msec = Math.round(seconds * 1000d);
+        if (msec < 1) {
+            throw new ExprValidationException("Invalid value for hint '" + HintEnum.PATTERN_TIMER_GRANULARITY.getValue() + "', expected a granularity of at least 1 millisecond but received '" + value + "'");
+        }
+        return msec;
+    }
+
+    /**
+     * Adds a timeout.
+     * @param afterMSec timeout
+     * @param callback to trigger
+     * @return bucket holding the timeout
+     */
+    public Bucket add(long afterMSec, ScheduleHandleCallback callback) {
+        long now = context.getPatternContext().getSchedulingService().getTime();
+        long due = now + afterMSec;
+        long tick = due % granularityMSec == 0 ? due : (due / granularityMSec + 1) * granularityMSec;
+        Bucket bucket = buckets.get(tick);
+        if (bucket == null) {
+            bucket = new Bucket(tick);
+            buckets.put(tick, bucket);
+            context.getPatternContext().getSchedulingService().add(tick - now, bucket.handle, bucket.scheduleSlot);
+        }
+        bucket.callbacks.add(callback);
+        bucket.numActive++;
+        return bucket;
+    }
+
+    /**
+     * Removes a timeout.
+     * @param bucket holding the timeout
+     */
+    public void remove(Bucket bucket) {
+        if (bucket.firing) {
+            return;
+        }
+        bucket.numActive--;
+        if (bucket.numActive == 0) {
+            context.getPatternContext().getSchedulingService().remove(bucket.handle, bucket.scheduleSlot);
+            buckets.remove(bucket.tick);
+        }
+    }
+
+    /**
+     * Returns the tick size.
+     * @return msec
+     */
+    public long getGranularityMSec() {
+        return granularityMSec;
+    }
+
+    /**
+     * Returns the number of ticks that have timeouts.
+     * @return count
+     */
+    public int getNumBuckets() {
+        return buckets.size();
+    }
+
+    /**
+     * Timeouts for a tick.
+     */
+    public class Bucket implements ScheduleHandleCallback
+    {
+        private final long tick;
+        private final long scheduleSlot;
+        private final EPStatementHandleCallback handle;
+        private ArrayList<ScheduleHandleCallback> callbacks = new ArrayList<ScheduleHandleCallback>(2);
+        private int numActive;
+        private boolean firing;
+
+        private Bucket(long tick) {
+            this.tick = tick;
+            this.scheduleSlot = context.getPatternContext().getScheduleBucket().allocateSlot();
+            this.handle = new EPStatementHandleCallback(context.getAgentInstanceContext().getEpStatementAgentInstanceHandle(), this);
+        }
+
+        /**
+         * Returns true while the bucket triggers its callbacks.
+         * @return firing indicator
+         */
+        public boolean isFiring() {
+            return firing;
+        }
+
+        public void scheduledTrigger(EngineLevelExtensionServicesContext engineLevelExtensionServicesContext) {
+            buckets.remove(tick);
+            ArrayList<ScheduleHandleCallback> triggered = callbacks;
+            callbacks = null;
+            firing = true;
+            try {
+                for (ScheduleHandleCallback callback : triggered) {
+                    callback.scheduledTrigger(engineLevelExtensionServicesContext);
+                }
+            }
+            finally {
+                firing = false;
+            }
+        }
+    }
+}
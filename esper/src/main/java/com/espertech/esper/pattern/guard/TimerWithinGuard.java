@@ -12,6 +12,7 @@ import com.espertech.esper.core.service.EPStatementHandleCallback;
 import com.espertech.esper.core.service.EngineLevelExtensionServicesContext;
 import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
 import com.espertech.esper.pattern.MatchedEventMap;
+import com.espertech.esper.pattern.PatternTimerBuckets;
 import com.espertech.esper.schedule.ScheduleHandleCallback;
 
 /**
@@ -23,9 +24,11 @@ public class TimerWithinGuard implements Guard, ScheduleHandleCallback
     private final long msec;
     private final Quitable quitable;
     private final long scheduleSlot;
+    private final PatternTimerBuckets timerBuckets;
 
     private boolean isTimerActive;
     private EPStatementHandleCallback scheduleHandle;
+    private PatternTimerBuckets.Bucket timerBucket;
 
     /**
      * Ctor.
@@ -37,6 +40,7 @@ public class TimerWithinGuard implements Guard, ScheduleHandleCallback
         this.msec = msec;
         this.quitable = quitable;
         this.scheduleSlot = quitable.getContext().getPatternContext().getScheduleBucket().allocateSlot();
+        this.timerBuckets = quitable.getContext().getTimerBuckets();
     }
 
     public void startGuard()
@@ -47,6 +51,12 @@ public class TimerWithinGuard implements Guard, ScheduleHandleCallback
         }
 
         // Start the stopwatch timer
+        if (timerBuckets != null)
+        {
+            timerBucket = timerBuckets.add(msec, this);
+            isTimerActive = true;
+            return;
+        }
         scheduleHandle = new EPStatementHandleCallback(quitable.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle(), this);
         quitable.getContext().getPatternContext().getSchedulingService().add(msec, scheduleHandle, scheduleSlot);
         isTimerActive = true;
@@ -54,7 +64,13 @@ public class TimerWithinGuard implements Guard, ScheduleHandleCallback
 
     public void stopGuard()
     {
-        if (isTimerActive)
+        if (isTimerActive && timerBucket != null)
+        {
+            timerBuckets.remove(timerBucket);
+            timerBucket = null;
+            isTimerActive = false;
+        }
+        else if (isTimerActive)
         {
             quitable.getContext().getPatternContext().getSchedulingService().remove(scheduleHandle, scheduleSlot);
             scheduleHandle = null;
@@ -70,6 +86,15 @@ public class TimerWithinGuard implements Guard, ScheduleHandleCallback
 
     public final void scheduledTrigger(EngineLevelExtensionServicesContext engineLevelExtensionServicesContext)
     {
+        if (timerBuckets != null)
+        {
+            // the batch of a tick also holds timers that stopped or that restarted for a different tick
+            if (!isTimerActive || timerBucket == null || !timerBucket.isFiring())
+            {
+                return;
+            }
+            timerBucket = null;
+        }
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qPatternGuardScheduledEval();}
         // Timer callback is automatically removed when triggering
         isTimerActive = false;
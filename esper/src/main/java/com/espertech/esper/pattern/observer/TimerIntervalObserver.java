@@ -12,6 +12,7 @@ import com.espertech.esper.core.service.EPStatementHandleCallback;
 import com.espertech.esper.core.service.EngineLevelExtensionServicesContext;
 import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
 import com.espertech.esper.pattern.MatchedEventMap;
+import com.espertech.esper.pattern.PatternTimerBuckets;
 import com.espertech.esper.schedule.ScheduleHandleCallback;
 
 /**
@@ -23,9 +24,11 @@ public class TimerIntervalObserver implements EventObserver, ScheduleHandleCallb
     private final MatchedEventMap beginState;
     private final ObserverEventEvaluator observerEventEvaluator;
     private final long scheduleSlot;
+    private final PatternTimerBuckets timerBuckets;
 
     private boolean isTimerActive = false;
     private EPStatementHandleCallback scheduleHandle;
+    private PatternTimerBuckets.Bucket timerBucket;
 
     /**
      * Ctor.
@@ -39,10 +42,21 @@ public class TimerIntervalObserver implements EventObserver, ScheduleHandleCallb
         this.beginState = beginState;
         this.observerEventEvaluator = observerEventEvaluator;
         this.scheduleSlot = observerEventEvaluator.getContext().getPatternContext().getScheduleBucket().allocateSlot();
+        this.timerBuckets = observerEventEvaluator.getContext().getTimerBuckets();
     }
 
     public final void scheduledTrigger(EngineLevelExtensionServicesContext engineLevelExtensionServicesContext)
     {
+        if (timerBuckets != null)
+        {
+            // the batch of a tick also holds timers that stopped or that restarted for a different tick
+            if (!isTimerActive || timerBucket == null || !timerBucket.isFiring())
+            {
+                return;
+            }
+            timerBucket = null;
+            isTimerActive = false;
+        }
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qPatternObserverScheduledEval();}
         observerEventEvaluator.observerEvaluateTrue(beginState, true);
         isTimerActive = false;
@@ -64,6 +78,11 @@ public class TimerIntervalObserver implements EventObserver, ScheduleHandleCallb
         {
             observerEventEvaluator.observerEvaluateTrue(beginState, true);
         }
+        else if (timerBuckets != null)
+        {
+            timerBucket = timerBuckets.add(msec, this);
+            isTimerActive = true;
+        }
         else
         {
             scheduleHandle = new EPStatementHandleCallback(observerEventEvaluator.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle(), this);
@@ -74,7 +93,13 @@ public class TimerIntervalObserver implements EventObserver, ScheduleHandleCallb
 
     public void stopObserve()
     {
-        if (isTimerActive)
+        if (isTimerActive && timerBucket != null)
+        {
+            timerBuckets.remove(timerBucket);
+            timerBucket = null;
+            isTimerActive = false;
+        }
+        else if (isTimerActive)
         {
             observerEventEvaluator.getContext().getPatternContext().getSchedulingService().remove(scheduleHandle, scheduleSlot);
             isTimerActive = false;
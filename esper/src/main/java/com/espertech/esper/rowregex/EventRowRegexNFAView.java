@@ -76,6 +76,9 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
     protected final int numEventsEventsPerStreamDefine;
     private final boolean isDefineAsksMultimatches;
     private final ObjectArrayBackedEventBean defineMultimatchEventBean;
+    private final boolean[] isDefineOwnStreamOnly;
+    private final byte[] defineOutcomes;    // per stream: 0 for not yet evaluated for the current event, 1 for true, 2 for false
+    private final EventBean[] startStateEventsPerStream;
 
     private final RegexPartitionStateRandomAccessGetter prevGetter;
     private final ObjectArrayBackedEventBean compositeEventBean;
@@ -140,6 +143,9 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
         this.isDefineAsksMultimatches = isDefineAsksMultimatches;
         this.defineMultimatchEventBean = defineMultimatchEventBean;
         this.numEventsEventsPerStreamDefine = isDefineAsksMultimatches ? variableStreams.size() + 1 : variableStreams.size();
+        this.isDefineOwnStreamOnly = factory.getIsDefineOwnStreamOnly();
+        this.defineOutcomes = new byte[variableStreams.size()];
+        this.startStateEventsPerStream = new EventBean[numEventsEventsPerStreamDefine];
         this.isUnbound = isUnbound;
         this.isIterateOnly = isIterateOnly;
         this.agentInstanceContext = agentInstanceContext;
@@ -209,9 +215,14 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
         }
         else
         {
+            RegexPartitionStateSpill optionalSpill = null;
+            if (factory.getSpillEventCodec() != null && matchRecognizeConfig.getSpillThresholdBytes() != null) {
+                optionalSpill = new RegexPartitionStateSpill(matchRecognizeConfig.getSpillThresholdBytes(), matchRecognizeConfig.getSpillDirectory(),
+                    agentInstanceContext.getStatementContext().getStatementName(), allStates, factory.getSpillEventCodec(), prevGetter);
+            }
             RegexPartitionStateRepoGroupMeta stateRepoGroupMeta = new RegexPartitionStateRepoGroupMeta(matchRecognizeSpec.getInterval() != null,
                 ExprNodeUtility.toArray(matchRecognizeSpec.getPartitionByExpressions()),
-                ExprNodeUtility.getEvaluators(matchRecognizeSpec.getPartitionByExpressions()), agentInstanceContext);
+                ExprNodeUtility.getEvaluators(matchRecognizeSpec.getPartitionByExpressions()), agentInstanceContext, optionalSpill);
             regexPartitionStateRepo = repoFactory.makePartitioned(prevGetter, stateRepoGroupMeta, agentInstanceContext, this, matchRecognizeSpec.getInterval() != null, terminationStateCompare);
         }
     }
@@ -899,6 +910,7 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
                                           Object partitionKey)
     {
         List<RegexNFAStateEntry> terminationStates = null;  // always null or a list of entries (no singleton list)
+        Arrays.fill(defineOutcomes, (byte) 0);
 
         // handle current state matching
         for (;currentStatesIterator.hasNext();)
@@ -919,7 +931,7 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
                 eventsPerStream[numEventsEventsPerStreamDefine-1] = getMultimatchState(currentState);
             }
 
-            if (currentState.getState().matches(eventsPerStream, agentInstanceContext))
+            if (matches(currentState.getState(), eventsPerStream))
             {
                 if (isRetainEventSet)
                 {
@@ -960,7 +972,14 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
                         greedyCounts[currentState.getState().getNodeNumFlat()]++;
                     }
 
-                    RegexNFAStateEntry entry = new RegexNFAStateEntry(currentState.getMatchBeginEventSeqNo(), currentState.getMatchBeginEventTime(), currentState.getState(), eventsForState, greedyCounts, multimatches, partitionKey);
+                    // a single successor that shares all state of the current entry can continue with the current entry
+                    RegexNFAStateEntry entry;
+                    if (!copy && multimatches == currentState.getOptionalMultiMatches()) {
+                        entry = currentState;
+                    }
+                    else {
+                        entry = new RegexNFAStateEntry(currentState.getMatchBeginEventSeqNo(), currentState.getMatchBeginEventTime(), currentState.getState(), eventsForState, greedyCounts, multimatches, partitionKey);
+                    }
                     if (next instanceof RegexNFAStateEnd)
                     {
                         entry.setMatchEndEventSeqNo(currentEventSequenceNumber);
@@ -1018,11 +1037,14 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
         {
             if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qRegExStateStart(startState, variableStreams, multimatchStreamNumToVariable);}
 
-            EventBean[] eventsPerStream = new EventBean[numEventsEventsPerStreamDefine];
             int currentStateStreamNum = startState.getStreamNum();
-            eventsPerStream[currentStateStreamNum] = theEvent;
+            startStateEventsPerStream[currentStateStreamNum] = theEvent;
+            boolean matches = matches(startState, startStateEventsPerStream);
+            startStateEventsPerStream[currentStateStreamNum] = null;
 
-            if (startState.matches(eventsPerStream, agentInstanceContext)) {
+            if (matches) {
+                EventBean[] eventsPerStream = new EventBean[numEventsEventsPerStreamDefine];
+                eventsPerStream[currentStateStreamNum] = theEvent;
                 if (isRetainEventSet) {
                     this.windowMatchedEventset.add(theEvent);
                 }
@@ -1085,6 +1107,20 @@ public class EventRowRegexNFAView extends ViewSupport implements StopCallback, E
         return terminationStates;   // only for immediate use, not for scheduled use as no copy of state
     }
 
+    private boolean matches(RegexNFAState state, EventBean[] eventsPerStream) {
+        int streamNum = state.getStreamNum();
+        if (!isDefineOwnStreamOnly[streamNum]) {
+            return state.matches(eventsPerStream, agentInstanceContext);
+        }
+        // the condition only looks at the current event, evaluate once per event and share the outcome between partial matches
+        byte outcome = defineOutcomes[streamNum];
+        if (outcome == 0) {
+            outcome = state.matches(eventsPerStream, agentInstanceContext) ? (byte) 1 : (byte) 2;
+            defineOutcomes[streamNum] = outcome;
+        }
+        return outcome == 1;
+    }
+
     private ObjectArrayBackedEventBean getMultimatchState(RegexNFAStateEntry currentState) {
         if (currentState.getOptionalMultiMatches() == null || !currentState.getState().isExprRequiresMultimatchState()) {
             return null;
@@ -12,6 +12,7 @@
 package com.espertech.esper.rowregex;
 
 import com.espertech.esper.client.ConfigurationEngineDefaults;
+import com.espertech.esper.client.EPException;
 import com.espertech.esper.client.EventType;
 import com.espertech.esper.client.annotation.HintEnum;
 import com.espertech.esper.collection.Pair;
@@ -34,10 +35,13 @@ import com.espertech.esper.epl.expression.visitor.*;
 import com.espertech.esper.epl.spec.MatchRecognizeDefineItem;
 import com.espertech.esper.epl.spec.MatchRecognizeMeasureItem;
 import com.espertech.esper.epl.spec.MatchRecognizeSpec;
+import com.espertech.esper.epl.snapshot.SnapshotEventCodec;
 import com.espertech.esper.event.ObjectArrayBackedEventBean;
 import com.espertech.esper.event.arr.ObjectArrayEventType;
 import com.espertech.esper.util.CollectionUtil;
 import com.espertech.esper.view.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
 import java.util.*;
@@ -47,6 +51,8 @@ import java.util.*;
  */
 public class EventRowRegexNFAViewFactory extends ViewFactorySupport
 {
+    private static final Logger log = LoggerFactory.getLogger(EventRowRegexNFAViewFactory.class);
+
     protected final MatchRecognizeSpec matchRecognizeSpec;
     protected final LinkedHashMap<String, Pair<Integer, Boolean>> variableStreams;
     protected final Map<Integer, String> streamVariables;
@@ -62,6 +68,8 @@ public class EventRowRegexNFAViewFactory extends ViewFactorySupport
     protected final boolean isDefineAsksMultimatches;
     protected final ObjectArrayBackedEventBean defineMultimatchEventBean;
     protected final boolean[] isExprRequiresMultimatchState;
+    protected final boolean[] isDefineOwnStreamOnly;
+    protected final SnapshotEventCodec spillEventCodec;
     protected final RowRegexExprNode expandedPatternNode;
     protected final ConfigurationEngineDefaults.MatchRecognize matchRecognizeConfig;
 
@@ -141,6 +149,7 @@ public class EventRowRegexNFAViewFactory extends ViewFactorySupport
         List<ExprAggregateNode> aggregateNodes = new ArrayList<ExprAggregateNode>();
         ExprEvaluatorContextStatement exprEvaluatorContext = new ExprEvaluatorContextStatement(statementContext, false);
         this.isExprRequiresMultimatchState = new boolean[variableStreams.size()];
+        this.isDefineOwnStreamOnly = new boolean[variableStreams.size()];
 
         for (int defineIndex = 0; defineIndex < matchRecognizeSpec.getDefines().size(); defineIndex++)
         {
@@ -184,6 +193,13 @@ public class EventRowRegexNFAViewFactory extends ViewFactorySupport
                     break;
                 }
             }
+
+            // a condition that only refers to the variable's own event has the same outcome for all partial matches
+            Pair<Integer, Boolean> defineStream = variableStreams.get(defineItem.getIdentifier());
+            if (defineStream != null) {
+                int streamNumDefine = defineStream.getFirst();
+                isDefineOwnStreamOnly[streamNumDefine] = streamsRequired.isEmpty() || (streamsRequired.size() == 1 && streamsRequired.contains(streamNumDefine));
+            }
         }
         isDefineAsksMultimatches = CollectionUtil.isAnySet(isExprRequiresMultimatchState);
         defineMultimatchEventBean = isDefineAsksMultimatches ? EventRowRegexNFAViewFactoryHelper.getDefineMultimatchBean(statementContext, variableStreams, parentViewType) : null;
@@ -357,6 +373,19 @@ public class EventRowRegexNFAViewFactory extends ViewFactorySupport
             ExprValidationContext validationContext = new ExprValidationContext(new StreamTypeServiceImpl(statementContext.getEngineURI(), false), statementContext.getEngineImportService(), statementContext.getStatementExtensionServicesContext(), null, statementContext.getSchedulingService(), statementContext.getVariableService(), statementContext.getTableService(), exprEvaluatorContext, statementContext.getEventAdapterService(), statementContext.getStatementName(), statementContext.getStatementId(), statementContext.getAnnotations(), statementContext.getContextDescriptor(), false, false, true, false, null, false);
             matchRecognizeSpec.getInterval().validate(validationContext);
         }
+
+        // partition state can be spilled when events don't need to be matched by identity for removal
+        SnapshotEventCodec spillCodec = null;
+        if (matchRecognizeConfig != null && matchRecognizeConfig.getSpillThresholdBytes() != null &&
+            isUnbound && !isIterateOnly && matchRecognizeSpec.getInterval() == null && !matchRecognizeSpec.getPartitionByExpressions().isEmpty()) {
+            try {
+                spillCodec = new SnapshotEventCodec(parentViewType, statementContext.getEventAdapterService());
+            }
+            catch (EPException ex) {
+                log.info("Partition state for statement '" + statementContext.getStatementName() + "' is not spilled: " + ex.getMessage());
+            }
+        }
+        spillEventCodec = spillCodec;
     }
 
     private ExprNode validateMeasureClause(ExprNode measureNode, StreamTypeService typeServiceMeasure, Set<String> variablesMultiple, Set<String> variablesSingle, StatementContext statementContext)
@@ -514,6 +543,22 @@ public class EventRowRegexNFAViewFactory extends ViewFactorySupport
         return nodes;
     }
 
+    /**
+     * Returns, per variable stream, an indicator whether the define-condition only refers to the variable's own event.
+     * @return indicator per stream number
+     */
+    public boolean[] getIsDefineOwnStreamOnly() {
+        return isDefineOwnStreamOnly;
+    }
+
+    /**
+     * Returns the codec for events of spilled partitions, or null if partition state is not spilled.
+     * @return codec
+     */
+    public SnapshotEventCodec getSpillEventCodec() {
+        return spillEventCodec;
+    }
+
     public String getViewName() {
         return "Match-recognize";
     }
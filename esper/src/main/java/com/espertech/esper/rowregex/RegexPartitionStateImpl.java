@@ -25,6 +25,7 @@ public class RegexPartitionStateImpl implements RegexPartitionState
     private RegexPartitionStateRandomAccess randomAccess;
     private List<RegexNFAStateEntry> currentStates = new ArrayList<RegexNFAStateEntry>();
     private Object optionalKeys;
+    private long memoryEstimate;
 
     /**
      * Ctor.
@@ -152,6 +153,22 @@ public class RegexPartitionStateImpl implements RegexPartitionState
         return currentStates.isEmpty();
     }
 
+    /**
+     * Returns the heap estimate last assigned for use with spilling.
+     * @return estimate in bytes
+     */
+    public long getMemoryEstimate() {
+        return memoryEstimate;
+    }
+
+    /**
+     * Assigns the heap estimate for use with spilling.
+     * @param memoryEstimate estimate in bytes
+     */
+    public void setMemoryEstimate(long memoryEstimate) {
+        this.memoryEstimate = memoryEstimate;
+    }
+
     public static List<RegexNFAStateEntry> removeEventFromState(EventBean oldEvent, Iterator<RegexNFAStateEntry> states)
     {
         List<RegexNFAStateEntry> keepList = new ArrayList<RegexNFAStateEntry>();
@@ -128,6 +128,41 @@ public class RegexPartitionStateRandomAccessImpl implements RegexPartitionStateR
         }
     }
 
+    /**
+     * Returns the retained new events, the most recent event first.
+     * @return events, with null values for positions not yet filled
+     */
+    public EventBean[] getHistory()
+    {
+        EventBean[] history = new EventBean[newEvents.getSize()];
+        for (int i = 0; i < history.length; i++)
+        {
+            history[i] = newEvents.get(i);
+        }
+        return history;
+    }
+
+    /**
+     * Returns the number of positions of retained new events.
+     * @return size, including positions not yet filled
+     */
+    public int getHistorySize()
+    {
+        return newEvents.getSize();
+    }
+
+    /**
+     * Restores retained new events as returned by {@link #getHistory()}.
+     * @param history events, the most recent event first
+     */
+    public void restoreHistory(EventBean[] history)
+    {
+        for (int i = history.length - 1; i >= 0; i--)
+        {
+            newEvents.add(history[i]);
+        }
+    }
+
     /**
      * Returns true for empty collection.
      * @return indicator if empty
@@ -33,19 +33,35 @@ public class RegexPartitionStateRepoGroup implements RegexPartitionStateRepo
     private final RegexPartitionStateRandomAccessGetter getter;
     private final Map<Object, RegexPartitionStateImpl> states;
     private final RegexPartitionStateRepoScheduleStateImpl optionalIntervalSchedules;
+    private final PartitionKeyProbe probe;
+    private final RegexPartitionStateSpill optionalSpill;
 
     private int currentCollectionSize = INITIAL_COLLECTION_MIN;
     private int eventSequenceNumber;
+    private long memoryEstimate;
+    private RegexPartitionStateImpl lastState;
 
     public RegexPartitionStateRepoGroup(RegexPartitionStateRandomAccessGetter getter,
                                         RegexPartitionStateRepoGroupMeta meta,
                                         boolean keepScheduleState,
                                         RegexPartitionTerminationStateComparator terminationStateCompare)
+    {
+        this(getter, meta, keepScheduleState, terminationStateCompare, meta.getOptionalSpill());
+    }
+
+    private RegexPartitionStateRepoGroup(RegexPartitionStateRandomAccessGetter getter,
+                                         RegexPartitionStateRepoGroupMeta meta,
+                                         boolean keepScheduleState,
+                                         RegexPartitionTerminationStateComparator terminationStateCompare,
+                                         RegexPartitionStateSpill optionalSpill)
     {
         this.getter = getter;
         this.meta = meta;
-        this.states = new HashMap<Object, RegexPartitionStateImpl>();
+        this.optionalSpill = optionalSpill;
+        // when spilling, the access order of partitions determines the partitions to spill first
+        this.states = optionalSpill == null ? new HashMap<Object, RegexPartitionStateImpl>() : new LinkedHashMap<Object, RegexPartitionStateImpl>(16, 0.75f, true);
         this.optionalIntervalSchedules = keepScheduleState ? new RegexPartitionStateRepoScheduleStateImpl(terminationStateCompare) : null;
+        this.probe = meta.getPartitionExpressions().length > 1 ? new PartitionKeyProbe(meta.getPartitionExpressions().length) : null;
     }
 
     public int incrementAndGetEventSequenceNum() {
@@ -62,11 +78,17 @@ public class RegexPartitionStateRepoGroup implements RegexPartitionStateRepo
     }
 
     public void removeState(Object partitionKey) {
-        states.remove(partitionKey);
+        RegexPartitionStateImpl removed = states.remove(partitionKey);
+        if (removed != null && optionalSpill != null) {
+            memoryEstimate -= removed.getMemoryEstimate();
+            if (removed == lastState) {
+                lastState = null;
+            }
+        }
     }
 
     public RegexPartitionStateRepo copyForIterate(boolean forOutOfOrderReprocessing) {
-        RegexPartitionStateRepoGroup copy = new RegexPartitionStateRepoGroup(getter, meta, false, null);
+        RegexPartitionStateRepoGroup copy = new RegexPartitionStateRepoGroup(getter, meta, false, null, null);
         for (Map.Entry<Object, RegexPartitionStateImpl> entry : states.entrySet())
         {
             copy.states.put(entry.getKey(), new RegexPartitionStateImpl(entry.getValue().getRandomAccess(), entry.getKey()));
@@ -143,13 +165,30 @@ public class RegexPartitionStateRepoGroup implements RegexPartitionStateRepo
    
     public RegexPartitionState getState(Object key)
     {
-        return states.get(key);
+        RegexPartitionStateImpl state = states.get(key);
+        if (state == null && optionalSpill != null) {
+            state = optionalSpill.read(key);
+            if (state != null) {
+                state.setMemoryEstimate(RegexPartitionStateSpill.estimate(state));
+                memoryEstimate += state.getMemoryEstimate();
+                states.put(key, state);
+            }
+        }
+        return state;
     }
 
     public RegexPartitionStateImpl getState(EventBean theEvent, boolean isCollect)
     {
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().qRegExPartition(meta.getPartitionExpressionNodes()); }
 
+        // account for the changes to the partition that processed the prior event
+        if (optionalSpill != null && lastState != null) {
+            long estimate = RegexPartitionStateSpill.estimate(lastState);
+            memoryEstimate += estimate - lastState.getMemoryEstimate();
+            lastState.setMemoryEstimate(estimate);
+            lastState = null;
+        }
+
         // collect unused states
         if ((isCollect) && (states.size() >= currentCollectionSize))
         {
@@ -165,7 +204,7 @@ public class RegexPartitionStateRepoGroup implements RegexPartitionStateRepo
 
             for (Object removeKey : removeList)
             {
-                states.remove(removeKey);
+                removeState(removeKey);
             }
 
             if (removeList.size() < (currentCollectionSize / 5))
@@ -174,17 +213,39 @@ public class RegexPartitionStateRepoGroup implements RegexPartitionStateRepo
             }
         }
 
-        Object key = getKeys(theEvent, meta);
+        // multiple partition expressions: look up using a reusable probe and allocate a key only for a new partition
+        Object key;
+        if (probe != null && !InstrumentationHelper.ENABLED) {
+            probe.assign(theEvent, meta);
+            key = probe;
+        }
+        else {
+            key = getKeys(theEvent, meta);
+        }
         
         RegexPartitionStateImpl state = states.get(key);
         if (state != null)
         {
+            if (optionalSpill != null) {
+                spillIdle(state);
+            }
             if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aRegExPartition(true, state); }
             return state;
         }
 
-        state = new RegexPartitionStateImpl(getter, new ArrayList<RegexNFAStateEntry>(), key);
+        if (key == probe) {
+            key = new MultiKeyUntyped(probe.keys.clone());
+        }
+        if (optionalSpill != null) {
+            state = optionalSpill.read(key);
+        }
+        if (state == null) {
+            state = new RegexPartitionStateImpl(getter, new ArrayList<RegexNFAStateEntry>(), key);
+        }
         states.put(key, state);
+        if (optionalSpill != null) {
+            spillIdle(state);
+        }
 
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.get().aRegExPartition(false, state); }
         return state;
@@ -203,7 +264,7 @@ public class RegexPartitionStateRepoGroup implements RegexPartitionStateRepo
     }
 
     public int getStateCount() {
-        int total = 0;
+        int total = optionalSpill == null ? 0 : optionalSpill.getNumStatesSpilled();
         for (Map.Entry<Object, RegexPartitionStateImpl> entry : states.entrySet()) {
             total += entry.getValue().getNumStates();
         }
@@ -241,5 +302,83 @@ public class RegexPartitionStateRepoGroup implements RegexPartitionStateRepo
     }
 
     public void destroy() {
+        if (optionalSpill != null) {
+            optionalSpill.destroy();
+        }
+    }
+
+    /**
+     * Returns the estimated heap use of the partitions held in memory, available when spilling.
+     * @return estimate in bytes
+     */
+    public long getMemoryEstimate() {
+        return memoryEstimate;
+    }
+
+    /**
+     * Returns the number of partitions spilled to disk.
+     * @return count
+     */
+    public int getNumPartitionsSpilled() {
+        return optionalSpill == null ? 0 : optionalSpill.getNumPartitionsSpilled();
+    }
+
+    private void spillIdle(RegexPartitionStateImpl current) {
+        lastState = current;
+        if (memoryEstimate <= optionalSpill.getThresholdBytes()) {
+            return;
+        }
+
+        // spill the least-recently-used partitions, the current partition being the most recently used
+        Iterator<Map.Entry<Object, RegexPartitionStateImpl>> it = states.entrySet().iterator();
+        while (memoryEstimate > optionalSpill.getThresholdBytes() && it.hasNext()) {
+            Map.Entry<Object, RegexPartitionStateImpl> entry = it.next();
+            RegexPartitionStateImpl state = entry.getValue();
+            if (state == current) {
+                break;
+            }
+            it.remove();
+            memoryEstimate -= state.getMemoryEstimate();
+            if (!state.isEmptyCurrentState() || state.getRandomAccess() != null) {
+                optionalSpill.write(entry.getKey(), state);
+            }
+        }
+    }
+
+    /**
+     * Lookup key for multiple partition expressions that is equal to, and has the same hash code as, the {@link MultiKeyUntyped} holding the same values.
+     */
+    private static class PartitionKeyProbe
+    {
+        private final Object[] keys;
+        private int hashCode;
+
+        private PartitionKeyProbe(int numKeys) {
+            this.keys = new Object[numKeys];
+        }
+
+        private void assign(EventBean theEvent, RegexPartitionStateRepoGroupMeta meta) {
+            EventBean[] eventsPerStream = meta.getEventsPerStream();
+            eventsPerStream[0] = theEvent;
+            ExprEvaluator[] partitionExpressions = meta.getPartitionExpressions();
+            ExprEvaluatorContext exprEvaluatorContext = meta.getExprEvaluatorContext();
+            int total = 0;
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = partitionExpressions[i].evaluate(eventsPerStream, true, exprEvaluatorContext);
+                if (keys[i] != null) {
+                    total *= 31;
+                    total ^= keys[i].hashCode();
+                }
+            }
+            hashCode = total;
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof MultiKeyUntyped && Arrays.equals(keys, ((MultiKeyUntyped) other).getKeys());
+        }
+
+        public int hashCode() {
+            return hashCode;
+        }
     }
 }
\ No newline at end of file
@@ -22,13 +22,19 @@ public class RegexPartitionStateRepoGroupMeta
     private final ExprNode[] partitionExpressionNodes;
     private final ExprEvaluator[] partitionExpressions;
     private final ExprEvaluatorContext exprEvaluatorContext;
+    private final RegexPartitionStateSpill optionalSpill;
     private final EventBean[] eventsPerStream = new EventBean[1];
 
     public RegexPartitionStateRepoGroupMeta(boolean hasInterval, ExprNode[] partitionExpressionNodes, ExprEvaluator[] partitionExpressions, ExprEvaluatorContext exprEvaluatorContext) {
+        this(hasInterval, partitionExpressionNodes, partitionExpressions, exprEvaluatorContext, null);
+    }
+
+    public RegexPartitionStateRepoGroupMeta(boolean hasInterval, ExprNode[] partitionExpressionNodes, ExprEvaluator[] partitionExpressions, ExprEvaluatorContext exprEvaluatorContext, RegexPartitionStateSpill optionalSpill) {
         this.hasInterval = hasInterval;
         this.partitionExpressionNodes = partitionExpressionNodes;
         this.partitionExpressions = partitionExpressions;
         this.exprEvaluatorContext = exprEvaluatorContext;
+        this.optionalSpill = optionalSpill;
     }
 
     public boolean isHasInterval() {
@@ -47,6 +53,10 @@ public class RegexPartitionStateRepoGroupMeta
         return exprEvaluatorContext;
     }
 
+    public RegexPartitionStateSpill getOptionalSpill() {
+        return optionalSpill;
+    }
+
     public EventBean[] getEventsPerStream() {
         return eventsPerStream;
     }
@@ -0,0 +1,325 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.rowregex;
+
+import com.espertech.esper.client.EPException;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.epl.snapshot.SnapshotEventCodec;
+import com.espertech.esper.epl.snapshot.SnapshotRecordStore;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Disk store for the state of idle match-recognize partitions.
+ * <p>
+ * Partitions are kept as one record each in a {@link SnapshotRecordStore} by partition key.
+ * Reading a partition back removes it from the store.
+ * </p>
+ * <p>
+ * Events are written by value, so that a restored partition holds copies of the events it held before.
+ * This requires that the statement has no data window and thus does not need to match removed events by identity.
+ * </p>
+ */
+public class RegexPartitionStateSpill
+{
+    private final static int ENTRY_OVERHEAD_BYTES = 64;
+    private final static int PARTITION_OVERHEAD_BYTES = 96;
+    private final static int MULTIMATCH_OVERHEAD_BYTES = 32;
+    private final static int REFERENCE_BYTES = 8;
+
+    private final long thresholdBytes;
+    private final SnapshotRecordStore<Object> store;
+    private final RegexNFAState[] allStates;
+    private final Map<RegexNFAState, Integer> stateIndexes;
+    private final SnapshotEventCodec eventCodec;
+    private final RegexPartitionStateRandomAccessGetter getter;
+
+    private int numStatesSpilled;
+
+    /**
+     * Ctor.
+     * @param thresholdBytes estimated bytes of partition state to keep in memory
+     * @param directory directory for the spill file, or null for the system temporary directory
+     * @param statementName statement name
+     * @param allStates all NFA states, for writing a state as its index
+     * @param eventCodec for writing and reading events
+     * @param getter for "prev" access, or null if not used
+     */
+    public RegexPartitionStateSpill(long thresholdBytes, String directory, String statementName, RegexNFAState[] allStates, SnapshotEventCodec eventCodec, RegexPartitionStateRandomAccessGetter getter) {
+        this.thresholdBytes = thresholdBytes;
+        this.store = new SnapshotRecordStore<Object>(directory, "esper-matchrecog-" + statementName.replaceAll("[^A-Za-z0-9_-]", "_") + "-", ".spill");
+        this.allStates = allStates;
+        this.stateIndexes = new IdentityHashMap<RegexNFAState, Integer>();
+        for (int i = 0; i < allStates.length; i++) {
+            stateIndexes.put(allStates[i], i);
+        }
+        this.eventCodec = eventCodec;
+        this.getter = getter;
+    }
+
+    /**
+     * Returns the estimated bytes of partition state to keep in memory.
+     * @return threshold
+     */
+    public long getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    /**
+     * Returns the number of spilled partitions.
+     * @return count
+     */
+    public int getNumPartitionsSpilled() {
+        return store.size();
+    }
+
+    /**
+     * Returns the number of partial matches held by spilled partitions.
+     * @return count
+     */
+    public int getNumStatesSpilled() {
+        return numStatesSpilled;
+    }
+
+    /**
+     * Estimates the heap used by the partition state, counting partial matches, their event references
+     * and the events retained for "prev", but not the events themselves which are shared with other statements.
+     * @param state partition
+     * @return estimate in bytes
+     */
+    public static long estimate(RegexPartitionStateImpl state) {
+        long bytes = PARTITION_OVERHEAD_BYTES + REFERENCE_BYTES * state.getNumStates();
+        for (Iterator<RegexNFAStateEntry> it = state.getCurrentStatesIterator(); it.hasNext();) {
+            RegexNFAStateEntry entry = it.next();
+            bytes += ENTRY_OVERHEAD_BYTES + REFERENCE_BYTES * entry.getEventsPerStream().length + 4 * entry.getGreedycountPerState().length;
+            MultimatchState[] multimatches = entry.getOptionalMultiMatches();
+            if (multimatches != null) {
+                bytes += REFERENCE_BYTES * multimatches.length;
+                for (MultimatchState multimatch : multimatches) {
+                    if (multimatch != null) {
+                        bytes += MULTIMATCH_OVERHEAD_BYTES + REFERENCE_BYTES * multimatch.getBuffer().length;
+                    }
+                }
+            }
+        }
+        if (state.getRandomAccess() instanceof RegexPartitionStateRandomAccessImpl) {
+            bytes += REFERENCE_BYTES * ((RegexPartitionStateRandomAccessImpl) state.getRandomAccess()).getHistorySize();
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the partition state to disk.
+     * @param key partition key
+     * @param state partition
+     */
+    public void write(Object key, RegexPartitionStateImpl state) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream stream = new DataOutputStream(bytes);
+            stream.writeInt(state.getNumStates());
+            writePartition(state, stream);
+            stream.close();
+
+            store.write(key, bytes.toByteArray());
+            numStatesSpilled += state.getNumStates();
+        }
+        catch (IOException ex) {
+            throw new EPException("Failed to spill match-recognize partition state to file '" + store.getFile() + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reads a spilled partition state and removes it from the disk store.
+     * @param key partition key
+     * @return partition, or null if the partition is not spilled
+     */
+    public RegexPartitionStateImpl read(Object key) {
+        try {
+            byte[] bytes = store.read(key);
+            if (bytes == null) {
+                return null;
+            }
+            DataInputStream stream = new DataInputStream(new ByteArrayInputStream(bytes));
+            numStatesSpilled -= stream.readInt();
+            return readPartition(key, stream);
+        }
+        catch (IOException ex) {
+            throw new EPException("Failed to read spilled match-recognize partition state from file '" + store.getFile() + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Closes and deletes the spill file.
+     */
+    public void destroy() {
+        store.destroy();
+        numStatesSpilled = 0;
+    }
+
+    private void writePartition(RegexPartitionStateImpl state, DataOutputStream stream) throws IOException {
+        // collect distinct events so that events shared between partial matches are written once
+        Map<EventBean, Integer> events = new IdentityHashMap<EventBean, Integer>();
+        List<EventBean> eventList = new ArrayList<EventBean>();
+        EventBean[] history = null;
+        if (state.getRandomAccess() instanceof RegexPartitionStateRandomAccessImpl) {
+            history = ((RegexPartitionStateRandomAccessImpl) state.getRandomAccess()).getHistory();
+            for (EventBean theEvent : history) {
+                addEvent(theEvent, events, eventList);
+            }
+        }
+        for (Iterator<RegexNFAStateEntry> it = state.getCurrentStatesIterator(); it.hasNext();) {
+            RegexNFAStateEntry entry = it.next();
+            for (EventBean theEvent : entry.getEventsPerStream()) {
+                addEvent(theEvent, events, eventList);
+            }
+            if (entry.getOptionalMultiMatches() != null) {
+                for (MultimatchState multimatch : entry.getOptionalMultiMatches()) {
+                    if (multimatch != null) {
+                        for (int i = 0; i < multimatch.getCount(); i++) {
+                            addEvent(multimatch.getBuffer()[i], events, eventList);
+                        }
+                    }
+                }
+            }
+        }
+
+        stream.writeInt(eventList.size());
+        for (EventBean theEvent : eventList) {
+            eventCodec.write(theEvent, stream);
+        }
+
+        if (history == null) {
+            stream.writeInt(-1);
+        }
+        else {
+            writeEventRefs(history, history.length, events, stream);
+        }
+
+        stream.writeInt(state.getNumStates());
+        for (Iterator<RegexNFAStateEntry> it = state.getCurrentStatesIterator(); it.hasNext();) {
+            RegexNFAStateEntry entry = it.next();
+            Integer stateIndex = stateIndexes.get(entry.getState());
+            if (stateIndex == null) {
+                throw new EPException("Failed to spill match-recognize partition state, unrecognized state " + entry.getState());
+            }
+            stream.writeInt(stateIndex);
+            stream.writeInt(entry.getMatchBeginEventSeqNo());
+            stream.writeLong(entry.getMatchBeginEventTime());
+            stream.writeInt(entry.getMatchEndEventSeqNo());
+            writeEventRefs(entry.getEventsPerStream(), entry.getEventsPerStream().length, events, stream);
+
+            int[] greedyCounts = entry.getGreedycountPerState();
+            stream.writeInt(greedyCounts.length);
+            for (int greedyCount : greedyCounts) {
+                stream.writeInt(greedyCount);
+            }
+
+            MultimatchState[] multimatches = entry.getOptionalMultiMatches();
+            if (multimatches == null) {
+                stream.writeInt(-1);
+                continue;
+            }
+            stream.writeInt(multimatches.length);
+            for (MultimatchState multimatch : multimatches) {
+                if (multimatch == null) {
+                    stream.writeInt(-1);
+                }
+                else {
+                    writeEventRefs(multimatch.getBuffer(), multimatch.getCount(), events, stream);
+                }
+            }
+        }
+    }
+
+    private RegexPartitionStateImpl readPartition(Object key, DataInputStream stream) throws IOException {
+        EventBean[] events = new EventBean[stream.readInt()];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = eventCodec.read(stream);
+        }
+
+        EventBean[] history = readEventRefs(stream, events, 0);
+
+        int numStates = stream.readInt();
+        List<RegexNFAStateEntry> currentStates = new ArrayList<RegexNFAStateEntry>(numStates);
+        for (int i = 0; i < numStates; i++) {
+            RegexNFAState nfaState = allStates[stream.readInt()];
+            int matchBeginEventSeqNo = stream.readInt();
+            long matchBeginEventTime = stream.readLong();
+            int matchEndEventSeqNo = stream.readInt();
+            EventBean[] eventsPerStream = readEventRefs(stream, events, 0);
+
+            int[] greedyCounts = new int[stream.readInt()];
+            for (int j = 0; j < greedyCounts.length; j++) {
+                greedyCounts[j] = stream.readInt();
+            }
+
+            MultimatchState[] multimatches = null;
+            int numMultimatches = stream.readInt();
+            if (numMultimatches >= 0) {
+                multimatches = new MultimatchState[numMultimatches];
+                for (int j = 0; j < numMultimatches; j++) {
+                    EventBean[] buffer = readEventRefs(stream, events, 3);
+                    if (buffer != null) {
+                        multimatches[j] = new MultimatchState(countNonNull(buffer), buffer);
+                    }
+                }
+            }
+
+            RegexNFAStateEntry entry = new RegexNFAStateEntry(matchBeginEventSeqNo, matchBeginEventTime, nfaState, eventsPerStream, greedyCounts, multimatches, key);
+            entry.setMatchEndEventSeqNo(matchEndEventSeqNo);
+            currentStates.add(entry);
+        }
+
+        RegexPartitionStateImpl state = new RegexPartitionStateImpl(getter, currentStates, key);
+        if (history != null && state.getRandomAccess() instanceof RegexPartitionStateRandomAccessImpl) {
+            ((RegexPartitionStateRandomAccessImpl) state.getRandomAccess()).restoreHistory(history);
+        }
+        return state;
+    }
+
+    private static void addEvent(EventBean theEvent, Map<EventBean, Integer> events, List<EventBean> eventList) {
+        if (theEvent != null && !events.containsKey(theEvent)) {
+            events.put(theEvent, eventList.size());
+            eventList.add(theEvent);
+        }
+    }
+
+    private static void writeEventRefs(EventBean[] array, int length, Map<EventBean, Integer> events, DataOutputStream stream) throws IOException {
+        stream.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            stream.writeInt(array[i] == null ? -1 : events.get(array[i]));
+        }
+    }
+
+    private static EventBean[] readEventRefs(DataInputStream stream, EventBean[] events, int minCapacity) throws IOException {
+        int length = stream.readInt();
+        if (length < 0) {
+            return null;
+        }
+        EventBean[] array = new EventBean[Math.max(length, minCapacity)];
+        for (int i = 0; i < length; i++) {
+            int ref = stream.readInt();
+            array[i] = ref == -1 ? null : events[ref];
+        }
+        return array;
+    }
+
+    private static int countNonNull(EventBean[] buffer) {
+        int count = 0;
+        while (count < buffer.length && buffer[count] != null) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -84,6 +84,15 @@ public class CollectionUtil
         }
     }
 
+    /**
+     * Returns the initial capacity for a hash map that holds the given number of entries without resizing.
+     * @param expectedSize number of entries
+     * @return initial capacity
+     */
+    public static int capacityHashMap(int expectedSize) {
+        return expectedSize < 3 ? expectedSize + 1 : (int) (expectedSize / 0.75f) + 1;
+    }
+
     public static String toString(Collection<Integer> stack, String delimiterChars) {
         if (stack.isEmpty()) {
             return "";
@@ -0,0 +1,464 @@
+/**************************************************************************************
+ * Copyright (C) 2006-2015 EsperTech Inc. All rights reserved.                        *
+ * http://www.espertech.com/esper                                                          *
+ * http://www.espertech.com                                                           *
+ * ---------------------------------------------------------------------------------- *
+ * The software in this package is published under the terms of the GPL license       *
+ * a copy of which has been included with this distribution in the license.txt file.  *
+ **************************************************************************************/
+package com.espertech.esper.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes a method through a function generated by the lambda metafactory for the exact signature of the method,
+ * as an alternative to a CGLib fast method.
+ * <p>
+ * The generated function receives each argument individually and calls the method with its declared parameter types,
+ * unboxing primitive arguments without an intermediate array spread. The object that an instance method is invoked on
+ * is bound when the invoker is made.
+ * <p>
+ * The lambda metafactory links the function against the declaring class, therefore the declaring class and method must be public
+ * and visible to the engine's class loader. Other methods, and methods with more than {@link #MAX_EXACT_PARAMETERS} parameters,
+ * are invoked through a method handle adapted to the same exact argument count.
+ * <p>
+ * Follows the same contract as the CGLib fast method: any exception thrown by the method or by argument conversion
+ * is reported as an {@link InvocationTargetException}, and a null argument array is allowed for methods without parameters.
+ */
+public abstract class MethodHandleInvoker
+{
+    private static final Logger log = LoggerFactory.getLogger(MethodHandleInvoker.class);
+
+    /**
+     * Maximum number of parameters of methods that are invoked with individual arguments.
+     */
+    public static final int MAX_EXACT_PARAMETERS = 5;
+
+    private final Method method;
+
+    private MethodHandleInvoker(Method method)
+    {
+        this.method = method;
+    }
+
+    /**
+     * Invoke the method.
+     * @param args arguments
+     * @return method result, or null for void methods
+     * @throws Throwable any exception thrown by the method or by argument conversion
+     */
+    protected abstract Object call(Object[] args) throws Throwable;
+
+    // Invokers for a given number of parameters override the respective method to pass the arguments without an array.
+    protected Object call0() throws Throwable { return call(new Object[0]); }
+    protected Object call1(Object a0) throws Throwable { return call(new Object[] {a0}); }
+    protected Object call2(Object a0, Object a1) throws Throwable { return call(new Object[] {a0, a1}); }
+    protected Object call3(Object a0, Object a1, Object a2) throws Throwable { return call(new Object[] {a0, a1, a2}); }
+    protected Object call4(Object a0, Object a1, Object a2, Object a3) throws Throwable { return call(new Object[] {a0, a1, a2, a3}); }
+    protected Object call5(Object a0, Object a1, Object a2, Object a3, Object a4) throws Throwable { return call(new Object[] {a0, a1, a2, a3, a4}); }
+
+    /**
+     * Returns an invoker for the method, or null if the method cannot be made accessible as a method handle
+     * or if the method is an instance method and no target is provided.
+     * @param method to invoke
+     * @param target the object to invoke an instance method on, ignored for static methods
+     * @return invoker or null
+     */
+    public static MethodHandleInvoker make(Method method, Object target)
+    {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!isStatic && target == null) {
+            return null;
+        }
+        MethodHandle handle = unreflect(method);
+        if (handle == null) {
+            return null;
+        }
+        handle = handle.asFixedArity();
+        int numParameters = method.getParameterTypes().length;
+
+        if (numParameters <= MAX_EXACT_PARAMETERS && isLinkable(method)) {
+            try {
+                return makeFunctionInvoker(method, handle, isStatic ? null : target, numParameters);
+            }
+            catch (Throwable t) {
+                log.debug("Unable to link function for method '" + method + "', using method handle: " + t.getMessage());
+            }
+        }
+
+        if (!isStatic) {
+            handle = handle.bindTo(target);
+        }
+        if (numParameters > MAX_EXACT_PARAMETERS) {
+            handle = handle.asSpreader(Object[].class, numParameters).asType(MethodType.methodType(Object.class, Object[].class));
+        }
+        else {
+            handle = handle.asType(MethodType.genericMethodType(numParameters));
+        }
+        return new HandleInvoker(method, handle, numParameters);
+    }
+
+    /**
+     * Returns a direct method handle for the method, or null if the method cannot be made accessible.
+     * @param method to unreflect
+     * @return handle or null
+     */
+    public static MethodHandle unreflect(Method method)
+    {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        }
+        catch (IllegalAccessException ex) {
+            // non-public classes, such as application classes nested in other classes, require suppressing access checks
+        }
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        }
+        catch (Exception ex) {
+            log.debug("Unable to obtain method handle for method '" + method + "': " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns indicator whether the lambda metafactory can link a function against the method,
+     * which requires a public method of a public class that is visible to the engine's class loader.
+     * @param method to check
+     * @return indicator
+     */
+    public static boolean isLinkable(Method method)
+    {
+        Class declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(declaringClass.getModifiers()) || !Modifier.isPublic(method.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(declaringClass.getName(), false, MethodHandleInvoker.class.getClassLoader()) == declaringClass;
+        }
+        catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Invoke the method.
+     * @param args arguments
+     * @return method result
+     * @throws InvocationTargetException if the method or the argument conversion threw an exception
+     */
+    public Object invoke(Object[] args) throws InvocationTargetException
+    {
+        try {
+            return call(args);
+        }
+        catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method that has no parameters, without allocating an argument array.
+     * @return method result
+     * @throws InvocationTargetException if the method or the argument conversion threw an exception
+     */
+    public Object invoke0() throws InvocationTargetException
+    {
+        try {
+            return call0();
+        }
+        catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method that has one parameter, without allocating an argument array.
+     * @param a0 argument 1
+     * @return method result
+     * @throws InvocationTargetException if the method or the argument conversion threw an exception
+     */
+    public Object invoke1(Object a0) throws InvocationTargetException
+    {
+        try {
+            return call1(a0);
+        }
+        catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method that has two parameters, without allocating an argument array.
+     * @param a0 argument 1
+     * @param a1 argument 2
+     * @return method result
+     * @throws InvocationTargetException if the method or the argument conversion threw an exception
+     */
+    public Object invoke2(Object a0, Object a1) throws InvocationTargetException
+    {
+        try {
+            return call2(a0, a1);
+        }
+        catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method that has three parameters, without allocating an argument array.
+     * @param a0 argument 1
+     * @param a1 argument 2
+     * @param a2 argument 3
+     * @return method result
+     * @throws InvocationTargetException if the method or the argument conversion threw an exception
+     */
+    public Object invoke3(Object a0, Object a1, Object a2) throws InvocationTargetException
+    {
+        try {
+            return call3(a0, a1, a2);
+        }
+        catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method that has four parameters, without allocating an argument array.
+     * @param a0 argument 1
+     * @param a1 argument 2
+     * @param a2 argument 3
+     * @param a3 argument 4
+     * @return method result
+     * @throws InvocationTargetException if the method or the argument conversion threw an exception
+     */
+    public Object invoke4(Object a0, Object a1, Object a2, Object a3) throws InvocationTargetException
+    {
+        try {
+            return call4(a0, a1, a2, a3);
+        }
+        catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invoke a method that has five parameters, without allocating an argument array.
+     * @param a0 argument 1
+     * @param a1 argument 2
+     * @param a2 argument 3
+     * @param a3 argument 4
+     * @param a4 argument 5
+     * @return method result
+     * @throws InvocationTargetException if the method or the argument conversion threw an exception
+     */
+    public Object invoke5(Object a0, Object a1, Object a2, Object a3, Object a4) throws InvocationTargetException
+    {
+        try {
+            return call5(a0, a1, a2, a3, a4);
+        }
+        catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Returns the method.
+     * @return method
+     */
+    public Method getJavaMethod()
+    {
+        return method;
+    }
+
+    public String toString()
+    {
+        return this.getClass().getSimpleName() + " method=" + method.toGenericString();
+    }
+
+    private static MethodHandleInvoker makeFunctionInvoker(Method method, MethodHandle handle, Object target, int numParameters) throws Throwable
+    {
+        boolean isVoid = method.getReturnType() == void.class;
+        Class functionInterface = isVoid ? VOID_FUNCTIONS[numParameters] : FUNCTIONS[numParameters];
+        MethodType instantiatedType = handle.type().wrap();
+        MethodType factoryType = MethodType.methodType(functionInterface);
+        if (target != null) {
+            instantiatedType = instantiatedType.dropParameterTypes(0, 1);
+            factoryType = factoryType.appendParameterTypes(method.getDeclaringClass());
+        }
+        MethodType functionType = MethodType.genericMethodType(numParameters);
+        if (isVoid) {
+            instantiatedType = instantiatedType.changeReturnType(void.class);
+            functionType = functionType.changeReturnType(void.class);
+        }
+        CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "call", factoryType, functionType, handle, instantiatedType);
+        Object function = target == null ? site.getTarget().invoke() : site.getTarget().invoke(target);
+
+        switch (numParameters) {
+            case 0: return isVoid ? new VoidInvoker0(method, (VoidFunction0) function) : new Invoker0(method, (Function0) function);
+            case 1: return isVoid ? new VoidInvoker1(method, (VoidFunction1) function) : new Invoker1(method, (Function1) function);
+            case 2: return isVoid ? new VoidInvoker2(method, (VoidFunction2) function) : new Invoker2(method, (Function2) function);
+            case 3: return isVoid ? new VoidInvoker3(method, (VoidFunction3) function) : new Invoker3(method, (Function3) function);
+            case 4: return isVoid ? new VoidInvoker4(method, (VoidFunction4) function) : new Invoker4(method, (Function4) function);
+            default: return isVoid ? new VoidInvoker5(method, (VoidFunction5) function) : new Invoker5(method, (Function5) function);
+        }
+    }
+
+    private static final Class[] FUNCTIONS = {Function0.class, Function1.class, Function2.class, Function3.class, Function4.class, Function5.class};
+    private static final Class[] VOID_FUNCTIONS = {VoidFunction0.class, VoidFunction1.class, VoidFunction2.class, VoidFunction3.class, VoidFunction4.class, VoidFunction5.class};
+
+    interface Function0 { Object call(); }
+    interface Function1 { Object call(Object a0); }
+    interface Function2 { Object call(Object a0, Object a1); }
+    interface Function3 { Object call(Object a0, Object a1, Object a2); }
+    interface Function4 { Object call(Object a0, Object a1, Object a2, Object a3); }
+    interface Function5 { Object call(Object a0, Object a1, Object a2, Object a3, Object a4); }
+
+    interface VoidFunction0 { void call(); }
+    interface VoidFunction1 { void call(Object a0); }
+    interface VoidFunction2 { void call(Object a0, Object a1); }
+    interface VoidFunction3 { void call(Object a0, Object a1, Object a2); }
+    interface VoidFunction4 { void call(Object a0, Object a1, Object a2, Object a3); }
+    interface VoidFunction5 { void call(Object a0, Object a1, Object a2, Object a3, Object a4); }
+
+    private static class Invoker0 extends MethodHandleInvoker {
+        private final Function0 function;
+        private Invoker0(Method method, Function0 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { return function.call(); }
+        protected Object call0() { return function.call(); }
+    }
+
+    private static class Invoker1 extends MethodHandleInvoker {
+        private final Function1 function;
+        private Invoker1(Method method, Function1 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { return function.call(args[0]); }
+        protected Object call1(Object a0) { return function.call(a0); }
+    }
+
+    private static class Invoker2 extends MethodHandleInvoker {
+        private final Function2 function;
+        private Invoker2(Method method, Function2 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { return function.call(args[0], args[1]); }
+        protected Object call2(Object a0, Object a1) { return function.call(a0, a1); }
+    }
+
+    private static class Invoker3 extends MethodHandleInvoker {
+        private final Function3 function;
+        private Invoker3(Method method, Function3 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { return function.call(args[0], args[1], args[2]); }
+        protected Object call3(Object a0, Object a1, Object a2) { return function.call(a0, a1, a2); }
+    }
+
+    private static class Invoker4 extends MethodHandleInvoker {
+        private final Function4 function;
+        private Invoker4(Method method, Function4 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { return function.call(args[0], args[1], args[2], args[3]); }
+        protected Object call4(Object a0, Object a1, Object a2, Object a3) { return function.call(a0, a1, a2, a3); }
+    }
+
+    private static class Invoker5 extends MethodHandleInvoker {
+        private final Function5 function;
+        private Invoker5(Method method, Function5 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { return function.call(args[0], args[1], args[2], args[3], args[4]); }
+        protected Object call5(Object a0, Object a1, Object a2, Object a3, Object a4) { return function.call(a0, a1, a2, a3, a4); }
+    }
+
+    private static class VoidInvoker0 extends MethodHandleInvoker {
+        private final VoidFunction0 function;
+        private VoidInvoker0(Method method, VoidFunction0 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { function.call(); return null; }
+        protected Object call0() { function.call(); return null; }
+    }
+
+    private static class VoidInvoker1 extends MethodHandleInvoker {
+        private final VoidFunction1 function;
+        private VoidInvoker1(Method method, VoidFunction1 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { function.call(args[0]); return null; }
+        protected Object call1(Object a0) { function.call(a0); return null; }
+    }
+
+    private static class VoidInvoker2 extends MethodHandleInvoker {
+        private final VoidFunction2 function;
+        private VoidInvoker2(Method method, VoidFunction2 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { function.call(args[0], args[1]); return null; }
+        protected Object call2(Object a0, Object a1) { function.call(a0, a1); return null; }
+    }
+
+    private static class VoidInvoker3 extends MethodHandleInvoker {
+        private final VoidFunction3 function;
+        private VoidInvoker3(Method method, VoidFunction3 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { function.call(args[0], args[1], args[2]); return null; }
+        protected Object call3(Object a0, Object a1, Object a2) { function.call(a0, a1, a2); return null; }
+    }
+
+    private static class VoidInvoker4 extends MethodHandleInvoker {
+        private final VoidFunction4 function;
+        private VoidInvoker4(Method method, VoidFunction4 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { function.call(args[0], args[1], args[2], args[3]); return null; }
+        protected Object call4(Object a0, Object a1, Object a2, Object a3) { function.call(a0, a1, a2, a3); return null; }
+    }
+
+    private static class VoidInvoker5 extends MethodHandleInvoker {
+        private final VoidFunction5 function;
+        private VoidInvoker5(Method method, VoidFunction5 function) { super(method); this.function = function; }
+        protected Object call(Object[] args) { function.call(args[0], args[1], args[2], args[3], args[4]); return null; }
+        protected Object call5(Object a0, Object a1, Object a2, Object a3, Object a4) { function.call(a0, a1, a2, a3, a4); return null; }
+    }
+
+    private static class HandleInvoker extends MethodHandleInvoker {
+        private final MethodHandle handle;
+        private final int numParameters;
+
+        private HandleInvoker(Method method, MethodHandle handle, int numParameters) {
+            super(method);
+            this.handle = handle;
+            this.numParameters = numParameters;
+        }
+
+        protected Object call(Object[] args) throws Throwable {
+            switch (numParameters) {
+                case 0: return (Object) handle.invokeExact();
+                case 1: return (Object) handle.invokeExact(args[0]);
+                case 2: return (Object) handle.invokeExact(args[0], args[1]);
+                case 3: return (Object) handle.invokeExact(args[0], args[1], args[2]);
+                case 4: return (Object) handle.invokeExact(args[0], args[1], args[2], args[3]);
+                case 5: return (Object) handle.invokeExact(args[0], args[1], args[2], args[3], args[4]);
+                default: return (Object) handle.invokeExact(args);
+            }
+        }
+
+        protected Object call0() throws Throwable {
+            return numParameters == 0 ? (Object) handle.invokeExact() : super.call0();
+        }
+
+        protected Object call1(Object a0) throws Throwable {
+            return numParameters == 1 ? (Object) handle.invokeExact(a0) : super.call1(a0);
+        }
+
+        protected Object call2(Object a0, Object a1) throws Throwable {
+            return numParameters == 2 ? (Object) handle.invokeExact(a0, a1) : super.call2(a0, a1);
+        }
+
+        protected Object call3(Object a0, Object a1, Object a2) throws Throwable {
+            return numParameters == 3 ? (Object) handle.invokeExact(a0, a1, a2) : super.call3(a0, a1, a2);
+        }
+
+        protected Object call4(Object a0, Object a1, Object a2, Object a3) throws Throwable {
+            return numParameters == 4 ? (Object) handle.invokeExact(a0, a1, a2, a3) : super.call4(a0, a1, a2, a3);
+        }
+
+        protected Object call5(Object a0, Object a1, Object a2, Object a3, Object a4) throws Throwable {
+            return numParameters == 5 ? (Object) handle.invokeExact(a0, a1, a2, a3, a4) : super.call5(a0, a1, a2, a3, a4);
+        }
+    }
+}
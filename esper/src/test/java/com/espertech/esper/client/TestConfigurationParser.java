@@ -64,6 +64,8 @@ public class TestConfigurationParser extends TestCase
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolInboundCapacity());
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolOutboundCapacity());
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolRouteExecCapacity());
+        assertFalse(config.getEngineDefaults().getThreading().isThreadPoolNamedWindowConsumer());
+        assertEquals(2, config.getEngineDefaults().getThreading().getThreadPoolNamedWindowConsumerNumThreads());
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolTimerExecCapacity());
         assertFalse(config.getEngineDefaults().getThreading().isEngineFairlock());
         assertFalse(config.getEngineDefaults().getMetricsReporting().isJmxEngineMetrics());
@@ -89,6 +91,8 @@ public class TestConfigurationParser extends TestCase
         assertEquals(true, config.getEngineDefaults().getPatterns().isMaxSubexpressionPreventStart());
         assertEquals(null, config.getEngineDefaults().getMatchRecognize().getMaxStates());
         assertEquals(true, config.getEngineDefaults().getMatchRecognize().isMaxStatesPreventStart());
+        assertNull(config.getEngineDefaults().getMatchRecognize().getSpillThresholdBytes());
+        assertNull(config.getEngineDefaults().getMatchRecognize().getSpillDirectory());
         assertEquals(ConfigurationEngineDefaults.TimeSourceType.MILLI, config.getEngineDefaults().getTimeSource().getTimeSourceType());
         assertFalse(config.getEngineDefaults().getExecution().isPrioritized());
         assertFalse(config.getEngineDefaults().getExecution().isDisableLocking());
@@ -97,6 +101,9 @@ public class TestConfigurationParser extends TestCase
         assertEquals(ConfigurationEngineDefaults.FilterServiceProfile.READMOSTLY, config.getEngineDefaults().getExecution().getFilterServiceProfile());
         assertEquals(16, config.getEngineDefaults().getExecution().getFilterServiceMaxFilterWidth());
         assertEquals(1, config.getEngineDefaults().getExecution().getDeclaredExprValueCacheSize());
+        assertNull(config.getEngineDefaults().getExecution().getContextStateDirectory());
+        assertNull(config.getEngineDefaults().getExecution().getContextHibernateDirectory());
+        assertEquals(ConfigurationEngineDefaults.InvocationBackend.CGLIB, config.getEngineDefaults().getExecution().getInvocationBackend());
 
         assertEquals(StreamSelector.ISTREAM_ONLY, config.getEngineDefaults().getStreamSelection().getDefaultStreamSelector());
         assertFalse(config.getEngineDefaults().getLanguage().isSortUsingCollator());
@@ -106,6 +113,7 @@ public class TestConfigurationParser extends TestCase
         assertTrue(config.getEngineDefaults().getExpression().isUdfCache());
         assertTrue(config.getEngineDefaults().getExpression().isExtendedAggregation());
         assertFalse(config.getEngineDefaults().getExpression().isDuckTyping());
+        assertFalse(config.getEngineDefaults().getExpression().isCommonSubexpressionElimination());
         assertNull(config.getEngineDefaults().getExpression().getMathContext());
         assertEquals(TimeZone.getDefault(), config.getEngineDefaults().getExpression().getTimeZone());
         assertNull(config.getEngineDefaults().getExceptionHandling().getHandlerFactories());
@@ -397,6 +405,8 @@ public class TestConfigurationParser extends TestCase
         assertEquals(1500, (int) config.getEngineDefaults().getThreading().getThreadPoolOutboundCapacity());
         assertEquals(null, config.getEngineDefaults().getThreading().getThreadPoolTimerExecCapacity());
         assertEquals(2000, (int) config.getEngineDefaults().getThreading().getThreadPoolRouteExecCapacity());
+        assertTrue(config.getEngineDefaults().getThreading().isThreadPoolNamedWindowConsumer());
+        assertEquals(3, config.getEngineDefaults().getThreading().getThreadPoolNamedWindowConsumerNumThreads());
 
         assertFalse(config.getEngineDefaults().getThreading().isInternalTimerEnabled());
         assertEquals(1234567, config.getEngineDefaults().getThreading().getInternalTimerMsecResolution());
@@ -417,6 +427,8 @@ public class TestConfigurationParser extends TestCase
         assertEquals(false, config.getEngineDefaults().getPatterns().isMaxSubexpressionPreventStart());
         assertEquals(3L, (long) config.getEngineDefaults().getMatchRecognize().getMaxStates());
         assertEquals(false, config.getEngineDefaults().getMatchRecognize().isMaxStatesPreventStart());
+        assertEquals(1000000L, (long) config.getEngineDefaults().getMatchRecognize().getSpillThresholdBytes());
+        assertEquals("/var/spill", config.getEngineDefaults().getMatchRecognize().getSpillDirectory());
         assertEquals(StreamSelector.RSTREAM_ISTREAM_BOTH, config.getEngineDefaults().getStreamSelection().getDefaultStreamSelector());
 
         assertEquals(ConfigurationEngineDefaults.TimeSourceType.NANO, config.getEngineDefaults().getTimeSource().getTimeSourceType());
@@ -428,6 +440,9 @@ public class TestConfigurationParser extends TestCase
         assertEquals(ConfigurationEngineDefaults.FilterServiceProfile.READWRITE, config.getEngineDefaults().getExecution().getFilterServiceProfile());
         assertEquals(100, config.getEngineDefaults().getExecution().getFilterServiceMaxFilterWidth());
         assertEquals(101, config.getEngineDefaults().getExecution().getDeclaredExprValueCacheSize());
+        assertEquals("/var/esper/context", config.getEngineDefaults().getExecution().getContextStateDirectory());
+        assertEquals("/var/esper/hibernate", config.getEngineDefaults().getExecution().getContextHibernateDirectory());
+        assertEquals(ConfigurationEngineDefaults.InvocationBackend.METHODHANDLE, config.getEngineDefaults().getExecution().getInvocationBackend());
 
         ConfigurationMetricsReporting metrics = config.getEngineDefaults().getMetricsReporting();
         assertTrue(metrics.isEnableMetricsReporting());
@@ -460,6 +475,7 @@ public class TestConfigurationParser extends TestCase
         assertFalse(config.getEngineDefaults().getExpression().isUdfCache());
         assertFalse(config.getEngineDefaults().getExpression().isExtendedAggregation());
         assertTrue(config.getEngineDefaults().getExpression().isDuckTyping());
+        assertTrue(config.getEngineDefaults().getExpression().isCommonSubexpressionElimination());
         assertEquals(2, config.getEngineDefaults().getExpression().getMathContext().getPrecision());
         assertEquals(RoundingMode.CEILING, config.getEngineDefaults().getExpression().getMathContext().getRoundingMode());
         assertEquals(TimeZone.getTimeZone("GMT-4:00"), config.getEngineDefaults().getExpression().getTimeZone());
@@ -0,0 +1,106 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.collection;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestCompressedBitmap extends TestCase
+{
+    public void testAddRemove()
+    {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        assertTrue(bitmap.isEmpty());
+
+        assertTrue(bitmap.add(5));
+        assertFalse(bitmap.add(5));
+        assertTrue(bitmap.add(70000));
+        assertTrue(bitmap.add(1));
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(70001));
+        assertTrue(Arrays.equals(new int[] {1, 5, 70000}, bitmap.toArray()));
+
+        assertTrue(bitmap.remove(70000));
+        assertFalse(bitmap.remove(70000));
+        assertTrue(Arrays.equals(new int[] {1, 5}, bitmap.toArray()));
+
+        bitmap.clear();
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.toArray().length);
+    }
+
+    public void testDenseChunk()
+    {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < CompressedBitmap.ARRAY_MAX_SIZE * 3; i += 2) {
+            bitmap.add(i);
+        }
+        assertEquals(CompressedBitmap.ARRAY_MAX_SIZE * 3 / 2, bitmap.cardinality());
+        assertTrue(bitmap.contains(100));
+        assertFalse(bitmap.contains(101));
+
+        for (int i = 0; i < CompressedBitmap.ARRAY_MAX_SIZE * 3; i += 4) {
+            bitmap.remove(i);
+        }
+        assertEquals(CompressedBitmap.ARRAY_MAX_SIZE * 3 / 4, bitmap.cardinality());
+        assertFalse(bitmap.contains(100));
+        assertTrue(bitmap.contains(102));
+    }
+
+    public void testAndOr()
+    {
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            int range = round % 2 == 0 ? 100000 : 5000;
+            int count = random.nextInt(10000);
+            CompressedBitmap left = new CompressedBitmap();
+            CompressedBitmap right = new CompressedBitmap();
+            TreeSet<Integer> leftSet = new TreeSet<Integer>();
+            TreeSet<Integer> rightSet = new TreeSet<Integer>();
+            for (int i = 0; i < count; i++) {
+                int valueLeft = random.nextInt(range);
+                int valueRight = random.nextInt(range);
+                left.add(valueLeft);
+                leftSet.add(valueLeft);
+                right.add(valueRight);
+                rightSet.add(valueRight);
+            }
+
+            TreeSet<Integer> intersection = new TreeSet<Integer>(leftSet);
+            intersection.retainAll(rightSet);
+            assertEquals(intersection, toSet(left.and(right)));
+            assertEquals(intersection, toSet(right.and(left)));
+
+            TreeSet<Integer> union = new TreeSet<Integer>(leftSet);
+            union.addAll(rightSet);
+            assertEquals(union, toSet(left.or(right)));
+            assertEquals(union.size(), right.or(left).cardinality());
+
+            // operands are unchanged
+            assertEquals(leftSet, toSet(left));
+            assertEquals(rightSet, toSet(right));
+        }
+    }
+
+    private static TreeSet<Integer> toSet(CompressedBitmap bitmap) {
+        TreeSet<Integer> set = new TreeSet<Integer>();
+        for (int value : bitmap.toArray()) {
+            set.add(value);
+        }
+        assertEquals(set.size(), bitmap.cardinality());
+        return set;
+    }
+}
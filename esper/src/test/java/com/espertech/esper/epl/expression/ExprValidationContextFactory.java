@@ -26,7 +26,7 @@ public class ExprValidationContextFactory {
     }
 
     public static ExprValidationContext makeEmpty(ConfigurationEngineDefaults.ThreadingProfile threadingProfile) {
-        return new ExprValidationContext(null, new EngineImportServiceImpl(false, false, false, false, null, TimeZone.getDefault(), threadingProfile, AggregationFactoryFactoryDefault.INSTANCE), null, null, null, null, null, new SupportExprEvaluatorContext(null), null, null, 1, null, null, false, false, false, false, null, false);
+        return new ExprValidationContext(null, new EngineImportServiceImpl(false, false, false, false, null, TimeZone.getDefault(), threadingProfile, AggregationFactoryFactoryDefault.INSTANCE, ConfigurationEngineDefaults.InvocationBackend.CGLIB), null, null, null, null, null, new SupportExprEvaluatorContext(null), null, null, 1, null, null, false, false, false, false, null, false);
     }
 
     public static ExprValidationContext make(StreamTypeService streamTypeService) {
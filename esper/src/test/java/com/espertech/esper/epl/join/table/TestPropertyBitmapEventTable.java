@@ -0,0 +1,104 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.epl.join.table;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.EventType;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.event.SupportEventBeanFactory;
+import com.espertech.esper.support.event.SupportEventTypeFactory;
+import junit.framework.TestCase;
+
+import java.util.Collection;
+
+public class TestPropertyBitmapEventTable extends TestCase
+{
+    private EventBean[] testEvents;
+    private PropertyBitmapEventTable index;
+
+    public void setUp()
+    {
+        String[] propertyNames = new String[] { "intPrimitive", "theString" };
+        EventType eventType = SupportEventTypeFactory.createBeanType(SupportBean.class);
+        PropertyBitmapEventTableFactory factory = new PropertyBitmapEventTableFactory(1, eventType, propertyNames, null);
+        index = (PropertyBitmapEventTable) factory.makeEventTables(null)[0];
+
+        int intValues[] = new int[] {0, 1, 1, 2, 1, 0};
+        String stringValues[] = new String[] { "a", "b", "c", "a", "b", "c" };
+
+        testEvents = new EventBean[intValues.length];
+        for (int i = 0; i < intValues.length; i++)
+        {
+            testEvents[i] = makeBean(intValues[i], stringValues[i]);
+        }
+        index.add(testEvents);
+    }
+
+    public void testLookup()
+    {
+        // single term
+        assertLookup(new int[][] {{0}}, new Object[][][] {{{1}}}, 1, 2, 4);
+        assertLookup(new int[][] {{1}}, new Object[][][] {{{"a"}}}, 0, 3);
+
+        // conjunction
+        assertLookup(new int[][] {{0, 1}}, new Object[][][] {{{1}, {"b"}}}, 1, 4);
+        assertLookup(new int[][] {{0, 1}}, new Object[][][] {{{1}, {"a"}}});
+
+        // in-list
+        assertLookup(new int[][] {{0}}, new Object[][][] {{{0, 2}}}, 0, 3, 5);
+        assertLookup(new int[][] {{0, 1}}, new Object[][][] {{{0, 2}, {"a", "x"}}}, 0, 3);
+
+        // disjunction
+        assertLookup(new int[][] {{0}, {1}}, new Object[][][] {{{2}}, {{"c"}}}, 2, 3, 5);
+
+        // coercion
+        assertLookup(new int[][] {{0}}, new Object[][][] {{{2L}}}, 3);
+
+        // no match
+        assertLookup(new int[][] {{1}}, new Object[][][] {{{"x"}}});
+    }
+
+    public void testAddRemove()
+    {
+        index.remove(new EventBean[] {testEvents[1], testEvents[5]});
+        assertEquals(4, (int) index.getNumberOfEvents());
+        assertLookup(new int[][] {{0}}, new Object[][][] {{{1}}}, 2, 4);
+        assertEquals(3, index.getNumDistinctValues(1));
+
+        // slots are reused
+        EventBean added = makeBean(1, "b");
+        index.add(added);
+        Collection<EventBean> result = index.lookup(new int[][] {{0, 1}}, new Object[][][] {{{1}, {"b"}}});
+        EPAssertionUtil.assertEqualsAnyOrder(new Object[] {testEvents[4], added}, result.toArray());
+        EPAssertionUtil.assertEqualsAnyOrder(new Object[] {testEvents[0], testEvents[2], testEvents[3], testEvents[4], added}, EPAssertionUtil.iteratorToArray(index.iterator()));
+
+        index.clear();
+        assertTrue(index.isEmpty());
+        assertLookup(new int[][] {{0}}, new Object[][][] {{{1}}});
+    }
+
+    private void assertLookup(int[][] columns, Object[][][] values, int... expectedIndexes) {
+        Collection<EventBean> result = index.lookup(columns, values);
+        Object[] expected = new Object[expectedIndexes.length];
+        for (int i = 0; i < expectedIndexes.length; i++) {
+            expected[i] = testEvents[expectedIndexes[i]];
+        }
+        EPAssertionUtil.assertEqualsAnyOrder(expected, result.toArray());
+    }
+
+    private EventBean makeBean(int intValue, String stringValue)
+    {
+        SupportBean bean = new SupportBean(stringValue, intValue);
+        return SupportEventBeanFactory.createObject(bean);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.event.arr;
+
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.core.support.SupportEventAdapterService;
+import com.espertech.esper.event.EventBeanCopyMethod;
+import junit.framework.TestCase;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TestObjectArrayOverlayEventBean extends TestCase
+{
+    private ObjectArrayEventType eventType;
+    private Object[] base;
+
+    public void setUp()
+    {
+        Map<String, Object> typeRep = new LinkedHashMap<String, Object>();
+        base = new Object[40];
+        for (int i = 0; i < base.length; i++) {
+            typeRep.put("p" + i, Integer.class);
+            base[i] = i;
+        }
+        eventType = new ObjectArrayEventType(null, "", 1, SupportEventAdapterService.getService(), typeRep, null, null, null);
+    }
+
+    public void testCopyAndWrite()
+    {
+        EventBeanCopyMethod copyMethod = eventType.getCopyMethod(new String[] {"p1"});
+        assertTrue(copyMethod instanceof ObjectArrayEventBeanCopyMethodOverlay);
+
+        EventBean original = new ObjectArrayEventBean(base, eventType);
+        ObjectArrayOverlayEventBean copy = (ObjectArrayOverlayEventBean) copyMethod.copy(original);
+        eventType.getWriter("p1").write(100, copy);
+        assertEquals(100, copy.get("p1"));
+        assertEquals(2, copy.get("p2"));
+        assertEquals(1, copy.getOverlaySize());
+        assertEquals(1, base[1]);
+
+        // copy of a copy shares the same base array
+        ObjectArrayOverlayEventBean second = (ObjectArrayOverlayEventBean) copyMethod.copy(copy);
+        eventType.getWriter("p2").write(200, second);
+        assertEquals(100, second.get("p1"));
+        assertEquals(200, second.get("p2"));
+        assertEquals(2, copy.get("p2"));
+        assertEquals(2, second.getOverlaySize());
+
+        // the underlying is the compacted array
+        Object[] und = (Object[]) second.getUnderlying();
+        assertNotSame(base, und);
+        assertEquals(100, und[1]);
+        assertEquals(200, und[2]);
+        assertEquals(3, und[3]);
+        assertEquals(-1, second.getOverlaySize());
+        eventType.getWriter("p3").write(300, second);
+        assertEquals(300, second.get("p3"));
+        assertEquals(300, und[3]);
+        assertEquals(3, base[3]);
+    }
+
+    public void testCompact()
+    {
+        ObjectArrayOverlayEventBean copy = new ObjectArrayOverlayEventBean(base, eventType);
+        for (int i = 0; i < 10; i++) {
+            copy.setValue(i, -i);
+            assertEquals(i + 1, copy.getOverlaySize());
+        }
+        copy.setValue(10, -10);
+        assertEquals(-1, copy.getOverlaySize());
+        for (int i = 0; i < base.length; i++) {
+            assertEquals(i <= 10 ? -i : i, copy.getValue(i));
+            assertEquals(i, base[i]);
+        }
+    }
+
+    public void testNarrowUsesFullCopy()
+    {
+        Map<String, Object> typeRep = new LinkedHashMap<String, Object>();
+        typeRep.put("p0", Integer.class);
+        ObjectArrayEventType narrow = new ObjectArrayEventType(null, "", 1, SupportEventAdapterService.getService(), typeRep, null, null, null);
+        assertTrue(narrow.getCopyMethod(new String[] {"p0"}) instanceof ObjectArrayEventBeanCopyMethod);
+    }
+}
@@ -76,4 +76,11 @@ public class DispatchFuture implements Dispatchable
         earlier = null;
         later = null;
     }
+
+    public void discard()
+    {
+        isCompleted = true;
+        earlier = null;
+        later = null;
+    }
 }
@@ -64,4 +64,10 @@ public class UpdateDispatchViewNonConcurrentModel implements UpdateDispatchViewM
         payloads.clear();
         dispatchListener.dispatched(result);
     }
+
+    public void discard()
+    {
+        isDispatchWaiting.set(false);
+        received.get().clear();
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.client;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.event.EventTypeSPI;
+import com.espertech.esper.event.bean.CGLibPropertyGetter;
+import com.espertech.esper.event.bean.LambdaPropertyGetter;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportEnumTwo;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.subscriber.SupportSubscriberRowByRowFullNStmt;
+import com.espertech.esper.support.subscriber.SupportSubscriberRowByRowFullWStmt;
+import com.espertech.esper.support.subscriber.SupportSubscriberRowByRowFullBase;
+import junit.framework.TestCase;
+
+public class TestInvocationBackend extends TestCase
+{
+    public void testInvocationBackend()
+    {
+        for (ConfigurationEngineDefaults.InvocationBackend backend : ConfigurationEngineDefaults.InvocationBackend.values()) {
+            runAssertionBackend(backend);
+        }
+    }
+
+    private void runAssertionBackend(ConfigurationEngineDefaults.InvocationBackend backend)
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExecution().setInvocationBackend(backend);
+        config.addEventType("SupportBean", SupportBean.class);
+        config.addEventType("MyNonPublicBean", MyNonPublicBean.class);
+        config.addImport(MySingleRowFunction.class);
+        config.addImport(SupportEnumTwo.class);
+        config.addPlugInSingleRowFunction("power3", MySingleRowFunction.class.getName(), "computePower3");
+        config.addPlugInSingleRowFunction("power3Context", MySingleRowFunction.class.getName(), "computePower3WithContext");
+        config.addPlugInSingleRowFunction("varargsOnlyInt", MySingleRowFunction.class.getName(), "varargsOnlyInt");
+        EPServiceProvider epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+
+        runAssertionGetters(epService, backend);
+        runAssertionSingleRowFunctions(epService);
+        runAssertionSubscriber(epService, new SupportSubscriberRowByRowFullNStmt());
+        runAssertionSubscriber(epService, new SupportSubscriberRowByRowFullWStmt());
+
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        epService.destroy();
+    }
+
+    private void runAssertionGetters(EPServiceProvider epService, ConfigurationEngineDefaults.InvocationBackend backend)
+    {
+        EventTypeSPI type = (EventTypeSPI) epService.getEPAdministrator().getConfiguration().getEventType("SupportBean");
+        Class expectedGetter = backend == ConfigurationEngineDefaults.InvocationBackend.METHODHANDLE ? LambdaPropertyGetter.class : CGLibPropertyGetter.class;
+        assertEquals(expectedGetter, type.getGetter("intPrimitive").getClass());
+
+        String[] fields = "theString,intPrimitive,doublePrimitive,intBoxed".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select theString, intPrimitive, doublePrimitive, intBoxed from SupportBean");
+        SupportUpdateListener listener = new SupportUpdateListener();
+        stmt.addListener(listener);
+        SupportBean bean = new SupportBean("E1", 10);
+        bean.setDoublePrimitive(1.5);
+        epService.getEPRuntime().sendEvent(bean);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {"E1", 10, 1.5, null});
+        stmt.destroy();
+
+        // non-public class
+        stmt = epService.getEPAdministrator().createEPL("select id, value from MyNonPublicBean");
+        stmt.addListener(listener);
+        epService.getEPRuntime().sendEvent(new MyNonPublicBean("N1", 100L));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "id,value".split(","), new Object[] {"N1", 100L});
+        stmt.destroy();
+
+        // exception thrown by the getter
+        EventPropertyGetter getter = epService.getEPAdministrator().getConfiguration().getEventType("MyNonPublicBean").getGetter("failing");
+        stmt = epService.getEPAdministrator().createEPL("select * from MyNonPublicBean");
+        stmt.addListener(listener);
+        epService.getEPRuntime().sendEvent(new MyNonPublicBean("N2", 0L));
+        EventBean theEvent = listener.assertOneGetNewAndReset();
+        try {
+            getter.get(theEvent);
+            fail();
+        }
+        catch (PropertyAccessException ex) {
+            assertTrue(ex.getMessage().contains("getFailing"));
+        }
+        stmt.destroy();
+    }
+
+    private void runAssertionSingleRowFunctions(EPServiceProvider epService)
+    {
+        String[] fields = "c0,c1,c2,c3,c4".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select power3(intPrimitive) as c0, power3Context(intPrimitive) as c1, " +
+                "varargsOnlyInt(intPrimitive, 2) as c2, MySingleRowFunction.surroundx(theString) as c3, " +
+                "SupportEnumTwo.ENUM_VALUE_2.checkAssociatedValue(intPrimitive) as c4 from SupportBean");
+        SupportUpdateListener listener = new SupportUpdateListener();
+        stmt.addListener(listener);
+
+        MySingleRowFunction.getMethodInvokeContexts().clear();
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 3));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {27, 27, "3,2", "XE1X", false});
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 200));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {8000000, 8000000, "200,2", "XE2X", true});
+        assertEquals(2, MySingleRowFunction.getMethodInvokeContexts().size());
+        assertEquals("power3Context", MySingleRowFunction.getMethodInvokeContexts().get(0).getFunctionName());
+        stmt.destroy();
+    }
+
+    private void runAssertionSubscriber(EPServiceProvider epService, SupportSubscriberRowByRowFullBase subscriber)
+    {
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select irstream theString, intPrimitive from SupportBean#length_batch(2)");
+        stmt.setSubscriber(subscriber);
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        subscriber.assertNoneReceived();
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 2));
+        subscriber.assertOneReceivedAndReset(stmt, 2, 0, new Object[][]{{"E1", 1}, {"E2", 2}}, null);
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E3", 3));
+        epService.getEPRuntime().sendEvent(new SupportBean("E4", 4));
+        subscriber.assertOneReceivedAndReset(stmt, 2, 2, new Object[][]{{"E3", 3}, {"E4", 4}}, new Object[][]{{"E1", 1}, {"E2", 2}});
+        stmt.destroy();
+    }
+
+    static class MyNonPublicBean
+    {
+        private final String id;
+        private final long value;
+
+        MyNonPublicBean(String id, long value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        public String getFailing() {
+            throw new RuntimeException("Failed getter");
+        }
+    }
+}
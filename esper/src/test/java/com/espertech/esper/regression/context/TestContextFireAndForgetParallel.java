@@ -0,0 +1,112 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.context;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.context.ContextPartitionSelector;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class TestContextFireAndForgetParallel extends TestCase {
+
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("SupportBean", SupportBean.class);
+        configuration.addEventType("SupportBean_S0", SupportBean_S0.class);
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testParallelSameAsSequential() {
+        epService.getEPAdministrator().createEPL("create context SegmentedByString partition by theString from SupportBean");
+        epService.getEPAdministrator().createEPL("context SegmentedByString create window MyWindow#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from SupportBean");
+
+        for (int i = 0; i < 2000; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean("G" + (i % 200), i));
+        }
+
+        String[] fields = "c0,c1".split(",");
+        EventBean[] sequential = epService.getEPRuntime().executeQuery("select count(*) as c0, sum(intPrimitive) as c1 from MyWindow where intPrimitive % 3 = 0").getArray();
+        EventBean[] parallel = epService.getEPRuntime().executeQuery("@Hint('parallel_fire_and_forget') select count(*) as c0, sum(intPrimitive) as c1 from MyWindow where intPrimitive % 3 = 0").getArray();
+        EPAssertionUtil.assertPropsPerRow(sequential, fields, new Object[][] {{667L, 666333}});
+        EPAssertionUtil.assertPropsPerRow(parallel, fields, new Object[][] {{667L, 666333}});
+
+        // per-partition results are returned in the order of context partitions
+        String epl = "context SegmentedByString select theString as c0, count(*) as c1 from MyWindow where intPrimitive > 1000 group by theString";
+        assertSameRows(epService.getEPRuntime().executeQuery(epl).getArray(),
+                epService.getEPRuntime().executeQuery("@Hint('parallel_fire_and_forget') " + epl).getArray(), fields);
+        assertEquals(200, epService.getEPRuntime().executeQuery("@Hint('parallel_fire_and_forget') " + epl).getArray().length);
+
+        // unaggregated rows with selector, prepared
+        ContextPartitionSelector[] selectors = new ContextPartitionSelector[] {new SupportSelectorById(new HashSet<Integer>(Arrays.asList(1, 5, 150)))};
+        String[] fieldsRow = "theString,intPrimitive".split(",");
+        EPOnDemandPreparedQuery prepared = epService.getEPRuntime().prepareQuery("@Hint('parallel_fire_and_forget') select theString, intPrimitive from MyWindow where intPrimitive < 400");
+        EPAssertionUtil.assertPropsPerRowAnyOrder(prepared.execute(selectors).getArray(), fieldsRow,
+                new Object[][] {{"G1", 1}, {"G1", 201}, {"G5", 5}, {"G5", 205}, {"G150", 150}, {"G150", 350}});
+
+        // no context partitions
+        epService.getEPRuntime().executeQuery("delete from MyWindow");
+        EPAssertionUtil.assertPropsPerRow(epService.getEPRuntime().executeQuery("@Hint('parallel_fire_and_forget') select count(*) as c0, sum(intPrimitive) as c1 from MyWindow").getArray(),
+                fields, new Object[][] {{0L, null}});
+    }
+
+    public void testInvalid() {
+        epService.getEPAdministrator().createEPL("create context SegmentedByString partition by theString from SupportBean");
+        epService.getEPAdministrator().createEPL("context SegmentedByString create window MyWindow#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("create window MyWindowS0#keepall as SupportBean_S0");
+        epService.getEPAdministrator().createEPL("create table MyTable(k string primary key, v int)");
+
+        tryInvalidRuntimeQuery("@Hint('parallel_fire_and_forget') select * from MyTable",
+                "Error executing statement: The PARALLEL_FIRE_AND_FORGET hint requires a query against a single named window that is not a virtual data window [@Hint('parallel_fire_and_forget') select * from MyTable]");
+        tryInvalidRuntimeQuery("@Hint('parallel_fire_and_forget') select * from MyWindowS0, MyWindowS0 as b",
+                "Error executing statement: The PARALLEL_FIRE_AND_FORGET hint requires a query against a single named window that is not a virtual data window [@Hint('parallel_fire_and_forget') select * from MyWindowS0, MyWindowS0 as b]");
+        tryInvalidRuntimeQuery("@Hint('parallel_fire_and_forget') select MyTable['a'].v as c0 from MyWindow",
+                "Error executing statement: The PARALLEL_FIRE_AND_FORGET hint is not supported with table access [@Hint('parallel_fire_and_forget') select MyTable['a'].v as c0 from MyWindow]");
+    }
+
+    private void assertSameRows(EventBean[] expected, EventBean[] actual, String[] fields) {
+        Object[][] rows = new Object[expected.length][];
+        for (int i = 0; i < expected.length; i++) {
+            rows[i] = new Object[fields.length];
+            for (int j = 0; j < fields.length; j++) {
+                rows[i][j] = expected[i].get(fields[j]);
+            }
+        }
+        EPAssertionUtil.assertPropsPerRow(actual, fields, rows);
+    }
+
+    private void tryInvalidRuntimeQuery(String epl, String expected) {
+        try {
+            epService.getEPRuntime().executeQuery(epl);
+            fail();
+        }
+        catch (Exception ex) {
+            assertEquals(expected, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.context;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.context.ContextPartitionFootprint;
+import com.espertech.esper.client.context.EPContextPartitionAdmin;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+public class TestContextPartitionFootprint extends TestCase {
+
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("SupportBean", SupportBean.class);
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testFootprint() {
+        epService.getEPAdministrator().createEPL("create context SegByString partition by theString from SupportBean");
+        epService.getEPAdministrator().createEPL("@Name('A') context SegByString select theString, count(*) from SupportBean");
+        epService.getEPAdministrator().createEPL("@Name('B') context SegByString select * from SupportBean#length(100)");
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 2));
+        for (int i = 0; i < 50; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean("E2", i));
+        }
+
+        EPContextPartitionAdmin admin = epService.getEPAdministrator().getContextPartitionAdmin();
+        ContextPartitionFootprint footprintOne = admin.getFootprint("SegByString", 0);
+        ContextPartitionFootprint footprintTwo = admin.getFootprint("SegByString", 1);
+        assertEquals(0, footprintOne.getAgentInstanceId());
+        EPAssertionUtil.assertEqualsExactOrder(new Object[] {"A", "B"}, footprintOne.getBytesPerStatement().keySet().toArray());
+        assertTrue(footprintOne.getBytes() > 0);
+        assertTrue(footprintOne.getNumObjects() > 0);
+        assertTrue(footprintOne.getBytes() >= footprintOne.getBytesPerStatement().get("A") + footprintOne.getBytesPerStatement().get("B"));
+
+        // the partition holding more events in its window is larger, the aggregating statement is not
+        assertTrue(footprintTwo.getBytesPerStatement().get("B") > footprintOne.getBytesPerStatement().get("B") + 50 * 16);
+        assertEquals(footprintOne.getBytesPerStatement().get("A"), footprintTwo.getBytesPerStatement().get("A"));
+        assertTrue(footprintTwo.getBytesPerClass().containsKey(SupportBean.class.getName()));
+        assertFalse(footprintOne.getBytesPerClass().containsKey(EPServiceProvider.class.getName()));
+
+        assertNull(admin.getFootprint("SegByString", 99));
+        try {
+            admin.getFootprint("Dummy", 0);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+            assertEquals("Context by name 'Dummy' could not be found", ex.getMessage());
+        }
+    }
+
+    public void testReduceMemory() {
+        epService.getEPAdministrator().createEPL("create context SegByString partition by theString from SupportBean");
+        EPStatement stmtDefault = epService.getEPAdministrator().createEPL("@Name('A') context SegByString select theString as c0, sum(intPrimitive) as c1 from SupportBean");
+        EPStatement stmtReduced = epService.getEPAdministrator().createEPL("@Name('B') @Hint('reduce_context_partition_memory') context SegByString select theString as c0, sum(intPrimitive) as c1 from SupportBean");
+        SupportUpdateListener listenerDefault = new SupportUpdateListener();
+        SupportUpdateListener listenerReduced = new SupportUpdateListener();
+        stmtDefault.addListener(listenerDefault);
+        stmtReduced.addListener(listenerReduced);
+        String[] fields = "c0,c1".split(",");
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 20));
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 11));
+        EPAssertionUtil.assertPropsPerRow(listenerDefault.getNewDataListFlattened(), fields, new Object[][] {{"E1", 10}, {"E2", 20}, {"E1", 21}});
+        EPAssertionUtil.assertPropsPerRow(listenerReduced.getNewDataListFlattened(), fields, new Object[][] {{"E1", 10}, {"E2", 20}, {"E1", 21}});
+        EPAssertionUtil.assertPropsPerRowAnyOrder(stmtReduced.iterator(), fields, new Object[][] {{"E1", 21}, {"E2", 20}});
+
+        ContextPartitionFootprint footprint = epService.getEPAdministrator().getContextPartitionAdmin().getFootprint("SegByString", 0);
+        assertTrue(footprint.getBytesPerStatement().get("B") < footprint.getBytesPerStatement().get("A"));
+    }
+}
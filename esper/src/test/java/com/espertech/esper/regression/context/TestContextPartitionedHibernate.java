@@ -0,0 +1,221 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.context;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.client.time.CurrentTimeEvent;
+import com.espertech.esper.collection.UniformPair;
+import com.espertech.esper.core.context.mgr.ContextManagerImpl;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.util.SupportMessageAssertUtil;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TestContextPartitionedHibernate extends TestCase {
+
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("SupportBean", SupportBean.class);
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testHibernateAndWake() {
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
+        epService.getEPAdministrator().createEPL("@Hint('hibernate_idle_context_partition=10') create context SegByString partition by theString from SupportBean");
+        EPStatement stmtUngrouped = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, sum(intPrimitive) as c1, count(*) as c2 from SupportBean");
+        SupportUpdateListener listenerUngrouped = new SupportUpdateListener();
+        stmtUngrouped.addListener(listenerUngrouped);
+        EPStatement stmtGrouped = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, intPrimitive as c1, count(*) as c2 from SupportBean group by intPrimitive");
+        SupportUpdateListener listenerGrouped = new SupportUpdateListener();
+        stmtGrouped.addListener(listenerGrouped);
+        EPStatement stmtWindow = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, count(*) as c1 from SupportBean#time(5)");
+        SupportUpdateListener listenerWindow = new SupportUpdateListener();
+        stmtWindow.addListener(listenerWindow);
+        String[] fields = "c0,c1,c2".split(",");
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 20));
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(4000));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 20));
+        EPAssertionUtil.assertProps(listenerUngrouped.getAndResetLastNewData()[0], fields, new Object[] {"E2", 40, 2L});
+        listenerGrouped.reset();
+        listenerWindow.reset();
+
+        // E1 is idle and its time window is empty, E2 still holds an event in its time window
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(10000));
+        assertEquals(1, getManager().getNumPartitionsHibernated());
+        assertEquals(1, EPAssertionUtil.iteratorToArray(stmtUngrouped.iterator()).length);
+
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(20000));
+        assertEquals(2, getManager().getNumPartitionsHibernated());
+        assertEquals(0, EPAssertionUtil.iteratorToArray(stmtUngrouped.iterator()).length);
+
+        // waking up restores the aggregation state
+        listenerWindow.reset();
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 5));
+        EPAssertionUtil.assertProps(listenerUngrouped.assertOneGetNewAndReset(), fields, new Object[] {"E1", 15, 2L});
+        EPAssertionUtil.assertProps(listenerGrouped.assertOneGetNewAndReset(), fields, new Object[] {"E1", 5, 1L});
+        EPAssertionUtil.assertProps(listenerWindow.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {"E1", 1L});
+        assertEquals(1, getManager().getNumPartitionsHibernated());
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 20));
+        EPAssertionUtil.assertProps(listenerUngrouped.assertOneGetNewAndReset(), fields, new Object[] {"E2", 60, 3L});
+        EPAssertionUtil.assertProps(listenerGrouped.assertOneGetNewAndReset(), fields, new Object[] {"E2", 20, 3L});
+        assertEquals(0, getManager().getNumPartitionsHibernated());
+
+        // a statement added while the partition hibernates starts when the partition wakes up
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(26000));
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(30000));
+        assertEquals(2, getManager().getNumPartitionsHibernated());
+        EPStatement stmtAdded = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, count(*) as c1 from SupportBean");
+        SupportUpdateListener listenerAdded = new SupportUpdateListener();
+        stmtAdded.addListener(listenerAdded);
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        EPAssertionUtil.assertProps(listenerAdded.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {"E1", 1L});
+        EPAssertionUtil.assertProps(listenerUngrouped.assertOneGetNewAndReset(), fields, new Object[] {"E1", 16, 3L});
+
+        epService.getEPAdministrator().destroyAllStatements();
+    }
+
+    public void testHibernateLengthWindow() {
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
+        epService.getEPAdministrator().createEPL("@Hint('hibernate_idle_context_partition=1') create context SegByString partition by theString from SupportBean");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, sum(intPrimitive) as c1, prev(1, intPrimitive) as c2 from SupportBean#length(2)");
+        SupportUpdateListener listener = new SupportUpdateListener();
+        stmt.addListener(listener);
+        String[] fields = "c0,c1,c2".split(",");
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 11));
+        EPAssertionUtil.assertProps(listener.getAndResetLastNewData()[0], fields, new Object[] {"E1", 21, 10});
+
+        // the window holds two events and is written with the aggregation state
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(5000));
+        assertEquals(1, getManager().getNumPartitionsHibernated());
+
+        // the restored window expires the oldest event
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 12));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {"E1", 23, 11});
+        assertEquals(0, getManager().getNumPartitionsHibernated());
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 13));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {"E1", 25, 12});
+    }
+
+    public void testHibernateUniqueWindowObjectArray() {
+        epService.getEPAdministrator().getConfiguration().addEventType("MyOAEvent", "k,v".split(","), new Object[] {String.class, Integer.class});
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
+        epService.getEPAdministrator().createEPL("@Hint('hibernate_idle_context_partition=1') create context SegByKey partition by k from MyOAEvent");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("context SegByKey select irstream k, v from MyOAEvent#unique(v)");
+        SupportUpdateListener listener = new SupportUpdateListener();
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(new Object[] {"A", 1}, "MyOAEvent");
+        epService.getEPRuntime().sendEvent(new Object[] {"A", 2}, "MyOAEvent");
+        epService.getEPRuntime().sendEvent(new Object[] {"A", 1}, "MyOAEvent");
+        listener.reset();
+
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(5000));
+        assertEquals(1, getManager("SegByKey").getNumPartitionsHibernated());
+        assertFalse(stmt.iterator().hasNext());
+
+        // the restored window replaces the event of the same unique value
+        epService.getEPRuntime().sendEvent(new Object[] {"A", 2}, "MyOAEvent");
+        UniformPair<EventBean> pair = listener.assertPairGetIRAndReset();
+        EPAssertionUtil.assertProps(pair.getFirst(), "k,v".split(","), new Object[] {"A", 2});
+        EPAssertionUtil.assertProps(pair.getSecond(), "k,v".split(","), new Object[] {"A", 2});
+        EPAssertionUtil.assertPropsPerRowAnyOrder(stmt.iterator(), "k,v".split(","), new Object[][] {{"A", 1}, {"A", 2}});
+    }
+
+    public void testNoHibernatePrior() {
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
+        epService.getEPAdministrator().createEPL("@Hint('hibernate_idle_context_partition=1') create context SegByString partition by theString from SupportBean");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, sum(intPrimitive) as c1, prior(1, intPrimitive) as c2 from SupportBean#length(2)");
+        SupportUpdateListener listener = new SupportUpdateListener();
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        listener.reset();
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(5000));
+        assertEquals(0, getManager().getNumPartitionsHibernated());
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 11));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1,c2".split(","), new Object[] {"E1", 21, 10});
+    }
+
+    public void testHibernateDirectory() throws IOException {
+        File directory = File.createTempFile("esper-hibernate", "");
+        directory.delete();
+        directory.mkdir();
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("SupportBean", SupportBean.class);
+        configuration.getEngineDefaults().getExecution().setContextHibernateDirectory(directory.getAbsolutePath());
+        EPServiceProvider engine = EPServiceProviderManager.getProvider(this.getClass().getName() + "_directory", configuration);
+        try {
+            engine.getEPRuntime().sendEvent(new CurrentTimeEvent(0));
+            EPStatement stmtContext = engine.getEPAdministrator().createEPL("@Hint('hibernate_idle_context_partition=1') create context SegByString partition by theString from SupportBean");
+            EPStatement stmt = engine.getEPAdministrator().createEPL("context SegByString select theString as c0, sum(intPrimitive) as c1 from SupportBean");
+            SupportUpdateListener listener = new SupportUpdateListener();
+            stmt.addListener(listener);
+
+            engine.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+            engine.getEPRuntime().sendEvent(new CurrentTimeEvent(2000));
+            File[] files = directory.listFiles();
+            assertEquals(1, files.length);
+            assertTrue(files[0].getName().endsWith(".hibernate"));
+
+            listener.reset();
+            engine.getEPRuntime().sendEvent(new SupportBean("E1", 11));
+            EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {"E1", 21});
+
+            stmt.destroy();
+            stmtContext.destroy();
+            assertEquals(0, directory.listFiles().length);
+        }
+        finally {
+            engine.destroy();
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    public void testInvalid() {
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('hibernate_idle_context_partition=1') create context CtxInit initiated by SupportBean terminated after 1 minute",
+                "Error starting statement: The HIBERNATE_IDLE_CONTEXT_PARTITION hint requires a keyed segmented context [");
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('hibernate_idle_context_partition=x') create context SegByString partition by theString from SupportBean",
+                "Error starting statement: Invalid value for hint 'HIBERNATE_IDLE_CONTEXT_PARTITION', expected a number of seconds but received 'x' [");
+    }
+
+    private ContextManagerImpl getManager() {
+        return getManager("SegByString");
+    }
+
+    private ContextManagerImpl getManager(String contextName) {
+        return (ContextManagerImpl) ((EPServiceProviderSPI) epService).getContextManagementService().getContextManager(contextName);
+    }
+}
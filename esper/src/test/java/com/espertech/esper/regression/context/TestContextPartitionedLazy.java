@@ -0,0 +1,123 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.context;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.util.SupportMessageAssertUtil;
+import junit.framework.TestCase;
+
+public class TestContextPartitionedLazy extends TestCase {
+
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        configuration.addEventType("SupportBean", SupportBean.class);
+        configuration.addEventType("SupportBean_S0", SupportBean_S0.class);
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testStartOnFirstEvent() {
+        epService.getEPAdministrator().createEPL("@Hint('lazy_context_partition') create context SegByString " +
+                "partition by theString from SupportBean, p00 from SupportBean_S0");
+        EPStatement stmtBean = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, sum(intPrimitive) as c1 from SupportBean");
+        SupportUpdateListener listenerBean = new SupportUpdateListener();
+        stmtBean.addListener(listenerBean);
+        EPStatement stmtS0 = epService.getEPAdministrator().createEPL("context SegByString select p00 as c0, count(*) as c1 from SupportBean_S0");
+        SupportUpdateListener listenerS0 = new SupportUpdateListener();
+        stmtS0.addListener(listenerS0);
+        String[] fields = "c0,c1".split(",");
+
+        // the partition starts only the statement that the event reaches
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        EPAssertionUtil.assertProps(listenerBean.assertOneGetNewAndReset(), fields, new Object[] {"E1", 10});
+        assertEquals(1, count(stmtBean));
+        assertEquals(0, count(stmtS0));
+
+        // the first event of the other type starts the statement and is delivered to it
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1, "E1"));
+        EPAssertionUtil.assertProps(listenerS0.assertOneGetNewAndReset(), fields, new Object[] {"E1", 1L});
+        assertEquals(1, count(stmtS0));
+        assertFalse(listenerBean.isInvoked());
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2, "E1"));
+        EPAssertionUtil.assertProps(listenerS0.assertOneGetNewAndReset(), fields, new Object[] {"E1", 2L});
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 5));
+        EPAssertionUtil.assertProps(listenerBean.assertOneGetNewAndReset(), fields, new Object[] {"E1", 15});
+
+        // a partition created by the other type
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(3, "E2"));
+        EPAssertionUtil.assertProps(listenerS0.assertOneGetNewAndReset(), fields, new Object[] {"E2", 1L});
+        assertEquals(1, count(stmtBean));
+        assertEquals(2, count(stmtS0));
+
+        // a statement added to existing partitions starts upon its first event
+        EPStatement stmtAdded = epService.getEPAdministrator().createEPL("context SegByString select theString as c0, count(*) as c1 from SupportBean");
+        SupportUpdateListener listenerAdded = new SupportUpdateListener();
+        stmtAdded.addListener(listenerAdded);
+        assertEquals(0, count(stmtAdded));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 1));
+        EPAssertionUtil.assertProps(listenerAdded.assertOneGetNewAndReset(), fields, new Object[] {"E2", 1L});
+        EPAssertionUtil.assertProps(listenerBean.assertOneGetNewAndReset(), fields, new Object[] {"E2", 1});
+        assertEquals(1, count(stmtAdded));
+
+        // destroying a statement that has not started for a partition
+        stmtAdded.destroy();
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        EPAssertionUtil.assertProps(listenerBean.assertOneGetNewAndReset(), fields, new Object[] {"E1", 16});
+        assertFalse(listenerAdded.isInvoked());
+    }
+
+    public void testSubqueryStarts() {
+        epService.getEPAdministrator().createEPL("@Hint('lazy_context_partition') create context SegByString " +
+                "partition by theString from SupportBean, p00 from SupportBean_S0");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("context SegByString " +
+                "select id as c0, (select sum(intPrimitive) from SupportBean#keepall) as c1 from SupportBean_S0");
+        SupportUpdateListener listener = new SupportUpdateListener();
+        stmt.addListener(listener);
+
+        // the subquery stream starts the statement so that the subquery sees the event
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 11));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 20));
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1, "E1"));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {1, 21});
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2, "E3"));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {2, null});
+    }
+
+    public void testInvalid() {
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('lazy_context_partition') create context CtxInit initiated by SupportBean_S0 terminated after 1 minute",
+                "Error starting statement: The LAZY_CONTEXT_PARTITION hint requires a keyed segmented context [");
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('lazy_context_partition') create context CtxNested " +
+                "context CtxOne partition by theString from SupportBean, " +
+                "context CtxTwo partition by intPrimitive from SupportBean",
+                "Error starting statement: The LAZY_CONTEXT_PARTITION hint is not supported for nested contexts [");
+    }
+
+    private int count(EPStatement stmt) {
+        return EPAssertionUtil.iteratorToArray(stmt.iterator()).length;
+    }
+}
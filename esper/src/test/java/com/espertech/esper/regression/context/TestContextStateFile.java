@@ -0,0 +1,181 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.context;
+
+import com.espertech.esper.client.Configuration;
+import com.espertech.esper.client.EPServiceProvider;
+import com.espertech.esper.client.EPServiceProviderManager;
+import com.espertech.esper.client.context.ContextPartitionSelectorAll;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.bean.SupportBean_S1;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Set;
+
+public class TestContextStateFile extends TestCase {
+
+    private File directory;
+    private Configuration config;
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp() throws Exception {
+        directory = File.createTempFile("esper-context", "");
+        assertTrue(directory.delete());
+        config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExecution().setContextStateDirectory(directory.getAbsolutePath());
+        config.addEventType(SupportBean.class);
+        config.addEventType(SupportBean_S0.class);
+        config.addEventType(SupportBean_S1.class);
+        startEngine();
+        listener = new SupportUpdateListener();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+        epService.destroy();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    public void testKeyedRecovery() {
+        String contextEPL = "create context SegmentedByString partition by theString from SupportBean";
+        String stmtEPL = "context SegmentedByString select context.id as c0, context.key1 as c1, sum(intPrimitive) as c2 from SupportBean";
+        String[] fields = "c0,c1,c2".split(",");
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL);
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 20));
+        epService.getEPRuntime().sendEvent(new SupportBean("E3", 30));
+
+        // restart: context partitions are recreated before any event arrives
+        restartEngine();
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL).addListener(listener);
+        assertIds("SegmentedByString", 0, 1, 2);
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 5));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {1, "E2", 5});
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E4", 7));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {3, "E4", 7});
+
+        // a second restart sees the partition allocated after the first restart
+        restartEngine();
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL).addListener(listener);
+        assertIds("SegmentedByString", 0, 1, 2, 3);
+        epService.getEPRuntime().sendEvent(new SupportBean("E4", 1));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {3, "E4", 1});
+
+        // destroying the context discards the state
+        epService.getEPAdministrator().destroyAllStatements();
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL).addListener(listener);
+        assertIds("SegmentedByString");
+        epService.getEPRuntime().sendEvent(new SupportBean("E4", 1));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {0, "E4", 1});
+    }
+
+    public void testChangedDefinition() {
+        epService.getEPAdministrator().createEPL("create context MyContext partition by theString from SupportBean");
+        epService.getEPAdministrator().createEPL("context MyContext select count(*) from SupportBean");
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        assertIds("MyContext", 0);
+
+        restartEngine();
+        epService.getEPAdministrator().createEPL("create context MyContext partition by intPrimitive from SupportBean");
+        epService.getEPAdministrator().createEPL("context MyContext select context.id as c0, context.key1 as c1 from SupportBean").addListener(listener);
+        assertIds("MyContext");
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {0, 10});
+    }
+
+    public void testHashRecovery() {
+        String contextEPL = "create context HashByString coalesce by consistent_hash_crc32(theString) from SupportBean granularity 16";
+        String stmtEPL = "context HashByString select context.id as c0, count(*) as c1 from SupportBean";
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL);
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 0));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 0));
+        Set<Integer> ids = getIds("HashByString");
+        assertEquals(2, ids.size());
+
+        restartEngine();
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL).addListener(listener);
+        assertEquals(ids, getIds("HashByString"));
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 0));
+        assertEquals(1L, listener.assertOneGetNewAndReset().get("c1"));
+        assertEquals(ids, getIds("HashByString"));
+    }
+
+    public void testInitiatedCompaction() {
+        String contextEPL = "create context CtxInitiated initiated by SupportBean_S0 as s0 terminated by SupportBean_S1(id = s0.id)";
+        String stmtEPL = "context CtxInitiated select context.id as c0, context.s0.id as c1, sum(intPrimitive) as c2 from SupportBean";
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL);
+
+        // many short-lived context partitions: the log is compacted
+        for (int i = 0; i < 1000; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean_S0(i));
+            epService.getEPRuntime().sendEvent(new SupportBean_S1(i));
+        }
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2000));
+        File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        assertTrue(files[0].length() < 100 * 1024);
+
+        restartEngine();
+        epService.getEPAdministrator().createEPL(contextEPL);
+        epService.getEPAdministrator().createEPL(stmtEPL).addListener(listener);
+        Set<Integer> ids = getIds("CtxInitiated");
+        assertEquals(1, ids.size());
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1,c2".split(","), new Object[] {ids.iterator().next(), 2000, 10});
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S1(2000));
+        assertIds("CtxInitiated");
+    }
+
+    private void startEngine() {
+        epService = EPServiceProviderManager.getProvider(TestContextStateFile.class.getSimpleName(), config);
+        epService.initialize();
+    }
+
+    private void restartEngine() {
+        epService.destroy();
+        startEngine();
+    }
+
+    private Set<Integer> getIds(String contextName) {
+        return epService.getEPAdministrator().getContextPartitionAdmin().getContextPartitionIds(contextName, ContextPartitionSelectorAll.INSTANCE);
+    }
+
+    private void assertIds(String contextName, Integer... expected) {
+        EPAssertionUtil.assertEqualsAnyOrder(expected, getIds(contextName).toArray());
+    }
+}
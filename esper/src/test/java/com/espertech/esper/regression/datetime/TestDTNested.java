@@ -82,4 +82,37 @@ public class TestDTNested extends TestCase {
         epService.getEPRuntime().sendEvent(SupportDateTime.make(startTime));
         EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, SupportDateTime.getArrayCoerced(expectedTime, "cal", "cal", "cal", "cal", "cal"));
     }
+
+    public void testCalOpsRepeatedLongInput() {
+
+        String[] fields = "val0,val1,val2,val3,val4,val5".split(",");
+        String eplFragment = "select " +
+                "msecdate.set('minute', 0).withMax('day') as val0," +
+                "utildate.set('minute', 0).withMax('day') as val1," +
+                "msecdate.set('minute', 0).withMax('day').getDayOfMonth() as val2," +
+                "msecdate.set('minute', 0).withMax('day').toCalendar() as val3," +
+                "msecdate.get('month') as val4," +
+                "msecdate.set('minute', 0).withMax('day').after(msecdate) as val5" +
+                " from SupportDateTime";
+        EPStatement stmtFragment = epService.getEPAdministrator().createEPL(eplFragment);
+        stmtFragment.addListener(listener);
+
+        String[] startTimes = new String[] {"2002-01-15T09:30:00.000", "2002-02-10T10:15:00.000", "2002-02-28T23:00:00.000", "2004-02-01T00:10:00.000"};
+        String[] expectedTimes = new String[] {"2002-01-31T09:00:00.000", "2002-02-28T10:00:00.000", "2002-02-28T23:00:00.000", "2004-02-29T00:00:00.000"};
+        int[] expectedDays = new int[] {31, 28, 28, 29};
+        int[] expectedMonths = new int[] {0, 1, 1, 1};
+        Calendar firstCalendar = null;
+        for (int i = 0; i < startTimes.length; i++) {
+            epService.getEPRuntime().sendEvent(SupportDateTime.make(startTimes[i]));
+            Object[] expected = new Object[] {SupportDateTime.getValueCoerced(expectedTimes[i], "msec"), SupportDateTime.getValueCoerced(expectedTimes[i], "util"),
+                    expectedDays[i], SupportDateTime.getValueCoerced(expectedTimes[i], "cal"), expectedMonths[i], i != 2};
+            if (i == 0) {
+                firstCalendar = (Calendar) listener.assertOneGetNew().get("val3");
+            }
+            EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, expected);
+        }
+
+        // the calendar handed out by an earlier evaluation remains unchanged
+        assertEquals(SupportDateTime.getValueCoerced(expectedTimes[0], "cal"), firstCalendar);
+    }
 }
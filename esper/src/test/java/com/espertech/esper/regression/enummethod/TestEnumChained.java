@@ -15,9 +15,13 @@ import com.espertech.esper.client.Configuration;
 import com.espertech.esper.client.EPServiceProvider;
 import com.espertech.esper.client.EPServiceProviderManager;
 import com.espertech.esper.client.EPStatement;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
 import com.espertech.esper.client.scopetest.SupportUpdateListener;
 import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean_ST0;
 import com.espertech.esper.support.bean.SupportBean_ST0_Container;
+import com.espertech.esper.support.bean.SupportCollection;
 import com.espertech.esper.support.bean.lambda.LambdaAssertionUtil;
 import com.espertech.esper.support.bean.sales.PersonSales;
 import com.espertech.esper.support.client.SupportConfigFactory;
@@ -33,6 +37,7 @@ public class TestEnumChained extends TestCase {
         Configuration config = SupportConfigFactory.getConfiguration();
         config.addEventType("Bean", SupportBean_ST0_Container.class);
         config.addEventType("PersonSales", PersonSales.class);
+        config.addEventType("SupportCollection", SupportCollection.class);
         epService = EPServiceProviderManager.getDefaultProvider(config);
         epService.initialize();
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
@@ -55,4 +60,67 @@ public class TestEnumChained extends TestCase {
         epService.getEPRuntime().sendEvent(bean);
         assertEquals((int) 50, listener.assertOneGetNewAndReset().get("val"));
     }
+
+    public void testFusedPipeline() {
+        String[] fields = "c0,c1,c2,c3,c4,c5,c6,c7,c8".split(",");
+        String eplFragment = "select " +
+                "contained.where(x => x.p00 > 1).take(2) as c0, " +
+                "contained.where(x => x.p00 > 1).selectFrom(x => x.id) as c1, " +
+                "contained.where(x => x.p00 > 1).countOf() as c2, " +
+                "contained.where(x => x.p00 > 1).sumOf(x => x.p00) as c3, " +
+                "contained.where(x => x.p00 > 1).average(x => x.p00) as c4, " +
+                "contained.where(x => x.p00 > 1).firstOf(x => x.p00 > 3) as c5, " +
+                "contained.where(x => x.p00 > 1).anyOf(x => x.p00 = 2) as c6, " +
+                "contained.where(x => x.p00 > 1).orderBy(x => x.id).take(1) as c7, " +
+                "contained.selectFrom(x => x.p00).where(v => v > 1).take(2).sumOf() as c8 " +
+                "from Bean";
+        EPStatement stmtFragment = epService.getEPAdministrator().createEPL(eplFragment);
+        stmtFragment.addListener(listener);
+        LambdaAssertionUtil.assertTypes(stmtFragment.getEventType(), "c2,c3,c4,c5,c6,c8".split(","),
+                new Class[]{Integer.class, Integer.class, Double.class, SupportBean_ST0.class, Boolean.class, Integer.class});
+
+        epService.getEPRuntime().sendEvent(SupportBean_ST0_Container.make2Value("E1,1", "E2,2", "E3,5", "E4,4"));
+        LambdaAssertionUtil.assertST0Id(listener, "c0", "E2,E3");
+        LambdaAssertionUtil.assertValuesArrayScalar(listener, "c1", "E2", "E3", "E4");
+        LambdaAssertionUtil.assertST0Id(listener, "c7", "E2");
+        EventBean event = listener.assertOneGetNewAndReset();
+        assertEquals(3, event.get("c2"));
+        assertEquals(11, event.get("c3"));
+        assertEquals(11 / 3d, event.get("c4"));
+        assertEquals("E3", ((SupportBean_ST0) event.get("c5")).getId());
+        assertEquals(true, event.get("c6"));
+        assertEquals(7, event.get("c8"));
+
+        epService.getEPRuntime().sendEvent(SupportBean_ST0_Container.make2Value("E1,1"));
+        LambdaAssertionUtil.assertST0Id(listener, "c0", "");
+        LambdaAssertionUtil.assertValuesArrayScalar(listener, "c1");
+        LambdaAssertionUtil.assertST0Id(listener, "c7", "");
+        event = listener.assertOneGetNewAndReset();
+        assertEquals(0, event.get("c2"));
+        assertNull(event.get("c3"));
+        assertNull(event.get("c4"));
+        assertNull(event.get("c5"));
+        assertEquals(false, event.get("c6"));
+        assertNull(event.get("c8"));
+
+        epService.getEPRuntime().sendEvent(new SupportBean_ST0_Container(null));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {null, null, null, null, null, null, null, null, null});
+        stmtFragment.destroy();
+
+        // scalar input and a take-size that evaluates to null
+        String[] fieldsScalar = "c0,c1,c2".split(",");
+        stmtFragment = epService.getEPAdministrator().createEPL("select " +
+                "strvals.where(x => x != 'E2').take(2) as c0, " +
+                "strvals.take(cast(null, int)).countOf() as c1, " +
+                "strvals.where(x => x != 'E1').firstOf() as c2 " +
+                "from SupportCollection");
+        stmtFragment.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(SupportCollection.makeString("E1,E2,E3,E4"));
+        LambdaAssertionUtil.assertValuesArrayScalar(listener, "c0", "E1", "E3");
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c1,c2".split(","), new Object[] {null, "E2"});
+
+        epService.getEPRuntime().sendEvent(SupportCollection.makeString(null));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fieldsScalar, new Object[] {null, null, null});
+    }
 }
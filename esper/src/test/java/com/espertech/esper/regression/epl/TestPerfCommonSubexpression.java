@@ -0,0 +1,98 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.epl;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TestPerfCommonSubexpression extends TestCase
+{
+    public void testPerfSharedLarge()
+    {
+        // large enough to be shared, sharing must be faster than evaluating each occurrence
+        String expression = "(intPrimitive * longPrimitive + doublePrimitive) * (intPrimitive - longPrimitive) / (doublePrimitive + 1)";
+        long[] best = runAssertionCompare(expression);
+        assertTrue("Enabled " + best[1] + " disabled " + best[0], best[1] < best[0]);
+    }
+
+    public void testPerfSmall()
+    {
+        // too small to be shared, both settings evaluate each occurrence and the result is only logged
+        runAssertionCompare("intPrimitive * longPrimitive");
+    }
+
+    private long[] runAssertionCompare(String expression)
+    {
+        // alternate the settings and compare the best round of each
+        long[] best = new long[] {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < 5; round++) {
+            for (int enabled = 0; enabled < 2; enabled++) {
+                long delta = runAssertion(expression, enabled == 1);
+                log.info(".runAssertionCompare expression=" + expression + " round=" + round + " enabled=" + (enabled == 1) + " delta=" + delta);
+                assertTrue("Delta is " + delta, delta < 2000);
+                best[enabled] = Math.min(best[enabled], delta);
+            }
+        }
+        log.info(".runAssertionCompare expression=" + expression + " best disabled=" + best[0] + " enabled=" + best[1]);
+        return best;
+    }
+
+    private long runAssertion(String expression, boolean commonSubexpression)
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExpression().setCommonSubexpressionElimination(commonSubexpression);
+        config.addEventType("SupportBean", SupportBean.class);
+        EPServiceProvider epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+
+        String epl = "select " + expression + " as c0, " + expression + " + 1 as c1 from SupportBean#lastevent where " + expression + " > 0";
+        EPStatement stmt = epService.getEPAdministrator().createEPL(epl);
+        MySubscriber subscriber = new MySubscriber();
+        stmt.setSubscriber(subscriber);
+
+        SupportBean bean = new SupportBean("E1", 5);
+        bean.setLongPrimitive(2);
+        bean.setDoublePrimitive(1.5);
+        for (int i = 0; i < 50000; i++) {
+            epService.getEPRuntime().sendEvent(bean);
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < 200000; i++) {
+            epService.getEPRuntime().sendEvent(bean);
+        }
+        long endTime = System.currentTimeMillis();
+        assertEquals(250000, subscriber.getCount());
+
+        epService.destroy();
+        return endTime - startTime;
+    }
+
+    public static class MySubscriber
+    {
+        private int count;
+
+        public void update(Object c0, Object c1) {
+            count++;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TestPerfCommonSubexpression.class);
+}
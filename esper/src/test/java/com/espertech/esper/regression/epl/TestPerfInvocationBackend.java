@@ -0,0 +1,128 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.epl;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.regression.client.MySingleRowFunction;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.util.MethodHandleInvoker;
+import junit.framework.TestCase;
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+
+public class TestPerfInvocationBackend extends TestCase
+{
+    public void testPerfInvocationBackend()
+    {
+        // alternate the backends and compare the best round of each, the function and subscriber invocations are only part of the per-event cost
+        long[] best = new long[] {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int round = 0; round < 3; round++) {
+            for (ConfigurationEngineDefaults.InvocationBackend backend : ConfigurationEngineDefaults.InvocationBackend.values()) {
+                long delta = runAssertionBackend(backend);
+                log.info(".testPerfInvocationBackend round=" + round + " backend=" + backend + " delta=" + delta);
+                assertTrue("Delta is " + delta, delta < 2000);
+                best[backend.ordinal()] = Math.min(best[backend.ordinal()], delta);
+            }
+        }
+        log.info(".testPerfInvocationBackend best CGLIB=" + best[ConfigurationEngineDefaults.InvocationBackend.CGLIB.ordinal()] +
+                " METHODHANDLE=" + best[ConfigurationEngineDefaults.InvocationBackend.METHODHANDLE.ordinal()]);
+    }
+
+    public void testPerfInvoker() throws Exception
+    {
+        Method power3 = MySingleRowFunction.class.getMethod("computePower3", int.class);
+        Method varargs = MySingleRowFunction.class.getMethod("varargsW2Param", int.class, double.class, Long[].class);
+        Method update = MySubscriber.class.getMethod("update", String.class, int.class, long.class, double.class, Integer.class);
+        MySubscriber subscriber = new MySubscriber();
+        Integer intValue = 2;
+        Double doubleValue = 1.5d;
+        Long[] longValues = new Long[] {3L};
+        Object[] row = new Object[] {"E1", 8, 1L, 1.5d, null};
+
+        FastMethod power3Fast = FastClass.create(MySingleRowFunction.class).getMethod(power3);
+        FastMethod varargsFast = FastClass.create(MySingleRowFunction.class).getMethod(varargs);
+        FastMethod updateFast = FastClass.create(MySubscriber.class).getMethod(update);
+        MethodHandleInvoker power3Invoker = MethodHandleInvoker.make(power3, null);
+        MethodHandleInvoker varargsInvoker = MethodHandleInvoker.make(varargs, null);
+        MethodHandleInvoker updateInvoker = MethodHandleInvoker.make(update, subscriber);
+
+        // invoke as single-row functions and subscribers do, alternate the backends and compare the best round of each
+        long bestFastMethod = Long.MAX_VALUE;
+        long bestInvoker = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long startTime = System.nanoTime();
+            for (int i = 0; i < 2000000; i++) {
+                power3Fast.invoke(null, new Object[] {intValue});
+                varargsFast.invoke(null, new Object[] {intValue, doubleValue, longValues});
+                updateFast.invoke(subscriber, row);
+            }
+            bestFastMethod = Math.min(bestFastMethod, System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < 2000000; i++) {
+                power3Invoker.invoke1(intValue);
+                varargsInvoker.invoke3(intValue, doubleValue, longValues);
+                updateInvoker.invoke(row);
+            }
+            bestInvoker = Math.min(bestInvoker, System.nanoTime() - startTime);
+        }
+        assertEquals(20000000, subscriber.getCount());
+
+        log.info(".testPerfInvoker fastMethod=" + bestFastMethod / 1000000 + "ms invoker=" + bestInvoker / 1000000 + "ms ratio=" + (double) bestInvoker / bestFastMethod);
+        assertTrue("Invoker " + bestInvoker + " fast method " + bestFastMethod, bestInvoker < bestFastMethod);
+    }
+
+    private long runAssertionBackend(ConfigurationEngineDefaults.InvocationBackend backend)
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExecution().setInvocationBackend(backend);
+        config.addEventType("SupportBean", SupportBean.class);
+        config.addPlugInSingleRowFunction("power3", MySingleRowFunction.class.getName(), "computePower3");
+        EPServiceProvider epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select theString, power3(intPrimitive) as p3, longPrimitive, doublePrimitive, intBoxed from SupportBean");
+        MySubscriber subscriber = new MySubscriber();
+        stmt.setSubscriber(subscriber);
+
+        SupportBean bean = new SupportBean("E1", 2);
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < 200000; i++) {
+            epService.getEPRuntime().sendEvent(bean);
+        }
+        long endTime = System.currentTimeMillis();
+        assertEquals(200000, subscriber.getCount());
+
+        epService.destroy();
+        return endTime - startTime;
+    }
+
+    public static class MySubscriber
+    {
+        private int count;
+
+        public void update(String theString, int p3, long longPrimitive, double doublePrimitive, Integer intBoxed) {
+            count++;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TestPerfInvocationBackend.class);
+}
@@ -0,0 +1,149 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.event;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.client.soda.EPStatementObjectModel;
+import com.espertech.esper.event.EventTypeMetadata;
+import com.espertech.esper.event.EventTypeSPI;
+import com.espertech.esper.event.binary.BinaryEventType;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.util.SupportMessageAssertUtil;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class TestBinaryEvent extends TestCase
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    protected void setUp()
+    {
+        epService = EPServiceProviderManager.getDefaultProvider(SupportConfigFactory.getConfiguration());
+        epService.initialize();
+        listener = new SupportUpdateListener();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+    }
+
+    public void testLayoutAndGetters() {
+        epService.getEPAdministrator().createEPL("create binary schema MyBinary (l long, d double, i int, f float, s short, c char, b byte, bool boolean)");
+        EventTypeSPI type = (EventTypeSPI) epService.getEPAdministrator().getConfiguration().getEventType("MyBinary");
+        assertEquals(ByteBuffer.class, type.getUnderlyingType());
+        assertEquals(EventTypeMetadata.ApplicationType.BINARY, type.getMetadata().getOptionalApplicationType());
+        BinaryEventType binaryType = (BinaryEventType) type;
+        assertEquals(8 + 8 + 4 + 4 + 2 + 2 + 1 + 1, binaryType.getRecordSize());
+        assertEquals(16, binaryType.getOffset("i"));
+        assertEquals(29, binaryType.getOffset("bool"));
+        assertEquals(int.class, type.getPropertyType("i"));
+        EPAssertionUtil.assertEqualsExactOrder(new String[] {"l", "d", "i", "f", "s", "c", "b", "bool"}, type.getPropertyNames());
+
+        String[] fields = "l,d,i,f,s,c,b,bool".split(",");
+        epService.getEPAdministrator().createEPL("select * from MyBinary").addListener(listener);
+        EventSender sender = epService.getEPRuntime().getEventSender("MyBinary");
+
+        // records following a header in a single buffer, in little-endian order
+        ByteBuffer buffer = ByteBuffer.allocate(3 + 2 * binaryType.getRecordSize()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[] {9, 9, 9});
+        writeRecord(buffer, 1L, 1.5d, 10, 2.5f, (short) 3, 'x', (byte) 4, true);
+        writeRecord(buffer, -2L, -1d, -20, 0f, (short) -3, 'y', (byte) -4, false);
+
+        buffer.position(3);
+        sender.sendEvent(buffer);
+        buffer.position(3 + binaryType.getRecordSize());
+        sender.sendEvent(buffer);
+
+        EventBean[] received = listener.getNewDataListFlattened();
+        EPAssertionUtil.assertProps(received[0], fields, new Object[] {1L, 1.5d, 10, 2.5f, (short) 3, 'x', (byte) 4, true});
+        EPAssertionUtil.assertProps(received[1], fields, new Object[] {-2L, -1d, -20, 0f, (short) -3, 'y', (byte) -4, false});
+        assertSame(buffer, received[0].getUnderlying());
+
+        // invalid buffer
+        try {
+            sender.sendEvent(ByteBuffer.allocate(5));
+            fail();
+        }
+        catch (EPException ex) {
+            assertEquals("Buffer has 5 remaining bytes but event type 'MyBinary' requires 30 bytes", ex.getMessage());
+        }
+        try {
+            sender.sendEvent(new Object[0]);
+            fail();
+        }
+        catch (EPException ex) {
+            assertEquals("Unexpected event object of type [Ljava.lang.Object;, expected java.nio.ByteBuffer", ex.getMessage());
+        }
+    }
+
+    public void testFilterViewAggregation() {
+        epService.getEPAdministrator().createEPL("create binary schema Tick (id int, price double, volume long)");
+        String[] fields = "id,sumVolume,avgPrice".split(",");
+        epService.getEPAdministrator().createEPL("select id, sum(volume) as sumVolume, avg(price) as avgPrice from Tick(price > 10)#length(10) group by id").addListener(listener);
+        EventSender sender = epService.getEPRuntime().getEventSender("Tick");
+
+        sender.sendEvent(makeTick(1, 20d, 100));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {1, 100L, 20d});
+
+        sender.sendEvent(makeTick(1, 5d, 100));
+        assertFalse(listener.isInvoked());
+
+        sender.sendEvent(makeTick(2, 30d, 50));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {2, 50L, 30d});
+
+        sender.sendEvent(makeTick(1, 40d, 200));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {1, 300L, 30d});
+
+        // insert-into a stream, the underlying buffer is carried along
+        SupportUpdateListener listenerInsert = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("insert into TickCopy select * from Tick");
+        epService.getEPAdministrator().createEPL("select id, volume from TickCopy where price > 0").addListener(listenerInsert);
+        sender.sendEvent(makeTick(3, 1d, 7));
+        EPAssertionUtil.assertProps(listenerInsert.assertOneGetNewAndReset(), "id,volume".split(","), new Object[] {3, 7L});
+    }
+
+    public void testSODAAndInvalid() {
+        String epl = "create binary schema MyBinarySODA as (a int, b double)";
+        EPStatementObjectModel model = epService.getEPAdministrator().compileEPL(epl);
+        assertEquals(epl, model.toEPL());
+        epService.getEPAdministrator().create(model);
+        assertTrue(epService.getEPAdministrator().getConfiguration().getEventType("MyBinarySODA") instanceof BinaryEventType);
+
+        SupportMessageAssertUtil.tryInvalid(epService, "create binary schema MyInvalid (a string)",
+                "Error starting statement: Binary event types only allow primitive property types, property 'a' has type 'java.lang.String'");
+        SupportMessageAssertUtil.tryInvalid(epService, "create binary schema MyInvalid (a int) inherits MyBinarySODA",
+                "Error starting statement: Binary event types do not allow inherits");
+        SupportMessageAssertUtil.tryInvalid(epService, "create binary schema MyBinarySODA as (a int, b long)",
+                "Error starting statement: Event type named 'MyBinarySODA' has already been declared with differing column name or type information: Type by name 'MyBinarySODA' has a different record layout, expected (a int, b double) but found (a int, b long)");
+        SupportMessageAssertUtil.tryInvalid(epService, "create dummy schema MyInvalid (a int)",
+                "Error in expression: Expected 'variant', 'map', 'objectarray' or 'binary' keyword after create-schema clause but encountered 'dummy'");
+    }
+
+    private static ByteBuffer makeTick(int id, double price, long volume) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(20);
+        buffer.putInt(id).putDouble(price).putLong(volume);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeRecord(ByteBuffer buffer, long l, double d, int i, float f, short s, char c, byte b, boolean bool) {
+        buffer.putLong(l).putDouble(d).putInt(i).putFloat(f).putShort(s).putChar(c).put(b).put((byte) (bool ? 1 : 0));
+    }
+}
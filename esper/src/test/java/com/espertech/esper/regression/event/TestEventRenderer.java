@@ -45,7 +45,7 @@ public class TestEventRenderer extends TestCase
         if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
     }
 
-    public void testPropertyCustomRenderer() {
+    public void testPropertyCustomRenderer() throws Exception {
         epService.getEPAdministrator().getConfiguration().addEventType(MyRendererEvent.class);
 
         EPStatement stmt = epService.getEPAdministrator().createEPL("select * from MyRendererEvent");
@@ -66,6 +66,10 @@ public class TestEventRenderer extends TestCase
         String expectedJson = "{ \"MyEvent\": { \"id\": \"id1\", \"someProperties\": [\"index#0=1;index#1=x\", \"index#0=2;index#1=y\"], \"mappedProperty\": { \"key\": \"value\" } } }";
         assertEquals(removeNewline(expectedJson), removeNewline(json));
 
+        StringBuilder buf = new StringBuilder();
+        epService.getEPRuntime().getEventRenderer().getJSONRenderer(stmt.getEventType(), jsonOptions).render(stmt.iterator().next(), buf);
+        assertEquals(removeNewline(expectedJson.replace("{ \"MyEvent\": ", "").replaceFirst(" }$", "")), removeNewline(buf.toString()));
+
         MyRenderer.getContexts().clear();
         XMLRenderingOptions xmlOptions = new XMLRenderingOptions();
         xmlOptions.setRenderer(new MyRenderer());
@@ -73,6 +77,10 @@ public class TestEventRenderer extends TestCase
         String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?> <MyEvent> <id>id1</id> <someProperties>index#0=1;index#1=x</someProperties> <someProperties>index#0=2;index#1=y</someProperties> <mappedProperty> <key>value<key> </mappedProperty> </MyEvent>";
         assertEquals(4, MyRenderer.getContexts().size());
         assertEquals(removeNewline(expected), removeNewline(xmlOne));
+
+        buf = new StringBuilder();
+        epService.getEPRuntime().getEventRenderer().getXMLRenderer(stmt.getEventType(), xmlOptions).render("MyEvent", stmt.iterator().next(), buf);
+        assertEquals(removeNewline(expected), removeNewline(buf.toString()));
     }
 
     public void testObjectArray() {
@@ -15,6 +15,7 @@ import com.espertech.esper.client.Configuration;
 import com.espertech.esper.client.EPServiceProvider;
 import com.espertech.esper.client.EPServiceProviderManager;
 import com.espertech.esper.client.EPStatement;
+import com.espertech.esper.client.EventBean;
 import com.espertech.esper.client.util.JSONEventRenderer;
 import com.espertech.esper.event.util.OutputValueRendererJSONString;
 import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
@@ -24,7 +25,11 @@ import com.espertech.esper.support.bean.SupportEnum;
 import com.espertech.esper.support.client.SupportConfigFactory;
 import junit.framework.TestCase;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -128,6 +133,61 @@ public class TestEventRendererJSON extends TestCase
         assertEquals(removeNewline(expected), removeNewline(result));
     }
 
+    public void testRenderStreaming() throws Exception
+    {
+        epService.getEPAdministrator().getConfiguration().addEventType("SupportBean", SupportBean.class);
+        epService.getEPAdministrator().createEPL("create objectarray schema StreamEvent(s string, i int, l long, d double, b boolean, sh short, c char, arr int[], bean SupportBean)");
+        EPStatement statement = epService.getEPAdministrator().createEPL("select * from StreamEvent#keepall");
+        epService.getEPRuntime().sendEvent(new Object[] {"a\"b\\c\n\u0001<&>'\u00e9\u20ac\ud83d\ude00", -123, Long.MIN_VALUE, 1.5d, true, (short) 7, 'x', new int[] {1, 2}, new SupportBean("E1", 1)}, "StreamEvent");
+        epService.getEPRuntime().sendEvent(new Object[] {null, Integer.MAX_VALUE, 0L, null, null, null, null, null, null}, "StreamEvent");
+        Iterator<EventBean> it = statement.iterator();
+        EventBean[] events = new EventBean[] {it.next(), it.next()};
+        JSONEventRenderer renderer = epService.getEPRuntime().getEventRenderer().getJSONRenderer(statement.getEventType());
+
+        for (EventBean event : events) {
+            String expected = renderer.render(event);
+
+            StringBuilder buf = new StringBuilder();
+            renderer.render(event, buf);
+            assertEquals(expected, buf.toString());
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            renderer.render(event, stream);
+            assertEquals(expected, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+
+            for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(2000), ByteBuffer.allocateDirect(2000)}) {
+                buffer.put((byte) 'x');
+                renderer.render(event, buffer);
+                buffer.flip();
+                buffer.get();
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                assertEquals(expected, new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        String expectedBatch = "[" + renderer.render(events[0]) + "," + renderer.render(events[1]) + "]";
+        StringBuilder buf = new StringBuilder();
+        renderer.render(events, buf);
+        assertEquals(expectedBatch, buf.toString());
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        renderer.render(events, stream);
+        assertEquals(expectedBatch, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(4000);
+        renderer.render(events, buffer);
+        assertEquals(expectedBatch, new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+        renderer.render(new EventBean[0], buf);
+        assertTrue(buf.toString().endsWith("[]"));
+
+        try {
+            renderer.render(events[0], ByteBuffer.allocate(10));
+            fail();
+        }
+        catch (java.nio.BufferOverflowException ex) {
+            // expected
+        }
+    }
+
     public void testEmptyMap()
     {
         epService.getEPAdministrator().getConfiguration().addEventType("EmptyMapEvent", EmptyMapEvent.class);
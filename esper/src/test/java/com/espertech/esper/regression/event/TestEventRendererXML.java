@@ -12,6 +12,7 @@
 package com.espertech.esper.regression.event;
 
 import com.espertech.esper.client.*;
+import com.espertech.esper.client.util.XMLEventRenderer;
 import com.espertech.esper.client.util.XMLRenderingOptions;
 import com.espertech.esper.event.util.OutputValueRendererXMLString;
 import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
@@ -21,6 +22,10 @@ import com.espertech.esper.support.bean.SupportEnum;
 import com.espertech.esper.support.client.SupportConfigFactory;
 import junit.framework.TestCase;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -189,6 +194,54 @@ public class TestEventRendererXML extends TestCase
         assertEquals(removeNewline(expected), removeNewline(result));
     }
 
+    public void testRenderStreaming() throws Exception
+    {
+        epService.getEPAdministrator().getConfiguration().addEventType("SupportBean", SupportBean.class);
+        epService.getEPAdministrator().createEPL("create objectarray schema StreamEvent(s string, i int, l long, d double, b boolean, sh short, c char, arr int[], bean SupportBean)");
+        EPStatement statement = epService.getEPAdministrator().createEPL("select * from StreamEvent#keepall");
+        epService.getEPRuntime().sendEvent(new Object[] {"a\"b\\c\n\u0001<&>'\u00e9\u20ac\ud83d\ude00", -123, Long.MIN_VALUE, 1.5d, true, (short) 7, 'x', new int[] {1, 2}, new SupportBean("E1", 1)}, "StreamEvent");
+        epService.getEPRuntime().sendEvent(new Object[] {null, Integer.MAX_VALUE, 0L, null, null, null, null, null, null}, "StreamEvent");
+        Iterator<EventBean> it = statement.iterator();
+        EventBean[] events = new EventBean[] {it.next(), it.next()};
+        XMLEventRenderer renderer = epService.getEPRuntime().getEventRenderer().getXMLRenderer(statement.getEventType());
+        XMLEventRenderer rendererAtt = epService.getEPRuntime().getEventRenderer().getXMLRenderer(statement.getEventType(), new XMLRenderingOptions().setDefaultAsAttribute(true));
+
+        for (XMLEventRenderer theRenderer : new XMLEventRenderer[] {renderer, rendererAtt}) {
+            for (String root : new String[] {"streamEvent", "ns:streamEvent xmlns:ns=\"urn:test\""}) {
+                for (EventBean event : events) {
+                    String expected = theRenderer.render(root, event);
+
+                    StringBuilder buf = new StringBuilder();
+                    theRenderer.render(root, event, buf);
+                    assertEquals(expected, buf.toString());
+
+                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                    theRenderer.render(root, event, stream);
+                    assertEquals(expected, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(2000);
+                    theRenderer.render(root, event, buffer);
+                    buffer.flip();
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    assertEquals(expected, new String(bytes, StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        String newline = System.getProperty("line.separator");
+        String expectedBatch = renderer.render("r", events[0]) + newline + renderer.render("r", events[1]) + newline;
+        StringBuilder buf = new StringBuilder();
+        renderer.render("r", events, buf);
+        assertEquals(expectedBatch, buf.toString());
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        renderer.render("r", events, stream);
+        assertEquals(expectedBatch, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(4000);
+        renderer.render("r", events, buffer);
+        assertEquals(expectedBatch, new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
     public static void testEnquote()
     {
         String[][] testdata = new String[][] {
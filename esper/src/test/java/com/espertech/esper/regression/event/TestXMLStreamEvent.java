@@ -0,0 +1,170 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.event;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.event.xml.XMLStreamEventBean;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+public class TestXMLStreamEvent extends TestCase
+{
+    private static final String[] PROPERTIES = {"elementText", "nestedText", "attrString", "attrNum", "attrBool", "attrCastLong", "numCastInt",
+            "relative", "wildcard", "missingText", "missingNum", "hasB", "hasX", "nsText", "nsAttr", "notStreamed", "countNotStreamed", "b.c"};
+
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp()
+    {
+        Configuration configuration = SupportConfigFactory.getConfiguration();
+        ConfigurationEventTypeXMLDOM typeMeta = new ConfigurationEventTypeXMLDOM();
+        typeMeta.setRootElementName("a");
+        typeMeta.addNamespacePrefix("n", "urn:test");
+        typeMeta.addXPathProperty("elementText", "/a/b/c", XPathConstants.STRING);
+        typeMeta.addXPathProperty("nestedText", "/a/d", XPathConstants.STRING);
+        typeMeta.addXPathProperty("attrString", "/a/e/@s", XPathConstants.STRING);
+        typeMeta.addXPathProperty("attrNum", "/a/e/@num", XPathConstants.NUMBER);
+        typeMeta.addXPathProperty("attrBool", "/a/e/@flag", XPathConstants.BOOLEAN);
+        typeMeta.addXPathProperty("attrCastLong", "/a/e/@num", XPathConstants.STRING, "long");
+        typeMeta.addXPathProperty("numCastInt", "/a/e/@num", XPathConstants.NUMBER, "int");
+        typeMeta.addXPathProperty("relative", "b/c", XPathConstants.STRING);
+        typeMeta.addXPathProperty("wildcard", "/a/*/c", XPathConstants.STRING);
+        typeMeta.addXPathProperty("missingText", "/a/x/y", XPathConstants.STRING);
+        typeMeta.addXPathProperty("missingNum", "/a/x", XPathConstants.NUMBER);
+        typeMeta.addXPathProperty("hasB", "/a/b", XPathConstants.BOOLEAN);
+        typeMeta.addXPathProperty("hasX", "/a/x", XPathConstants.BOOLEAN);
+        typeMeta.addXPathProperty("nsText", "/a/n:f", XPathConstants.STRING);
+        typeMeta.addXPathProperty("nsAttr", "/a/n:f/@n:g", XPathConstants.STRING);
+        typeMeta.addXPathProperty("notStreamed", "/a/b[2]/c", XPathConstants.STRING);
+        typeMeta.addXPathProperty("countNotStreamed", "count(/a/b)", XPathConstants.NUMBER);
+        configuration.addEventType("AEvent", typeMeta);
+
+        epService = EPServiceProviderManager.getDefaultProvider(configuration);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+        listener = new SupportUpdateListener();
+    }
+
+    protected void tearDown() throws Exception {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+    }
+
+    public void testStreamMatchesDOM() throws Exception
+    {
+        StringBuilder select = new StringBuilder("select ");
+        String delimiter = "";
+        for (String property : PROPERTIES)
+        {
+            select.append(delimiter).append(property).append(" as p").append(property.replace(".", "_"));
+            delimiter = ", ";
+        }
+        select.append(" from AEvent");
+        epService.getEPAdministrator().createEPL(select.toString()).addListener(listener);
+
+        String[] documents = {
+            "<a><b><c>C1</c></b><b><c>C2</c></b><d>x<i>y</i><![CDATA[<z>]]>&amp;</d><e s='S' num=' 12 ' flag='false'/>" +
+                "<f xmlns='urn:test' xmlns:p='urn:test' p:g='G'>F</f></a>",
+            "<a><e num='1.5' s=''/><e num='7' s='second'/><b/></a>",
+            "<?xml version='1.0'?>\n<a xmlns:n='urn:other'>\n  <n:f>other</n:f>\n  <e num='abc'/>\n  <d>  </d>\n</a>",
+            "<a/>",
+        };
+
+        EventSender sender = epService.getEPRuntime().getEventSender("AEvent");
+        for (String xml : documents)
+        {
+            sender.sendEvent(getDocument(xml));
+            EventBean domEvent = listener.assertOneGetNewAndReset();
+
+            sender.sendEvent(xml);
+            EventBean streamEvent = listener.assertOneGetNewAndReset();
+
+            sender.sendEvent(xml.getBytes(StandardCharsets.UTF_8));
+            EventBean bytesEvent = listener.assertOneGetNewAndReset();
+
+            for (String property : PROPERTIES)
+            {
+                String name = "p" + property.replace(".", "_");
+                assertEquals(xml + " " + property, domEvent.get(name), streamEvent.get(name));
+                assertEquals(xml + " " + property, domEvent.get(name), bytesEvent.get(name));
+            }
+        }
+    }
+
+    public void testValuesAndLazyDOM() throws Exception
+    {
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select * from AEvent");
+        stmt.addListener(listener);
+
+        EventSender sender = epService.getEPRuntime().getEventSender("AEvent");
+        sender.sendEvent("<a><b><c>C1</c></b><e s='S' num='5' flag='true'/></a>");
+        EventBean theEvent = listener.assertOneGetNewAndReset();
+        assertTrue(theEvent instanceof XMLStreamEventBean);
+        assertEquals("C1", theEvent.get("elementText"));
+        assertEquals("C1", theEvent.get("relative"));
+        assertEquals("S", theEvent.get("attrString"));
+        assertEquals(5d, theEvent.get("attrNum"));
+        assertEquals(true, theEvent.get("attrBool"));
+        assertEquals(5L, theEvent.get("attrCastLong"));
+        assertEquals(5, theEvent.get("numCastInt"));
+        assertEquals("", theEvent.get("missingText"));
+        assertEquals(false, theEvent.get("hasX"));
+
+        // properties outside the plan use the DOM
+        assertEquals(1d, theEvent.get("countNotStreamed"));
+        assertEquals("C1", theEvent.get("b.c"));
+        Node node = (Node) theEvent.getUnderlying();
+        assertEquals("a", node.getLocalName());
+    }
+
+    public void testInvalid()
+    {
+        EventSender sender = epService.getEPRuntime().getEventSender("AEvent");
+        try
+        {
+            sender.sendEvent("<xxxx><b><c>text</c></b></xxxx>");
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertEquals("Unexpected root element name 'xxxx' encountered, expected a root element name of 'a'", ex.getMessage());
+        }
+
+        try
+        {
+            sender.sendEvent("<a><b>");
+            fail();
+        }
+        catch (EPException ex)
+        {
+            assertTrue(ex.getMessage().startsWith("Failed to parse XML event"));
+        }
+    }
+
+    private static Document getDocument(String xml) throws Exception
+    {
+        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+        builderFactory.setNamespaceAware(true);
+        return builderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+}
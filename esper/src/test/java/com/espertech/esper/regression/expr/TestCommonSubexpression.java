@@ -0,0 +1,241 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.expr;
+
+import com.espertech.esper.client.Configuration;
+import com.espertech.esper.client.ConfigurationPlugInSingleRowFunction;
+import com.espertech.esper.client.EPServiceProvider;
+import com.espertech.esper.client.EPServiceProviderManager;
+import com.espertech.esper.client.EPStatement;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.bean.SupportBean_S1;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+public class TestCommonSubexpression extends TestCase
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp()
+    {
+        listener = new SupportUpdateListener();
+    }
+
+    protected void tearDown() throws Exception {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+    }
+
+    public void testSelectWhereOrderBy() {
+        setupEngine(true);
+
+        String epl = "select countingUdf(intPrimitive) * 2 as c0, countingUdf(intPrimitive) as c1, intPrimitive * longPrimitive, " +
+                "countingUdf(intPrimitive) * 2 + 1 as c2 " +
+                "from SupportBean#length_batch(3) " +
+                "where countingUdf(intPrimitive) > 0 and intPrimitive * longPrimitive < 1000 " +
+                "order by countingUdf(intPrimitive) * 2 desc";
+        EPStatement stmt = epService.getEPAdministrator().createEPL(epl);
+        stmt.addListener(listener);
+        assertEquals(Long.class, stmt.getEventType().getPropertyType("intPrimitive*longPrimitive"));
+
+        MyCountingLib.reset();
+        sendBean("E1", 5, 10);
+        sendBean("E2", 0, 10);
+        sendBean("E3", 7, 2);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), "c0,c1,intPrimitive*longPrimitive,c2".split(","),
+                new Object[][] {{14, 7, 14L, 15}, {10, 5, 50L, 11}});
+        assertEquals(3, MyCountingLib.getCountInvoked());
+        assertEquals(epl, stmt.getText());
+    }
+
+    public void testGroupByHaving() {
+        setupEngine(true);
+
+        String[] fields = "c0,c1".split(",");
+        epService.getEPAdministrator().createEPL("select countingUdf(intPrimitive) % 3 as c0, sum(intPrimitive) as c1 " +
+                "from SupportBean group by countingUdf(intPrimitive) % 3 having countingUdf(intPrimitive) % 3 > 0").addListener(listener);
+
+        MyCountingLib.reset();
+        sendBean("E1", 4, 0);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {1, 4});
+        sendBean("E2", 3, 0);
+        assertFalse(listener.isInvoked());
+        sendBean("E3", 7, 0);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {1, 11});
+        assertEquals(3, MyCountingLib.getCountInvoked());
+    }
+
+    public void testJoin() {
+        setupEngine(true);
+
+        String[] fields = "c0,c1".split(",");
+        epService.getEPAdministrator().createEPL("select s0.id * s1.id as c0, countingUdf(s0.id * s1.id) as c1 " +
+                "from SupportBean_S0#keepall as s0, SupportBean_S1#keepall as s1 " +
+                "where s0.id * s1.id > 5 and countingUdf(s0.id * s1.id) < 20").addListener(listener);
+
+        MyCountingLib.reset();
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2));
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(3));
+        epService.getEPRuntime().sendEvent(new SupportBean_S1(2));
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {6, 6});
+        assertEquals(1, MyCountingLib.getCountInvoked());
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S1(5));
+        EPAssertionUtil.assertPropsPerRowAnyOrder(listener.getAndResetLastNewData(), fields, new Object[][] {{10, 10}, {15, 15}});
+        assertEquals(3, MyCountingLib.getCountInvoked());
+    }
+
+    public void testContextPartitions() {
+        setupEngine(true);
+
+        String[] fields = "c0,c1".split(",");
+        epService.getEPAdministrator().createEPL("create context MyCtx initiated by SupportBean_S0 as s0 terminated by SupportBean_S1(id = s0.id)");
+        epService.getEPAdministrator().createEPL("context MyCtx select context.s0.id * intPrimitive as c0, countingUdf(context.s0.id * intPrimitive) as c1 " +
+                "from SupportBean where context.s0.id * intPrimitive > 2 order by c1").addListener(listener);
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2));
+        MyCountingLib.reset();
+        sendBean("E1", 3, 0);
+        EPAssertionUtil.assertPropsPerRowAnyOrder(listener.getNewDataListFlattened(), fields, new Object[][] {{3, 3}, {6, 6}});
+        assertEquals(2, MyCountingLib.getCountInvoked());
+        listener.reset();
+
+        sendBean("E2", 2, 0);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {4, 4});
+    }
+
+    public void testDisabled() {
+        setupEngine(false);
+
+        epService.getEPAdministrator().createEPL("select countingUdf(intPrimitive) * 2 as c0 from SupportBean " +
+                "where countingUdf(intPrimitive) * 2 > 0").addListener(listener);
+
+        MyCountingLib.reset();
+        sendBean("E1", 5, 0);
+        assertEquals(10, listener.assertOneGetNewAndReset().get("c0"));
+        assertEquals(2, MyCountingLib.getCountInvoked());
+    }
+
+    public void testMinimumSize() {
+        setupEngine(true);
+
+        // too small to share, each occurrence evaluates
+        assertGetterInvocations("value * 2", 2);
+
+        // large enough to share, evaluates once
+        assertGetterInvocations("(value * 2 + value) * (value - 1)", 3);
+    }
+
+    private void assertGetterInvocations(String expression, int expected) {
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select " + expression + " as c0 from MyCountingBean#lastevent " +
+                "where " + expression + " > 0");
+        stmt.addListener(listener);
+
+        MyCountingBean bean = new MyCountingBean(5);
+        epService.getEPRuntime().sendEvent(bean);
+        assertTrue(listener.getAndClearIsInvoked());
+        assertEquals(expected, bean.getCountInvoked());
+        stmt.destroy();
+    }
+
+    public void testPlugInValueCache() {
+        setupEngine(true, true);
+
+        // a function without value cache, the default, is invoked for each occurrence
+        assertInvocations("plainUdf", 2);
+
+        // a function with configured value cache follows the engine UDF cache setting
+        assertInvocations("configuredUdf", 1);
+        setupEngine(true, false);
+        assertInvocations("configuredUdf", 2);
+        assertInvocations("countingUdf", 1);
+    }
+
+    private void assertInvocations(String function, int expected) {
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select " + function + "(intPrimitive) * 2 as c0 from SupportBean#lastevent " +
+                "where " + function + "(intPrimitive) * 2 > 0");
+        stmt.addListener(listener);
+
+        MyCountingLib.reset();
+        sendBean("E1", 5, 0);
+        assertEquals(10, listener.assertOneGetNewAndReset().get("c0"));
+        assertEquals(expected, MyCountingLib.getCountInvoked());
+        stmt.destroy();
+    }
+
+    private void setupEngine(boolean commonSubexpression) {
+        setupEngine(commonSubexpression, true);
+    }
+
+    private void setupEngine(boolean commonSubexpression, boolean udfCache) {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getExpression().setCommonSubexpressionElimination(commonSubexpression);
+        config.getEngineDefaults().getExpression().setUdfCache(udfCache);
+        config.addEventType(SupportBean.class);
+        config.addEventType(SupportBean_S0.class);
+        config.addEventType(SupportBean_S1.class);
+        config.addEventType(MyCountingBean.class);
+        config.addPlugInSingleRowFunction("countingUdf", MyCountingLib.class.getName(), "countingUdf", ConfigurationPlugInSingleRowFunction.ValueCache.ENABLED);
+        config.addPlugInSingleRowFunction("configuredUdf", MyCountingLib.class.getName(), "countingUdf", ConfigurationPlugInSingleRowFunction.ValueCache.CONFIGURED);
+        config.addPlugInSingleRowFunction("plainUdf", MyCountingLib.class.getName(), "countingUdf");
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    private void sendBean(String theString, int intPrimitive, long longPrimitive) {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        bean.setLongPrimitive(longPrimitive);
+        epService.getEPRuntime().sendEvent(bean);
+    }
+
+    public static class MyCountingBean {
+        private final int value;
+        private int countInvoked;
+
+        public MyCountingBean(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            countInvoked++;
+            return value;
+        }
+
+        public int getCountInvoked() {
+            return countInvoked;
+        }
+    }
+
+    public static class MyCountingLib {
+        private static int countInvoked;
+
+        public static int countingUdf(int value) {
+            countInvoked++;
+            return value;
+        }
+
+        public static int getCountInvoked() {
+            return countInvoked;
+        }
+
+        public static void reset() {
+            countInvoked = 0;
+        }
+    }
+}
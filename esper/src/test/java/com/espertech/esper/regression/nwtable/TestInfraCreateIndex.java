@@ -149,7 +149,7 @@ public class TestInfraCreateIndex extends TestCase
                 "Error starting statement: A named window or table by name 'MyWindowX' does not exist [create index IndexTwo on MyWindowX(f1, f1)]");
 
         SupportMessageAssertUtil.tryInvalid(epService, "create index IndexTwo on MyWindowX(f1 bubu, f2)",
-                "Invalid column index type 'bubu' encountered, please use any of the following index type names [BTREE, HASH] [create index IndexTwo on MyWindowX(f1 bubu, f2)]");
+                "Invalid column index type 'bubu' encountered, please use any of the following index type names [BTREE, HASH, BITMAP] [create index IndexTwo on MyWindowX(f1 bubu, f2)]");
 
         SupportMessageAssertUtil.tryInvalid(epService, "create gugu index IndexTwo on MyInfra(f2)",
                 "Invalid keyword 'gugu' in create-index encountered, expected 'unique' [create gugu index IndexTwo on MyInfra(f2)]");
@@ -0,0 +1,175 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.nwtable;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.epl.SupportQueryPlanIndexHook;
+import com.espertech.esper.support.util.IndexBackingTableInfo;
+import junit.framework.TestCase;
+
+public class TestInfraIndexBitmap extends TestCase implements IndexBackingTableInfo
+{
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp()
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.addEventType("SupportBean", SupportBean.class);
+        config.addEventType("SupportBean_S0", SupportBean_S0.class);
+        config.getEngineDefaults().getLogging().setEnableQueryPlan(true);
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+        SupportQueryPlanIndexHook.reset();
+        listener = new SupportUpdateListener();
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+    }
+
+    public void testFireAndForget() {
+        runAssertionFireAndForget(true);
+        runAssertionFireAndForget(false);
+    }
+
+    public void testOnSelect() {
+        runAssertionOnSelect(true);
+        runAssertionOnSelect(false);
+    }
+
+    public void testOnDelete() {
+        runAssertionOnDelete(true);
+        runAssertionOnDelete(false);
+    }
+
+    public void testInvalid() {
+        epService.getEPAdministrator().createEPL("create window MyInfra.win:keepall() as SupportBean");
+        tryInvalid("create unique index MyIndex on MyInfra (intPrimitive bitmap)",
+                "Error starting statement: Combination of unique index with bitmap is not supported [create unique index MyIndex on MyInfra (intPrimitive bitmap)]");
+        tryInvalid("create index MyIndex on MyInfra (intPrimitive bitmap, theString hash)",
+                "Error starting statement: Combination of bitmap with hash or btree columns in the same index is not supported [create index MyIndex on MyInfra (intPrimitive bitmap, theString hash)]");
+    }
+
+    private void runAssertionFireAndForget(boolean namedWindow) {
+        setupInfra(namedWindow);
+
+        runFAF("intPrimitive = 1 and boolPrimitive = true", "MyBitmap", new Object[][] {{"E1"}, {"E3"}});
+        runFAF("intPrimitive = 1 and boolPrimitive = true and longPrimitive > 10", "MyBitmap", new Object[][] {{"E3"}});
+        runFAF("intPrimitive = 2 or boolPrimitive = false", "MyBitmap", new Object[][] {{"E2"}, {"E4"}, {"E5"}});
+        runFAF("intPrimitive in (2, 3) and boolPrimitive = false", "MyBitmap", new Object[][] {{"E4"}, {"E5"}});
+        runFAF("intPrimitive = 9", "MyBitmap", new Object[0][]);
+        runFAF("@Hint('index(MyBitmap)') intPrimitive = 1", "MyBitmap", new Object[][] {{"E1"}, {"E2"}, {"E3"}});
+
+        // changes to the infra are reflected
+        epService.getEPRuntime().executeQuery("delete from MyInfra where theString = 'E1'");
+        runFAF("intPrimitive = 1 and boolPrimitive = true", "MyBitmap", new Object[][] {{"E3"}});
+        epService.getEPRuntime().executeQuery("update MyInfra set boolPrimitive = true where theString = 'E2'");
+        runFAF("intPrimitive = 1 and boolPrimitive = true", "MyBitmap", new Object[][] {{"E2"}, {"E3"}});
+
+        epService.getEPAdministrator().destroyAllStatements();
+        epService.getEPAdministrator().getConfiguration().removeEventType("MyInfra", false);
+    }
+
+    private void runAssertionOnSelect(boolean namedWindow) {
+        setupInfra(namedWindow);
+
+        String epl = INDEX_CALLBACK_HOOK + "on SupportBean_S0 as s0 select mi.theString as c0 from MyInfra as mi " +
+                "where mi.intPrimitive = s0.id and (mi.boolPrimitive = true or mi.longPrimitive = s0.p00.length())";
+        EPStatement stmt = epService.getEPAdministrator().createEPL(epl);
+        stmt.addListener(listener);
+        assertEquals("MyBitmap", SupportQueryPlanIndexHook.assertOnExprAndReset().getTables()[0].getIndexName());
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1, "x"));
+        EPAssertionUtil.assertPropsPerRowAnyOrder(listener.getAndResetLastNewData(), "c0".split(","), new Object[][] {{"E1"}, {"E3"}});
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1, "abcdefghij"));
+        EPAssertionUtil.assertPropsPerRowAnyOrder(listener.getAndResetLastNewData(), "c0".split(","), new Object[][] {{"E1"}, {"E2"}, {"E3"}});
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(3, "abcdefghij"));
+        assertFalse(listener.isInvoked());
+
+        epService.getEPAdministrator().destroyAllStatements();
+        epService.getEPAdministrator().getConfiguration().removeEventType("MyInfra", false);
+    }
+
+    private void runAssertionOnDelete(boolean namedWindow) {
+        setupInfra(namedWindow);
+
+        String epl = INDEX_CALLBACK_HOOK + "on SupportBean_S0 as s0 delete from MyInfra as mi " +
+                "where mi.intPrimitive in (s0.id, 3) and mi.boolPrimitive = false";
+        epService.getEPAdministrator().createEPL(epl);
+        assertEquals("MyBitmap", SupportQueryPlanIndexHook.assertOnExprAndReset().getTables()[0].getIndexName());
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        EPAssertionUtil.assertPropsPerRowAnyOrder(epService.getEPRuntime().executeQuery("select theString from MyInfra").getArray(),
+                "theString".split(","), new Object[][] {{"E1"}, {"E3"}, {"E4"}});
+
+        epService.getEPAdministrator().destroyAllStatements();
+        epService.getEPAdministrator().getConfiguration().removeEventType("MyInfra", false);
+    }
+
+    private void runFAF(String where, String expectedIndexName, Object[][] expected) {
+        String hint = "";
+        if (where.startsWith("@")) {
+            hint = where.substring(0, where.indexOf("')") + 2);
+            where = where.substring(hint.length()).trim();
+        }
+        EPOnDemandQueryResult result = epService.getEPRuntime().executeQuery(INDEX_CALLBACK_HOOK + hint + "select theString from MyInfra where " + where);
+        SupportQueryPlanIndexHook.assertFAFAndReset(expectedIndexName, BACKING_BITMAP);
+        EPAssertionUtil.assertPropsPerRowAnyOrder(result.getArray(), "theString".split(","), expected);
+    }
+
+    private void setupInfra(boolean namedWindow) {
+        if (namedWindow) {
+            epService.getEPAdministrator().createEPL("create window MyInfra.win:keepall() as SupportBean");
+            epService.getEPAdministrator().createEPL("insert into MyInfra select * from SupportBean");
+        }
+        else {
+            epService.getEPAdministrator().createEPL("create table MyInfra (theString string primary key, intPrimitive int, longPrimitive long, boolPrimitive boolean)");
+            epService.getEPAdministrator().createEPL("insert into MyInfra select theString, intPrimitive, longPrimitive, boolPrimitive from SupportBean");
+        }
+        epService.getEPAdministrator().createEPL("create index MyBitmap on MyInfra (intPrimitive bitmap, boolPrimitive bitmap)");
+
+        sendSupportBean("E1", 1, 5, true);
+        sendSupportBean("E2", 1, 10, false);
+        sendSupportBean("E3", 1, 20, true);
+        sendSupportBean("E4", 2, 5, false);
+        sendSupportBean("E5", 3, 5, false);
+        SupportQueryPlanIndexHook.reset();
+    }
+
+    private void sendSupportBean(String theString, int intPrimitive, long longPrimitive, boolean boolPrimitive) {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        bean.setLongPrimitive(longPrimitive);
+        bean.setBoolPrimitive(boolPrimitive);
+        epService.getEPRuntime().sendEvent(bean);
+    }
+
+    private void tryInvalid(String epl, String message) {
+        try {
+            epService.getEPAdministrator().createEPL(epl);
+            fail();
+        }
+        catch (EPStatementException ex) {
+            assertEquals(message, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.nwtable;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TestInfraSnapshot extends TestCase
+{
+    private EPServiceProvider epService;
+    private File file;
+
+    public void setUp() throws IOException
+    {
+        epService = makeEngine("A");
+        file = File.createTempFile("esper-snapshot", ".bin");
+    }
+
+    public void tearDown()
+    {
+        epService.destroy();
+        file.delete();
+    }
+
+    public void testNamedWindowBean() throws Exception
+    {
+        String epl = "create window MyWindow#keepall as SupportBean;\n" +
+                "create index MyIndex on MyWindow(theString);\n" +
+                "insert into MyWindow select * from SupportBean;\n";
+        epService.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+        for (int i = 0; i < 100; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean("E" + (i % 10), i));
+        }
+        assertEquals(100, epService.getEPRuntime().writeSnapshot("MyWindow", file));
+
+        EPServiceProvider restored = makeEngine("B");
+        try {
+            restored.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+            assertEquals(100, restored.getEPRuntime().restoreSnapshot("MyWindow", file));
+
+            EPAssertionUtil.assertPropsPerRowAnyOrder(restored.getEPRuntime().executeQuery("select intPrimitive from MyWindow where theString = 'E3'").getArray(),
+                    "intPrimitive".split(","), new Object[][]{{3}, {13}, {23}, {33}, {43}, {53}, {63}, {73}, {83}, {93}});
+            assertEquals(100L, restored.getEPRuntime().executeQuery("select count(*) as cnt from MyWindow").getArray()[0].get("cnt"));
+
+            // on-select uses the restored index, new events continue from the restored state
+            SupportUpdateListener listener = new SupportUpdateListener();
+            restored.getEPAdministrator().createEPL("on SupportBean_S0 as s0 select sum(intPrimitive) as total from MyWindow as mw where mw.theString = s0.p00").addListener(listener);
+            restored.getEPRuntime().sendEvent(new SupportBean("E1", 1000));
+            restored.getEPRuntime().sendEvent(new SupportBean_S0(1, "E1"));
+            assertEquals(1000 + 1 + 11 + 21 + 31 + 41 + 51 + 61 + 71 + 81 + 91, listener.assertOneGetNewAndReset().get("total"));
+        }
+        finally {
+            restored.destroy();
+        }
+    }
+
+    public void testNamedWindowObjectArrayLengthWindow() throws Exception
+    {
+        String epl = "create objectarray schema MyEvent(id string, value double, tag string);\n" +
+                "create window MyWindow#length(3) as MyEvent;\n" +
+                "insert into MyWindow select theString as id, doublePrimitive as value, null as tag from SupportBean;\n";
+        epService.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+        for (int i = 0; i < 5; i++) {
+            epService.getEPRuntime().sendEvent(makeBean("E" + i, i * 1.5));
+        }
+        assertEquals(3, epService.getEPRuntime().writeSnapshot("MyWindow", file));
+
+        EPServiceProvider restored = makeEngine("B");
+        try {
+            restored.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+            assertEquals(3, restored.getEPRuntime().restoreSnapshot("MyWindow", file));
+            EPAssertionUtil.assertPropsPerRowAnyOrder(restored.getEPRuntime().executeQuery("select * from MyWindow").getArray(),
+                    "id,value,tag".split(","), new Object[][]{{"E2", 3.0, null}, {"E3", 4.5, null}, {"E4", 6.0, null}});
+
+            // the length window continues to expire the restored events
+            SupportUpdateListener listener = new SupportUpdateListener();
+            restored.getEPAdministrator().createEPL("select irstream id from MyWindow").addListener(listener);
+            restored.getEPRuntime().sendEvent(makeBean("E5", 0));
+            assertEquals("E5", listener.assertOneGetNew().get("id"));
+            assertEquals("E2", listener.assertOneGetOld().get("id"));
+        }
+        finally {
+            restored.destroy();
+        }
+    }
+
+    public void testTable() throws Exception
+    {
+        String epl = "create table MyTable(k1 string primary key, k2 int primary key, total sum(double), cnt count(*), note string);\n" +
+                "create index MyTableIdx on MyTable(k2);\n" +
+                "into table MyTable select sum(doublePrimitive) as total, count(*) as cnt from SupportBean group by theString, intPrimitive;\n";
+        epService.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+        epService.getEPRuntime().sendEvent(makeBean("A", 1, 10));
+        epService.getEPRuntime().sendEvent(makeBean("A", 1, 20));
+        epService.getEPRuntime().sendEvent(makeBean("B", 2, 5));
+        epService.getEPRuntime().sendEvent(makeBean("A", 2, 1));
+        assertEquals(3, epService.getEPRuntime().writeSnapshot("MyTable", file));
+
+        EPServiceProvider restored = makeEngine("B");
+        try {
+            restored.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+            assertEquals(3, restored.getEPRuntime().restoreSnapshot("MyTable", file));
+            String[] fields = "k1,k2,total,cnt".split(",");
+            EPAssertionUtil.assertPropsPerRowAnyOrder(restored.getEPRuntime().executeQuery("select * from MyTable").getArray(),
+                    fields, new Object[][]{{"A", 1, 30.0, 2L}, {"B", 2, 5.0, 1L}, {"A", 2, 1.0, 1L}});
+            EPAssertionUtil.assertPropsPerRowAnyOrder(restored.getEPRuntime().executeQuery("select * from MyTable where k2 = 2").getArray(),
+                    fields, new Object[][]{{"B", 2, 5.0, 1L}, {"A", 2, 1.0, 1L}});
+
+            // aggregation continues from the restored state
+            restored.getEPRuntime().sendEvent(makeBean("A", 1, 5));
+            EPAssertionUtil.assertPropsPerRowAnyOrder(restored.getEPRuntime().executeQuery("select * from MyTable where k1 = 'A' and k2 = 1").getArray(),
+                    fields, new Object[][]{{"A", 1, 35.0, 3L}});
+        }
+        finally {
+            restored.destroy();
+        }
+    }
+
+    public void testTableUngrouped() throws Exception
+    {
+        String epl = "create table MyTable(total sum(int));\n" +
+                "into table MyTable select sum(intPrimitive) as total from SupportBean;\n";
+        epService.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 10));
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 20));
+        assertEquals(1, epService.getEPRuntime().writeSnapshot("MyTable", file));
+
+        EPServiceProvider restored = makeEngine("B");
+        try {
+            restored.getEPAdministrator().getDeploymentAdmin().parseDeploy(epl);
+            assertEquals(1, restored.getEPRuntime().restoreSnapshot("MyTable", file));
+            restored.getEPRuntime().sendEvent(new SupportBean("E3", 5));
+            assertEquals(35, restored.getEPRuntime().executeQuery("select total from MyTable").getArray()[0].get("total"));
+        }
+        finally {
+            restored.destroy();
+        }
+    }
+
+    public void testInvalid()
+    {
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("create window MyWindowOther#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("create table MyTable(k string primary key, total sum(int))");
+        epService.getEPAdministrator().createEPL("create table MyTableEmpty(k string primary key, total sum(int))");
+        epService.getEPAdministrator().createEPL("create table MyTableWindow(win window(*) @type(SupportBean))");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from SupportBean");
+        epService.getEPAdministrator().createEPL("into table MyTable select sum(intPrimitive) as total from SupportBean group by theString");
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+
+        tryInvalid("Dummy", false, "A named window or table by name 'Dummy' does not exist");
+        tryInvalid("MyTableWindow", true, "Snapshot is not supported for table 'MyTableWindow' as column 'win' is an access-aggregation column");
+        tryInvalid("MyTable", false, "Restore requires that table 'MyTable' is empty");
+
+        epService.getEPRuntime().writeSnapshot("MyWindow", file);
+        tryInvalid("MyTableEmpty", false, "Snapshot file '" + file + "' holds named window 'MyWindow' and not a table");
+
+        epService.getEPAdministrator().createEPL("select * from MyWindowOther");
+        tryInvalid("MyWindowOther", false, "Restore requires that the named window has no consuming statements");
+    }
+
+    private void tryInvalid(String name, boolean write, String message) {
+        try {
+            if (write) {
+                epService.getEPRuntime().writeSnapshot(name, file);
+            }
+            else {
+                epService.getEPRuntime().restoreSnapshot(name, file);
+            }
+            fail();
+        }
+        catch (EPException ex) {
+            assertEquals(message, ex.getMessage());
+        }
+    }
+
+    private EPServiceProvider makeEngine(String suffix) {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.addEventType("SupportBean", SupportBean.class);
+        config.addEventType("SupportBean_S0", SupportBean_S0.class);
+        EPServiceProvider engine = EPServiceProviderManager.getProvider(TestInfraSnapshot.class.getName() + suffix, config);
+        engine.initialize();
+        return engine;
+    }
+
+    private static SupportBean makeBean(String theString, double doublePrimitive) {
+        return makeBean(theString, 0, doublePrimitive);
+    }
+
+    private static SupportBean makeBean(String theString, int intPrimitive, double doublePrimitive) {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        bean.setDoublePrimitive(doublePrimitive);
+        return bean;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.nwtable;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestNamedWindowConsumerParallel extends TestCase
+{
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.getEngineDefaults().getThreading().setThreadPoolNamedWindowConsumer(true);
+        config.getEngineDefaults().getThreading().setThreadPoolNamedWindowConsumerNumThreads(3);
+        config.addEventType("SupportBean", SupportBean.class);
+        config.addEventType("SupportBean_S0", SupportBean_S0.class);
+        epService = EPServiceProviderManager.getProvider(TestNamedWindowConsumerParallel.class.getName(), config);
+        epService.initialize();
+    }
+
+    public void tearDown()
+    {
+        epService.destroy();
+    }
+
+    public void testConsumerOrderAndThreads()
+    {
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from SupportBean");
+
+        int numConsumers = 8;
+        MyThreadRecordingListener[] listeners = new MyThreadRecordingListener[numConsumers];
+        for (int i = 0; i < numConsumers; i++) {
+            listeners[i] = new MyThreadRecordingListener();
+            epService.getEPAdministrator().createEPL("select intPrimitive as value from MyWindow where intPrimitive % " + (i + 1) + " = 0").addListener(listeners[i]);
+        }
+
+        for (int i = 1; i <= 100; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean("E" + i, i));
+        }
+
+        Set<String> threadNames = new HashSet<String>();
+        for (int i = 0; i < numConsumers; i++) {
+            List<Object> expected = new ArrayList<Object>();
+            for (int value = 1; value <= 100; value++) {
+                if (value % (i + 1) == 0) {
+                    expected.add(value);
+                }
+            }
+            EPAssertionUtil.assertEqualsExactOrder(expected.toArray(), listeners[i].getValues().toArray());
+            assertEquals(1, listeners[i].getThreadNames().size());
+            threadNames.addAll(listeners[i].getThreadNames());
+        }
+        assertEquals(3, threadNames.size());
+        for (String threadName : threadNames) {
+            assertTrue(threadName, threadName.contains("NamedWindowConsumer"));
+        }
+    }
+
+    public void testRoutedAndChainedDispatch()
+    {
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("create window MyWindowChained#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from SupportBean");
+
+        // consumers that are themselves named windows, consumers that route and consumers that aggregate
+        epService.getEPAdministrator().createEPL("insert into MyWindowChained select * from MyWindow");
+        epService.getEPAdministrator().createEPL("insert into MyStream select theString, intPrimitive * 10 as value from MyWindow");
+        epService.getEPAdministrator().createEPL("on MyWindow(theString = 'X') update MyWindowChained set intPrimitive = 0");
+        SupportUpdateListener listenerSum = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select sum(intPrimitive) as total from MyWindow").addListener(listenerSum);
+        SupportUpdateListener listenerChained = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select theString, intPrimitive from MyWindowChained").addListener(listenerChained);
+        SupportUpdateListener listenerStream = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select * from MyStream").addListener(listenerStream);
+
+        for (int i = 1; i <= 3; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean("E" + i, i));
+            assertEquals(i * (i + 1) / 2, listenerSum.assertOneGetNewAndReset().get("total"));
+            EPAssertionUtil.assertProps(listenerChained.assertOneGetNewAndReset(), "theString,intPrimitive".split(","), new Object[]{"E" + i, i});
+            EPAssertionUtil.assertProps(listenerStream.assertOneGetNewAndReset(), "theString,value".split(","), new Object[]{"E" + i, i * 10});
+        }
+
+        EPAssertionUtil.assertPropsPerRowAnyOrder(epService.getEPRuntime().executeQuery("select theString, intPrimitive from MyWindowChained").getArray(),
+                "theString,intPrimitive".split(","), new Object[][]{{"E1", 1}, {"E2", 2}, {"E3", 3}});
+    }
+
+    public void testMultipleDispatches()
+    {
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select theString, intPrimitive from SupportBean");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select p00 as theString, id as intPrimitive from SupportBean_S0");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select 'S' || p00 as theString, id + 1000 as intPrimitive from SupportBean_S0");
+
+        SupportUpdateListener[] listeners = new SupportUpdateListener[4];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("select theString from MyWindow").addListener(listeners[i]);
+        }
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1, "A"));
+        for (SupportUpdateListener listener : listeners) {
+            EPAssertionUtil.assertPropsPerRow(listener.getNewDataListFlattened(), "theString".split(","), new Object[][]{{"A"}, {"SA"}});
+            listener.reset();
+        }
+
+        epService.getEPRuntime().sendEvent(new SupportBean("B", 2));
+        for (SupportUpdateListener listener : listeners) {
+            EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "theString".split(","), new Object[]{"B"});
+        }
+    }
+
+    public void testConsumerFailureDiscardsResults()
+    {
+        epService.getEPAdministrator().getConfiguration().addPlugInSingleRowFunction("failOnNegative", this.getClass().getName(), "failOnNegative",
+                ConfigurationPlugInSingleRowFunction.ValueCache.DISABLED, ConfigurationPlugInSingleRowFunction.FilterOptimizable.ENABLED, true);
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as SupportBean");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from SupportBean");
+
+        SupportUpdateListener[] listeners = new SupportUpdateListener[2];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("select theString from MyWindow").addListener(listeners[i]);
+        }
+        epService.getEPAdministrator().createEPL("select theString from MyWindow where failOnNegative(intPrimitive)");
+
+        try {
+            epService.getEPRuntime().sendEvent(new SupportBean("E1", -1));
+            fail();
+        }
+        catch (EPException ex) {
+            // expected
+        }
+        for (SupportUpdateListener listener : listeners) {
+            assertFalse(listener.isInvoked());
+        }
+
+        // results of the failed dispatch are not delivered with the next dispatch
+        for (int i = 0; i < 3; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean("E2", 2));
+            for (SupportUpdateListener listener : listeners) {
+                EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "theString".split(","), new Object[]{"E2"});
+            }
+        }
+    }
+
+    public static boolean failOnNegative(int value) {
+        if (value < 0) {
+            throw new RuntimeException("Negative value " + value);
+        }
+        return true;
+    }
+
+    private static class MyThreadRecordingListener implements UpdateListener
+    {
+        private final List<Object> values = new ArrayList<Object>();
+        private final Set<String> threadNames = new HashSet<String>();
+
+        public synchronized void update(EventBean[] newEvents, EventBean[] oldEvents)
+        {
+            threadNames.add(Thread.currentThread().getName());
+            for (EventBean event : newEvents) {
+                values.add(event.get("value"));
+            }
+        }
+
+        public synchronized List<Object> getValues() {
+            return values;
+        }
+
+        public synchronized Set<String> getThreadNames() {
+            return threadNames;
+        }
+    }
+}
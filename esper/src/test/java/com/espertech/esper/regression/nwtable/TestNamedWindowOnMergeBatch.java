@@ -0,0 +1,117 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.nwtable;
+
+import com.espertech.esper.client.Configuration;
+import com.espertech.esper.client.EPServiceProvider;
+import com.espertech.esper.client.EPServiceProviderManager;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.util.SupportMessageAssertUtil;
+import junit.framework.TestCase;
+
+public class TestNamedWindowOnMergeBatch extends TestCase {
+
+    private EPServiceProvider epService;
+    private SupportUpdateListener nwListener;
+    private SupportUpdateListener mergeListener;
+    private SupportUpdateListener countListener;
+
+    protected void setUp()
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.addEventType("SupportBean", SupportBean.class);
+
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+        nwListener = new SupportUpdateListener();
+        mergeListener = new SupportUpdateListener();
+        countListener = new SupportUpdateListener();
+    }
+
+    protected void tearDown() throws Exception {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        nwListener = null;
+        mergeListener = null;
+        countListener = null;
+    }
+
+    public void testBatchSingleDispatch() {
+        String[] fields = "theString,intPrimitive".split(",");
+        epService.getEPAdministrator().createEPL("create window Staging#length_batch(4) as SupportBean");
+        epService.getEPAdministrator().createEPL("insert into Staging select * from SupportBean");
+        epService.getEPAdministrator().createEPL("create window RefWindow#keepall as SupportBean").addListener(nwListener);
+        epService.getEPAdministrator().createEPL("@Hint('enable_merge_batch') on Staging as s merge RefWindow as r where r.theString = s.theString " +
+                "when matched and s.intPrimitive < 0 then delete " +
+                "when matched then update set intPrimitive = r.intPrimitive + s.intPrimitive " +
+                "when not matched then insert select *").addListener(mergeListener);
+        epService.getEPAdministrator().createEPL("select count(*) as cnt, sum(intPrimitive) as total from RefWindow").addListener(countListener);
+
+        // the second E1 sees the row inserted by the first E1 of the same batch
+        sendBeans("E1", 1, "E2", 2, "E1", 10, "E3", 3);
+        assertEquals(1, nwListener.getNewDataList().size());
+        EPAssertionUtil.assertPropsPerRowAnyOrder(nwListener.getAndResetLastNewData(), fields, new Object[][] {{"E1", 11}, {"E2", 2}, {"E3", 3}});
+        assertEquals(1, mergeListener.getNewDataList().size());
+        mergeListener.reset();
+        assertEquals(1, countListener.getNewDataList().size());
+        EPAssertionUtil.assertProps(countListener.assertOneGetNewAndReset(), "cnt,total".split(","), new Object[] {3L, 16});
+
+        // update, delete and re-insert within a batch
+        sendBeans("E2", 5, "E3", -1, "E3", 4, "E4", 0);
+        assertEquals(1, nwListener.getNewDataList().size());
+        EPAssertionUtil.assertPropsPerRowAnyOrder(nwListener.getLastNewData(), fields, new Object[][] {{"E2", 7}, {"E3", 4}, {"E4", 0}});
+        EPAssertionUtil.assertPropsPerRowAnyOrder(nwListener.getLastOldData(), fields, new Object[][] {{"E2", 2}, {"E3", 3}});
+        nwListener.reset();
+        assertEquals(1, countListener.getNewDataList().size());
+        EPAssertionUtil.assertProps(countListener.assertOneGetNewAndReset(), "cnt,total".split(","), new Object[] {4L, 22});
+
+        // inserted and deleted within the batch is not dispatched
+        sendBeans("E5", 1, "E5", -1, "E6", 1, "E6", -1);
+        assertFalse(nwListener.isInvoked());
+        assertFalse(countListener.isInvoked());
+
+        EPAssertionUtil.assertPropsPerRowAnyOrder(epService.getEPRuntime().executeQuery("select * from RefWindow").getArray(),
+                fields, new Object[][] {{"E1", 11}, {"E2", 7}, {"E3", 4}, {"E4", 0}});
+    }
+
+    public void testSingleTriggerUnchanged() {
+        String[] fields = "theString,intPrimitive".split(",");
+        epService.getEPAdministrator().createEPL("create window RefWindow#keepall as SupportBean").addListener(nwListener);
+        epService.getEPAdministrator().createEPL("@Hint('enable_merge_batch') on SupportBean as s merge RefWindow as r where r.theString = s.theString " +
+                "when matched then update set intPrimitive = r.intPrimitive + s.intPrimitive " +
+                "when not matched then insert select *").addListener(mergeListener);
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        EPAssertionUtil.assertProps(nwListener.assertOneGetNewAndReset(), fields, new Object[] {"E1", 1});
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 2));
+        EPAssertionUtil.assertProps(nwListener.assertOneGetNew(), fields, new Object[] {"E1", 3});
+        EPAssertionUtil.assertProps(nwListener.assertOneGetOld(), fields, new Object[] {"E1", 1});
+        EPAssertionUtil.assertProps(mergeListener.getAndResetLastNewData()[0], fields, new Object[] {"E1", 3});
+    }
+
+    private void sendBeans(Object... stringAndInts) {
+        for (int i = 0; i < stringAndInts.length; i += 2) {
+            epService.getEPRuntime().sendEvent(new SupportBean((String) stringAndInts[i], (Integer) stringAndInts[i + 1]));
+        }
+    }
+
+    public void testInvalidTable() {
+        epService.getEPAdministrator().createEPL("create table RefTable(theString string primary key, intPrimitive int)");
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('enable_merge_batch') on SupportBean as s merge RefTable as r where r.theString = s.theString " +
+                "when not matched then insert select theString, intPrimitive",
+                "Error starting statement: The ENABLE_MERGE_BATCH hint is not supported with tables");
+    }
+}
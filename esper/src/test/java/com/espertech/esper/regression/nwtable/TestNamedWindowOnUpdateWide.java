@@ -0,0 +1,137 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.nwtable;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.event.arr.ObjectArrayOverlayEventBean;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+public class TestNamedWindowOnUpdateWide extends TestCase
+{
+    private static final int NUM_COLUMNS = 40;
+
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp()
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+        listener = new SupportUpdateListener();
+        epService.getEPAdministrator().getConfiguration().addEventType(SupportBean.class);
+
+        StringBuilder schema = new StringBuilder("create objectarray schema WideEvent(key string");
+        for (int i = 1; i < NUM_COLUMNS; i++) {
+            schema.append(", c").append(i).append(" int");
+        }
+        schema.append(")");
+        epService.getEPAdministrator().createEPL(schema.toString());
+    }
+
+    protected void tearDown() throws Exception {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+    }
+
+    public void testOnUpdate() {
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as WideEvent");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from WideEvent");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("on SupportBean as sb update MyWindow as mw set c5 = intPrimitive, c6 = mw.c5 where mw.key = sb.theString");
+        stmt.addListener(listener);
+
+        Object[] sent = makeEvent("E1");
+        epService.getEPRuntime().sendEvent(sent, "WideEvent");
+        epService.getEPRuntime().sendEvent(makeEvent("E2"), "WideEvent");
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 100));
+        EventBean updated = listener.getLastNewData()[0];
+        assertTrue(updated instanceof ObjectArrayOverlayEventBean);
+        EPAssertionUtil.assertProps(updated, "key,c5,c6,c7".split(","), new Object[] {"E1", 100, 100, 7});
+        EPAssertionUtil.assertProps(listener.getAndResetLastOldData()[0], "key,c5,c6".split(","), new Object[] {"E1", 5, 6});
+        assertEquals(5, sent[5]);
+
+        // update the updated event again
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 200));
+        EPAssertionUtil.assertProps(listener.getLastNewData()[0], "key,c5,c6,c7".split(","), new Object[] {"E1", 200, 200, 7});
+        EPAssertionUtil.assertProps(listener.getAndResetLastOldData()[0], "key,c5,c6".split(","), new Object[] {"E1", 100, 100});
+
+        Object[] expected = makeEvent("E1");
+        expected[5] = 200;
+        expected[6] = 200;
+        EPAssertionUtil.assertEqualsExactOrder(expected, (Object[]) epService.getEPRuntime().executeQuery("select * from MyWindow where key = 'E1'").getArray()[0].getUnderlying());
+        EPAssertionUtil.assertProps(epService.getEPRuntime().executeQuery("select sum(c5) as s5, sum(c6) as s6 from MyWindow").getArray()[0], "s5,s6".split(","), new Object[] {205, 206});
+    }
+
+    public void testOnUpdateAllColumns() {
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as WideEvent");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from WideEvent");
+        StringBuilder epl = new StringBuilder("on SupportBean update MyWindow set c1 = intPrimitive");
+        for (int i = 2; i < NUM_COLUMNS; i++) {
+            epl.append(", c").append(i).append(" = intPrimitive + ").append(i);
+        }
+        epService.getEPAdministrator().createEPL(epl.toString()).addListener(listener);
+
+        epService.getEPRuntime().sendEvent(makeEvent("E1"), "WideEvent");
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1000));
+        Object[] expected = new Object[NUM_COLUMNS];
+        expected[0] = "E1";
+        expected[1] = 1000;
+        for (int i = 2; i < NUM_COLUMNS; i++) {
+            expected[i] = 1000 + i;
+        }
+        EPAssertionUtil.assertEqualsExactOrder(expected, (Object[]) listener.getAndResetLastNewData()[0].getUnderlying());
+    }
+
+    public void testOnMerge() {
+        epService.getEPAdministrator().createEPL("create window MyWindow#keepall as WideEvent");
+        epService.getEPAdministrator().createEPL("insert into MyWindow select * from WideEvent");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("on SupportBean as sb merge MyWindow as mw where mw.key = sb.theString " +
+                "when matched then update set c10 = c10 + intPrimitive");
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(makeEvent("E1"), "WideEvent");
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        EPAssertionUtil.assertProps(listener.getAndResetLastNewData()[0], "key,c10,c11".split(","), new Object[] {"E1", 11, 11});
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 2));
+        EPAssertionUtil.assertProps(listener.getAndResetLastNewData()[0], "key,c10,c11".split(","), new Object[] {"E1", 13, 11});
+    }
+
+    public void testUpdateIStream() {
+        epService.getEPAdministrator().createEPL("update istream WideEvent set c3 = c3 * 10, c4 = c4 * 10 where key = 'E1'");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select * from WideEvent");
+        stmt.addListener(listener);
+
+        Object[] sent = makeEvent("E1");
+        epService.getEPRuntime().sendEvent(sent, "WideEvent");
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "key,c2,c3,c4".split(","), new Object[] {"E1", 2, 30, 40});
+        assertEquals(3, sent[3]);
+
+        epService.getEPRuntime().sendEvent(makeEvent("E2"), "WideEvent");
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "key,c2,c3,c4".split(","), new Object[] {"E2", 2, 3, 4});
+    }
+
+    private static Object[] makeEvent(String key) {
+        Object[] values = new Object[NUM_COLUMNS];
+        values[0] = key;
+        for (int i = 1; i < NUM_COLUMNS; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.nwtable;
+
+import com.espertech.esper.client.EPServiceProvider;
+import com.espertech.esper.client.EPServiceProviderManager;
+import com.espertech.esper.client.EventBean;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.bean.SupportBean_S1;
+import com.espertech.esper.support.bean.SupportBean_S2;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.util.SupportMessageAssertUtil;
+import junit.framework.TestCase;
+
+public class TestTableOffHeap extends TestCase {
+    private final static String[] TABLES = new String[] {"TblHeap", "TblOffHeap"};
+
+    private EPServiceProvider epService;
+
+    public void setUp() {
+        epService = EPServiceProviderManager.getDefaultProvider(SupportConfigFactory.getConfiguration());
+        epService.initialize();
+        for (Class clazz : new Class[] {SupportBean.class, SupportBean_S0.class, SupportBean_S1.class, SupportBean_S2.class}) {
+            epService.getEPAdministrator().getConfiguration().addEventType(clazz);
+        }
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testIntoTableAndAccess() {
+        String columns = "(k int primary key, cnt count(*), total sum(int), totalLong sum(long), " +
+                "totalDouble sum(double), average avg(double), maxValue maxever(long), minValue minever(double))";
+        createTables(columns);
+        for (String table : TABLES) {
+            epService.getEPAdministrator().createEPL("into table " + table + " select count(*) as cnt, " +
+                    "sum(intPrimitive) as total, sum(longPrimitive) as totalLong, sum(doublePrimitive) as totalDouble, " +
+                    "avg(doublePrimitive) as average, maxever(longPrimitive) as maxValue, minever(doublePrimitive) as minValue " +
+                    "from SupportBean group by intPrimitive % 10");
+        }
+
+        String[] fields = "c0,c1,c2,c3,c4,c5,c6".split(",");
+        SupportUpdateListener[] listeners = new SupportUpdateListener[TABLES.length];
+        for (int i = 0; i < TABLES.length; i++) {
+            listeners[i] = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("select " + TABLES[i] + "[id].cnt as c0, " + TABLES[i] + "[id].total as c1, " +
+                    TABLES[i] + "[id].totalLong as c2, " + TABLES[i] + "[id].totalDouble as c3, " + TABLES[i] + "[id].average as c4, " +
+                    TABLES[i] + "[id].maxValue as c5, " + TABLES[i] + "[id].minValue as c6 " +
+                    "from SupportBean_S0").addListener(listeners[i]);
+        }
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        for (SupportUpdateListener listener : listeners) {
+            EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {null, null, null, null, null, null, null});
+        }
+
+        sendBean(1, 10, 1.5);
+        sendBean(11, 30, 2.5);
+        sendBean(2, 5, -1);
+        sendBean(12, -3, 4);
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        for (SupportUpdateListener listener : listeners) {
+            EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {2L, 12, 40L, 4d, 2d, 30L, 1.5d});
+        }
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2));
+        for (SupportUpdateListener listener : listeners) {
+            EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {2L, 14, 2L, 3d, 1.5d, 5L, -1d});
+        }
+
+        assertTablesSame("k,cnt,total,totalLong,totalDouble,average,maxValue,minValue");
+    }
+
+    public void testManyRows() {
+        createTables("(k1 int primary key, k2 long primary key, total sum(int))");
+        for (String table : TABLES) {
+            epService.getEPAdministrator().createEPL("into table " + table + " select sum(intPrimitive) as total from SupportBean group by intPrimitive, longPrimitive");
+            epService.getEPAdministrator().createEPL("on SupportBean_S0 delete from " + table + " where k1 % 3 = id");
+        }
+
+        for (int i = 0; i < 40000; i++) {
+            sendBean(i % 20000, (i % 20000) % 7, 0);
+        }
+        assertEquals(20000L, epService.getEPRuntime().executeQuery("select count(*) as c0 from TblOffHeap").getArray()[0].get("c0"));
+        assertTablesSame("k1,k2,total");
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        for (int i = 0; i < 1000; i++) {
+            sendBean(i * 3 + 1, 100, 0);
+        }
+        assertTablesSame("k1,k2,total");
+
+        epService.getEPRuntime().executeQuery("delete from TblHeap");
+        epService.getEPRuntime().executeQuery("delete from TblOffHeap");
+        assertEquals(0L, epService.getEPRuntime().executeQuery("select count(*) as c0 from TblOffHeap").getArray()[0].get("c0"));
+    }
+
+    public void testMergeUpdateDelete() {
+        createTables("(k int primary key, flag boolean, value double, total sum(int))");
+        for (String table : TABLES) {
+            epService.getEPAdministrator().createEPL("on SupportBean merge " + table + " where k = intPrimitive " +
+                    "when not matched then insert select intPrimitive as k, boolPrimitive as flag, doublePrimitive as value " +
+                    "when matched then update set flag = boolPrimitive, value = value + doublePrimitive");
+            epService.getEPAdministrator().createEPL("into table " + table + " select sum(id) as total from SupportBean_S0 group by id");
+            epService.getEPAdministrator().createEPL("on SupportBean_S1 update " + table + " set k = k + 100 where k = id");
+            epService.getEPAdministrator().createEPL("on SupportBean_S2 delete from " + table + " where k = id");
+        }
+
+        for (int i = 0; i < 5; i++) {
+            SupportBean bean = new SupportBean("E" + i, i);
+            bean.setBoolPrimitive(i % 2 == 0);
+            bean.setDoublePrimitive(i);
+            epService.getEPRuntime().sendEvent(bean);
+            epService.getEPRuntime().sendEvent(new SupportBean_S0(i));
+        }
+        SupportBean bean = new SupportBean("E", 2);
+        bean.setDoublePrimitive(10);
+        epService.getEPRuntime().sendEvent(bean);
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2));
+        assertTablesSame("k,flag,value,total");
+        EPAssertionUtil.assertProps(epService.getEPRuntime().executeQuery("select * from TblOffHeap where k = 2").getArray()[0],
+                "k,flag,value,total".split(","), new Object[] {2, false, 12d, 4});
+
+        // update of the primary key keeps the aggregation state with the row
+        epService.getEPRuntime().sendEvent(new SupportBean_S1(2));
+        assertTablesSame("k,flag,value,total");
+        EPAssertionUtil.assertProps(epService.getEPRuntime().executeQuery("select * from TblOffHeap where k = 102").getArray()[0],
+                "k,flag,value,total".split(","), new Object[] {102, false, 12d, 4});
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S2(3));
+        epService.getEPRuntime().sendEvent(new SupportBean("E", 3));
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(3));
+        assertTablesSame("k,flag,value,total");
+
+        epService.getEPRuntime().executeQuery("update TblHeap set value = -1 where k = 1");
+        epService.getEPRuntime().executeQuery("update TblOffHeap set value = -1 where k = 1");
+        assertTablesSame("k,flag,value,total");
+        assertEquals(-1d, epService.getEPRuntime().executeQuery("select value from TblOffHeap where k = 1").getArray()[0].get("value"));
+    }
+
+    public void testInvalid() {
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('off_heap') create table MyTable(k string primary key, total sum(int))",
+                "Error starting statement: Off-heap storage for table 'MyTable' requires column 'k' to be of a primitive type [");
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('off_heap') create table MyTable(k int primary key, value max(int))",
+                "Error starting statement: Off-heap storage for table 'MyTable' requires column 'value' to be a sum, avg, count, minever or maxever aggregation of primitive values without distinct or filter [");
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('off_heap') create table MyTable(k int primary key, evts window(*) @type(SupportBean))",
+                "Error starting statement: Off-heap storage for table 'MyTable' requires column 'evts' to be a sum, avg, count, minever or maxever aggregation of primitive values without distinct or filter [");
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('off_heap') create table MyTable(total sum(int))",
+                "Error starting statement: Off-heap storage for table 'MyTable' requires primary key columns [");
+
+        epService.getEPAdministrator().createEPL("@Hint('off_heap') create table MyTable(k int primary key, value int)");
+        SupportMessageAssertUtil.tryInvalid(epService, "create index MyIndex on MyTable(value)",
+                "Error starting statement: Explicit indexes are not supported for table 'MyTable' as its rows are kept off-heap [");
+    }
+
+    private void createTables(String columns) {
+        epService.getEPAdministrator().createEPL("create table TblHeap " + columns);
+        epService.getEPAdministrator().createEPL("@Hint('off_heap') create table TblOffHeap " + columns);
+    }
+
+    private void assertTablesSame(String fieldCSV) {
+        String[] fields = fieldCSV.split(",");
+        EventBean[] heap = epService.getEPRuntime().executeQuery("select * from TblHeap").getArray();
+        EventBean[] offHeap = epService.getEPRuntime().executeQuery("select * from TblOffHeap").getArray();
+        Object[][] expected = new Object[heap.length][];
+        for (int i = 0; i < heap.length; i++) {
+            expected[i] = new Object[fields.length];
+            for (int j = 0; j < fields.length; j++) {
+                expected[i][j] = heap[i].get(fields[j]);
+            }
+        }
+        EPAssertionUtil.assertPropsPerRowAnyOrder(offHeap, fields, expected);
+    }
+
+    private void sendBean(int intPrimitive, long longPrimitive, double doublePrimitive) {
+        SupportBean bean = new SupportBean("E", intPrimitive);
+        bean.setLongPrimitive(longPrimitive);
+        bean.setDoublePrimitive(doublePrimitive);
+        epService.getEPRuntime().sendEvent(bean);
+    }
+}
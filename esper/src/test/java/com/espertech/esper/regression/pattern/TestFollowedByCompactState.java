@@ -0,0 +1,166 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+package com.espertech.esper.regression.pattern;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.filter.FilterServiceSPI;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.bean.SupportBean_S1;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class TestFollowedByCompactState extends TestCase
+{
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.addEventType(SupportBean.class);
+        config.addEventType(SupportBean_S0.class);
+        config.addEventType(SupportBean_S1.class);
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testChain()
+    {
+        FilterServiceSPI filterSPI = (FilterServiceSPI) ((EPServiceProviderSPI) epService).getFilterService();
+        SupportUpdateListener listener = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("@Hint('enable_pattern_compact_state') select a.id as c0, b.theString as c1, c.id as c2 " +
+                "from pattern [every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id) -> c=SupportBean_S1(id=b.intPrimitive, p10='X')]").addListener(listener);
+        assertEquals(1, filterSPI.getFilterCountApprox());
+
+        for (int i = 0; i < 1000; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean_S0(i % 100));
+        }
+        assertEquals(2, filterSPI.getFilterCountApprox());
+
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 5));
+        assertEquals(3, filterSPI.getFilterCountApprox());
+        epService.getEPRuntime().sendEvent(new SupportBean_S1(5, "Y"));
+        assertFalse(listener.isInvoked());
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S1(5, "X"));
+        EventBean[] events = listener.getNewDataListFlattened();
+        assertEquals(10, events.length);
+        EPAssertionUtil.assertProps(events[0], "c0,c1,c2".split(","), new Object[] {5, "E1", 5});
+        listener.reset();
+        assertEquals(2, filterSPI.getFilterCountApprox());
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S1(5, "X"));
+        assertFalse(listener.isInvoked());
+    }
+
+    public void testSameResultsAsNodeTree()
+    {
+        runAssertionSameResultsAsNodeTree("");
+    }
+
+    public void testSameResultsAsNodeTreeDiscardPartials()
+    {
+        runAssertionSameResultsAsNodeTree("@DiscardPartialsOnMatch ");
+    }
+
+    private void runAssertionSameResultsAsNodeTree(String patternAnnotations)
+    {
+        String[] patterns = new String[] {
+                "every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id)",
+                "a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id)",
+                "every a=SupportBean -> b=SupportBean(intPrimitive=a.intPrimitive, theString in ('A', 'B'))",
+                "every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id) -> c=SupportBean_S1(id=b.intPrimitive)",
+                "every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id) -> c=SupportBean_S1(id=a.id, p10=b.theString)",
+                "every (a=SupportBean_S0 and b=SupportBean_S1) -> c=SupportBean(intPrimitive=a.id)",
+                "every a=SupportBean_S0 -> (b=SupportBean(intPrimitive=a.id) and not SupportBean_S1(id=a.id))",
+        };
+
+        List<SupportUpdateListener> tree = new ArrayList<SupportUpdateListener>();
+        List<SupportUpdateListener> compact = new ArrayList<SupportUpdateListener>();
+        for (String pattern : patterns) {
+            SupportUpdateListener listenerTree = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("select * from pattern " + patternAnnotations + "[" + pattern + "]").addListener(listenerTree);
+            tree.add(listenerTree);
+            SupportUpdateListener listenerCompact = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("@Hint('enable_pattern_compact_state') select * from pattern " + patternAnnotations + "[" + pattern + "]").addListener(listenerCompact);
+            compact.add(listenerCompact);
+        }
+
+        Random random = new Random(1);
+        String[] strings = new String[] {"A", "B", "C"};
+        for (int i = 0; i < 3000; i++) {
+            int value = random.nextInt(8);
+            String string = strings[random.nextInt(strings.length)];
+            int kind = random.nextInt(4);
+            if (kind == 0) {
+                epService.getEPRuntime().sendEvent(new SupportBean_S0(value, string));
+            }
+            else if (kind == 1) {
+                epService.getEPRuntime().sendEvent(new SupportBean_S1(value, string));
+            }
+            else {
+                epService.getEPRuntime().sendEvent(new SupportBean(string, value));
+            }
+
+            for (int j = 0; j < patterns.length; j++) {
+                assertEquals(patterns[j], render(tree.get(j)), render(compact.get(j)));
+                tree.get(j).reset();
+                compact.get(j).reset();
+            }
+        }
+    }
+
+    public void testStopStart()
+    {
+        FilterServiceSPI filterSPI = (FilterServiceSPI) ((EPServiceProviderSPI) epService).getFilterService();
+        SupportUpdateListener listener = new SupportUpdateListener();
+        EPStatement stmt = epService.getEPAdministrator().createEPL("@Hint('enable_pattern_compact_state') select a.id as c0 " +
+                "from pattern [every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id)]");
+        stmt.addListener(listener);
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        stmt.stop();
+        assertEquals(0, filterSPI.getFilterCountApprox());
+
+        stmt.start();
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        assertFalse(listener.isInvoked());
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        assertEquals(1, listener.assertOneGetNewAndReset().get("c0"));
+    }
+
+    private String render(SupportUpdateListener listener) {
+        List<String> rendered = new ArrayList<String>();
+        for (EventBean theEvent : listener.getNewDataListFlattened()) {
+            StringBuilder buf = new StringBuilder();
+            for (String name : theEvent.getEventType().getPropertyNames()) {
+                buf.append(System.identityHashCode(theEvent.get(name))).append(';');
+            }
+            rendered.add(buf.toString());
+        }
+        Collections.sort(rendered);
+        return rendered.toString();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+package com.espertech.esper.regression.pattern;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.filter.FilterServiceSPI;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.bean.SupportBean_S1;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class TestFollowedByCorrelationIndex extends TestCase
+{
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.addEventType(SupportBean.class);
+        config.addEventType(SupportBean_S0.class);
+        config.addEventType(SupportBean_S1.class);
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testSingleFilterRegistration()
+    {
+        FilterServiceSPI filterSPI = (FilterServiceSPI) ((EPServiceProviderSPI) epService).getFilterService();
+        SupportUpdateListener listener = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("@Hint('enable_pattern_correlation_index') select a.id as c0, b.theString as c1 " +
+                "from pattern [every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id, longPrimitive > 0)]").addListener(listener);
+        assertEquals(1, filterSPI.getFilterCountApprox());
+
+        for (int i = 0; i < 100; i++) {
+            epService.getEPRuntime().sendEvent(new SupportBean_S0(i % 10));
+        }
+        assertEquals(2, filterSPI.getFilterCountApprox());
+
+        sendBean("E1", 3, 0);
+        assertFalse(listener.isInvoked());
+
+        sendBean("E2", 3, 1);
+        EPAssertionUtil.assertPropsPerRowAnyOrder(listener.getNewDataListFlattened(), "c0,c1".split(","), new Object[][] {
+                {3, "E2"}, {3, "E2"}, {3, "E2"}, {3, "E2"}, {3, "E2"}, {3, "E2"}, {3, "E2"}, {3, "E2"}, {3, "E2"}, {3, "E2"}});
+        listener.reset();
+
+        sendBean("E3", 3, 1);
+        assertFalse(listener.isInvoked());
+
+        for (int i = 0; i < 10; i++) {
+            sendBean("E4", i, 1);
+        }
+        assertEquals(90, listener.getNewDataListFlattened().length);
+        assertEquals(1, filterSPI.getFilterCountApprox());
+    }
+
+    public void testSameTypeCorrelation()
+    {
+        SupportUpdateListener listener = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("@Hint('enable_pattern_correlation_index') select a.theString as c0, b.theString as c1 " +
+                "from pattern [every a=SupportBean -> b=SupportBean(intPrimitive=a.intPrimitive)]").addListener(listener);
+
+        sendBean("E1", 1, 0);
+        assertFalse(listener.isInvoked());
+
+        sendBean("E2", 1, 0);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {"E1", "E2"});
+
+        sendBean("E3", 2, 0);
+        assertFalse(listener.isInvoked());
+
+        sendBean("E4", 1, 0);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), "c0,c1".split(","), new Object[] {"E2", "E4"});
+    }
+
+    public void testSameResultsAsUnindexed()
+    {
+        String[] patterns = new String[] {
+                "every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id)",
+                "every a=SupportBean_S0 -> every b=SupportBean(intPrimitive=a.id, theString in ('A', 'B'))",
+                "every a=SupportBean -> b=SupportBean(intPrimitive=a.intPrimitive, longPrimitive between 2 and 4)",
+                "every a=SupportBean_S0 -> (b=SupportBean(intPrimitive=a.id) and not SupportBean_S1(id=a.id))",
+                "every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id, theString=a.p00)",
+                "every a=SupportBean_S0 -> b=SupportBean(intPrimitive=a.id) -> c=SupportBean(intPrimitive=b.intPrimitive)",
+                "a=SupportBean_S0 -> [3] b=SupportBean(intPrimitive=a.id)",
+        };
+
+        List<SupportUpdateListener> plain = new ArrayList<SupportUpdateListener>();
+        List<SupportUpdateListener> indexed = new ArrayList<SupportUpdateListener>();
+        for (String pattern : patterns) {
+            SupportUpdateListener listenerPlain = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("select * from pattern [" + pattern + "]").addListener(listenerPlain);
+            plain.add(listenerPlain);
+            SupportUpdateListener listenerIndexed = new SupportUpdateListener();
+            epService.getEPAdministrator().createEPL("@Hint('enable_pattern_correlation_index') select * from pattern [" + pattern + "]").addListener(listenerIndexed);
+            indexed.add(listenerIndexed);
+        }
+
+        Random random = new Random(1);
+        String[] strings = new String[] {"A", "B", "C"};
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt(8);
+            String string = strings[random.nextInt(strings.length)];
+            int kind = random.nextInt(5);
+            if (kind == 0) {
+                epService.getEPRuntime().sendEvent(new SupportBean_S0(value, string));
+            }
+            else if (kind == 1) {
+                epService.getEPRuntime().sendEvent(new SupportBean_S1(value));
+            }
+            else {
+                sendBean(string, value, random.nextInt(6));
+            }
+
+            for (int j = 0; j < patterns.length; j++) {
+                assertEquals(patterns[j], render(plain.get(j)), render(indexed.get(j)));
+                plain.get(j).reset();
+                indexed.get(j).reset();
+            }
+        }
+    }
+
+    private String render(SupportUpdateListener listener) {
+        List<String> rendered = new ArrayList<String>();
+        for (EventBean theEvent : listener.getNewDataListFlattened()) {
+            StringBuilder buf = new StringBuilder();
+            for (String name : theEvent.getEventType().getPropertyNames()) {
+                Object value = theEvent.get(name);
+                if (value instanceof Object[]) {
+                    for (Object item : (Object[]) value) {
+                        buf.append(System.identityHashCode(item)).append(',');
+                    }
+                }
+                else {
+                    buf.append(System.identityHashCode(value));
+                }
+                buf.append(';');
+            }
+            rendered.add(buf.toString());
+        }
+        Collections.sort(rendered);
+        return rendered.toString();
+    }
+
+    private void sendBean(String theString, int intPrimitive, long longPrimitive) {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        bean.setLongPrimitive(longPrimitive);
+        epService.getEPRuntime().sendEvent(bean);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+package com.espertech.esper.regression.pattern;
+
+import com.espertech.esper.client.*;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.client.time.CurrentTimeEvent;
+import com.espertech.esper.core.service.EPServiceProviderSPI;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.schedule.ScheduleVisit;
+import com.espertech.esper.schedule.ScheduleVisitor;
+import com.espertech.esper.schedule.SchedulingServiceSPI;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.bean.SupportBean_S0;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.util.SupportMessageAssertUtil;
+import junit.framework.TestCase;
+
+public class TestPatternTimerGranularity extends TestCase
+{
+    private EPServiceProvider epService;
+
+    public void setUp()
+    {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.addEventType(SupportBean.class);
+        config.addEventType(SupportBean_S0.class);
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+    }
+
+    public void testIntervalBatch()
+    {
+        sendTimer(0);
+        SupportUpdateListener listener = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("@Hint('pattern_timer_granularity=1') select a.id as c0 " +
+                "from pattern [every a=SupportBean_S0 -> timer:interval(2 sec)]").addListener(listener);
+
+        for (int i = 1; i <= 1000; i++) {
+            sendTimer(i);
+            epService.getEPRuntime().sendEvent(new SupportBean_S0(i));
+        }
+        assertEquals(1, countSchedules());
+
+        sendTimer(2999);
+        assertFalse(listener.isInvoked());
+
+        sendTimer(3000);
+        assertEquals(1000, listener.getNewDataListFlattened().length);
+        listener.reset();
+        assertEquals(0, countSchedules());
+    }
+
+    public void testWithinGuard()
+    {
+        sendTimer(0);
+        SupportUpdateListener listener = new SupportUpdateListener();
+        EPStatement stmt = epService.getEPAdministrator().createEPL("@Hint('pattern_timer_granularity=0.5') select a.id as c0 " +
+                "from pattern [every a=SupportBean_S0 -> (SupportBean(intPrimitive=a.id) where timer:within(1 sec))]");
+        stmt.addListener(listener);
+
+        sendTimer(100);
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(1));
+        sendTimer(200);
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(2));
+        sendTimer(600);
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(3));
+        assertEquals(2, countSchedules());
+
+        // the guard for 1 ends with the sub-expression, the tick is kept for 2
+        epService.getEPRuntime().sendEvent(new SupportBean("E1", 1));
+        assertEquals(1, listener.assertOneGetNewAndReset().get("c0"));
+        assertEquals(2, countSchedules());
+
+        // timeouts round up to the granularity
+        sendTimer(1499);
+        epService.getEPRuntime().sendEvent(new SupportBean("E2", 2));
+        assertEquals(2, listener.assertOneGetNewAndReset().get("c0"));
+        assertEquals(1, countSchedules());
+
+        sendTimer(2000);
+        assertEquals(0, countSchedules());
+        epService.getEPRuntime().sendEvent(new SupportBean("E3", 3));
+        assertFalse(listener.isInvoked());
+
+        epService.getEPRuntime().sendEvent(new SupportBean_S0(4));
+        stmt.stop();
+        assertEquals(0, countSchedules());
+    }
+
+    public void testSameResultsAsPlain()
+    {
+        sendTimer(0);
+        String pattern = "every a=SupportBean_S0 -> (b=SupportBean(intPrimitive=a.id) where timer:within(1 sec)) -> timer:interval(1 sec)";
+        SupportUpdateListener listenerPlain = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("select a.id as c0, b.theString as c1 from pattern [" + pattern + "]").addListener(listenerPlain);
+        SupportUpdateListener listenerBuckets = new SupportUpdateListener();
+        epService.getEPAdministrator().createEPL("@Hint('pattern_timer_granularity=0.001') select a.id as c0, b.theString as c1 from pattern [" + pattern + "]").addListener(listenerBuckets);
+
+        for (int i = 0; i < 500; i++) {
+            sendTimer(i * 100);
+            if (i % 3 == 0) {
+                epService.getEPRuntime().sendEvent(new SupportBean_S0(i % 7));
+            }
+            else {
+                epService.getEPRuntime().sendEvent(new SupportBean("E" + i, i % 7));
+            }
+            EPAssertionUtil.assertPropsPerRowAnyOrder(listenerBuckets.getNewDataListFlattened(), "c0,c1".split(","),
+                    EPAssertionUtil.eventsToObjectArr(listenerPlain.getNewDataListFlattened(), "c0,c1".split(",")));
+            listenerPlain.reset();
+            listenerBuckets.reset();
+        }
+    }
+
+    public void testInvalid()
+    {
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('pattern_timer_granularity=x') select * from pattern [timer:interval(1 sec)]",
+                "Invalid value for hint 'PATTERN_TIMER_GRANULARITY', expected a number of seconds but received 'x' [");
+        SupportMessageAssertUtil.tryInvalid(epService, "@Hint('pattern_timer_granularity=0') select * from pattern [timer:interval(1 sec)]",
+                "Invalid value for hint 'PATTERN_TIMER_GRANULARITY', expected a granularity of at least 1 millisecond but received '0' [");
+    }
+
+    private int countSchedules() {
+        final int[] count = new int[1];
+        ((SchedulingServiceSPI) ((EPServiceProviderSPI) epService).getSchedulingService()).visitSchedules(new ScheduleVisitor() {
+            public void visit(ScheduleVisit visit) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private void sendTimer(long time) {
+        epService.getEPRuntime().sendEvent(new CurrentTimeEvent(time));
+    }
+}
@@ -24,6 +24,7 @@ import com.espertech.esper.support.bean.SupportBeanString;
 import com.espertech.esper.support.bean.SupportBean_A;
 import com.espertech.esper.support.bean.SupportMarketDataBean;
 import com.espertech.esper.support.client.SupportConfigFactory;
+import com.espertech.esper.support.util.SupportMessageAssertUtil;
 import junit.framework.TestCase;
 
 public class TestOutputLimitEventPerGroup extends TestCase
@@ -839,6 +840,155 @@ public class TestOutputLimitEventPerGroup extends TestCase
         listener.reset();
     }
 
+    public void testSnapshotChangedGroups()
+    {
+        runAssertionSnapshotChangedGroups("SupportBean#keepall");
+        runAssertionSnapshotChangedGroups("SupportBean");
+        runAssertionSnapshotChangedGroupsLeaving("");
+        runAssertionSnapshotChangedGroupsLeaving("@Hint('disable_reclaim_group') ");
+        runAssertionSnapshotChangedGroupsJoin();
+        runAssertionSnapshotChangedGroupsJoinLeaving();
+        runAssertionSnapshotChangedGroupsRowPerEvent();
+
+        SupportMessageAssertUtil.tryInvalid(epService,
+                "@Hint('snapshot_changed_groups') select theString, sum(intPrimitive) from SupportBean group by theString output last every 1 seconds",
+                "Error starting statement: The SNAPSHOT_CHANGED_GROUPS hint requires output snapshot and grouped aggregation without rollup");
+        SupportMessageAssertUtil.tryInvalid(epService,
+                "@Hint('snapshot_changed_groups') select sum(intPrimitive) from SupportBean output snapshot every 1 seconds",
+                "Error starting statement: The SNAPSHOT_CHANGED_GROUPS hint requires output snapshot and grouped aggregation without rollup");
+    }
+
+    private void runAssertionSnapshotChangedGroups(String from)
+    {
+        sendTimer(0);
+        String[] fields = "theString,total".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("@Hint('snapshot_changed_groups') select theString, sum(intPrimitive) as total from " + from +
+                " group by theString output snapshot every 1 seconds order by theString asc");
+        stmt.addListener(listener);
+
+        sendBeanEvent("E1", 1);
+        sendBeanEvent("E2", 2);
+        sendBeanEvent("E3", 3);
+        sendTimer(1000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E1", 1}, {"E2", 2}, {"E3", 3}});
+
+        sendBeanEvent("E3", 10);
+        sendBeanEvent("E1", 20);
+        sendTimer(2000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E1", 21}, {"E3", 13}});
+
+        sendTimer(3000);
+        assertNull(listener.getLastNewData());
+        listener.reset();
+
+        sendBeanEvent("E2", 5);
+        sendTimer(4000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E2", 7}});
+
+        // iterator remains the full snapshot
+        EPAssertionUtil.assertPropsPerRow(stmt.iterator(), fields, new Object[][]{{"E1", 21}, {"E2", 7}, {"E3", 13}});
+
+        stmt.destroy();
+    }
+
+    private void runAssertionSnapshotChangedGroupsLeaving(String hint)
+    {
+        sendTimer(0);
+        String[] fields = "theString,total".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL(hint + "@Hint('snapshot_changed_groups') select theString, sum(intPrimitive) as total from SupportBean#length(2) " +
+                "group by theString output snapshot every 1 seconds order by theString asc");
+        stmt.addListener(listener);
+
+        sendBeanEvent("E1", 1);
+        sendBeanEvent("E2", 2);
+        sendTimer(1000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E1", 1}, {"E2", 2}});
+
+        // E1 leaves the window and no longer has a row, E3 is new
+        sendBeanEvent("E3", 3);
+        sendTimer(2000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E3", 3}});
+
+        // E2 leaves, E3 receives another event
+        sendBeanEvent("E3", 4);
+        sendTimer(3000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E3", 7}});
+
+        stmt.destroy();
+    }
+
+    private void runAssertionSnapshotChangedGroupsJoin()
+    {
+        epService.getEPAdministrator().getConfiguration().addEventType("SupportBean_A", SupportBean_A.class);
+        sendTimer(0);
+        String[] fields = "theString,total".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("@Hint('snapshot_changed_groups') select theString, sum(intPrimitive) as total " +
+                "from SupportBean_A#lastevent, SupportBean#keepall group by theString output snapshot every 1 seconds order by theString asc");
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(new SupportBean_A("A1"));
+        sendBeanEvent("E1", 1);
+        sendBeanEvent("E2", 2);
+        sendTimer(1000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E1", 1}, {"E2", 2}});
+
+        sendBeanEvent("E2", 5);
+        sendTimer(2000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E2", 7}});
+
+        sendTimer(3000);
+        assertNull(listener.getLastNewData());
+        listener.reset();
+
+        stmt.destroy();
+    }
+
+    private void runAssertionSnapshotChangedGroupsJoinLeaving()
+    {
+        sendTimer(0);
+        String[] fields = "theString,total".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("@Hint('snapshot_changed_groups') select theString, sum(intPrimitive) as total " +
+                "from SupportBean_A#lastevent, SupportBean#length(2) group by theString output snapshot every 1 seconds order by theString asc");
+        stmt.addListener(listener);
+
+        epService.getEPRuntime().sendEvent(new SupportBean_A("A1"));
+        sendBeanEvent("E1", 1);
+        sendBeanEvent("E2", 2);
+        sendTimer(1000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E1", 1}, {"E2", 2}});
+
+        // E1 leaves the join result and no longer has a row, E3 is new
+        sendBeanEvent("E3", 3);
+        sendTimer(2000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E3", 3}});
+
+        stmt.destroy();
+    }
+
+    private void runAssertionSnapshotChangedGroupsRowPerEvent()
+    {
+        sendTimer(0);
+        String[] fields = "theString,intPrimitive,total".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("@Hint('snapshot_changed_groups') select theString, intPrimitive, sum(intPrimitive) as total from SupportBean#keepall " +
+                "group by theString output snapshot every 1 seconds order by theString asc, intPrimitive asc");
+        stmt.addListener(listener);
+
+        sendBeanEvent("E1", 1);
+        sendBeanEvent("E2", 2);
+        sendTimer(1000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E1", 1, 1}, {"E2", 2, 2}});
+
+        sendBeanEvent("E1", 3);
+        sendTimer(2000);
+        EPAssertionUtil.assertPropsPerRow(listener.getAndResetLastNewData(), fields, new Object[][]{{"E1", 1, 4}, {"E1", 3, 4}});
+
+        sendTimer(3000);
+        assertNull(listener.getLastNewData());
+        listener.reset();
+
+        stmt.destroy();
+    }
+
     public void testLimitSnapshotLimit()
     {
         sendTimer(0);
@@ -338,6 +338,61 @@ public class TestRowLimit extends TestCase {
         EPAssertionUtil.assertPropsPerRow(listener.getLastNewData(), fields, new Object[][]{{"E3", 20}, {"E2", 5}});
     }
 
+    public void testLimitedSortMatchesFullSort()
+    {
+        runAssertionLimitedSortMatchesFullSort("select theString, intPrimitive from SupportBean#length_batch(40) order by intPrimitive desc", "theString,intPrimitive", 5, 3);
+        runAssertionLimitedSortMatchesFullSort("select theString, intPrimitive from SupportBean#length_batch(40) order by theString asc, intPrimitive desc", "theString,intPrimitive", 4, 0);
+        runAssertionLimitedSortMatchesFullSort("select theString, intPrimitive from SupportBean#length_batch(40) output every 2 seconds order by intPrimitive", "theString,intPrimitive", 3, 1);
+        runAssertionLimitedSortMatchesFullSort("select theString, sum(intPrimitive) as mysum from SupportBean#length_batch(40) group by theString order by sum(intPrimitive) desc", "theString,mysum", 3, 0);
+        runAssertionLimitedSortMatchesFullSort("select theString, sum(intPrimitive) as mysum from SupportBean#length_batch(40) group by rollup(theString) order by sum(intPrimitive) desc", "theString,mysum", 3, 1);
+        runAssertionLimitedSortMatchesFullSort("select theString, sum(intPrimitive) as mysum from SupportBean#keepall group by theString output snapshot every 2 seconds order by sum(intPrimitive) desc", "theString,mysum", 3, 2);
+        runAssertionLimitedSortMatchesFullSort("select theString, sum(intPrimitive) as mysum from SupportBean group by theString output snapshot every 2 seconds order by sum(intPrimitive) desc", "theString,mysum", 4, 0);
+        runAssertionLimitedSortMatchesFullSort("select theString, intPrimitive, sum(intPrimitive) as mysum from SupportBean#keepall group by theString output snapshot every 2 seconds order by sum(intPrimitive), intPrimitive", "theString,intPrimitive,mysum", 5, 1);
+    }
+
+    private void runAssertionLimitedSortMatchesFullSort(String epl, String fieldList, int limit, int offset)
+    {
+        sendTimer(0);
+        String[] fields = fieldList.split(",");
+        SupportUpdateListener listenerLimited = new SupportUpdateListener();
+        SupportUpdateListener listenerFull = new SupportUpdateListener();
+        EPStatement stmtLimited = epService.getEPAdministrator().createEPL(epl + " limit " + limit + (offset == 0 ? "" : " offset " + offset));
+        stmtLimited.addListener(listenerLimited);
+        EPStatement stmtFull = epService.getEPAdministrator().createEPL(epl);
+        stmtFull.addListener(listenerFull);
+
+        java.util.Random random = new java.util.Random(epl.hashCode());
+        for (int batch = 0; batch < 5; batch++) {
+            for (int i = 0; i < 40; i++) {
+                sendEvent("E" + random.nextInt(15), random.nextInt(10));
+            }
+            sendTimer((batch + 1) * 2000);
+
+            EventBean[] full = listenerFull.getAndResetLastNewData();
+            assertNotNull(full);
+            EPAssertionUtil.assertPropsPerRow(listenerLimited.getAndResetLastNewData(), fields, getLimitedRows(full, fields, limit, offset));
+
+            EventBean[] fullIterated = EPAssertionUtil.iteratorToArray(stmtFull.iterator());
+            Object[][] expectedIterated = getLimitedRows(fullIterated, fields, limit, offset);
+            EPAssertionUtil.assertPropsPerRow(stmtLimited.iterator(), fields, expectedIterated.length == 0 ? null : expectedIterated);
+        }
+
+        epService.getEPAdministrator().destroyAllStatements();
+    }
+
+    private static Object[][] getLimitedRows(EventBean[] events, String[] fields, int limit, int offset)
+    {
+        int size = events == null ? 0 : Math.max(0, Math.min(limit, events.length - offset));
+        Object[][] rows = new Object[size][];
+        for (int i = 0; i < size; i++) {
+            rows[i] = new Object[fields.length];
+            for (int j = 0; j < fields.length; j++) {
+                rows[i][j] = events[offset + i].get(fields[j]);
+            }
+        }
+        return rows;
+    }
+
     public void testInvalid()
     {
         epService.getEPAdministrator().createEPL("create variable string myrows = 'abc'");
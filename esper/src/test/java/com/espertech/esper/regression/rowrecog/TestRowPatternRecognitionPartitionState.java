@@ -0,0 +1,112 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.rowrecog;
+
+import com.espertech.esper.client.EPServiceProvider;
+import com.espertech.esper.client.EPServiceProviderManager;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+public class TestRowPatternRecognitionPartitionState extends TestCase {
+
+    private static int countDefine;
+
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+
+    public void setUp() {
+        epService = EPServiceProviderManager.getDefaultProvider(SupportConfigFactory.getConfiguration());
+        epService.initialize();
+        epService.getEPAdministrator().getConfiguration().addEventType(SupportBean.class);
+        epService.getEPAdministrator().getConfiguration().addPlugInSingleRowFunction("countDefine", this.getClass().getName(), "countDefine");
+        listener = new SupportUpdateListener();
+        countDefine = 0;
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+    }
+
+    public void testMultiKeyPartition() {
+        String[] fields = "a,b0,b1,c".split(",");
+        epService.getEPAdministrator().createEPL("select * from SupportBean " +
+                "match_recognize (" +
+                "  partition by theString, intPrimitive " +
+                "  measures A.longPrimitive as a, B[0].longPrimitive as b0, B[1].longPrimitive as b1, C.longPrimitive as c " +
+                "  pattern (A B+ C) " +
+                "  define A as A.doublePrimitive = 1, B as B.doublePrimitive = 2, C as C.doublePrimitive = 3 and C.longPrimitive > A.longPrimitive" +
+                ")").addListener(listener);
+
+        for (int i = 0; i < 100; i++) {
+            sendEvent("G" + (i % 10), i % 3, i, 1);
+        }
+        for (int i = 0; i < 100; i++) {
+            sendEvent("G" + (i % 10), i % 3, 1000 + i, 2);
+        }
+        assertFalse(listener.isInvoked());
+
+        // partition {G1, 1} received events 1, 31, 61, 91 as A and 1001, 1031, 1061, 1091 as B
+        sendEvent("G1", 1, 2000, 3);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {91L, 1001L, 1031L, 2000L});
+
+        sendEvent("G1", 1, 2001, 3);
+        assertFalse(listener.isInvoked());
+
+        // partition {G2, 2} received events 2, 32, 62, 92 as A and 1002, 1032, 1062, 1092 as B
+        sendEvent("G2", 2, 2002, 3);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {92L, 1002L, 1032L, 2002L});
+    }
+
+    public void testDefineEvaluatedOncePerEvent() {
+        String[] fields = "a,c".split(",");
+        epService.getEPAdministrator().createEPL("select * from SupportBean " +
+                "match_recognize (" +
+                "  measures A.longPrimitive as a, C.longPrimitive as c " +
+                "  after match skip to next row " +
+                "  pattern (A B* C) " +
+                "  define A as A.theString = 'A', B as countDefine(B.theString in ('A', 'B')), C as C.theString = 'C' and C.longPrimitive > A.longPrimitive" +
+                ")").addListener(listener);
+
+        sendEvent("A", 0, 1, 0);
+        sendEvent("A", 0, 2, 0);
+        sendEvent("A", 0, 3, 0);
+        countDefine = 0;
+
+        // the condition for B only refers to B and is evaluated once for all three partial matches
+        sendEvent("B", 0, 4, 0);
+        assertEquals(1, countDefine);
+        sendEvent("B", 0, 5, 0);
+        assertEquals(2, countDefine);
+        assertFalse(listener.isInvoked());
+
+        sendEvent("C", 0, 6, 0);
+        EPAssertionUtil.assertPropsPerRowAnyOrder(listener.getAndResetLastNewData(), fields, new Object[][] {{1L, 6L}, {2L, 6L}, {3L, 6L}});
+    }
+
+    public static boolean countDefine(boolean value) {
+        countDefine++;
+        return value;
+    }
+
+    private void sendEvent(String theString, int intPrimitive, long longPrimitive, double doublePrimitive) {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        bean.setLongPrimitive(longPrimitive);
+        bean.setDoublePrimitive(doublePrimitive);
+        epService.getEPRuntime().sendEvent(bean);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.regression.rowrecog;
+
+import com.espertech.esper.client.Configuration;
+import com.espertech.esper.client.EPServiceProvider;
+import com.espertech.esper.client.EPServiceProviderManager;
+import com.espertech.esper.client.EPStatement;
+import com.espertech.esper.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.client.scopetest.SupportUpdateListener;
+import com.espertech.esper.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.support.bean.SupportBean;
+import com.espertech.esper.support.client.SupportConfigFactory;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TestRowPatternRecognitionSpill extends TestCase {
+
+    private EPServiceProvider epService;
+    private SupportUpdateListener listener;
+    private File directory;
+
+    public void setUp() throws IOException {
+        directory = File.createTempFile("esper-spill", "");
+        directory.delete();
+        directory.mkdir();
+
+        Configuration config = SupportConfigFactory.getConfiguration();
+        config.addEventType(SupportBean.class);
+        config.getEngineDefaults().getMatchRecognize().setSpillThresholdBytes(4000L);
+        config.getEngineDefaults().getMatchRecognize().setSpillDirectory(directory.getAbsolutePath());
+        epService = EPServiceProviderManager.getDefaultProvider(config);
+        epService.initialize();
+        listener = new SupportUpdateListener();
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.startTest(epService, this.getClass(), getName());}
+    }
+
+    public void tearDown() {
+        if (InstrumentationHelper.ENABLED) { InstrumentationHelper.endTest();}
+        listener = null;
+        epService.initialize();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    public void testSpillAndRestore() {
+        String[] fields = "a,b0,b1,c".split(",");
+        EPStatement stmt = epService.getEPAdministrator().createEPL("select * from SupportBean " +
+                "match_recognize (" +
+                "  partition by theString " +
+                "  measures A.intPrimitive as a, B[0].intPrimitive as b0, B[1].intPrimitive as b1, C.intPrimitive as c " +
+                "  pattern (A B+ C) " +
+                "  define A as A.longPrimitive = 1, B as B.longPrimitive = 2, C as C.longPrimitive = 3 and C.intPrimitive > prev(C.intPrimitive)" +
+                ")");
+        stmt.addListener(listener);
+
+        int numPartitions = 200;
+        for (int i = 0; i < numPartitions; i++) {
+            sendEvent("P" + i, i, 1);
+        }
+        for (int i = 0; i < numPartitions; i++) {
+            sendEvent("P" + i, 1000 + i, 2);
+        }
+        for (int i = 0; i < numPartitions; i++) {
+            sendEvent("P" + i, 2000 + i, 2);
+        }
+        assertFalse(listener.isInvoked());
+        assertTrue(getSpillBytes() > 0);
+
+        // the condition for C compares to the prior event of the partition, which is retained when spilled
+        sendEvent("P5", 0, 3);
+        assertFalse(listener.isInvoked());
+
+        for (int i = 0; i < numPartitions; i++) {
+            sendEvent("P" + i, 3000 + i, 3);
+            if (i == 5) {
+                assertFalse(listener.isInvoked());
+            }
+            else {
+                EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {i, 1000 + i, 2000 + i, 3000 + i});
+            }
+        }
+
+        // partitions continue to match after being restored
+        for (int i = 0; i < numPartitions; i++) {
+            sendEvent("P" + i, i, 1);
+        }
+        for (int i = 0; i < numPartitions; i++) {
+            sendEvent("P" + i, 9000 + i, 2);
+            sendEvent("P" + i, 9500 + i, 3);
+            EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {i, 9000 + i, null, 9500 + i});
+        }
+
+        stmt.destroy();
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    public void testNoSpillDataWindow() {
+        String[] fields = "a,c".split(",");
+        epService.getEPAdministrator().createEPL("select * from SupportBean#length(1000) " +
+                "match_recognize (" +
+                "  partition by theString " +
+                "  measures A.intPrimitive as a, C.intPrimitive as c " +
+                "  pattern (A C) " +
+                "  define A as A.longPrimitive = 1, C as C.longPrimitive = 3" +
+                ")").addListener(listener);
+
+        for (int i = 0; i < 200; i++) {
+            sendEvent("P" + i, i, 1);
+        }
+        assertEquals(0, directory.listFiles().length);
+
+        sendEvent("P10", 100, 3);
+        EPAssertionUtil.assertProps(listener.assertOneGetNewAndReset(), fields, new Object[] {10, 100});
+    }
+
+    private long getSpillBytes() {
+        long bytes = 0;
+        for (File file : directory.listFiles()) {
+            bytes += file.length();
+        }
+        return bytes;
+    }
+
+    private void sendEvent(String theString, int intPrimitive, long longPrimitive) {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        bean.setLongPrimitive(longPrimitive);
+        epService.getEPRuntime().sendEvent(bean);
+    }
+}
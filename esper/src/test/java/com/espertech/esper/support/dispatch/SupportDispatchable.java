@@ -27,6 +27,10 @@ public class SupportDispatchable implements Dispatchable
         instanceList.add(this);
     }
 
+    public void discard()
+    {
+    }
+
     public int getAndResetNumExecuted()
     {
         int val = numExecuted;
@@ -25,4 +25,5 @@ public interface IndexBackingTableInfo {
     public final static String BACKING_SORTED = PropertySortedEventTable.class.getSimpleName();
     public final static String BACKING_UNINDEXED = UnindexedEventTable.class.getSimpleName();
     public final static String BACKING_COMPOSITE = PropertyCompositeEventTable.class.getSimpleName();
+    public final static String BACKING_BITMAP = PropertyBitmapEventTable.class.getSimpleName();
 }
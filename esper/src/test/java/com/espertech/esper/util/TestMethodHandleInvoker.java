@@ -0,0 +1,175 @@
+/*
+ * *************************************************************************************
+ *  Copyright (C) 2006-2015 EsperTech, Inc. All rights reserved.                       *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ * *************************************************************************************
+ */
+
+package com.espertech.esper.util;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+public class TestMethodHandleInvoker extends TestCase
+{
+    public void testStaticMethod() throws Exception
+    {
+        MethodHandleInvoker invoker = MethodHandleInvoker.make(getMethod(MyFunctions.class, "add"), null);
+        assertFunction(invoker);
+        assertEquals(12L, invoker.invoke(new Object[] {5, 7L}));
+
+        invoker = MethodHandleInvoker.make(getMethod(MyFunctions.class, "constant"), null);
+        assertFunction(invoker);
+        assertEquals("c", invoker.invoke(null));
+
+        invoker = MethodHandleInvoker.make(getMethod(MyFunctions.class, "concat5"), null);
+        assertFunction(invoker);
+        assertEquals("abcde", invoker.invoke(new Object[] {"a", "b", "c", "d", "e"}));
+    }
+
+    public void testInstanceMethod() throws Exception
+    {
+        Method method = getMethod(MyFunctions.class, "multiply");
+        assertNull(MethodHandleInvoker.make(method, null));
+
+        MethodHandleInvoker invoker = MethodHandleInvoker.make(method, new MyFunctions(3));
+        assertFunction(invoker);
+        assertEquals(3.0, invoker.invoke(new Object[] {1d}));
+
+        MyFunctions target = new MyFunctions(2);
+        invoker = MethodHandleInvoker.make(getMethod(MyFunctions.class, "accumulate"), target);
+        assertFunction(invoker);
+        assertNull(invoker.invoke(new Object[] {5, true}));
+        assertEquals(10, target.getValue());
+    }
+
+    public void testMethodHandle() throws Exception
+    {
+        // more parameters than passed individually
+        MethodHandleInvoker invoker = MethodHandleInvoker.make(getMethod(MyFunctions.class, "concat6"), null);
+        assertHandle(invoker);
+        assertEquals("abcdef", invoker.invoke(new Object[] {"a", "b", "c", "d", "e", "f"}));
+
+        // non-public class
+        invoker = MethodHandleInvoker.make(getMethod(MyNonPublicFunctions.class, "negate"), null);
+        assertHandle(invoker);
+        assertEquals(-5, invoker.invoke(new Object[] {5}));
+
+        invoker = MethodHandleInvoker.make(getMethod(MyNonPublicFunctions.class, "reset"), new MyNonPublicFunctions());
+        assertHandle(invoker);
+        assertNull(invoker.invoke(null));
+    }
+
+    public void testExceptions() throws Exception
+    {
+        MethodHandleInvoker[] invokers = new MethodHandleInvoker[] {
+                MethodHandleInvoker.make(getMethod(MyFunctions.class, "fail"), null),
+                MethodHandleInvoker.make(getMethod(MyNonPublicFunctions.class, "fail"), null)};
+        for (MethodHandleInvoker invoker : invokers) {
+            try {
+                invoker.invoke(new Object[] {"text"});
+                fail();
+            }
+            catch (InvocationTargetException ex) {
+                assertEquals("failed for text", ex.getTargetException().getMessage());
+            }
+        }
+
+        // argument of the wrong type
+        try {
+            MethodHandleInvoker.make(getMethod(MyFunctions.class, "add"), null).invoke(new Object[] {"x", 1L});
+            fail();
+        }
+        catch (InvocationTargetException ex) {
+            assertTrue(ex.getTargetException() instanceof ClassCastException);
+        }
+    }
+
+    private static void assertFunction(MethodHandleInvoker invoker)
+    {
+        assertFalse(invoker.toString(), invoker.toString().startsWith("HandleInvoker"));
+    }
+
+    private static void assertHandle(MethodHandleInvoker invoker)
+    {
+        assertTrue(invoker.toString(), invoker.toString().startsWith("HandleInvoker"));
+    }
+
+    private static Method getMethod(Class clazz, String name)
+    {
+        for (Method method : clazz.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("No method " + name);
+    }
+
+    public static class MyFunctions
+    {
+        private int value;
+
+        public MyFunctions(int value) {
+            this.value = value;
+        }
+
+        public static long add(int a, long b) {
+            return a + b;
+        }
+
+        public static String constant() {
+            return "c";
+        }
+
+        public static String concat5(String a, String b, String c, String d, String e) {
+            return a + b + c + d + e;
+        }
+
+        public static String concat6(String a, String b, String c, String d, String e, String f) {
+            return a + b + c + d + e + f;
+        }
+
+        public static String fail(String text) {
+            throw new IllegalStateException("failed for " + text);
+        }
+
+        public double multiply(double factor) {
+            return value * factor;
+        }
+
+        public void accumulate(int factor, boolean apply) {
+            if (apply) {
+                value *= factor;
+            }
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
+    static class MyNonPublicFunctions
+    {
+        public static int negate(int value) {
+            return -value;
+        }
+
+        public static String fail(String text) {
+            throw new IllegalStateException("failed for " + text);
+        }
+
+        public void reset() {
+        }
+    }
+}